@@ -32,10 +32,33 @@ fi
 
 SCRIPT_DIR=$(dirname "$REAL_SCRIPT_PATH")
 JAR_FILE="${SCRIPT_DIR}/kse.jar"
-JAVA_OPTIONS="-splash:${SCRIPT_DIR}/splash.png"
+JAVA_OPTIONS=("-splash:${SCRIPT_DIR}/splash.png")
+
+# the command-line mode has no GUI, so no splash screen
+if [ "$1" == "--cli" ]; then
+    JAVA_OPTIONS=("-Djava.awt.headless=true")
+fi
+
+# class data sharing archive from the build (see task cdsArchive), a JVM of another version silently ignores it
+if [ -f "${SCRIPT_DIR}/kse.jsa" ] && [ "$1" != "--cli" ]; then
+    # the archive only matches the relative class path it was created with, so start from the script directory
+    # and make the files to open absolute first
+    ARGS=()
+    for ARG in "$@"; do
+        if [ -e "$ARG" ]; then
+            ARG="$(cd "$(dirname "$ARG")" && pwd)/$(basename "$ARG")"
+        fi
+        ARGS+=("$ARG")
+    done
+    set -- "${ARGS[@]}"
+
+    cd "${SCRIPT_DIR}" || exit 1
+    JAR_FILE="kse.jar"
+    JAVA_OPTIONS+=("-XX:SharedArchiveFile=kse.jsa" "-Xlog:cds*=off")
+fi
 
 if [ -d "${SCRIPT_DIR}/jre" ]; then
-    "${SCRIPT_DIR}/jre/bin/java" "${JAVA_OPTIONS}" -jar "${JAR_FILE}" "$@"
+    "${SCRIPT_DIR}/jre/bin/java" "${JAVA_OPTIONS[@]}" -jar "${JAR_FILE}" "$@"
 else
-    java "${JAVA_OPTIONS}" -jar "${JAR_FILE}" "$@"
+    java "${JAVA_OPTIONS[@]}" -jar "${JAR_FILE}" "$@"
 fi
@@ -0,0 +1,68 @@
+/*
+ * Copyright 2004 - 2013 Wayne Grant
+ *           2013 - 2025 Kai Kramer
+ *
+ * This file is part of KeyStore Explorer.
+ *
+ * KeyStore Explorer is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * KeyStore Explorer is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with KeyStore Explorer.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.kse.crypto;
+
+import java.security.KeyPair;
+
+import org.kse.KSE;
+import org.kse.crypto.keypair.KeyPairType;
+import org.kse.crypto.keypair.KeyPairUtil;
+import org.kse.crypto.signing.SignatureType;
+
+/**
+ * Key types the benchmarks are run with: RSA 2048, EC on P-256 and Ed25519, each with its usual signature.
+ */
+public enum BenchmarkKeyType {
+    RSA(SignatureType.SHA256_RSA),
+    EC(SignatureType.SHA256_ECDSA),
+    EDDSA(SignatureType.ED25519);
+
+    private final SignatureType signatureType;
+
+    BenchmarkKeyType(SignatureType signatureType) {
+        this.signatureType = signatureType;
+    }
+
+    /**
+     * Get the signature type used with keys of this type.
+     *
+     * @return Signature type
+     */
+    public SignatureType signatureType() {
+        return signatureType;
+    }
+
+    /**
+     * Generate a key pair of this type with BouncyCastle.
+     *
+     * @return Key pair
+     * @throws CryptoException If the key pair could not be generated
+     */
+    public KeyPair generateKeyPair() throws CryptoException {
+        switch (this) {
+        case RSA:
+            return KeyPairUtil.generateKeyPair(KeyPairType.RSA, 2048, KSE.BC);
+        case EC:
+            return KeyPairUtil.generateECKeyPair("prime256v1", KSE.BC);
+        default:
+            return KeyPairUtil.generateKeyPair(KeyPairType.ED25519, 256, KSE.BC);
+        }
+    }
+}
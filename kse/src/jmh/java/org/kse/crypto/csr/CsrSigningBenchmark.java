@@ -0,0 +1,129 @@
+/*
+ * Copyright 2004 - 2013 Wayne Grant
+ *           2013 - 2025 Kai Kramer
+ *
+ * This file is part of KeyStore Explorer.
+ *
+ * KeyStore Explorer is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * KeyStore Explorer is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with KeyStore Explorer.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.kse.crypto.csr;
+
+import java.io.File;
+import java.io.IOException;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.security.KeyPair;
+import java.security.Security;
+import java.security.cert.X509Certificate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import javax.security.auth.x500.X500Principal;
+
+import org.apache.commons.io.FileUtils;
+import org.bouncycastle.asn1.x500.X500Name;
+import org.bouncycastle.pkcs.PKCS10CertificationRequest;
+import org.bouncycastle.pkcs.jcajce.JcaPKCS10CertificationRequest;
+import org.kse.KSE;
+import org.kse.crypto.BenchmarkKeyType;
+import org.kse.crypto.csr.pkcs10.Pkcs10Util;
+import org.kse.crypto.x509.X509CertificateGenerator;
+import org.kse.crypto.x509.X509CertificateVersion;
+import org.kse.crypto.x509.X509SignerContext;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Measures signing of PEM encoded PKCS #10 CSRs: loading, verifying and issuing a certificate for a single CSR,
+ * and a batch of CSR files signed by CsrBatchSigner, including writing the certificates and the report. CA and
+ * CSRs use the same key type.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class CsrSigningBenchmark {
+    private static final X500Name ISSUER = new X500Name("CN=Benchmark CA");
+    private static final int BATCH_SIZE = 32;
+
+    @Param({ "RSA", "EC", "EDDSA" })
+    private BenchmarkKeyType keyType;
+
+    private KeyPair caKeyPair;
+    private byte[] csr;
+    private X509SignerContext signerContext;
+    private CsrBatchSigner batchSigner;
+    private File directory;
+    private List<File> csrFiles;
+
+    @Setup
+    public void setup() throws Exception {
+        Security.addProvider(KSE.BC);
+
+        caKeyPair = keyType.generateKeyPair();
+        KeyPair keyPair = keyType.generateKeyPair();
+
+        String pem = Pkcs10Util.getCsrEncodedDerPem(
+                Pkcs10Util.generateCsr(new X500Principal("CN=benchmark.example.com"), keyPair.getPublic(),
+                                       keyPair.getPrivate(), keyType.signatureType(), null, null, null, KSE.BC));
+        csr = pem.getBytes(StandardCharsets.US_ASCII);
+
+        signerContext = new X509SignerContext(caKeyPair.getPrivate(), keyType.signatureType(), KSE.BC);
+
+        X509Certificate caCert = new X509CertificateGenerator(X509CertificateVersion.VERSION3).generateSelfSigned(
+                ISSUER, TimeUnit.DAYS.toMillis(365), caKeyPair.getPublic(), caKeyPair.getPrivate(),
+                keyType.signatureType(), BigInteger.ONE);
+        batchSigner = new CsrBatchSigner(caKeyPair.getPrivate(), new X509Certificate[] { caCert },
+                                         keyType.signatureType(), KSE.BC);
+
+        directory = Files.createTempDirectory("kse-csr-benchmark").toFile();
+        csrFiles = new ArrayList<>();
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            File csrFile = new File(directory, i + ".csr");
+            FileUtils.writeByteArrayToFile(csrFile, csr);
+            csrFiles.add(csrFile);
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        FileUtils.deleteDirectory(directory);
+    }
+
+    @Benchmark
+    public X509Certificate signCsr() throws Exception {
+        PKCS10CertificationRequest pkcs10Csr = Pkcs10Util.loadCsr(csr);
+        if (!Pkcs10Util.verifyCsr(pkcs10Csr)) {
+            throw new IllegalStateException();
+        }
+
+        return signerContext.generate(X509CertificateVersion.VERSION3, pkcs10Csr.getSubject(), ISSUER, null, null,
+                                      new JcaPKCS10CertificationRequest(pkcs10Csr).getPublicKey(), BigInteger.TEN,
+                                      null);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public CsrBatchSigner.Summary signCsrBatch() throws Exception {
+        return batchSigner.sign(csrFiles, new File(directory, "out"), null);
+    }
+}
@@ -0,0 +1,145 @@
+/*
+ * Copyright 2004 - 2013 Wayne Grant
+ *           2013 - 2025 Kai Kramer
+ *
+ * This file is part of KeyStore Explorer.
+ *
+ * KeyStore Explorer is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * KeyStore Explorer is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with KeyStore Explorer.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.kse.crypto.filetype;
+
+import java.io.File;
+import java.io.IOException;
+import java.math.BigInteger;
+import java.nio.file.Files;
+import java.security.KeyPair;
+import java.security.Security;
+import java.util.Date;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import org.apache.commons.io.FileUtils;
+import org.bouncycastle.asn1.x500.X500Name;
+import org.bouncycastle.asn1.x509.CRLReason;
+import org.bouncycastle.cert.X509v2CRLBuilder;
+import org.bouncycastle.operator.jcajce.JcaContentSignerBuilder;
+import org.kse.KSE;
+import org.kse.crypto.keypair.KeyPairType;
+import org.kse.crypto.keypair.KeyPairUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Measures file type detection over a corpus with a file of every detectable CryptoFileType (BKS-V1 KeyStores are
+ * not detected), taken from the unit test data, plus a large JAR and a large CRL generated on setup. Detection from
+ * the file reads its header only, detection from bytes is the full parse of the whole file it falls back to.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class CryptoFileUtilBenchmark {
+
+    private static final String CORPUS_PATH = "src/test/resources/testdata/CryptoFileUtilTest";
+
+    private static final String LARGE_JAR = "large.jar";
+    private static final String LARGE_CRL = "large.crl";
+
+    // @formatter:off
+    @Param({
+            "keystore.jks", "keystore.jceks", "keystore.p12", "keystore.bks", "keystore.bcfks", "keystore.uber",
+            "cert.pem.cer", "cert.der.cer", "cert.p7b", "cert.base64.txt",
+            "csr.p10", "csr.spkac",
+            "test.pem.crl", "test.der.crl",
+            "rsa.enc.der.pkcs8", "rsa.unenc.pem.pkcs8", "rsa.enc.pvk", "rsa.unenc.pvk",
+            "rsa.enc.pem.key", "rsa.unenc.der.key", "rsa.pem.pub",
+            "test.jwt", "unknown.txt",
+            LARGE_JAR, LARGE_CRL
+    })
+    // @formatter:on
+    private String fileName;
+
+    private File tempDir;
+    private File file;
+
+    @Setup
+    public void setup() throws Exception {
+        Security.addProvider(KSE.BC);
+
+        tempDir = Files.createTempDirectory("benchmark").toFile();
+
+        if (LARGE_JAR.equals(fileName)) {
+            file = new File(tempDir, fileName);
+            createJar(file);
+        } else if (LARGE_CRL.equals(fileName)) {
+            file = new File(tempDir, fileName);
+            createCrl(file);
+        } else {
+            file = new File(CORPUS_PATH, fileName);
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        FileUtils.deleteDirectory(tempDir);
+    }
+
+    @Benchmark
+    public CryptoFileType detectFileTypeFromFile() throws IOException {
+        return CryptoFileUtil.detectFileType(file);
+    }
+
+    @Benchmark
+    public CryptoFileType detectFileTypeFromBytes() throws IOException {
+        return CryptoFileUtil.detectFileType(FileUtils.readFileToByteArray(file));
+    }
+
+    private static void createJar(File file) throws IOException {
+        Random random = new Random(1);
+        byte[] content = new byte[1024 * 1024];
+
+        try (ZipOutputStream zos = new ZipOutputStream(Files.newOutputStream(file.toPath()))) {
+            for (int i = 0; i < 64; i++) {
+                random.nextBytes(content);
+                zos.putNextEntry(new ZipEntry("data/entry" + i + ".bin"));
+                zos.write(content);
+                zos.closeEntry();
+            }
+        }
+    }
+
+    private static void createCrl(File file) throws Exception {
+        KeyPair keyPair = KeyPairUtil.generateKeyPair(KeyPairType.RSA, 2048, KSE.BC);
+        Date now = new Date();
+
+        X509v2CRLBuilder crlBuilder = new X509v2CRLBuilder(new X500Name("CN=benchmark"), now);
+        crlBuilder.setNextUpdate(new Date(now.getTime() + TimeUnit.DAYS.toMillis(7)));
+
+        for (int i = 1; i <= 200_000; i++) {
+            crlBuilder.addCRLEntry(BigInteger.valueOf(i), now, CRLReason.keyCompromise);
+        }
+
+        byte[] crl = crlBuilder.build(new JcaContentSignerBuilder("SHA256withRSA").build(keyPair.getPrivate()))
+                               .getEncoded();
+        Files.write(file.toPath(), crl);
+    }
+}
@@ -0,0 +1,84 @@
+/*
+ * Copyright 2004 - 2013 Wayne Grant
+ *           2013 - 2025 Kai Kramer
+ *
+ * This file is part of KeyStore Explorer.
+ *
+ * KeyStore Explorer is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * KeyStore Explorer is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with KeyStore Explorer.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.kse.crypto.keystore;
+
+import java.math.BigInteger;
+import java.security.KeyPair;
+import java.security.KeyStore;
+import java.security.Security;
+import java.security.cert.Certificate;
+import java.security.cert.X509Certificate;
+import java.util.concurrent.TimeUnit;
+
+import org.bouncycastle.asn1.x500.X500Name;
+import org.kse.KSE;
+import org.kse.crypto.BenchmarkKeyType;
+import org.kse.crypto.x509.X509CertificateGenerator;
+import org.kse.crypto.x509.X509CertificateVersion;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Measures copying of a KeyStore with the given number of key pair entries of the given key type, as done for
+ * every undoable change of a KeyStore that does not support entry deltas.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class KeyStoreUtilBenchmark {
+    private static final char[] PASSWORD = { 'p', 'a', 's', 's', 'w', 'o', 'r', 'd' };
+
+    @Param({ "PKCS12", "JKS", "BKS" })
+    private KeyStoreType keyStoreType;
+
+    @Param({ "RSA", "EC", "EDDSA" })
+    private BenchmarkKeyType keyType;
+
+    @Param({ "10", "100" })
+    private int entries;
+
+    private KeyStore keyStore;
+
+    @Setup
+    public void setup() throws Exception {
+        Security.addProvider(KSE.BC);
+
+        KeyPair keyPair = keyType.generateKeyPair();
+        X509Certificate cert = new X509CertificateGenerator(X509CertificateVersion.VERSION3).generateSelfSigned(
+                new X500Name("CN=benchmark"), TimeUnit.DAYS.toMillis(365), keyPair.getPublic(), keyPair.getPrivate(),
+                keyType.signatureType(), BigInteger.ONE);
+
+        keyStore = KeyStoreUtil.create(keyStoreType);
+        for (int i = 0; i < entries; i++) {
+            keyStore.setKeyEntry("key" + i, keyPair.getPrivate(), PASSWORD, new Certificate[] { cert });
+        }
+    }
+
+    @Benchmark
+    public KeyStore copy() throws Exception {
+        return KeyStoreUtil.copy(keyStore);
+    }
+}
@@ -0,0 +1,132 @@
+/*
+ * Copyright 2004 - 2013 Wayne Grant
+ *           2013 - 2025 Kai Kramer
+ *
+ * This file is part of KeyStore Explorer.
+ *
+ * KeyStore Explorer is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * KeyStore Explorer is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with KeyStore Explorer.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.kse.crypto.signing;
+
+import java.io.File;
+import java.io.IOException;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.security.KeyPair;
+import java.security.Security;
+import java.security.cert.X509Certificate;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.jar.Attributes;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+import java.util.jar.Manifest;
+
+import org.bouncycastle.asn1.x500.X500Name;
+import org.kse.KSE;
+import org.kse.crypto.digest.DigestType;
+import org.kse.crypto.keypair.KeyPairType;
+import org.kse.crypto.keypair.KeyPairUtil;
+import org.kse.crypto.x509.X509CertificateGenerator;
+import org.kse.crypto.x509.X509CertificateVersion;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Measures signing of JAR files with many entries. With a per-entry section in the manifest (e.g. "Sealed"
+ * attributes) the cost of looking up each section dominates unless the manifest is indexed, without them the cost
+ * of reading the entries does. Run against earlier revisions of JarSigner to compare.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class JarSignerBenchmark {
+
+    @Param({ "1000", "10000" })
+    private int entries;
+
+    @Param({ "false", "true" })
+    private boolean entrySections;
+
+    private KeyPair keyPair;
+    private X509Certificate cert;
+    private File jarFile;
+    private File signedJarFile;
+
+    @Setup
+    public void setup() throws Exception {
+        Security.addProvider(KSE.BC);
+
+        keyPair = KeyPairUtil.generateKeyPair(KeyPairType.RSA, 2048, KSE.BC);
+        cert = new X509CertificateGenerator(X509CertificateVersion.VERSION3).generateSelfSigned(
+                new X500Name("CN=benchmark"), TimeUnit.DAYS.toMillis(365), keyPair.getPublic(), keyPair.getPrivate(),
+                SignatureType.SHA256_RSA, BigInteger.ONE);
+
+        jarFile = File.createTempFile("benchmark", ".jar");
+        signedJarFile = File.createTempFile("benchmark-signed", ".jar");
+
+        createJar(jarFile, entries, entrySections);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(jarFile.toPath());
+        Files.deleteIfExists(signedJarFile.toPath());
+    }
+
+    @Benchmark
+    public File sign() throws Exception {
+        JarSigner.sign(jarFile, signedJarFile, keyPair.getPrivate(), new X509Certificate[] { cert },
+                       SignatureType.SHA256_RSA, "benchmark", "KSE", DigestType.SHA256, null, null);
+        return signedJarFile;
+    }
+
+    private static void createJar(File file, int entries, boolean entrySections) throws IOException {
+        Manifest manifest = new Manifest();
+        manifest.getMainAttributes().put(Attributes.Name.MANIFEST_VERSION, "1.0");
+
+        if (entrySections) {
+            for (int i = 0; i < entries; i++) {
+                Attributes attributes = new Attributes();
+                attributes.put(Attributes.Name.SEALED, "true");
+                manifest.getEntries().put(getEntryName(i), attributes);
+            }
+        }
+
+        Random random = new Random(1);
+        byte[] content = new byte[4096];
+
+        try (JarOutputStream jos = new JarOutputStream(Files.newOutputStream(file.toPath()), manifest)) {
+            for (int i = 0; i < entries; i++) {
+                jos.putNextEntry(new JarEntry(getEntryName(i)));
+                random.nextBytes(content);
+                jos.write(content, 0, 1024 + random.nextInt(content.length - 1024));
+                jos.write(getEntryName(i).getBytes(StandardCharsets.UTF_8));
+                jos.closeEntry();
+            }
+        }
+    }
+
+    private static String getEntryName(int i) {
+        return "org/kse/benchmark/package" + (i / 100) + "/Class" + i + ".class";
+    }
+}
@@ -0,0 +1,126 @@
+/*
+ * Copyright 2004 - 2013 Wayne Grant
+ *           2013 - 2025 Kai Kramer
+ *
+ * This file is part of KeyStore Explorer.
+ *
+ * KeyStore Explorer is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * KeyStore Explorer is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with KeyStore Explorer.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.kse.crypto.x509;
+
+import java.math.BigInteger;
+import java.security.KeyPair;
+import java.security.Security;
+import java.security.cert.X509Certificate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.bouncycastle.asn1.x500.X500Name;
+import org.kse.KSE;
+import org.kse.crypto.keypair.KeyPairUtil;
+import org.kse.crypto.signing.SignatureType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Measures ordering of certificate chains. A "long" chain consists of the given number of certificates, each issued
+ * by the next one, a "bundle" is a chain of three certificates mixed into the given number of unrelated root
+ * certificates like in a CA bundle file. The certificates are shuffled with a fixed seed. Run against earlier
+ * revisions of X509CertUtil to compare.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class X509CertChainBenchmark {
+
+    @Param({ "long", "bundle" })
+    private String shape;
+
+    @Param({ "10", "50", "150" })
+    private int size;
+
+    private X509Certificate[] certs;
+
+    @Setup
+    public void setup() throws Exception {
+        Security.addProvider(KSE.BC);
+
+        List<X509Certificate> certList = new ArrayList<>();
+
+        if ("long".equals(shape)) {
+            certList.addAll(createChain("chain", size));
+        } else {
+            for (int i = 0; i < size; i++) {
+                certList.addAll(createChain("root" + i, 1));
+            }
+            certList.addAll(createChain("chain", 3));
+        }
+
+        Collections.shuffle(certList, new Random(1));
+        certs = certList.toArray(new X509Certificate[0]);
+    }
+
+    @Benchmark
+    public X509Certificate[] orderX509CertChain() {
+        return X509CertUtil.orderX509CertChain(certs);
+    }
+
+    @Benchmark
+    public X509Certificate[] orderX509CertsChain() {
+        return X509CertUtil.orderX509CertsChain(certs);
+    }
+
+    /*
+     * Chain of the given length from the self-signed certificate at index
+     * length - 1 down to the certificate at index 0
+     */
+    private static List<X509Certificate> createChain(String name, int length) throws Exception {
+        X509CertificateGenerator generator = new X509CertificateGenerator(X509CertificateVersion.VERSION3);
+        Date validityStart = new Date();
+        Date validityEnd = new Date(validityStart.getTime() + TimeUnit.DAYS.toMillis(365));
+
+        List<X509Certificate> chain = new ArrayList<>();
+
+        KeyPair issuerKeyPair = KeyPairUtil.generateECKeyPair("prime256v1", KSE.BC);
+        X500Name issuer = new X500Name("CN=" + name + " " + (length - 1));
+
+        chain.add(generator.generateSelfSigned(issuer, validityStart, validityEnd, issuerKeyPair.getPublic(),
+                                               issuerKeyPair.getPrivate(), SignatureType.SHA256_ECDSA,
+                                               BigInteger.valueOf(length)));
+
+        for (int i = length - 2; i >= 0; i--) {
+            KeyPair keyPair = KeyPairUtil.generateECKeyPair("prime256v1", KSE.BC);
+            X500Name subject = new X500Name("CN=" + name + " " + i);
+
+            chain.add(0, generator.generate(subject, issuer, validityStart, validityEnd, keyPair.getPublic(),
+                                            issuerKeyPair.getPrivate(), SignatureType.SHA256_ECDSA,
+                                            BigInteger.valueOf(i + 1)));
+
+            issuer = subject;
+            issuerKeyPair = keyPair;
+        }
+
+        return chain;
+    }
+}
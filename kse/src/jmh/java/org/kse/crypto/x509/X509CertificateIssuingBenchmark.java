@@ -0,0 +1,110 @@
+/*
+ * Copyright 2004 - 2013 Wayne Grant
+ *           2013 - 2025 Kai Kramer
+ *
+ * This file is part of KeyStore Explorer.
+ *
+ * KeyStore Explorer is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * KeyStore Explorer is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with KeyStore Explorer.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.kse.crypto.x509;
+
+import java.math.BigInteger;
+import java.security.KeyPair;
+import java.security.Security;
+import java.security.cert.X509Certificate;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+import org.bouncycastle.asn1.ASN1Encoding;
+import org.bouncycastle.asn1.x500.X500Name;
+import org.bouncycastle.asn1.x509.BasicConstraints;
+import org.bouncycastle.asn1.x509.Extension;
+import org.bouncycastle.asn1.x509.GeneralName;
+import org.bouncycastle.asn1.x509.GeneralNames;
+import org.bouncycastle.asn1.x509.KeyUsage;
+import org.kse.KSE;
+import org.kse.crypto.BenchmarkKeyType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+
+/**
+ * Measures issuing of an end entity certificate with basic constraints, key usage and subject alternative name
+ * extensions. Compares X509CertificateGenerator, which sets up the CA key for every certificate, with an
+ * X509SignerContext that is shared by all calls and, in the threaded variant, by four threads.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class X509CertificateIssuingBenchmark {
+    private static final X500Name ISSUER = new X500Name("CN=Benchmark CA");
+    private static final X500Name SUBJECT = new X500Name("CN=benchmark.example.com");
+
+    @Param({ "RSA", "EC", "EDDSA" })
+    private BenchmarkKeyType keyType;
+
+    private KeyPair caKeyPair;
+    private KeyPair keyPair;
+    private X509ExtensionSet extensions;
+    private Date validityStart;
+    private Date validityEnd;
+    private X509SignerContext signerContext;
+
+    @Setup
+    public void setup() throws Exception {
+        Security.addProvider(KSE.BC);
+
+        caKeyPair = keyType.generateKeyPair();
+        keyPair = keyType.generateKeyPair();
+
+        extensions = new X509ExtensionSet();
+        extensions.addExtension(Extension.basicConstraints.getId(), true,
+                                X509Ext.wrapInOctetString(new BasicConstraints(false).getEncoded(ASN1Encoding.DER)));
+        extensions.addExtension(Extension.keyUsage.getId(), true, X509Ext.wrapInOctetString(
+                new KeyUsage(KeyUsage.digitalSignature | KeyUsage.keyEncipherment).getEncoded(ASN1Encoding.DER)));
+        extensions.addExtension(Extension.subjectAlternativeName.getId(), false, X509Ext.wrapInOctetString(
+                new GeneralNames(new GeneralName(GeneralName.dNSName, "benchmark.example.com")).getEncoded(
+                        ASN1Encoding.DER)));
+
+        validityStart = new Date();
+        validityEnd = new Date(validityStart.getTime() + TimeUnit.DAYS.toMillis(365));
+
+        signerContext = new X509SignerContext(caKeyPair.getPrivate(), keyType.signatureType(), KSE.BC);
+    }
+
+    @Benchmark
+    public X509Certificate generator() throws Exception {
+        return new X509CertificateGenerator(X509CertificateVersion.VERSION3).generate(
+                SUBJECT, ISSUER, validityStart, validityEnd, keyPair.getPublic(), caKeyPair.getPrivate(),
+                keyType.signatureType(), BigInteger.TEN, extensions, KSE.BC);
+    }
+
+    @Benchmark
+    public X509Certificate signerContext() throws Exception {
+        return signerContext.generate(X509CertificateVersion.VERSION3, SUBJECT, ISSUER, validityStart, validityEnd,
+                                      keyPair.getPublic(), BigInteger.TEN, extensions);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public X509Certificate signerContextThreaded() throws Exception {
+        return signerContext();
+    }
+}
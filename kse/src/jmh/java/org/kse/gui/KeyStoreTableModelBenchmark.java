@@ -0,0 +1,98 @@
+/*
+ * Copyright 2004 - 2013 Wayne Grant
+ *           2013 - 2025 Kai Kramer
+ *
+ * This file is part of KeyStore Explorer.
+ *
+ * KeyStore Explorer is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * KeyStore Explorer is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with KeyStore Explorer.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.kse.gui;
+
+import java.math.BigInteger;
+import java.security.KeyPair;
+import java.security.KeyStore;
+import java.security.Security;
+import java.security.cert.Certificate;
+import java.security.cert.X509Certificate;
+import java.util.concurrent.TimeUnit;
+
+import org.bouncycastle.asn1.x500.X500Name;
+import org.kse.KSE;
+import org.kse.crypto.BenchmarkKeyType;
+import org.kse.crypto.keystore.KeyStoreType;
+import org.kse.crypto.keystore.KeyStoreUtil;
+import org.kse.crypto.x509.X509CertificateGenerator;
+import org.kse.crypto.x509.X509CertificateVersion;
+import org.kse.gui.passwordmanager.Password;
+import org.kse.utilities.history.KeyStoreHistory;
+import org.kse.utilities.history.KeyStoreState;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Measures loading of the KeyStore table for a PKCS #12 KeyStore with the given number of entries of the given key
+ * type. Half of the entries are key pairs that are unlocked, so their key details are read, the other half are
+ * trusted certificates.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class KeyStoreTableModelBenchmark {
+    private static final Password PASSWORD = new Password(new char[] { 'p', 'a', 's', 's', 'w', 'o', 'r', 'd' });
+
+    @Param({ "RSA", "EC", "EDDSA" })
+    private BenchmarkKeyType keyType;
+
+    @Param({ "100", "1000" })
+    private int entries;
+
+    private KeyStoreHistory history;
+    private KeyStoreTableModel model;
+
+    @Setup
+    public void setup() throws Exception {
+        Security.addProvider(KSE.BC);
+
+        KeyPair keyPair = keyType.generateKeyPair();
+        X509Certificate cert = new X509CertificateGenerator(X509CertificateVersion.VERSION3).generateSelfSigned(
+                new X500Name("CN=benchmark"), TimeUnit.DAYS.toMillis(365), keyPair.getPublic(), keyPair.getPrivate(),
+                keyType.signatureType(), BigInteger.ONE);
+
+        KeyStore keyStore = KeyStoreUtil.create(KeyStoreType.PKCS12);
+        for (int i = 0; i < entries / 2; i++) {
+            keyStore.setKeyEntry("key" + i, keyPair.getPrivate(), PASSWORD.toCharArray(), new Certificate[] { cert });
+            keyStore.setCertificateEntry("cert" + i, cert);
+        }
+
+        history = new KeyStoreHistory(keyStore, "benchmark", new Password(PASSWORD), null);
+        KeyStoreState state = history.getCurrentState();
+        for (int i = 0; i < entries / 2; i++) {
+            state.setEntryPassword("key" + i, new Password(PASSWORD));
+        }
+
+        model = new KeyStoreTableModel(new KeyStoreTableColumns(), 30);
+    }
+
+    @Benchmark
+    public KeyStoreTableModel load() throws Exception {
+        model.load(history);
+        return model;
+    }
+}
@@ -0,0 +1,102 @@
+/*
+ * Copyright 2004 - 2013 Wayne Grant
+ *           2013 - 2025 Kai Kramer
+ *
+ * This file is part of KeyStore Explorer.
+ *
+ * KeyStore Explorer is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * KeyStore Explorer is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with KeyStore Explorer.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.kse.utilities.asn1;
+
+import java.math.BigInteger;
+import java.security.KeyPair;
+import java.security.Security;
+import java.security.cert.X509Certificate;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+import org.bouncycastle.asn1.ASN1Encoding;
+import org.bouncycastle.asn1.x500.X500Name;
+import org.bouncycastle.asn1.x509.BasicConstraints;
+import org.bouncycastle.asn1.x509.Extension;
+import org.bouncycastle.asn1.x509.GeneralName;
+import org.bouncycastle.asn1.x509.GeneralNames;
+import org.bouncycastle.asn1.x509.KeyUsage;
+import org.kse.KSE;
+import org.kse.crypto.BenchmarkKeyType;
+import org.kse.crypto.x509.X509CertificateGenerator;
+import org.kse.crypto.x509.X509CertificateVersion;
+import org.kse.crypto.x509.X509Ext;
+import org.kse.crypto.x509.X509ExtensionSet;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Measures the ASN.1 dump of a certificate with a few extensions whose public key and signature are of the given
+ * key type, both as a string and streamed into a buffer.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class Asn1DumpBenchmark {
+
+    @Param({ "RSA", "EC", "EDDSA" })
+    private BenchmarkKeyType keyType;
+
+    private X509Certificate cert;
+    private byte[] encodedCert;
+
+    @Setup
+    public void setup() throws Exception {
+        Security.addProvider(KSE.BC);
+
+        KeyPair keyPair = keyType.generateKeyPair();
+
+        X509ExtensionSet extensions = new X509ExtensionSet();
+        extensions.addExtension(Extension.basicConstraints.getId(), true,
+                                X509Ext.wrapInOctetString(new BasicConstraints(0).getEncoded(ASN1Encoding.DER)));
+        extensions.addExtension(Extension.keyUsage.getId(), true, X509Ext.wrapInOctetString(
+                new KeyUsage(KeyUsage.keyCertSign | KeyUsage.cRLSign).getEncoded(ASN1Encoding.DER)));
+        extensions.addExtension(Extension.subjectAlternativeName.getId(), false, X509Ext.wrapInOctetString(
+                new GeneralNames(new GeneralName(GeneralName.dNSName, "benchmark.example.com")).getEncoded(
+                        ASN1Encoding.DER)));
+
+        Date validityStart = new Date();
+        Date validityEnd = new Date(validityStart.getTime() + TimeUnit.DAYS.toMillis(365));
+        X500Name name = new X500Name("CN=benchmark,O=KeyStore Explorer,C=DE");
+
+        cert = new X509CertificateGenerator(X509CertificateVersion.VERSION3).generateSelfSigned(
+                name, validityStart, validityEnd, keyPair.getPublic(), keyPair.getPrivate(), keyType.signatureType(),
+                BigInteger.ONE, extensions, KSE.BC);
+        encodedCert = cert.getEncoded();
+    }
+
+    @Benchmark
+    public String dumpCertificate() throws Exception {
+        return new Asn1Dump().dump(cert);
+    }
+
+    @Benchmark
+    public StringBuilder dumpStreamed() throws Exception {
+        StringBuilder sb = new StringBuilder();
+        new Asn1Dump().dump(encodedCert, sb);
+        return sb;
+    }
+}
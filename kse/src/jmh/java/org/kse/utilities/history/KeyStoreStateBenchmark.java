@@ -0,0 +1,106 @@
+/*
+ * Copyright 2004 - 2013 Wayne Grant
+ *           2013 - 2025 Kai Kramer
+ *
+ * This file is part of KeyStore Explorer.
+ *
+ * KeyStore Explorer is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * KeyStore Explorer is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with KeyStore Explorer.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.kse.utilities.history;
+
+import java.math.BigInteger;
+import java.security.KeyPair;
+import java.security.KeyStore;
+import java.security.Security;
+import java.security.cert.Certificate;
+import java.security.cert.X509Certificate;
+import java.util.concurrent.TimeUnit;
+
+import org.bouncycastle.asn1.x500.X500Name;
+import org.kse.KSE;
+import org.kse.crypto.keypair.KeyPairType;
+import org.kse.crypto.keypair.KeyPairUtil;
+import org.kse.crypto.keystore.KeyStoreType;
+import org.kse.crypto.keystore.KeyStoreUtil;
+import org.kse.crypto.signing.SignatureType;
+import org.kse.crypto.x509.X509CertificateGenerator;
+import org.kse.crypto.x509.X509CertificateVersion;
+import org.kse.gui.passwordmanager.Password;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Compares the cost of creating the next undo/redo state by copying the whole KeyStore with the cost of
+ * deriving a KeyStore that records entry changes only. Each operation renames a trusted certificate entry.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class KeyStoreStateBenchmark {
+    private static final Password PASSWORD = new Password(new char[] { 'p', 'a', 's', 's', 'w', 'o', 'r', 'd' });
+    private static final HistoryAction ACTION = () -> "benchmark";
+
+    @Param({ "PKCS12", "JKS", "BKS" })
+    private KeyStoreType keyStoreType;
+
+    @Param({ "100", "3000" })
+    private int entries;
+
+    private KeyStore keyStore;
+    private KeyStoreState state;
+
+    @Setup
+    public void setup() throws Exception {
+        Security.addProvider(KSE.BC);
+
+        KeyPair keyPair = KeyPairUtil.generateKeyPair(KeyPairType.RSA, 2048, KSE.BC);
+        X509Certificate cert = new X509CertificateGenerator(X509CertificateVersion.VERSION3).generateSelfSigned(
+                new X500Name("CN=benchmark"), TimeUnit.DAYS.toMillis(365), keyPair.getPublic(), keyPair.getPrivate(),
+                SignatureType.SHA256_RSA, BigInteger.ONE);
+
+        keyStore = KeyStoreUtil.create(keyStoreType);
+        keyStore.setKeyEntry("key", keyPair.getPrivate(), PASSWORD.toCharArray(), new Certificate[] { cert });
+
+        for (int i = 0; i < entries; i++) {
+            keyStore.setCertificateEntry("cert" + i, cert);
+        }
+
+        state = new KeyStoreHistory(keyStore, "benchmark", new Password(PASSWORD), null).getCurrentState();
+    }
+
+    @Benchmark
+    public KeyStore renameWithFullCopy() throws Exception {
+        KeyStore copy = KeyStoreUtil.copy(keyStore);
+        rename(copy);
+        return copy;
+    }
+
+    @Benchmark
+    public KeyStore renameWithEntryDelta() throws Exception {
+        KeyStore derived = state.createBasisForNextState(ACTION).getKeyStore();
+        rename(derived);
+        return derived;
+    }
+
+    private static void rename(KeyStore keyStore) throws Exception {
+        keyStore.setCertificateEntry("renamed", keyStore.getCertificate("cert0"));
+        keyStore.deleteEntry("cert0");
+    }
+}
@@ -23,10 +23,13 @@ import java.io.File;
 import java.io.IOException;
 import java.nio.file.Path;
 import java.security.KeyStore;
+import java.util.Arrays;
+import java.util.Objects;
 
 import org.kse.crypto.CryptoException;
 import org.kse.crypto.keystore.KeyStoreUtil;
 import org.kse.crypto.keystore.MsCapiStoreType;
+import org.kse.crypto.x509.TrustIndex;
 
 /**
  * Singleton that maintains authority certificates KeyStores.
@@ -37,7 +40,11 @@ public class AuthorityCertificates {
 
     private static AuthorityCertificates authorityCertificates;
     private KeyStore caCertificates;
+    private File caCertificatesFile;
+    private long caCertificatesLastModified;
     private KeyStore windowsTrustedRootCertificates;
+    private TrustIndex trustIndex;
+    private KeyStore[] trustIndexKeyStores;
 
     private AuthorityCertificates() {
     }
@@ -57,11 +64,19 @@ public class AuthorityCertificates {
 
     /**
      * Get CA Certificates KeyStore. If not set this is not loaded.
-     * Instead load separately and set it for future reference.
+     * Instead load separately and set it for future reference. If the file it
+     * was loaded from has changed since, it is discarded and has to be loaded
+     * again.
      *
      * @return CA Certificates KeyStore
      */
-    public KeyStore getCaCertificates() {
+    public synchronized KeyStore getCaCertificates() {
+        if (caCertificates != null && caCertificatesFile != null &&
+            caCertificatesFile.lastModified() != caCertificatesLastModified) {
+            caCertificates = null;
+            caCertificatesFile = null;
+        }
+
         return caCertificates;
     }
 
@@ -71,7 +86,41 @@ public class AuthorityCertificates {
      * @param caCertificates CA Certificates KeyStore
      */
     public void setCaCertificates(KeyStore caCertificates) {
+        setCaCertificates(caCertificates, null);
+    }
+
+    /**
+     * Set CA Certificates KeyStore and the file it was loaded from. The
+     * KeyStore is discarded when the file changes.
+     *
+     * @param caCertificates     CA Certificates KeyStore
+     * @param caCertificatesFile CA Certificates KeyStore file or null
+     */
+    public synchronized void setCaCertificates(KeyStore caCertificates, File caCertificatesFile) {
         this.caCertificates = caCertificates;
+        this.caCertificatesFile = caCertificatesFile;
+        this.caCertificatesLastModified = caCertificatesFile != null ? caCertificatesFile.lastModified() : 0;
+    }
+
+    /**
+     * Get an index of the trusted certificates in the supplied authority
+     * certificates KeyStores. The index is reused as long as it is requested
+     * for the same KeyStores, i.e. until the CA Certificates KeyStore is
+     * discarded or replaced.
+     *
+     * @param keyStores Authority certificates KeyStores, null elements are ignored
+     * @return The index
+     * @throws CryptoException If the certificates could not be extracted
+     */
+    public synchronized TrustIndex getTrustIndex(KeyStore... keyStores) throws CryptoException {
+        KeyStore[] nonNullKeyStores = Arrays.stream(keyStores).filter(Objects::nonNull).toArray(KeyStore[]::new);
+
+        if (trustIndex == null || !Arrays.equals(trustIndexKeyStores, nonNullKeyStores)) {
+            trustIndex = TrustIndex.fromKeyStores(nonNullKeyStores);
+            trustIndexKeyStores = nonNullKeyStores;
+        }
+
+        return trustIndex;
     }
 
     /**
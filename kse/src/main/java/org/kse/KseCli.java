@@ -0,0 +1,190 @@
+/*
+ * Copyright 2004 - 2013 Wayne Grant
+ *           2013 - 2025 Kai Kramer
+ *
+ * This file is part of KeyStore Explorer.
+ *
+ * KeyStore Explorer is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * KeyStore Explorer is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with KeyStore Explorer.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.kse;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.security.KeyStore;
+import java.security.Security;
+import java.text.MessageFormat;
+import java.util.List;
+import java.util.ResourceBundle;
+
+import org.kse.cli.CliArguments;
+import org.kse.cli.CliCommand;
+import org.kse.cli.CliException;
+import org.kse.cli.CliUsageException;
+import org.kse.cli.KeyStoreBatch;
+import org.kse.crypto.CryptoException;
+import org.kse.crypto.keystore.KeyStoreType;
+import org.kse.crypto.keystore.KeyStoreUtil;
+import org.kse.gui.passwordmanager.Password;
+
+/**
+ * Entry point of the command-line mode. Runs a batch of operations against one KeyStore held in memory and saves
+ * it once, after all operations have succeeded; if an operation fails the KeyStore file is left as it was. Only the
+ * crypto and utility classes are used, so neither Swing nor a look and feel is loaded.
+ */
+public class KseCli {
+    private static ResourceBundle res = ResourceBundle.getBundle("org/kse/cli/resources");
+
+    /**
+     * First argument of {@link KSE#main(String[])} that selects the command-line mode.
+     */
+    public static final String CLI_OPTION = "--cli";
+
+    /**
+     * Exit code if all operations succeeded and the KeyStore was saved.
+     */
+    public static final int EXIT_SUCCESS = 0;
+
+    /**
+     * Exit code if an operation failed or the KeyStore could not be opened or saved.
+     */
+    public static final int EXIT_FAILURE = 1;
+
+    /**
+     * Exit code if the arguments are invalid.
+     */
+    public static final int EXIT_USAGE = 2;
+
+    private KseCli() {
+    }
+
+    /**
+     * Run the command-line mode and exit.
+     *
+     * @param args Global options followed by the operations
+     */
+    public static void main(String[] args) {
+        System.exit(run(args, System.out, System.err));
+    }
+
+    /**
+     * Run the command-line mode.
+     *
+     * @param args Global options followed by the operations
+     * @param out  Stream for progress messages and reports
+     * @param err  Stream for errors
+     * @return Exit code
+     */
+    public static int run(String[] args, PrintStream out, PrintStream err) {
+        try {
+            CliArguments arguments = CliArguments.parse(args);
+
+            if (arguments.isHelp()) {
+                out.println(res.getString("KseCli.Usage.text"));
+                return EXIT_SUCCESS;
+            }
+
+            Security.addProvider(KSE.BC);
+
+            CliCommand globalOptions = arguments.getGlobalOptions();
+            File keyStoreFile = globalOptions.getRequiredFile("keystore");
+
+            Password storePassword = globalOptions.getPassword("storepass");
+            if (storePassword == null) {
+                storePassword = new Password(new char[0]);
+            }
+
+            KeyStore keyStore = openKeyStore(globalOptions, keyStoreFile, storePassword);
+            KeyStoreBatch batch = new KeyStoreBatch(keyStore, storePassword, globalOptions.getPassword("keypass"),
+                                                    out);
+
+            List<CliCommand> commands = arguments.getCommands();
+            for (int i = 0; i < commands.size(); i++) {
+                CliCommand command = commands.get(i);
+                try {
+                    batch.run(command);
+                } catch (CliUsageException ex) {
+                    throw ex;
+                } catch (Exception ex) {
+                    throw new CliException(MessageFormat.format(res.getString("KseCli.OperationFailed.message"),
+                                                                i + 1, command.getOperation()), ex);
+                }
+            }
+
+            String outFile = globalOptions.getOption("out");
+            if (batch.isModified() || outFile != null || globalOptions.hasFlag("new")) {
+                File saveFile = outFile == null ? keyStoreFile : new File(outFile);
+                KeyStoreUtil.save(batch.getKeyStore(), saveFile, storePassword);
+                out.println(MessageFormat.format(res.getString("KseCli.Saved.message"), saveFile));
+            } else {
+                out.println(res.getString("KseCli.NotModified.message"));
+            }
+
+            return EXIT_SUCCESS;
+        } catch (CliUsageException ex) {
+            err.println(ex.getMessage());
+            err.println(res.getString("KseCli.SeeHelp.message"));
+            return EXIT_USAGE;
+        } catch (Exception ex) {
+            printError(err, ex);
+            return EXIT_FAILURE;
+        }
+    }
+
+    private static KeyStore openKeyStore(CliCommand globalOptions, File keyStoreFile, Password storePassword)
+            throws CliException, CryptoException, IOException {
+        String storeType = globalOptions.getOption("storetype");
+        KeyStoreType keyStoreType = storeType == null ? null : KeyStoreBatch.resolveKeyStoreType(storeType);
+
+        if (globalOptions.hasFlag("new")) {
+            if (keyStoreFile.exists()) {
+                throw new CliException(
+                        MessageFormat.format(res.getString("KseCli.KeyStoreExists.message"), keyStoreFile));
+            }
+            return KeyStoreUtil.create(keyStoreType == null ? KeyStoreType.PKCS12 : keyStoreType);
+        }
+
+        // loading may clear an empty password, so the one for saving is kept apart
+        Password loadPassword = new Password(storePassword);
+        try {
+            KeyStore keyStore = keyStoreType == null ? KeyStoreUtil.load(keyStoreFile, loadPassword) :
+                                KeyStoreUtil.load(keyStoreFile, loadPassword, keyStoreType);
+            if (keyStore == null) {
+                throw new CliException(
+                        MessageFormat.format(res.getString("KseCli.NotKeyStore.message"), keyStoreFile));
+            }
+            return keyStore;
+        } catch (FileNotFoundException ex) {
+            throw new CliException(MessageFormat.format(res.getString("KseCli.NoReadKeyStore.message"), keyStoreFile),
+                                   ex);
+        }
+    }
+
+    private static void printError(PrintStream err, Throwable t) {
+        err.println(t.getMessage() == null ? t.toString() : t.getMessage());
+
+        // the causes carry the details, e.g. why a KeyStore could not be loaded
+        String previous = t.getMessage();
+        for (Throwable cause = t.getCause(); cause != null; cause = cause.getCause()) {
+            String message = cause.getMessage() == null ? cause.toString() : cause.getMessage();
+            if (!message.equals(previous)) {
+                err.println(MessageFormat.format(res.getString("KseCli.Cause.message"), message));
+            }
+            previous = message;
+        }
+
+        err.println(res.getString("KseCli.NotSaved.message"));
+    }
+}
@@ -0,0 +1,205 @@
+/*
+ * Copyright 2004 - 2013 Wayne Grant
+ *           2013 - 2025 Kai Kramer
+ *
+ * This file is part of KeyStore Explorer.
+ *
+ * KeyStore Explorer is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * KeyStore Explorer is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with KeyStore Explorer.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.kse.cli;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.text.MessageFormat;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.ResourceBundle;
+
+/**
+ * Arguments of the command-line mode: global options followed by the operations to run, each with its own options.
+ * Instead of on the command line, the operations may be read from a batch file with the global option
+ * {@code -batch}. The batch file has one or more operations per line, values with spaces can be quoted and lines
+ * starting with '#' are ignored.
+ */
+public class CliArguments {
+    private static ResourceBundle res = ResourceBundle.getBundle("org/kse/cli/resources");
+
+    private static final List<String> GLOBAL_OPTIONS = Arrays.asList("keystore", "storetype", "storepass", "keypass",
+                                                                     "out", "batch");
+    private static final List<String> GLOBAL_FLAGS = Arrays.asList("new", "help");
+
+    private static final String COMMENT = "#";
+
+    private final CliCommand globalOptions;
+    private final List<CliCommand> commands;
+
+    private CliArguments(CliCommand globalOptions, List<CliCommand> commands) {
+        this.globalOptions = globalOptions;
+        this.commands = commands;
+    }
+
+    /**
+     * Parse the command-line arguments and the batch file if one is given.
+     *
+     * @param args Command-line arguments
+     * @return Parsed arguments
+     * @throws CliUsageException If the arguments are invalid
+     * @throws CliException      If the batch file cannot be read
+     */
+    public static CliArguments parse(String[] args) throws CliException {
+        CliCommand globalOptions = new CliCommand(null, GLOBAL_OPTIONS, GLOBAL_FLAGS);
+        List<CliCommand> commands = parseTokens(Arrays.asList(args), globalOptions);
+
+        String batchFile = globalOptions.getOption("batch");
+        if (batchFile != null) {
+            if (!commands.isEmpty()) {
+                throw new CliUsageException(res.getString("CliArguments.BatchAndOperations.message"));
+            }
+            commands = readBatchFile(new File(batchFile));
+        }
+
+        return new CliArguments(globalOptions, commands);
+    }
+
+    /**
+     * Get the global options.
+     *
+     * @return Global options
+     */
+    public CliCommand getGlobalOptions() {
+        return globalOptions;
+    }
+
+    /**
+     * Get the operations in the order they are to be run.
+     *
+     * @return Operations
+     */
+    public List<CliCommand> getCommands() {
+        return commands;
+    }
+
+    /**
+     * Was help requested?
+     *
+     * @return True if it was
+     */
+    public boolean isHelp() {
+        return globalOptions.hasFlag("help");
+    }
+
+    private static List<CliCommand> readBatchFile(File batchFile) throws CliException {
+        List<String> lines;
+        try {
+            lines = Files.readAllLines(batchFile.toPath(), StandardCharsets.UTF_8);
+        } catch (IOException ex) {
+            throw new CliException(
+                    MessageFormat.format(res.getString("CliArguments.NoReadBatchFile.message"), batchFile), ex);
+        }
+
+        List<CliCommand> commands = new ArrayList<>();
+        for (int i = 0; i < lines.size(); i++) {
+            String line = lines.get(i).trim();
+            if (line.isEmpty() || line.startsWith(COMMENT)) {
+                continue;
+            }
+
+            try {
+                commands.addAll(parseTokens(tokenize(line), null));
+            } catch (CliUsageException ex) {
+                throw new CliUsageException(
+                        MessageFormat.format(res.getString("CliArguments.BatchFileLine.message"), batchFile, i + 1,
+                                             ex.getMessage()));
+            }
+        }
+        return commands;
+    }
+
+    private static List<CliCommand> parseTokens(List<String> tokens, CliCommand globalOptions)
+            throws CliUsageException {
+        List<CliCommand> commands = new ArrayList<>();
+        CliCommand current = globalOptions;
+
+        for (int i = 0; i < tokens.size(); i++) {
+            String token = tokens.get(i);
+
+            if (token.length() > 1 && token.startsWith("-")) {
+                if (current == null) {
+                    throw new CliUsageException(
+                            MessageFormat.format(res.getString("CliArguments.OptionBeforeOperation.message"), token));
+                }
+                i += current.addOption(token.substring(1), tokens.subList(i + 1, tokens.size()));
+            } else {
+                CliOperation operation = CliOperation.resolveCommand(token);
+                if (operation == null) {
+                    throw new CliUsageException(
+                            MessageFormat.format(res.getString("CliArguments.UnknownOperation.message"), token));
+                }
+                current = new CliCommand(operation, operation.valueOptions(), operation.flags());
+                commands.add(current);
+            }
+        }
+
+        return commands;
+    }
+
+    /*
+     * Split a batch file line at whitespace. Single or double quotes group
+     * characters including whitespace, backslashes have no special meaning
+     * so that Windows paths can be used as they are.
+     */
+    static List<String> tokenize(String line) throws CliUsageException {
+        List<String> tokens = new ArrayList<>();
+        StringBuilder token = null;
+        char quote = 0;
+
+        for (char c : line.toCharArray()) {
+            if (quote != 0) {
+                if (c == quote) {
+                    quote = 0;
+                } else {
+                    token.append(c);
+                }
+            } else if (c == '"' || c == '\'') {
+                quote = c;
+                if (token == null) {
+                    token = new StringBuilder();
+                }
+            } else if (Character.isWhitespace(c)) {
+                if (token != null) {
+                    tokens.add(token.toString());
+                    token = null;
+                }
+            } else {
+                if (token == null) {
+                    token = new StringBuilder();
+                }
+                token.append(c);
+            }
+        }
+
+        if (quote != 0) {
+            throw new CliUsageException(res.getString("CliArguments.UnterminatedQuote.message"));
+        }
+
+        if (token != null) {
+            tokens.add(token.toString());
+        }
+
+        return tokens;
+    }
+}
@@ -0,0 +1,226 @@
+/*
+ * Copyright 2004 - 2013 Wayne Grant
+ *           2013 - 2025 Kai Kramer
+ *
+ * This file is part of KeyStore Explorer.
+ *
+ * KeyStore Explorer is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * KeyStore Explorer is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with KeyStore Explorer.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.kse.cli;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.text.MessageFormat;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.ResourceBundle;
+import java.util.Set;
+
+import org.kse.gui.passwordmanager.Password;
+
+/**
+ * An operation of the command-line mode with its options, or the global options if it has no operation.
+ * <p>
+ * Password options may also be given with the suffix {@code :env} to read the password from an environment
+ * variable, or {@code :file} to read it from the first line of a file, as known from keytool.
+ */
+public class CliCommand {
+    private static ResourceBundle res = ResourceBundle.getBundle("org/kse/cli/resources");
+
+    private static final String ENV_SUFFIX = ":env";
+    private static final String FILE_SUFFIX = ":file";
+    private static final String PASSWORD_OPTION_SUFFIX = "pass";
+
+    private final CliOperation operation;
+    private final List<String> valueOptions;
+    private final List<String> flagOptions;
+    private final Map<String, String> options = new HashMap<>();
+    private final Set<String> flags = new HashSet<>();
+
+    CliCommand(CliOperation operation, List<String> valueOptions, List<String> flagOptions) {
+        this.operation = operation;
+        this.valueOptions = valueOptions;
+        this.flagOptions = flagOptions;
+    }
+
+    /**
+     * Get the operation.
+     *
+     * @return Operation or null for the global options
+     */
+    public CliOperation getOperation() {
+        return operation;
+    }
+
+    /**
+     * Get the value of an option.
+     *
+     * @param name Option name
+     * @return Value or null if the option was not given
+     */
+    public String getOption(String name) {
+        return options.get(name);
+    }
+
+    /**
+     * Get the value of an option that must be given.
+     *
+     * @param name Option name
+     * @return Value
+     * @throws CliUsageException If the option was not given
+     */
+    public String getRequiredOption(String name) throws CliUsageException {
+        String value = options.get(name);
+        if (value == null) {
+            throw new CliUsageException(
+                    MessageFormat.format(res.getString("CliCommand.MissingOption.message"), name, getName()));
+        }
+        return value;
+    }
+
+    /**
+     * Get the file named by an option that must be given.
+     *
+     * @param name Option name
+     * @return File
+     * @throws CliUsageException If the option was not given
+     */
+    public File getRequiredFile(String name) throws CliUsageException {
+        return new File(getRequiredOption(name));
+    }
+
+    /**
+     * Get the value of an option as an integer.
+     *
+     * @param name         Option name
+     * @param defaultValue Value if the option was not given
+     * @return Value
+     * @throws CliUsageException If the value is not an integer
+     */
+    public int getIntOption(String name, int defaultValue) throws CliUsageException {
+        String value = options.get(name);
+        if (value == null) {
+            return defaultValue;
+        }
+
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException ex) {
+            throw new CliUsageException(
+                    MessageFormat.format(res.getString("CliCommand.NoIntegerValue.message"), value, name));
+        }
+    }
+
+    /**
+     * Is a flag given?
+     *
+     * @param name Flag name
+     * @return True if it is
+     */
+    public boolean hasFlag(String name) {
+        return flags.contains(name);
+    }
+
+    /**
+     * Get a password given directly, from an environment variable or from a file.
+     *
+     * @param name Password option name
+     * @return Password or null if the option was not given
+     * @throws CliException If the environment variable is not set or the file cannot be read
+     */
+    public Password getPassword(String name) throws CliException {
+        String value = options.get(name);
+        if (value != null) {
+            return new Password(value.toCharArray());
+        }
+
+        String variable = options.get(name + ENV_SUFFIX);
+        if (variable != null) {
+            value = System.getenv(variable);
+            if (value == null) {
+                throw new CliException(
+                        MessageFormat.format(res.getString("CliCommand.NoEnvironmentVariable.message"), variable));
+            }
+            return new Password(value.toCharArray());
+        }
+
+        String file = options.get(name + FILE_SUFFIX);
+        if (file != null) {
+            try {
+                List<String> lines = Files.readAllLines(new File(file).toPath(), StandardCharsets.UTF_8);
+                return new Password(lines.isEmpty() ? new char[0] : lines.get(0).toCharArray());
+            } catch (IOException ex) {
+                throw new CliException(
+                        MessageFormat.format(res.getString("CliCommand.NoReadPasswordFile.message"), file), ex);
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * Add an option parsed from the command line.
+     *
+     * @param option Option without the leading dash
+     * @param values Remaining arguments, the value is taken from the first of them
+     * @return Number of values taken
+     * @throws CliUsageException If the option is unknown, already given or has no value
+     */
+    int addOption(String option, List<String> values) throws CliUsageException {
+        if (flagOptions.contains(option)) {
+            if (!flags.add(option)) {
+                throw duplicateOption(option);
+            }
+            return 0;
+        }
+
+        String name = option;
+        if (option.endsWith(PASSWORD_OPTION_SUFFIX + ENV_SUFFIX)) {
+            name = option.substring(0, option.length() - ENV_SUFFIX.length());
+        } else if (option.endsWith(PASSWORD_OPTION_SUFFIX + FILE_SUFFIX)) {
+            name = option.substring(0, option.length() - FILE_SUFFIX.length());
+        }
+
+        if (!valueOptions.contains(name)) {
+            throw new CliUsageException(
+                    MessageFormat.format(res.getString("CliCommand.UnknownOption.message"), option, getName()));
+        }
+
+        if (options.containsKey(name) || options.containsKey(name + ENV_SUFFIX) ||
+            options.containsKey(name + FILE_SUFFIX)) {
+            throw duplicateOption(name);
+        }
+
+        if (values.isEmpty()) {
+            throw new CliUsageException(
+                    MessageFormat.format(res.getString("CliCommand.MissingValue.message"), option, getName()));
+        }
+
+        options.put(option, values.get(0));
+        return 1;
+    }
+
+    private CliUsageException duplicateOption(String option) {
+        return new CliUsageException(
+                MessageFormat.format(res.getString("CliCommand.DuplicateOption.message"), option, getName()));
+    }
+
+    private String getName() {
+        return operation == null ? res.getString("CliCommand.GlobalOptions.text") : operation.command();
+    }
+}
@@ -0,0 +1,99 @@
+/*
+ * Copyright 2004 - 2013 Wayne Grant
+ *           2013 - 2025 Kai Kramer
+ *
+ * This file is part of KeyStore Explorer.
+ *
+ * KeyStore Explorer is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * KeyStore Explorer is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with KeyStore Explorer.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.kse.cli;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Enumeration of the operations of the command-line mode with the options they accept.
+ */
+public enum CliOperation {
+    IMPORT_CERT("import-cert", new String[] { "alias", "file" }),
+    IMPORT_KEYPAIR("import-keypair", new String[] { "alias", "file", "certfile", "srcalias", "filepass", "keypass" }),
+    EXPORT_CERT("export-cert", new String[] { "alias", "file", "format" }, "chain"),
+    EXPORT_KEYPAIR("export-keypair", new String[] { "alias", "file", "format", "filepass", "keypass" }),
+    CONVERT("convert", new String[] { "type" }),
+    RENAME("rename", new String[] { "alias", "to", "keypass" }),
+    DELETE("delete", new String[] { "alias" }),
+    EXPIRY_REPORT("expiry-report", new String[] { "days", "file" }, "all", "fail");
+
+    private String command;
+    private List<String> valueOptions;
+    private List<String> flags;
+
+    CliOperation(String command, String[] valueOptions, String... flags) {
+        this.command = command;
+        this.valueOptions = Arrays.asList(valueOptions);
+        this.flags = Arrays.asList(flags);
+    }
+
+    /**
+     * Get the name of the operation on the command line.
+     *
+     * @return Command
+     */
+    public String command() {
+        return command;
+    }
+
+    /**
+     * Get the names of the options that take a value.
+     *
+     * @return Option names without the leading dash
+     */
+    public List<String> valueOptions() {
+        return valueOptions;
+    }
+
+    /**
+     * Get the names of the options that take no value.
+     *
+     * @return Option names without the leading dash
+     */
+    public List<String> flags() {
+        return flags;
+    }
+
+    /**
+     * Resolve the supplied command to a matching operation.
+     *
+     * @param command Command
+     * @return Operation or null if none
+     */
+    public static CliOperation resolveCommand(String command) {
+        for (CliOperation operation : values()) {
+            if (operation.command.equals(command)) {
+                return operation;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Returns the command.
+     *
+     * @return Command
+     */
+    @Override
+    public String toString() {
+        return command;
+    }
+}
@@ -0,0 +1,603 @@
+/*
+ * Copyright 2004 - 2013 Wayne Grant
+ *           2013 - 2025 Kai Kramer
+ *
+ * This file is part of KeyStore Explorer.
+ *
+ * KeyStore Explorer is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * KeyStore Explorer is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with KeyStore Explorer.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.kse.cli;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.Key;
+import java.security.KeyStore;
+import java.security.PrivateKey;
+import java.security.cert.Certificate;
+import java.security.cert.X509Certificate;
+import java.text.MessageFormat;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.Locale;
+import java.util.ResourceBundle;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.io.FileUtils;
+import org.kse.crypto.CryptoException;
+import org.kse.crypto.ecc.EccUtil;
+import org.kse.crypto.filetype.CryptoFileType;
+import org.kse.crypto.filetype.CryptoFileUtil;
+import org.kse.crypto.keypair.KeyPairUtil;
+import org.kse.crypto.keystore.KeyStoreType;
+import org.kse.crypto.keystore.KeyStoreUtil;
+import org.kse.crypto.privatekey.MsPvkUtil;
+import org.kse.crypto.privatekey.OpenSslPvkUtil;
+import org.kse.crypto.privatekey.Pkcs8PbeType;
+import org.kse.crypto.privatekey.Pkcs8Util;
+import org.kse.crypto.x509.X509CertUtil;
+import org.kse.gui.passwordmanager.Password;
+
+/**
+ * Runs command-line operations against one KeyStore held in memory. Operations only change the KeyStore in memory,
+ * it is up to the caller to save it once all operations have succeeded.
+ * <p>
+ * Key entries are accessed with the key password of the operation, else the key password given for the batch,
+ * else the KeyStore password.
+ */
+public class KeyStoreBatch {
+    private static ResourceBundle res = ResourceBundle.getBundle("org/kse/cli/resources");
+
+    private static final int DEFAULT_EXPIRY_DAYS = 30;
+
+    private static final String REPORT_HEADER = "Alias,Entry Type,Subject,Not After,Days Left,Status";
+    private static final String KEY_PAIR_ENTRY = "key pair";
+    private static final String TRUSTED_CERTIFICATE_ENTRY = "trusted certificate";
+    private static final String EXPIRED = "expired";
+    private static final String EXPIRING = "expiring";
+    private static final String VALID = "valid";
+
+    private static final String FORMAT_PEM = "pem";
+    private static final String FORMAT_DER = "der";
+    private static final String FORMAT_PKCS7 = "pkcs7";
+    private static final String FORMAT_PKI_PATH = "pkipath";
+    private static final String FORMAT_PKCS12 = "pkcs12";
+
+    private KeyStore keyStore;
+    private final Password storePassword;
+    private final Password keyPassword;
+    private final PrintStream out;
+    private boolean modified;
+
+    /**
+     * Construct a batch.
+     *
+     * @param keyStore      KeyStore to run the operations against
+     * @param storePassword KeyStore password
+     * @param keyPassword   Password of the key entries or null if it is the KeyStore password
+     * @param out           Stream for progress messages and reports not written to a file
+     */
+    public KeyStoreBatch(KeyStore keyStore, Password storePassword, Password keyPassword, PrintStream out) {
+        this.keyStore = keyStore;
+        this.storePassword = storePassword;
+        this.keyPassword = keyPassword;
+        this.out = out;
+    }
+
+    /**
+     * Get the KeyStore. A conversion replaces the KeyStore the batch was constructed with.
+     *
+     * @return KeyStore
+     */
+    public KeyStore getKeyStore() {
+        return keyStore;
+    }
+
+    /**
+     * Has an operation changed the KeyStore?
+     *
+     * @return True if it has
+     */
+    public boolean isModified() {
+        return modified;
+    }
+
+    /**
+     * Run an operation.
+     *
+     * @param command Operation and its options
+     * @throws CliException             If the operation cannot be run as requested
+     * @throws CryptoException          If a crypto problem occurs
+     * @throws GeneralSecurityException If a KeyStore problem occurs
+     * @throws IOException              If a file cannot be read or written
+     */
+    public void run(CliCommand command) throws CliException, CryptoException, GeneralSecurityException,
+                                               IOException {
+        switch (command.getOperation()) {
+        case IMPORT_CERT:
+            importCertificates(command);
+            break;
+        case IMPORT_KEYPAIR:
+            importKeyPair(command);
+            break;
+        case EXPORT_CERT:
+            exportCertificates(command);
+            break;
+        case EXPORT_KEYPAIR:
+            exportKeyPair(command);
+            break;
+        case CONVERT:
+            convert(command);
+            break;
+        case RENAME:
+            rename(command);
+            break;
+        case DELETE:
+            delete(command);
+            break;
+        case EXPIRY_REPORT:
+            reportExpiry(command);
+            break;
+        }
+    }
+
+    private void importCertificates(CliCommand command) throws CliException, CryptoException, IOException,
+                                                               GeneralSecurityException {
+        File file = command.getRequiredFile("file");
+        X509Certificate[] certs = X509CertUtil.loadCertificates(FileUtils.readFileToByteArray(file));
+        if (certs.length == 0) {
+            throw new CliException(MessageFormat.format(res.getString("KeyStoreBatch.NoCertificates.message"), file));
+        }
+
+        // several certificates are imported as alias, alias-2, alias-3...
+        String alias = command.getOption("alias");
+        for (int i = 0; i < certs.length; i++) {
+            String certAlias;
+            if (alias == null) {
+                certAlias = getDefaultAlias(certs[i]);
+            } else {
+                certAlias = i == 0 ? alias : alias + "-" + (i + 1);
+            }
+
+            checkAliasAvailable(certAlias);
+            keyStore.setCertificateEntry(certAlias, certs[i]);
+            modified = true;
+
+            out.println(MessageFormat.format(res.getString("KeyStoreBatch.CertificateImported.message"), certAlias));
+        }
+    }
+
+    private void importKeyPair(CliCommand command) throws CliException, CryptoException, IOException,
+                                                          GeneralSecurityException {
+        File file = command.getRequiredFile("file");
+        byte[] data = FileUtils.readFileToByteArray(file);
+        Password filePassword = command.getPassword("filepass");
+
+        String sourceAlias = null;
+        PrivateKey privateKey;
+        X509Certificate[] chain;
+
+        KeyStoreType sourceType = CryptoFileUtil.detectKeyStoreType(data);
+        if (sourceType != null) {
+            Password password = filePassword == null ? new Password(new char[0]) : filePassword;
+            KeyStore source = KeyStoreUtil.load(data, new Password(password), sourceType);
+
+            sourceAlias = command.getOption("srcalias");
+            if (sourceAlias == null) {
+                sourceAlias = findKeyPairAlias(source, file);
+            } else if (!source.containsAlias(sourceAlias) || !KeyStoreUtil.isKeyPairEntry(sourceAlias, source)) {
+                throw new CliException(
+                        MessageFormat.format(res.getString("KeyStoreBatch.NoKeyPairEntry.message"), sourceAlias,
+                                             file));
+            }
+
+            privateKey = (PrivateKey) source.getKey(sourceAlias, password.toCharArray());
+            chain = X509CertUtil.convertCertificates(source.getCertificateChain(sourceAlias));
+        } else {
+            privateKey = loadPrivateKey(data, filePassword, file);
+
+            // the certificates may follow the private key in the same file
+            String certFile = command.getOption("certfile");
+            File chainFile = certFile == null ? file : new File(certFile);
+            chain = X509CertUtil.loadCertificates(FileUtils.readFileToByteArray(chainFile));
+            if (chain.length == 0) {
+                throw new CliException(
+                        MessageFormat.format(res.getString("KeyStoreBatch.NoCertificates.message"), chainFile));
+            }
+        }
+
+        chain = X509CertUtil.orderX509CertChain(chain);
+        if (!KeyPairUtil.validKeyPair(privateKey, chain[0].getPublicKey())) {
+            throw new CliException(MessageFormat.format(res.getString("KeyStoreBatch.NoKeyPair.message"), file));
+        }
+
+        String alias = command.getOption("alias");
+        if (alias == null) {
+            alias = sourceAlias == null ? getDefaultAlias(chain[0]) : sourceAlias;
+        }
+        checkAliasAvailable(alias);
+
+        keyStore.setKeyEntry(alias, privateKey, getKeyPassword(command).toCharArray(), chain);
+        modified = true;
+
+        out.println(MessageFormat.format(res.getString("KeyStoreBatch.KeyPairImported.message"), alias));
+    }
+
+    private static String findKeyPairAlias(KeyStore source, File file) throws CliException, GeneralSecurityException {
+        for (String alias : Collections.list(source.aliases())) {
+            if (KeyStoreUtil.isKeyPairEntry(alias, source)) {
+                return alias;
+            }
+        }
+        throw new CliException(MessageFormat.format(res.getString("KeyStoreBatch.NoKeyPairInFile.message"), file));
+    }
+
+    private static PrivateKey loadPrivateKey(byte[] data, Password filePassword, File file)
+            throws CliException, CryptoException, IOException {
+        CryptoFileType fileType = CryptoFileUtil.detectFileType(data);
+        switch (fileType) {
+        case ENC_PKCS8_PVK:
+            return Pkcs8Util.loadEncrypted(data, getFilePassword(filePassword, file));
+        case UNENC_PKCS8_PVK:
+            return Pkcs8Util.load(data);
+        case ENC_OPENSSL_PVK:
+            return OpenSslPvkUtil.loadEncrypted(data, getFilePassword(filePassword, file));
+        case UNENC_OPENSSL_PVK:
+            return OpenSslPvkUtil.load(data);
+        case ENC_MS_PVK:
+            return MsPvkUtil.loadEncrypted(data, getFilePassword(filePassword, file));
+        case UNENC_MS_PVK:
+            return MsPvkUtil.load(data);
+        default:
+            throw new CliException(
+                    MessageFormat.format(res.getString("KeyStoreBatch.NoKeyPairFile.message"), file,
+                                         fileType.friendly()));
+        }
+    }
+
+    private static Password getFilePassword(Password filePassword, File file) throws CliException {
+        if (filePassword == null) {
+            throw new CliException(
+                    MessageFormat.format(res.getString("KeyStoreBatch.FilePasswordRequired.message"), file));
+        }
+        return filePassword;
+    }
+
+    private void exportCertificates(CliCommand command) throws CliException, CryptoException, IOException,
+                                                               GeneralSecurityException {
+        String alias = command.getRequiredOption("alias");
+        File file = command.getRequiredFile("file");
+        checkAliasExists(alias);
+
+        Certificate cert = keyStore.getCertificate(alias);
+        if (cert == null) {
+            throw new CliException(MessageFormat.format(res.getString("KeyStoreBatch.NoCertificate.message"), alias));
+        }
+
+        X509Certificate[] certs = { X509CertUtil.convertCertificate(cert) };
+        if (command.hasFlag("chain") && KeyStoreUtil.isKeyPairEntry(alias, keyStore)) {
+            certs = X509CertUtil.orderX509CertChain(
+                    X509CertUtil.convertCertificates(keyStore.getCertificateChain(alias)));
+        }
+
+        String format = getFormat(command, FORMAT_PEM);
+        switch (format) {
+        case FORMAT_PEM:
+            FileUtils.write(file, X509CertUtil.getCertsEncodedX509Pem(certs), StandardCharsets.US_ASCII);
+            break;
+        case FORMAT_DER:
+            if (certs.length > 1) {
+                throw new CliException(res.getString("KeyStoreBatch.DerChain.message"));
+            }
+            FileUtils.writeByteArrayToFile(file, X509CertUtil.getCertEncodedX509(certs[0]));
+            break;
+        case FORMAT_PKCS7:
+            FileUtils.writeByteArrayToFile(file, X509CertUtil.getCertsEncodedPkcs7(certs));
+            break;
+        case FORMAT_PKI_PATH:
+            FileUtils.writeByteArrayToFile(file, X509CertUtil.getCertsEncodedPkiPath(certs));
+            break;
+        default:
+            throw unknownFormat(format, FORMAT_PEM, FORMAT_DER, FORMAT_PKCS7, FORMAT_PKI_PATH);
+        }
+
+        out.println(MessageFormat.format(res.getString("KeyStoreBatch.CertificateExported.message"), alias, file));
+    }
+
+    private void exportKeyPair(CliCommand command) throws CliException, CryptoException, IOException,
+                                                          GeneralSecurityException {
+        String alias = command.getRequiredOption("alias");
+        File file = command.getRequiredFile("file");
+        checkKeyPairEntry(alias);
+
+        String format = getFormat(command, FORMAT_PKCS12);
+        if (!FORMAT_PKCS12.equals(format) && !FORMAT_PEM.equals(format)) {
+            throw unknownFormat(format, FORMAT_PKCS12, FORMAT_PEM);
+        }
+
+        PrivateKey privateKey = (PrivateKey) keyStore.getKey(alias, getKeyPassword(command).toCharArray());
+        X509Certificate[] chain = X509CertUtil.orderX509CertChain(
+                X509CertUtil.convertCertificates(keyStore.getCertificateChain(alias)));
+
+        Password filePassword = command.getPassword("filepass");
+        if (filePassword == null) {
+            filePassword = new Password(storePassword);
+        }
+
+        if (FORMAT_PKCS12.equals(format)) {
+            KeyStore pkcs12 = KeyStoreUtil.create(KeyStoreType.PKCS12);
+            pkcs12.setKeyEntry(alias, privateKey, filePassword.toCharArray(), chain);
+            KeyStoreUtil.save(pkcs12, file, filePassword);
+        } else {
+            String pemEncodedPrivKey;
+            if (filePassword.isEmpty()) {
+                pemEncodedPrivKey = Pkcs8Util.getPem(privateKey);
+            } else {
+                pemEncodedPrivKey = Pkcs8Util.getEncryptedPem(privateKey, Pkcs8PbeType.SHA1_3KEY_DESEDE,
+                                                              filePassword);
+            }
+            FileUtils.write(file, pemEncodedPrivKey + X509CertUtil.getCertsEncodedX509Pem(chain),
+                            StandardCharsets.US_ASCII);
+        }
+
+        out.println(MessageFormat.format(res.getString("KeyStoreBatch.KeyPairExported.message"), alias, file));
+    }
+
+    private void convert(CliCommand command) throws CliException, CryptoException, IOException,
+                                                    GeneralSecurityException {
+        KeyStoreType newType = resolveKeyStoreType(command.getRequiredOption("type"));
+        KeyStoreType currentType = KeyStoreType.resolveJce(keyStore.getType());
+
+        if (newType == currentType) {
+            out.println(MessageFormat.format(res.getString("KeyStoreBatch.AlreadyType.message"), newType.friendly()));
+            return;
+        }
+
+        KeyStore newKeyStore = KeyStoreUtil.create(newType);
+        char[] password = getKeyPassword(command).toCharArray();
+
+        // Copy all entries to the new KeyStore: Trusted certs, key pairs and secret keys
+        for (String alias : Collections.list(keyStore.aliases())) {
+            if (KeyStoreUtil.isTrustedCertificateEntry(alias, keyStore)) {
+                newKeyStore.setCertificateEntry(alias, keyStore.getCertificate(alias));
+            } else if (KeyStoreUtil.isKeyPairEntry(alias, keyStore)) {
+                Key privateKey = keyStore.getKey(alias, password);
+
+                if (KeyStoreUtil.isECKeyPair(alias, keyStore)) {
+                    String namedCurve = EccUtil.getNamedCurve(privateKey);
+                    if (!newType.supportsECC() || !newType.supportsNamedCurve(namedCurve)) {
+                        throw new CliException(
+                                MessageFormat.format(res.getString("KeyStoreBatch.NoEccSupport.message"), alias,
+                                                     newType.friendly()));
+                    }
+                }
+
+                X509Certificate[] chain = X509CertUtil.orderX509CertChain(
+                        X509CertUtil.convertCertificates(keyStore.getCertificateChain(alias)));
+                newKeyStore.setKeyEntry(alias, privateKey, password, chain);
+            } else if (KeyStoreUtil.isKeyEntry(alias, keyStore)) {
+                if (!newType.supportsKeyEntries()) {
+                    throw new CliException(
+                            MessageFormat.format(res.getString("KeyStoreBatch.NoKeyEntrySupport.message"), alias,
+                                                 newType.friendly()));
+                }
+                newKeyStore.setKeyEntry(alias, keyStore.getKey(alias, password), password, null);
+            }
+        }
+
+        keyStore = newKeyStore;
+        modified = true;
+
+        out.println(MessageFormat.format(res.getString("KeyStoreBatch.Converted.message"), currentType.friendly(),
+                                         newType.friendly()));
+    }
+
+    /**
+     * Resolve a KeyStore type given on the command line.
+     *
+     * @param type JCE name of a file based KeyStore type, case is ignored
+     * @return KeyStore type
+     * @throws CliUsageException If there is no file based KeyStore type of that name
+     */
+    public static KeyStoreType resolveKeyStoreType(String type) throws CliUsageException {
+        for (KeyStoreType keyStoreType : KeyStoreType.values()) {
+            if (keyStoreType.isFileBased() && keyStoreType.jce().equalsIgnoreCase(type)) {
+                return keyStoreType;
+            }
+        }
+        throw new CliUsageException(MessageFormat.format(res.getString("KeyStoreBatch.UnknownType.message"), type));
+    }
+
+    private void rename(CliCommand command) throws CliException, GeneralSecurityException {
+        String alias = command.getRequiredOption("alias");
+        String newAlias = command.getRequiredOption("to");
+        checkAliasExists(alias);
+
+        KeyStoreType type = KeyStoreType.resolveJce(keyStore.getType());
+        boolean sameAlias = type.hasCaseInsensitiveAliases() ? alias.equalsIgnoreCase(newAlias) :
+                            alias.equals(newAlias);
+        if (!sameAlias) {
+            checkAliasAvailable(newAlias);
+        }
+
+        if (KeyStoreUtil.isTrustedCertificateEntry(alias, keyStore)) {
+            Certificate cert = keyStore.getCertificate(alias);
+            keyStore.deleteEntry(alias);
+            keyStore.setCertificateEntry(newAlias, cert);
+        } else {
+            char[] password = getKeyPassword(command).toCharArray();
+            Key key = keyStore.getKey(alias, password);
+            Certificate[] chain = keyStore.getCertificateChain(alias);
+            keyStore.deleteEntry(alias);
+            keyStore.setKeyEntry(newAlias, key, password, chain);
+        }
+        modified = true;
+
+        out.println(MessageFormat.format(res.getString("KeyStoreBatch.Renamed.message"), alias, newAlias));
+    }
+
+    private void delete(CliCommand command) throws CliException, GeneralSecurityException {
+        String alias = command.getRequiredOption("alias");
+        checkAliasExists(alias);
+
+        keyStore.deleteEntry(alias);
+        modified = true;
+
+        out.println(MessageFormat.format(res.getString("KeyStoreBatch.Deleted.message"), alias));
+    }
+
+    private void reportExpiry(CliCommand command) throws CliException, CryptoException, IOException,
+                                                         GeneralSecurityException {
+        int days = command.getIntOption("days", DEFAULT_EXPIRY_DAYS);
+        if (days < 0) {
+            throw new CliUsageException(
+                    MessageFormat.format(res.getString("KeyStoreBatch.NegativeDays.message"), days));
+        }
+        boolean all = command.hasFlag("all");
+
+        long now = System.currentTimeMillis();
+        long warnBefore = now + TimeUnit.DAYS.toMillis(days);
+
+        Writer report = new StringWriter();
+        report.write(REPORT_HEADER);
+        report.write(System.lineSeparator());
+
+        int certificates = 0;
+        int expiring = 0;
+
+        List<String> aliases = Collections.list(keyStore.aliases());
+        Collections.sort(aliases);
+
+        for (String alias : aliases) {
+            // secret keys have no certificate and the chain of a key pair expires with its first certificate
+            Certificate cert = keyStore.getCertificate(alias);
+            if (cert == null) {
+                continue;
+            }
+            certificates++;
+
+            X509Certificate x509Cert = X509CertUtil.convertCertificate(cert);
+            Date notAfter = x509Cert.getNotAfter();
+
+            String status = VALID;
+            if (notAfter.getTime() < now) {
+                status = EXPIRED;
+            } else if (notAfter.getTime() < warnBefore) {
+                status = EXPIRING;
+            }
+
+            if (!VALID.equals(status)) {
+                expiring++;
+            } else if (!all) {
+                continue;
+            }
+
+            String entryType = KeyStoreUtil.isKeyPairEntry(alias, keyStore) ? KEY_PAIR_ENTRY :
+                               TRUSTED_CERTIFICATE_ENTRY;
+            long daysLeft = Math.floorDiv(notAfter.getTime() - now, TimeUnit.DAYS.toMillis(1));
+
+            writeReportField(report, alias);
+            report.write(',');
+            writeReportField(report, entryType);
+            report.write(',');
+            writeReportField(report, x509Cert.getSubjectX500Principal().getName());
+            report.write(',');
+            writeReportField(report, notAfter.toInstant().toString());
+            report.write(',');
+            writeReportField(report, Long.toString(daysLeft));
+            report.write(',');
+            writeReportField(report, status);
+            report.write(System.lineSeparator());
+        }
+
+        String file = command.getOption("file");
+        if (file == null) {
+            out.print(report);
+        } else {
+            FileUtils.write(new File(file), report.toString(), StandardCharsets.UTF_8);
+        }
+
+        out.println(MessageFormat.format(res.getString("KeyStoreBatch.ExpiryReport.message"), expiring, certificates,
+                                         days));
+
+        if (expiring > 0 && command.hasFlag("fail")) {
+            throw new CliException(
+                    MessageFormat.format(res.getString("KeyStoreBatch.CertificatesExpiring.message"), expiring));
+        }
+    }
+
+    private static void writeReportField(Writer report, String value) throws IOException {
+        // RFC 4180 quoting
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            report.write(value);
+        } else {
+            report.write('"');
+            report.write(value.replace("\"", "\"\""));
+            report.write('"');
+        }
+    }
+
+    private Password getKeyPassword(CliCommand command) throws CliException {
+        Password password = command.getPassword("keypass");
+        if (password == null) {
+            password = keyPassword == null ? storePassword : keyPassword;
+        }
+        return password;
+    }
+
+    private static String getDefaultAlias(X509Certificate cert) throws CliUsageException {
+        String alias = X509CertUtil.getCertificateAlias(cert);
+        if (alias.isEmpty()) {
+            throw new CliUsageException(
+                    MessageFormat.format(res.getString("KeyStoreBatch.NoDefaultAlias.message"),
+                                         cert.getSubjectX500Principal().getName()));
+        }
+        return alias;
+    }
+
+    private static String getFormat(CliCommand command, String defaultFormat) {
+        String format = command.getOption("format");
+        return format == null ? defaultFormat : format.toLowerCase(Locale.ROOT);
+    }
+
+    private static CliUsageException unknownFormat(String format, String... formats) {
+        return new CliUsageException(
+                MessageFormat.format(res.getString("KeyStoreBatch.UnknownFormat.message"), format,
+                                     String.join(", ", formats)));
+    }
+
+    private void checkAliasExists(String alias) throws CliException, GeneralSecurityException {
+        if (!keyStore.containsAlias(alias)) {
+            throw new CliException(MessageFormat.format(res.getString("KeyStoreBatch.NoSuchAlias.message"), alias));
+        }
+    }
+
+    private void checkAliasAvailable(String alias) throws CliException, GeneralSecurityException {
+        if (keyStore.containsAlias(alias)) {
+            throw new CliException(MessageFormat.format(res.getString("KeyStoreBatch.AliasExists.message"), alias));
+        }
+    }
+
+    private void checkKeyPairEntry(String alias) throws CliException, GeneralSecurityException {
+        checkAliasExists(alias);
+        if (!KeyStoreUtil.isKeyPairEntry(alias, keyStore)) {
+            throw new CliException(MessageFormat.format(res.getString("KeyStoreBatch.NotKeyPair.message"), alias));
+        }
+    }
+}
@@ -0,0 +1,543 @@
+/*
+ * Copyright 2004 - 2013 Wayne Grant
+ *           2013 - 2025 Kai Kramer
+ *
+ * This file is part of KeyStore Explorer.
+ *
+ * KeyStore Explorer is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * KeyStore Explorer is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with KeyStore Explorer.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.kse.crypto.csr;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.security.PrivateKey;
+import java.security.Provider;
+import java.security.PublicKey;
+import java.security.cert.X509Certificate;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.ResourceBundle;
+import java.util.Set;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.apache.commons.io.FileUtils;
+import org.bouncycastle.asn1.x500.X500Name;
+import org.bouncycastle.pkcs.PKCS10CertificationRequest;
+import org.bouncycastle.pkcs.jcajce.JcaPKCS10CertificationRequest;
+import org.kse.crypto.CryptoException;
+import org.kse.crypto.csr.pkcs10.Pkcs10Util;
+import org.kse.crypto.csr.spkac.Spkac;
+import org.kse.crypto.filetype.CryptoFileType;
+import org.kse.crypto.filetype.CryptoFileUtil;
+import org.kse.crypto.signing.SignatureType;
+import org.kse.crypto.x509.X500NameUtils;
+import org.kse.crypto.x509.X509CertUtil;
+import org.kse.crypto.x509.X509CertificateVersion;
+import org.kse.crypto.x509.X509ExtensionSet;
+import org.kse.crypto.x509.X509ExtensionSetUpdater;
+import org.kse.crypto.x509.X509ExtensionType;
+import org.kse.crypto.x509.X509SignerContext;
+import org.kse.utilities.SerialNumbers;
+import org.kse.utilities.io.FileNameUtil;
+
+/**
+ * Signs a batch of PKCS #10 and SPKAC CSRs with the same CA key, signing options and extension template. The CSRs
+ * are signed in parallel. Each certificate is written to the output directory as soon as it has been signed and a
+ * line is added to a CSV report in the same directory, so neither the certificates nor the results are held in
+ * memory until the end of the batch.
+ * <p>
+ * A CSR that cannot be read, verified or signed does not stop the batch; it is recorded as failed in the report.
+ * A signer runs one batch at a time.
+ */
+public class CsrBatchSigner {
+    private static ResourceBundle res = ResourceBundle.getBundle("org/kse/crypto/csr/resources");
+
+    /**
+     * Name of the report written to the output directory.
+     */
+    public static final String REPORT_FILE_NAME = "signing-report.csv";
+
+    private static final String REPORT_HEADER = "CSR File,Status,Serial Number,Subject,Certificate File,Error";
+    private static final String STATUS_SIGNED = "signed";
+    private static final String STATUS_FAILED = "failed";
+
+    private static final String CERT_EXT = "cer";
+    private static final String PKCS7_EXT = "p7b";
+
+    private final PrivateKey caPrivateKey;
+    private final X509Certificate[] caChain;
+    private final X500Name issuer;
+    private final SignatureType signatureType;
+    private final Provider provider;
+
+    private X509CertificateVersion version = X509CertificateVersion.VERSION3;
+    private Date validityStart;
+    private Date validityEnd;
+    private X509ExtensionSet extensionTemplate = new X509ExtensionSet();
+    private boolean transferCsrExtensions;
+    private int serialNumberLength = 20;
+    private boolean pemEncode = true;
+    private boolean includeChain;
+    private int parallelism = Runtime.getRuntime().availableProcessors();
+
+    /**
+     * Construct the signer.
+     *
+     * @param caPrivateKey  CA private key, unlocked once for the whole batch
+     * @param caChain       CA certificate chain, ordered from the CA certificate to the root
+     * @param signatureType Signature type
+     * @param provider      Provider of the CA private key or null for the default provider
+     */
+    public CsrBatchSigner(PrivateKey caPrivateKey, X509Certificate[] caChain, SignatureType signatureType,
+                          Provider provider) {
+        this.caPrivateKey = caPrivateKey;
+        this.caChain = caChain.clone();
+        this.issuer = X500NameUtils.x500PrincipalToX500Name(caChain[0].getSubjectX500Principal());
+        this.signatureType = signatureType;
+        this.provider = provider;
+    }
+
+    /**
+     * Set the version of the signed certificates. Version 1 certificates have no extensions. The default is
+     * version 3.
+     *
+     * @param version Certificate version
+     */
+    public void setVersion(X509CertificateVersion version) {
+        this.version = version;
+    }
+
+    /**
+     * Set the validity of the signed certificates. If not set, the certificates are valid for a year from the time
+     * they are signed.
+     *
+     * @param validityStart Validity start date
+     * @param validityEnd   Validity end date
+     */
+    public void setValidity(Date validityStart, Date validityEnd) {
+        this.validityStart = validityStart;
+        this.validityEnd = validityEnd;
+    }
+
+    /**
+     * Set the extensions added to every certificate. The key identifier extensions of the template are updated with
+     * the CSR's and the CA's public keys.
+     *
+     * @param extensionTemplate Extension template
+     */
+    public void setExtensionTemplate(X509ExtensionSet extensionTemplate) {
+        this.extensionTemplate = (X509ExtensionSet) extensionTemplate.clone();
+    }
+
+    /**
+     * Set whether the extensions requested in PKCS #10 CSRs are added to the certificates. Extensions of the
+     * template take precedence over requested extensions with the same OID.
+     *
+     * @param transferCsrExtensions True to add requested extensions
+     */
+    public void setTransferCsrExtensions(boolean transferCsrExtensions) {
+        this.transferCsrExtensions = transferCsrExtensions;
+    }
+
+    /**
+     * Set the length of the generated serial numbers.
+     *
+     * @param serialNumberLength Length in bytes, between 8 and 20
+     */
+    public void setSerialNumberLength(int serialNumberLength) {
+        this.serialNumberLength = serialNumberLength;
+    }
+
+    /**
+     * Set the output format. Without the chain, a certificate is written as PEM or DER encoded X.509. With the chain,
+     * the certificates are written as PEM encoded X.509 or as a DER encoded PKCS #7 certificate bundle.
+     *
+     * @param pemEncode    True to PEM encode
+     * @param includeChain True to include the CA chain
+     */
+    public void setOutputFormat(boolean pemEncode, boolean includeChain) {
+        this.pemEncode = pemEncode;
+        this.includeChain = includeChain;
+    }
+
+    /**
+     * Set the number of CSRs signed at the same time. The default is the number of available processors.
+     *
+     * @param parallelism Number of signing threads
+     */
+    public void setParallelism(int parallelism) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("Parallelism must be at least 1");
+        }
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * Sign the CSRs. Certificates are named after their CSR file; existing files of the same name in the output
+     * directory are replaced.
+     *
+     * @param csrFiles        The CSR files
+     * @param outputDirectory Directory for the certificates and the report, created if it does not exist
+     * @param listener        Notified on the calling thread after each CSR, may be null
+     * @return Summary of the batch
+     * @throws CryptoException      If the CA key cannot sign with the signature type
+     * @throws IOException          If the report could not be written
+     * @throws InterruptedException If the calling thread was interrupted; CSRs not yet signed are abandoned
+     */
+    public Summary sign(List<File> csrFiles, File outputDirectory, ProgressListener listener)
+            throws CryptoException, IOException, InterruptedException {
+        // shared by the signing threads so that the CA key is not set up again for every certificate
+        X509SignerContext signerContext = new X509SignerContext(caPrivateKey, signatureType, provider);
+
+        Files.createDirectories(outputDirectory.toPath());
+
+        List<File> certificateFiles = getCertificateFiles(csrFiles, outputDirectory);
+        Set<BigInteger> serialNumbers = ConcurrentHashMap.newKeySet();
+        File reportFile = new File(outputDirectory, REPORT_FILE_NAME);
+
+        int total = csrFiles.size();
+        int signed = 0;
+
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, Math.min(parallelism, total)));
+        try (Writer report = Files.newBufferedWriter(reportFile.toPath(), StandardCharsets.UTF_8)) {
+            report.write(REPORT_HEADER);
+            report.write(System.lineSeparator());
+
+            CompletionService<Result> completionService = new ExecutorCompletionService<>(executor);
+            for (int i = 0; i < total; i++) {
+                File csrFile = csrFiles.get(i);
+                File certificateFile = certificateFiles.get(i);
+                completionService.submit(() -> signCsr(signerContext, csrFile, certificateFile, serialNumbers));
+            }
+
+            for (int processed = 1; processed <= total; processed++) {
+                Result result = getResult(completionService);
+                if (result.isSigned()) {
+                    signed++;
+                }
+
+                writeReportLine(report, result);
+                report.flush();
+
+                if (listener != null) {
+                    listener.csrProcessed(result, processed, total);
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        return new Summary(signed, total - signed, reportFile);
+    }
+
+    private static Result getResult(CompletionService<Result> completionService) throws InterruptedException {
+        try {
+            return completionService.take().get();
+        } catch (ExecutionException ex) {
+            // signCsr() records exceptions in its result, so this is an error
+            throw new IllegalStateException(ex.getCause());
+        }
+    }
+
+    private List<File> getCertificateFiles(List<File> csrFiles, File outputDirectory) {
+        String extension = includeChain && !pemEncode ? PKCS7_EXT : CERT_EXT;
+
+        // names are compared ignoring case for case-insensitive file systems
+        Set<String> names = new HashSet<>();
+        names.add(REPORT_FILE_NAME);
+
+        List<File> certificateFiles = new ArrayList<>(csrFiles.size());
+        for (File csrFile : csrFiles) {
+            String baseName = FileNameUtil.removeExtension(csrFile.getName());
+            String name = baseName + "." + extension;
+            for (int i = 2; !names.add(name.toLowerCase(Locale.ROOT)); i++) {
+                name = baseName + "-" + i + "." + extension;
+            }
+            certificateFiles.add(new File(outputDirectory, name));
+        }
+        return certificateFiles;
+    }
+
+    private Result signCsr(X509SignerContext signerContext, File csrFile, File certificateFile,
+                           Set<BigInteger> serialNumbers) {
+        X500Name subject = null;
+        try {
+            byte[] data = FileUtils.readFileToByteArray(csrFile);
+
+            PublicKey publicKey;
+            X509ExtensionSet csrExtensions = null;
+
+            CryptoFileType fileType = CryptoFileUtil.detectFileType(data);
+            if (fileType == CryptoFileType.PKCS10_CSR) {
+                PKCS10CertificationRequest pkcs10Csr = Pkcs10Util.loadCsr(data);
+                if (!Pkcs10Util.verifyCsr(pkcs10Csr)) {
+                    throw new CryptoException(res.getString("NoVerifyCsr.exception.message"));
+                }
+                subject = pkcs10Csr.getSubject();
+                publicKey = new JcaPKCS10CertificationRequest(pkcs10Csr).getPublicKey();
+                if (transferCsrExtensions) {
+                    csrExtensions = Pkcs10Util.getExtensions(pkcs10Csr);
+                }
+            } else if (fileType == CryptoFileType.SPKAC_CSR) {
+                Spkac spkacCsr = new Spkac(data);
+                if (!spkacCsr.verify()) {
+                    throw new CryptoException(res.getString("NoVerifyCsr.exception.message"));
+                }
+                subject = spkacCsr.getSubject().getName();
+                publicKey = spkacCsr.getPublicKey();
+            } else {
+                throw new CryptoException(res.getString("NotCsr.exception.message"));
+            }
+
+            X509ExtensionSet extensions = null;
+            if (version == X509CertificateVersion.VERSION3) {
+                extensions = getExtensions(csrExtensions, publicKey);
+            }
+
+            // RFC 5280: an empty subject requires a critical subjectAltName extension
+            if (subject.getRDNs().length == 0 && (extensions == null || !extensions.isCritical(
+                    X509ExtensionType.SUBJECT_ALTERNATIVE_NAME.oid()))) {
+                throw new CryptoException(res.getString("CritSanRequired.exception.message"));
+            }
+
+            BigInteger serialNumber = generateSerialNumber(serialNumbers);
+
+            X509Certificate certificate = signerContext.generate(version, subject, issuer, validityStart,
+                                                                 validityEnd, publicKey, serialNumber, extensions);
+
+            writeCertificate(certificate, certificateFile);
+
+            return new Result(csrFile, subject, serialNumber, certificateFile, null);
+        } catch (Exception ex) {
+            return new Result(csrFile, subject, null, null, ex);
+        }
+    }
+
+    private X509ExtensionSet getExtensions(X509ExtensionSet csrExtensions, PublicKey publicKey)
+            throws CryptoException, IOException {
+        X509ExtensionSet extensions = (X509ExtensionSet) extensionTemplate.clone();
+
+        if (csrExtensions != null) {
+            for (String oid : csrExtensions.getCriticalExtensionOIDs()) {
+                addIfAbsent(extensions, oid, true, csrExtensions.getExtensionValue(oid));
+            }
+            for (String oid : csrExtensions.getNonCriticalExtensionOIDs()) {
+                addIfAbsent(extensions, oid, false, csrExtensions.getExtensionValue(oid));
+            }
+        }
+
+        X509ExtensionSetUpdater.update(extensions, publicKey, caChain[0].getPublicKey(), issuer,
+                                       caChain[0].getSerialNumber());
+        return extensions;
+    }
+
+    private static void addIfAbsent(X509ExtensionSet extensions, String oid, boolean isCritical, byte[] value) {
+        if (extensions.getExtensionValue(oid) == null) {
+            extensions.addExtension(oid, isCritical, value);
+        }
+    }
+
+    private BigInteger generateSerialNumber(Set<BigInteger> serialNumbers) {
+        // short serial numbers have few random bytes, so certificates signed in the same millisecond may collide
+        BigInteger serialNumber;
+        do {
+            serialNumber = SerialNumbers.generate(serialNumberLength);
+        } while (!serialNumbers.add(serialNumber));
+        return serialNumber;
+    }
+
+    private void writeCertificate(X509Certificate certificate, File certificateFile)
+            throws CryptoException, IOException {
+        byte[] encoded;
+        if (includeChain) {
+            X509Certificate[] chain = new X509Certificate[caChain.length + 1];
+            chain[0] = certificate;
+            System.arraycopy(caChain, 0, chain, 1, caChain.length);
+
+            if (pemEncode) {
+                encoded = X509CertUtil.getCertsEncodedX509Pem(chain).getBytes(StandardCharsets.US_ASCII);
+            } else {
+                encoded = X509CertUtil.getCertsEncodedPkcs7(chain);
+            }
+        } else {
+            if (pemEncode) {
+                encoded = X509CertUtil.getCertEncodedX509Pem(certificate).getBytes(StandardCharsets.US_ASCII);
+            } else {
+                encoded = X509CertUtil.getCertEncodedX509(certificate);
+            }
+        }
+
+        Files.write(certificateFile.toPath(), encoded);
+    }
+
+    private static void writeReportLine(Writer report, Result result) throws IOException {
+        writeReportField(report, result.getCsrFile().getPath());
+        report.write(',');
+        writeReportField(report, result.isSigned() ? STATUS_SIGNED : STATUS_FAILED);
+        report.write(',');
+        if (result.getSerialNumber() != null) {
+            writeReportField(report, "0x" + result.getSerialNumber().toString(16).toUpperCase(Locale.ROOT));
+        }
+        report.write(',');
+        if (result.getSubject() != null) {
+            writeReportField(report, result.getSubject().toString());
+        }
+        report.write(',');
+        if (result.getCertificateFile() != null) {
+            writeReportField(report, result.getCertificateFile().getName());
+        }
+        report.write(',');
+        if (result.getError() != null) {
+            String message = result.getError().getMessage();
+            writeReportField(report, message != null ? message : result.getError().toString());
+        }
+        report.write(System.lineSeparator());
+    }
+
+    private static void writeReportField(Writer report, String value) throws IOException {
+        // RFC 4180 quoting
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            report.write(value);
+        } else {
+            report.write('"');
+            report.write(value.replace("\"", "\"\""));
+            report.write('"');
+        }
+    }
+
+    /**
+     * Notified as the CSRs of a batch are processed.
+     */
+    public interface ProgressListener {
+        /**
+         * A CSR has been signed or has failed.
+         *
+         * @param result    Result for the CSR
+         * @param processed Number of CSRs processed so far
+         * @param total     Number of CSRs in the batch
+         */
+        void csrProcessed(Result result, int processed, int total);
+    }
+
+    /**
+     * Result of signing a single CSR.
+     */
+    public static final class Result {
+        private final File csrFile;
+        private final X500Name subject;
+        private final BigInteger serialNumber;
+        private final File certificateFile;
+        private final Exception error;
+
+        private Result(File csrFile, X500Name subject, BigInteger serialNumber, File certificateFile,
+                       Exception error) {
+            this.csrFile = csrFile;
+            this.subject = subject;
+            this.serialNumber = serialNumber;
+            this.certificateFile = certificateFile;
+            this.error = error;
+        }
+
+        /**
+         * @return The CSR file
+         */
+        public File getCsrFile() {
+            return csrFile;
+        }
+
+        /**
+         * @return True if the certificate was signed and written
+         */
+        public boolean isSigned() {
+            return error == null;
+        }
+
+        /**
+         * @return Certificate subject or null if the CSR could not be read
+         */
+        public X500Name getSubject() {
+            return subject;
+        }
+
+        /**
+         * @return Certificate serial number or null if not signed
+         */
+        public BigInteger getSerialNumber() {
+            return serialNumber;
+        }
+
+        /**
+         * @return Certificate file or null if not signed
+         */
+        public File getCertificateFile() {
+            return certificateFile;
+        }
+
+        /**
+         * @return Reason the CSR failed or null if signed
+         */
+        public Exception getError() {
+            return error;
+        }
+    }
+
+    /**
+     * Summary of a batch.
+     */
+    public static final class Summary {
+        private final int signed;
+        private final int failed;
+        private final File reportFile;
+
+        private Summary(int signed, int failed, File reportFile) {
+            this.signed = signed;
+            this.failed = failed;
+            this.reportFile = reportFile;
+        }
+
+        /**
+         * @return Number of signed CSRs
+         */
+        public int getSigned() {
+            return signed;
+        }
+
+        /**
+         * @return Number of failed CSRs
+         */
+        public int getFailed() {
+            return failed;
+        }
+
+        /**
+         * @return The report file
+         */
+        public File getReportFile() {
+            return reportFile;
+        }
+    }
+}
@@ -0,0 +1,445 @@
+/*
+ * Copyright 2004 - 2013 Wayne Grant
+ *           2013 - 2025 Kai Kramer
+ *
+ * This file is part of KeyStore Explorer.
+ *
+ * KeyStore Explorer is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * KeyStore Explorer is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with KeyStore Explorer.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.kse.crypto.filetype;
+
+import static org.kse.crypto.filetype.CryptoFileType.BCFKS_KS;
+import static org.kse.crypto.filetype.CryptoFileType.BKS_KS;
+import static org.kse.crypto.filetype.CryptoFileType.CERT;
+import static org.kse.crypto.filetype.CryptoFileType.CRL;
+import static org.kse.crypto.filetype.CryptoFileType.ENC_MS_PVK;
+import static org.kse.crypto.filetype.CryptoFileType.ENC_OPENSSL_PVK;
+import static org.kse.crypto.filetype.CryptoFileType.ENC_PKCS8_PVK;
+import static org.kse.crypto.filetype.CryptoFileType.JAR;
+import static org.kse.crypto.filetype.CryptoFileType.JCEKS_KS;
+import static org.kse.crypto.filetype.CryptoFileType.JKS_KS;
+import static org.kse.crypto.filetype.CryptoFileType.OPENSSL_PUB;
+import static org.kse.crypto.filetype.CryptoFileType.PKCS10_CSR;
+import static org.kse.crypto.filetype.CryptoFileType.PKCS12_KS;
+import static org.kse.crypto.filetype.CryptoFileType.UBER_KS;
+import static org.kse.crypto.filetype.CryptoFileType.UNENC_MS_PVK;
+import static org.kse.crypto.filetype.CryptoFileType.UNENC_OPENSSL_PVK;
+import static org.kse.crypto.filetype.CryptoFileType.UNENC_PKCS8_PVK;
+import static org.kse.crypto.filetype.CryptoFileType.UNKNOWN;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.kse.crypto.privatekey.EncryptionType;
+import org.kse.crypto.privatekey.MsPvkUtil;
+import org.kse.utilities.pem.PemUtil;
+
+/**
+ * The first bytes of a file, from which its cryptographic file type can be told in most cases without reading the
+ * rest of it: magic numbers, the label of a PEM header or the tags of the outer levels of a DER structure. Tags
+ * beyond the header window are read from the file individually.
+ */
+class CryptoFileHeader {
+    static final int HEADER_SIZE = 8192;
+
+    private static final int MAX_CHILDREN = 10;
+
+    private static final int SEQUENCE = 0x30;
+    private static final int INTEGER = 0x02;
+    private static final int BIT_STRING = 0x03;
+    private static final int OCTET_STRING = 0x04;
+    private static final int OID = 0x06;
+    private static final int UTC_TIME = 0x17;
+    private static final int GENERALIZED_TIME = 0x18;
+    private static final int CONTEXT_0 = 0xA0;
+
+    private static final String EC_PARAMS_PEM_TYPE = "EC PARAMETERS";
+    private static final String PROC_TYPE_ENCRYPTED = "Proc-Type: 4,ENCRYPTED";
+
+    private final FileChannel channel;
+    private final long size;
+    private final byte[] header;
+
+    private CryptoFileHeader(FileChannel channel, long size, byte[] header) {
+        this.channel = channel;
+        this.size = size;
+        this.header = header;
+    }
+
+    /**
+     * Read the header window of a file.
+     *
+     * @param channel Channel of the file, must stay open while the header is used
+     * @return The header
+     * @throws IOException If an I/O problem occurred
+     */
+    static CryptoFileHeader read(FileChannel channel) throws IOException {
+        long size = channel.size();
+        ByteBuffer buffer = ByteBuffer.allocate((int) Math.min(size, HEADER_SIZE));
+
+        while (buffer.hasRemaining() && channel.read(buffer, buffer.position()) != -1) {
+            // Read until header window is full
+        }
+
+        return new CryptoFileHeader(channel, size, buffer.array());
+    }
+
+    /**
+     * Get the size of the whole file.
+     *
+     * @return Size in bytes
+     */
+    long getSize() {
+        return size;
+    }
+
+    /**
+     * Detect the file type from the header alone.
+     *
+     * @return Type or null if the header is ambiguous and the file has to be parsed
+     * @throws IOException If an I/O problem occurred
+     */
+    CryptoFileType detectFileType() throws IOException {
+        if (size == 0) {
+            return UNKNOWN;
+        }
+
+        CryptoFileType fileType = detectMagicNumberType();
+
+        if (fileType == null) {
+            fileType = detectPemType();
+        }
+
+        if (fileType == null) {
+            fileType = detectDerType();
+        }
+
+        return fileType;
+    }
+
+    private CryptoFileType detectMagicNumberType() throws IOException {
+        if (CryptoFileUtil.isJarFile(header)) {
+            return JAR;
+        }
+
+        EncryptionType msPvkEncType = MsPvkUtil.getEncryptionType(header);
+
+        if (msPvkEncType != null) {
+            return msPvkEncType == EncryptionType.ENCRYPTED ? ENC_MS_PVK : UNENC_MS_PVK;
+        }
+
+        if (header.length < 4) {
+            return null;
+        }
+
+        int magic = ByteBuffer.wrap(header).getInt();
+
+        if (magic == CryptoFileUtil.JKS_MAGIC_NUMBER) {
+            return JKS_KS;
+        }
+
+        if (magic == CryptoFileUtil.JCEKS_MAGIC_NUMBER) {
+            return JCEKS_KS;
+        }
+
+        // BKS and UBER start with a version number, see CryptoFileUtil.detectKeyStoreType
+        if (magic == 0 || magic == 1 || magic == 2) {
+            if (size < 26) {
+                return UNKNOWN;
+            }
+
+            if (readByte(size - 21) == 0) {
+                return magic == 1 ? UNKNOWN : BKS_KS;
+            }
+
+            return UBER_KS;
+        }
+
+        return null;
+    }
+
+    private CryptoFileType detectPemType() throws IOException {
+        String text = new String(header, StandardCharsets.US_ASCII);
+
+        try (BufferedReader reader = new BufferedReader(new StringReader(text))) {
+            String line = nextNonEmptyLine(reader);
+
+            String pemType = getPemType(line);
+
+            // EC parameter blocks in front of OpenSSL EC private keys are skipped
+            if (EC_PARAMS_PEM_TYPE.equals(pemType)) {
+                while (line != null && !line.startsWith(PemUtil.PEM_END_MARKER)) {
+                    line = reader.readLine();
+                }
+                pemType = getPemType(nextNonEmptyLine(reader));
+            }
+
+            if (pemType == null) {
+                return null;
+            }
+
+            switch (pemType) {
+            case "CERTIFICATE":
+            case "PKCS7":
+                return CERT;
+            case "X509 CRL":
+                return CRL;
+            case "CERTIFICATE REQUEST":
+            case "NEW CERTIFICATE REQUEST":
+                return PKCS10_CSR;
+            case "PRIVATE KEY":
+                return UNENC_PKCS8_PVK;
+            case "ENCRYPTED PRIVATE KEY":
+                return ENC_PKCS8_PVK;
+            case "PUBLIC KEY":
+                return OPENSSL_PUB;
+            case "RSA PRIVATE KEY":
+            case "DSA PRIVATE KEY":
+            case "EC PRIVATE KEY":
+                // Encryption is declared by a header attribute on the following line
+                line = reader.readLine();
+                return line != null && line.trim().equals(PROC_TYPE_ENCRYPTED) ? ENC_OPENSSL_PVK : UNENC_OPENSSL_PVK;
+            default:
+                return null;
+            }
+        }
+    }
+
+    private static String nextNonEmptyLine(BufferedReader reader) throws IOException {
+        String line;
+
+        while ((line = reader.readLine()) != null) {
+            line = line.trim();
+
+            if (!line.isEmpty()) {
+                return line;
+            }
+        }
+
+        return null;
+    }
+
+    private static String getPemType(String line) {
+        if (line == null || !line.startsWith(PemUtil.PEM_BEGIN_MARKER) || !line.endsWith(PemUtil.PEM_FIVE_DASHES) ||
+            line.length() < PemUtil.PEM_BEGIN_MARKER.length() + PemUtil.PEM_FIVE_DASHES.length()) {
+            return null;
+        }
+
+        return line.substring(PemUtil.PEM_BEGIN_MARKER.length(), line.length() - PemUtil.PEM_FIVE_DASHES.length());
+    }
+
+    private CryptoFileType detectDerType() throws IOException {
+        // A single DER encoded structure spanning the whole file
+        Tlv outer = readTlv(0);
+
+        if (outer == null || outer.tag != SEQUENCE || outer.end != size) {
+            return null;
+        }
+
+        List<Tlv> children = getChildren(outer);
+
+        if (children == null || children.isEmpty()) {
+            return null;
+        }
+
+        int count = children.size();
+        Tlv first = children.get(0);
+        Tlv second = count > 1 ? children.get(1) : null;
+
+        // @formatter:off
+        /*
+         * Checked in the same order as the parsers in CryptoFileUtil.detectFileType would match:
+         *
+         * PrivateKeyInfo ::= SEQUENCE { INTEGER 0, AlgorithmIdentifier, OCTET STRING, [0] OPTIONAL }
+         * EncryptedPrivateKeyInfo ::= SEQUENCE { AlgorithmIdentifier, OCTET STRING }
+         * ECPrivateKey ::= SEQUENCE { INTEGER 1, OCTET STRING, [0] OPTIONAL, [1] OPTIONAL }
+         * RSAPrivateKey ::= SEQUENCE of 9 INTEGERs, OpenSSL DSA private key ::= SEQUENCE of 6 INTEGERs
+         * SubjectPublicKeyInfo ::= SEQUENCE { AlgorithmIdentifier, BIT STRING }
+         * Certificate, CertificateList, CertificationRequest ::= SEQUENCE { SEQUENCE, AlgorithmIdentifier, BIT STRING }
+         * PkiPath ::= SEQUENCE OF Certificate
+         * PFX ::= SEQUENCE { INTEGER 3, ContentInfo, MacData OPTIONAL }
+         * ObjectStore (BCFKS) ::= SEQUENCE { SEQUENCE, ObjectStoreIntegrityCheck }
+         */
+        // @formatter:on
+
+        if ((count == 3 || count == 4) && isInteger(first, 0) && isAlgorithmIdentifier(second) &&
+            children.get(2).tag == OCTET_STRING) {
+            return UNENC_PKCS8_PVK;
+        }
+
+        if (count == 2 && isAlgorithmIdentifier(first) && second.tag == OCTET_STRING) {
+            return ENC_PKCS8_PVK;
+        }
+
+        if (count <= 4 && isInteger(first, 1) && second != null && second.tag == OCTET_STRING) {
+            return UNENC_OPENSSL_PVK;
+        }
+
+        if ((count == 6 || count == 9) && children.stream().allMatch(child -> child.tag == INTEGER)) {
+            return UNENC_OPENSSL_PVK;
+        }
+
+        if (count == 2 && first.tag == SEQUENCE && second.tag == BIT_STRING) {
+            return OPENSSL_PUB;
+        }
+
+        if (isSigned(children)) {
+            return detectSignedType(first);
+        }
+
+        if (children.stream().allMatch(child -> child.tag == SEQUENCE)) {
+            List<Tlv> certificate = getChildren(first);
+
+            if (certificate != null && isSigned(certificate)) {
+                return CERT;
+            }
+        }
+
+        if ((count == 2 || count == 3) && isInteger(first, 3)) {
+            return PKCS12_KS;
+        }
+
+        if (count == 2 && first.tag == SEQUENCE && (second.tag == SEQUENCE || second.tag == CONTEXT_0)) {
+            return BCFKS_KS;
+        }
+
+        // E.g. PKCS #7 content info, the certificates in it have to be parsed
+        return null;
+    }
+
+    private CryptoFileType detectSignedType(Tlv toBeSigned) throws IOException {
+        List<Tlv> fields = getChildren(toBeSigned);
+
+        if (fields == null || fields.isEmpty()) {
+            return null;
+        }
+
+        // A CRL's update times are fields of its own, a certificate's validity times are nested in a sequence
+        if (fields.stream().anyMatch(field -> field.tag == UTC_TIME || field.tag == GENERALIZED_TIME)) {
+            return CRL;
+        }
+
+        if (fields.size() == 4 && isInteger(fields.get(0), 0) && fields.get(3).tag == CONTEXT_0) {
+            return PKCS10_CSR;
+        }
+
+        return CERT;
+    }
+
+    private static boolean isSigned(List<Tlv> children) {
+        return children.size() == 3 && children.get(0).tag == SEQUENCE && children.get(1).tag == SEQUENCE &&
+               children.get(2).tag == BIT_STRING;
+    }
+
+    private boolean isAlgorithmIdentifier(Tlv tlv) throws IOException {
+        if (tlv == null || tlv.tag != SEQUENCE) {
+            return false;
+        }
+
+        Tlv algorithm = readTlv(tlv.contentOffset);
+
+        return algorithm != null && algorithm.tag == OID;
+    }
+
+    private boolean isInteger(Tlv tlv, int value) throws IOException {
+        return tlv.tag == INTEGER && tlv.length == 1 && readByte(tlv.contentOffset) == value;
+    }
+
+    private List<Tlv> getChildren(Tlv parent) throws IOException {
+        List<Tlv> children = new ArrayList<>();
+        long offset = parent.contentOffset;
+
+        while (offset < parent.end) {
+            Tlv child = readTlv(offset);
+
+            if (child == null || child.end > parent.end || children.size() == MAX_CHILDREN) {
+                return null;
+            }
+
+            children.add(child);
+            offset = child.end;
+        }
+
+        return children;
+    }
+
+    /*
+     * Read the tag and definite length at an offset. Returns null for
+     * anything else, i.e. high tag numbers and indefinite lengths.
+     */
+    private Tlv readTlv(long offset) throws IOException {
+        if (offset + 2 > size) {
+            return null;
+        }
+
+        int tag = readByte(offset);
+        int first = readByte(offset + 1);
+
+        if ((tag & 0x1F) == 0x1F) {
+            return null;
+        }
+
+        if (first < 0x80) {
+            return new Tlv(tag, offset + 2, first);
+        }
+
+        int lengthBytes = first & 0x7F;
+
+        if (lengthBytes == 0 || lengthBytes > 4 || offset + 2 + lengthBytes > size) {
+            return null;
+        }
+
+        long length = 0;
+
+        for (int i = 0; i < lengthBytes; i++) {
+            length = (length << 8) | readByte(offset + 2 + i);
+        }
+
+        return new Tlv(tag, offset + 2 + lengthBytes, length);
+    }
+
+    private int readByte(long offset) throws IOException {
+        if (offset < header.length) {
+            return header[(int) offset] & 0xFF;
+        }
+
+        ByteBuffer buffer = ByteBuffer.allocate(1);
+
+        if (channel.read(buffer, offset) != 1) {
+            throw new IOException("Unexpected end of file");
+        }
+
+        return buffer.get(0) & 0xFF;
+    }
+
+    private static class Tlv {
+        private final int tag;
+        private final long contentOffset;
+        private final long length;
+        private final long end;
+
+        Tlv(int tag, long contentOffset, long length) {
+            this.tag = tag;
+            this.contentOffset = contentOffset;
+            this.length = length;
+            this.end = contentOffset + length;
+        }
+    }
+}
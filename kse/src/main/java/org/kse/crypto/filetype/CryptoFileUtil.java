@@ -46,7 +46,10 @@ import java.io.DataInputStream;
 import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.nio.channels.FileChannel;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.StandardOpenOption;
 import java.util.Base64;
 
 import org.apache.commons.io.FileUtils;
@@ -66,6 +69,7 @@ import org.kse.crypto.privatekey.OpenSslPvkUtil;
 import org.kse.crypto.privatekey.Pkcs8Util;
 import org.kse.crypto.publickey.OpenSslPubUtil;
 import org.kse.crypto.x509.X509CertUtil;
+import org.kse.crypto.x509.X509CrlHeader;
 
 import com.nimbusds.jwt.JWTParser;
 
@@ -73,25 +77,44 @@ import com.nimbusds.jwt.JWTParser;
  * Provides utility methods for the detection of cryptographic file types.
  */
 public class CryptoFileUtil {
-    private static final int JKS_MAGIC_NUMBER = 0xFEEDFEED;
-    private static final int JCEKS_MAGIC_NUMBER = 0xCECECECE;
+    static final int JKS_MAGIC_NUMBER = 0xFEEDFEED;
+    static final int JCEKS_MAGIC_NUMBER = 0xCECECECE;
 
     private static final int ZIP_MAGIC_NUMBER1 = 0x4C5A4950;
     private static final int ZIP_MAGIC_NUMBER2 = 0x504B0304;
     private static final int ZIP_MAGIC_NUMBER3 = 0x504B0506;
     private static final int ZIP_MAGIC_NUMBER4 = 0x504B0708;
 
+    // Files whose type cannot be told from their header are only parsed up to this size
+    private static final long MAX_PARSE_SIZE = 16 * 1024 * 1024;
+
     private CryptoFileUtil() {
     }
 
     /**
-     * Detect the cryptographic file type of the supplied input stream.
+     * Detect the cryptographic file type of the supplied file. The type is told from the first bytes of the file
+     * where possible, the whole file is only read and parsed if these are ambiguous and the file is not too large.
      *
      * @param file File with cryptographic data
      * @return Type or null if file not of a recognised type
      * @throws IOException If an I/O problem occurred
      */
     public static CryptoFileType detectFileType(File file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            CryptoFileHeader header = CryptoFileHeader.read(channel);
+            CryptoFileType fileType = header.detectFileType();
+
+            if (fileType != null) {
+                return fileType;
+            }
+
+            if (header.getSize() > MAX_PARSE_SIZE) {
+                return UNKNOWN;
+            }
+        } catch (NoSuchFileException ex) {
+            throw new FileNotFoundException(file.getPath());
+        }
+
         return detectFileType(FileUtils.readFileToByteArray(file));
     }
 
@@ -164,7 +187,7 @@ public class CryptoFileUtil {
         }
 
         try {
-            X509CertUtil.loadCRL(data);
+            X509CrlHeader.of(data);
             return CRL;
         } catch (Exception ex) {
             // Ignore - not a CRL file
@@ -190,7 +213,7 @@ public class CryptoFileUtil {
         return UNKNOWN;
     }
 
-    private static boolean isJarFile(byte[] data) {
+    static boolean isJarFile(byte[] data) {
         if (data.length < 4) {
             return false;
         }
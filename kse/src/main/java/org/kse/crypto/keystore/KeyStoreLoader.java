@@ -0,0 +1,158 @@
+/*
+ * Copyright 2004 - 2013 Wayne Grant
+ *           2013 - 2025 Kai Kramer
+ *
+ * This file is part of KeyStore Explorer.
+ *
+ * KeyStore Explorer is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * KeyStore Explorer is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with KeyStore Explorer.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.kse.crypto.keystore;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.security.KeyStore;
+import java.util.ResourceBundle;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.io.FileUtils;
+import org.kse.crypto.CryptoException;
+import org.kse.crypto.filetype.CryptoFileUtil;
+import org.kse.gui.passwordmanager.Password;
+
+/**
+ * Loads a KeyStore file, reading it only once. The content of the file and its detected KeyStore type are kept,
+ * so loading it again with another password, e.g. after a wrong password was entered, neither reads the file nor
+ * detects its type again.
+ * <p>
+ * The time taken by each stage is recorded. Verifying the integrity of the KeyStore and decrypting and decoding
+ * its entries happen in a single call to the KeyStore provider and are therefore measured together.
+ */
+public class KeyStoreLoader {
+    private static ResourceBundle res = ResourceBundle.getBundle("org/kse/crypto/keystore/resources");
+
+    private final File keyStoreFile;
+    private byte[] keyStoreData;
+    private KeyStoreType keyStoreType;
+
+    private long readNanos;
+    private long detectNanos;
+    private long loadNanos;
+
+    /**
+     * Construct KeyStoreLoader. The file is not read until it is loaded.
+     *
+     * @param keyStoreFile KeyStore file
+     */
+    public KeyStoreLoader(File keyStoreFile) {
+        this.keyStoreFile = keyStoreFile;
+    }
+
+    /**
+     * Get KeyStore file.
+     *
+     * @return KeyStore file
+     */
+    public File getKeyStoreFile() {
+        return keyStoreFile;
+    }
+
+    /**
+     * Get the type of the KeyStore, reading the file and detecting its type on the first call.
+     *
+     * @return KeyStore type or null if the file does not contain a KeyStore of a recognised type
+     * @throws CryptoException       Problem encountered reading the KeyStore file
+     * @throws FileNotFoundException If the KeyStore file does not exist, is a directory rather
+     *                               than a regular file, or for some other reason cannot be
+     *                               opened for reading
+     */
+    public synchronized KeyStoreType getKeyStoreType() throws CryptoException, FileNotFoundException {
+        if (keyStoreData != null) {
+            return keyStoreType;
+        }
+
+        try {
+            long start = System.nanoTime();
+            byte[] data = FileUtils.readFileToByteArray(keyStoreFile);
+            readNanos = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            keyStoreType = CryptoFileUtil.detectKeyStoreType(data);
+            detectNanos = System.nanoTime() - start;
+
+            keyStoreData = data;
+        } catch (FileNotFoundException ex) {
+            throw ex;
+        } catch (IOException ex) {
+            throw new CryptoException(res.getString("NoLoadKeyStore.exception.message"), ex);
+        }
+
+        return keyStoreType;
+    }
+
+    /**
+     * Load the KeyStore with the supplied password.
+     *
+     * @param password Password of the KeyStore
+     * @return The KeyStore or null if the file does not contain a KeyStore of a recognised type
+     * @throws KeyStoreLoadException Problem encountered loading the KeyStore as the detected type,
+     *                               e.g. a wrong password
+     * @throws CryptoException       Problem encountered loading the KeyStore
+     * @throws FileNotFoundException If the KeyStore file does not exist, is a directory rather
+     *                               than a regular file, or for some other reason cannot be
+     *                               opened for reading
+     */
+    public synchronized KeyStore load(Password password) throws CryptoException, FileNotFoundException {
+        KeyStoreType type = getKeyStoreType();
+
+        if (type == null) {
+            return null;
+        }
+
+        long start = System.nanoTime();
+        try {
+            return KeyStoreUtil.load(keyStoreData, password, type);
+        } finally {
+            loadNanos = System.nanoTime() - start;
+        }
+    }
+
+    /**
+     * Get the time it took to read the KeyStore file.
+     *
+     * @return Time in milliseconds
+     */
+    public synchronized long getReadTime() {
+        return TimeUnit.NANOSECONDS.toMillis(readNanos);
+    }
+
+    /**
+     * Get the time it took to detect the KeyStore type.
+     *
+     * @return Time in milliseconds
+     */
+    public synchronized long getDetectionTime() {
+        return TimeUnit.NANOSECONDS.toMillis(detectNanos);
+    }
+
+    /**
+     * Get the time the last load took to verify the integrity of the KeyStore and to decrypt and decode its
+     * entries.
+     *
+     * @return Time in milliseconds
+     */
+    public synchronized long getLoadTime() {
+        return TimeUnit.NANOSECONDS.toMillis(loadNanos);
+    }
+}
@@ -97,6 +97,15 @@ public enum KeyStoreType {
         return this != PKCS11 && this != MS_CAPI_PERSONAL;
     }
 
+    /**
+     * Does the KeyStore type treat aliases case-insensitively?
+     *
+     * @return True if it does, false otherwise
+     */
+    public boolean hasCaseInsensitiveAliases() {
+        return this == JKS || this == JCEKS || this == PKCS12;
+    }
+
     /*
      * Are private keys exportable for this keystore type?
      *
@@ -33,8 +33,14 @@ import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
-import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.PosixFileAttributeView;
 import java.security.GeneralSecurityException;
 import java.security.KeyStore;
 import java.security.KeyStoreException;
@@ -51,7 +57,6 @@ import java.util.ResourceBundle;
 import org.kse.KSE;
 import org.kse.crypto.CryptoException;
 import org.kse.gui.passwordmanager.Password;
-import org.kse.crypto.filetype.CryptoFileUtil;
 import org.kse.gui.preferences.PreferencesManager;
 
 /**
@@ -107,21 +112,7 @@ public final class KeyStoreUtil {
      *                               opened for reading
      */
     public static KeyStore load(File keyStoreFile, Password password) throws CryptoException, FileNotFoundException {
-        KeyStoreType keyStoreType = null;
-
-        try {
-            keyStoreType = CryptoFileUtil.detectKeyStoreType(keyStoreFile);
-        } catch (FileNotFoundException ex) {
-            throw ex;
-        } catch (IOException ex) {
-            throw new CryptoException(res.getString("NoLoadKeyStore.exception.message"), ex);
-        }
-
-        if (keyStoreType == null) {
-            return null;
-        }
-
-        return load(keyStoreFile, password, keyStoreType);
+        return new KeyStoreLoader(keyStoreFile).load(password);
     }
 
     /**
@@ -140,28 +131,57 @@ public final class KeyStoreUtil {
      */
     public static KeyStore load(File keyStoreFile, Password password, KeyStoreType keyStoreType)
             throws CryptoException, FileNotFoundException {
+        checkFileBased(keyStoreType);
+
+        try (FileInputStream fis = new FileInputStream(keyStoreFile)) {
+            return load(fis, password, keyStoreType);
+        } catch (FileNotFoundException ex) {
+            throw ex;
+        } catch (IOException ex) {
+            throw new KeyStoreLoadException(
+                    MessageFormat.format(res.getString("NoLoadKeyStoreType.exception.message"), keyStoreType), ex,
+                    keyStoreType);
+        }
+    }
+
+    /**
+     * Load a KeyStore from the content of a KeyStore file accessed by a password.
+     *
+     * @param keyStoreData Content of the KeyStore file
+     * @param password     Password of the KeyStore
+     * @param keyStoreType The type of the KeyStore to open
+     * @return The KeyStore
+     * @throws KeyStoreLoadException Problem encountered loading the KeyStore as the specified
+     *                               type
+     * @throws CryptoException       Problem encountered loading the KeyStore
+     */
+    public static KeyStore load(byte[] keyStoreData, Password password, KeyStoreType keyStoreType)
+            throws CryptoException {
+        checkFileBased(keyStoreType);
+
+        return load(new ByteArrayInputStream(keyStoreData), password, keyStoreType);
+    }
+
+    private static void checkFileBased(KeyStoreType keyStoreType) throws CryptoException {
         if (!keyStoreType.isFileBased()) {
             throw new CryptoException(
                     MessageFormat.format(res.getString("NoLoadKeyStoreNotFile.exception.message"), keyStoreType.jce()));
         }
+    }
 
+    private static KeyStore load(InputStream is, Password password, KeyStoreType keyStoreType)
+            throws CryptoException {
         KeyStore keyStore = getKeyStoreInstance(keyStoreType);
 
-        try (FileInputStream fis = new FileInputStream(keyStoreFile)) {
+        try {
             if (password.isEmpty() && (keyStoreType == KeyStoreType.JKS || keyStoreType == KeyStoreType.JCEKS)) {
                 // allow JKS and JCEKS files to be opened without providing a password
                 password.nullPassword();
-                keyStore.load(fis, null);
+                keyStore.load(is, null);
             } else {
-                keyStore.load(fis, password.toCharArray());
+                keyStore.load(is, password.toCharArray());
             }
-        } catch (CertificateException | NoSuchAlgorithmException ex) {
-            throw new KeyStoreLoadException(
-                    MessageFormat.format(res.getString("NoLoadKeyStoreType.exception.message"), keyStoreType), ex,
-                    keyStoreType);
-        } catch (FileNotFoundException ex) {
-            throw ex;
-        } catch (IOException ex) {
+        } catch (CertificateException | NoSuchAlgorithmException | IOException ex) {
             throw new KeyStoreLoadException(
                     MessageFormat.format(res.getString("NoLoadKeyStoreType.exception.message"), keyStoreType), ex,
                     keyStoreType);
@@ -256,7 +276,9 @@ public final class KeyStoreUtil {
     }
 
     /**
-     * Save a KeyStore to a file protected by a password.
+     * Save a KeyStore to a file protected by a password. The KeyStore is written to a temporary file next to the
+     * KeyStore file first, which then replaces the KeyStore file atomically where the file system supports it. An
+     * interrupted save therefore never leaves a truncated KeyStore file behind.
      *
      * @param keyStore     The KeyStore
      * @param keyStoreFile The file to save the KeyStore to
@@ -276,13 +298,65 @@ public final class KeyStoreUtil {
                     MessageFormat.format(res.getString("NoSaveKeyStoreNotFile.exception.message"), keyStoreType.jce()));
         }
 
-        try (FileOutputStream fos = new FileOutputStream(keyStoreFile)) {
-            keyStore.store(fos, password.toCharArray());
+        Path target = keyStoreFile.toPath().toAbsolutePath();
+
+        try {
+            // Replace the file a symbolic link points to rather than the link
+            if (Files.isSymbolicLink(target)) {
+                target = target.toRealPath();
+            }
+
+            Path tempFile = createTempFile(target);
+
+            if (tempFile == null) {
+                try (OutputStream os = Files.newOutputStream(target)) {
+                    keyStore.store(os, password.toCharArray());
+                }
+                return;
+            }
+
+            try {
+                try (OutputStream os = Files.newOutputStream(tempFile)) {
+                    keyStore.store(os, password.toCharArray());
+                }
+
+                try {
+                    Files.move(tempFile, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+                } catch (AtomicMoveNotSupportedException ex) {
+                    Files.move(tempFile, target, StandardCopyOption.REPLACE_EXISTING);
+                }
+            } finally {
+                Files.deleteIfExists(tempFile);
+            }
         } catch (KeyStoreException | CertificateException | NoSuchAlgorithmException | IOException ex) {
             throw new CryptoException(res.getString("NoSaveKeyStore.exception.message"), ex);
         }
     }
 
+    private static Path createTempFile(Path target) throws IOException {
+        Path tempFile;
+
+        try {
+            tempFile = Files.createTempFile(target.getParent(), "." + target.getFileName(), ".tmp");
+        } catch (IOException ex) {
+            // Directory is not writable, the KeyStore file itself may still be
+            return null;
+        }
+
+        try {
+            // Keep the permissions of an existing KeyStore file
+            if (Files.exists(target) &&
+                Files.getFileStore(target).supportsFileAttributeView(PosixFileAttributeView.class)) {
+                Files.setPosixFilePermissions(tempFile, Files.getPosixFilePermissions(target));
+            }
+        } catch (IOException ex) {
+            Files.deleteIfExists(tempFile);
+            throw ex;
+        }
+
+        return tempFile;
+    }
+
     /**
      * Does the supplied KeyStore contain any key entries? ie any entries that
      * contain a key with no certificate chain.
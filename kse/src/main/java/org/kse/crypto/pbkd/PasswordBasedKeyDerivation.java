@@ -23,22 +23,35 @@ import static org.bouncycastle.crypto.params.Argon2Parameters.ARGON2_VERSION_13;
 import static org.bouncycastle.crypto.params.Argon2Parameters.ARGON2_id;
 import static org.kse.KSE.BC;
 
+import java.nio.charset.StandardCharsets;
 import java.security.NoSuchAlgorithmException;
 import java.security.spec.InvalidKeySpecException;
+import java.util.concurrent.CancellationException;
+import java.util.function.IntConsumer;
 
 import javax.crypto.SecretKey;
 import javax.crypto.SecretKeyFactory;
 import javax.crypto.spec.PBEKeySpec;
 import javax.crypto.spec.SecretKeySpec;
 
+import org.bouncycastle.crypto.PBEParametersGenerator;
+import org.bouncycastle.crypto.digests.SHA256Digest;
 import org.bouncycastle.crypto.generators.Argon2BytesGenerator;
+import org.bouncycastle.crypto.macs.HMac;
 import org.bouncycastle.crypto.params.Argon2Parameters;
+import org.bouncycastle.crypto.params.KeyParameter;
 
 /**
  * Simplify use of PBKDF2 and Argon2 key derivation algorithms by wrapping the JCE/BC API calls
  */
 public class PasswordBasedKeyDerivation {
 
+    // iterations between checks for cancellation and progress updates
+    private static final int PROGRESS_INTERVAL = 10_000;
+
+    private static final int CALIBRATION_PBKDF2_ITERATIONS = 50_000;
+    private static final int CALIBRATION_ARGON2_MEMORY_KB = 16 * 1024;
+
     /**
      * Use PBKDF2 to derive an AES key
      *
@@ -87,4 +100,120 @@ public class PasswordBasedKeyDerivation {
             throw new RuntimeException(e);
         }
     }
+
+    /**
+     * Use PBKDF2 to derive an AES key, reporting progress and stopping if the thread is interrupted.
+     * <p>
+     * The result is the same as for {@link #deriveKeyWithPbkdf2(char[], byte[], int, int)}.
+     *
+     * @param password The password
+     * @param salt Salt
+     * @param iterations Number of iterations
+     * @param keyLengthInBits Length of derived key
+     * @param progress Receives the progress in percent
+     * @return Derived AES key
+     * @throws CancellationException If the thread was interrupted
+     */
+    public static SecretKey deriveKeyWithPbkdf2(char[] password, byte[] salt, int iterations, int keyLengthInBits,
+                                                IntConsumer progress) {
+        HMac hMac = new HMac(new SHA256Digest());
+        hMac.init(new KeyParameter(PBEParametersGenerator.PKCS5PasswordToUTF8Bytes(password)));
+
+        int hLen = hMac.getMacSize();
+        int keyLength = keyLengthInBits / 8;
+        int blocks = (keyLength + hLen - 1) / hLen;
+        long total = (long) blocks * iterations;
+        long done = 0;
+
+        byte[] result = new byte[blocks * hLen];
+        byte[] u = new byte[hLen];
+
+        for (int block = 1; block <= blocks; block++) {
+            int offset = (block - 1) * hLen;
+
+            // U1 = PRF(password, salt || INT(block))
+            hMac.update(salt, 0, salt.length);
+            hMac.update((byte) (block >>> 24));
+            hMac.update((byte) (block >>> 16));
+            hMac.update((byte) (block >>> 8));
+            hMac.update((byte) block);
+            hMac.doFinal(u, 0);
+            System.arraycopy(u, 0, result, offset, hLen);
+
+            // Uj = PRF(password, Uj-1), T = U1 ^ ... ^ Uc
+            for (int i = 1; i < iterations; i++) {
+                hMac.update(u, 0, hLen);
+                hMac.doFinal(u, 0);
+
+                for (int j = 0; j < hLen; j++) {
+                    result[offset + j] ^= u[j];
+                }
+
+                if (++done % PROGRESS_INTERVAL == 0) {
+                    if (Thread.currentThread().isInterrupted()) {
+                        throw new CancellationException();
+                    }
+                    progress.accept((int) (done * 100 / total));
+                }
+            }
+            done++;
+        }
+
+        progress.accept(100);
+
+        byte[] key = new byte[keyLength];
+        System.arraycopy(result, 0, key, 0, keyLength);
+        return new SecretKeySpec(key, "AES");
+    }
+
+    /**
+     * Measure this machine and calculate the number of PBKDF2 iterations that take about the target time.
+     *
+     * @param targetMillis Target time for deriving a key in milliseconds
+     * @param minIterations Minimum number of iterations returned
+     * @return Number of iterations
+     */
+    public static int calibratePbkdf2(long targetMillis, int minIterations) {
+        char[] password = "calibration".toCharArray();
+        byte[] salt = new byte[16];
+
+        // first run warms up
+        long nanos = Long.MAX_VALUE;
+        for (int i = 0; i < 2; i++) {
+            long start = System.nanoTime();
+            deriveKeyWithPbkdf2(password, salt, CALIBRATION_PBKDF2_ITERATIONS, 256, p -> {});
+            nanos = Math.min(nanos, System.nanoTime() - start);
+        }
+
+        double iterations = CALIBRATION_PBKDF2_ITERATIONS * (targetMillis * 1_000_000d / Math.max(nanos, 1));
+        return (int) Math.max(minIterations, Math.min(iterations, Integer.MAX_VALUE));
+    }
+
+    /**
+     * Measure this machine and calculate the Argon2id memory size that takes about the target time with the given
+     * number of iterations and parallelism.
+     *
+     * @param targetMillis Target time for deriving a key in milliseconds
+     * @param iterations Number of iterations
+     * @param parallelism Parallelism
+     * @param minMemoryKB Minimum memory size returned
+     * @param maxMemoryKB Maximum memory size returned
+     * @return Memory size in KB
+     */
+    public static int calibrateArgon2id(long targetMillis, int iterations, int parallelism, int minMemoryKB,
+                                        int maxMemoryKB) {
+        char[] password = "calibration".toCharArray();
+        byte[] salt = new byte[16];
+
+        long nanos = Long.MAX_VALUE;
+        for (int i = 0; i < 2; i++) {
+            long start = System.nanoTime();
+            deriveKeyWithArgon2id(password, salt, iterations, CALIBRATION_ARGON2_MEMORY_KB, parallelism, 256);
+            nanos = Math.min(nanos, System.nanoTime() - start);
+        }
+
+        // time is linear in the memory size
+        double memory = CALIBRATION_ARGON2_MEMORY_KB * (targetMillis * 1_000_000d / Math.max(nanos, 1));
+        return (int) Math.max(minMemoryKB, Math.min(memory, maxMemoryKB));
+    }
 }
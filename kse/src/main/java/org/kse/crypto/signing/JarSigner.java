@@ -21,14 +21,16 @@ package org.kse.crypto.signing;
 
 import static org.kse.crypto.signing.SignatureType.SHA1_DSA;
 
+import java.io.BufferedReader;
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.LineNumberReader;
+import java.io.InterruptedIOException;
 import java.io.StringReader;
 import java.nio.file.Files;
+import java.security.MessageDigest;
 import java.security.PrivateKey;
 import java.security.Provider;
 import java.security.SecureRandom;
@@ -39,9 +41,13 @@ import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Enumeration;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.ResourceBundle;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
 import java.util.jar.Attributes;
 import java.util.jar.JarEntry;
 import java.util.jar.JarFile;
@@ -134,6 +140,18 @@ public class JarSigner {
     // Meta inf file location
     private static final String METAINF_FILE_LOC = "META-INF/{0}.{1}";
 
+    // Buffer size for copying and digesting JAR entries
+    private static final int BUFFER_SIZE = 8192;
+
+    // Maximum number of threads reading and digesting JAR entries
+    private static final int MAX_PARALLELISM = 8;
+
+    // Number of JAR entries read ahead of the output per thread
+    private static final int READ_AHEAD_PER_THREAD = 4;
+
+    // Larger JAR entries are not read ahead but streamed to the output
+    private static final long MAX_READ_AHEAD_ENTRY_SIZE = 1024 * 1024;
+
     private JarSigner() {
     }
 
@@ -183,6 +201,19 @@ public class JarSigner {
     public static void sign(File jarFile, File signedJarFile, PrivateKey privateKey, X509Certificate[] certificateChain,
                             SignatureType signatureType, String signatureName, String signer, DigestType digestType,
                             String tsaUrl, Provider provider) throws IOException, CryptoException {
+        sign(jarFile, signedJarFile, privateKey, certificateChain, signatureType, signatureName, signer, digestType,
+             tsaUrl, provider, Math.min(Runtime.getRuntime().availableProcessors(), MAX_PARALLELISM));
+    }
+
+    /*
+     * Sign a JAR file outputting the signed JAR to a different file. With a
+     * parallelism greater than one the JAR entries are read and digested
+     * ahead of the output on that many threads. The signed JAR is the same
+     * for any parallelism
+     */
+    static void sign(File jarFile, File signedJarFile, PrivateKey privateKey, X509Certificate[] certificateChain,
+                     SignatureType signatureType, String signatureName, String signer, DigestType digestType,
+                     String tsaUrl, Provider provider, int parallelism) throws IOException, CryptoException {
 
         try (JarFile jar = new JarFile(jarFile);
              JarOutputStream jos = new JarOutputStream(Files.newOutputStream(signedJarFile.toPath()))) {
@@ -190,15 +221,19 @@ public class JarSigner {
             // Replace illegal characters in signature name
             signatureName = convertSignatureName(signatureName);
 
+            // Parse existing manifest once, its sections are looked up by entry name below
+            Manifest jarManifest = jar.getManifest();
+            ManifestIndex manifestIndex = jarManifest != null ? new ManifestIndex(getManifest(jar)) : null;
+
             // Write manifest content to here
             StringBuilder sbManifest = new StringBuilder();
 
             // Write out main attributes to manifest
-            String manifestMainAttrs = getManifestMainAttrs(jar, signer);
+            String manifestMainAttrs = getManifestMainAttrs(jarManifest, manifestIndex, signer);
             sbManifest.append(manifestMainAttrs);
 
             // Write out all entries' attributes to manifest
-            String entryManifestAttrs = getManifestEntriesAttrs(jar);
+            String entryManifestAttrs = getManifestEntriesAttrs(jarManifest, manifestIndex);
 
             if (!entryManifestAttrs.isEmpty()) {
                 // Only output if there are any
@@ -209,34 +244,63 @@ public class JarSigner {
             // Write signature file to here
             StringBuilder sbSf = new StringBuilder();
 
-            // Write out digests to manifest and signature file
+            // JAR entries from JAR to be signed to write to signed JAR
+            List<JarEntry> transferEntries = new ArrayList<>();
 
-            // Sign each JAR entry...
             for (Enumeration<?> jarEntries = jar.entries(); jarEntries.hasMoreElements(); ) {
                 JarEntry jarEntry = (JarEntry) jarEntries.nextElement();
 
-                if (!jarEntry.isDirectory()) // Ignore directories
-                {
-                    if (!ignoreJarEntry(jarEntry)) // Ignore some entries (existing signature files)
-                    {
-                        // Get the digest of the entry as manifest attributes
-                        String manifestEntry = getDigestManifestAttrs(jar, jarEntry, digestType);
-
-                        // Add it to the manifest string buffer
-                        sbManifest.append(manifestEntry);
-
-                        // Get the digest of manifest entries created above
-                        byte[] mdSf = DigestUtil.getMessageDigest(manifestEntry.getBytes(), digestType);
-                        String mdSf64Str = Base64.toBase64String(mdSf);
-
-                        // Write this digest as entries in signature file
-                        sbSf.append(createAttributeText(NAME_ATTR, jarEntry.getName()));
-                        sbSf.append(CRLF);
-                        sbSf.append(
-                                createAttributeText(MessageFormat.format(DIGEST_ATTR, digestType.jce()), mdSf64Str));
-                        sbSf.append(CRLF);
-                        sbSf.append(CRLF);
+                // Existing manifest and signature files are replaced by the new ones
+                if (jarEntry.isDirectory() || !excludeJarEntry(jarEntry, signatureName)) {
+                    transferEntries.add(jarEntry);
+                }
+            }
+
+            // Write JAR entries to signed JAR and digest them in the same pass
+            MessageDigest digester = DigestUtil.getMessageDigester(digestType);
+
+            try (ParallelEntryReader entryReader = parallelism > 1 ?
+                                                   new ParallelEntryReader(jar, transferEntries, digestType,
+                                                                           parallelism) : null) {
+
+                for (int i = 0; i < transferEntries.size(); i++) {
+                    JarEntry jarEntry = transferEntries.get(i);
+
+                    // Directories and existing signature files are not signed
+                    boolean signEntry = !jarEntry.isDirectory() && !ignoreJarEntry(jarEntry);
+
+                    byte[] md;
+                    ReadEntry readEntry = entryReader != null ? entryReader.get(i) : null;
+
+                    if (readEntry != null && readEntry.content != null) {
+                        // Already read and digested ahead
+                        writeJarEntry(jos, jarEntry, readEntry.content);
+                        md = readEntry.digest;
+                    } else {
+                        md = transferJarEntry(jar, jos, jarEntry, signEntry ? digester : null);
+                    }
+
+                    if (!signEntry) {
+                        continue;
                     }
+
+                    // Get the digest of the entry as manifest attributes
+                    String manifestEntry = getDigestManifestAttrs(jarEntry, md, digestType);
+
+                    // Add it to the manifest string buffer
+                    sbManifest.append(manifestEntry);
+
+                    // Get the digest of manifest entries created above
+                    byte[] mdSf = DigestUtil.getMessageDigest(manifestEntry.getBytes(), digestType);
+                    String mdSf64Str = Base64.toBase64String(mdSf);
+
+                    // Write this digest as entries in signature file
+                    sbSf.append(createAttributeText(NAME_ATTR, jarEntry.getName()));
+                    sbSf.append(CRLF);
+                    sbSf.append(
+                            createAttributeText(MessageFormat.format(DIGEST_ATTR, digestType.jce()), mdSf64Str));
+                    sbSf.append(CRLF);
+                    sbSf.append(CRLF);
                 }
             }
 
@@ -269,9 +333,6 @@ public class JarSigner {
             // Signature file complete
             byte[] sf = sbSf.toString().getBytes();
 
-            // Write JAR files from JAR to be signed to signed JAR
-            writeJarEntries(jar, jos, signatureName);
-
             // Write manifest to signed JAR
             writeManifest(manifest, jos);
 
@@ -345,13 +406,10 @@ public class JarSigner {
      * manifest verbatim. If there is no manifest in JAR it returns a string
      * with those two attributes
      */
-    private static String getManifestMainAttrs(JarFile jar, String signer) throws IOException {
+    private static String getManifestMainAttrs(Manifest manifest, ManifestIndex manifestIndex, String signer) {
 
         StringBuilder sbManifest = new StringBuilder();
 
-        // Get current manifest
-        Manifest manifest = jar.getManifest();
-
         // Write out main attributes to manifest
 
         if (manifest == null) {
@@ -366,7 +424,7 @@ public class JarSigner {
             sbManifest.append(CRLF);
         } else {
             // Get main attributes as a string to preserve their order
-            String manifestMainAttrs = getManifestMainAttrs(jar);
+            String manifestMainAttrs = manifestIndex.getMainAttrs();
 
             // Write them out
             sbManifest.append(manifestMainAttrs);
@@ -379,13 +437,10 @@ public class JarSigner {
     /*
      *  Get all entries' attributes of JAR manifest as a string
      */
-    private static String getManifestEntriesAttrs(JarFile jar) throws IOException {
+    private static String getManifestEntriesAttrs(Manifest manifest, ManifestIndex manifestIndex) {
 
         StringBuilder sbManifest = new StringBuilder();
 
-        // Get current manifest
-        Manifest manifest = jar.getManifest();
-
         // Write out entry attributes to manifest
         if (manifest != null) {
             // Get entry attributes
@@ -410,7 +465,7 @@ public class JarSigner {
                 }
 
                 // Get entry attributes as a string to preserve their order
-                String manifestEntryAttributes = getManifestEntryAttrs(jar, entryName);
+                String manifestEntryAttributes = manifestIndex.getEntryAttrs(entryName);
 
                 // Write them out
                 sbManifest.append(manifestEntryAttributes);
@@ -424,28 +479,20 @@ public class JarSigner {
     }
 
     /*
-     *  Get the digest of the supplied JAR entry as manifest attributes
+     *  Get the supplied digest of a JAR entry as manifest attributes
      *  "Name" and "<digestType> Digest"
      */
-    private static String getDigestManifestAttrs(JarFile jar, JarEntry jarEntry, DigestType digestType)
-            throws IOException, CryptoException {
-
-        // Get input stream to JAR entry's content
-        try (InputStream jis = jar.getInputStream(jarEntry)) {
+    private static String getDigestManifestAttrs(JarEntry jarEntry, byte[] md, DigestType digestType) {
 
-            // Get the digest of content in Base64
-            byte[] md = DigestUtil.getMessageDigest(jis, digestType);
-            String md64Str = Base64.toBase64String(md);
+        // Get the digest of content in Base64
+        String md64Str = Base64.toBase64String(md);
 
-            // Write manifest entries for JARs digest
-            String sbManifestEntry = createAttributeText(NAME_ATTR, jarEntry.getName()) +
-                    CRLF +
-                    createAttributeText(MessageFormat.format(DIGEST_ATTR, digestType.jce()), md64Str) +
-                    CRLF +
-                    CRLF;
-
-            return sbManifestEntry;
-        }
+        // Write manifest entries for JARs digest
+        return createAttributeText(NAME_ATTR, jarEntry.getName()) +
+               CRLF +
+               createAttributeText(MessageFormat.format(DIGEST_ATTR, digestType.jce()), md64Str) +
+               CRLF +
+               CRLF;
     }
 
     /*
@@ -464,115 +511,58 @@ public class JarSigner {
     }
 
     /*
-     *  Get JAR file manifest's main attributes manifest as a string
+     * Exclude a JAR entry from the signed JAR? The existing manifest and
+     * signature files for the supplied signature name are replaced
      */
-    private static String getManifestMainAttrs(JarFile jar) throws IOException {
-
-        // Get full manifest content
-        String manifestContent = getManifest(jar);
-
-        try (StringReader stringReader = new StringReader(manifestContent);
-             LineNumberReader lnr = new LineNumberReader(stringReader)) {
-
-            StringBuilder sb = new StringBuilder();
-            String line = null;
-
-            // Keep reading until a blank line is found - the end of the main
-            // attributes
-            while ((line = lnr.readLine()) != null) {
-                if (line.trim().isEmpty()) {
-                    break;
-                }
+    private static boolean excludeJarEntry(JarEntry jarEntry, String signatureName) {
+        String entryName = jarEntry.getName();
 
-                // Append attribute line
-                sb.append(line);
-                sb.append(CRLF);
-            }
+        // Signature files not to write across
+        String sigFileLocation = MessageFormat.format(METAINF_FILE_LOC, signatureName, SIGNATURE_EXT).toUpperCase();
+        String dsaSigBlockLocation = MessageFormat.format(METAINF_FILE_LOC, signatureName, DSA_SIG_BLOCK_EXT);
+        String rsaSigBlockLocation = MessageFormat.format(METAINF_FILE_LOC, signatureName, RSA_SIG_BLOCK_EXT);
 
-            return sb.toString();
-        }
+        // Do not write across existing manifest or matching signature files
+        return entryName.equalsIgnoreCase(MANIFEST_LOCATION) || entryName.equalsIgnoreCase(sigFileLocation) ||
+               entryName.equalsIgnoreCase(dsaSigBlockLocation) || entryName.equalsIgnoreCase(rsaSigBlockLocation);
     }
 
     /*
-     *  Get JAR file manifest's attributes for a specified entry as a string
+     * Copy a JAR entry to the output stream. If a digester is supplied the
+     * entry's content is digested while it is copied and the digest returned
      */
-    private static String getManifestEntryAttrs(JarFile jar, String entryName) throws IOException {
-
-        // Get full manifest content
-        String manifestContent = getManifest(jar);
-
-        try (StringReader in = new StringReader(manifestContent); LineNumberReader lnr = new LineNumberReader(in)) {
+    private static byte[] transferJarEntry(JarFile jar, JarOutputStream jos, JarEntry jarEntry,
+                                           MessageDigest digester) throws IOException {
+        putNextJarEntry(jos, jarEntry);
 
-            StringBuilder sb = new StringBuilder();
-            String line = null;
-
-            // First entry name attribute to match
-            String entryNameAttr = createAttributeText(NAME_ATTR, entryName);
-
-            // Only match on first 70 characters (max line length)
-            if (entryNameAttr.length() > 70) {
-                entryNameAttr = entryNameAttr.substring(0, 70);
-            }
+        try (InputStream is = jar.getInputStream(jarEntry)) {
+            byte[] buffer = new byte[BUFFER_SIZE];
+            int read;
 
-            // Keep reading and ignoring lines until entry is found - the end of the entry's attributes
-            while ((line = lnr.readLine()) != null) {
-                if (line.equals(entryNameAttr)) {
-                    // Found entry name attribute - append it
-                    sb.append(line);
-                    sb.append(CRLF);
-                    break;
-                }
-            }
+            while ((read = is.read(buffer)) != -1) {
+                jos.write(buffer, 0, read);
 
-            // Keep reading until a blank line is found - the end of the entry's
-            // attributes
-            while ((line = lnr.readLine()) != null) {
-                if (line.trim().isEmpty()) {
-                    break;
+                if (digester != null) {
+                    digester.update(buffer, 0, read);
                 }
-
-                // Append another entry attribute line
-                sb.append(line);
-                sb.append(CRLF);
             }
 
-            return sb.toString();
+            jos.closeEntry();
         }
+
+        return digester != null ? digester.digest() : null;
     }
 
     /*
-     * Write out all JAR entries from source JAR to output stream excepting
-     * manifest and existing signature files for the supplied signature name
+     * Write a JAR entry whose content has already been read to the output stream
      */
-    private static void writeJarEntries(JarFile jar, JarOutputStream jos, String signatureName) throws IOException {
-
-        for (Enumeration<?> jarEntries = jar.entries(); jarEntries.hasMoreElements(); ) {
-            JarEntry jarEntry = (JarEntry) jarEntries.nextElement();
-            if (!jarEntry.isDirectory()) {
-                String entryName = jarEntry.getName();
-
-                // Signature files not to write across
-                String sigFileLocation = MessageFormat.format(METAINF_FILE_LOC, signatureName, SIGNATURE_EXT)
-                                                      .toUpperCase();
-                String dsaSigBlockLocation = MessageFormat.format(METAINF_FILE_LOC, signatureName, DSA_SIG_BLOCK_EXT);
-                String rsaSigBlockLocation = MessageFormat.format(METAINF_FILE_LOC, signatureName, RSA_SIG_BLOCK_EXT);
-
-                // Do not write across existing manifest or matching signature files
-                if ((!entryName.equalsIgnoreCase(MANIFEST_LOCATION)) &&
-                    (!entryName.equalsIgnoreCase(sigFileLocation)) &&
-                    (!entryName.equalsIgnoreCase(dsaSigBlockLocation)) &&
-                    (!entryName.equalsIgnoreCase(rsaSigBlockLocation))) {
-                    // New JAR entry based on original
-                    transferJarEntry(jar, jos, jarEntry);
-                }
-            } else {
-                // simply transfer directory
-                transferJarEntry(jar, jos, jarEntry);
-            }
-        }
+    private static void writeJarEntry(JarOutputStream jos, JarEntry jarEntry, byte[] content) throws IOException {
+        putNextJarEntry(jos, jarEntry);
+        jos.write(content);
+        jos.closeEntry();
     }
 
-    private static void transferJarEntry(JarFile jar, JarOutputStream jos, JarEntry jarEntry) throws IOException {
+    private static void putNextJarEntry(JarOutputStream jos, JarEntry jarEntry) throws IOException {
         JarEntry newJarEntry = new JarEntry(jarEntry.getName());
         newJarEntry.setMethod(jarEntry.getMethod());
         newJarEntry.setTime(jarEntry.getTime());
@@ -583,11 +573,6 @@ public class JarSigner {
             newJarEntry.setCrc(jarEntry.getCrc());
         }
         jos.putNextEntry(newJarEntry);
-
-        try (InputStream is = jar.getInputStream(jarEntry)) {
-            IOUtils.copy(is, jos);
-            jos.closeEntry();
-        }
     }
 
     /*
@@ -810,4 +795,165 @@ public class JarSigner {
 
         return sb.toString();
     }
+
+    /*
+     * Content and digest of a JAR entry read ahead of the output. The content
+     * is null for entries too large to be held in memory, these are streamed
+     * when they are written
+     */
+    private static class ReadEntry {
+        private final byte[] content;
+        private final byte[] digest;
+
+        ReadEntry(byte[] content, byte[] digest) {
+            this.content = content;
+            this.digest = digest;
+        }
+    }
+
+    /*
+     * Reads and digests JAR entries on a bounded fork-join pool, a limited
+     * number of entries ahead of the one being written. Entries are handed
+     * out in their original order, so the manifest and signature file are
+     * assembled exactly as when reading serially
+     */
+    private static class ParallelEntryReader implements AutoCloseable {
+        private final JarFile jar;
+        private final List<JarEntry> entries;
+        private final DigestType digestType;
+        private final ForkJoinPool pool;
+        private final int readAhead;
+        private final Map<Integer, ForkJoinTask<ReadEntry>> pending = new HashMap<>();
+        private int nextEntry;
+
+        ParallelEntryReader(JarFile jar, List<JarEntry> entries, DigestType digestType, int parallelism) {
+            this.jar = jar;
+            this.entries = entries;
+            this.digestType = digestType;
+            this.pool = new ForkJoinPool(parallelism);
+            this.readAhead = parallelism * READ_AHEAD_PER_THREAD;
+        }
+
+        ReadEntry get(int index) throws IOException, CryptoException {
+            while (nextEntry < entries.size() && nextEntry <= index + readAhead) {
+                JarEntry jarEntry = entries.get(nextEntry);
+                pending.put(nextEntry, pool.submit(() -> read(jarEntry)));
+                nextEntry++;
+            }
+
+            try {
+                return pending.remove(index).get();
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException();
+            } catch (ExecutionException ex) {
+                Throwable cause = ex.getCause();
+
+                if (cause instanceof IOException) {
+                    throw (IOException) cause;
+                } else if (cause instanceof CryptoException) {
+                    throw (CryptoException) cause;
+                }
+
+                throw new IOException(cause);
+            }
+        }
+
+        private ReadEntry read(JarEntry jarEntry) throws IOException, CryptoException {
+            if (jarEntry.getSize() < 0 || jarEntry.getSize() > MAX_READ_AHEAD_ENTRY_SIZE) {
+                return new ReadEntry(null, null);
+            }
+
+            byte[] content;
+            try (InputStream is = jar.getInputStream(jarEntry)) {
+                content = IOUtils.toByteArray(is);
+            }
+
+            // Directories and existing signature files are not signed
+            if (jarEntry.isDirectory() || ignoreJarEntry(jarEntry)) {
+                return new ReadEntry(content, null);
+            }
+
+            return new ReadEntry(content, DigestUtil.getMessageDigest(content, digestType));
+        }
+
+        @Override
+        public void close() {
+            pool.shutdownNow();
+        }
+    }
+
+    /*
+     * Lines of a JAR file's manifest indexed by the name attribute lines that
+     * start its entry sections, so each entry's attributes are found without
+     * scanning the whole manifest again
+     */
+    private static class ManifestIndex {
+        private final List<String> lines = new ArrayList<>();
+        private final Map<String, Integer> nameLines = new HashMap<>();
+
+        ManifestIndex(String manifestContent) throws IOException {
+            try (BufferedReader reader = new BufferedReader(new StringReader(manifestContent))) {
+                String line;
+
+                while ((line = reader.readLine()) != null) {
+                    if (line.startsWith(NAME_ATTR)) {
+                        // Only the first occurrence of a line can match
+                        nameLines.putIfAbsent(line, lines.size());
+                    }
+                    lines.add(line);
+                }
+            }
+        }
+
+        /*
+         * Get the main attributes as a string, i.e. all lines up to the
+         * first blank line
+         */
+        String getMainAttrs() {
+            return getAttrs(0);
+        }
+
+        /*
+         * Get the attributes for a specified entry as a string, from its name
+         * attribute up to the next blank line
+         */
+        String getEntryAttrs(String entryName) {
+
+            // First entry name attribute to match
+            String entryNameAttr = createAttributeText(NAME_ATTR, entryName);
+
+            // Only match on first 70 characters (max line length)
+            if (entryNameAttr.length() > 70) {
+                entryNameAttr = entryNameAttr.substring(0, 70);
+            }
+
+            Integer nameLine = nameLines.get(entryNameAttr);
+
+            if (nameLine == null) {
+                return "";
+            }
+
+            // Name attribute line itself is appended even if it is blank
+            return lines.get(nameLine) + CRLF + getAttrs(nameLine + 1);
+        }
+
+        private String getAttrs(int firstLine) {
+            StringBuilder sb = new StringBuilder();
+
+            // Keep reading until a blank line is found - the end of the attributes
+            for (int i = firstLine; i < lines.size(); i++) {
+                String line = lines.get(i);
+
+                if (line.trim().isEmpty()) {
+                    break;
+                }
+
+                sb.append(line);
+                sb.append(CRLF);
+            }
+
+            return sb.toString();
+        }
+    }
 }
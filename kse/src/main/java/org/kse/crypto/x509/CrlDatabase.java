@@ -0,0 +1,586 @@
+/*
+ * Copyright 2004 - 2013 Wayne Grant
+ *           2013 - 2025 Kai Kramer
+ *
+ * This file is part of KeyStore Explorer.
+ *
+ * KeyStore Explorer is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * KeyStore Explorer is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with KeyStore Explorer.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.kse.crypto.x509;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.math.BigInteger;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.NoSuchAlgorithmException;
+import java.security.cert.X509CRL;
+import java.security.cert.X509CRLEntry;
+import java.security.cert.X509Certificate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.ResourceBundle;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+import org.bouncycastle.asn1.ASN1Primitive;
+import org.bouncycastle.asn1.x509.CRLNumber;
+import org.bouncycastle.asn1.x509.CRLReason;
+import org.bouncycastle.asn1.x509.Extension;
+import org.bouncycastle.asn1.x509.Extensions;
+import org.bouncycastle.cert.jcajce.JcaX509ExtensionUtils;
+import org.bouncycastle.operator.ContentSigner;
+import org.kse.crypto.CryptoException;
+
+/**
+ * Revocation database of a CA. Revocations and issued CRLs are appended to a file as records and an index of the
+ * revoked certificates by serial number is kept in memory, so revoking a certificate does not rewrite the file and
+ * issuing a CRL does not decode the previous one.
+ * <p>
+ * Besides complete CRLs the database issues delta CRLs (RFC 5280 5.2.4) with the changes since the last complete
+ * CRL. Certificates that were on the last complete CRL and have been unrevoked since are listed with the reason
+ * removeFromCRL. The file is compacted when a complete CRL is issued and most of its records are out of date.
+ * <p>
+ * Every change is written through to the storage device before the call returns. A record that was not written
+ * completely because of a crash is discarded when the database is opened again.
+ */
+public class CrlDatabase implements Closeable {
+    private static ResourceBundle res = ResourceBundle.getBundle("org/kse/crypto/x509/resources");
+
+    private static final long FILE_MAGIC_NUMBER = 0x4b534543524c4442L; // KSECRLDB
+    private static final int FILE_VERSION = 1;
+    private static final int FILE_HEADER_LENGTH = 12;
+
+    private static final int REVOKE_RECORD = 1;
+    private static final int UNREVOKE_RECORD = 2;
+    private static final int CRL_RECORD = 3;
+    private static final int DELTA_CRL_RECORD = 4;
+
+    // compact when issuing a complete CRL if there are more records than this and twice the revoked certificates
+    private static final int COMPACT_MIN_RECORDS = 1000;
+
+    private final File file;
+    private FileChannel channel;
+    private DataOutputStream dos;
+    private int records;
+
+    private final TreeMap<BigInteger, Entry> entries = new TreeMap<>();
+
+    // serial numbers changed since the last complete CRL
+    private final TreeSet<BigInteger> changed = new TreeSet<>();
+
+    // revoked certificates of the last complete CRL that have been unrevoked since, mapped to the date
+    private final TreeMap<BigInteger, Date> removed = new TreeMap<>();
+
+    private BigInteger crlNumber;
+    private BigInteger baseCrlNumber;
+    private Date thisUpdate;
+    private Date nextUpdate;
+
+    /**
+     * A revoked certificate.
+     */
+    public static final class Entry {
+        private final BigInteger serialNumber;
+        private final long revocationDate;
+        private final int reason;
+        private boolean inBaseCrl;
+
+        private Entry(BigInteger serialNumber, long revocationDate, int reason, boolean inBaseCrl) {
+            this.serialNumber = serialNumber;
+            this.revocationDate = revocationDate;
+            this.reason = reason;
+            this.inBaseCrl = inBaseCrl;
+        }
+
+        /**
+         * Get the serial number of the revoked certificate.
+         *
+         * @return Serial number
+         */
+        public BigInteger getSerialNumber() {
+            return serialNumber;
+        }
+
+        /**
+         * Get the revocation date.
+         *
+         * @return Revocation date
+         */
+        public Date getRevocationDate() {
+            return new Date(revocationDate);
+        }
+
+        /**
+         * Get the reason the certificate was revoked.
+         *
+         * @return One of the reason codes in {@link CRLReason}
+         */
+        public int getReason() {
+            return reason;
+        }
+    }
+
+    private CrlDatabase(File file) {
+        this.file = file;
+    }
+
+    /**
+     * Open a CRL database, creating it if the file does not exist or is empty.
+     *
+     * @param file The database file
+     * @return The database
+     * @throws CryptoException If the file is not a CRL database
+     * @throws IOException     If an I/O problem occurred
+     */
+    public static CrlDatabase open(File file) throws CryptoException, IOException {
+        CrlDatabase crlDatabase = new CrlDatabase(file);
+        crlDatabase.load();
+        return crlDatabase;
+    }
+
+    private void load() throws CryptoException, IOException {
+        if (!file.isFile() || file.length() == 0) {
+            openJournal();
+            writeFileHeader(dos);
+            sync();
+            return;
+        }
+
+        long length = FILE_HEADER_LENGTH;
+
+        try (DataInputStream dis = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            try {
+                if (dis.readLong() != FILE_MAGIC_NUMBER) {
+                    throw new CryptoException(res.getString("NoLoadCrlDatabase.BadMagicNumber.exception.message"));
+                }
+                if (dis.readInt() != FILE_VERSION) {
+                    throw new CryptoException(res.getString("NoLoadCrlDatabase.WrongVersion.exception.message"));
+                }
+            } catch (EOFException ex) {
+                throw new CryptoException(res.getString("NoLoadCrlDatabase.BadMagicNumber.exception.message"), ex);
+            }
+
+            int type;
+            while ((type = dis.read()) != -1) {
+                try {
+                    length += 1 + readRecord(type, dis);
+                    records++;
+                } catch (EOFException ex) {
+                    // last record was not written completely
+                    break;
+                }
+            }
+        }
+
+        if (length < file.length()) {
+            try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+                raf.setLength(length);
+            }
+        }
+
+        openJournal();
+    }
+
+    private int readRecord(int type, DataInputStream dis) throws CryptoException, IOException {
+        switch (type) {
+        case REVOKE_RECORD: {
+            byte[] serialNumber = readNumber(dis);
+            long revocationDate = dis.readLong();
+            int reason = dis.readUnsignedByte();
+            applyRevoke(new BigInteger(serialNumber), revocationDate, reason);
+            return 2 + serialNumber.length + 8 + 1;
+        }
+        case UNREVOKE_RECORD: {
+            byte[] serialNumber = readNumber(dis);
+            long date = dis.readLong();
+            applyUnrevoke(new BigInteger(serialNumber), date);
+            return 2 + serialNumber.length + 8;
+        }
+        case CRL_RECORD:
+        case DELTA_CRL_RECORD: {
+            byte[] number = readNumber(dis);
+            long issued = dis.readLong();
+            long next = dis.readLong();
+            applyIssued(new BigInteger(number), issued, next, type == DELTA_CRL_RECORD);
+            return 2 + number.length + 8 + 8;
+        }
+        default:
+            throw new CryptoException(res.getString("NoLoadCrlDatabase.BadRecord.exception.message"));
+        }
+    }
+
+    private static byte[] readNumber(DataInputStream dis) throws CryptoException, IOException {
+        byte[] bytes = new byte[dis.readUnsignedShort()];
+
+        // BigInteger.toByteArray() always returns at least one byte
+        if (bytes.length == 0) {
+            throw new CryptoException(res.getString("NoLoadCrlDatabase.BadRecord.exception.message"));
+        }
+
+        dis.readFully(bytes);
+        return bytes;
+    }
+
+    /**
+     * Get the number of revoked certificates.
+     *
+     * @return Number of revoked certificates
+     */
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * Get the revoked certificates.
+     *
+     * @return Revoked certificates in the order of their serial numbers
+     */
+    public Collection<Entry> getEntries() {
+        return Collections.unmodifiableCollection(entries.values());
+    }
+
+    /**
+     * Get a revoked certificate.
+     *
+     * @param serialNumber Serial number of the certificate
+     * @return The entry or null if the certificate is not revoked
+     */
+    public Entry getEntry(BigInteger serialNumber) {
+        return entries.get(serialNumber);
+    }
+
+    /**
+     * Get the number of the last issued CRL.
+     *
+     * @return CRL number or null if none was issued
+     */
+    public BigInteger getCrlNumber() {
+        return crlNumber;
+    }
+
+    /**
+     * Get the number of the last issued complete CRL, the base of delta CRLs.
+     *
+     * @return CRL number or null if none was issued
+     */
+    public BigInteger getBaseCrlNumber() {
+        return baseCrlNumber;
+    }
+
+    /**
+     * Get the effective date of the last issued CRL.
+     *
+     * @return Effective date or null if none was issued
+     */
+    public Date getThisUpdate() {
+        return thisUpdate;
+    }
+
+    /**
+     * Get the next update of the last issued CRL.
+     *
+     * @return Next update or null if none was issued or it has none
+     */
+    public Date getNextUpdate() {
+        return nextUpdate;
+    }
+
+    /**
+     * Revoke a certificate or change the date or reason of its revocation.
+     *
+     * @param serialNumber   Serial number of the certificate
+     * @param revocationDate Revocation date
+     * @param reason         One of the reason codes in {@link CRLReason}
+     * @throws IOException If the revocation could not be written
+     */
+    public void revoke(BigInteger serialNumber, Date revocationDate, int reason) throws IOException {
+        if (appendRevoke(serialNumber, revocationDate, reason)) {
+            sync();
+        }
+    }
+
+    private boolean appendRevoke(BigInteger serialNumber, Date revocationDate, int reason) throws IOException {
+        if (reason < CRLReason.unspecified || reason > CRLReason.aACompromise) {
+            throw new IllegalArgumentException("Invalid reason code: " + reason);
+        }
+
+        Entry entry = entries.get(serialNumber);
+        if (entry != null && entry.revocationDate == revocationDate.getTime() && entry.reason == reason) {
+            return false;
+        }
+
+        writeRevoke(dos, serialNumber, revocationDate.getTime(), reason);
+        records++;
+        applyRevoke(serialNumber, revocationDate.getTime(), reason);
+        return true;
+    }
+
+    /**
+     * Remove the revocation of a certificate, e.g. when a certificate hold is released.
+     *
+     * @param serialNumber Serial number of the certificate
+     * @return True if the certificate was revoked
+     * @throws IOException If the change could not be written
+     */
+    public boolean unrevoke(BigInteger serialNumber) throws IOException {
+        if (!entries.containsKey(serialNumber)) {
+            return false;
+        }
+
+        long date = System.currentTimeMillis();
+
+        writeBytes(dos, UNREVOKE_RECORD, serialNumber.toByteArray());
+        dos.writeLong(date);
+        sync();
+        records++;
+        applyUnrevoke(serialNumber, date);
+        return true;
+    }
+
+    /**
+     * Add the revoked certificates of a CRL and record it as issued complete CRL. Used to take over the revocations
+     * of a CA that were not kept in a database. The revocations are written through together with the CRL record.
+     *
+     * @param crl The CRL
+     * @throws IOException If the revocations could not be written
+     */
+    public void importCrl(X509CRL crl) throws IOException {
+        Set<? extends X509CRLEntry> revokedCertificates = crl.getRevokedCertificates();
+
+        if (revokedCertificates != null) {
+            for (X509CRLEntry entry : revokedCertificates) {
+                int reason = entry.getRevocationReason() == null ? CRLReason.unspecified
+                                                                 : entry.getRevocationReason().ordinal();
+                appendRevoke(entry.getSerialNumber(), entry.getRevocationDate(), reason);
+            }
+        }
+
+        BigInteger number = BigInteger.ZERO;
+        byte[] crlNumberValue = crl.getExtensionValue(Extension.cRLNumber.getId());
+        if (crlNumberValue != null) {
+            ASN1Primitive primitive = JcaX509ExtensionUtils.parseExtensionValue(crlNumberValue);
+            number = CRLNumber.getInstance(primitive).getCRLNumber();
+        }
+
+        issued(number, crl.getThisUpdate(), crl.getNextUpdate(), false);
+    }
+
+    /**
+     * Sign a complete CRL of all revoked certificates, write it and record it as issued.
+     *
+     * @param caCert     CA certificate
+     * @param signer     Signs the CRL with the private key of the CA
+     * @param thisUpdate Effective date
+     * @param nextUpdate Next update or null if none
+     * @param crlNumber  CRL number
+     * @param os         Stream to write the DER encoded CRL to, not closed
+     * @throws CryptoException If the CRL could not be generated
+     * @throws IOException     If an I/O problem occurred
+     */
+    public void writeCrl(X509Certificate caCert, ContentSigner signer, Date thisUpdate, Date nextUpdate,
+                         BigInteger crlNumber, OutputStream os) throws CryptoException, IOException {
+        writeCrl(caCert, signer, thisUpdate, nextUpdate, crlNumber, null, entries.values(), os);
+        issued(crlNumber, thisUpdate, nextUpdate, false);
+    }
+
+    /**
+     * Sign a delta CRL of the changes since the last complete CRL, write it and record it as issued.
+     *
+     * @param caCert     CA certificate
+     * @param signer     Signs the CRL with the private key of the CA
+     * @param thisUpdate Effective date
+     * @param nextUpdate Next update or null if none
+     * @param crlNumber  CRL number
+     * @param os         Stream to write the DER encoded CRL to, not closed
+     * @throws CryptoException If the CRL could not be generated
+     * @throws IOException     If an I/O problem occurred
+     */
+    public void writeDeltaCrl(X509Certificate caCert, ContentSigner signer, Date thisUpdate, Date nextUpdate,
+                              BigInteger crlNumber, OutputStream os) throws CryptoException, IOException {
+        if (baseCrlNumber == null) {
+            throw new IllegalStateException("No complete CRL issued");
+        }
+
+        TreeMap<BigInteger, Entry> delta = new TreeMap<>();
+        for (BigInteger serialNumber : changed) {
+            delta.put(serialNumber, entries.get(serialNumber));
+        }
+        for (Map.Entry<BigInteger, Date> removedEntry : removed.entrySet()) {
+            delta.put(removedEntry.getKey(), new Entry(removedEntry.getKey(), removedEntry.getValue().getTime(),
+                                                       CRLReason.removeFromCRL, true));
+        }
+
+        writeCrl(caCert, signer, thisUpdate, nextUpdate, crlNumber, baseCrlNumber, delta.values(), os);
+        issued(crlNumber, thisUpdate, nextUpdate, true);
+    }
+
+    private void writeCrl(X509Certificate caCert, ContentSigner signer, Date thisUpdate, Date nextUpdate,
+                          BigInteger crlNumber, BigInteger baseCrlNumber, Iterable<Entry> crlEntries,
+                          OutputStream os) throws CryptoException, IOException {
+        List<Extension> extensions = new ArrayList<>();
+        try {
+            JcaX509ExtensionUtils extUtils = new JcaX509ExtensionUtils();
+            extensions.add(new Extension(Extension.authorityKeyIdentifier, false, extUtils.createAuthorityKeyIdentifier(
+                    caCert.getPublicKey()).getEncoded()));
+        } catch (NoSuchAlgorithmException ex) {
+            throw new CryptoException(res.getString("CrlGenFailed.exception.message"), ex);
+        }
+        extensions.add(new Extension(Extension.cRLNumber, false, new CRLNumber(crlNumber).getEncoded()));
+        if (baseCrlNumber != null) {
+            extensions.add(new Extension(Extension.deltaCRLIndicator, true, new CRLNumber(baseCrlNumber).getEncoded()));
+        }
+
+        X509CrlWriter writer = new X509CrlWriter(signer, X500NameUtils.x500PrincipalToX500Name(
+                caCert.getSubjectX500Principal()), thisUpdate, nextUpdate,
+                                                 new Extensions(extensions.toArray(new Extension[0])));
+        writer.write(crlEntries, os);
+    }
+
+    private void issued(BigInteger number, Date issued, Date next, boolean delta) throws IOException {
+        long nextTime = next == null ? -1 : next.getTime();
+
+        writeIssued(dos, number, issued.getTime(), nextTime, delta);
+        sync();
+        records++;
+        applyIssued(number, issued.getTime(), nextTime, delta);
+
+        if (!delta && records > COMPACT_MIN_RECORDS && records > 2 * (entries.size() + 1)) {
+            compact();
+        }
+    }
+
+    /*
+     * Replace the file with one that only has the revocations and the last complete CRL
+     */
+    private void compact() throws IOException {
+        File compacted = new File(file.getPath() + ".tmp");
+
+        try (FileOutputStream compactedFos = new FileOutputStream(compacted);
+             DataOutputStream compactedDos = new DataOutputStream(new BufferedOutputStream(compactedFos))) {
+            writeFileHeader(compactedDos);
+            for (Entry entry : entries.values()) {
+                writeRevoke(compactedDos, entry.serialNumber, entry.revocationDate, entry.reason);
+            }
+            writeIssued(compactedDos, crlNumber, thisUpdate.getTime(), nextUpdate == null ? -1 : nextUpdate.getTime(),
+                        false);
+            compactedDos.flush();
+            compactedFos.getChannel().force(false);
+        }
+
+        dos.close();
+        Files.move(compacted.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING,
+                   StandardCopyOption.ATOMIC_MOVE);
+        openJournal();
+        records = entries.size() + 1;
+    }
+
+    private void applyRevoke(BigInteger serialNumber, long revocationDate, int reason) {
+        Entry entry = entries.get(serialNumber);
+        boolean inBaseCrl = entry != null ? entry.inBaseCrl : removed.remove(serialNumber) != null;
+
+        entries.put(serialNumber, new Entry(serialNumber, revocationDate, reason, inBaseCrl));
+        changed.add(serialNumber);
+    }
+
+    private void applyUnrevoke(BigInteger serialNumber, long date) {
+        Entry entry = entries.remove(serialNumber);
+        changed.remove(serialNumber);
+
+        if (entry != null && entry.inBaseCrl) {
+            removed.put(serialNumber, new Date(date));
+        }
+    }
+
+    private void applyIssued(BigInteger number, long issued, long next, boolean delta) {
+        crlNumber = number;
+        thisUpdate = new Date(issued);
+        nextUpdate = next == -1 ? null : new Date(next);
+
+        if (!delta) {
+            baseCrlNumber = number;
+            for (BigInteger serialNumber : changed) {
+                entries.get(serialNumber).inBaseCrl = true;
+            }
+            changed.clear();
+            removed.clear();
+        }
+    }
+
+    private void openJournal() throws IOException {
+        FileOutputStream fos = new FileOutputStream(file, true);
+        channel = fos.getChannel();
+        dos = new DataOutputStream(new BufferedOutputStream(fos));
+    }
+
+    /*
+     * Write the buffered records and force them to the storage device, so a crash cannot lose a change that was
+     * reported as done
+     */
+    private void sync() throws IOException {
+        dos.flush();
+        channel.force(false);
+    }
+
+    private static void writeFileHeader(DataOutputStream dos) throws IOException {
+        dos.writeLong(FILE_MAGIC_NUMBER);
+        dos.writeInt(FILE_VERSION);
+    }
+
+    private static void writeRevoke(DataOutputStream dos, BigInteger serialNumber, long revocationDate, int reason)
+            throws IOException {
+        writeBytes(dos, REVOKE_RECORD, serialNumber.toByteArray());
+        dos.writeLong(revocationDate);
+        dos.writeByte(reason);
+    }
+
+    private static void writeIssued(DataOutputStream dos, BigInteger number, long issued, long next, boolean delta)
+            throws IOException {
+        writeBytes(dos, delta ? DELTA_CRL_RECORD : CRL_RECORD, number.toByteArray());
+        dos.writeLong(issued);
+        dos.writeLong(next);
+    }
+
+    private static void writeBytes(DataOutputStream dos, int type, byte[] bytes) throws IOException {
+        dos.writeByte(type);
+        dos.writeShort(bytes.length);
+        dos.write(bytes);
+    }
+
+    /**
+     * Close the database file.
+     *
+     * @throws IOException If the file could not be closed
+     */
+    @Override
+    public void close() throws IOException {
+        dos.close();
+    }
+}
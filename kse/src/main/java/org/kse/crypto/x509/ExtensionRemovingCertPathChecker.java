@@ -0,0 +1,58 @@
+/*
+ * Copyright 2004 - 2013 Wayne Grant
+ *           2013 - 2025 Kai Kramer
+ *
+ * This file is part of KeyStore Explorer.
+ *
+ * KeyStore Explorer is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * KeyStore Explorer is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with KeyStore Explorer.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.kse.crypto.x509;
+
+import java.security.cert.CertPathValidatorException;
+import java.security.cert.Certificate;
+import java.security.cert.PKIXCertPathChecker;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Set;
+
+/**
+ * Certificate path checker that marks critical private extensions of certificate vendors as processed, as they
+ * would otherwise cause the validation of the certificate path to fail.
+ */
+public class ExtensionRemovingCertPathChecker extends PKIXCertPathChecker {
+
+    // appleCertificateExtensionCodeSigning
+    private static final String APPLE_CODE_SIGNING = "1.2.840.113635.100.6.1.13";
+
+    @Override
+    public void init(boolean forward) throws CertPathValidatorException {
+        // nothing to do here
+    }
+
+    @Override
+    public boolean isForwardCheckingSupported() {
+        return false;
+    }
+
+    @Override
+    public Set<String> getSupportedExtensions() {
+        return Collections.singleton(APPLE_CODE_SIGNING);
+    }
+
+    @Override
+    public void check(Certificate cert, Collection<String> unresolvedCritExts) throws CertPathValidatorException {
+        // remove critical Apple private extension that causes certificate validation to fail
+        unresolvedCritExts.remove(APPLE_CODE_SIGNING);
+    }
+}
@@ -0,0 +1,404 @@
+/*
+ * Copyright 2004 - 2013 Wayne Grant
+ *           2013 - 2025 Kai Kramer
+ *
+ * This file is part of KeyStore Explorer.
+ *
+ * KeyStore Explorer is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * KeyStore Explorer is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with KeyStore Explorer.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.kse.crypto.x509;
+
+import java.nio.ByteBuffer;
+import java.security.KeyStore;
+import java.security.cert.CertificateEncodingException;
+import java.security.cert.X509Certificate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.ResourceBundle;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.security.auth.x500.X500Principal;
+
+import org.kse.crypto.CryptoException;
+import org.kse.crypto.digest.DigestType;
+import org.kse.crypto.digest.DigestUtil;
+
+/**
+ * Index of trusted certificates by subject DN and subject key identifier for establishing chains of trust. Chains
+ * found are cached per index, the results of signature verifications are cached for all indexes. An index may have
+ * a parent index whose certificates are used too, so that the index of a large KeyStore like cacerts can be built
+ * once and reused for other KeyStores. Chains that only lead through certificates of the parent index are cached
+ * by the parent, so that they are shared by all of its child indexes.
+ */
+public final class TrustIndex {
+    private static ResourceBundle res = ResourceBundle.getBundle("org/kse/crypto/x509/resources");
+
+    private static final int MAX_VERIFICATIONS = 4096;
+
+    // Results of signature verifications keyed by fingerprints of the signed and the signing certificate
+    private static final Map<ByteBuffer, Boolean> VERIFICATIONS = Collections.synchronizedMap(
+            new LinkedHashMap<ByteBuffer, Boolean>(16, 0.75f, true) {
+                private static final long serialVersionUID = 1L;
+
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<ByteBuffer, Boolean> eldest) {
+                    return size() > MAX_VERIFICATIONS;
+                }
+            });
+
+    private final TrustIndex parent;
+    private final Map<X500Principal, List<IndexedCert>> bySubject = new HashMap<>();
+    private final Map<ByteBuffer, List<IndexedCert>> bySubjectKeyIdentifier = new HashMap<>();
+    private final Map<ByteBuffer, IndexedCert[]> chains = new ConcurrentHashMap<>();
+
+    /**
+     * Create an index of the supplied certificates.
+     *
+     * @param certs The certificates
+     * @throws CryptoException If a certificate could not be encoded
+     */
+    public TrustIndex(Collection<X509Certificate> certs) throws CryptoException {
+        this(certs, null);
+    }
+
+    /**
+     * Create an index of the supplied certificates that also uses the certificates of a parent index. The
+     * certificates of this index take precedence.
+     *
+     * @param certs  The certificates
+     * @param parent The parent index or null
+     * @throws CryptoException If a certificate could not be encoded
+     */
+    public TrustIndex(Collection<X509Certificate> certs, TrustIndex parent) throws CryptoException {
+        this.parent = parent;
+
+        for (X509Certificate cert : certs) {
+            IndexedCert indexedCert = new IndexedCert(cert, this);
+
+            bySubject.computeIfAbsent(cert.getSubjectX500Principal(), subject -> new ArrayList<>()).add(indexedCert);
+
+            if (indexedCert.subjectKeyIdentifier != null) {
+                bySubjectKeyIdentifier.computeIfAbsent(ByteBuffer.wrap(indexedCert.subjectKeyIdentifier),
+                                                       ski -> new ArrayList<>()).add(indexedCert);
+            }
+        }
+    }
+
+    /**
+     * Create an index of the trusted certificate entries of the supplied KeyStores.
+     *
+     * @param keyStores The KeyStores
+     * @return The index
+     * @throws CryptoException If the certificates could not be extracted
+     */
+    public static TrustIndex fromKeyStores(KeyStore... keyStores) throws CryptoException {
+        return fromKeyStores(null, keyStores);
+    }
+
+    /**
+     * Create an index of the trusted certificate entries of the supplied KeyStores that also uses the certificates
+     * of a parent index.
+     *
+     * @param parent    The parent index or null
+     * @param keyStores The KeyStores
+     * @return The index
+     * @throws CryptoException If the certificates could not be extracted
+     */
+    public static TrustIndex fromKeyStores(TrustIndex parent, KeyStore... keyStores) throws CryptoException {
+        List<X509Certificate> certs = new ArrayList<>();
+
+        for (KeyStore keyStore : keyStores) {
+            certs.addAll(X509CertUtil.extractCertificates(keyStore));
+        }
+
+        return new TrustIndex(certs, parent);
+    }
+
+    /**
+     * Get the certificates with the supplied subject DN.
+     *
+     * @param subject The subject DN
+     * @return The certificates, empty if none match
+     */
+    public List<X509Certificate> getBySubject(X500Principal subject) {
+        List<X509Certificate> certs = new ArrayList<>();
+
+        for (IndexedCert indexedCert : getIndexedBySubject(subject)) {
+            certs.add(indexedCert.cert);
+        }
+
+        return certs;
+    }
+
+    /**
+     * Get the certificates with the supplied subject key identifier.
+     *
+     * @param subjectKeyIdentifier The key identifier
+     * @return The certificates, empty if none match
+     */
+    public List<X509Certificate> getBySubjectKeyIdentifier(byte[] subjectKeyIdentifier) {
+        List<X509Certificate> certs = new ArrayList<>();
+
+        for (TrustIndex index = this; index != null; index = index.parent) {
+            for (IndexedCert indexedCert : index.bySubjectKeyIdentifier.getOrDefault(
+                    ByteBuffer.wrap(subjectKeyIdentifier), Collections.emptyList())) {
+                certs.add(indexedCert.cert);
+            }
+        }
+
+        return certs;
+    }
+
+    /**
+     * Check whether or not a trust path exists between the supplied X.509 certificate and a self-signed
+     * certificate of this index, see {@link X509CertUtil#establishTrust(X509Certificate, List)}.
+     *
+     * @param cert The certificate
+     * @return The trust chain, or null if trust could not be established
+     * @throws CryptoException If there is a problem establishing trust
+     */
+    public X509Certificate[] establishTrust(X509Certificate cert) throws CryptoException {
+        IndexedCert indexedCert = new IndexedCert(cert, null);
+
+        IndexedCert[] chain = getCachedChain(indexedCert.fingerprint);
+
+        if (chain == null) {
+            chain = establishTrust(indexedCert, new HashSet<>());
+
+            // No certificate was on the path yet, so not finding a chain is definite and cached as an empty one
+            if (chain != null) {
+                cacheChain(indexedCert.fingerprint, chain);
+            } else {
+                chains.put(indexedCert.fingerprint, new IndexedCert[0]);
+            }
+        }
+
+        if (chain == null || chain.length == 0) {
+            return null;
+        }
+
+        X509Certificate[] trustChain = new X509Certificate[chain.length];
+
+        for (int i = 0; i < chain.length; i++) {
+            trustChain[i] = chain[i].cert;
+        }
+
+        // A cached chain may start with an equal certificate of an earlier call
+        trustChain[0] = cert;
+
+        return trustChain;
+    }
+
+    /**
+     * Is a chain of trust for the supplied certificate cached by this index or one of its parents?
+     *
+     * @param cert The certificate
+     * @return True if a chain is cached
+     * @throws CryptoException If the certificate could not be encoded
+     */
+    boolean isChainCached(X509Certificate cert) throws CryptoException {
+        IndexedCert[] chain = getCachedChain(new IndexedCert(cert, null).fingerprint);
+        return chain != null && chain.length > 0;
+    }
+
+    private IndexedCert[] establishTrust(IndexedCert indexedCert, Set<ByteBuffer> path) throws CryptoException {
+        path.add(indexedCert.fingerprint);
+
+        try {
+            for (IndexedCert issuerCert : getIssuerCandidates(indexedCert)) {
+                // Issuers already on the path form a cycle (e.g. cross-signed CAs) and are not followed again
+                if (!issuerCert.selfSigned && path.contains(issuerCert.fingerprint)) {
+                    continue;
+                }
+
+                // Verify if the issuer certificate's private key was used to sign the certificate
+                if (!verify(indexedCert, issuerCert)) {
+                    continue;
+                }
+
+                // If the issuer certificate is self-signed then a chain of trust exists
+                if (issuerCert.selfSigned) {
+                    return new IndexedCert[] { indexedCert, issuerCert };
+                }
+
+                // Otherwise try and establish a chain of trust from the issuer certificate
+                IndexedCert[] issuerChain = getCachedChain(issuerCert.fingerprint);
+
+                if (issuerChain == null || issuerChain.length == 0 || isOnPath(issuerChain, path)) {
+                    issuerChain = establishTrust(issuerCert, path);
+
+                    // Only chains found are cached, not finding one may be due to the certificates on the path
+                    if (issuerChain != null) {
+                        cacheChain(issuerCert.fingerprint, issuerChain);
+                    }
+                }
+
+                if (issuerChain != null) {
+                    IndexedCert[] trustChain = new IndexedCert[issuerChain.length + 1];
+                    trustChain[0] = indexedCert;
+                    System.arraycopy(issuerChain, 0, trustChain, 1, issuerChain.length);
+
+                    return trustChain;
+                }
+            }
+
+            return null; // No chain of trust
+        } finally {
+            path.remove(indexedCert.fingerprint);
+        }
+    }
+
+    /*
+     * Chain cached by this index or a chain found by one of its parents. Only
+     * this index knows whether its certificates lead to no chain at all.
+     */
+    private IndexedCert[] getCachedChain(ByteBuffer fingerprint) {
+        IndexedCert[] chain = chains.get(fingerprint);
+
+        for (TrustIndex index = parent; chain == null && index != null; index = index.parent) {
+            IndexedCert[] parentChain = index.chains.get(fingerprint);
+
+            if (parentChain != null && parentChain.length > 0) {
+                chain = parentChain;
+            }
+        }
+
+        return chain;
+    }
+
+    /*
+     * Cache a chain in the outermost index that sees all of its issuers, the
+     * first certificate of the chain is the one it was established for
+     */
+    private void cacheChain(ByteBuffer fingerprint, IndexedCert[] chain) {
+        TrustIndex index = this;
+
+        while (index.parent != null && !index.holdsIssuerOf(chain)) {
+            index = index.parent;
+        }
+
+        index.chains.put(fingerprint, chain);
+    }
+
+    private boolean holdsIssuerOf(IndexedCert[] chain) {
+        for (int i = 1; i < chain.length; i++) {
+            if (chain[i].owner == this) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    private static boolean isOnPath(IndexedCert[] chain, Set<ByteBuffer> path) {
+        for (IndexedCert indexedCert : chain) {
+            if (path.contains(indexedCert.fingerprint)) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    /*
+     * Certificates whose subject is the certificate's issuer, those whose
+     * subject key identifier matches the certificate's authority key
+     * identifier first
+     */
+    private List<IndexedCert> getIssuerCandidates(IndexedCert indexedCert) {
+        List<IndexedCert> candidates = getIndexedBySubject(indexedCert.cert.getIssuerX500Principal());
+
+        if (indexedCert.authorityKeyIdentifier == null || candidates.size() < 2) {
+            return candidates;
+        }
+
+        List<IndexedCert> ordered = new ArrayList<>(candidates.size());
+        List<IndexedCert> others = new ArrayList<>();
+
+        for (IndexedCert candidate : candidates) {
+            if (Arrays.equals(indexedCert.authorityKeyIdentifier, candidate.subjectKeyIdentifier)) {
+                ordered.add(candidate);
+            } else {
+                others.add(candidate);
+            }
+        }
+
+        ordered.addAll(others);
+        return ordered;
+    }
+
+    private List<IndexedCert> getIndexedBySubject(X500Principal subject) {
+        List<IndexedCert> certs = bySubject.getOrDefault(subject, Collections.emptyList());
+
+        if (parent == null) {
+            return certs;
+        }
+
+        List<IndexedCert> parentCerts = parent.getIndexedBySubject(subject);
+
+        if (certs.isEmpty()) {
+            return parentCerts;
+        }
+
+        List<IndexedCert> allCerts = new ArrayList<>(certs);
+        allCerts.addAll(parentCerts);
+        return allCerts;
+    }
+
+    private static boolean verify(IndexedCert signedCert, IndexedCert signingCert) throws CryptoException {
+        ByteBuffer key = ByteBuffer.allocate(signedCert.fingerprint.capacity() + signingCert.fingerprint.capacity());
+        key.put(signedCert.fingerprint.duplicate()).put(signingCert.fingerprint.duplicate()).flip();
+
+        Boolean verified = VERIFICATIONS.get(key);
+
+        if (verified == null) {
+            verified = X509CertUtil.verifyCertificate(signedCert.cert, signingCert.cert);
+            VERIFICATIONS.put(key, verified);
+        }
+
+        return verified;
+    }
+
+    private static class IndexedCert {
+        private final X509Certificate cert;
+        private final TrustIndex owner;
+        private final ByteBuffer fingerprint;
+        private final byte[] subjectKeyIdentifier;
+        private final byte[] authorityKeyIdentifier;
+        private final boolean selfSigned;
+
+        IndexedCert(X509Certificate cert, TrustIndex owner) throws CryptoException {
+            this.cert = cert;
+            this.owner = owner;
+
+            try {
+                fingerprint = ByteBuffer.wrap(DigestUtil.getMessageDigest(cert.getEncoded(), DigestType.SHA256));
+            } catch (CertificateEncodingException ex) {
+                throw new CryptoException(res.getString("NoDerEncodeCertificate.exception.message"), ex);
+            }
+
+            subjectKeyIdentifier = X509CertUtil.getKeyIdentifier(cert, true);
+            authorityKeyIdentifier = X509CertUtil.getKeyIdentifier(cert, false);
+            selfSigned = cert.getSubjectX500Principal().equals(cert.getIssuerX500Principal());
+        }
+    }
+}
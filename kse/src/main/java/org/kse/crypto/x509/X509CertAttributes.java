@@ -0,0 +1,329 @@
+/*
+ * Copyright 2004 - 2013 Wayne Grant
+ *           2013 - 2025 Kai Kramer
+ *
+ * This file is part of KeyStore Explorer.
+ *
+ * KeyStore Explorer is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * KeyStore Explorer is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with KeyStore Explorer.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.kse.crypto.x509;
+
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.SoftReference;
+import java.lang.ref.WeakReference;
+import java.nio.ByteBuffer;
+import java.security.PublicKey;
+import java.security.cert.CertificateEncodingException;
+import java.security.cert.X509Certificate;
+import java.util.Map;
+import java.util.ResourceBundle;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.bouncycastle.asn1.DEROctetString;
+import org.bouncycastle.asn1.x500.X500Name;
+import org.bouncycastle.asn1.x509.AuthorityKeyIdentifier;
+import org.bouncycastle.asn1.x509.Extension;
+import org.bouncycastle.asn1.x509.SubjectKeyIdentifier;
+import org.kse.crypto.CryptoException;
+import org.kse.crypto.KeyInfo;
+import org.kse.crypto.digest.DigestType;
+import org.kse.crypto.digest.DigestUtil;
+import org.kse.crypto.keypair.KeyPairUtil;
+import org.kse.utilities.StringUtils;
+import org.kse.utilities.io.HexUtil;
+
+/**
+ * Attributes derived from an X.509 certificate for display purposes: names, serial numbers, key identifiers and
+ * key info. Instances are cached by the SHA-256 fingerprint of the encoded certificate and softly referenced, so
+ * a certificate is only decoded once while memory permits, no matter how often it is displayed. In front of that
+ * cache the attributes are kept per certificate instance for as long as the instance is in use, so that repeated
+ * lookups of the same instance neither encode nor hash it.
+ */
+public final class X509CertAttributes {
+    private static ResourceBundle res = ResourceBundle.getBundle("org/kse/crypto/x509/resources");
+
+    private static final Map<ByteBuffer, CacheReference> CACHE = new ConcurrentHashMap<>();
+    private static final ReferenceQueue<X509CertAttributes> QUEUE = new ReferenceQueue<>();
+
+    private static final Map<InstanceReference, X509CertAttributes> INSTANCES = new ConcurrentHashMap<>();
+    private static final ReferenceQueue<X509Certificate> INSTANCE_QUEUE = new ReferenceQueue<>();
+
+    private final PublicKey publicKey;
+    private final X500Name subject;
+    private final X500Name issuer;
+    private final String subjectCN;
+    private final String issuerCN;
+    private final String subjectO;
+    private final String issuerO;
+    private final String shortName;
+    private final String serialNumberHex;
+    private final String serialNumberDec;
+    private final String subjectKeyIdentifier;
+    private final String authorityKeyIdentifier;
+    private volatile KeyInfo keyInfo;
+
+    private X509CertAttributes(X509Certificate cert) {
+        // The certificate itself is not kept, so that the instance cache does not hold on to it
+        publicKey = cert.getPublicKey();
+
+        subject = X500NameUtils.x500PrincipalToX500Name(cert.getSubjectX500Principal());
+        issuer = X500NameUtils.x500PrincipalToX500Name(cert.getIssuerX500Principal());
+        subjectCN = X500NameUtils.extractCN(subject);
+        issuerCN = X500NameUtils.extractCN(issuer);
+        subjectO = X500NameUtils.getRdn(subject, KseX500NameStyle.O);
+        issuerO = X500NameUtils.getRdn(issuer, KseX500NameStyle.O);
+        serialNumberHex = X509CertUtil.getSerialNumberAsHex(cert);
+        serialNumberDec = X509CertUtil.getSerialNumberAsDec(cert);
+        subjectKeyIdentifier = getSubjectKeyIdentifier(cert);
+        authorityKeyIdentifier = getAuthorityKeyIdentifier(cert);
+
+        // Same fallbacks as X509CertUtil.getShortName - subject DN can be empty in some cases
+        String name = subjectCN;
+        if (StringUtils.isBlank(name)) {
+            name = subject.toString();
+        }
+        if (StringUtils.isBlank(name)) {
+            name = cert.getSerialNumber().toString();
+        }
+        shortName = name;
+    }
+
+    /**
+     * Get the derived attributes of an X.509 certificate. Returns the cached attributes of an equal certificate if
+     * available.
+     *
+     * @param cert The certificate
+     * @return The attributes
+     * @throws CryptoException If the certificate could not be encoded
+     */
+    public static X509CertAttributes get(X509Certificate cert) throws CryptoException {
+        expungeClearedReferences();
+
+        X509CertAttributes attributes = INSTANCES.get(new InstanceReference(cert, null));
+
+        if (attributes != null) {
+            return attributes;
+        }
+
+        ByteBuffer fingerprint;
+        try {
+            fingerprint = ByteBuffer.wrap(DigestUtil.getMessageDigest(cert.getEncoded(), DigestType.SHA256));
+        } catch (CertificateEncodingException ex) {
+            throw new CryptoException(res.getString("NoDerEncodeCertificate.exception.message"), ex);
+        }
+
+        CacheReference reference = CACHE.get(fingerprint);
+        attributes = reference != null ? reference.get() : null;
+
+        if (attributes == null) {
+            attributes = new X509CertAttributes(cert);
+            CACHE.put(fingerprint, new CacheReference(fingerprint, attributes, QUEUE));
+        }
+
+        INSTANCES.put(new InstanceReference(cert, INSTANCE_QUEUE), attributes);
+
+        return attributes;
+    }
+
+    private static void expungeClearedReferences() {
+        CacheReference reference;
+        while ((reference = (CacheReference) QUEUE.poll()) != null) {
+            CACHE.remove(reference.fingerprint, reference);
+        }
+
+        InstanceReference instanceReference;
+        while ((instanceReference = (InstanceReference) INSTANCE_QUEUE.poll()) != null) {
+            INSTANCES.remove(instanceReference);
+        }
+    }
+
+    private static String getSubjectKeyIdentifier(X509Certificate cert) {
+        try {
+            byte[] skiValue = cert.getExtensionValue(Extension.subjectKeyIdentifier.getId());
+            byte[] octets = DEROctetString.getInstance(skiValue).getOctets();
+            return HexUtil.getHexString(SubjectKeyIdentifier.getInstance(octets).getKeyIdentifier());
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    private static String getAuthorityKeyIdentifier(X509Certificate cert) {
+        try {
+            byte[] akiValue = cert.getExtensionValue(Extension.authorityKeyIdentifier.getId());
+            byte[] octets = DEROctetString.getInstance(akiValue).getOctets();
+            return HexUtil.getHexString(AuthorityKeyIdentifier.getInstance(octets).getKeyIdentifier());
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    /**
+     * Get the subject distinguished name.
+     *
+     * @return Subject DN
+     */
+    public X500Name getSubject() {
+        return subject;
+    }
+
+    /**
+     * Get the issuer distinguished name.
+     *
+     * @return Issuer DN
+     */
+    public X500Name getIssuer() {
+        return issuer;
+    }
+
+    /**
+     * Get the common name of the subject.
+     *
+     * @return Subject CN or empty string
+     */
+    public String getSubjectCN() {
+        return subjectCN;
+    }
+
+    /**
+     * Get the common name of the issuer.
+     *
+     * @return Issuer CN or empty string
+     */
+    public String getIssuerCN() {
+        return issuerCN;
+    }
+
+    /**
+     * Get the organisation of the subject.
+     *
+     * @return Subject O or empty string
+     */
+    public String getSubjectO() {
+        return subjectO;
+    }
+
+    /**
+     * Get the organisation of the issuer.
+     *
+     * @return Issuer O or empty string
+     */
+    public String getIssuerO() {
+        return issuerO;
+    }
+
+    /**
+     * Get a short name for the certificate, see {@link X509CertUtil#getShortName(X509Certificate)}.
+     *
+     * @return Short name
+     */
+    public String getShortName() {
+        return shortName;
+    }
+
+    /**
+     * Get the serial number as hex string with "0x" prefix.
+     *
+     * @return Serial number
+     */
+    public String getSerialNumberHex() {
+        return serialNumberHex;
+    }
+
+    /**
+     * Get the serial number as decimal string.
+     *
+     * @return Serial number
+     */
+    public String getSerialNumberDec() {
+        return serialNumberDec;
+    }
+
+    /**
+     * Get the subject key identifier as hex string.
+     *
+     * @return SKI or null if the certificate has none
+     */
+    public String getSubjectKeyIdentifier() {
+        return subjectKeyIdentifier;
+    }
+
+    /**
+     * Get the key identifier of the authority key identifier as hex string.
+     *
+     * @return AKI or null if the certificate has none
+     */
+    public String getAuthorityKeyIdentifier() {
+        return authorityKeyIdentifier;
+    }
+
+    /**
+     * Get the key info of the certificate's public key.
+     *
+     * @return Key info
+     * @throws CryptoException If the key info could not be determined
+     */
+    public KeyInfo getKeyInfo() throws CryptoException {
+        KeyInfo result = keyInfo;
+
+        if (result == null) {
+            result = KeyPairUtil.getKeyInfo(publicKey);
+            keyInfo = result;
+        }
+
+        return result;
+    }
+
+    private static class CacheReference extends SoftReference<X509CertAttributes> {
+        private final ByteBuffer fingerprint;
+
+        CacheReference(ByteBuffer fingerprint, X509CertAttributes attributes,
+                       ReferenceQueue<X509CertAttributes> queue) {
+            super(attributes, queue);
+            this.fingerprint = fingerprint;
+        }
+    }
+
+    /*
+     * Weak reference to a certificate that is equal to another one for the same
+     * instance, so that certificates are looked up by identity and the entry
+     * can still be removed once the certificate has been collected
+     */
+    private static class InstanceReference extends WeakReference<X509Certificate> {
+        private final int hash;
+
+        InstanceReference(X509Certificate cert, ReferenceQueue<X509Certificate> queue) {
+            super(cert, queue);
+            this.hash = System.identityHashCode(cert);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+
+            if (!(obj instanceof InstanceReference)) {
+                return false;
+            }
+
+            X509Certificate cert = get();
+            return cert != null && cert == ((InstanceReference) obj).get();
+        }
+    }
+}
@@ -0,0 +1,243 @@
+/*
+ * Copyright 2004 - 2013 Wayne Grant
+ *           2013 - 2025 Kai Kramer
+ *
+ * This file is part of KeyStore Explorer.
+ *
+ * KeyStore Explorer is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * KeyStore Explorer is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with KeyStore Explorer.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.kse.crypto.x509;
+
+import java.security.cert.X509Certificate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.security.auth.x500.X500Principal;
+
+/**
+ * Links each certificate of a set to its issuer within the set. Candidate issuers are looked up by subject DN and
+ * narrowed down by key identifiers, so signatures are only verified if a link is still ambiguous. Building the links
+ * and deriving chains from them takes linear time in the number of certificates.
+ */
+final class X509CertChainBuilder {
+    private static final int NO_ISSUER = -1;
+
+    private final X509Certificate[] certs;
+
+    // Index of the issuer certificate for each certificate or NO_ISSUER
+    private final int[] issuers;
+
+    // Number of issuer links from each certificate to the top of its chain and the index of that top certificate
+    private final int[] levels;
+    private final int[] tops;
+
+    X509CertChainBuilder(X509Certificate[] certs) {
+        this.certs = certs;
+
+        issuers = new int[certs.length];
+        levels = new int[certs.length];
+        tops = new int[certs.length];
+
+        linkIssuers();
+        computeLevels();
+    }
+
+    /**
+     * Get the longest chain in issued to issuer order. Of several chains of the same length the one starting with
+     * the certificate that comes first in the set is returned.
+     *
+     * @return The chain
+     */
+    X509Certificate[] getLongestChain() {
+        int start = 0;
+
+        for (int i = 1; i < certs.length; i++) {
+            if (levels[i] > levels[start]) {
+                start = i;
+            }
+        }
+
+        List<X509Certificate> chain = new ArrayList<>(levels[start] + 1);
+        boolean[] added = new boolean[certs.length];
+
+        for (int i = start; i != NO_ISSUER && !added[i]; i = issuers[i]) {
+            chain.add(certs[i]);
+            added[i] = true;
+        }
+
+        return chain.toArray(new X509Certificate[0]);
+    }
+
+    /**
+     * Get all certificates with each one preceding its issuer. Certificates of the same chain (or tree of chains
+     * with a common top certificate) are kept together in the order their first certificate appears in the set,
+     * certificates without issuer and without issued certificates in the set come last.
+     *
+     * @return The ordered certificates
+     */
+    X509Certificate[] getAllOrdered() {
+        boolean[] linked = new boolean[certs.length];
+
+        for (int i = 0; i < certs.length; i++) {
+            if (issuers[i] != NO_ISSUER) {
+                linked[i] = true;
+                linked[issuers[i]] = true;
+            }
+        }
+
+        // Group linked certificates by the top of their chain...
+        Map<Integer, List<Integer>> groups = new LinkedHashMap<>();
+        List<X509Certificate> unlinked = new ArrayList<>();
+
+        for (int i = 0; i < certs.length; i++) {
+            if (linked[i]) {
+                groups.computeIfAbsent(tops[i], top -> new ArrayList<>()).add(i);
+            } else {
+                unlinked.add(certs[i]);
+            }
+        }
+
+        // ...and order each group from the lowest to the highest level
+        List<X509Certificate> ordered = new ArrayList<>(certs.length);
+
+        for (List<Integer> group : groups.values()) {
+            group.sort(Comparator.comparingInt((Integer i) -> levels[i]).reversed());
+
+            for (int i : group) {
+                ordered.add(certs[i]);
+            }
+        }
+
+        ordered.addAll(unlinked);
+
+        return ordered.toArray(new X509Certificate[0]);
+    }
+
+    private void linkIssuers() {
+        Map<X500Principal, List<Integer>> bySubject = new HashMap<>();
+
+        for (int i = 0; i < certs.length; i++) {
+            bySubject.computeIfAbsent(certs[i].getSubjectX500Principal(), subject -> new ArrayList<>()).add(i);
+        }
+
+        for (int i = 0; i < certs.length; i++) {
+            X509Certificate cert = certs[i];
+
+            // A self-signed certificate is the top of its chain
+            if (X509CertUtil.isCertificateSelfSigned(cert)) {
+                issuers[i] = NO_ISSUER;
+                continue;
+            }
+
+            List<Integer> candidates = bySubject.get(cert.getIssuerX500Principal());
+
+            issuers[i] = candidates == null ? NO_ISSUER : findIssuer(i, candidates);
+        }
+    }
+
+    private int findIssuer(int certIndex, List<Integer> candidates) {
+        X509Certificate cert = certs[certIndex];
+        byte[] authorityKeyIdentifier = X509CertUtil.getKeyIdentifier(cert, false);
+
+        List<Integer> keyMatches = new ArrayList<>();
+        List<Integer> others = new ArrayList<>();
+
+        for (int candidate : candidates) {
+            // The certificate itself or a copy of it is not its own issuer
+            if (candidate == certIndex || certificatesEquals(cert, certs[candidate])) {
+                continue;
+            }
+
+            byte[] subjectKeyIdentifier = authorityKeyIdentifier == null ? null :
+                                          X509CertUtil.getKeyIdentifier(certs[candidate], true);
+
+            if (subjectKeyIdentifier == null) {
+                others.add(candidate);
+            } else if (Arrays.equals(authorityKeyIdentifier, subjectKeyIdentifier)) {
+                keyMatches.add(candidate);
+            }
+            // Different key identifiers mean a different issuer key
+        }
+
+        List<Integer> remaining = keyMatches.isEmpty() ? others : keyMatches;
+
+        if (remaining.isEmpty()) {
+            return NO_ISSUER;
+        }
+
+        if (remaining.size() == 1) {
+            return remaining.get(0);
+        }
+
+        // Ambiguous link, e.g. a renewed CA certificate with the same DN
+        for (int candidate : remaining) {
+            if (X509CertUtil.isIssuedBy(cert, certs[candidate])) {
+                return candidate;
+            }
+        }
+
+        return NO_ISSUER;
+    }
+
+    private void computeLevels() {
+        final int unknown = -1;
+        Arrays.fill(levels, unknown);
+
+        boolean[] onWalk = new boolean[certs.length];
+        List<Integer> walk = new ArrayList<>();
+
+        for (int start = 0; start < certs.length; start++) {
+            // Follow issuer links until reaching a certificate with known level, the top or a cycle...
+            int i = start;
+            while (i != NO_ISSUER && levels[i] == unknown && !onWalk[i]) {
+                onWalk[i] = true;
+                walk.add(i);
+                i = issuers[i];
+            }
+
+            int level;
+            int top;
+
+            if (i != NO_ISSUER && levels[i] != unknown) {
+                level = levels[i];
+                top = tops[i];
+            } else {
+                // Top reached or a cycle (e.g. cross-signed CAs) which is broken at the last link followed
+                level = -1;
+                top = walk.get(walk.size() - 1);
+            }
+
+            // ...and assign levels on the way back
+            for (int j = walk.size() - 1; j >= 0; j--) {
+                int walked = walk.get(j);
+                levels[walked] = ++level;
+                tops[walked] = top;
+                onWalk[walked] = false;
+            }
+
+            walk.clear();
+        }
+    }
+
+    private static boolean certificatesEquals(X509Certificate cert1, X509Certificate cert2) {
+        return cert1.getSubjectX500Principal().equals(cert2.getSubjectX500Principal())
+                && cert1.getIssuerX500Principal().equals(cert2.getIssuerX500Principal())
+                && cert1.getSerialNumber().equals(cert2.getSerialNumber());
+    }
+}
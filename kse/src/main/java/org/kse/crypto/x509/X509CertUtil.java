@@ -49,8 +49,12 @@ import java.util.ResourceBundle;
 import javax.security.auth.x500.X500Principal;
 
 import org.apache.commons.io.IOUtils;
+import org.bouncycastle.asn1.DEROctetString;
 import org.bouncycastle.asn1.cms.ContentInfo;
 import org.bouncycastle.asn1.x500.X500Name;
+import org.bouncycastle.asn1.x509.AuthorityKeyIdentifier;
+import org.bouncycastle.asn1.x509.Extension;
+import org.bouncycastle.asn1.x509.SubjectKeyIdentifier;
 import org.bouncycastle.cert.X509CertificateHolder;
 import org.bouncycastle.cert.jcajce.JcaX509CertificateConverter;
 import org.bouncycastle.openssl.PEMParser;
@@ -319,6 +323,7 @@ public final class X509CertUtil {
 
     /**
      * Order the supplied array of X.509 certificates in issued to issuer order.
+     * If the certificates form more than one chain, the longest one is returned.
      *
      * @param certs X.509 certificates
      * @return The ordered X.509 certificates
@@ -333,41 +338,9 @@ public final class X509CertUtil {
             return certs;
         }
 
-        // Put together each possible certificate path...
-        ArrayList<ArrayList<X509Certificate>> paths = new ArrayList<>();
-
-        // For each possible path...
-        for (X509Certificate cert : certs) {
-            // Each possible path assumes a different certificate is the root issuer
-            ArrayList<X509Certificate> path = new ArrayList<>();
-            X509Certificate issuerCert = cert;
-            path.add(issuerCert);
-
-            X509Certificate newIssuer = null;
-
-            // Recursively build that path by finding the next issued certificate
-            while ((newIssuer = findIssuedCert(issuerCert, certs)) != null) {
-                // Found an issued cert, now attempt to find its issued certificate
-                issuerCert = newIssuer;
-                path.add(0, newIssuer);
-            }
-
-            // Path complete
-            paths.add(path);
-        }
-
-        // Get longest path - this will be the ordered path
-        ArrayList<X509Certificate> longestPath = paths.get(0);
-        for (int i = 1; i < paths.size(); i++) {
-            ArrayList<X509Certificate> path = paths.get(i);
-            if (path.size() > longestPath.size()) {
-                longestPath = path;
-            }
-        }
-
-        // Return longest path
-        return longestPath.toArray(new X509Certificate[0]);
+        return new X509CertChainBuilder(certs).getLongestChain();
     }
+
     /*
      * Tries to sort the certificates according to their hierarchy, 
      * and adds at the end those that have no dependencies.
@@ -379,84 +352,7 @@ public final class X509CertUtil {
         if (certs.length <= 1) {
             return certs;
         }
-        ArrayList<ArrayList<X509Certificate>> paths = new ArrayList<>();
-        for (X509Certificate cert : certs) {
-            ArrayList<X509Certificate> path = new ArrayList<>();
-            path.add(cert);
-            for (X509Certificate issuerCert : certs) {
-                if (certificatesEquals(issuerCert, cert)) {
-                    continue;
-                }
-                if (isIssuedBy(cert, issuerCert)) {
-                    path.add(issuerCert);
-                }
-            }
-            if (path.size() > 1) {
-                paths.add(path);
-            }
-        }
-        List<X509Certificate> listCertificates = new ArrayList<>();
-        for (ArrayList<X509Certificate> path : paths) {
-            X509Certificate cert = path.get(0);
-            X509Certificate issuerCert = path.get(1);
-            int posIssuer = -1;
-            int posCert = -1;
-            for (int i = 0; i < listCertificates.size(); i++) {
-                X509Certificate cert2 = listCertificates.get(i);
-                if (certificatesEquals(issuerCert, cert2)) {
-                    posIssuer = i;
-                }
-                if (certificatesEquals(cert, cert2)) {
-                    posCert = i;
-                }
-            }
-            if (posIssuer == -1) {
-                if (posCert == -1) {
-                    listCertificates.add(cert);
-                }
-                listCertificates.add(issuerCert);
-            } else {
-                listCertificates.add(posIssuer, cert);
-            }
-        }
-        if (listCertificates.size() != certs.length) {
-            for (X509Certificate cert1 : certs) {
-                boolean found = false;
-                for (X509Certificate cert2 : listCertificates) {
-                    if (certificatesEquals(cert1, cert2)) {
-                        found = true;
-                        break;
-                    }
-                }
-                if (!found) {
-                    listCertificates.add(cert1);
-                }
-            }
-        }
-        return listCertificates.toArray(new X509Certificate[0]);
-    }
-
-    private static boolean certificatesEquals(X509Certificate cert1, X509Certificate cert2) {
-        return cert1.getSubjectX500Principal().equals(cert2.getSubjectX500Principal())
-                && cert1.getIssuerX500Principal().equals(cert2.getIssuerX500Principal())
-                && cert1.getSerialNumber().equals(cert2.getSerialNumber());
-    }
-
-    private static X509Certificate findIssuedCert(X509Certificate issuerCert, X509Certificate[] certs) {
-        // Find a certificate issued by the supplied certificate
-        for (X509Certificate cert : certs) {
-            if (issuerCert.getSubjectX500Principal().equals(cert.getSubjectX500Principal()) &&
-                issuerCert.getIssuerX500Principal().equals(cert.getIssuerX500Principal()) &&
-                issuerCert.getSerialNumber().equals(cert.getSerialNumber())) {
-                // Checked certificate is issuer - ignore it
-                continue;
-            }
-
-            if (isIssuedBy(cert, issuerCert)) {
-                return cert;
-            }
-        }
-        return null;
+        return new X509CertChainBuilder(certs).getAllOrdered();
     }
 
     /**
@@ -483,6 +379,29 @@ public final class X509CertUtil {
         return false;
     }
 
+    /*
+     * Key identifier of the subject key identifier or authority key
+     * identifier extension, null if the extension is absent or malformed
+     */
+    static byte[] getKeyIdentifier(X509Certificate cert, boolean subject) {
+        try {
+            byte[] value = cert.getExtensionValue(subject ? Extension.subjectKeyIdentifier.getId() :
+                                                  Extension.authorityKeyIdentifier.getId());
+
+            if (value == null) {
+                return null;
+            }
+
+            byte[] octets = DEROctetString.getInstance(value).getOctets();
+
+            return subject ? SubjectKeyIdentifier.getInstance(octets).getKeyIdentifier() :
+                   AuthorityKeyIdentifier.getInstance(octets).getKeyIdentifier();
+        } catch (Exception ex) {
+            // Malformed extension is treated as absent
+            return null;
+        }
+    }
+
     /**
      * X.509 encode a certificate.
      *
@@ -653,58 +572,27 @@ public final class X509CertUtil {
      * @throws CryptoException If there is a problem establishing trust
      */
     public static X509Certificate[] establishTrust(X509Certificate cert, KeyStore[] keyStores) throws CryptoException {
-        ArrayList<X509Certificate> ksCerts = new ArrayList<>();
-
-        for (KeyStore keyStore : keyStores) {
-            ksCerts.addAll(extractCertificates(keyStore));
-        }
-
-        return establishTrust(cert, ksCerts);
+        return TrustIndex.fromKeyStores(keyStores).establishTrust(cert);
     }
 
+    /**
+     * Check whether or not a trust path exists between the supplied X.509
+     * certificate and the supplied comparison certificates, ie that a chain
+     * of trust exists between the certificate and a self-signed trusted
+     * certificate in the comparison set. Use a {@link TrustIndex} directly
+     * to establish trust for several certificates against the same set.
+     *
+     * @param cert      The certificate
+     * @param compCerts The comparison certificates
+     * @return The trust chain, or null if trust could not be established
+     * @throws CryptoException If there is a problem establishing trust
+     */
     public static X509Certificate[] establishTrust(X509Certificate cert, List<X509Certificate> compCerts)
             throws CryptoException {
-        /*
-         * Check whether or not a trust path exists between the supplied X.509
-         * certificate and the supplied comparison certificates , ie that a
-         * chain of trust exists between the certificate and a self-signed
-         * trusted certificate in the comparison set
-         */
-
-        for (int i = 0; i < compCerts.size(); i++) {
-            X509Certificate compCert = compCerts.get(i);
-
-            // Verify of certificate issuer is sam as comparison certificate's subject
-            if (cert.getIssuerX500Principal().equals(compCert.getSubjectX500Principal())) {
-                // Verify if the comparison certificate's private key was used to sign the certificate
-                if (X509CertUtil.verifyCertificate(cert, compCert)) {
-                    // If the comparision certificate is self-signed then a chain of trust exists
-                    if (compCert.getSubjectX500Principal().equals(compCert.getIssuerX500Principal())) {
-                        return new X509Certificate[] { cert, compCert };
-                    }
-
-                    /*
-                     * Otherwise try and establish a chain of trust from the
-                     * comparison certificate against the other comparison certificates
-                     */
-                    X509Certificate[] tmpChain = establishTrust(compCert, compCerts);
-                    if (tmpChain != null) {
-                        X509Certificate[] trustChain = new X509Certificate[tmpChain.length + 1];
-
-                        trustChain[0] = cert;
-
-                        System.arraycopy(tmpChain, 0, trustChain, 1, tmpChain.length);
-
-                        return trustChain;
-                    }
-                }
-            }
-        }
-
-        return null; // No chain of trust
+        return new TrustIndex(compCerts).establishTrust(cert);
     }
 
-    private static List<X509Certificate> extractCertificates(KeyStore keyStore) throws CryptoException {
+    static List<X509Certificate> extractCertificates(KeyStore keyStore) throws CryptoException {
         try {
             List<X509Certificate> certs = new ArrayList<>();
 
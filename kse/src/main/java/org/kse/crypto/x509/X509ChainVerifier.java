@@ -0,0 +1,712 @@
+/*
+ * Copyright 2004 - 2013 Wayne Grant
+ *           2013 - 2025 Kai Kramer
+ *
+ * This file is part of KeyStore Explorer.
+ *
+ * KeyStore Explorer is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * KeyStore Explorer is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with KeyStore Explorer.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.kse.crypto.x509;
+
+import java.io.IOException;
+import java.net.URL;
+import java.security.GeneralSecurityException;
+import java.security.KeyStore;
+import java.security.KeyStoreException;
+import java.security.cert.CertPathValidator;
+import java.security.cert.CertPathValidatorException;
+import java.security.cert.CertStore;
+import java.security.cert.Certificate;
+import java.security.cert.CertificateEncodingException;
+import java.security.cert.CertificateFactory;
+import java.security.cert.CollectionCertStoreParameters;
+import java.security.cert.PKIXParameters;
+import java.security.cert.PKIXRevocationChecker;
+import java.security.cert.TrustAnchor;
+import java.security.cert.X509CRL;
+import java.security.cert.X509Certificate;
+import java.text.MessageFormat;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.ResourceBundle;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import javax.security.auth.x500.X500Principal;
+
+import org.bouncycastle.asn1.ASN1OctetString;
+import org.bouncycastle.asn1.ASN1String;
+import org.bouncycastle.asn1.x509.AccessDescription;
+import org.bouncycastle.asn1.x509.AuthorityInformationAccess;
+import org.bouncycastle.asn1.x509.CRLDistPoint;
+import org.bouncycastle.asn1.x509.DistributionPoint;
+import org.bouncycastle.asn1.x509.DistributionPointName;
+import org.bouncycastle.asn1.x509.Extension;
+import org.bouncycastle.asn1.x509.GeneralName;
+import org.bouncycastle.asn1.x509.GeneralNames;
+import org.bouncycastle.cert.ocsp.BasicOCSPResp;
+import org.bouncycastle.cert.ocsp.CertificateID;
+import org.bouncycastle.cert.ocsp.OCSPException;
+import org.bouncycastle.cert.ocsp.OCSPReq;
+import org.bouncycastle.cert.ocsp.OCSPReqBuilder;
+import org.bouncycastle.cert.ocsp.OCSPResp;
+import org.bouncycastle.cert.ocsp.SingleResp;
+import org.bouncycastle.cert.ocsp.jcajce.JcaCertificateID;
+import org.bouncycastle.operator.DigestCalculator;
+import org.bouncycastle.operator.OperatorCreationException;
+import org.bouncycastle.operator.jcajce.JcaDigestCalculatorProviderBuilder;
+import org.kse.KSE;
+import org.kse.crypto.CryptoException;
+import org.kse.utilities.net.HttpFetchCache;
+
+/**
+ * Verifies the certificate chains of many KeyStore entries at once. The trust anchors and the PKIX parameters are set
+ * up once for all chains and the chains are validated in parallel.
+ * <p>
+ * Revocation is checked for the end entity certificate of each chain. Before validating, the CRL of every distinct
+ * distribution point or the response of every distinct OCSP responder is fetched once, with a single OCSP request per
+ * responder for all certificates it is asked about. The CRLs and OCSP responses are passed to the PKIX revocation
+ * checker, so it does not contact the servers again, and no global revocation properties are changed.
+ */
+public class X509ChainVerifier {
+    private static ResourceBundle res = ResourceBundle.getBundle("org/kse/crypto/x509/resources");
+
+    private static final String OCSP_REQUEST_TYPE = "application/ocsp-request";
+    private static final String OCSP_RESPONSE_TYPE = "application/ocsp-response";
+
+    /**
+     * Source of the revocation status of the end entity certificates.
+     */
+    public enum Revocation {
+        /** Only validate the chains */
+        NONE,
+        /** CRLs of the CRL distribution points extension */
+        CRL,
+        /** OCSP responders of the authority information access extension */
+        OCSP
+    }
+
+    /**
+     * Outcome of the verification of a chain.
+     */
+    public enum Status {
+        /** The chain is valid and the certificate is not revoked */
+        VALID,
+        /** The certificate is revoked */
+        REVOKED,
+        /** The chain is valid, but the revocation status of the certificate could not be determined */
+        UNDETERMINED,
+        /** The chain is not valid */
+        INVALID
+    }
+
+    private final Set<TrustAnchor> trustAnchors = new HashSet<>();
+    private final Map<X500Principal, List<X509Certificate>> anchorsBySubject = new HashMap<>();
+    private final Revocation revocation;
+    private final HttpFetchCache fetchCache;
+    private int parallelism = Runtime.getRuntime().availableProcessors();
+
+    /**
+     * Construct the verifier.
+     *
+     * @param trustedCerts Trusted certificates used as trust anchors
+     * @param revocation   Source of the revocation status
+     * @param fetchCache   Cache for downloading CRLs and OCSP responses
+     * @throws CryptoException If there are no trusted certificates
+     */
+    public X509ChainVerifier(Collection<X509Certificate> trustedCerts, Revocation revocation,
+                             HttpFetchCache fetchCache) throws CryptoException {
+        if (trustedCerts.isEmpty()) {
+            throw new CryptoException(res.getString("NoTrustAnchors.exception.message"));
+        }
+
+        for (X509Certificate trustedCert : trustedCerts) {
+            trustAnchors.add(new TrustAnchor(trustedCert, null));
+            anchorsBySubject.computeIfAbsent(trustedCert.getSubjectX500Principal(), subject -> new ArrayList<>())
+                            .add(trustedCert);
+        }
+
+        this.revocation = revocation;
+        this.fetchCache = fetchCache;
+    }
+
+    /**
+     * Set the number of chains validated and servers contacted at the same time. The default is the number of
+     * available processors.
+     *
+     * @param parallelism Number of verification threads
+     */
+    public void setParallelism(int parallelism) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("Parallelism must be at least 1");
+        }
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * Get the certificate chains of the key pair and trusted certificate entries of a KeyStore.
+     *
+     * @param keyStore The KeyStore
+     * @return Chains ordered from the end entity certificate, keyed by alias in the order of the KeyStore
+     * @throws CryptoException If the entries could not be read
+     */
+    public static Map<String, X509Certificate[]> getChains(KeyStore keyStore) throws CryptoException {
+        Map<String, X509Certificate[]> chains = new LinkedHashMap<>();
+
+        try {
+            for (String alias : Collections.list(keyStore.aliases())) {
+                if (keyStore.isKeyEntry(alias)) {
+                    Certificate[] chain = keyStore.getCertificateChain(alias);
+                    if (chain != null && chain.length > 0) {
+                        chains.put(alias, X509CertUtil.orderX509CertChain(X509CertUtil.convertCertificates(chain)));
+                    }
+                } else if (keyStore.isCertificateEntry(alias)) {
+                    chains.put(alias, new X509Certificate[] {
+                            X509CertUtil.convertCertificate(keyStore.getCertificate(alias)) });
+                }
+            }
+        } catch (KeyStoreException ex) {
+            throw new CryptoException(res.getString("NoExtractChains.exception.message"), ex);
+        }
+
+        return chains;
+    }
+
+    /**
+     * Get the CA certificates among the supplied certificates, i.e. those with basic constraints and the key usage
+     * to sign certificates.
+     *
+     * @param certs The certificates
+     * @return The CA certificates
+     */
+    public static List<X509Certificate> getCaCertificates(Collection<X509Certificate> certs) {
+        List<X509Certificate> caCerts = new ArrayList<>();
+
+        for (X509Certificate cert : certs) {
+            boolean[] keyUsage = cert.getKeyUsage();
+            if (cert.getBasicConstraints() != -1 && keyUsage != null && keyUsage[5] && !caCerts.contains(cert)) {
+                caCerts.add(cert);
+            }
+        }
+
+        return caCerts;
+    }
+
+    /**
+     * Verify the certificate chains.
+     *
+     * @param chains Chains ordered from the end entity certificate, keyed by alias
+     * @return Results in the order of the chains
+     * @throws CryptoException      If the validation could not be set up
+     * @throws InterruptedException If the calling thread was interrupted
+     */
+    public List<Result> verify(Map<String, X509Certificate[]> chains) throws CryptoException, InterruptedException {
+        if (chains.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        Date now = new Date();
+
+        Map<String, List<X509Certificate>> paths = new LinkedHashMap<>();
+        for (Map.Entry<String, X509Certificate[]> chain : chains.entrySet()) {
+            paths.put(chain.getKey(), getPath(chain.getValue()));
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, Math.min(parallelism, chains.size())));
+        try {
+            RevocationData revocationData = new RevocationData();
+
+            if (revocation == Revocation.CRL) {
+                fetchCrls(paths.values(), revocationData, executor);
+            } else if (revocation == Revocation.OCSP) {
+                fetchOcspResponses(paths.values(), revocationData, executor);
+            }
+
+            PKIXParameters params = createParameters(revocationData, now);
+
+            List<Callable<Result>> tasks = new ArrayList<>();
+            for (Map.Entry<String, List<X509Certificate>> path : paths.entrySet()) {
+                tasks.add(() -> verify(path.getKey(), path.getValue(), params, revocationData));
+            }
+
+            List<Result> results = new ArrayList<>();
+            for (Future<Result> future : executor.invokeAll(tasks)) {
+                results.add(getResult(future));
+            }
+            return results;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private List<X509Certificate> getPath(X509Certificate[] chain) {
+        // the path ends with the first certificate issued by a trust anchor, PKIX adds the anchor itself
+        List<X509Certificate> path = new ArrayList<>();
+        for (X509Certificate cert : chain) {
+            path.add(cert);
+            if (anchorsBySubject.containsKey(cert.getIssuerX500Principal())) {
+                break;
+            }
+        }
+        return path;
+    }
+
+    private PKIXParameters createParameters(RevocationData revocationData, Date now) throws CryptoException {
+        try {
+            PKIXParameters params = new PKIXParameters(trustAnchors);
+            params.setDate(now);
+            params.setRevocationEnabled(false);
+
+            if (!revocationData.crls.isEmpty()) {
+                params.addCertStore(CertStore.getInstance("Collection", new CollectionCertStoreParameters(
+                        new HashSet<>(revocationData.crls.values()))));
+            }
+
+            return params;
+        } catch (GeneralSecurityException ex) {
+            throw new CryptoException(res.getString("NoVerifyChains.exception.message"), ex);
+        }
+    }
+
+    private Result verify(String alias, List<X509Certificate> path, PKIXParameters template,
+                          RevocationData revocationData) {
+        X509Certificate cert = path.get(0);
+
+        // without the revocation data, the PKIX revocation checker would contact the servers on its own
+        String source = revocationData.sources.get(cert);
+        String unavailable = revocationData.failures.get(cert);
+        boolean checkRevocation = revocation != Revocation.NONE && unavailable == null && !isTrustAnchor(cert);
+
+        try {
+            CertPathValidator validator = CertPathValidator.getInstance("PKIX");
+
+            // the parameters are copied as the path checkers keep state during a validation
+            PKIXParameters params = (PKIXParameters) template.clone();
+            params.addCertPathChecker(new ExtensionRemovingCertPathChecker());
+
+            if (checkRevocation) {
+                PKIXRevocationChecker revocationChecker = (PKIXRevocationChecker) validator.getRevocationChecker();
+                EnumSet<PKIXRevocationChecker.Option> options = EnumSet.of(
+                        PKIXRevocationChecker.Option.ONLY_END_ENTITY, PKIXRevocationChecker.Option.NO_FALLBACK);
+
+                if (revocation == Revocation.CRL) {
+                    options.add(PKIXRevocationChecker.Option.PREFER_CRLS);
+                } else {
+                    revocationChecker.setOcspResponses(
+                            Collections.singletonMap(cert, revocationData.ocspResponses.get(cert)));
+                }
+
+                revocationChecker.setOptions(options);
+                params.addCertPathChecker(revocationChecker);
+            }
+
+            validator.validate(CertificateFactory.getInstance("X.509").generateCertPath(path), params);
+
+            if (unavailable != null) {
+                return new Result(alias, cert, Status.UNDETERMINED, unavailable, source);
+            }
+
+            return new Result(alias, cert, Status.VALID, null, source);
+        } catch (CertPathValidatorException ex) {
+            Status status = Status.INVALID;
+
+            if (ex.getReason() == CertPathValidatorException.BasicReason.REVOKED) {
+                status = Status.REVOKED;
+            } else if (ex.getReason() == CertPathValidatorException.BasicReason.UNDETERMINED_REVOCATION_STATUS) {
+                status = Status.UNDETERMINED;
+            }
+
+            return new Result(alias, cert, status, getMessage(ex), source);
+        } catch (GeneralSecurityException | RuntimeException ex) {
+            return new Result(alias, cert, Status.INVALID, getMessage(ex), source);
+        }
+    }
+
+    private void fetchCrls(Collection<List<X509Certificate>> paths, RevocationData revocationData,
+                           ExecutorService executor) throws InterruptedException {
+        // distribution points of the end entity certificates, each is fetched once
+        Map<String, List<X509Certificate>> certsByUrl = new LinkedHashMap<>();
+
+        for (List<X509Certificate> path : paths) {
+            X509Certificate cert = path.get(0);
+            if (isTrustAnchor(cert)) {
+                continue;
+            }
+
+            List<String> urls = getCrlUrls(cert);
+
+            if (urls.isEmpty()) {
+                revocationData.failures.put(cert, res.getString("NoCrlDistributionPoint.message"));
+            }
+
+            for (String url : urls) {
+                certsByUrl.computeIfAbsent(url, u -> new ArrayList<>()).add(cert);
+            }
+        }
+
+        Map<String, Future<X509CRL>> fetches = new LinkedHashMap<>();
+        for (String url : certsByUrl.keySet()) {
+            fetches.put(url, executor.submit(() -> X509CertUtil.loadCRL(fetchCache.get(new URL(url), content -> {
+                Date nextUpdate = X509CrlHeader.of(content).getNextUpdate();
+                return nextUpdate == null ? null : nextUpdate.toInstant();
+            }))));
+        }
+
+        // a certificate is checked as soon as one of its CRLs could be downloaded
+        Map<X509Certificate, String> failures = new HashMap<>();
+
+        for (Map.Entry<String, Future<X509CRL>> fetch : fetches.entrySet()) {
+            String url = fetch.getKey();
+
+            try {
+                revocationData.crls.put(url, fetch.getValue().get());
+
+                for (X509Certificate cert : certsByUrl.get(url)) {
+                    if (failures.remove(cert) != null || !revocationData.sources.containsKey(cert)) {
+                        revocationData.sources.put(cert, url);
+                    }
+                }
+            } catch (ExecutionException ex) {
+                String message = MessageFormat.format(res.getString("CrlUnavailable.message"),
+                                                      getMessage(ex.getCause()));
+
+                for (X509Certificate cert : certsByUrl.get(url)) {
+                    if (!revocationData.sources.containsKey(cert)) {
+                        failures.put(cert, message);
+                        revocationData.sources.put(cert, url);
+                    }
+                }
+            }
+        }
+
+        revocationData.failures.putAll(failures);
+    }
+
+    private void fetchOcspResponses(Collection<List<X509Certificate>> paths, RevocationData revocationData,
+                                    ExecutorService executor) throws InterruptedException {
+        // end entity certificates with their issuers by responder, each responder is asked once about all of them
+        Map<String, Map<X509Certificate, X509Certificate>> certsByUrl = new LinkedHashMap<>();
+
+        for (List<X509Certificate> path : paths) {
+            X509Certificate cert = path.get(0);
+            if (isTrustAnchor(cert)) {
+                continue;
+            }
+
+            String url = getOcspUrl(cert);
+            X509Certificate issuer = path.size() > 1 ? path.get(1) : getAnchorIssuer(cert);
+
+            if (url == null) {
+                revocationData.failures.put(cert, res.getString("NoOcspResponder.message"));
+            } else if (issuer == null) {
+                revocationData.failures.put(cert, res.getString("NoOcspIssuer.message"));
+            } else {
+                certsByUrl.computeIfAbsent(url, u -> new LinkedHashMap<>()).put(cert, issuer);
+                revocationData.sources.put(cert, url);
+            }
+        }
+
+        Map<String, Future<Map<X509Certificate, byte[]>>> requests = new LinkedHashMap<>();
+        for (Map.Entry<String, Map<X509Certificate, X509Certificate>> responder : certsByUrl.entrySet()) {
+            requests.put(responder.getKey(), executor.submit(() -> requestOcsp(responder.getKey(),
+                                                                               responder.getValue())));
+        }
+
+        for (Map.Entry<String, Future<Map<X509Certificate, byte[]>>> request : requests.entrySet()) {
+            String url = request.getKey();
+
+            try {
+                Map<X509Certificate, byte[]> responses = request.getValue().get();
+
+                for (X509Certificate cert : certsByUrl.get(url).keySet()) {
+                    byte[] response = responses.get(cert);
+
+                    if (response != null) {
+                        revocationData.ocspResponses.put(cert, response);
+                    } else {
+                        revocationData.failures.put(cert, MessageFormat.format(
+                                res.getString("OcspUnavailable.message"),
+                                res.getString("OcspNoSingleResponse.message")));
+                    }
+                }
+            } catch (ExecutionException ex) {
+                String message = MessageFormat.format(res.getString("OcspUnavailable.message"),
+                                                      getMessage(ex.getCause()));
+
+                for (X509Certificate cert : certsByUrl.get(url).keySet()) {
+                    revocationData.failures.put(cert, message);
+                }
+            }
+        }
+    }
+
+    private Map<X509Certificate, byte[]> requestOcsp(String url, Map<X509Certificate, X509Certificate> issuers)
+            throws IOException, OCSPException, CryptoException {
+        Map<X509Certificate, byte[]> responses = new HashMap<>();
+
+        byte[] response = postOcspRequest(url, getCertificateIds(issuers));
+        Set<CertificateID> answered = getAnsweredCertificateIds(response);
+
+        for (Map.Entry<X509Certificate, X509Certificate> issuer : issuers.entrySet()) {
+            CertificateID certId = getCertificateId(issuer.getKey(), issuer.getValue());
+
+            if (answered.contains(certId)) {
+                responses.put(issuer.getKey(), response);
+            } else if (issuers.size() > 1) {
+                // not every responder answers requests for several certificates, ask about this one alone
+                byte[] singleResponse = postOcspRequest(url, Collections.singletonMap(issuer.getKey(), certId));
+
+                if (getAnsweredCertificateIds(singleResponse).contains(certId)) {
+                    responses.put(issuer.getKey(), singleResponse);
+                }
+            }
+        }
+
+        return responses;
+    }
+
+    private Map<X509Certificate, CertificateID> getCertificateIds(Map<X509Certificate, X509Certificate> issuers)
+            throws OCSPException, CryptoException {
+        Map<X509Certificate, CertificateID> certIds = new LinkedHashMap<>();
+
+        for (Map.Entry<X509Certificate, X509Certificate> issuer : issuers.entrySet()) {
+            certIds.put(issuer.getKey(), getCertificateId(issuer.getKey(), issuer.getValue()));
+        }
+
+        return certIds;
+    }
+
+    private static CertificateID getCertificateId(X509Certificate cert, X509Certificate issuer)
+            throws OCSPException, CryptoException {
+        try {
+            // the PKIX revocation checker identifies certificates in OCSP responses by SHA-1 hashes
+            DigestCalculator digestCalculator = new JcaDigestCalculatorProviderBuilder().setProvider(KSE.BC).build()
+                                                                                         .get(CertificateID.HASH_SHA1);
+            return new JcaCertificateID(digestCalculator, issuer, cert.getSerialNumber());
+        } catch (OperatorCreationException | CertificateEncodingException ex) {
+            throw new CryptoException(res.getString("NoVerifyChains.exception.message"), ex);
+        }
+    }
+
+    private byte[] postOcspRequest(String url, Map<X509Certificate, CertificateID> certIds)
+            throws IOException, OCSPException {
+        OCSPReqBuilder builder = new OCSPReqBuilder();
+        for (CertificateID certId : certIds.values()) {
+            builder.addRequest(certId);
+        }
+        OCSPReq request = builder.build();
+
+        // without a nonce the response is reused until its next update
+        return fetchCache.post(new URL(url), OCSP_REQUEST_TYPE, OCSP_RESPONSE_TYPE, request.getEncoded(),
+                               X509ChainVerifier::getOcspResponseExpiry);
+    }
+
+    private static Set<CertificateID> getAnsweredCertificateIds(byte[] response) throws IOException, OCSPException {
+        OCSPResp ocspResp = new OCSPResp(response);
+
+        if (ocspResp.getStatus() != OCSPResp.SUCCESSFUL) {
+            throw new IOException(MessageFormat.format(res.getString("OcspStatus.message"), ocspResp.getStatus()));
+        }
+
+        Set<CertificateID> certIds = new HashSet<>();
+        for (SingleResp singleResp : ((BasicOCSPResp) ocspResp.getResponseObject()).getResponses()) {
+            certIds.add(singleResp.getCertID());
+        }
+        return certIds;
+    }
+
+    /**
+     * Get the time until which an OCSP response can be reused, the earliest next update of its single responses.
+     *
+     * @param response The DER encoded OCSP response
+     * @return The expiry or null if the response is not successful or gives no next update
+     * @throws IOException   If the response is malformed
+     * @throws OCSPException If the response is malformed
+     */
+    public static Instant getOcspResponseExpiry(byte[] response) throws IOException, OCSPException {
+        OCSPResp ocspResp = new OCSPResp(response);
+        if (ocspResp.getStatus() != OCSPResp.SUCCESSFUL) {
+            return null;
+        }
+
+        // the response is reused until the first of its single responses needs an update
+        Instant expiry = null;
+        for (SingleResp singleResp : ((BasicOCSPResp) ocspResp.getResponseObject()).getResponses()) {
+            Date nextUpdate = singleResp.getNextUpdate();
+            if (nextUpdate != null && (expiry == null || nextUpdate.toInstant().isBefore(expiry))) {
+                expiry = nextUpdate.toInstant();
+            }
+        }
+        return expiry;
+    }
+
+    private boolean isTrustAnchor(X509Certificate cert) {
+        return anchorsBySubject.getOrDefault(cert.getSubjectX500Principal(), Collections.emptyList()).contains(cert);
+    }
+
+    private X509Certificate getAnchorIssuer(X509Certificate cert) {
+        for (X509Certificate anchor : anchorsBySubject.getOrDefault(cert.getIssuerX500Principal(),
+                                                                    Collections.emptyList())) {
+            if (X509CertUtil.isIssuedBy(cert, anchor)) {
+                return anchor;
+            }
+        }
+        return null;
+    }
+
+    private static List<String> getCrlUrls(X509Certificate cert) {
+        byte[] value = cert.getExtensionValue(Extension.cRLDistributionPoints.getId());
+        if (value == null) {
+            return Collections.emptyList();
+        }
+
+        // the first HTTP URL of each distribution point
+        Set<String> urls = new LinkedHashSet<>();
+        for (DistributionPoint distributionPoint : CRLDistPoint.getInstance(ASN1OctetString.getInstance(value)
+                                                                                           .getOctets())
+                                                               .getDistributionPoints()) {
+            DistributionPointName name = distributionPoint.getDistributionPoint();
+
+            if (name != null && name.getType() == DistributionPointName.FULL_NAME) {
+                String url = getHttpUrl(GeneralNames.getInstance(name.getName()).getNames());
+                if (url != null) {
+                    urls.add(url);
+                }
+            }
+        }
+        return new ArrayList<>(urls);
+    }
+
+    private static String getOcspUrl(X509Certificate cert) {
+        byte[] value = cert.getExtensionValue(Extension.authorityInfoAccess.getId());
+        if (value == null) {
+            return null;
+        }
+
+        for (AccessDescription accessDescription : AuthorityInformationAccess.getInstance(
+                ASN1OctetString.getInstance(value).getOctets()).getAccessDescriptions()) {
+            if (AccessDescription.id_ad_ocsp.equals(accessDescription.getAccessMethod())) {
+                String url = getHttpUrl(new GeneralName[] { accessDescription.getAccessLocation() });
+                if (url != null) {
+                    return url;
+                }
+            }
+        }
+        return null;
+    }
+
+    private static String getHttpUrl(GeneralName[] names) {
+        for (GeneralName name : names) {
+            if (name.getTagNo() == GeneralName.uniformResourceIdentifier) {
+                String url = ((ASN1String) name.getName()).getString();
+                String lowerCaseUrl = url.toLowerCase(Locale.ENGLISH);
+
+                if (lowerCaseUrl.startsWith("http://") || lowerCaseUrl.startsWith("https://")) {
+                    return url;
+                }
+            }
+        }
+        return null;
+    }
+
+    private static Result getResult(Future<Result> future) throws InterruptedException {
+        try {
+            return future.get();
+        } catch (ExecutionException ex) {
+            // verify() records exceptions in its result, so this is an error
+            throw new IllegalStateException(ex.getCause());
+        }
+    }
+
+    private static String getMessage(Throwable ex) {
+        return ex.getMessage() != null ? ex.getMessage() : ex.getClass().getSimpleName();
+    }
+
+    private static final class RevocationData {
+        private final Map<String, X509CRL> crls = new HashMap<>();
+        private final Map<X509Certificate, byte[]> ocspResponses = new HashMap<>();
+        private final Map<X509Certificate, String> sources = new HashMap<>();
+        private final Map<X509Certificate, String> failures = new HashMap<>();
+    }
+
+    /**
+     * Result of the verification of a chain.
+     */
+    public static final class Result {
+        private final String alias;
+        private final X509Certificate certificate;
+        private final Status status;
+        private final String message;
+        private final String revocationSource;
+
+        private Result(String alias, X509Certificate certificate, Status status, String message,
+                       String revocationSource) {
+            this.alias = alias;
+            this.certificate = certificate;
+            this.status = status;
+            this.message = message;
+            this.revocationSource = revocationSource;
+        }
+
+        /**
+         * @return Alias of the entry
+         */
+        public String getAlias() {
+            return alias;
+        }
+
+        /**
+         * @return End entity certificate of the chain
+         */
+        public X509Certificate getCertificate() {
+            return certificate;
+        }
+
+        /**
+         * @return Outcome of the verification
+         */
+        public Status getStatus() {
+            return status;
+        }
+
+        /**
+         * @return Reason the chain is not valid or the revocation status is not known, null if valid
+         */
+        public String getMessage() {
+            return message;
+        }
+
+        /**
+         * @return URL of the CRL or OCSP responder consulted for the revocation status or null if none
+         */
+        public String getRevocationSource() {
+            return revocationSource;
+        }
+    }
+}
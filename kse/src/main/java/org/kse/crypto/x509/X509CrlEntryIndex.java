@@ -0,0 +1,388 @@
+/*
+ * Copyright 2004 - 2013 Wayne Grant
+ *           2013 - 2025 Kai Kramer
+ *
+ * This file is part of KeyStore Explorer.
+ *
+ * KeyStore Explorer is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * KeyStore Explorer is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with KeyStore Explorer.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.kse.crypto.x509;
+
+import java.io.IOException;
+import java.math.BigInteger;
+import java.security.cert.CRLException;
+import java.security.cert.X509CRL;
+import java.security.cert.X509CRLEntry;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.ResourceBundle;
+
+import org.bouncycastle.asn1.ASN1Primitive;
+import org.bouncycastle.asn1.BERTags;
+import org.bouncycastle.asn1.x509.TBSCertList;
+import org.bouncycastle.asn1.x509.Time;
+import org.bouncycastle.jce.provider.X509CRLEntryObject;
+import org.kse.crypto.CryptoException;
+
+/**
+ * Index of the revoked certificates of a DER encoded CRL sorted by serial number. Building the index only reads the
+ * identifier and length octets of the entries and keeps their offsets in the encoding, so that even CRLs with
+ * millions of entries take little memory. Entries are decoded when they are asked for.
+ */
+public final class X509CrlEntryIndex {
+    private static ResourceBundle res = ResourceBundle.getBundle("org/kse/crypto/x509/resources");
+
+    static final int SEQUENCE = BERTags.CONSTRUCTED | BERTags.SEQUENCE;
+
+    private final byte[] encoding;
+
+    // Offsets of the entries in the encoding in the order of their serial numbers
+    private final int[] offsets;
+
+    private X509CrlEntryIndex(byte[] encoding, int[] offsets) {
+        this.encoding = encoding;
+        this.offsets = offsets;
+    }
+
+    /**
+     * Build the index of the revoked certificates of a CRL.
+     *
+     * @param crl The CRL
+     * @return The index
+     * @throws CryptoException If the CRL could not be encoded or is malformed
+     */
+    public static X509CrlEntryIndex of(X509CRL crl) throws CryptoException {
+        try {
+            return of(crl.getEncoded());
+        } catch (CRLException ex) {
+            throw new CryptoException(res.getString("NoLoadCrl.exception.message"), ex);
+        }
+    }
+
+    /**
+     * Build the index of the revoked certificates of a DER encoded CRL.
+     *
+     * @param encoding The DER encoded CRL, not copied
+     * @return The index
+     * @throws CryptoException If the CRL is malformed
+     */
+    public static X509CrlEntryIndex of(byte[] encoding) throws CryptoException {
+        try {
+            int[] offsets = readEntryOffsets(encoding);
+            X509CrlEntryIndex index = new X509CrlEntryIndex(encoding, offsets);
+            index.sortBySerialNumber();
+            return index;
+        } catch (IOException ex) {
+            throw new CryptoException(res.getString("NoLoadCrl.exception.message"), ex);
+        }
+    }
+
+    /**
+     * Get the number of revoked certificates.
+     *
+     * @return Number of entries
+     */
+    public int size() {
+        return offsets.length;
+    }
+
+    /**
+     * Get the serial number of an entry.
+     *
+     * @param index Position of the entry in serial number order
+     * @return The serial number
+     */
+    public BigInteger getSerialNumber(int index) {
+        int serial = contentOffset(encoding, offsets[index]);
+        return new BigInteger(encoding, contentOffset(encoding, serial), contentLength(encoding, serial));
+    }
+
+    /**
+     * Get the revocation date of an entry.
+     *
+     * @param index Position of the entry in serial number order
+     * @return The revocation date or null if it is malformed
+     */
+    public Date getRevocationDate(int index) {
+        int time = end(encoding, contentOffset(encoding, offsets[index]));
+        try {
+            return Time.getInstance(decode(time)).getDate();
+        } catch (IOException | RuntimeException ex) {
+            return null;
+        }
+    }
+
+    /**
+     * Does an entry have extensions? Checked without decoding the entry.
+     *
+     * @param index Position of the entry in serial number order
+     * @return True if it has
+     */
+    public boolean hasExtensions(int index) {
+        int entry = offsets[index];
+        int time = end(encoding, contentOffset(encoding, entry));
+        return end(encoding, time) < end(encoding, entry);
+    }
+
+    /**
+     * Decode an entry.
+     *
+     * @param index Position of the entry in serial number order
+     * @return The entry
+     * @throws CryptoException If the entry is malformed
+     */
+    public X509CRLEntry getEntry(int index) throws CryptoException {
+        try {
+            return new X509CRLEntryObject(TBSCertList.CRLEntry.getInstance(decode(offsets[index])));
+        } catch (IOException | RuntimeException ex) {
+            throw new CryptoException(res.getString("NoLoadCrl.exception.message"), ex);
+        }
+    }
+
+    /**
+     * Find the entry of a serial number.
+     *
+     * @param serialNumber The serial number
+     * @return Position of the first entry with the serial number or, if there is none, (-(insertion point) - 1) as
+     *         with {@link Arrays#binarySearch(int[], int)}
+     */
+    public int indexOf(BigInteger serialNumber) {
+        byte[] serial = serialNumber.toByteArray();
+
+        int low = 0;
+        int high = offsets.length - 1;
+
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int entrySerial = contentOffset(encoding, offsets[mid]);
+            int cmp = compareIntegers(encoding, contentOffset(encoding, entrySerial),
+                                      contentLength(encoding, entrySerial), serial, 0, serial.length);
+
+            if (cmp < 0) {
+                low = mid + 1;
+            } else if (cmp > 0 || (mid > 0 && compareSerialNumbers(offsets[mid - 1], offsets[mid]) == 0)) {
+                // keep looking for the first of several entries with the same serial number
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+
+        return -(low + 1);
+    }
+
+    private static int[] readEntryOffsets(byte[] encoding) throws IOException {
+        // CertificateList ::= SEQUENCE { tbsCertList TBSCertList, ... }
+        int tbsCertList = contentOffset(encoding, expect(encoding, 0, encoding.length, SEQUENCE));
+        expect(encoding, tbsCertList, encoding.length, SEQUENCE);
+
+        int tbsEnd = end(encoding, tbsCertList);
+        int pos = contentOffset(encoding, tbsCertList);
+
+        // version INTEGER OPTIONAL, signature AlgorithmIdentifier, issuer Name
+        if (tag(encoding, pos, tbsEnd) == BERTags.INTEGER) {
+            pos = end(encoding, pos, tbsEnd);
+        }
+        pos = end(encoding, expect(encoding, pos, tbsEnd, SEQUENCE));
+        pos = end(encoding, expect(encoding, pos, tbsEnd, SEQUENCE));
+
+        // thisUpdate Time, nextUpdate Time OPTIONAL
+        while (pos < tbsEnd && isTime(tag(encoding, pos, tbsEnd))) {
+            pos = end(encoding, pos, tbsEnd);
+        }
+
+        // revokedCertificates SEQUENCE OF SEQUENCE OPTIONAL
+        if (pos >= tbsEnd || tag(encoding, pos, tbsEnd) != SEQUENCE) {
+            return new int[0];
+        }
+
+        int revokedEnd = end(encoding, pos);
+        int[] offsets = new int[16];
+        int count = 0;
+
+        // userCertificate CertificateSerialNumber, revocationDate Time, crlEntryExtensions Extensions OPTIONAL
+        for (int entry = contentOffset(encoding, pos); entry < revokedEnd; entry = end(encoding, entry)) {
+            int entryEnd = end(encoding, expect(encoding, entry, revokedEnd, SEQUENCE));
+            int serial = expect(encoding, contentOffset(encoding, entry), entryEnd, BERTags.INTEGER);
+            int time = end(encoding, serial);
+
+            if (contentLength(encoding, serial) == 0 || time >= entryEnd || !isTime(tag(encoding, time, entryEnd))) {
+                throw new IOException("Malformed CRL entry");
+            }
+            end(encoding, time, entryEnd);
+
+            if (count == offsets.length) {
+                offsets = Arrays.copyOf(offsets, count * 2);
+            }
+            offsets[count++] = entry;
+        }
+
+        return Arrays.copyOf(offsets, count);
+    }
+
+    /*
+     * Merge sort that keeps entries with the same serial number in CRL order and takes linear time if the CRL is
+     * already sorted
+     */
+    private void sortBySerialNumber() {
+        int[] buffer = new int[offsets.length];
+
+        for (int width = 1; width < offsets.length; width *= 2) {
+            for (int low = 0; low < offsets.length - width; low += 2 * width) {
+                int mid = low + width;
+                int high = Math.min(low + 2 * width, offsets.length);
+
+                if (compareSerialNumbers(offsets[mid - 1], offsets[mid]) <= 0) {
+                    continue;
+                }
+
+                System.arraycopy(offsets, low, buffer, low, high - low);
+
+                int left = low;
+                int right = mid;
+                for (int i = low; i < high; i++) {
+                    if (right >= high || (left < mid && compareSerialNumbers(buffer[left], buffer[right]) <= 0)) {
+                        offsets[i] = buffer[left++];
+                    } else {
+                        offsets[i] = buffer[right++];
+                    }
+                }
+            }
+        }
+    }
+
+    private int compareSerialNumbers(int entry1, int entry2) {
+        int serial1 = contentOffset(encoding, entry1);
+        int serial2 = contentOffset(encoding, entry2);
+
+        return compareIntegers(encoding, contentOffset(encoding, serial1), contentLength(encoding, serial1),
+                               encoding, contentOffset(encoding, serial2), contentLength(encoding, serial2));
+    }
+
+    /*
+     * Compare two's complement big-endian integers, tolerating encodings that are not minimal
+     */
+    private static int compareIntegers(byte[] bytes1, int offset1, int length1, byte[] bytes2, int offset2, int length2) {
+        boolean negative1 = bytes1[offset1] < 0;
+        boolean negative2 = bytes2[offset2] < 0;
+
+        if (negative1 != negative2) {
+            return negative1 ? -1 : 1;
+        }
+
+        int skipped1 = redundantBytes(bytes1, offset1, length1);
+        int skipped2 = redundantBytes(bytes2, offset2, length2);
+        offset1 += skipped1;
+        offset2 += skipped2;
+        length1 -= skipped1;
+        length2 -= skipped2;
+
+        // a longer negative number is smaller
+        if (length1 != length2) {
+            return (length1 < length2) != negative1 ? -1 : 1;
+        }
+
+        for (int i = 0; i < length1; i++) {
+            int cmp = Integer.compare(bytes1[offset1 + i] & 0xff, bytes2[offset2 + i] & 0xff);
+            if (cmp != 0) {
+                return cmp;
+            }
+        }
+
+        return 0;
+    }
+
+    private static int redundantBytes(byte[] bytes, int offset, int length) {
+        int skipped = 0;
+        byte sign = bytes[offset] < 0 ? (byte) 0xff : 0;
+
+        while (skipped < length - 1 && bytes[offset + skipped] == sign
+                && (bytes[offset + skipped + 1] < 0) == (sign != 0)) {
+            skipped++;
+        }
+
+        return skipped;
+    }
+
+    private ASN1Primitive decode(int offset) throws IOException {
+        return ASN1Primitive.fromByteArray(Arrays.copyOfRange(encoding, offset, end(encoding, offset)));
+    }
+
+    static boolean isTime(int tag) {
+        return tag == BERTags.UTC_TIME || tag == BERTags.GENERALIZED_TIME;
+    }
+
+    static int expect(byte[] encoding, int offset, int limit, int tag) throws IOException {
+        if (tag(encoding, offset, limit) != tag) {
+            throw new IOException("Unexpected tag at offset " + offset);
+        }
+        end(encoding, offset, limit);
+        return offset;
+    }
+
+    static int tag(byte[] encoding, int offset, int limit) throws IOException {
+        if (offset >= limit) {
+            throw new IOException("Unexpected end of CRL");
+        }
+        return encoding[offset] & 0xff;
+    }
+
+    /*
+     * The functions below work on DER encodings with single octet tags whose length was checked by end(..., limit),
+     * they are shared with X509CrlHeader
+     */
+
+    static int end(byte[] encoding, int offset, int limit) throws IOException {
+        if (offset + 1 >= limit || (encoding[offset] & 0x1f) == 0x1f) {
+            throw new IOException("Malformed CRL at offset " + offset);
+        }
+
+        int first = encoding[offset + 1] & 0xff;
+        int octets = first > 0x7f ? first & 0x7f : 0;
+
+        if (first == 0x80 || octets > 4 || offset + 2 + octets > limit) {
+            throw new IOException("Malformed CRL at offset " + offset);
+        }
+
+        long end = (long) contentOffset(encoding, offset) + contentLength(encoding, offset);
+        if (end > limit || contentLength(encoding, offset) < 0) {
+            throw new IOException("Malformed CRL at offset " + offset);
+        }
+
+        return (int) end;
+    }
+
+    static int end(byte[] encoding, int offset) {
+        return contentOffset(encoding, offset) + contentLength(encoding, offset);
+    }
+
+    static int contentOffset(byte[] encoding, int offset) {
+        int first = encoding[offset + 1] & 0xff;
+        return offset + 2 + (first > 0x7f ? first & 0x7f : 0);
+    }
+
+    static int contentLength(byte[] encoding, int offset) {
+        int first = encoding[offset + 1] & 0xff;
+
+        if (first <= 0x7f) {
+            return first;
+        }
+
+        int length = 0;
+        for (int i = 0; i < (first & 0x7f); i++) {
+            length = (length << 8) | (encoding[offset + 2 + i] & 0xff);
+        }
+        return length;
+    }
+}
@@ -0,0 +1,319 @@
+/*
+ * Copyright 2004 - 2013 Wayne Grant
+ *           2013 - 2025 Kai Kramer
+ *
+ * This file is part of KeyStore Explorer.
+ *
+ * KeyStore Explorer is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * KeyStore Explorer is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with KeyStore Explorer.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.kse.crypto.x509;
+
+import static org.kse.crypto.x509.X509CrlEntryIndex.SEQUENCE;
+import static org.kse.crypto.x509.X509CrlEntryIndex.contentOffset;
+import static org.kse.crypto.x509.X509CrlEntryIndex.end;
+import static org.kse.crypto.x509.X509CrlEntryIndex.expect;
+import static org.kse.crypto.x509.X509CrlEntryIndex.isTime;
+import static org.kse.crypto.x509.X509CrlEntryIndex.tag;
+
+import java.io.IOException;
+import java.security.cert.CRLException;
+import java.security.cert.X509Extension;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.ResourceBundle;
+import java.util.Set;
+
+import javax.security.auth.x500.X500Principal;
+
+import org.bouncycastle.asn1.ASN1Encoding;
+import org.bouncycastle.asn1.ASN1Integer;
+import org.bouncycastle.asn1.ASN1ObjectIdentifier;
+import org.bouncycastle.asn1.ASN1Primitive;
+import org.bouncycastle.asn1.BERTags;
+import org.bouncycastle.asn1.x500.X500Name;
+import org.bouncycastle.asn1.x509.AlgorithmIdentifier;
+import org.bouncycastle.asn1.x509.Extension;
+import org.bouncycastle.asn1.x509.Extensions;
+import org.bouncycastle.asn1.x509.Time;
+import org.bouncycastle.operator.DefaultAlgorithmNameFinder;
+import org.kse.crypto.CryptoException;
+import org.kse.utilities.pem.PemInfo;
+import org.kse.utilities.pem.PemUtil;
+
+/**
+ * The fields of a CRL apart from its revoked certificates. Only the fields before and after the list of revoked
+ * certificates are decoded, use {@link X509CrlEntryIndex} for the entries.
+ */
+public final class X509CrlHeader implements X509Extension {
+    private static ResourceBundle res = ResourceBundle.getBundle("org/kse/crypto/x509/resources");
+
+    private static final int CRL_EXTENSIONS = BERTags.CONSTRUCTED | BERTags.TAGGED;
+
+    private final byte[] encoding;
+    private final int version;
+    private final X500Name issuer;
+    private final Date thisUpdate;
+    private final Date nextUpdate;
+    private final AlgorithmIdentifier signatureAlgorithm;
+    private final Extensions extensions;
+
+    private X509CrlHeader(byte[] encoding, int version, X500Name issuer, Date thisUpdate, Date nextUpdate,
+                          AlgorithmIdentifier signatureAlgorithm, Extensions extensions) {
+        this.encoding = encoding;
+        this.version = version;
+        this.issuer = issuer;
+        this.thisUpdate = thisUpdate;
+        this.nextUpdate = nextUpdate;
+        this.signatureAlgorithm = signatureAlgorithm;
+        this.extensions = extensions;
+    }
+
+    /**
+     * Decode the header of a PEM or DER encoded CRL.
+     *
+     * @param crlData The PEM or DER encoded CRL
+     * @return The header
+     * @throws CryptoException If the data is not a CRL
+     */
+    public static X509CrlHeader of(byte[] crlData) throws CryptoException {
+        if (crlData == null || crlData.length == 0) {
+            throw new CryptoException(res.getString("NoLoadCrl.exception.message"),
+                                      new IllegalArgumentException("CRL data is empty"));
+        }
+
+        try {
+            return decode(getDerEncoding(crlData));
+        } catch (IOException | RuntimeException ex) {
+            // other formats that the certificate factory understands, e.g. a CRL in a PKCS #7 structure
+            try {
+                return decode(X509CertUtil.loadCRL(crlData).getEncoded());
+            } catch (CRLException | IOException | RuntimeException ex2) {
+                throw new CryptoException(res.getString("NoLoadCrl.exception.message"), ex2);
+            }
+        }
+    }
+
+    private static byte[] getDerEncoding(byte[] crlData) throws IOException {
+        if (PemUtil.isPemFormat(crlData)) {
+            PemInfo pemInfo = PemUtil.decode(crlData);
+            if (pemInfo == null) {
+                throw new IOException("Malformed PEM");
+            }
+            return pemInfo.getContent();
+        }
+        return crlData;
+    }
+
+    private static X509CrlHeader decode(byte[] encoding) throws IOException {
+        // CertificateList ::= SEQUENCE { tbsCertList TBSCertList, signatureAlgorithm AlgorithmIdentifier, ... }
+        int crlEnd = end(encoding, expect(encoding, 0, encoding.length, SEQUENCE));
+        int tbsCertList = expect(encoding, contentOffset(encoding, 0), crlEnd, SEQUENCE);
+
+        int tbsEnd = end(encoding, tbsCertList);
+        int pos = contentOffset(encoding, tbsCertList);
+
+        int version = 1;
+        if (tag(encoding, pos, tbsEnd) == BERTags.INTEGER) {
+            version = ASN1Integer.getInstance(decode(encoding, pos)).intValueExact() + 1;
+            pos = end(encoding, pos);
+        }
+
+        // signature AlgorithmIdentifier, the same as the outer signatureAlgorithm
+        pos = end(encoding, expect(encoding, pos, tbsEnd, SEQUENCE));
+
+        X500Name issuer = X500Name.getInstance(KseX500NameStyle.INSTANCE,
+                                               decode(encoding, expect(encoding, pos, tbsEnd, SEQUENCE)));
+        pos = end(encoding, pos);
+
+        if (!isTime(tag(encoding, pos, tbsEnd))) {
+            throw new IOException("Missing thisUpdate");
+        }
+        Date thisUpdate = Time.getInstance(decode(encoding, pos)).getDate();
+        pos = end(encoding, pos);
+
+        Date nextUpdate = null;
+        if (pos < tbsEnd && isTime(tag(encoding, pos, tbsEnd))) {
+            nextUpdate = Time.getInstance(decode(encoding, pos)).getDate();
+            pos = end(encoding, pos);
+        }
+
+        // skip revokedCertificates without looking at the entries
+        if (pos < tbsEnd && tag(encoding, pos, tbsEnd) == SEQUENCE) {
+            pos = end(encoding, pos);
+        }
+
+        Extensions extensions = null;
+        if (pos < tbsEnd && tag(encoding, pos, tbsEnd) == CRL_EXTENSIONS) {
+            int crlExtensions = expect(encoding, contentOffset(encoding, pos), end(encoding, pos), SEQUENCE);
+            extensions = Extensions.getInstance(decode(encoding, crlExtensions));
+        }
+
+        AlgorithmIdentifier signatureAlgorithm = AlgorithmIdentifier.getInstance(
+                decode(encoding, expect(encoding, tbsEnd, crlEnd, SEQUENCE)));
+
+        return new X509CrlHeader(encoding, version, issuer, thisUpdate, nextUpdate, signatureAlgorithm,
+                                 extensions);
+    }
+
+    private static ASN1Primitive decode(byte[] encoding, int offset) throws IOException {
+        return ASN1Primitive.fromByteArray(Arrays.copyOfRange(encoding, offset, end(encoding, offset)));
+    }
+
+    /**
+     * Get the DER encoding of the whole CRL, including the revoked certificates.
+     *
+     * @return The encoding, not copied
+     */
+    public byte[] getEncoded() {
+        return encoding;
+    }
+
+    /**
+     * Get the version of the CRL.
+     *
+     * @return 1 or 2
+     */
+    public int getVersion() {
+        return version;
+    }
+
+    /**
+     * Get the issuer of the CRL.
+     *
+     * @return The issuer
+     */
+    public X500Name getIssuer() {
+        return issuer;
+    }
+
+    /**
+     * Get the issuer of the CRL as principal.
+     *
+     * @return The issuer
+     * @throws IOException If the issuer could not be encoded
+     */
+    public X500Principal getIssuerX500Principal() throws IOException {
+        return new X500Principal(issuer.getEncoded(ASN1Encoding.DER));
+    }
+
+    /**
+     * Get the date this CRL was issued.
+     *
+     * @return The date
+     */
+    public Date getThisUpdate() {
+        return thisUpdate;
+    }
+
+    /**
+     * Get the date by which the next CRL will be issued.
+     *
+     * @return The date or null if the CRL does not say
+     */
+    public Date getNextUpdate() {
+        return nextUpdate;
+    }
+
+    /**
+     * Get the signature algorithm OID.
+     *
+     * @return The OID
+     */
+    public String getSigAlgOID() {
+        return signatureAlgorithm.getAlgorithm().getId();
+    }
+
+    /**
+     * Get the DER encoded signature algorithm parameters.
+     *
+     * @return The parameters or null if there are none
+     */
+    public byte[] getSigAlgParams() {
+        if (signatureAlgorithm.getParameters() == null) {
+            return null;
+        }
+
+        try {
+            return signatureAlgorithm.getParameters().toASN1Primitive().getEncoded(ASN1Encoding.DER);
+        } catch (IOException ex) {
+            return null;
+        }
+    }
+
+    /**
+     * Get the name of the signature algorithm.
+     *
+     * @return The name or the OID if the algorithm is unknown
+     */
+    public String getSigAlgName() {
+        return new DefaultAlgorithmNameFinder().getAlgorithmName(signatureAlgorithm);
+    }
+
+    @Override
+    public boolean hasUnsupportedCriticalExtension() {
+        Set<String> critical = getCriticalExtensionOIDs();
+
+        if (critical == null) {
+            return false;
+        }
+
+        // the same extensions as the certificate factory's CRLs support
+        critical.remove(Extension.issuingDistributionPoint.getId());
+        critical.remove(Extension.deltaCRLIndicator.getId());
+        return !critical.isEmpty();
+    }
+
+    @Override
+    public Set<String> getCriticalExtensionOIDs() {
+        return getExtensionOIDs(true);
+    }
+
+    @Override
+    public Set<String> getNonCriticalExtensionOIDs() {
+        return getExtensionOIDs(false);
+    }
+
+    private Set<String> getExtensionOIDs(boolean critical) {
+        if (extensions == null) {
+            return null;
+        }
+
+        Set<String> oids = new HashSet<>();
+        for (ASN1ObjectIdentifier oid : extensions.getExtensionOIDs()) {
+            if (extensions.getExtension(oid).isCritical() == critical) {
+                oids.add(oid.getId());
+            }
+        }
+        return oids;
+    }
+
+    @Override
+    public byte[] getExtensionValue(String oid) {
+        if (extensions == null) {
+            return null;
+        }
+
+        Extension extension = extensions.getExtension(new ASN1ObjectIdentifier(oid));
+        if (extension == null) {
+            return null;
+        }
+
+        try {
+            return extension.getExtnValue().getEncoded(ASN1Encoding.DER);
+        } catch (IOException ex) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,250 @@
+/*
+ * Copyright 2004 - 2013 Wayne Grant
+ *           2013 - 2025 Kai Kramer
+ *
+ * This file is part of KeyStore Explorer.
+ *
+ * KeyStore Explorer is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * KeyStore Explorer is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with KeyStore Explorer.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.kse.crypto.x509;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigInteger;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.Date;
+
+import org.bouncycastle.asn1.ASN1Encoding;
+import org.bouncycastle.asn1.BERTags;
+import org.bouncycastle.asn1.DERBitString;
+import org.bouncycastle.asn1.DERTaggedObject;
+import org.bouncycastle.asn1.x500.X500Name;
+import org.bouncycastle.asn1.x509.CRLReason;
+import org.bouncycastle.asn1.x509.Extension;
+import org.bouncycastle.asn1.x509.Extensions;
+import org.bouncycastle.operator.ContentSigner;
+
+/**
+ * Writes a DER encoded X.509 CRL without holding its entries in memory. The entries are passed over three times: to
+ * calculate the length of the encoding, to sign it and to write it. Revocation entries have a reason code extension
+ * unless the reason is unspecified, the same as with BouncyCastle's CRL builder.
+ */
+final class X509CrlWriter {
+    private static final int SEQUENCE = BERTags.CONSTRUCTED | BERTags.SEQUENCE;
+
+    // UTCTime is used up to this year, GeneralizedTime after it (RFC 5280 5.1.2.4)
+    private static final int MIN_UTC_TIME_YEAR = 1950;
+    private static final int MAX_UTC_TIME_YEAR = 2049;
+
+    private static final byte[][] REASON_EXTENSIONS = new byte[CRLReason.aACompromise + 1][];
+
+    private final ContentSigner signer;
+    private final byte[] tbsHeader;
+    private final byte[] extensions;
+
+    /**
+     * Construct the writer.
+     *
+     * @param signer     Signs the CRL
+     * @param issuer     CRL issuer
+     * @param thisUpdate Effective date
+     * @param nextUpdate Next update or null if none
+     * @param extensions CRL extensions or null if none
+     * @throws IOException If the encoding failed
+     */
+    X509CrlWriter(ContentSigner signer, X500Name issuer, Date thisUpdate, Date nextUpdate, Extensions extensions)
+            throws IOException {
+        this.signer = signer;
+
+        ByteArrayOutputStream header = new ByteArrayOutputStream();
+        header.write(new byte[] { BERTags.INTEGER, 1, 1 }); // v2
+        header.write(signer.getAlgorithmIdentifier().getEncoded(ASN1Encoding.DER));
+        header.write(issuer.getEncoded(ASN1Encoding.DER));
+        writeTime(header, thisUpdate.getTime());
+        if (nextUpdate != null) {
+            writeTime(header, nextUpdate.getTime());
+        }
+        tbsHeader = header.toByteArray();
+
+        if (extensions != null) {
+            this.extensions = new DERTaggedObject(true, 0, extensions).getEncoded(ASN1Encoding.DER);
+        } else {
+            this.extensions = new byte[0];
+        }
+    }
+
+    /**
+     * Sign the CRL and write its encoding.
+     *
+     * @param entries The revoked certificates, iterated three times
+     * @param os      Stream to write the encoding to, not closed
+     * @throws IOException If the encoding could not be written
+     */
+    void write(Iterable<CrlDatabase.Entry> entries, OutputStream os) throws IOException {
+        long revokedLength = 0;
+        for (CrlDatabase.Entry entry : entries) {
+            revokedLength += encodedLength(getEntryLength(entry));
+        }
+
+        long tbsLength = tbsHeader.length + extensions.length;
+        if (revokedLength > 0) {
+            tbsLength += encodedLength(revokedLength);
+        }
+
+        try (OutputStream sigOs = new BufferedOutputStream(signer.getOutputStream())) {
+            writeTbs(sigOs, entries, tbsLength, revokedLength);
+        }
+
+        byte[] signatureAlgorithm = signer.getAlgorithmIdentifier().getEncoded(ASN1Encoding.DER);
+        byte[] signature = new DERBitString(signer.getSignature()).getEncoded(ASN1Encoding.DER);
+
+        BufferedOutputStream bos = new BufferedOutputStream(os);
+        writeHeader(bos, SEQUENCE, encodedLength(tbsLength) + signatureAlgorithm.length + signature.length);
+        writeTbs(bos, entries, tbsLength, revokedLength);
+        bos.write(signatureAlgorithm);
+        bos.write(signature);
+        bos.flush();
+    }
+
+    private void writeTbs(OutputStream os, Iterable<CrlDatabase.Entry> entries, long tbsLength, long revokedLength)
+            throws IOException {
+        writeHeader(os, SEQUENCE, tbsLength);
+        os.write(tbsHeader);
+
+        // revokedCertificates is left out rather than empty if there are none
+        if (revokedLength > 0) {
+            writeHeader(os, SEQUENCE, revokedLength);
+            for (CrlDatabase.Entry entry : entries) {
+                writeEntry(os, entry);
+            }
+        }
+
+        os.write(extensions);
+    }
+
+    private static long getEntryLength(CrlDatabase.Entry entry) {
+        long length = encodedLength(getSerialNumberLength(entry.getSerialNumber()));
+        length += getTimeLength(entry.getRevocationDate().getTime());
+        if (entry.getReason() != CRLReason.unspecified) {
+            length += getReasonExtensions(entry.getReason()).length;
+        }
+        return length;
+    }
+
+    private static void writeEntry(OutputStream os, CrlDatabase.Entry entry) throws IOException {
+        writeHeader(os, SEQUENCE, getEntryLength(entry));
+
+        // BigInteger.toByteArray() is the minimal two's complement encoding DER requires
+        byte[] serialNumber = entry.getSerialNumber().toByteArray();
+        writeHeader(os, BERTags.INTEGER, serialNumber.length);
+        os.write(serialNumber);
+
+        writeTime(os, entry.getRevocationDate().getTime());
+
+        if (entry.getReason() != CRLReason.unspecified) {
+            os.write(getReasonExtensions(entry.getReason()));
+        }
+    }
+
+    private static int getSerialNumberLength(BigInteger serialNumber) {
+        return serialNumber.bitLength() / 8 + 1;
+    }
+
+    private static synchronized byte[] getReasonExtensions(int reason) {
+        if (REASON_EXTENSIONS[reason] == null) {
+            try {
+                Extension reasonCode = new Extension(Extension.reasonCode, false,
+                                                     CRLReason.lookup(reason).getEncoded(ASN1Encoding.DER));
+                REASON_EXTENSIONS[reason] = new Extensions(reasonCode).getEncoded(ASN1Encoding.DER);
+            } catch (IOException ex) {
+                throw new IllegalStateException(ex);
+            }
+        }
+        return REASON_EXTENSIONS[reason];
+    }
+
+    private static boolean isUtcTime(ZonedDateTime time) {
+        return time.getYear() >= MIN_UTC_TIME_YEAR && time.getYear() <= MAX_UTC_TIME_YEAR;
+    }
+
+    private static int getTimeLength(long millis) {
+        ZonedDateTime time = Instant.ofEpochMilli(millis).atZone(ZoneOffset.UTC);
+        return isUtcTime(time) ? 15 : 17;
+    }
+
+    private static void writeTime(OutputStream os, long millis) throws IOException {
+        ZonedDateTime time = Instant.ofEpochMilli(millis).atZone(ZoneOffset.UTC);
+
+        // YYMMDDHHMMSSZ or YYYYMMDDHHMMSSZ, formatted by hand as this is done for every entry
+        byte[] value;
+        int pos = 0;
+        if (isUtcTime(time)) {
+            value = new byte[13];
+            writeHeader(os, BERTags.UTC_TIME, value.length);
+        } else {
+            value = new byte[15];
+            writeHeader(os, BERTags.GENERALIZED_TIME, value.length);
+            pos = putDigits(value, pos, time.getYear() / 100);
+        }
+        pos = putDigits(value, pos, time.getYear() % 100);
+        pos = putDigits(value, pos, time.getMonthValue());
+        pos = putDigits(value, pos, time.getDayOfMonth());
+        pos = putDigits(value, pos, time.getHour());
+        pos = putDigits(value, pos, time.getMinute());
+        pos = putDigits(value, pos, time.getSecond());
+        value[pos] = 'Z';
+
+        os.write(value);
+    }
+
+    private static int putDigits(byte[] value, int pos, int number) {
+        value[pos] = (byte) ('0' + number / 10);
+        value[pos + 1] = (byte) ('0' + number % 10);
+        return pos + 2;
+    }
+
+    /*
+     * Length of identifier, length and content octets
+     */
+    private static long encodedLength(long contentLength) {
+        int lengthOctets = 1;
+        if (contentLength > 127) {
+            for (long length = contentLength; length > 0; length >>>= 8) {
+                lengthOctets++;
+            }
+        }
+        return 1 + lengthOctets + contentLength;
+    }
+
+    private static void writeHeader(OutputStream os, int tag, long length) throws IOException {
+        os.write(tag);
+
+        if (length > 127) {
+            int octets = 0;
+            for (long l = length; l > 0; l >>>= 8) {
+                octets++;
+            }
+            os.write(0x80 | octets);
+            for (int i = (octets - 1) * 8; i >= 0; i -= 8) {
+                os.write((int) (length >>> i));
+            }
+        } else {
+            os.write((int) length);
+        }
+    }
+}
@@ -0,0 +1,189 @@
+/*
+ * Copyright 2004 - 2013 Wayne Grant
+ *           2013 - 2025 Kai Kramer
+ *
+ * This file is part of KeyStore Explorer.
+ *
+ * KeyStore Explorer is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * KeyStore Explorer is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with KeyStore Explorer.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.kse.crypto.x509;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.math.BigInteger;
+import java.security.PrivateKey;
+import java.security.Provider;
+import java.security.PublicKey;
+import java.security.cert.CertificateException;
+import java.security.cert.CertificateFactory;
+import java.security.cert.X509Certificate;
+import java.security.cert.X509Extension;
+import java.util.Date;
+import java.util.Queue;
+import java.util.ResourceBundle;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.bouncycastle.asn1.ASN1Encodable;
+import org.bouncycastle.asn1.ASN1InputStream;
+import org.bouncycastle.asn1.ASN1ObjectIdentifier;
+import org.bouncycastle.asn1.ASN1OctetString;
+import org.bouncycastle.asn1.x500.X500Name;
+import org.bouncycastle.cert.X509CertificateHolder;
+import org.bouncycastle.cert.jcajce.JcaX509v1CertificateBuilder;
+import org.bouncycastle.cert.jcajce.JcaX509v3CertificateBuilder;
+import org.bouncycastle.operator.ContentSigner;
+import org.bouncycastle.operator.OperatorCreationException;
+import org.bouncycastle.operator.jcajce.JcaContentSignerBuilder;
+import org.kse.KSE;
+import org.kse.crypto.CryptoException;
+import org.kse.crypto.signing.SignatureType;
+
+/**
+ * Signs X.509 certificates with one private key and signature type. Creating and initialising a signature for the
+ * key costs about as much as signing a small certificate, so the context keeps its signers and reuses them for
+ * the next certificate. A context may be shared by threads; each thread signing at the same time gets its own
+ * signer.
+ */
+public class X509SignerContext {
+    private static ResourceBundle res = ResourceBundle.getBundle("org/kse/crypto/x509/resources");
+
+    private static final String X509_CERT_TYPE = "X.509";
+
+    private final PrivateKey privateKey;
+    private final SignatureType signatureType;
+    private final Provider provider;
+
+    private final Queue<Signer> idleSigners = new ConcurrentLinkedQueue<>();
+
+    /**
+     * Construct the context.
+     *
+     * @param privateKey    Private key to sign with
+     * @param signatureType Signature type
+     * @param provider      Provider of the private key or null for BouncyCastle
+     * @throws CryptoException If the key cannot sign with the signature type
+     */
+    public X509SignerContext(PrivateKey privateKey, SignatureType signatureType, Provider provider)
+            throws CryptoException {
+        this.privateKey = privateKey;
+        this.signatureType = signatureType;
+        this.provider = provider == null ? KSE.BC : provider;
+
+        idleSigners.add(createSigner());
+    }
+
+    /**
+     * Get the signature type.
+     *
+     * @return Signature type
+     */
+    public SignatureType getSignatureType() {
+        return signatureType;
+    }
+
+    /**
+     * Generate a certificate.
+     *
+     * @param version       Certificate version
+     * @param subject       Certificate subject
+     * @param issuer        Certificate issuer
+     * @param validityStart Validity start date of certificate or null for now
+     * @param validityEnd   Validity end date of certificate or null for a year after the start
+     * @param publicKey     Subject public key
+     * @param serialNumber  Serial number
+     * @param extensions    Extensions or null if none, ignored for version 1
+     * @return The generated certificate
+     * @throws CryptoException If there was a problem generating the certificate
+     */
+    public X509Certificate generate(X509CertificateVersion version, X500Name subject, X500Name issuer,
+                                    Date validityStart, Date validityEnd, PublicKey publicKey,
+                                    BigInteger serialNumber, X509Extension extensions) throws CryptoException {
+        Date notBefore = validityStart == null ? new Date() : validityStart;
+        Date notAfter = validityEnd == null ?
+                        new Date(notBefore.getTime() + TimeUnit.DAYS.toMillis(365)) : validityEnd;
+
+        Signer signer = idleSigners.poll();
+        if (signer == null) {
+            signer = createSigner();
+        }
+
+        try {
+            X509CertificateHolder certHolder;
+            if (version == X509CertificateVersion.VERSION1) {
+                certHolder = new JcaX509v1CertificateBuilder(issuer, serialNumber, notBefore, notAfter, subject,
+                                                             publicKey).build(signer.contentSigner);
+            } else {
+                JcaX509v3CertificateBuilder certBuilder = new JcaX509v3CertificateBuilder(issuer, serialNumber,
+                                                                                          notBefore, notAfter,
+                                                                                          subject, publicKey);
+                if (extensions != null) {
+                    for (String oid : extensions.getCriticalExtensionOIDs()) {
+                        certBuilder.addExtension(new ASN1ObjectIdentifier(oid), true,
+                                                 getExtensionValue(extensions, oid));
+                    }
+
+                    for (String oid : extensions.getNonCriticalExtensionOIDs()) {
+                        certBuilder.addExtension(new ASN1ObjectIdentifier(oid), false,
+                                                 getExtensionValue(extensions, oid));
+                    }
+                }
+                certHolder = certBuilder.build(signer.contentSigner);
+            }
+
+            X509Certificate cert = (X509Certificate) signer.certificateFactory.generateCertificate(
+                    new ByteArrayInputStream(certHolder.getEncoded()));
+
+            // only a signer that completed its signature is returned, a failed one may hold part of a certificate
+            idleSigners.add(signer);
+
+            return cert;
+        } catch (CertificateException | IOException | IllegalStateException ex) {
+            throw new CryptoException(res.getString("CertificateGenFailed.exception.message"), ex);
+        }
+    }
+
+    private Signer createSigner() throws CryptoException {
+        try {
+            ContentSigner contentSigner = new JcaContentSignerBuilder(signatureType.jce()).setProvider(provider)
+                                                                                          .build(privateKey);
+            return new Signer(contentSigner, CertificateFactory.getInstance(X509_CERT_TYPE, KSE.BC));
+        } catch (CertificateException | IllegalArgumentException | OperatorCreationException ex) {
+            throw new CryptoException(res.getString("CertificateGenFailed.exception.message"), ex);
+        }
+    }
+
+    private static ASN1Encodable getExtensionValue(X509Extension extensions, String oid) throws CryptoException {
+        byte[] octets = ASN1OctetString.getInstance(extensions.getExtensionValue(oid)).getOctets();
+        try (ASN1InputStream ais = new ASN1InputStream(octets)) {
+            return ais.readObject();
+        } catch (IOException ex) {
+            throw new CryptoException(res.getString("CertificateGenFailed.exception.message"), ex);
+        }
+    }
+
+    /*
+     * A content signer is bound to one Signature and a certificate factory keeps
+     * parsing state, so neither can be used by two threads at the same time
+     */
+    private static final class Signer {
+        private final ContentSigner contentSigner;
+        private final CertificateFactory certificateFactory;
+
+        private Signer(ContentSigner contentSigner, CertificateFactory certificateFactory) {
+            this.contentSigner = contentSigner;
+            this.certificateFactory = certificateFactory;
+        }
+    }
+}
@@ -29,6 +29,7 @@ import javax.swing.JDialog;
 import javax.swing.JFrame;
 import javax.swing.JOptionPane;
 import javax.swing.SwingUtilities;
+import javax.swing.Timer;
 
 import org.kse.AuthorityCertificates;
 import org.kse.KSE;
@@ -38,6 +39,7 @@ import org.kse.gui.crypto.DUpgradeCryptoStrength;
 import org.kse.gui.dnd.DroppedFileHandler;
 import org.kse.gui.error.DError;
 import org.kse.gui.preferences.data.KsePreferences;
+import org.kse.utilities.StartupTimer;
 import org.kse.utilities.os.OperatingSystem;
 import org.kse.version.JavaVersion;
 import org.kse.version.VersionException;
@@ -51,6 +53,14 @@ public class CreateApplicationGui implements Runnable {
     private static ResourceBundle res = ResourceBundle.getBundle("org/kse/gui/resources");
 
     private static final JavaVersion MIN_JRE_VERSION = JavaVersion.JRE_VERSION_11;
+
+    /**
+     * System property set by the build for the training run that records the classes for the CDS archive
+     */
+    private static final String KSE_CDS_TRAINING = "kse.cds.training";
+
+    private static final int TRAINING_RUN_MILLIS = 10000;
+
     private KsePreferences ksePreferences;
     private List<File> parameterFiles;
 
@@ -75,7 +85,12 @@ public class CreateApplicationGui implements Runnable {
                 System.exit(1);
             }
 
+            if (Boolean.getBoolean(KSE_CDS_TRAINING)) {
+                startTrainingRunTimeout();
+            }
+
             initLookAndFeel(ksePreferences);
+            StartupTimer.mark("Look and feel");
 
             // try to remove crypto restrictions
             JcePolicyUtil.removeRestrictions();
@@ -84,8 +99,10 @@ public class CreateApplicationGui implements Runnable {
             if (JcePolicyUtil.isLocalPolicyCrytoStrengthLimited()) {
                 upgradeCryptoStrength();
             }
+            StartupTimer.mark("Crypto strength");
 
             final KseFrame kseFrame = new KseFrame();
+            StartupTimer.mark("Main window");
 
             // workaround to a bug in initializing JEditorPane that seems to be a 1-in-10000 problem
             if (Thread.currentThread().getContextClassLoader() == null) {
@@ -96,6 +113,9 @@ public class CreateApplicationGui implements Runnable {
                 integrateWithMacOs(kseFrame);
             }
 
+            // queued before display, which may block on a modal tip of the day
+            SwingUtilities.invokeLater(() -> StartupTimer.finish("Main window shown"));
+
             kseFrame.display();
 
             // check if stored location of cacerts file still exists
@@ -117,6 +137,13 @@ public class CreateApplicationGui implements Runnable {
 
     }
 
+    private static void startTrainingRunTimeout() {
+        // a training run only has to load the classes of a normal start, it ends even if a dialog is open
+        Timer exitTimer = new Timer(TRAINING_RUN_MILLIS, evt -> System.exit(0));
+        exitTimer.setRepeats(false);
+        exitTimer.start();
+    }
+
     private void checkCaCerts(final KseFrame kseFrame) {
 
         File caCertificatesFile = new File(ksePreferences.getCaCertsSettings().getCaCertificatesFile());
@@ -0,0 +1,151 @@
+/*
+ * Copyright 2004 - 2013 Wayne Grant
+ *           2013 - 2025 Kai Kramer
+ *
+ * This file is part of KeyStore Explorer.
+ *
+ * KeyStore Explorer is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * KeyStore Explorer is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with KeyStore Explorer.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.kse.gui;
+
+import java.awt.Toolkit;
+import java.io.File;
+import java.lang.reflect.Field;
+import java.security.Security;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import javax.swing.JFrame;
+import javax.swing.SwingUtilities;
+
+import org.kse.KSE;
+import org.kse.crypto.csr.pkcs12.Pkcs12Util;
+import org.kse.gui.error.DError;
+import org.kse.gui.preferences.PreferencesManager;
+import org.kse.gui.preferences.data.KsePreferences;
+import org.kse.gui.preferences.data.LanguageItem;
+import org.kse.utilities.StartupTimer;
+import org.kse.utilities.net.ProxySettingsUpdater;
+import org.kse.utilities.os.OperatingSystem;
+import org.kse.version.JavaVersion;
+
+/**
+ * Starts the KeyStore Explorer GUI. Kept apart from the main class so that the command-line mode can start
+ * without loading any Swing classes.
+ */
+public class GuiLauncher {
+    private GuiLauncher() {
+    }
+
+    /**
+     * Start the GUI.
+     *
+     * @param args Locations of KeyStore files to open upon startup
+     */
+    public static void launch(String[] args) {
+        StartupTimer.mark("Launcher");
+
+        try {
+            // To take effect these must be set before the splash screen is instantiated
+            if (OperatingSystem.isMacOs()) {
+                setAppleSystemProperties();
+            } else if (OperatingSystem.isLinux()) {
+                fixAppClassName();
+            }
+
+            setInstallDirProperty();
+
+            KsePreferences preferences = PreferencesManager.getPreferences();
+            setCurrentDirectory(preferences.getCurrentDirectory());
+            StartupTimer.mark("Preferences");
+
+            ProxySettingsUpdater.updateSystem(preferences.getProxySettings());
+            StartupTimer.mark("Proxy settings");
+
+            String language = preferences.getLanguage();
+            if (!language.equals(LanguageItem.SYSTEM_LANGUAGE)) {
+                Locale.setDefault(new Locale(language));
+            }
+
+            Security.addProvider(KSE.BC);
+            StartupTimer.mark("Security provider");
+
+            Pkcs12Util.setEncryptionStrength(preferences.getPkcs12EncryptionSetting());
+
+            setProperties(preferences.getProperties());
+
+            // list of files to open after start
+            List<File> parameterFiles = new ArrayList<>();
+            for (String arg : args) {
+                File parameterFile = new File(arg);
+                if (parameterFile.exists()) {
+                    parameterFiles.add(parameterFile);
+                }
+            }
+
+            SwingUtilities.invokeLater(new CreateApplicationGui(preferences, parameterFiles));
+        } catch (Throwable t) {
+            DError dError = new DError(new JFrame(), t);
+            dError.setLocationRelativeTo(null);
+            dError.setVisible(true);
+            System.exit(1);
+        }
+    }
+
+    private static void setProperties(Map<String, String> properties) {
+        for (Map.Entry<String, String> entry : properties.entrySet()) {
+            System.setProperty(entry.getKey(), entry.getValue());
+        }
+    }
+
+    private static void fixAppClassName() {
+        // Fix application name in Gnome top bar, see http://bugs.java.com/bugdatabase/view_bug.do?bug_id=6528430
+        // TODO Bug is not fixed yet, but the workaround causes an "Illegal reflective access" warning since Java 9...
+        if (JavaVersion.getJreVersion().isBelow(JavaVersion.JRE_VERSION_12)) {
+            Toolkit xToolkit = Toolkit.getDefaultToolkit();
+            try {
+                Field awtAppClassNameField = xToolkit.getClass().getDeclaredField("awtAppClassName");
+                awtAppClassNameField.setAccessible(true);
+                awtAppClassNameField.set(xToolkit, KSE.getApplicationName());
+            } catch (Exception x) {
+                // ignore
+            }
+        }
+    }
+
+    private static void setAppleSystemProperties() {
+        try {
+            // On Apple use screen bar for menus
+            System.setProperty("apple.laf.useScreenMenuBar", "true");
+
+            // On Apple set the menu about name to the application name
+            System.setProperty("com.apple.mrj.application.apple.menu.about.name", KSE.getApplicationName());
+        } catch (SecurityException ex) {
+            ex.printStackTrace(); // Ignore - not essential that this works
+        }
+    }
+
+    private static void setInstallDirProperty() {
+        // Use this for restarts; install directory is always user.dir, but we change user.dir in CurrentDirectory class
+        System.setProperty(KseRestart.KSE_INSTALL_DIR, System.getProperty("user.dir"));
+    }
+
+    private static void setCurrentDirectory(String currentDir) {
+        if (currentDir != null) {
+            CurrentDirectory.update(new File(currentDir));
+        }
+    }
+}
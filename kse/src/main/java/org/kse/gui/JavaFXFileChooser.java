@@ -50,23 +50,30 @@ public class JavaFXFileChooser extends JFileChooser {
     private static Class<?> windowClass;
 
     private static boolean fxAvailable = false;
+    private static boolean fxInitialized = false;
 
-    static {
-        // check for availability and initialize javafx thread
-        try {
-            // disabled for macOS because there are incompatibilities between JavaFX file chooser and some mac tools
-//            if (!OperatingSystem.isMacOs()) { // testing if this issue with tools like Karabiner or Cinch still exists
-                Class.forName("javafx.embed.swing.JFXPanel").getConstructor().newInstance();
-                platformClass = Class.forName("javafx.application.Platform");
-                fileChooserClass = Class.forName("javafx.stage.FileChooser");
-                directoryChooserClass = Class.forName("javafx.stage.DirectoryChooser");
-                extensionFilterClass = Class.forName("javafx.stage.FileChooser$ExtensionFilter");
-                windowClass = Class.forName("javafx.stage.Window");
-                fxAvailable = true;
-//            }
-        } catch (Exception e) {
-            fxAvailable = false;
+    // Starting the JavaFX platform takes a while, so it is only done when the first native file chooser is needed
+    private static synchronized boolean initFx() {
+        if (!fxInitialized) {
+            fxInitialized = true;
+
+            // check for availability and initialize javafx thread
+            try {
+                // disabled for macOS because there are incompatibilities between JavaFX file chooser and some mac tools
+//                if (!OperatingSystem.isMacOs()) { // testing if this issue with tools like Karabiner or Cinch still exists
+                    Class.forName("javafx.embed.swing.JFXPanel").getConstructor().newInstance();
+                    platformClass = Class.forName("javafx.application.Platform");
+                    fileChooserClass = Class.forName("javafx.stage.FileChooser");
+                    directoryChooserClass = Class.forName("javafx.stage.DirectoryChooser");
+                    extensionFilterClass = Class.forName("javafx.stage.FileChooser$ExtensionFilter");
+                    windowClass = Class.forName("javafx.stage.Window");
+                    fxAvailable = true;
+//                }
+            } catch (Exception e) {
+                fxAvailable = false;
+            }
         }
+        return fxAvailable;
     }
 
     private List<FileNameExtensionFilter> filters = new ArrayList<>();
@@ -77,7 +84,7 @@ public class JavaFXFileChooser extends JFileChooser {
     private File currentDirectory;
 
     public static boolean isFxAvailable() {
-        return fxAvailable && PreferencesManager.getPreferences().isNativeFileChooserEnabled();
+        return PreferencesManager.getPreferences().isNativeFileChooserEnabled() && initFx();
     }
 
     @Override
@@ -472,7 +479,7 @@ public class JavaFXFileChooser extends JFileChooser {
             throws NoSuchMethodException, SecurityException, IllegalAccessException, IllegalArgumentException,
                    InvocationTargetException {
 
-        if (!fxAvailable) {
+        if (!initFx()) {
             System.out.println("JavaFX not available");
             System.exit(1);
         }
@@ -19,30 +19,37 @@
  */
 package org.kse.gui;
 
+import java.awt.Dimension;
 import java.awt.FlowLayout;
 import java.awt.Insets;
 import java.awt.Toolkit;
 import java.awt.event.MouseAdapter;
 import java.awt.event.MouseEvent;
 import java.util.ResourceBundle;
+import java.util.concurrent.ExecutionException;
 
 import javax.swing.ImageIcon;
 import javax.swing.JButton;
 import javax.swing.JLabel;
 import javax.swing.JPanel;
+import javax.swing.JProgressBar;
+import javax.swing.SwingWorker;
 import javax.swing.border.EmptyBorder;
 
 import org.kse.gui.actions.CloseAction;
+import org.kse.gui.error.DError;
 import org.kse.utilities.history.KeyStoreHistory;
 
 /**
  * KeyStore tab. Displays a KeyStore's title and allows it to be closed using a
- * close icon.
+ * close icon. While the KeyStore's entries are loading a progress bar is shown
+ * and closing the tab cancels loading.
  */
 public class KeyStoreTab extends JPanel {
     private static final long serialVersionUID = 1L;
     private static ResourceBundle res = ResourceBundle.getBundle("org/kse/gui/resources");
     private JLabel jlTitle;
+    private JProgressBar jpbLoading;
     private JButton jbClose;
     private KseFrame kseFrame;
     private KeyStoreHistory history;
@@ -65,6 +72,11 @@ public class KeyStoreTab extends JPanel {
         jlTitle = new JLabel(title);
         jlTitle.setBorder(new EmptyBorder(0, 0, 0, 5));
 
+        jpbLoading = new JProgressBar(0, 100);
+        jpbLoading.setPreferredSize(new Dimension(50, jpbLoading.getPreferredSize().height));
+        jpbLoading.setBorder(new EmptyBorder(0, 0, 0, 5));
+        jpbLoading.setVisible(false);
+
         jbClose = new JButton();
         jbClose.setToolTipText(res.getString("KeyStoreTab.jbClose.tooltip"));
 
@@ -111,6 +123,7 @@ public class KeyStoreTab extends JPanel {
         setLayout(new FlowLayout(FlowLayout.CENTER, 0, 0));
 
         add(jlTitle);
+        add(jpbLoading);
         add(jbClose);
     }
 
@@ -122,4 +135,46 @@ public class KeyStoreTab extends JPanel {
     public void updateTitle(String title) {
         jlTitle.setText(title);
     }
+
+    /**
+     * Show the progress of a loader of the KeyStore's entries until it is done.
+     *
+     * @param loader Loader of the KeyStore's entries
+     */
+    public void showLoadProgress(SwingWorker<?, ?> loader) {
+        jpbLoading.setValue(0);
+        jpbLoading.setToolTipText(res.getString("KeyStoreTab.jpbLoading.tooltip"));
+        jpbLoading.setVisible(true);
+        jbClose.setToolTipText(res.getString("KeyStoreTab.jbClose.loading.tooltip"));
+
+        loader.addPropertyChangeListener(evt -> {
+            if ("progress".equals(evt.getPropertyName())) {
+                jpbLoading.setValue((Integer) evt.getNewValue());
+            } else if (loader.isDone()) {
+                loadingDone(loader);
+            }
+        });
+
+        revalidate();
+    }
+
+    private void loadingDone(SwingWorker<?, ?> loader) {
+        if (!jpbLoading.isVisible()) {
+            return;
+        }
+
+        jpbLoading.setVisible(false);
+        jbClose.setToolTipText(res.getString("KeyStoreTab.jbClose.tooltip"));
+        revalidate();
+
+        if (!loader.isCancelled()) {
+            try {
+                loader.get();
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            } catch (ExecutionException ex) {
+                DError.displayError(kseFrame.getUnderlyingFrame(), ex.getCause());
+            }
+        }
+    }
 }
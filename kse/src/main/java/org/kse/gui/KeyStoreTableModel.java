@@ -31,23 +31,25 @@ import java.security.cert.Certificate;
 import java.security.cert.X509Certificate;
 import java.time.ZoneId;
 import java.time.ZonedDateTime;
+import java.util.ArrayList;
 import java.util.Calendar;
+import java.util.Collections;
 import java.util.Comparator;
 import java.util.Date;
 import java.util.Enumeration;
-import java.util.Iterator;
-import java.util.Map.Entry;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.ResourceBundle;
+import java.util.Set;
 import java.util.TreeMap;
+import java.util.function.Function;
 
 import javax.crypto.SecretKey;
+import javax.swing.SwingUtilities;
+import javax.swing.SwingWorker;
 import javax.swing.table.AbstractTableModel;
 
-import org.bouncycastle.asn1.DEROctetString;
-import org.bouncycastle.asn1.x500.X500Name;
-import org.bouncycastle.asn1.x509.AuthorityKeyIdentifier;
-import org.bouncycastle.asn1.x509.Extension;
-import org.bouncycastle.asn1.x509.SubjectKeyIdentifier;
 import org.kse.crypto.CryptoException;
 import org.kse.crypto.KeyInfo;
 import org.kse.crypto.keypair.KeyPairUtil;
@@ -55,12 +57,13 @@ import org.kse.crypto.keystore.KeyStoreType;
 import org.kse.crypto.keystore.KeyStoreUtil;
 import org.kse.crypto.secretkey.SecretKeyType;
 import org.kse.crypto.secretkey.SecretKeyUtil;
-import org.kse.crypto.x509.KseX500NameStyle;
-import org.kse.crypto.x509.X500NameUtils;
+import org.kse.crypto.x509.X509CertAttributes;
 import org.kse.crypto.x509.X509CertUtil;
+import org.kse.gui.passwordmanager.Password;
+import org.kse.utilities.history.AlwaysIdenticalKeyStoreState;
+import org.kse.utilities.history.EntryChange;
 import org.kse.utilities.history.KeyStoreHistory;
 import org.kse.utilities.history.KeyStoreState;
-import org.kse.utilities.io.HexUtil;
 
 /**
  * The table model used to display a KeyStore's entries sorted by alias name.
@@ -70,8 +73,12 @@ public class KeyStoreTableModel extends AbstractTableModel {
     private static ResourceBundle res = ResourceBundle.getBundle("org/kse/gui/resources");
     private String[] columnNames;
     private Class<?>[] columnTypes;
-    private Object[][] data = new Object[0][0];
+    private List<String> rowAliases = new ArrayList<>();
+    private List<Object[]> data = new ArrayList<>();
     private KeyStoreHistory history;
+    private KeyStoreState loadedState;
+    private final AliasComparator aliasComparator = new AliasComparator();
+    private BackgroundLoader backgroundLoader;
 
     /**
      * Type column value for a key pair entry
@@ -89,6 +96,7 @@ public class KeyStoreTableModel extends AbstractTableModel {
     public static final String KEY_ENTRY = res.getString("KeyStoreTableModel.KeyEntry");
 
     private static final int ICON_SIZE = 28;
+    private static final int LOAD_BATCH_SIZE = 100;
 
     private KeyStoreTableColumns keyStoreTableColumns;
     private int nofColumns = 5;
@@ -135,15 +143,85 @@ public class KeyStoreTableModel extends AbstractTableModel {
      *                                  entries
      */
     public void load(KeyStoreHistory history) throws GeneralSecurityException, CryptoException {
+        cancelLoading();
+
         this.history = history;
         KeyStoreState currentState = history.getCurrentState();
 
         KeyStore keyStore = currentState.getKeyStore();
         KeyStoreType type = KeyStoreType.resolveJce(keyStore.getType());
 
+        List<String> newRowAliases = getSortedAliases(keyStore);
+        List<Object[]> newData = new ArrayList<>(newRowAliases.size());
+
+        for (String alias : newRowAliases) {
+            newData.add(createRow(alias, keyStore, currentState::getEntryPassword, type, iColWidth));
+        }
+
+        rowAliases = newRowAliases;
+        data = newData;
+        this.loadedState = currentState;
+
+        fireTableDataChanged();
+    }
+
+    /**
+     * Load the KeyStoreTableModel with the entries from a KeyStore on a background thread. Rows are added in
+     * batches as they become available and the loader's progress property reports the percentage of entries
+     * loaded so far. The KeyStore of a state is never modified by the states that follow it, so the loader can
+     * keep reading it while the user works with the entries already shown. KeyStores that are changed in place,
+     * such as PKCS#11, are loaded immediately instead. Any further load or update of the model cancels the loader.
+     *
+     * @param history KeyStore history
+     * @return The started loader
+     */
+    public SwingWorker<Void, ?> loadInBackground(KeyStoreHistory history) {
+        cancelLoading();
+
+        if (history.getCurrentState() instanceof AlwaysIdenticalKeyStoreState) {
+            // Token and MSCAPI KeyStores may change at any time and are only read on the event dispatch thread
+            SwingWorker<Void, ?> loaded = new CompletedLoader(history);
+            loaded.execute();
+            return loaded;
+        }
+
+        this.history = history;
+        loadedState = history.getCurrentState();
+        rowAliases = new ArrayList<>();
+        data = new ArrayList<>();
+
+        fireTableDataChanged();
+
+        // The state's entry passwords may change on the event dispatch thread while loading
+        backgroundLoader = new BackgroundLoader(loadedState.getKeyStore(), loadedState.copyEntryPasswords());
+        backgroundLoader.execute();
+
+        return backgroundLoader;
+    }
+
+    /**
+     * Are the entries still being loaded on a background thread?
+     *
+     * @return True if loading is in progress
+     */
+    public boolean isLoading() {
+        return backgroundLoader != null && !backgroundLoader.isDone();
+    }
+
+    /**
+     * Cancel loading entries on a background thread. Rows already added are kept.
+     */
+    public void cancelLoading() {
+        if (backgroundLoader != null) {
+            backgroundLoader.cancel(false);
+            backgroundLoader = null;
+        }
+    }
+
+    private List<String> getSortedAliases(KeyStore keyStore) throws KeyStoreException {
         Enumeration<String> aliases = keyStore.aliases();
 
-        TreeMap<String, String> sortedAliases = new TreeMap<>(new AliasComparator());
+        TreeMap<String, String> sortedAliases = new TreeMap<>(aliasComparator);
 
         while (aliases.hasMoreElements()) {
             String alias = aliases.nextElement();
@@ -153,206 +231,305 @@ public class KeyStoreTableModel extends AbstractTableModel {
             sortedAliases.put(alias, alias);
         }
 
-        data = new Object[sortedAliases.size()][nofColumns];
+        return new ArrayList<>(sortedAliases.keySet());
+    }
+
+    /**
+     * Update the KeyStoreTableModel after the current state of a KeyStore history has changed. If the model was
+     * loaded from the state directly before or after the current one, only the rows of the entries that differ
+     * between the two states are rebuilt and row level table model events are fired. Otherwise, including for
+     * KeyStores that are changed in place such as PKCS#11, the model is loaded again from scratch.
+     *
+     * @param history KeyStore history
+     * @throws GeneralSecurityException If a KeyStore problem occurs while accessing the KeyStore's
+     *                                  entries
+     * @throws CryptoException          If a crypto problem occurs while accessing the KeyStore's
+     *                                  entries
+     */
+    public void update(KeyStoreHistory history) throws GeneralSecurityException, CryptoException {
+        KeyStoreState currentState = history.getCurrentState();
+        List<EntryChange> entryChanges = null;
+
+        // KeyStores that cannot be copied are changed in place without recording entry changes
+        boolean changedInPlace = currentState instanceof AlwaysIdenticalKeyStoreState;
+
+        if (history == this.history && loadedState != null && !isLoading() && !changedInPlace) {
+            if (currentState == loadedState) {
+                // Same state - only the entry passwords known to it may have changed
+                updateLockedRows(currentState);
+                return;
+            } else if (currentState.previousState() == loadedState) {
+                // New state or redo
+                entryChanges = currentState.getEntryChanges();
+            } else if (currentState.nextState() == loadedState) {
+                // Undo - the changes of the undone state touch the same aliases
+                entryChanges = loadedState.getEntryChanges();
+            }
+        }
+
+        if (entryChanges == null) {
+            load(history);
+            return;
+        }
 
-        int i = 0;
-        for (Iterator<Entry<String, String>> itr = sortedAliases.entrySet().iterator(); itr.hasNext(); i++) {
-            String alias = itr.next().getKey();
+        KeyStore keyStore = currentState.getKeyStore();
+        KeyStoreType type = KeyStoreType.resolveJce(keyStore.getType());
 
-            String entryType = null;
+        Set<String> changedAliases = new LinkedHashSet<>();
+        for (EntryChange entryChange : entryChanges) {
+            changedAliases.add(entryChange.getAlias());
+        }
 
-            // Type column
-            if (KeyStoreUtil.isTrustedCertificateEntry(alias, keyStore)) {
-                entryType = TRUST_CERT_ENTRY;
-            } else if (KeyStoreUtil.isKeyPairEntry(alias, keyStore)) {
-                entryType = KEY_PAIR_ENTRY;
-            } else {
-                entryType = KEY_ENTRY;
-            }
+        for (String alias : changedAliases) {
+            int index = Collections.binarySearch(rowAliases, alias, aliasComparator);
 
-            data[i][0] = entryType;
+            if (keyStore.containsAlias(alias) && KeyStoreUtil.isSupportedEntryType(alias, keyStore)) {
+                Object[] row = createRow(alias, keyStore, currentState::getEntryPassword, type, iColWidth);
 
-            // Lock column - only applies to KeyStores types that actually support passwords for entries
-            if ((entryType.equals(KEY_PAIR_ENTRY) || entryType.equals(KEY_ENTRY)) && type.hasEntryPasswords()) {
-                if (currentState.getEntryPassword(alias) != null) {
-                    data[i][1] = Boolean.FALSE; // Unlocked
+                if (index >= 0) {
+                    data.set(index, row);
+                    fireTableRowsUpdated(index, index);
                 } else {
-                    data[i][1] = Boolean.TRUE; // Locked
+                    index = -index - 1;
+                    rowAliases.add(index, alias);
+                    data.add(index, row);
+                    fireTableRowsInserted(index, index);
                 }
+            } else if (index >= 0) {
+                rowAliases.remove(index);
+                data.remove(index);
+                fireTableRowsDeleted(index, index);
+            }
+        }
+
+        loadedState = currentState;
+    }
+
+    private void updateLockedRows(KeyStoreState currentState) throws GeneralSecurityException, CryptoException {
+        KeyStore keyStore = currentState.getKeyStore();
+        KeyStoreType type = KeyStoreType.resolveJce(keyStore.getType());
+
+        for (int i = 0; i < data.size(); i++) {
+            Object locked = data.get(i)[1];
+
+            if (locked == null) {
+                continue; // Lock status does not apply
+            }
+
+            String alias = rowAliases.get(i);
+
+            if (locked.equals(currentState.getEntryPassword(alias) == null)) {
+                continue; // Lock status unchanged
+            }
+
+            data.set(i, createRow(alias, keyStore, currentState::getEntryPassword, type, iColWidth));
+            fireTableRowsUpdated(i, i);
+        }
+    }
+
+    private Object[] createRow(String alias, KeyStore keyStore, Function<String, Password> entryPasswords,
+                               KeyStoreType type, int[] colWidths) throws GeneralSecurityException, CryptoException {
+        Object[] row = new Object[nofColumns];
+
+        String entryType = null;
+
+        // Type column
+        if (KeyStoreUtil.isTrustedCertificateEntry(alias, keyStore)) {
+            entryType = TRUST_CERT_ENTRY;
+        } else if (KeyStoreUtil.isKeyPairEntry(alias, keyStore)) {
+            entryType = KEY_PAIR_ENTRY;
+        } else {
+            entryType = KEY_ENTRY;
+        }
+
+        row[0] = entryType;
+
+        // Attributes of the entry's certificate are decoded once and shared with other views
+        X509CertAttributes attributes = null;
+        if (!entryType.equals(KEY_ENTRY)) {
+            attributes = X509CertAttributes.get(getCertificate(alias, keyStore));
+        }
+
+        // Lock column - only applies to KeyStores types that actually support passwords for entries
+        if ((entryType.equals(KEY_PAIR_ENTRY) || entryType.equals(KEY_ENTRY)) && type.hasEntryPasswords()) {
+            if (entryPasswords.apply(alias) != null) {
+                row[1] = Boolean.FALSE; // Unlocked
             } else {
-                data[i][1] = null; // Lock status does not apply
+                row[1] = Boolean.TRUE; // Locked
             }
+        } else {
+            row[1] = null; // Lock status does not apply
+        }
 
-            // Expiry status column
-            Date expiry = getCertificateExpiry(alias, keyStore);
-            ZonedDateTime now = ZonedDateTime.now(ZoneId.systemDefault());
-            ZonedDateTime nowPlusExpiryWarnDays = now.plusDays(expiryWarnDays);
-            if (expiry == null) {
-                data[i][2] = null; // No certExpiration - must be a key entry
+        // Expiry status column
+        Date expiry = getCertificateExpiry(alias, keyStore);
+        ZonedDateTime now = ZonedDateTime.now(ZoneId.systemDefault());
+        ZonedDateTime nowPlusExpiryWarnDays = now.plusDays(expiryWarnDays);
+        if (expiry == null) {
+            row[2] = null; // No certExpiration - must be a key entry
+        } else {
+            ZonedDateTime expiryDateTime = expiry.toInstant().atZone(ZoneId.systemDefault());
+            if (now.isAfter(expiryDateTime)) {
+                row[2] = 2; // Expired
             } else {
-                ZonedDateTime expiryDateTime = expiry.toInstant().atZone(ZoneId.systemDefault());
-                if (now.isAfter(expiryDateTime)) {
-                    data[i][2] = 2; // Expired
+                if (nowPlusExpiryWarnDays.isAfter(expiryDateTime)) {
+                    row[2] = 1; // Almost expired
                 } else {
-                    if (nowPlusExpiryWarnDays.isAfter(expiryDateTime)) {
-                        data[i][2] = 1; // Almost expired
-                    } else {
-                        data[i][2] = 0; // Not expired
-                    }
+                    row[2] = 0; // Not expired
                 }
             }
+        }
 
-            if (iNameColumn > 0) {
-                // Alias column
-                data[i][iNameColumn] = alias;
-                if (alias.length() > iColWidth[iNameColumn]) {
-                    iColWidth[iNameColumn] = alias.length();
-                }
+        if (iNameColumn > 0) {
+            // Alias column
+            row[iNameColumn] = alias;
+            if (alias.length() > colWidths[iNameColumn]) {
+                colWidths[iNameColumn] = alias.length();
             }
+        }
 
-            KeyInfo keyInfo = getKeyInfo(alias, keyStore, currentState);
+        KeyInfo keyInfo = getKeyInfo(alias, keyStore, entryPasswords, attributes);
 
-            if (keyInfo != null) {
-                // Algorithm column
-                if (iAlgorithmColumn > 0) {
-                    data[i][iAlgorithmColumn] = getAlgorithmName(keyInfo);
-                    if (iColWidth[iAlgorithmColumn] < data[i][iAlgorithmColumn].toString().length()) {
-                        iColWidth[iAlgorithmColumn] = data[i][iAlgorithmColumn].toString().length();
-                    }
+        if (keyInfo != null) {
+            // Algorithm column
+            if (iAlgorithmColumn > 0) {
+                row[iAlgorithmColumn] = getAlgorithmName(keyInfo);
+                if (colWidths[iAlgorithmColumn] < row[iAlgorithmColumn].toString().length()) {
+                    colWidths[iAlgorithmColumn] = row[iAlgorithmColumn].toString().length();
                 }
+            }
 
-                // Key Size column
-                if (iKeySizeColumn > 0) {
-                    data[i][iKeySizeColumn] = keyInfo.getSize();
-                }
-                // Key Size column
-                if (keyStoreTableColumns.getEnableCurve()) {
-                    data[i][iCurveColumn] = keyInfo.getDetailedAlgorithm();
-                    if (iColWidth[iCurveColumn] < data[i][iCurveColumn].toString().length()) {
-                        iColWidth[iCurveColumn] = data[i][iCurveColumn].toString().length();
-                    }
-                }
+            // Key Size column
+            if (iKeySizeColumn > 0) {
+                row[iKeySizeColumn] = keyInfo.getSize();
             }
-            if (iCertValidityStartColumn > 0) {
-                data[i][iCertValidityStartColumn] = getCertificateValidityStart(alias, keyStore);
+            // Key Size column
+            if (keyStoreTableColumns.getEnableCurve()) {
+                row[iCurveColumn] = keyInfo.getDetailedAlgorithm();
+                if (colWidths[iCurveColumn] < row[iCurveColumn].toString().length()) {
+                    colWidths[iCurveColumn] = row[iCurveColumn].toString().length();
+                }
             }
-            if (iCertExpiryColumn > 0) {
-                data[i][iCertExpiryColumn] = expiry;
+        }
+        if (iCertValidityStartColumn > 0) {
+            row[iCertValidityStartColumn] = getCertificateValidityStart(alias, keyStore);
+        }
+        if (iCertExpiryColumn > 0) {
+            row[iCertExpiryColumn] = expiry;
+        }
+        if (iLastModifiedColumn > 0) {
+            // Modified date column - only applies to non-PKCS #11/#12 KeyStores
+            if (!keyStore.getType().equals(KeyStoreType.PKCS12.jce()) &&
+                !keyStore.getType().equals(KeyStoreType.PKCS11.jce())) {
+                row[iLastModifiedColumn] = keyStore.getCreationDate(alias);
+            } else {
+                row[iLastModifiedColumn] = null;
             }
-            if (iLastModifiedColumn > 0) {
-                // Modified date column - only applies to non-PKCS #11/#12 KeyStores
-                if (!keyStore.getType().equals(KeyStoreType.PKCS12.jce()) &&
-                    !keyStore.getType().equals(KeyStoreType.PKCS11.jce())) {
-                    data[i][iLastModifiedColumn] = keyStore.getCreationDate(alias);
-                } else {
-                    data[i][iLastModifiedColumn] = null;
+        }
+        if (iSubjectDNColumn > 0) {
+            if (!entryType.equals(KEY_ENTRY)) {
+                row[iSubjectDNColumn] = attributes.getSubject().toString();
+                if (colWidths[iSubjectDNColumn] < row[iSubjectDNColumn].toString().length()) {
+                    colWidths[iSubjectDNColumn] = row[iSubjectDNColumn].toString().length();
                 }
+            } else {
+                row[iSubjectDNColumn] = null;
             }
-            if (iSubjectDNColumn > 0) {
-                if (!entryType.equals(KEY_ENTRY)) {
-                    data[i][iSubjectDNColumn] = getCertificateSubjectDN(alias, keyStore);
-                    if (iColWidth[iSubjectDNColumn] < data[i][iSubjectDNColumn].toString().length()) {
-                        iColWidth[iSubjectDNColumn] = data[i][iSubjectDNColumn].toString().length();
-                    }
-                } else {
-                    data[i][iSubjectDNColumn] = null;
+        }
+        if (iIssuerDNColumn > 0) {
+            if (!entryType.equals(KEY_ENTRY)) {
+                row[iIssuerDNColumn] = attributes.getIssuer().toString();
+                if (colWidths[iIssuerDNColumn] < row[iIssuerDNColumn].toString().length()) {
+                    colWidths[iIssuerDNColumn] = row[iIssuerDNColumn].toString().length();
                 }
+            } else {
+                row[iIssuerDNColumn] = null;
             }
-            if (iIssuerDNColumn > 0) {
-                if (!entryType.equals(KEY_ENTRY)) {
-                    data[i][iIssuerDNColumn] = getCertificateIssuerDN(alias, keyStore);
-                    if (iColWidth[iIssuerDNColumn] < data[i][iIssuerDNColumn].toString().length()) {
-                        iColWidth[iIssuerDNColumn] = data[i][iIssuerDNColumn].toString().length();
-                    }
-                } else {
-                    data[i][iIssuerDNColumn] = null;
+        }
+        if (iSerialNumberHexColumn > 0) {
+            if (!entryType.equals(KEY_ENTRY)) {
+                row[iSerialNumberHexColumn] = attributes.getSerialNumberHex();
+                if (colWidths[iSerialNumberHexColumn] < row[iSerialNumberHexColumn].toString().length()) {
+                    colWidths[iSerialNumberHexColumn] = row[iSerialNumberHexColumn].toString().length();
                 }
+            } else {
+                row[iSerialNumberHexColumn] = null;
             }
-            if (iSerialNumberHexColumn > 0) {
-                if (!entryType.equals(KEY_ENTRY)) {
-                    data[i][iSerialNumberHexColumn] = getCertificateSerialNumberHex(alias, keyStore);
-                    if (iColWidth[iSerialNumberHexColumn] < data[i][iSerialNumberHexColumn].toString().length()) {
-                        iColWidth[iSerialNumberHexColumn] = data[i][iSerialNumberHexColumn].toString().length();
-                    }
-                } else {
-                    data[i][iSerialNumberHexColumn] = null;
+        }
+        if (iSerialNumberDecColumn > 0) {
+            if (!entryType.equals(KEY_ENTRY)) {
+                row[iSerialNumberDecColumn] = attributes.getSerialNumberDec();
+                if (colWidths[iSerialNumberDecColumn] < row[iSerialNumberDecColumn].toString().length()) {
+                    colWidths[iSerialNumberDecColumn] = row[iSerialNumberDecColumn].toString().length();
                 }
+            } else {
+                row[iSerialNumberDecColumn] = null;
             }
-            if (iSerialNumberDecColumn > 0) {
-                if (!entryType.equals(KEY_ENTRY)) {
-                    data[i][iSerialNumberDecColumn] = getCertificateSerialNumberDec(alias, keyStore);
-                    if (iColWidth[iSerialNumberDecColumn] < data[i][iSerialNumberDecColumn].toString().length()) {
-                        iColWidth[iSerialNumberDecColumn] = data[i][iSerialNumberDecColumn].toString().length();
-                    }
-                } else {
-                    data[i][iSerialNumberDecColumn] = null;
+        }
+        if (iSubjectCNColumn > 0) {
+            if (!entryType.equals(KEY_ENTRY)) {
+                row[iSubjectCNColumn] = attributes.getSubjectCN();
+                if (colWidths[iSubjectCNColumn] < row[iSubjectCNColumn].toString().length()) {
+                    colWidths[iSubjectCNColumn] = row[iSubjectCNColumn].toString().length();
                 }
+            } else {
+                row[iSubjectCNColumn] = null;
             }
-            if (iSubjectCNColumn > 0) {
-                if (!entryType.equals(KEY_ENTRY)) {
-                    data[i][iSubjectCNColumn] = getCertificateSubjectCN(alias, keyStore);
-                    if (iColWidth[iSubjectCNColumn] < data[i][iSubjectCNColumn].toString().length()) {
-                        iColWidth[iSubjectCNColumn] = data[i][iSubjectCNColumn].toString().length();
-                    }
-                } else {
-                    data[i][iSubjectCNColumn] = null;
+        }
+        if (iIssuerCNColumn > 0) {
+            if (!entryType.equals(KEY_ENTRY)) {
+                row[iIssuerCNColumn] = attributes.getIssuerCN();
+                if (colWidths[iIssuerCNColumn] < row[iIssuerCNColumn].toString().length()) {
+                    colWidths[iIssuerCNColumn] = row[iIssuerCNColumn].toString().length();
                 }
+            } else {
+                row[iIssuerCNColumn] = null;
             }
-            if (iIssuerCNColumn > 0) {
-                if (!entryType.equals(KEY_ENTRY)) {
-                    data[i][iIssuerCNColumn] = getCertificateIssuerCN(alias, keyStore);
-                    if (iColWidth[iIssuerCNColumn] < data[i][iIssuerCNColumn].toString().length()) {
-                        iColWidth[iIssuerCNColumn] = data[i][iIssuerCNColumn].toString().length();
-                    }
-                } else {
-                    data[i][iIssuerCNColumn] = null;
+        }
+        if (iSubjectOColumn > 0) {
+            if (!entryType.equals(KEY_ENTRY)) {
+                row[iSubjectOColumn] = attributes.getSubjectO();
+                if (colWidths[iSubjectOColumn] < row[iSubjectOColumn].toString().length()) {
+                    colWidths[iSubjectOColumn] = row[iSubjectOColumn].toString().length();
                 }
+            } else {
+                row[iSubjectOColumn] = null;
             }
-            if (iSubjectOColumn > 0) {
-                if (!entryType.equals(KEY_ENTRY)) {
-                    data[i][iSubjectOColumn] = getCertificateSubjectO(alias, keyStore);
-                    if (iColWidth[iSubjectOColumn] < data[i][iSubjectOColumn].toString().length()) {
-                        iColWidth[iSubjectOColumn] = data[i][iSubjectOColumn].toString().length();
-                    }
-                } else {
-                    data[i][iSubjectOColumn] = null;
+        }
+        if (iIssuerOColumn > 0) {
+            if (!entryType.equals(KEY_ENTRY)) {
+                row[iIssuerOColumn] = attributes.getIssuerO();
+                if (colWidths[iIssuerOColumn] < row[iIssuerOColumn].toString().length()) {
+                    colWidths[iIssuerOColumn] = row[iIssuerOColumn].toString().length();
                 }
-            }
-            if (iIssuerOColumn > 0) {
-                if (!entryType.equals(KEY_ENTRY)) {
-                    data[i][iIssuerOColumn] = getCertificateIssuerO(alias, keyStore);
-                    if (iColWidth[iIssuerOColumn] < data[i][iIssuerOColumn].toString().length()) {
-                        iColWidth[iIssuerOColumn] = data[i][iIssuerOColumn].toString().length();
-                    }
 
-                } else {
-                    data[i][iIssuerOColumn] = null;
-                }
+            } else {
+                row[iIssuerOColumn] = null;
             }
-            if (iAKIColumn > 0) {
-                if (!entryType.equals(KEY_ENTRY)) {
-                    data[i][iAKIColumn] = getCertificateAKI(alias, keyStore);
-                    if (iColWidth[iAKIColumn] < data[i][iAKIColumn].toString().length()) {
-                        iColWidth[iAKIColumn] = data[i][iAKIColumn].toString().length();
-                    }
-
-                } else {
-                    data[i][iAKIColumn] = null;
+        }
+        if (iAKIColumn > 0) {
+            if (!entryType.equals(KEY_ENTRY)) {
+                row[iAKIColumn] = getKeyIdentifier(attributes.getAuthorityKeyIdentifier());
+                if (colWidths[iAKIColumn] < row[iAKIColumn].toString().length()) {
+                    colWidths[iAKIColumn] = row[iAKIColumn].toString().length();
                 }
+
+            } else {
+                row[iAKIColumn] = null;
             }
-            if (iSKIColumn > 0) {
-                if (!entryType.equals(KEY_ENTRY)) {
-                    data[i][iSKIColumn] = getCertificateSKI(alias, keyStore);
-                    if (iColWidth[iSKIColumn] < data[i][iSKIColumn].toString().length()) {
-                        iColWidth[iSKIColumn] = data[i][iSKIColumn].toString().length();
-                    }
-                } else {
-                    data[i][iSKIColumn] = null;
+        }
+        if (iSKIColumn > 0) {
+            if (!entryType.equals(KEY_ENTRY)) {
+                row[iSKIColumn] = getKeyIdentifier(attributes.getSubjectKeyIdentifier());
+                if (colWidths[iSKIColumn] < row[iSKIColumn].toString().length()) {
+                    colWidths[iSKIColumn] = row[iSKIColumn].toString().length();
                 }
+            } else {
+                row[iSKIColumn] = null;
             }
         }
 
-        fireTableDataChanged();
+        return row;
     }
 
     private Date getCertificateValidityStart(String alias, KeyStore keyStore) throws CryptoException, KeyStoreException {
@@ -400,36 +577,26 @@ public class KeyStoreTableModel extends AbstractTableModel {
         }
     }
 
-    private KeyInfo getKeyInfo(String alias, KeyStore keyStore, KeyStoreState currentState)
-            throws CryptoException, GeneralSecurityException {
-        if (KeyStoreUtil.isTrustedCertificateEntry(alias, keyStore)) {
-            // Get key info from certificate
-            X509Certificate cert = X509CertUtil.convertCertificate(keyStore.getCertificate(alias));
-            return KeyPairUtil.getKeyInfo(cert.getPublicKey());
-        } else {
-            Certificate[] chain = keyStore.getCertificateChain(alias);
+    private KeyInfo getKeyInfo(String alias, KeyStore keyStore, Function<String, Password> entryPasswords,
+                               X509CertAttributes attributes) throws CryptoException, GeneralSecurityException {
+        if (attributes != null) {
+            // Trusted certificate or key pair - get key info from (first) certificate
+            return attributes.getKeyInfo();
+        }
 
-            if (chain != null) {
-                // Key pair - first certificate in chain will be for the private key
-                X509Certificate[] x509Chain = X509CertUtil.orderX509CertChain(X509CertUtil.convertCertificates(chain));
+        // Key entry - get key info if entry is unlocked
+        Password entryPassword = entryPasswords.apply(alias);
 
-                return KeyPairUtil.getKeyInfo(x509Chain[0].getPublicKey());
-            } else {
-                // Key entry - get key info if entry is unlocked
-                if (currentState.getEntryPassword(alias) != null) {
-                    char[] keyPassword = null;
-
-                    keyPassword = currentState.getEntryPassword(alias).toCharArray();
-
-                    Key key = keyStore.getKey(alias, keyPassword);
-                    if (key instanceof SecretKey) {
-                        return SecretKeyUtil.getKeyInfo((SecretKey) key);
-                    } else if (key instanceof PrivateKey) {
-                        return KeyPairUtil.getKeyInfo((PrivateKey) key);
-                    } else if (key instanceof PublicKey) {
-                        return KeyPairUtil.getKeyInfo((PublicKey) key);
-                    }
-                }
+        if (entryPassword != null) {
+            char[] keyPassword = entryPassword.toCharArray();
+
+            Key key = keyStore.getKey(alias, keyPassword);
+            if (key instanceof SecretKey) {
+                return SecretKeyUtil.getKeyInfo((SecretKey) key);
+            } else if (key instanceof PrivateKey) {
+                return KeyPairUtil.getKeyInfo((PrivateKey) key);
+            } else if (key instanceof PublicKey) {
+                return KeyPairUtil.getKeyInfo((PublicKey) key);
             }
         }
 
@@ -451,70 +618,8 @@ public class KeyStoreTableModel extends AbstractTableModel {
         return algorithm;
     }
 
-    private String getCertificateSubjectDN(String alias, KeyStore keyStore) throws CryptoException, KeyStoreException {
-        X509Certificate x509Cert = getCertificate(alias, keyStore);
-        return X500NameUtils.x500PrincipalToX500Name(x509Cert.getSubjectX500Principal()).toString();
-    }
-
-    private String getCertificateIssuerDN(String alias, KeyStore keyStore) throws CryptoException, KeyStoreException {
-        X509Certificate x509Cert = getCertificate(alias, keyStore);
-        return X500NameUtils.x500PrincipalToX500Name(x509Cert.getIssuerX500Principal()).toString();
-    }
-
-    private String getCertificateSerialNumberHex(String alias, KeyStore ks) throws CryptoException, KeyStoreException {
-        X509Certificate x509Cert = getCertificate(alias, ks);
-        return X509CertUtil.getSerialNumberAsHex(x509Cert);
-    }
-
-    private String getCertificateSerialNumberDec(String alias, KeyStore ks) throws CryptoException, KeyStoreException {
-        X509Certificate x509Cert = getCertificate(alias, ks);
-        return X509CertUtil.getSerialNumberAsDec(x509Cert);
-    }
-
-    private String getCertificateSubjectCN(String alias, KeyStore keyStore) throws CryptoException, KeyStoreException {
-        X509Certificate x509Cert = getCertificate(alias, keyStore);
-        return X500NameUtils.extractCN(x509Cert.getSubjectX500Principal());
-    }
-
-    private String getCertificateIssuerCN(String alias, KeyStore keyStore) throws CryptoException, KeyStoreException {
-        X509Certificate x509Cert = getCertificate(alias, keyStore);
-        return X500NameUtils.extractCN(x509Cert.getIssuerX500Principal());
-    }
-
-    private String getCertificateSKI(String alias, KeyStore keyStore) throws CryptoException, KeyStoreException {
-        X509Certificate x509Cert = getCertificate(alias, keyStore);
-        try {
-            byte[] skiValue = x509Cert.getExtensionValue(Extension.subjectKeyIdentifier.getId());
-            byte[] octets = DEROctetString.getInstance(skiValue).getOctets();
-            byte[] skiBytes = SubjectKeyIdentifier.getInstance(octets).getKeyIdentifier();
-            return HexUtil.getHexString(skiBytes);
-        } catch (Exception e) {
-            return "-";
-        }
-    }
-
-    private String getCertificateAKI(String alias, KeyStore keyStore) throws CryptoException, KeyStoreException {
-        X509Certificate x509Cert = getCertificate(alias, keyStore);
-        try {
-            byte[] akiValue = x509Cert.getExtensionValue(Extension.authorityKeyIdentifier.getId());
-            byte[] octets = DEROctetString.getInstance(akiValue).getOctets();
-            byte[] akiBytes = AuthorityKeyIdentifier.getInstance(octets).getKeyIdentifier();
-            return HexUtil.getHexString(akiBytes);
-        } catch (Exception e) {
-            return "-";
-        }
-    }
-
-    private String getCertificateSubjectO(String alias, KeyStore keyStore) throws CryptoException, KeyStoreException {
-        X509Certificate x509Cert = getCertificate(alias, keyStore);
-        X500Name subject = X500NameUtils.x500PrincipalToX500Name(x509Cert.getSubjectX500Principal());
-        return X500NameUtils.getRdn(subject, KseX500NameStyle.O);
-    }
-
-    private String getCertificateIssuerO(String alias, KeyStore keyStore) throws CryptoException, KeyStoreException {
-        X509Certificate x509Cert = getCertificate(alias, keyStore);
-        X500Name issuer = X500NameUtils.x500PrincipalToX500Name(x509Cert.getIssuerX500Principal());
-        return X500NameUtils.getRdn(issuer, KseX500NameStyle.O);
+    private String getKeyIdentifier(String keyIdentifier) {
+        return keyIdentifier != null ? keyIdentifier : "-";
     }
 
     private X509Certificate getCertificate(String alias, KeyStore keyStore) throws KeyStoreException, CryptoException {
@@ -675,7 +780,7 @@ public class KeyStoreTableModel extends AbstractTableModel {
      */
     @Override
     public int getRowCount() {
-        return data.length;
+        return data.size();
     }
 
     /**
@@ -698,7 +803,7 @@ public class KeyStoreTableModel extends AbstractTableModel {
      */
     @Override
     public Object getValueAt(int row, int col) {
-        return data[row][col];
+        return data.get(row)[col];
     }
 
     /**
@@ -743,10 +848,108 @@ public class KeyStoreTableModel extends AbstractTableModel {
         return history;
     }
 
+    private static class LoadedBatch {
+        private final List<String> aliases = new ArrayList<>();
+        private final List<Object[]> rows = new ArrayList<>();
+        private final int[] colWidths;
+
+        private LoadedBatch(int nofColumns) {
+            colWidths = new int[nofColumns];
+        }
+    }
+
+    private class BackgroundLoader extends SwingWorker<Void, Void> {
+        private final KeyStore keyStore;
+        private final Map<String, Password> entryPasswords;
+
+        private BackgroundLoader(KeyStore keyStore, Map<String, Password> entryPasswords) {
+            this.keyStore = keyStore;
+            this.entryPasswords = entryPasswords;
+        }
+
+        @Override
+        protected Void doInBackground() throws Exception {
+            KeyStoreType type = KeyStoreType.resolveJce(keyStore.getType());
+
+            try {
+                List<String> aliases = getSortedAliases(keyStore);
+                LoadedBatch batch = new LoadedBatch(nofColumns);
+
+                for (int i = 0; i < aliases.size() && !isCancelled(); i++) {
+                    String alias = aliases.get(i);
+                    batch.aliases.add(alias);
+                    batch.rows.add(createRow(alias, keyStore, entryPasswords::get, type, batch.colWidths));
+
+                    if (batch.rows.size() == LOAD_BATCH_SIZE || i == aliases.size() - 1) {
+                        // Unlike published chunks, batches posted this way are all added before done() is called
+                        LoadedBatch loadedBatch = batch;
+                        SwingUtilities.invokeLater(() -> addBatch(loadedBatch));
+                        batch = new LoadedBatch(nofColumns);
+                    }
+
+                    setProgress((i + 1) * 100 / aliases.size());
+                }
+            } finally {
+                for (Password entryPassword : entryPasswords.values()) {
+                    entryPassword.nullPassword();
+                }
+            }
+
+            return null;
+        }
+
+        private void addBatch(LoadedBatch loadedBatch) {
+            // Rows may still arrive after the loader has been cancelled or replaced
+            if (isCancelled() || backgroundLoader != this) {
+                return;
+            }
+
+            int firstRow = data.size();
+
+            rowAliases.addAll(loadedBatch.aliases);
+            data.addAll(loadedBatch.rows);
+
+            // Column widths are only changed on the event dispatch thread
+            for (int col = 0; col < nofColumns; col++) {
+                iColWidth[col] = Math.max(iColWidth[col], loadedBatch.colWidths[col]);
+            }
+
+            fireTableRowsInserted(firstRow, data.size() - 1);
+        }
+    }
+
+    /**
+     * Stands in for a background loader for KeyStores that are loaded immediately. Reports the outcome of the
+     * load once executed.
+     */
+    private class CompletedLoader extends SwingWorker<Void, Void> {
+        private Exception failure;
+
+        private CompletedLoader(KeyStoreHistory history) {
+            try {
+                load(history);
+            } catch (GeneralSecurityException | CryptoException ex) {
+                failure = ex;
+            }
+        }
+
+        @Override
+        protected Void doInBackground() throws Exception {
+            if (failure != null) {
+                throw failure;
+            }
+
+            return null;
+        }
+    }
+
     private class AliasComparator implements Comparator<String> {
         @Override
         public int compare(String name1, String name2) {
-            return name1.compareToIgnoreCase(name2);
+            int result = name1.compareToIgnoreCase(name2);
+
+            // Aliases of KeyStore types with case-sensitive aliases may only differ in case
+            return result != 0 ? result : name1.compareTo(name2);
         }
     }
 }
@@ -56,12 +56,12 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.ResourceBundle;
 import java.util.Set;
+import java.util.concurrent.TimeUnit;
 
 import javax.swing.AbstractAction;
 import javax.swing.Action;
 import javax.swing.BorderFactory;
 import javax.swing.ButtonGroup;
-import javax.swing.ImageIcon;
 import javax.swing.JButton;
 import javax.swing.JCheckBoxMenuItem;
 import javax.swing.JComponent;
@@ -82,6 +82,7 @@ import javax.swing.ListSelectionModel;
 import javax.swing.RowSorter;
 import javax.swing.ScrollPaneConstants;
 import javax.swing.SwingUtilities;
+import javax.swing.SwingWorker;
 import javax.swing.WindowConstants;
 import javax.swing.border.CompoundBorder;
 import javax.swing.border.EmptyBorder;
@@ -91,6 +92,7 @@ import javax.swing.table.TableRowSorter;
 
 import org.kse.KSE;
 import org.kse.crypto.CryptoException;
+import org.kse.crypto.keystore.KeyStoreLoader;
 import org.kse.crypto.keystore.KeyStoreType;
 import org.kse.crypto.keystore.KeyStoreUtil;
 import org.kse.gui.actions.AboutAction;
@@ -188,6 +190,7 @@ import org.kse.gui.error.DError;
 import org.kse.gui.passwordmanager.Password;
 import org.kse.gui.preferences.PreferencesManager;
 import org.kse.gui.preferences.data.KsePreferences;
+import org.kse.gui.preferences.data.UndoHistorySettings;
 import org.kse.gui.quickstart.JQuickStartPane;
 import org.kse.gui.statusbar.StatusBar;
 import org.kse.gui.statusbar.StatusBarChangeHandler;
@@ -659,8 +662,7 @@ public final class KseFrame implements StatusBar {
         jmFile.add(jmiOpen);
 
         jmOpenSpecial = new JMenu(res.getString("KseFrame.jmOpenSpecial.text"));
-        jmOpenSpecial.setIcon(new ImageIcon(
-                Toolkit.getDefaultToolkit().createImage(getClass().getResource("images/menu/openspecial.png"))));
+        jmOpenSpecial.setIcon(new LazyImageIcon(getClass().getResource("images/menu/openspecial.png")));
         PlatformUtil.setMnemonic(jmOpenSpecial, res.getString("KseFrame.jmOpenSpecial.mnemonic").charAt(0));
         jmFile.add(jmOpenSpecial);
 
@@ -737,8 +739,7 @@ public final class KseFrame implements StatusBar {
         jmFile.addSeparator();
 
         jmrfRecentFiles = new JMenuRecentFiles(res.getString("KseFrame.jmrfRecentFiles.text"));
-        jmrfRecentFiles.setIcon(new ImageIcon(
-                Toolkit.getDefaultToolkit().createImage(getClass().getResource("images/menu/recentfiles.png"))));
+        jmrfRecentFiles.setIcon(new LazyImageIcon(getClass().getResource("images/menu/recentfiles.png")));
         PlatformUtil.setMnemonic(jmrfRecentFiles, res.getString("KseFrame.jmrfRecentFiles.mnemonic").charAt(0));
         jmFile.add(jmrfRecentFiles);
 
@@ -833,8 +834,7 @@ public final class KseFrame implements StatusBar {
         jmView.addSeparator();
 
         jmTabStyle = new JMenu(res.getString("KseFrame.jmTabStyle.text"));
-        jmTabStyle.setIcon(new ImageIcon(
-                Toolkit.getDefaultToolkit().createImage(getClass().getResource("images/menu/tabstyle.png"))));
+        jmTabStyle.setIcon(new LazyImageIcon(getClass().getResource("images/menu/tabstyle.png")));
         PlatformUtil.setMnemonic(jmTabStyle, res.getString("KseFrame.jmTabStyle.mnemonic").charAt(0));
         jmView.add(jmTabStyle);
 
@@ -923,8 +923,7 @@ public final class KseFrame implements StatusBar {
         jmTools.add(jmiSetPassword);
 
         jmChangeType = new JMenu(res.getString("KseFrame.jmChangeType.text"));
-        jmChangeType.setIcon(new ImageIcon(
-                Toolkit.getDefaultToolkit().createImage(getClass().getResource("images/menu/keystoretype.png"))));
+        jmChangeType.setIcon(new LazyImageIcon(getClass().getResource("images/menu/keystoretype.png")));
         PlatformUtil.setMnemonic(jmChangeType, res.getString("KseFrame.jmChangeType.mnemonic").charAt(0));
         jmChangeType.setEnabled(false);
         jmTools.add(jmChangeType);
@@ -1048,8 +1047,7 @@ public final class KseFrame implements StatusBar {
         jmHelp.addSeparator();
 
         jmOnlineResources = new JMenu(res.getString("KseFrame.jmOnlineResources.text"));
-        jmOnlineResources.setIcon(new ImageIcon(
-                Toolkit.getDefaultToolkit().createImage(getClass().getResource("images/menu/online.png"))));
+        jmOnlineResources.setIcon(new LazyImageIcon(getClass().getResource("images/menu/online.png")));
         PlatformUtil.setMnemonic(jmOnlineResources, res.getString("KseFrame.jmOnlineResources.mnemonic").charAt(0));
         jmHelp.add(jmOnlineResources);
 
@@ -1847,8 +1845,7 @@ public final class KseFrame implements StatusBar {
         jpmKeyStore.add(jmiKeyStoreSetPassword);
 
         jmKeyStoreChangeType = new JMenu(res.getString("KseFrame.jmChangeType.text"));
-        jmKeyStoreChangeType.setIcon(new ImageIcon(
-                Toolkit.getDefaultToolkit().createImage(getClass().getResource("images/menu/keystoretype.png"))));
+        jmKeyStoreChangeType.setIcon(new LazyImageIcon(getClass().getResource("images/menu/keystoretype.png")));
         PlatformUtil.setMnemonic(jmKeyStoreChangeType, res.getString("KseFrame.jmChangeType.mnemonic").charAt(0));
         jpmKeyStore.add(jmKeyStoreChangeType);
 
@@ -1925,8 +1922,7 @@ public final class KseFrame implements StatusBar {
         jpmKeyPair = new JPopupMenu();
 
         jmKeyPairDetails = new JMenu(res.getString("KseFrame.jmKeyPairDetails.text"));
-        jmKeyPairDetails.setIcon(new ImageIcon(
-                Toolkit.getDefaultToolkit().createImage(getClass().getResource("images/menu/keypairdetails.png"))));
+        jmKeyPairDetails.setIcon(new LazyImageIcon(getClass().getResource("images/menu/keypairdetails.png")));
 
         jmiKeyPairCertificateChainDetails = new JMenuItem(keyPairCertificateChainDetailsAction);
         jmiKeyPairCertificateChainDetails.setToolTipText(null);
@@ -1953,8 +1949,7 @@ public final class KseFrame implements StatusBar {
         new StatusBarChangeHandler(jmiKeyPairCopy, (String) copyKeyPairAction.getValue(Action.LONG_DESCRIPTION), this);
 
         jmKeyPairExport = new JMenu(res.getString("KseFrame.jmKeyPairExport.text"));
-        jmKeyPairExport.setIcon(new ImageIcon(
-                Toolkit.getDefaultToolkit().createImage(getClass().getResource("images/menu/keypairexport.png"))));
+        jmKeyPairExport.setIcon(new LazyImageIcon(getClass().getResource("images/menu/keypairexport.png")));
 
         jmiKeyPairExport = new JMenuItem(exportKeyPairAction);
         jmiKeyPairExport.setToolTipText(null);
@@ -1988,8 +1983,8 @@ public final class KseFrame implements StatusBar {
                                    (String) verifyCertificateAction.getValue(Action.LONG_DESCRIPTION), this);
 
         jmKeyPairImportCaReply = new JMenu(res.getString("KseFrame.jmKeyPairImportCaReply.text"));
-        jmKeyPairImportCaReply.setIcon(new ImageIcon(Toolkit.getDefaultToolkit().createImage(
-                getClass().getResource("images/menu/keypairimportcareply.png"))));
+        jmKeyPairImportCaReply.setIcon(new LazyImageIcon(
+                getClass().getResource("images/menu/keypairimportcareply.png")));
 
         jmiKeyPairImportCaReplyFile = new JMenuItem(importCaReplyFromFileAction);
         jmiKeyPairImportCaReplyFile.setToolTipText(null);
@@ -2002,8 +1997,8 @@ public final class KseFrame implements StatusBar {
                                    (String) importCaReplyFromClipboardAction.getValue(Action.LONG_DESCRIPTION), this);
 
         jmKeyPairEditCertChain = new JMenu(res.getString("KseFrame.jmKeyPairEditCertChain.text"));
-        jmKeyPairEditCertChain.setIcon(new ImageIcon(Toolkit.getDefaultToolkit().createImage(
-                getClass().getResource("images/menu/keypaireditcertchain.png"))));
+        jmKeyPairEditCertChain.setIcon(new LazyImageIcon(
+                getClass().getResource("images/menu/keypaireditcertchain.png")));
 
         jmiKeyPairEditCertChainAppendCert = new JMenuItem(appendToCertificateChainAction);
         jmiKeyPairEditCertChainAppendCert.setToolTipText(null);
@@ -2016,8 +2011,7 @@ public final class KseFrame implements StatusBar {
                                    (String) removeFromCertificateChainAction.getValue(Action.LONG_DESCRIPTION), this);
 
         jmKeyPairSign = new JMenu(res.getString("KseFrame.jmKeyPairSign.text"));
-        jmKeyPairSign.setIcon(new ImageIcon(
-                Toolkit.getDefaultToolkit().createImage(getClass().getResource("images/menu/keypairsign.png"))));
+        jmKeyPairSign.setIcon(new LazyImageIcon(getClass().getResource("images/menu/keypairsign.png")));
 
         jmiKeyPairSignCsr = new JMenuItem(signCsrAction);
         jmiKeyPairSignCsr.setToolTipText(null);
@@ -2112,8 +2106,8 @@ public final class KseFrame implements StatusBar {
         jpmTrustedCertificate = new JPopupMenu();
 
         jmTrustedCertificateDetails = new JMenu(res.getString("KseFrame.jmTrustedCertificateDetails.text"));
-        jmTrustedCertificateDetails.setIcon(new ImageIcon(
-                Toolkit.getDefaultToolkit().createImage(getClass().getResource("images/menu/trustcertdetails.png"))));
+        jmTrustedCertificateDetails.setIcon(new LazyImageIcon(
+                getClass().getResource("images/menu/trustcertdetails.png")));
 
         jmiTrustedCertificateDetails = new JMenuItem(trustedCertificateDetailsAction);
         jmiTrustedCertificateDetails.setToolTipText(null);
@@ -2137,8 +2131,8 @@ public final class KseFrame implements StatusBar {
                                    (String) copyTrustedCertificateAction.getValue(Action.LONG_DESCRIPTION), this);
 
         jmTrustedCertificateExport = new JMenu(res.getString("KseFrame.jmTrustedCertificateExport.text"));
-        jmTrustedCertificateExport.setIcon(new ImageIcon(
-                Toolkit.getDefaultToolkit().createImage(getClass().getResource("images/menu/trustcertexport.png"))));
+        jmTrustedCertificateExport.setIcon(new LazyImageIcon(
+                getClass().getResource("images/menu/trustcertexport.png")));
 
         jmiTrustedCertificateExport = new JMenuItem(exportTrustedCertificateAction);
         jmiTrustedCertificateExport.setToolTipText(null);
@@ -2432,7 +2426,39 @@ public final class KseFrame implements StatusBar {
         addKeyStoreHistory(history);
     }
 
-    private void addKeyStoreHistory(KeyStoreHistory history) {
+    /**
+     * Add a KeyStore opened by a KeyStore loader to the set of loaded KeyStores. Once the entries of the KeyStore
+     * have been loaded into its table the status bar shows how long each stage of opening it took.
+     *
+     * @param keyStore       KeyStore
+     * @param keyStoreLoader Loader that opened the KeyStore file
+     * @param password       KeyStore password
+     */
+    public void addKeyStore(KeyStore keyStore, KeyStoreLoader keyStoreLoader, Password password) {
+        KeyStoreHistory history = new KeyStoreHistory(keyStore, keyStoreLoader.getKeyStoreFile(), password);
+
+        long start = System.nanoTime();
+        SwingWorker<Void, ?> loader = addKeyStoreHistory(history);
+
+        loader.addPropertyChangeListener(evt -> {
+            if (!"state".equals(evt.getPropertyName()) || !loader.isDone() || loader.isCancelled() ||
+                history != getActiveKeyStoreHistory()) {
+                return;
+            }
+
+            long entriesTime = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            long readTime = keyStoreLoader.getReadTime();
+            long detectionTime = keyStoreLoader.getDetectionTime();
+            long loadTime = keyStoreLoader.getLoadTime();
+
+            setStatusBarText(MessageFormat.format(res.getString("KseFrame.opened.statusbar"), history.getName(),
+                                                  readTime + detectionTime + loadTime + entriesTime, readTime,
+                                                  detectionTime, loadTime, entriesTime));
+        });
+    }
+
+    private SwingWorker<Void, ?> addKeyStoreHistory(KeyStoreHistory history) {
+        applyUndoHistorySettings(history);
         histories.add(history);
 
         JTable jtKeyStore = createEmptyKeyStoreTable();
@@ -2448,12 +2474,18 @@ public final class KseFrame implements StatusBar {
         jkstpKeyStores.setTabComponentAt(jkstpKeyStores.getTabCount() - 1, keyStoreTab);
         jkstpKeyStores.setSelectedIndex(jkstpKeyStores.getTabCount() - 1);
 
-        updateControls(true);
+        // Entries are added to the table as they are loaded, the tab shows the progress
+        SwingWorker<Void, ?> loader = ((KeyStoreTableModel) jtKeyStore.getModel()).loadInBackground(history);
+        keyStoreTab.showLoadProgress(loader);
+
+        updateControls(false);
 
         // If KeyStore is backed up by a file add it to the recent files menu
         if (history.getFile() != null) {
             jmrfRecentFiles.add(createRecentFileMenuItem(jmrfRecentFiles, history.getFile()));
         }
+
+        return loader;
     }
 
     /**
@@ -2465,12 +2497,29 @@ public final class KseFrame implements StatusBar {
         int index = findKeyStoreIndex(keyStore);
 
         if (index >= 0) {
-            keyStoreTables.remove(index);
+            ((KeyStoreTableModel) keyStoreTables.remove(index).getModel()).cancelLoading();
             histories.remove(index).nullPasswords();
             jkstpKeyStores.remove(index);
         }
     }
 
+    /**
+     * Apply the undo history limits from the preferences to all loaded KeyStores.
+     */
+    public void applyUndoHistorySettings() {
+        for (KeyStoreHistory history : histories) {
+            applyUndoHistorySettings(history);
+        }
+
+        updateControls(false);
+    }
+
+    private void applyUndoHistorySettings(KeyStoreHistory history) {
+        UndoHistorySettings undoHistorySettings = preferences.getUndoHistorySettings();
+        history.setRetentionPolicy(undoHistorySettings.getMaximumDepth(),
+                                   undoHistorySettings.getMaximumMemory() * 1024L * 1024L);
+    }
+
     /**
      * Re-draw all keystore tables
      *
@@ -2484,6 +2533,7 @@ public final class KseFrame implements StatusBar {
 
             for (JTable keyStoreTable : keyStoreTables) {
                 KeyStoreHistory history = ((KeyStoreTableModel) keyStoreTable.getModel()).getHistory();
+                ((KeyStoreTableModel) keyStoreTable.getModel()).cancelLoading();
                 KeyStoreTableModel ksModel = new KeyStoreTableModel(keyStoreTableColumns, expiryWarnDays);
                 try {
                     ksModel.load(history);
@@ -2770,9 +2820,9 @@ public final class KseFrame implements StatusBar {
             try {
                 String[] selectedAliases = getSelectedEntryAliases();
 
-                ((KeyStoreTableModel) getActiveKeyStoreTable().getModel()).load(history);
+                ((KeyStoreTableModel) getActiveKeyStoreTable().getModel()).update(history);
 
-                // Loading the model loses the selected entry - preserve it
+                // Updating the model may lose the selected entry - preserve it
                 if (selectedAliases.length > 0) {
                     setSelectedEntriesByAliases(selectedAliases);
                 }
@@ -0,0 +1,88 @@
+/*
+ * Copyright 2004 - 2013 Wayne Grant
+ *           2013 - 2025 Kai Kramer
+ *
+ * This file is part of KeyStore Explorer.
+ *
+ * KeyStore Explorer is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * KeyStore Explorer is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with KeyStore Explorer.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.kse.gui;
+
+import java.awt.Component;
+import java.awt.Graphics;
+import java.awt.Image;
+import java.awt.Toolkit;
+import java.net.URL;
+
+import javax.swing.ImageIcon;
+
+/**
+ * Image icon that reads and decodes its image only when it is first painted or measured. Most icons of actions
+ * and menus are only visible once a menu is opened, so decoding them all while the main window is built would
+ * delay the startup for nothing.
+ * <p>
+ * Extends ImageIcon because look and feels derive the disabled icon only from image icons.
+ */
+public class LazyImageIcon extends ImageIcon {
+    private static final long serialVersionUID = 1L;
+
+    private final URL location;
+    private boolean loaded;
+
+    /**
+     * Construct a LazyImageIcon.
+     *
+     * @param location Location of the image
+     */
+    public LazyImageIcon(URL location) {
+        this.location = location;
+    }
+
+    private synchronized void load() {
+        if (!loaded) {
+            loaded = true;
+            setImage(Toolkit.getDefaultToolkit().createImage(location));
+        }
+    }
+
+    @Override
+    public Image getImage() {
+        load();
+        return super.getImage();
+    }
+
+    @Override
+    public int getImageLoadStatus() {
+        load();
+        return super.getImageLoadStatus();
+    }
+
+    @Override
+    public int getIconWidth() {
+        load();
+        return super.getIconWidth();
+    }
+
+    @Override
+    public int getIconHeight() {
+        load();
+        return super.getIconHeight();
+    }
+
+    @Override
+    public synchronized void paintIcon(Component c, Graphics g, int x, int y) {
+        load();
+        super.paintIcon(c, g, x, y);
+    }
+}
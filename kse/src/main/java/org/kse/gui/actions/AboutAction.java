@@ -23,10 +23,9 @@ import java.awt.Toolkit;
 import java.net.URL;
 import java.text.MessageFormat;
 
-import javax.swing.ImageIcon;
-
 import org.kse.KSE;
 import org.kse.gui.KseFrame;
+import org.kse.gui.LazyImageIcon;
 import org.kse.gui.LnfUtil;
 import org.kse.gui.about.DAbout;
 
@@ -47,8 +46,7 @@ public class AboutAction extends KeyStoreExplorerAction {
         putValue(LONG_DESCRIPTION, res.getString("AboutAction.statusbar"));
         putValue(NAME, res.getString("AboutAction.text"));
         putValue(SHORT_DESCRIPTION, res.getString("AboutAction.tooltip"));
-        putValue(SMALL_ICON,
-                 new ImageIcon(Toolkit.getDefaultToolkit().createImage(getClass().getResource("images/about.png"))));
+        putValue(SMALL_ICON, new LazyImageIcon(getClass().getResource("images/about.png")));
     }
 
     /**
@@ -19,13 +19,11 @@
  */
 package org.kse.gui.actions;
 
-import java.awt.Toolkit;
 import java.io.File;
 import java.security.Key;
 import java.security.KeyStore;
 import java.security.cert.X509Certificate;
 
-import javax.swing.ImageIcon;
 import javax.swing.JFileChooser;
 import javax.swing.JOptionPane;
 
@@ -34,6 +32,7 @@ import org.kse.crypto.x509.X509CertUtil;
 import org.kse.gui.CurrentDirectory;
 import org.kse.gui.FileChooserFactory;
 import org.kse.gui.KseFrame;
+import org.kse.gui.LazyImageIcon;
 import org.kse.gui.error.DError;
 import org.kse.utilities.history.HistoryAction;
 import org.kse.utilities.history.KeyStoreHistory;
@@ -56,8 +55,7 @@ public class AppendToCertificateChainAction extends KeyStoreExplorerAction imple
         putValue(LONG_DESCRIPTION, res.getString("AppendToCertificateChainAction.statusbar"));
         putValue(NAME, res.getString("AppendToCertificateChainAction.text"));
         putValue(SHORT_DESCRIPTION, res.getString("AppendToCertificateChainAction.tooltip"));
-        putValue(SMALL_ICON, new ImageIcon(
-                Toolkit.getDefaultToolkit().createImage(getClass().getResource("images/appendcert.png"))));
+        putValue(SMALL_ICON, new LazyImageIcon(getClass().getResource("images/appendcert.png")));
     }
 
     @Override
@@ -30,6 +30,7 @@ import org.kse.AuthorityCertificates;
 import org.kse.crypto.CryptoException;
 import org.kse.crypto.keystore.KeyStoreLoadException;
 import org.kse.crypto.keystore.KeyStoreUtil;
+import org.kse.crypto.x509.TrustIndex;
 import org.kse.gui.KseFrame;
 import org.kse.gui.error.DError;
 import org.kse.gui.error.DProblem;
@@ -69,7 +70,7 @@ public abstract class AuthorityCertificatesAction extends KeyStoreExplorerAction
                 caCertificates = loadCaCertificatesKeyStore();
 
                 if (caCertificates != null) {
-                    authorityCertificates.setCaCertificates(caCertificates);
+                    authorityCertificates.setCaCertificates(caCertificates, getCaCertificatesFile());
                 }
             }
         }
@@ -95,8 +96,31 @@ public abstract class AuthorityCertificatesAction extends KeyStoreExplorerAction
         return windowsTrustedRootCertificates;
     }
 
+    /**
+     * Get an index of the trusted certificates in a KeyStore and the authority certificates KeyStores. The index of
+     * the authority certificates is built once and reused.
+     *
+     * @param keyStore                       KeyStore
+     * @param caCertificates                 CA Certificates KeyStore or null
+     * @param windowsTrustedRootCertificates Windows Trusted Root Certificates KeyStore or null
+     * @return The index
+     * @throws CryptoException If the certificates could not be extracted
+     */
+    protected TrustIndex getTrustIndex(KeyStore keyStore, KeyStore caCertificates,
+                                       KeyStore windowsTrustedRootCertificates) throws CryptoException {
+        TrustIndex authorityTrustIndex = AuthorityCertificates.getInstance()
+                                                              .getTrustIndex(caCertificates,
+                                                                             windowsTrustedRootCertificates);
+
+        return TrustIndex.fromKeyStores(authorityTrustIndex, keyStore);
+    }
+
+    protected File getCaCertificatesFile() {
+        return new File(preferences.getCaCertsSettings().getCaCertificatesFile());
+    }
+
     protected KeyStore loadCaCertificatesKeyStore() {
-        File caCertificatesFile = new File(preferences.getCaCertsSettings().getCaCertificatesFile());
+        File caCertificatesFile = getCaCertificatesFile();
 
         KeyStore caCertificatesKeyStore = null;
         try {
@@ -20,7 +20,6 @@
 package org.kse.gui.actions;
 
 import java.awt.Desktop;
-import java.awt.Toolkit;
 import java.io.IOException;
 import java.net.URI;
 import java.net.URL;
@@ -29,13 +28,13 @@ import java.text.MessageFormat;
 import java.time.LocalDate;
 import java.time.Period;
 
-import javax.swing.ImageIcon;
 import javax.swing.JOptionPane;
 import javax.swing.SwingUtilities;
 
 import org.apache.commons.io.IOUtils;
 import org.kse.KSE;
 import org.kse.gui.KseFrame;
+import org.kse.gui.LazyImageIcon;
 import org.kse.gui.dialogs.DCheckUpdate;
 import org.kse.gui.error.DError;
 import org.kse.utilities.net.URLs;
@@ -59,8 +58,7 @@ public class CheckUpdateAction extends KeyStoreExplorerAction {
         putValue(LONG_DESCRIPTION, res.getString("CheckUpdateAction.statusbar"));
         putValue(NAME, res.getString("CheckUpdateAction.text"));
         putValue(SHORT_DESCRIPTION, res.getString("CheckUpdateAction.tooltip"));
-        putValue(SMALL_ICON,
-                 new ImageIcon(Toolkit.getDefaultToolkit().createImage(getClass().getResource("images/update.png"))));
+        putValue(SMALL_ICON, new LazyImageIcon(getClass().getResource("images/update.png")));
     }
 
     /**
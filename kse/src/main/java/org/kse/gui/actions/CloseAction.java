@@ -22,11 +22,11 @@ package org.kse.gui.actions;
 import java.awt.Toolkit;
 import java.text.MessageFormat;
 
-import javax.swing.ImageIcon;
 import javax.swing.JOptionPane;
 import javax.swing.KeyStroke;
 
 import org.kse.gui.KseFrame;
+import org.kse.gui.LazyImageIcon;
 import org.kse.utilities.history.KeyStoreHistory;
 import org.kse.utilities.history.KeyStoreState;
 
@@ -48,8 +48,7 @@ public class CloseAction extends SaveAction {
         putValue(LONG_DESCRIPTION, res.getString("CloseAction.statusbar"));
         putValue(NAME, res.getString("CloseAction.text"));
         putValue(SHORT_DESCRIPTION, res.getString("CloseAction.tooltip"));
-        putValue(SMALL_ICON,
-                 new ImageIcon(Toolkit.getDefaultToolkit().createImage(getClass().getResource("images/close.png"))));
+        putValue(SMALL_ICON, new LazyImageIcon(getClass().getResource("images/close.png")));
     }
 
     /**
@@ -78,6 +77,9 @@ public class CloseAction extends SaveAction {
      * @return True if the KeyStore is closed, false otherwise
      */
     public boolean closeKeyStore(KeyStoreHistory history) {
+        // A save still being written needs the passwords and decides whether the KeyStore needs saving
+        KeyStoreSave.await(history);
+
         KeyStoreState currentState = history.getCurrentState();
 
         if (needSave(currentState)) {
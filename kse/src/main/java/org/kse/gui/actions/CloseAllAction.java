@@ -22,10 +22,10 @@ package org.kse.gui.actions;
 import java.awt.Toolkit;
 import java.awt.event.InputEvent;
 
-import javax.swing.ImageIcon;
 import javax.swing.KeyStroke;
 
 import org.kse.gui.KseFrame;
+import org.kse.gui.LazyImageIcon;
 import org.kse.utilities.history.KeyStoreHistory;
 
 /**
@@ -47,8 +47,7 @@ public class CloseAllAction extends CloseAction {
         putValue(LONG_DESCRIPTION, res.getString("CloseAllAction.statusbar"));
         putValue(NAME, res.getString("CloseAllAction.text"));
         putValue(SHORT_DESCRIPTION, res.getString("CloseAllAction.tooltip"));
-        putValue(SMALL_ICON,
-                 new ImageIcon(Toolkit.getDefaultToolkit().createImage(getClass().getResource("images/closeall.png"))));
+        putValue(SMALL_ICON, new LazyImageIcon(getClass().getResource("images/closeall.png")));
     }
 
     /**
@@ -19,11 +19,8 @@
  */
 package org.kse.gui.actions;
 
-import java.awt.Toolkit;
-
-import javax.swing.ImageIcon;
-
 import org.kse.gui.KseFrame;
+import org.kse.gui.LazyImageIcon;
 import org.kse.utilities.history.KeyStoreHistory;
 
 /**
@@ -44,8 +41,7 @@ public class CloseOthersAction extends CloseAction {
         putValue(LONG_DESCRIPTION, res.getString("CloseOthersAction.statusbar"));
         putValue(NAME, res.getString("CloseOthersAction.text"));
         putValue(SHORT_DESCRIPTION, res.getString("CloseOthersAction.tooltip"));
-        putValue(SMALL_ICON, new ImageIcon(
-                Toolkit.getDefaultToolkit().createImage(getClass().getResource("images/closeothers.png"))));
+        putValue(SMALL_ICON, new LazyImageIcon(getClass().getResource("images/closeothers.png")));
     }
 
     /**
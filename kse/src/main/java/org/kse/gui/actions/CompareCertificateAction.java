@@ -8,12 +8,12 @@ import java.security.cert.X509Certificate;
 import java.util.ArrayList;
 import java.util.List;
 
-import javax.swing.ImageIcon;
 import javax.swing.JOptionPane;
 import javax.swing.KeyStroke;
 
 import org.kse.crypto.keystore.KeyStoreUtil;
 import org.kse.gui.KseFrame;
+import org.kse.gui.LazyImageIcon;
 import org.kse.gui.dialogs.DCompareCertificates;
 import org.kse.gui.error.DError;
 import org.kse.utilities.history.KeyStoreHistory;
@@ -38,8 +38,7 @@ public class CompareCertificateAction extends KeyStoreExplorerAction {
         putValue(LONG_DESCRIPTION, res.getString("CompareCertificateAction.statusbar"));
         putValue(NAME, res.getString("CompareCertificateAction.text"));
         putValue(SHORT_DESCRIPTION, res.getString("CompareCertificateAction.tooltip"));
-        putValue(SMALL_ICON, new ImageIcon(
-                Toolkit.getDefaultToolkit().createImage(getClass().getResource("images/comparecerts.png"))));
+        putValue(SMALL_ICON, new LazyImageIcon(getClass().getResource("images/comparecerts.png")));
     }
 
     @Override
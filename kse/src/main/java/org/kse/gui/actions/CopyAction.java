@@ -27,13 +27,13 @@ import java.security.cert.Certificate;
 import java.util.ArrayList;
 import java.util.List;
 
-import javax.swing.ImageIcon;
 import javax.swing.JOptionPane;
 import javax.swing.KeyStroke;
 
 import org.kse.gui.passwordmanager.Password;
 import org.kse.crypto.keystore.KeyStoreUtil;
 import org.kse.gui.KseFrame;
+import org.kse.gui.LazyImageIcon;
 import org.kse.gui.error.DError;
 import org.kse.utilities.buffer.Buffer;
 import org.kse.utilities.buffer.BufferEntry;
@@ -61,8 +61,7 @@ public class CopyAction extends KeyStoreExplorerAction {
         putValue(LONG_DESCRIPTION, res.getString("CopyAction.statusbar"));
         putValue(NAME, res.getString("CopyAction.text"));
         putValue(SHORT_DESCRIPTION, res.getString("CopyAction.tooltip"));
-        putValue(SMALL_ICON,
-                 new ImageIcon(Toolkit.getDefaultToolkit().createImage(getClass().getResource("images/copy.png"))));
+        putValue(SMALL_ICON, new LazyImageIcon(getClass().getResource("images/copy.png")));
     }
 
     /**
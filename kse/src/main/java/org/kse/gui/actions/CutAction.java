@@ -27,13 +27,13 @@ import java.security.cert.Certificate;
 import java.util.ArrayList;
 import java.util.List;
 
-import javax.swing.ImageIcon;
 import javax.swing.JOptionPane;
 import javax.swing.KeyStroke;
 
 import org.kse.gui.passwordmanager.Password;
 import org.kse.crypto.keystore.KeyStoreUtil;
 import org.kse.gui.KseFrame;
+import org.kse.gui.LazyImageIcon;
 import org.kse.gui.error.DError;
 import org.kse.utilities.buffer.Buffer;
 import org.kse.utilities.buffer.BufferEntry;
@@ -62,8 +62,7 @@ public class CutAction extends KeyStoreExplorerAction implements HistoryAction {
         putValue(LONG_DESCRIPTION, res.getString("CutAction.statusbar"));
         putValue(NAME, res.getString("CutAction.text"));
         putValue(SHORT_DESCRIPTION, res.getString("CutAction.tooltip"));
-        putValue(SMALL_ICON,
-                 new ImageIcon(Toolkit.getDefaultToolkit().createImage(getClass().getResource("images/cut.png"))));
+        putValue(SMALL_ICON, new LazyImageIcon(getClass().getResource("images/cut.png")));
     }
 
     @Override
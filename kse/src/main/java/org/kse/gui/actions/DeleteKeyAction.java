@@ -19,14 +19,13 @@
  */
 package org.kse.gui.actions;
 
-import java.awt.Toolkit;
 import java.security.KeyStore;
 import java.text.MessageFormat;
 
-import javax.swing.ImageIcon;
 import javax.swing.JOptionPane;
 
 import org.kse.gui.KseFrame;
+import org.kse.gui.LazyImageIcon;
 import org.kse.gui.error.DError;
 import org.kse.utilities.history.HistoryAction;
 import org.kse.utilities.history.KeyStoreHistory;
@@ -49,8 +48,7 @@ public class DeleteKeyAction extends KeyStoreExplorerAction implements HistoryAc
         putValue(LONG_DESCRIPTION, res.getString("DeleteKeyAction.statusbar"));
         putValue(NAME, res.getString("DeleteKeyAction.text"));
         putValue(SHORT_DESCRIPTION, res.getString("DeleteKeyAction.tooltip"));
-        putValue(SMALL_ICON,
-                 new ImageIcon(Toolkit.getDefaultToolkit().createImage(getClass().getResource("images/delete.png"))));
+        putValue(SMALL_ICON, new LazyImageIcon(getClass().getResource("images/delete.png")));
     }
 
     @Override
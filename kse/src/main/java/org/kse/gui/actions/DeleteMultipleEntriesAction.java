@@ -19,13 +19,12 @@
  */
 package org.kse.gui.actions;
 
-import java.awt.Toolkit;
 import java.security.KeyStore;
 
-import javax.swing.ImageIcon;
 import javax.swing.JOptionPane;
 
 import org.kse.gui.KseFrame;
+import org.kse.gui.LazyImageIcon;
 import org.kse.gui.error.DError;
 import org.kse.utilities.history.HistoryAction;
 import org.kse.utilities.history.KeyStoreHistory;
@@ -48,8 +47,7 @@ public class DeleteMultipleEntriesAction extends KeyStoreExplorerAction implemen
         putValue(LONG_DESCRIPTION, res.getString("DeleteMultipleEntriesAction.statusbar"));
         putValue(NAME, res.getString("DeleteMultipleEntriesAction.text"));
         putValue(SHORT_DESCRIPTION, res.getString("DeleteMultipleEntriesAction.tooltip"));
-        putValue(SMALL_ICON,
-                 new ImageIcon(Toolkit.getDefaultToolkit().createImage(getClass().getResource("images/delete.png"))));
+        putValue(SMALL_ICON, new LazyImageIcon(getClass().getResource("images/delete.png")));
     }
 
     @Override
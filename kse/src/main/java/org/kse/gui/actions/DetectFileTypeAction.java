@@ -34,6 +34,7 @@ import org.kse.crypto.filetype.CryptoFileUtil;
 import org.kse.gui.CurrentDirectory;
 import org.kse.gui.FileChooserFactory;
 import org.kse.gui.KseFrame;
+import org.kse.gui.LazyImageIcon;
 import org.kse.gui.error.DError;
 
 /**
@@ -54,8 +55,7 @@ public class DetectFileTypeAction extends KeyStoreExplorerAction {
         putValue(LONG_DESCRIPTION, res.getString("DetectFileTypeAction.statusbar"));
         putValue(NAME, res.getString("DetectFileTypeAction.text"));
         putValue(SHORT_DESCRIPTION, res.getString("DetectFileTypeAction.tooltip"));
-        putValue(SMALL_ICON, new ImageIcon(
-                Toolkit.getDefaultToolkit().createImage(getClass().getResource("images/detectfiletype.png"))));
+        putValue(SMALL_ICON, new LazyImageIcon(getClass().getResource("images/detectfiletype.png")));
     }
 
     /**
@@ -26,12 +26,9 @@ import java.awt.datatransfer.Transferable;
 import java.awt.datatransfer.UnsupportedFlavorException;
 import java.io.File;
 import java.io.IOException;
-import java.io.InputStream;
-import java.net.HttpURLConnection;
 import java.net.URL;
 import java.security.PrivateKey;
 import java.security.PublicKey;
-import java.security.cert.X509CRL;
 import java.security.cert.X509Certificate;
 import java.text.MessageFormat;
 import java.util.Base64;
@@ -39,12 +36,10 @@ import java.util.List;
 import java.util.Optional;
 import java.util.ResourceBundle;
 
-import javax.swing.ImageIcon;
 import javax.swing.JOptionPane;
 import javax.swing.KeyStroke;
 import javax.swing.SwingUtilities;
 
-import org.apache.commons.io.IOUtils;
 import org.bouncycastle.pkcs.PKCS10CertificationRequest;
 import org.kse.crypto.CryptoException;
 import org.kse.crypto.csr.pkcs10.Pkcs10Util;
@@ -58,6 +53,8 @@ import org.kse.crypto.privatekey.PrivateKeyFormat;
 import org.kse.crypto.publickey.OpenSslPubUtil;
 import org.kse.crypto.x509.X509CertUtil;
 import org.kse.gui.KseFrame;
+import org.kse.gui.LazyImageIcon;
+import org.kse.gui.dialogs.DFetchingUrl;
 import org.kse.gui.dialogs.DViewCertificate;
 import org.kse.gui.dialogs.DViewCrl;
 import org.kse.gui.dialogs.DViewCsr;
@@ -95,8 +92,7 @@ public class ExamineClipboardAction extends KeyStoreExplorerAction {
         putValue(LONG_DESCRIPTION, res.getString("ExamineClipboardAction.statusbar"));
         putValue(NAME, res.getString("ExamineClipboardAction.text"));
         putValue(SHORT_DESCRIPTION, res.getString("ExamineClipboardAction.tooltip"));
-        putValue(SMALL_ICON, new ImageIcon(
-                Toolkit.getDefaultToolkit().createImage(getClass().getResource("images/examineclipboard.png"))));
+        putValue(SMALL_ICON, new LazyImageIcon(getClass().getResource("images/examineclipboard.png")));
     }
 
     /**
@@ -211,52 +207,25 @@ public class ExamineClipboardAction extends KeyStoreExplorerAction {
         return dataAsBytes;
     }
 
-    private boolean isRedirect(int status) {
-        // normally, 3xx is redirect
-        if (status != HttpURLConnection.HTTP_OK) {
-            return status == HttpURLConnection.HTTP_MOVED_TEMP || status == HttpURLConnection.HTTP_MOVED_PERM ||
-                   status == HttpURLConnection.HTTP_SEE_OTHER;
-        }
-        return false;
-    }
-
     private void downloadCrl(URL url) throws IOException, CryptoException {
-        HttpURLConnection urlConn = (HttpURLConnection) url.openConnection();
-        int status = urlConn.getResponseCode();
-        if (isRedirect(status)) {
-            String newUrl = urlConn.getHeaderField("Location");
-            url = new URL(newUrl);
-            urlConn = (HttpURLConnection) url.openConnection();
-        }
-        try (InputStream is = urlConn.getInputStream()) {
-            X509CRL crl = X509CertUtil.loadCRL(IOUtils.toByteArray(is));
-            if (crl != null) {
-                DViewCrl dViewCrl = new DViewCrl(frame,
-                                                 MessageFormat.format(resExt.getString("DViewExtensions.ViewCrl.Title"),
-                                                                      url.toString()), crl);
-                dViewCrl.setLocationRelativeTo(frame);
-                dViewCrl.setVisible(true);
-            }
+        byte[] crl = DFetchingUrl.getCrl(frame, url);
+        if (crl != null) {
+            DViewCrl dViewCrl = new DViewCrl(frame,
+                                             MessageFormat.format(resExt.getString("DViewExtensions.ViewCrl.Title"),
+                                                                  url.toString()), crl);
+            dViewCrl.setLocationRelativeTo(frame);
+            dViewCrl.setVisible(true);
         }
     }
 
     private void downloadCert(URL url) throws IOException, CryptoException {
-        HttpURLConnection urlConn = (HttpURLConnection) url.openConnection();
-        int status = urlConn.getResponseCode();
-        if (isRedirect(status)) {
-            String newUrl = urlConn.getHeaderField("Location");
-            url = new URL(newUrl);
-            urlConn = (HttpURLConnection) url.openConnection();
-        }
-        try (InputStream is = urlConn.getInputStream()) {
-            X509Certificate[] certs = X509CertUtil.loadCertificates(IOUtils.toByteArray(is));
-            if (certs != null && certs.length > 0) {
-                DViewCertificate dViewCertificate = new DViewCertificate(frame,
-                        MessageFormat.format(resExt.getString("DViewExtensions.ViewCert.Title"), url.toString()), certs,
-                        this.kseFrame, DViewCertificate.IMPORT_EXPORT);
-                dViewCertificate.setLocationRelativeTo(frame);
-                dViewCertificate.setVisible(true);
-            }
+        X509Certificate[] certs = DFetchingUrl.getCertificates(frame, url);
+        if (certs != null && certs.length > 0) {
+            DViewCertificate dViewCertificate = new DViewCertificate(frame,
+                    MessageFormat.format(resExt.getString("DViewExtensions.ViewCert.Title"), url.toString()), certs,
+                    this.kseFrame, DViewCertificate.IMPORT_EXPORT);
+            dViewCertificate.setLocationRelativeTo(frame);
+            dViewCertificate.setVisible(true);
         }
     }
 
@@ -366,9 +335,9 @@ public class ExamineClipboardAction extends KeyStoreExplorerAction {
             return;
         }
 
-        X509CRL crl = null;
+        DViewCrl dViewCrl;
         try {
-            crl = X509CertUtil.loadCRL(data);
+            dViewCrl = new DViewCrl(frame, res.getString("ExamineClipboardAction.CrlDetails.Title"), data);
         } catch (Exception ex) {
             String problemStr = res.getString("ExamineClipboardAction.NoOpenCrl.Problem");
 
@@ -381,13 +350,11 @@ public class ExamineClipboardAction extends KeyStoreExplorerAction {
                                              problem);
             dProblem.setLocationRelativeTo(frame);
             dProblem.setVisible(true);
+            return;
         }
 
-        if (crl != null) {
-            DViewCrl dViewCrl = new DViewCrl(frame, res.getString("ExamineClipboardAction.CrlDetails.Title"), crl);
-            dViewCrl.setLocationRelativeTo(frame);
-            dViewCrl.setVisible(true);
-        }
+        dViewCrl.setLocationRelativeTo(frame);
+        dViewCrl.setVisible(true);
     }
 
     private void showCsr(byte[] data, CryptoFileType fileType) {
@@ -26,13 +26,11 @@ import java.io.IOException;
 import java.nio.charset.StandardCharsets;
 import java.security.PrivateKey;
 import java.security.PublicKey;
-import java.security.cert.X509CRL;
 import java.security.cert.X509Certificate;
 import java.text.MessageFormat;
 import java.util.Base64;
 import java.util.Optional;
 
-import javax.swing.ImageIcon;
 import javax.swing.JFileChooser;
 import javax.swing.JOptionPane;
 import javax.swing.KeyStroke;
@@ -50,10 +48,10 @@ import org.kse.crypto.privatekey.Pkcs8Util;
 import org.kse.crypto.privatekey.PrivateKeyFormat;
 import org.kse.crypto.publickey.OpenSslPubUtil;
 import org.kse.crypto.signing.JarParser;
-import org.kse.crypto.x509.X509CertUtil;
 import org.kse.gui.CurrentDirectory;
 import org.kse.gui.FileChooserFactory;
 import org.kse.gui.KseFrame;
+import org.kse.gui.LazyImageIcon;
 import org.kse.gui.dialogs.DPkcs12Info;
 import org.kse.gui.dialogs.DViewCertificate;
 import org.kse.gui.dialogs.DViewCrl;
@@ -87,8 +85,7 @@ public class ExamineFileAction extends KeyStoreExplorerAction {
         putValue(LONG_DESCRIPTION, res.getString("ExamineFileAction.statusbar"));
         putValue(NAME, res.getString("ExamineFileAction.text"));
         putValue(SHORT_DESCRIPTION, res.getString("ExamineFileAction.tooltip"));
-        putValue(SMALL_ICON, new ImageIcon(
-                Toolkit.getDefaultToolkit().createImage(getClass().getResource("images/examinefile.png"))));
+        putValue(SMALL_ICON, new LazyImageIcon(getClass().getResource("images/examinefile.png")));
     }
 
     /**
@@ -207,10 +204,11 @@ public class ExamineFileAction extends KeyStoreExplorerAction {
             return;
         }
 
-        X509CRL crl = null;
+        DViewCrl dViewCrl;
         try {
             byte[] data = FileUtils.readFileToByteArray(file);
-            crl = X509CertUtil.loadCRL(data);
+            dViewCrl = new DViewCrl(frame, MessageFormat.format(
+                    res.getString("ExamineFileAction.CrlDetailsFile.Title"), file.getName()), data);
         } catch (Exception ex) {
             String problemStr = MessageFormat.format(res.getString("ExamineFileAction.NoOpenCrl.Problem"),
                                                      file.getName());
@@ -224,14 +222,11 @@ public class ExamineFileAction extends KeyStoreExplorerAction {
                                              problem);
             dProblem.setLocationRelativeTo(frame);
             dProblem.setVisible(true);
+            return;
         }
 
-        if (crl != null) {
-            DViewCrl dViewCrl = new DViewCrl(frame, MessageFormat.format(
-                    res.getString("ExamineFileAction.CrlDetailsFile.Title"), file.getName()), crl);
-            dViewCrl.setLocationRelativeTo(frame);
-            dViewCrl.setVisible(true);
-        }
+        dViewCrl.setLocationRelativeTo(frame);
+        dViewCrl.setVisible(true);
     }
 
     private void openCsr(File file, CryptoFileType fileType) throws CryptoException {
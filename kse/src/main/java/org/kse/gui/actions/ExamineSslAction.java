@@ -23,10 +23,10 @@ import java.awt.Toolkit;
 import java.awt.event.InputEvent;
 import java.text.MessageFormat;
 
-import javax.swing.ImageIcon;
 import javax.swing.KeyStroke;
 
 import org.kse.gui.KseFrame;
+import org.kse.gui.LazyImageIcon;
 import org.kse.gui.dialogs.DExamineSsl;
 import org.kse.gui.dialogs.DExaminingSsl;
 import org.kse.gui.dialogs.DViewCertificate;
@@ -54,8 +54,7 @@ public class ExamineSslAction extends KeyStoreExplorerAction {
         putValue(LONG_DESCRIPTION, res.getString("ExamineSslAction.statusbar"));
         putValue(NAME, res.getString("ExamineSslAction.text"));
         putValue(SHORT_DESCRIPTION, res.getString("ExamineSslAction.tooltip"));
-        putValue(SMALL_ICON, new ImageIcon(
-                Toolkit.getDefaultToolkit().createImage(getClass().getResource("images/examinessl.png"))));
+        putValue(SMALL_ICON, new LazyImageIcon(getClass().getResource("images/examinessl.png")));
     }
 
     /**
@@ -19,19 +19,18 @@
  */
 package org.kse.gui.actions;
 
-import java.awt.Toolkit;
 import java.awt.event.InputEvent;
 import java.awt.event.KeyEvent;
 import java.io.File;
 import java.util.Arrays;
 import java.util.stream.Collectors;
 
-import javax.swing.ImageIcon;
 import javax.swing.KeyStroke;
 
 import org.kse.gui.CurrentDirectory;
 import org.kse.gui.KseFrame;
 import org.kse.gui.KseRestart;
+import org.kse.gui.LazyImageIcon;
 import org.kse.gui.passwordmanager.PasswordManager;
 import org.kse.gui.preferences.PreferencesManager;
 
@@ -53,8 +52,7 @@ public class ExitAction extends CloseAllAction {
         putValue(LONG_DESCRIPTION, res.getString("ExitAction.statusbar"));
         putValue(NAME, res.getString("ExitAction.text"));
         putValue(SHORT_DESCRIPTION, res.getString("ExitAction.tooltip"));
-        putValue(SMALL_ICON,
-                 new ImageIcon(Toolkit.getDefaultToolkit().createImage(getClass().getResource("images/exit.png"))));
+        putValue(SMALL_ICON, new LazyImageIcon(getClass().getResource("images/exit.png")));
     }
 
     /**
@@ -81,6 +79,10 @@ public class ExitAction extends CloseAllAction {
         // Will any KeyStores be closed by exit?
         boolean keyStoresClosed = (kseFrame.getActiveKeyStoreHistory() != null);
 
+        // Let KeyStores that are still being written in the background finish and report any failure before the
+        // user is asked about unsaved changes
+        KeyStoreSave.awaitAll();
+
         if (!closeAllKeyStores()) {
             return;
         }
@@ -94,7 +96,8 @@ public class ExitAction extends CloseAllAction {
         PreferencesManager.persistPreferences();
 
         if (PasswordManager.getInstance().isInitialized() && PasswordManager.getInstance().isUnlocked()) {
-            PasswordManager.getInstance().save();
+            // there is no next time to save the passwords, so the user cannot cancel
+            savePasswordManager(false);
         }
 
         if (restart) {
@@ -19,7 +19,6 @@
  */
 package org.kse.gui.actions;
 
-import java.awt.Toolkit;
 import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.IOException;
@@ -31,7 +30,6 @@ import java.security.cert.Certificate;
 import java.security.cert.X509Certificate;
 import java.text.MessageFormat;
 
-import javax.swing.ImageIcon;
 import javax.swing.JOptionPane;
 
 import org.apache.commons.io.FileUtils;
@@ -43,6 +41,7 @@ import org.kse.crypto.privatekey.Pkcs8PbeType;
 import org.kse.crypto.privatekey.Pkcs8Util;
 import org.kse.crypto.x509.X509CertUtil;
 import org.kse.gui.KseFrame;
+import org.kse.gui.LazyImageIcon;
 import org.kse.gui.dialogs.importexport.DExportKeyPair;
 import org.kse.gui.dialogs.importexport.DExportKeyPair.ExportFormat;
 import org.kse.gui.error.DError;
@@ -66,8 +65,7 @@ public class ExportKeyPairAction extends KeyStoreExplorerAction {
         putValue(LONG_DESCRIPTION, res.getString("ExportKeyPairAction.statusbar"));
         putValue(NAME, res.getString("ExportKeyPairAction.text"));
         putValue(SHORT_DESCRIPTION, res.getString("ExportKeyPairAction.tooltip"));
-        putValue(SMALL_ICON, new ImageIcon(
-                Toolkit.getDefaultToolkit().createImage(getClass().getResource("images/exportkeypair.png"))));
+        putValue(SMALL_ICON, new LazyImageIcon(getClass().getResource("images/exportkeypair.png")));
     }
 
     /**
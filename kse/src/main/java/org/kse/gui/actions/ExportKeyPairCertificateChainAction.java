@@ -19,7 +19,6 @@
  */
 package org.kse.gui.actions;
 
-import java.awt.Toolkit;
 import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.FileOutputStream;
@@ -29,12 +28,12 @@ import java.security.KeyStoreException;
 import java.security.cert.X509Certificate;
 import java.text.MessageFormat;
 
-import javax.swing.ImageIcon;
 import javax.swing.JOptionPane;
 
 import org.kse.crypto.CryptoException;
 import org.kse.crypto.x509.X509CertUtil;
 import org.kse.gui.KseFrame;
+import org.kse.gui.LazyImageIcon;
 import org.kse.gui.dialogs.importexport.DExportCertificates;
 import org.kse.gui.error.DError;
 import org.kse.utilities.history.KeyStoreHistory;
@@ -56,8 +55,7 @@ public class ExportKeyPairCertificateChainAction extends KeyStoreExplorerAction
         putValue(LONG_DESCRIPTION, res.getString("ExportKeyPairCertificateChainAction.statusbar"));
         putValue(NAME, res.getString("ExportKeyPairCertificateChainAction.text"));
         putValue(SHORT_DESCRIPTION, res.getString("ExportKeyPairCertificateChainAction.tooltip"));
-        putValue(SMALL_ICON, new ImageIcon(
-                Toolkit.getDefaultToolkit().createImage(getClass().getResource("images/exportkeypaircertchain.png"))));
+        putValue(SMALL_ICON, new LazyImageIcon(getClass().getResource("images/exportkeypaircertchain.png")));
     }
 
     /**
@@ -19,12 +19,11 @@
  */
 package org.kse.gui.actions;
 
-import java.awt.Toolkit;
 import java.security.KeyStore;
 import java.security.PrivateKey;
-import javax.swing.ImageIcon;
 import org.kse.gui.passwordmanager.Password;
 import org.kse.gui.KseFrame;
+import org.kse.gui.LazyImageIcon;
 import org.kse.gui.crypto.privatekey.PrivateKeyUtils;
 import org.kse.gui.dialogs.importexport.DExportPrivateKeyType;
 import org.kse.gui.error.DError;
@@ -48,8 +47,7 @@ public class ExportKeyPairPrivateKeyAction extends KeyStoreExplorerAction {
         putValue(LONG_DESCRIPTION, res.getString("ExportKeyPairPrivateKeyAction.statusbar"));
         putValue(NAME, res.getString("ExportKeyPairPrivateKeyAction.text"));
         putValue(SHORT_DESCRIPTION, res.getString("ExportKeyPairPrivateKeyAction.tooltip"));
-        putValue(SMALL_ICON, new ImageIcon(
-                Toolkit.getDefaultToolkit().createImage(getClass().getResource("images/keypairexportpvk.png"))));
+        putValue(SMALL_ICON, new LazyImageIcon(getClass().getResource("images/keypairexportpvk.png")));
     }
 
     /**
@@ -1,6 +1,5 @@
 package org.kse.gui.actions;
 
-import java.awt.Toolkit;
 import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.FileOutputStream;
@@ -13,12 +12,12 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 
-import javax.swing.ImageIcon;
 import javax.swing.JOptionPane;
 
 import org.kse.crypto.keystore.KeyStoreUtil;
 import org.kse.crypto.x509.X509CertUtil;
 import org.kse.gui.KseFrame;
+import org.kse.gui.LazyImageIcon;
 import org.kse.gui.dialogs.importexport.DExportCertificates;
 import org.kse.gui.error.DError;
 import org.kse.utilities.history.KeyStoreHistory;
@@ -37,8 +36,7 @@ public class ExportSelectedCertificatesAction extends KeyStoreExplorerAction {
         putValue(LONG_DESCRIPTION, res.getString("ExportSelectedCertificatesAction.statusbar"));
         putValue(NAME, res.getString("ExportSelectedCertificatesAction.text"));
         putValue(SHORT_DESCRIPTION, res.getString("ExportSelectedCertificatesAction.tooltip"));
-        putValue(SMALL_ICON, new ImageIcon(
-                Toolkit.getDefaultToolkit().createImage(getClass().getResource("images/exportselectedcerts.png"))));
+        putValue(SMALL_ICON, new LazyImageIcon(getClass().getResource("images/exportselectedcerts.png")));
     }
 
     @Override
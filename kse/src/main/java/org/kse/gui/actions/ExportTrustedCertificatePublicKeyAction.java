@@ -19,7 +19,6 @@
  */
 package org.kse.gui.actions;
 
-import java.awt.Toolkit;
 import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.FileOutputStream;
@@ -30,7 +29,6 @@ import java.security.PublicKey;
 import java.security.cert.X509Certificate;
 import java.text.MessageFormat;
 
-import javax.swing.ImageIcon;
 import javax.swing.JOptionPane;
 
 import org.kse.crypto.CryptoException;
@@ -38,6 +36,7 @@ import org.kse.crypto.publickey.JwkPublicKeyExporter;
 import org.kse.crypto.publickey.OpenSslPubUtil;
 import org.kse.crypto.x509.X509CertUtil;
 import org.kse.gui.KseFrame;
+import org.kse.gui.LazyImageIcon;
 import org.kse.gui.dialogs.importexport.DExportPublicKey;
 import org.kse.gui.error.DError;
 import org.kse.utilities.history.KeyStoreHistory;
@@ -59,8 +58,7 @@ public class ExportTrustedCertificatePublicKeyAction extends KeyStoreExplorerAct
         putValue(LONG_DESCRIPTION, res.getString("ExportTrustedCertificatePublicKeyAction.statusbar"));
         putValue(NAME, res.getString("ExportTrustedCertificatePublicKeyAction.text"));
         putValue(SHORT_DESCRIPTION, res.getString("ExportTrustedCertificatePublicKeyAction.tooltip"));
-        putValue(SMALL_ICON, new ImageIcon(
-                Toolkit.getDefaultToolkit().createImage(getClass().getResource("images/trustcertexportpub.png"))));
+        putValue(SMALL_ICON, new LazyImageIcon(getClass().getResource("images/trustcertexportpub.png")));
     }
 
     /**
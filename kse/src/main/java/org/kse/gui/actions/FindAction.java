@@ -28,11 +28,11 @@ import java.util.Enumeration;
 import java.util.HashSet;
 import java.util.Set;
 
-import javax.swing.ImageIcon;
 import javax.swing.JOptionPane;
 import javax.swing.KeyStroke;
 
 import org.kse.gui.KseFrame;
+import org.kse.gui.LazyImageIcon;
 import org.kse.gui.dialogs.DFindKeyStoreEntry;
 import org.kse.gui.error.DError;
 import org.kse.utilities.history.KeyStoreHistory;
@@ -54,8 +54,7 @@ public class FindAction extends KeyStoreExplorerAction {
         putValue(LONG_DESCRIPTION, res.getString("FindAction.statusbar"));
         putValue(NAME, res.getString("FindAction.text"));
         putValue(SHORT_DESCRIPTION, res.getString("FindAction.tooltip"));
-        putValue(SMALL_ICON,
-                 new ImageIcon(Toolkit.getDefaultToolkit().createImage(getClass().getResource("images/find.png"))));
+        putValue(SMALL_ICON, new LazyImageIcon(getClass().getResource("images/find.png")));
     }
 
     @Override
@@ -32,7 +32,6 @@ import java.security.cert.X509Certificate;
 import java.text.MessageFormat;
 
 import javax.security.auth.x500.X500Principal;
-import javax.swing.ImageIcon;
 import javax.swing.JOptionPane;
 
 import org.bouncycastle.asn1.x509.Certificate;
@@ -50,6 +49,7 @@ import org.kse.crypto.x509.X500NameUtils;
 import org.kse.crypto.x509.X509CertUtil;
 import org.kse.gui.CurrentDirectory;
 import org.kse.gui.KseFrame;
+import org.kse.gui.LazyImageIcon;
 import org.kse.gui.dialogs.DGenerateCsr;
 import org.kse.gui.error.DError;
 import org.kse.utilities.history.KeyStoreHistory;
@@ -72,8 +72,7 @@ public class GenerateCsrAction extends KeyStoreExplorerAction {
         putValue(LONG_DESCRIPTION, res.getString("GenerateCsrAction.statusbar"));
         putValue(NAME, res.getString("GenerateCsrAction.text"));
         putValue(SHORT_DESCRIPTION, res.getString("GenerateCsrAction.tooltip"));
-        putValue(SMALL_ICON,
-                 new ImageIcon(Toolkit.getDefaultToolkit().createImage(getClass().getResource("images/gencsr.png"))));
+        putValue(SMALL_ICON, new LazyImageIcon(getClass().getResource("images/gencsr.png")));
     }
 
     /**
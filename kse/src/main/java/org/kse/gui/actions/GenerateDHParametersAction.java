@@ -24,10 +24,10 @@ import java.awt.Toolkit;
 import java.awt.event.InputEvent;
 import java.util.ResourceBundle;
 
-import javax.swing.ImageIcon;
 import javax.swing.KeyStroke;
 
 import org.kse.gui.KseFrame;
+import org.kse.gui.LazyImageIcon;
 import org.kse.gui.dialogs.DGenerateDHParameters;
 import org.kse.gui.dialogs.DGeneratingDHParameters;
 import org.kse.gui.dialogs.DViewDHParameters;
@@ -61,8 +61,7 @@ public class GenerateDHParametersAction extends KeyStoreExplorerAction implement
         putValue(LONG_DESCRIPTION, res.getString("GenerateDHParametersAction.statusbar"));
         putValue(NAME, res.getString("GenerateDHParametersAction.text"));
         putValue(SHORT_DESCRIPTION, res.getString("GenerateDHParametersAction.tooltip"));
-        putValue(SMALL_ICON,
-                 new ImageIcon(Toolkit.getDefaultToolkit().createImage(getClass().getResource("images/gendh.png"))));
+        putValue(SMALL_ICON, new LazyImageIcon(getClass().getResource("images/gendh.png")));
 
     }
 
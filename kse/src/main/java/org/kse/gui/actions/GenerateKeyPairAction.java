@@ -27,7 +27,6 @@ import java.security.Provider;
 import java.security.cert.X509Certificate;
 import java.text.MessageFormat;
 
-import javax.swing.ImageIcon;
 import javax.swing.JOptionPane;
 import javax.swing.KeyStroke;
 
@@ -35,6 +34,7 @@ import org.kse.crypto.keypair.KeyPairType;
 import org.kse.crypto.keystore.KeyStoreType;
 import org.kse.crypto.x509.X509CertUtil;
 import org.kse.gui.KseFrame;
+import org.kse.gui.LazyImageIcon;
 import org.kse.gui.dialogs.DGenerateKeyPair;
 import org.kse.gui.dialogs.DGenerateKeyPairCert;
 import org.kse.gui.dialogs.DGeneratingKeyPair;
@@ -66,8 +66,7 @@ public class GenerateKeyPairAction extends KeyStoreExplorerAction implements His
         putValue(LONG_DESCRIPTION, res.getString("GenerateKeyPairAction.statusbar"));
         putValue(NAME, res.getString("GenerateKeyPairAction.text"));
         putValue(SHORT_DESCRIPTION, res.getString("GenerateKeyPairAction.tooltip"));
-        putValue(SMALL_ICON, new ImageIcon(
-                Toolkit.getDefaultToolkit().createImage(getClass().getResource("images/genkeypair.png"))));
+        putValue(SMALL_ICON, new LazyImageIcon(getClass().getResource("images/genkeypair.png")));
     }
 
     @Override
@@ -25,7 +25,6 @@ import java.security.KeyStore;
 import java.text.MessageFormat;
 
 import javax.crypto.SecretKey;
-import javax.swing.ImageIcon;
 import javax.swing.JOptionPane;
 import javax.swing.KeyStroke;
 
@@ -33,6 +32,7 @@ import org.kse.crypto.keystore.KeyStoreType;
 import org.kse.crypto.secretkey.SecretKeyType;
 import org.kse.crypto.secretkey.SecretKeyUtil;
 import org.kse.gui.KseFrame;
+import org.kse.gui.LazyImageIcon;
 import org.kse.gui.dialogs.DGenerateSecretKey;
 import org.kse.gui.dialogs.DGetAlias;
 import org.kse.gui.error.DError;
@@ -62,8 +62,7 @@ public class GenerateSecretKeyAction extends KeyStoreExplorerAction implements H
         putValue(LONG_DESCRIPTION, res.getString("GenerateSecretKeyAction.statusbar"));
         putValue(NAME, res.getString("GenerateSecretKeyAction.text"));
         putValue(SHORT_DESCRIPTION, res.getString("GenerateSecretKeyAction.tooltip"));
-        putValue(SMALL_ICON, new ImageIcon(
-                Toolkit.getDefaultToolkit().createImage(getClass().getResource("images/genseckey.png"))));
+        putValue(SMALL_ICON, new LazyImageIcon(getClass().getResource("images/genseckey.png")));
     }
 
     @Override
@@ -20,18 +20,17 @@
 package org.kse.gui.actions;
 
 import java.awt.Desktop;
-import java.awt.Toolkit;
 import java.awt.event.KeyEvent;
 import java.io.IOException;
 import java.net.URI;
 import java.text.MessageFormat;
 
-import javax.swing.ImageIcon;
 import javax.swing.JOptionPane;
 import javax.swing.KeyStroke;
 
 import org.kse.KSE;
 import org.kse.gui.KseFrame;
+import org.kse.gui.LazyImageIcon;
 import org.kse.utilities.net.URLs;
 
 /**
@@ -54,8 +53,7 @@ public class HelpAction extends KeyStoreExplorerAction {
         putValue(LONG_DESCRIPTION, res.getString("HelpAction.statusbar"));
         putValue(NAME, res.getString("HelpAction.text"));
         putValue(SHORT_DESCRIPTION, res.getString("HelpAction.tooltip"));
-        putValue(SMALL_ICON,
-                 new ImageIcon(Toolkit.getDefaultToolkit().createImage(getClass().getResource("images/help.png"))));
+        putValue(SMALL_ICON, new LazyImageIcon(getClass().getResource("images/help.png")));
 
         websiteAddress = URLs.KSE_USER_MANUAL + KSE.getUserManualVersion() + "/";
     }
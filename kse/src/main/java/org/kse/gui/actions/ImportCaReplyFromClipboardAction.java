@@ -27,15 +27,15 @@ import java.security.Key;
 import java.security.KeyStore;
 import java.security.cert.X509Certificate;
 import java.text.MessageFormat;
-import java.util.ArrayList;
 
-import javax.swing.ImageIcon;
 import javax.swing.JOptionPane;
 
 import org.kse.gui.passwordmanager.Password;
 import org.kse.crypto.keystore.KeyStoreType;
+import org.kse.crypto.x509.TrustIndex;
 import org.kse.crypto.x509.X509CertUtil;
 import org.kse.gui.KseFrame;
+import org.kse.gui.LazyImageIcon;
 import org.kse.gui.dialogs.DViewCertificate;
 import org.kse.gui.error.DError;
 import org.kse.gui.error.DProblem;
@@ -61,8 +61,7 @@ public class ImportCaReplyFromClipboardAction extends AuthorityCertificatesActio
         putValue(LONG_DESCRIPTION, res.getString("ImportCaReplyFromClipboardAction.statusbar"));
         putValue(NAME, res.getString("ImportCaReplyFromClipboardAction.text"));
         putValue(SHORT_DESCRIPTION, res.getString("ImportCaReplyFromClipboardAction.tooltip"));
-        putValue(SMALL_ICON, new ImageIcon(
-                Toolkit.getDefaultToolkit().createImage(getClass().getResource("images/importcareplyclipboard.png"))));
+        putValue(SMALL_ICON, new LazyImageIcon(getClass().getResource("images/importcareplyclipboard.png")));
     }
 
     @Override
@@ -172,22 +171,10 @@ public class ImportCaReplyFromClipboardAction extends AuthorityCertificatesActio
                 // Single X.509 certificate reply - try and establish a chain of
                 // trust from the certificate and ending with a root CA self-signed certificate
                 else {
-                    // Establish trust against current KeyStore
-                    ArrayList<KeyStore> compKeyStores = new ArrayList<>();
-                    compKeyStores.add(keyStore);
+                    // Establish trust against current KeyStore and the authority certificates KeyStores
+                    TrustIndex trustIndex = getTrustIndex(keyStore, caCertificates, windowsTrustedRootCertificates);
 
-                    if (caCertificates != null) {
-                        // Establish trust against CA Certificates KeyStore
-                        compKeyStores.add(caCertificates);
-                    }
-
-                    if (windowsTrustedRootCertificates != null) {
-                        // Establish trust against Windows Trusted Root Certificates KeyStore
-                        compKeyStores.add(windowsTrustedRootCertificates);
-                    }
-
-                    X509Certificate[] trustChain = X509CertUtil.establishTrust(certs[0], compKeyStores.toArray(
-                            new KeyStore[0]));
+                    X509Certificate[] trustChain = trustIndex.establishTrust(certs[0]);
 
                     if (trustChain != null) {
                         newCertChain = trustChain;
@@ -19,26 +19,25 @@
  */
 package org.kse.gui.actions;
 
-import java.awt.Toolkit;
 import java.io.File;
 import java.io.FileNotFoundException;
 import java.security.Key;
 import java.security.KeyStore;
 import java.security.cert.X509Certificate;
 import java.text.MessageFormat;
-import java.util.ArrayList;
 
-import javax.swing.ImageIcon;
 import javax.swing.JFileChooser;
 import javax.swing.JOptionPane;
 
 import org.apache.commons.io.FileUtils;
 import org.kse.gui.passwordmanager.Password;
 import org.kse.crypto.keystore.KeyStoreType;
+import org.kse.crypto.x509.TrustIndex;
 import org.kse.crypto.x509.X509CertUtil;
 import org.kse.gui.CurrentDirectory;
 import org.kse.gui.FileChooserFactory;
 import org.kse.gui.KseFrame;
+import org.kse.gui.LazyImageIcon;
 import org.kse.gui.dialogs.DViewCertificate;
 import org.kse.gui.error.DError;
 import org.kse.gui.error.DProblem;
@@ -64,8 +63,7 @@ public class ImportCaReplyFromFileAction extends AuthorityCertificatesAction imp
         putValue(LONG_DESCRIPTION, res.getString("ImportCaReplyFromFileAction.statusbar"));
         putValue(NAME, res.getString("ImportCaReplyFromFileAction.text"));
         putValue(SHORT_DESCRIPTION, res.getString("ImportCaReplyFromFileAction.tooltip"));
-        putValue(SMALL_ICON, new ImageIcon(
-                Toolkit.getDefaultToolkit().createImage(getClass().getResource("images/importcareplyfile.png"))));
+        putValue(SMALL_ICON, new LazyImageIcon(getClass().getResource("images/importcareplyfile.png")));
     }
 
     @Override
@@ -181,22 +179,10 @@ public class ImportCaReplyFromFileAction extends AuthorityCertificatesAction imp
                 // Single X.509 certificate reply - try and establish a chain of
                 // trust from the certificate and ending with a root CA self-signed certificate
                 else {
-                    // Establish trust against current KeyStore
-                    ArrayList<KeyStore> compKeyStores = new ArrayList<>();
-                    compKeyStores.add(keyStore);
+                    // Establish trust against current KeyStore and the authority certificates KeyStores
+                    TrustIndex trustIndex = getTrustIndex(keyStore, caCertificates, windowsTrustedRootCertificates);
 
-                    if (caCertificates != null) {
-                        // Establish trust against CA Certificates KeyStore
-                        compKeyStores.add(caCertificates);
-                    }
-
-                    if (windowsTrustedRootCertificates != null) {
-                        // Establish trust against Windows Trusted Root Certificates KeyStore
-                        compKeyStores.add(windowsTrustedRootCertificates);
-                    }
-
-                    X509Certificate[] trustChain = X509CertUtil.establishTrust(certs[0], compKeyStores.toArray(
-                            new KeyStore[0]));
+                    X509Certificate[] trustChain = trustIndex.establishTrust(certs[0]);
 
                     if (trustChain != null) {
                         newCertChain = trustChain;
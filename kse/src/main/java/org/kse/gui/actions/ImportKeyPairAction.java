@@ -26,13 +26,13 @@ import java.security.cert.Certificate;
 import java.security.cert.X509Certificate;
 import java.text.MessageFormat;
 
-import javax.swing.ImageIcon;
 import javax.swing.JOptionPane;
 import javax.swing.KeyStroke;
 
 import org.kse.crypto.keystore.KeyStoreType;
 import org.kse.crypto.x509.X509CertUtil;
 import org.kse.gui.KseFrame;
+import org.kse.gui.LazyImageIcon;
 import org.kse.gui.dialogs.DGetAlias;
 import org.kse.gui.dialogs.importexport.DImportKeyPairOpenSsl;
 import org.kse.gui.dialogs.importexport.DImportKeyPairPkcs12;
@@ -65,8 +65,7 @@ public class ImportKeyPairAction extends KeyStoreExplorerAction implements Histo
         putValue(LONG_DESCRIPTION, res.getString("ImportKeyPairAction.statusbar"));
         putValue(NAME, res.getString("ImportKeyPairAction.text"));
         putValue(SHORT_DESCRIPTION, res.getString("ImportKeyPairAction.tooltip"));
-        putValue(SMALL_ICON, new ImageIcon(
-                Toolkit.getDefaultToolkit().createImage(getClass().getResource("images/importkeypair.png"))));
+        putValue(SMALL_ICON, new LazyImageIcon(getClass().getResource("images/importkeypair.png")));
     }
 
     @Override
@@ -24,17 +24,17 @@ import java.io.File;
 import java.security.KeyStore;
 import java.security.cert.X509Certificate;
 import java.text.MessageFormat;
-import java.util.ArrayList;
 
-import javax.swing.ImageIcon;
 import javax.swing.JFileChooser;
 import javax.swing.JOptionPane;
 import javax.swing.KeyStroke;
 
+import org.kse.crypto.x509.TrustIndex;
 import org.kse.crypto.x509.X509CertUtil;
 import org.kse.gui.CurrentDirectory;
 import org.kse.gui.FileChooserFactory;
 import org.kse.gui.KseFrame;
+import org.kse.gui.LazyImageIcon;
 import org.kse.gui.dialogs.DGetAlias;
 import org.kse.gui.dialogs.DViewCertificate;
 import org.kse.gui.error.DError;
@@ -75,8 +75,7 @@ public class ImportTrustedCertificateAction extends AuthorityCertificatesAction
         putValue(LONG_DESCRIPTION, res.getString("ImportTrustedCertificateAction.statusbar"));
         putValue(NAME, res.getString("ImportTrustedCertificateAction.text"));
         putValue(SHORT_DESCRIPTION, res.getString("ImportTrustedCertificateAction.tooltip"));
-        putValue(SMALL_ICON, new ImageIcon(
-                Toolkit.getDefaultToolkit().createImage(getClass().getResource("images/importcert.png"))));
+        putValue(SMALL_ICON, new LazyImageIcon(getClass().getResource("images/importcert.png")));
     }
 
     @Override
@@ -139,23 +138,11 @@ public class ImportTrustedCertificateAction extends AuthorityCertificatesAction
                 KeyStore caCertificates = getCaCertificates();
                 KeyStore windowsTrustedRootCertificates = getWindowsTrustedRootCertificates();
 
-                // Establish against current KeyStore
-                ArrayList<KeyStore> compKeyStores = new ArrayList<>();
-                compKeyStores.add(keyStore);
-
-                if (caCertificates != null) {
-                    // Establish trust against CA Certificates KeyStore
-                    compKeyStores.add(caCertificates);
-                }
-
-                if (windowsTrustedRootCertificates != null) {
-                    // Establish trust against Windows Trusted Root Certificates KeyStore
-                    compKeyStores.add(windowsTrustedRootCertificates);
-                }
+                // Establish trust against current KeyStore and the authority certificates KeyStores
+                TrustIndex trustIndex = getTrustIndex(keyStore, caCertificates, windowsTrustedRootCertificates);
 
                 // Can we establish trust for the certificate?
-                if (X509CertUtil.establishTrust(trustCert, compKeyStores.toArray(new KeyStore[0])) ==
-                    null) {
+                if (trustIndex.establishTrust(trustCert) == null) {
 
                     // if trustCert comes from an Examination Dialog (i.e. certFile == null)
                     // there is no need to present it again to the user
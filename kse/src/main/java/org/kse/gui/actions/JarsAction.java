@@ -19,11 +19,8 @@
  */
 package org.kse.gui.actions;
 
-import java.awt.Toolkit;
-
-import javax.swing.ImageIcon;
-
 import org.kse.gui.KseFrame;
+import org.kse.gui.LazyImageIcon;
 import org.kse.gui.error.DError;
 import org.kse.gui.jar.DJarInfo;
 
@@ -44,8 +41,7 @@ public class JarsAction extends KeyStoreExplorerAction {
         putValue(LONG_DESCRIPTION, res.getString("JarsAction.statusbar"));
         putValue(NAME, res.getString("JarsAction.text"));
         putValue(SHORT_DESCRIPTION, res.getString("JarsAction.tooltip"));
-        putValue(SMALL_ICON,
-                 new ImageIcon(Toolkit.getDefaultToolkit().createImage(getClass().getResource("images/jars.png"))));
+        putValue(SMALL_ICON, new LazyImageIcon(getClass().getResource("images/jars.png")));
     }
 
     /**
@@ -19,7 +19,6 @@
  */
 package org.kse.gui.actions;
 
-import java.awt.Toolkit;
 import java.security.Key;
 import java.security.KeyStore;
 import java.security.KeyStoreException;
@@ -29,11 +28,11 @@ import java.text.MessageFormat;
 import java.util.Optional;
 
 import javax.crypto.SecretKey;
-import javax.swing.ImageIcon;
 
 import org.kse.crypto.CryptoException;
 import org.kse.gui.passwordmanager.Password;
 import org.kse.gui.KseFrame;
+import org.kse.gui.LazyImageIcon;
 import org.kse.gui.dialogs.DViewPrivateKey;
 import org.kse.gui.dialogs.DViewPublicKey;
 import org.kse.gui.dialogs.DViewSecretKey;
@@ -58,8 +57,7 @@ public class KeyDetailsAction extends KeyStoreExplorerAction {
         putValue(LONG_DESCRIPTION, res.getString("KeyDetailsAction.statusbar"));
         putValue(NAME, res.getString("KeyDetailsAction.text"));
         putValue(SHORT_DESCRIPTION, res.getString("KeyDetailsAction.tooltip"));
-        putValue(SMALL_ICON, new ImageIcon(
-                Toolkit.getDefaultToolkit().createImage(getClass().getResource("images/keydetails.png"))));
+        putValue(SMALL_ICON, new LazyImageIcon(getClass().getResource("images/keydetails.png")));
     }
 
     /**
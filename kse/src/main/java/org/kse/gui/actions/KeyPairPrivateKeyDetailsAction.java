@@ -19,16 +19,14 @@
  */
 package org.kse.gui.actions;
 
-import java.awt.Toolkit;
 import java.security.KeyStore;
 import java.security.PrivateKey;
 import java.text.MessageFormat;
 import java.util.Optional;
 
-import javax.swing.ImageIcon;
-
 import org.kse.gui.passwordmanager.Password;
 import org.kse.gui.KseFrame;
+import org.kse.gui.LazyImageIcon;
 import org.kse.gui.dialogs.DViewPrivateKey;
 import org.kse.gui.error.DError;
 import org.kse.utilities.history.KeyStoreHistory;
@@ -51,8 +49,7 @@ public class KeyPairPrivateKeyDetailsAction extends KeyStoreExplorerAction {
         putValue(LONG_DESCRIPTION, res.getString("KeyPairPrivateKeyDetailsAction.statusbar"));
         putValue(NAME, res.getString("KeyPairPrivateKeyDetailsAction.text"));
         putValue(SHORT_DESCRIPTION, res.getString("KeyPairPrivateKeyDetailsAction.tooltip"));
-        putValue(SMALL_ICON, new ImageIcon(
-                Toolkit.getDefaultToolkit().createImage(getClass().getResource("images/privkeydetails.png"))));
+        putValue(SMALL_ICON, new LazyImageIcon(getClass().getResource("images/privkeydetails.png")));
     }
 
     /**
@@ -19,15 +19,13 @@
  */
 package org.kse.gui.actions;
 
-import java.awt.Toolkit;
 import java.security.KeyStore;
 import java.security.PublicKey;
 import java.text.MessageFormat;
 
-import javax.swing.ImageIcon;
-
 import org.kse.crypto.x509.X509CertUtil;
 import org.kse.gui.KseFrame;
+import org.kse.gui.LazyImageIcon;
 import org.kse.gui.dialogs.DViewPublicKey;
 import org.kse.gui.error.DError;
 import org.kse.utilities.history.KeyStoreHistory;
@@ -50,8 +48,7 @@ public class KeyPairPublicKeyDetailsAction extends KeyStoreExplorerAction {
         putValue(LONG_DESCRIPTION, res.getString("KeyPairPublicKeyDetailsAction.statusbar"));
         putValue(NAME, res.getString("KeyPairPublicKeyDetailsAction.text"));
         putValue(SHORT_DESCRIPTION, res.getString("KeyPairPublicKeyDetailsAction.tooltip"));
-        putValue(SMALL_ICON, new ImageIcon(
-                Toolkit.getDefaultToolkit().createImage(getClass().getResource("images/keypairpubkeydetails.png"))));
+        putValue(SMALL_ICON, new LazyImageIcon(getClass().getResource("images/keypairpubkeydetails.png")));
     }
 
     /**
@@ -46,6 +46,7 @@ import org.kse.gui.error.DProblem;
 import org.kse.gui.error.Problem;
 import org.kse.gui.password.DGetNewPassword;
 import org.kse.gui.password.DGetPassword;
+import org.kse.gui.passwordmanager.DDerivingKey;
 import org.kse.gui.passwordmanager.DInitPasswordManager;
 import org.kse.gui.passwordmanager.DUnlockPasswordManager;
 import org.kse.gui.passwordmanager.Password;
@@ -290,7 +291,8 @@ public abstract class KeyStoreExplorerAction extends AbstractAction {
                 dUnlockPasswordManager.setLocationRelativeTo(frame);
                 dUnlockPasswordManager.setVisible(true);
                 if (!dUnlockPasswordManager.isCancelled()) {
-                    PasswordManager.getInstance().unlock(dUnlockPasswordManager.getPassword().toCharArray());
+                    char[] password = dUnlockPasswordManager.getPassword().toCharArray();
+                    DDerivingKey.run(frame, progress -> PasswordManager.getInstance().unlock(password, progress));
                 }
             }
         } catch (EncryptionException e) {
@@ -303,7 +305,7 @@ public abstract class KeyStoreExplorerAction extends AbstractAction {
         }
     }
 
-    protected static void saveInPasswordManager(KeyStoreState currentState, File saveFile, Password password)
+    protected void saveInPasswordManager(KeyStoreState currentState, File saveFile, Password password)
             throws KeyStoreException {
         if (PasswordManager.getInstance().isUnlocked()) {
             var entryPasswords = new HashMap<String, char[]>();
@@ -316,7 +318,30 @@ public abstract class KeyStoreExplorerAction extends AbstractAction {
                 }
             }
             PasswordManager.getInstance().update(saveFile, password.toCharArray(), entryPasswords);
-            PasswordManager.getInstance().save();
+            savePasswordManager();
+        }
+    }
+
+    /**
+     * Save the password manager, deriving a new key in the background if necessary.
+     */
+    protected void savePasswordManager() {
+        savePasswordManager(true);
+    }
+
+    /**
+     * Save the password manager, deriving a new key in the background if necessary.
+     *
+     * @param cancellable False if the user must not be able to skip saving, e.g. because the application exits
+     */
+    protected void savePasswordManager(boolean cancellable) {
+        PasswordManager passwordManager = PasswordManager.getInstance();
+
+        if (passwordManager.isRekeyingRequired()) {
+            // if cancelled, the passwords are saved next time
+            DDerivingKey.run(frame, passwordManager::save, cancellable);
+        } else {
+            passwordManager.save();
         }
     }
 
@@ -0,0 +1,243 @@
+/*
+ * Copyright 2004 - 2013 Wayne Grant
+ *           2013 - 2025 Kai Kramer
+ *
+ * This file is part of KeyStore Explorer.
+ *
+ * KeyStore Explorer is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * KeyStore Explorer is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with KeyStore Explorer.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.kse.gui.actions;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.security.KeyStore;
+import java.text.MessageFormat;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.ResourceBundle;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+
+import javax.swing.JOptionPane;
+import javax.swing.SwingUtilities;
+
+import org.kse.crypto.keystore.KeyStoreUtil;
+import org.kse.gui.KseFrame;
+import org.kse.gui.error.DError;
+import org.kse.gui.passwordmanager.Password;
+import org.kse.utilities.history.KeyStoreHistory;
+import org.kse.utilities.history.KeyStoreState;
+
+/**
+ * Saves the state of a KeyStore on a background thread. A state in the undo history is not modified once it has
+ * been created, so the user can carry on editing the KeyStore while the state that was current when the save was
+ * requested is encrypted and written. Different files are saved in parallel, saves to the same file are written in
+ * the order in which they were started.
+ * <p>
+ * The state is only marked as saved once it has been written, which happens on the event dispatch thread. All
+ * methods must be called on the event dispatch thread.
+ */
+final class KeyStoreSave {
+    private static ResourceBundle res = ResourceBundle.getBundle("org/kse/gui/actions/resources");
+
+    private static final ExecutorService EXECUTOR = Executors.newFixedThreadPool(
+            Runtime.getRuntime().availableProcessors(), runnable -> {
+                Thread thread = new Thread(runnable, "KeyStore save");
+                thread.setDaemon(true);
+                return thread;
+            });
+
+    // Last save started for each file
+    private static final Map<File, CompletableFuture<Void>> LAST_WRITES = new HashMap<>();
+
+    // Saves that have not completed yet in the order in which they were started
+    private static final List<KeyStoreSave> PENDING = new ArrayList<>();
+
+    private final KseFrame kseFrame;
+    private final KeyStoreHistory history;
+    private final KeyStoreState state;
+    private final File saveFile;
+    private final Password password;
+    private final boolean newFile;
+    private final CompletableFuture<Void> write;
+    private final List<Consumer<Boolean>> listeners = new ArrayList<>();
+
+    private boolean done;
+    private boolean saved;
+
+    private KeyStoreSave(KseFrame kseFrame, KeyStoreHistory history, KeyStoreState state, File saveFile,
+                         Password password, boolean newFile) {
+        this.kseFrame = kseFrame;
+        this.history = history;
+        this.state = state;
+        this.saveFile = saveFile;
+        this.password = password;
+        this.newFile = newFile;
+
+        KeyStore keyStore = state.getKeyStore();
+        Password writePassword = new Password(password); // Copy as may be cleared while writing
+
+        File key = saveFile.getAbsoluteFile();
+        CompletableFuture<Void> previous = LAST_WRITES.getOrDefault(key, CompletableFuture.completedFuture(null));
+
+        write = previous.handle((result, ex) -> null).thenRunAsync(() -> {
+            try {
+                KeyStoreUtil.save(keyStore, saveFile, writePassword);
+            } catch (Exception ex) {
+                throw new CompletionException(ex);
+            } finally {
+                writePassword.nullPassword();
+            }
+        }, EXECUTOR);
+
+        LAST_WRITES.put(key, write);
+        PENDING.add(this);
+
+        write.whenComplete((result, ex) -> SwingUtilities.invokeLater(() -> {
+            LAST_WRITES.remove(key, write);
+            complete(ex);
+        }));
+    }
+
+    /**
+     * Start saving a state of a KeyStore.
+     *
+     * @param kseFrame KeyStore Explorer frame
+     * @param history  KeyStore history
+     * @param state    State to save
+     * @param saveFile File to save to
+     * @param password Password to protect the KeyStore with
+     * @param newFile  True if the KeyStore is saved to a different file than the one of its history
+     * @return The save
+     */
+    static KeyStoreSave start(KseFrame kseFrame, KeyStoreHistory history, KeyStoreState state, File saveFile,
+                              Password password, boolean newFile) {
+        return new KeyStoreSave(kseFrame, history, state, saveFile, password, newFile);
+    }
+
+    /**
+     * Get the history of the saved KeyStore.
+     *
+     * @return KeyStore history
+     */
+    KeyStoreHistory getHistory() {
+        return history;
+    }
+
+    /**
+     * Call the supplied listener once the save has completed, with true if the KeyStore was saved.
+     *
+     * @param listener Listener
+     */
+    void whenDone(Consumer<Boolean> listener) {
+        if (done) {
+            listener.accept(saved);
+        } else {
+            listeners.add(listener);
+        }
+    }
+
+    /**
+     * Wait for the save to complete. Blocks the event dispatch thread, for use where the caller cannot continue
+     * until the KeyStore has been saved, e.g. when closing it.
+     *
+     * @return True if the KeyStore was saved
+     */
+    boolean await() {
+        Throwable error = null;
+
+        try {
+            write.join();
+        } catch (CompletionException | CancellationException ex) {
+            error = ex;
+        }
+
+        return complete(error);
+    }
+
+    /**
+     * Wait for the saves of a KeyStore that have been started to complete, e.g. before it is closed and the
+     * passwords of its states are nulled. A failed save is reported before this returns.
+     *
+     * @param history KeyStore history
+     */
+    static void await(KeyStoreHistory history) {
+        for (KeyStoreSave save : new ArrayList<>(PENDING)) {
+            if (save.history == history) {
+                save.await();
+            }
+        }
+    }
+
+    /**
+     * Wait for all saves that have been started to complete, e.g. before exiting the application. A failed save is
+     * reported before this returns.
+     */
+    static void awaitAll() {
+        for (KeyStoreSave save : new ArrayList<>(PENDING)) {
+            save.await();
+        }
+    }
+
+    private boolean complete(Throwable error) {
+        if (done) {
+            return saved;
+        }
+
+        done = true;
+        PENDING.remove(this);
+
+        if (error == null) {
+            state.setPassword(password);
+
+            if (newFile) {
+                history.setFile(saveFile);
+                kseFrame.addRecentFile(saveFile);
+            }
+
+            state.setAsSavedState();
+            kseFrame.updateControls(false);
+
+            saved = true;
+        } else {
+            Throwable cause = (error instanceof CompletionException && error.getCause() != null) ?
+                              error.getCause() : error;
+
+            if (cause instanceof FileNotFoundException) {
+                String message = newFile ? res.getString("SaveAsAction.NoWriteFile.message") :
+                                 res.getString("SaveAction.NoWriteFile.message");
+                String title = newFile ? res.getString("SaveAsAction.SaveKeyStoreAs.Title") :
+                               res.getString("SaveAction.SaveKeyStore.Title");
+
+                JOptionPane.showMessageDialog(kseFrame.getUnderlyingFrame(), MessageFormat.format(message, saveFile),
+                                              title, JOptionPane.WARNING_MESSAGE);
+            } else {
+                DError.displayError(kseFrame.getUnderlyingFrame(), cause);
+            }
+        }
+
+        for (Consumer<Boolean> listener : listeners) {
+            listener.accept(saved);
+        }
+        listeners.clear();
+
+        return saved;
+    }
+}
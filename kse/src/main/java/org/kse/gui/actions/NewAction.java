@@ -23,12 +23,12 @@ import java.awt.Toolkit;
 import java.security.KeyStore;
 import java.text.MessageFormat;
 
-import javax.swing.ImageIcon;
 import javax.swing.KeyStroke;
 
 import org.kse.crypto.keystore.KeyStoreType;
 import org.kse.crypto.keystore.KeyStoreUtil;
 import org.kse.gui.KseFrame;
+import org.kse.gui.LazyImageIcon;
 import org.kse.gui.dialogs.DNewKeyStoreType;
 import org.kse.gui.error.DError;
 
@@ -52,8 +52,7 @@ public class NewAction extends KeyStoreExplorerAction {
         putValue(LONG_DESCRIPTION, res.getString("NewAction.statusbar"));
         putValue(NAME, res.getString("NewAction.text"));
         putValue(SHORT_DESCRIPTION, res.getString("NewAction.tooltip"));
-        putValue(SMALL_ICON,
-                 new ImageIcon(Toolkit.getDefaultToolkit().createImage(getClass().getResource("images/new.png"))));
+        putValue(SMALL_ICON, new LazyImageIcon(getClass().getResource("images/new.png")));
     }
 
     /**
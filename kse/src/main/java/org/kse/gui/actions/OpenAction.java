@@ -26,16 +26,17 @@ import java.security.KeyStore;
 import java.text.MessageFormat;
 import java.util.HashMap;
 
-import javax.swing.ImageIcon;
 import javax.swing.JFileChooser;
 import javax.swing.JOptionPane;
 import javax.swing.KeyStroke;
 
 import org.kse.crypto.keystore.KeyStoreLoadException;
-import org.kse.crypto.keystore.KeyStoreUtil;
+import org.kse.crypto.keystore.KeyStoreLoader;
 import org.kse.gui.CurrentDirectory;
 import org.kse.gui.FileChooserFactory;
 import org.kse.gui.KseFrame;
+import org.kse.gui.LazyImageIcon;
+import org.kse.gui.dialogs.DOpeningKeyStore;
 import org.kse.gui.error.DError;
 import org.kse.gui.error.DProblem;
 import org.kse.gui.error.Problem;
@@ -64,8 +65,7 @@ public class OpenAction extends KeyStoreExplorerAction {
         putValue(LONG_DESCRIPTION, res.getString("OpenAction.statusbar"));
         putValue(NAME, res.getString("OpenAction.text"));
         putValue(SHORT_DESCRIPTION, res.getString("OpenAction.tooltip"));
-        putValue(SMALL_ICON,
-                 new ImageIcon(Toolkit.getDefaultToolkit().createImage(getClass().getResource("images/open.png"))));
+        putValue(SMALL_ICON, new LazyImageIcon(getClass().getResource("images/open.png")));
     }
 
     /**
@@ -130,6 +130,9 @@ public class OpenAction extends KeyStoreExplorerAction {
                 password = (defaultPassword != null) ? new Password(defaultPassword.toCharArray()) : null;
             }
 
+            // The file is only read and its type detected once, every password attempt loads from the same bytes
+            KeyStoreLoader keyStoreLoader = new KeyStoreLoader(keyStoreFile);
+
             KeyStore openedKeyStore;
             boolean firstTry = true;
             while (true) {
@@ -153,7 +156,14 @@ public class OpenAction extends KeyStoreExplorerAction {
 
                 // try to load keystore
                 try {
-                    openedKeyStore = KeyStoreUtil.load(keyStoreFile, password);
+                    // Parse and decrypt off the EDT, a cancellable progress dialog is shown for slow KeyStores
+                    DOpeningKeyStore dOpeningKeyStore = new DOpeningKeyStore(frame, keyStoreLoader, password);
+                    dOpeningKeyStore.setLocationRelativeTo(frame);
+                    openedKeyStore = dOpeningKeyStore.openKeyStore();
+
+                    if (dOpeningKeyStore.isCancelled()) {
+                        return;
+                    }
 
                     // store password in password manager
                     if (passwordManagerWanted) {
@@ -189,7 +199,7 @@ public class OpenAction extends KeyStoreExplorerAction {
                 return;
             }
 
-            kseFrame.addKeyStore(openedKeyStore, keyStoreFile, password);
+            kseFrame.addKeyStore(openedKeyStore, keyStoreLoader, password);
             this.newKeyStoreWasAdded = true;
         } catch (FileNotFoundException ex) {
             JOptionPane.showMessageDialog(frame, MessageFormat.format(res.getString("OpenAction.NoReadFile.message"),
@@ -24,7 +24,6 @@ import java.awt.event.InputEvent;
 import java.io.File;
 import java.security.KeyStore;
 
-import javax.swing.ImageIcon;
 import javax.swing.JOptionPane;
 import javax.swing.KeyStroke;
 
@@ -32,6 +31,7 @@ import org.kse.AuthorityCertificates;
 import org.kse.crypto.keystore.KeyStoreType;
 import org.kse.crypto.keystore.KeyStoreUtil;
 import org.kse.gui.KseFrame;
+import org.kse.gui.LazyImageIcon;
 import org.kse.gui.dialogs.DNewKeyStoreType;
 import org.kse.gui.error.DError;
 import org.kse.gui.passwordmanager.Password;
@@ -57,8 +57,7 @@ public class OpenCaCertificatesAction extends OpenAction {
         putValue(LONG_DESCRIPTION, res.getString("OpenCaCertificatesAction.statusbar"));
         putValue(NAME, res.getString("OpenCaCertificatesAction.text"));
         putValue(SHORT_DESCRIPTION, res.getString("OpenCaCertificatesAction.tooltip"));
-        putValue(SMALL_ICON, new ImageIcon(
-                Toolkit.getDefaultToolkit().createImage(getClass().getResource("images/opencacerts.png"))));
+        putValue(SMALL_ICON, new LazyImageIcon(getClass().getResource("images/opencacerts.png")));
     }
 
     /**
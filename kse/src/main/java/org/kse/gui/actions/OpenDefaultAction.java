@@ -24,13 +24,13 @@ import java.awt.event.InputEvent;
 import java.io.File;
 import java.security.KeyStore;
 
-import javax.swing.ImageIcon;
 import javax.swing.JOptionPane;
 import javax.swing.KeyStroke;
 
 import org.kse.crypto.keystore.KeyStoreType;
 import org.kse.crypto.keystore.KeyStoreUtil;
 import org.kse.gui.KseFrame;
+import org.kse.gui.LazyImageIcon;
 import org.kse.gui.dialogs.DNewKeyStoreType;
 import org.kse.gui.error.DError;
 import org.kse.gui.passwordmanager.Password;
@@ -56,8 +56,7 @@ public class OpenDefaultAction extends OpenAction {
         putValue(LONG_DESCRIPTION, res.getString("OpenDefaultAction.statusbar"));
         putValue(NAME, res.getString("OpenDefaultAction.text"));
         putValue(SHORT_DESCRIPTION, res.getString("OpenDefaultAction.tooltip"));
-        putValue(SMALL_ICON, new ImageIcon(
-                Toolkit.getDefaultToolkit().createImage(getClass().getResource("images/opendefault.png"))));
+        putValue(SMALL_ICON, new LazyImageIcon(getClass().getResource("images/opendefault.png")));
     }
 
     /**
@@ -23,12 +23,12 @@ import java.awt.Toolkit;
 import java.awt.event.InputEvent;
 import java.security.KeyStore;
 
-import javax.swing.ImageIcon;
 import javax.swing.KeyStroke;
 
 import org.kse.crypto.keystore.KeyStoreUtil;
 import org.kse.crypto.keystore.MsCapiStoreType;
 import org.kse.gui.KseFrame;
+import org.kse.gui.LazyImageIcon;
 import org.kse.gui.error.DError;
 
 /**
@@ -53,8 +53,7 @@ public class OpenMsCapiAction extends OpenAction {
         putValue(LONG_DESCRIPTION, res.getString("OpenMsCapiAction.statusbar"));
         putValue(NAME, res.getString("OpenMsCapiAction.text"));
         putValue(SHORT_DESCRIPTION, res.getString("OpenMsCapiAction.tooltip"));
-        putValue(SMALL_ICON, new ImageIcon(
-                Toolkit.getDefaultToolkit().createImage(getClass().getResource("images/openmscapi.png"))));
+        putValue(SMALL_ICON, new LazyImageIcon(getClass().getResource("images/openmscapi.png")));
     }
 
     /**
@@ -27,10 +27,10 @@ import java.security.AuthProvider;
 import java.security.KeyStore;
 import java.security.Provider;
 
-import javax.swing.ImageIcon;
 import javax.swing.KeyStroke;
 
 import org.kse.gui.KseFrame;
+import org.kse.gui.LazyImageIcon;
 import org.kse.gui.dialogs.DOpenPkcs11KeyStore;
 import org.kse.gui.dialogs.PasswordCallbackHandler;
 import org.kse.gui.error.DError;
@@ -56,8 +56,7 @@ public class OpenPkcs11Action extends OpenAction {
         putValue(LONG_DESCRIPTION, res.getString("OpenPkcs11Action.statusbar"));
         putValue(NAME, res.getString("OpenPkcs11Action.text"));
         putValue(SHORT_DESCRIPTION, res.getString("OpenPkcs11Action.tooltip"));
-        putValue(SMALL_ICON, new ImageIcon(
-                Toolkit.getDefaultToolkit().createImage(getClass().getResource("images/openpkcs11.png"))));
+        putValue(SMALL_ICON, new LazyImageIcon(getClass().getResource("images/openpkcs11.png")));
     }
 
     /**
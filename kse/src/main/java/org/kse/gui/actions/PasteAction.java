@@ -28,13 +28,13 @@ import java.security.cert.Certificate;
 import java.text.MessageFormat;
 import java.util.List;
 
-import javax.swing.ImageIcon;
 import javax.swing.JOptionPane;
 import javax.swing.KeyStroke;
 
 import org.kse.gui.passwordmanager.Password;
 import org.kse.crypto.keystore.KeyStoreType;
 import org.kse.gui.KseFrame;
+import org.kse.gui.LazyImageIcon;
 import org.kse.gui.error.DError;
 import org.kse.utilities.buffer.Buffer;
 import org.kse.utilities.buffer.BufferEntry;
@@ -65,8 +65,7 @@ public class PasteAction extends KeyStoreExplorerAction implements HistoryAction
         putValue(LONG_DESCRIPTION, res.getString("PasteAction.statusbar"));
         putValue(NAME, res.getString("PasteAction.text"));
         putValue(SHORT_DESCRIPTION, res.getString("PasteAction.tooltip"));
-        putValue(SMALL_ICON,
-                 new ImageIcon(Toolkit.getDefaultToolkit().createImage(getClass().getResource("images/paste.png"))));
+        putValue(SMALL_ICON, new LazyImageIcon(getClass().getResource("images/paste.png")));
     }
 
     @Override
@@ -24,7 +24,6 @@ import static org.kse.utilities.net.ProxySettingsUpdater.updateSettings;
 import java.awt.Toolkit;
 import java.io.File;
 
-import javax.swing.ImageIcon;
 import javax.swing.JFrame;
 import javax.swing.JOptionPane;
 import javax.swing.KeyStroke;
@@ -33,6 +32,7 @@ import javax.swing.UIManager;
 import org.kse.AuthorityCertificates;
 import org.kse.crypto.csr.pkcs12.Pkcs12Util;
 import org.kse.gui.KseFrame;
+import org.kse.gui.LazyImageIcon;
 import org.kse.gui.preferences.DPreferences;
 
 import com.formdev.flatlaf.FlatLaf;
@@ -58,8 +58,7 @@ public class PreferencesAction extends ExitAction {
         putValue(LONG_DESCRIPTION, res.getString("PreferencesAction.statusbar"));
         putValue(NAME, res.getString("PreferencesAction.text"));
         putValue(SHORT_DESCRIPTION, res.getString("PreferencesAction.tooltip"));
-        putValue(SMALL_ICON, new ImageIcon(
-                Toolkit.getDefaultToolkit().createImage(getClass().getResource("images/preferences.png"))));
+        putValue(SMALL_ICON, new LazyImageIcon(getClass().getResource("images/preferences.png")));
     }
 
     /**
@@ -123,6 +122,9 @@ public class PreferencesAction extends ExitAction {
 
         preferences.setExpiryWarnDays(dPreferences.getExpiryWarnDays());
 
+        preferences.setUndoHistorySettings(dPreferences.getUndoHistorySettings());
+        kseFrame.applyUndoHistorySettings();
+
         preferences.setProxySettings(updateSettings(preferences.getProxySettings()));
 
         preferences.setNativeFileChooserEnabled(dPreferences.isNativeFileChooserEnabled());
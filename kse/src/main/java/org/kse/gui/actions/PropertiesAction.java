@@ -19,14 +19,13 @@
  */
 package org.kse.gui.actions;
 
-import java.awt.Toolkit;
 import java.awt.event.InputEvent;
 import java.awt.event.KeyEvent;
 
-import javax.swing.ImageIcon;
 import javax.swing.KeyStroke;
 
 import org.kse.gui.KseFrame;
+import org.kse.gui.LazyImageIcon;
 import org.kse.gui.dialogs.DProperties;
 import org.kse.gui.error.DError;
 import org.kse.utilities.history.KeyStoreHistory;
@@ -49,8 +48,7 @@ public class PropertiesAction extends KeyStoreExplorerAction {
         putValue(LONG_DESCRIPTION, res.getString("PropertiesAction.statusbar"));
         putValue(NAME, res.getString("PropertiesAction.text"));
         putValue(SHORT_DESCRIPTION, res.getString("PropertiesAction.tooltip"));
-        putValue(SMALL_ICON, new ImageIcon(
-                Toolkit.getDefaultToolkit().createImage(getClass().getResource("images/properties.png"))));
+        putValue(SMALL_ICON, new LazyImageIcon(getClass().getResource("images/properties.png")));
     }
 
     /**
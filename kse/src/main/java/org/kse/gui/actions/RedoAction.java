@@ -22,10 +22,10 @@ package org.kse.gui.actions;
 import java.awt.Toolkit;
 import java.text.MessageFormat;
 
-import javax.swing.ImageIcon;
 import javax.swing.KeyStroke;
 
 import org.kse.gui.KseFrame;
+import org.kse.gui.LazyImageIcon;
 import org.kse.gui.error.DError;
 import org.kse.utilities.history.KeyStoreHistory;
 import org.kse.utilities.history.KeyStoreState;
@@ -52,8 +52,7 @@ public class RedoAction extends KeyStoreExplorerAction {
         putValue(LONG_DESCRIPTION, res.getString("RedoAction.statusbar"));
         putValue(NAME, defaultName);
         putValue(SHORT_DESCRIPTION, res.getString("RedoAction.tooltip"));
-        putValue(SMALL_ICON,
-                 new ImageIcon(Toolkit.getDefaultToolkit().createImage(getClass().getResource("images/redo.png"))));
+        putValue(SMALL_ICON, new LazyImageIcon(getClass().getResource("images/redo.png")));
     }
 
     /**
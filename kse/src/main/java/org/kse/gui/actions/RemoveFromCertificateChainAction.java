@@ -19,17 +19,16 @@
  */
 package org.kse.gui.actions;
 
-import java.awt.Toolkit;
 import java.security.Key;
 import java.security.KeyStore;
 import java.security.cert.X509Certificate;
 
-import javax.swing.ImageIcon;
 import javax.swing.JOptionPane;
 
 import org.kse.gui.passwordmanager.Password;
 import org.kse.crypto.x509.X509CertUtil;
 import org.kse.gui.KseFrame;
+import org.kse.gui.LazyImageIcon;
 import org.kse.gui.error.DError;
 import org.kse.utilities.history.HistoryAction;
 import org.kse.utilities.history.KeyStoreHistory;
@@ -52,8 +51,7 @@ public class RemoveFromCertificateChainAction extends KeyStoreExplorerAction imp
         putValue(LONG_DESCRIPTION, res.getString("RemoveFromCertificateChainAction.statusbar"));
         putValue(NAME, res.getString("RemoveFromCertificateChainAction.text"));
         putValue(SHORT_DESCRIPTION, res.getString("RemoveFromCertificateChainAction.tooltip"));
-        putValue(SMALL_ICON, new ImageIcon(
-                Toolkit.getDefaultToolkit().createImage(getClass().getResource("images/removecert.png"))));
+        putValue(SMALL_ICON, new LazyImageIcon(getClass().getResource("images/removecert.png")));
     }
 
     @Override
@@ -19,16 +19,15 @@
  */
 package org.kse.gui.actions;
 
-import java.awt.Toolkit;
 import java.security.Key;
 import java.security.KeyStore;
 import java.text.MessageFormat;
 
-import javax.swing.ImageIcon;
 import javax.swing.JOptionPane;
 
 import org.kse.gui.passwordmanager.Password;
 import org.kse.gui.KseFrame;
+import org.kse.gui.LazyImageIcon;
 import org.kse.gui.dialogs.DGetAlias;
 import org.kse.gui.error.DError;
 import org.kse.utilities.history.HistoryAction;
@@ -52,8 +51,7 @@ public class RenameKeyAction extends KeyStoreExplorerAction implements HistoryAc
         putValue(LONG_DESCRIPTION, res.getString("RenameKeyAction.statusbar"));
         putValue(NAME, res.getString("RenameKeyAction.text"));
         putValue(SHORT_DESCRIPTION, res.getString("RenameKeyAction.tooltip"));
-        putValue(SMALL_ICON,
-                 new ImageIcon(Toolkit.getDefaultToolkit().createImage(getClass().getResource("images/rename.png"))));
+        putValue(SMALL_ICON, new LazyImageIcon(getClass().getResource("images/rename.png")));
     }
 
     @Override
@@ -19,18 +19,17 @@
  */
 package org.kse.gui.actions;
 
-import java.awt.Toolkit;
 import java.security.Key;
 import java.security.KeyStore;
 import java.security.cert.Certificate;
 import java.text.MessageFormat;
 
-import javax.swing.ImageIcon;
 import javax.swing.JOptionPane;
 
 import org.kse.gui.passwordmanager.Password;
 import org.kse.crypto.x509.X509CertUtil;
 import org.kse.gui.KseFrame;
+import org.kse.gui.LazyImageIcon;
 import org.kse.gui.dialogs.DGetAlias;
 import org.kse.gui.error.DError;
 import org.kse.utilities.history.HistoryAction;
@@ -54,8 +53,7 @@ public class RenameKeyPairAction extends KeyStoreExplorerAction implements Histo
         putValue(LONG_DESCRIPTION, res.getString("RenameKeyPairAction.statusbar"));
         putValue(NAME, res.getString("RenameKeyPairAction.text"));
         putValue(SHORT_DESCRIPTION, res.getString("RenameKeyPairAction.tooltip"));
-        putValue(SMALL_ICON,
-                 new ImageIcon(Toolkit.getDefaultToolkit().createImage(getClass().getResource("images/rename.png"))));
+        putValue(SMALL_ICON, new LazyImageIcon(getClass().getResource("images/rename.png")));
     }
 
     @Override
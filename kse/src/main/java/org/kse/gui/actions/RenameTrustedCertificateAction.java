@@ -19,15 +19,14 @@
  */
 package org.kse.gui.actions;
 
-import java.awt.Toolkit;
 import java.security.KeyStore;
 import java.security.cert.Certificate;
 import java.text.MessageFormat;
 
-import javax.swing.ImageIcon;
 import javax.swing.JOptionPane;
 
 import org.kse.gui.KseFrame;
+import org.kse.gui.LazyImageIcon;
 import org.kse.gui.dialogs.DGetAlias;
 import org.kse.gui.error.DError;
 import org.kse.utilities.history.HistoryAction;
@@ -51,8 +50,7 @@ public class RenameTrustedCertificateAction extends KeyStoreExplorerAction imple
         putValue(LONG_DESCRIPTION, res.getString("RenameTrustedCertificateAction.statusbar"));
         putValue(NAME, res.getString("RenameTrustedCertificateAction.text"));
         putValue(SHORT_DESCRIPTION, res.getString("RenameTrustedCertificateAction.tooltip"));
-        putValue(SMALL_ICON,
-                 new ImageIcon(Toolkit.getDefaultToolkit().createImage(getClass().getResource("images/rename.png"))));
+        putValue(SMALL_ICON, new LazyImageIcon(getClass().getResource("images/rename.png")));
     }
 
     @Override
@@ -21,15 +21,11 @@ package org.kse.gui.actions;
 
 import java.awt.Toolkit;
 import java.io.File;
-import java.io.FileNotFoundException;
-import java.text.MessageFormat;
 
-import javax.swing.ImageIcon;
-import javax.swing.JOptionPane;
 import javax.swing.KeyStroke;
 
-import org.kse.crypto.keystore.KeyStoreUtil;
 import org.kse.gui.KseFrame;
+import org.kse.gui.LazyImageIcon;
 import org.kse.gui.error.DError;
 import org.kse.gui.passwordmanager.Password;
 import org.kse.utilities.history.KeyStoreHistory;
@@ -54,8 +50,7 @@ public class SaveAction extends SaveAsAction {
         putValue(LONG_DESCRIPTION, res.getString("SaveAction.statusbar"));
         putValue(NAME, res.getString("SaveAction.text"));
         putValue(SHORT_DESCRIPTION, res.getString("SaveAction.tooltip"));
-        putValue(SMALL_ICON,
-                 new ImageIcon(Toolkit.getDefaultToolkit().createImage(getClass().getResource("images/save.png"))));
+        putValue(SMALL_ICON, new LazyImageIcon(getClass().getResource("images/save.png")));
     }
 
     /**
@@ -63,28 +58,45 @@ public class SaveAction extends SaveAsAction {
      */
     @Override
     protected void doAction() {
-        saveKeyStore(kseFrame.getActiveKeyStoreHistory());
+        KeyStoreSave save = startSaveKeyStore(kseFrame.getActiveKeyStoreHistory());
+
+        if (save != null) {
+            showSaveProgress(save);
+        }
     }
 
     /**
      * Save the supplied KeyStore back to the file it was originally opened
-     * from.
+     * from. Waits until the KeyStore has been written.
      *
      * @param history KeyStore history
      * @return True if the KeyStore is saved to disk, false otherwise
      */
     public boolean saveKeyStore(KeyStoreHistory history) {
-        File saveFile = null;
+        KeyStoreSave save = startSaveKeyStore(history);
+
+        return save != null && save.await();
+    }
 
+    /**
+     * Start saving the supplied KeyStore back to the file it was originally
+     * opened from. The current state of the KeyStore is written on a
+     * background thread, the KeyStore is only marked as saved once it has been
+     * written.
+     *
+     * @param history KeyStore history
+     * @return The started save or null if the KeyStore is not saved
+     */
+    protected KeyStoreSave startSaveKeyStore(KeyStoreHistory history) {
         try {
             KeyStoreState currentState = history.getCurrentState();
 
             kseFrame.focusOnKeyStore(currentState.getKeyStore());
 
-            saveFile = history.getFile();
+            File saveFile = history.getFile();
 
             if (saveFile == null) {
-                return saveKeyStoreAs(history);
+                return startSaveKeyStoreAs(history);
             }
 
             Password password = currentState.getPassword();
@@ -96,28 +108,16 @@ public class SaveAction extends SaveAsAction {
                     currentState = history.getCurrentState();
                     password = currentState.getPassword();
                 } else {
-                    return false;
+                    return null;
                 }
             }
 
             saveInPasswordManager(currentState, saveFile, password);
 
-            KeyStoreUtil.save(currentState.getKeyStore(), saveFile, password);
-
-            currentState.setPassword(password);
-            currentState.setAsSavedState();
-
-            kseFrame.updateControls(false);
-
-            return true;
-        } catch (FileNotFoundException ex) {
-            JOptionPane.showMessageDialog(frame, MessageFormat.format(res.getString("SaveAction.NoWriteFile.message"),
-                                                                      saveFile),
-                                          res.getString("SaveAction.SaveKeyStore.Title"), JOptionPane.WARNING_MESSAGE);
-            return false;
+            return KeyStoreSave.start(kseFrame, history, currentState, saveFile, password, false);
         } catch (Exception ex) {
             DError.displayError(frame, ex);
-            return false;
+            return null;
         }
     }
 }
@@ -21,11 +21,14 @@ package org.kse.gui.actions;
 
 import java.awt.Toolkit;
 import java.awt.event.InputEvent;
+import java.text.MessageFormat;
+import java.util.ArrayList;
+import java.util.List;
 
-import javax.swing.ImageIcon;
 import javax.swing.KeyStroke;
 
 import org.kse.gui.KseFrame;
+import org.kse.gui.LazyImageIcon;
 import org.kse.gui.error.DError;
 import org.kse.utilities.history.KeyStoreHistory;
 import org.kse.utilities.history.KeyStoreState;
@@ -50,8 +53,7 @@ public class SaveAllAction extends SaveAction {
         putValue(LONG_DESCRIPTION, res.getString("SaveAllAction.statusbar"));
         putValue(NAME, res.getString("SaveAllAction.text"));
         putValue(SHORT_DESCRIPTION, res.getString("SaveAllAction.tooltip"));
-        putValue(SMALL_ICON,
-                 new ImageIcon(Toolkit.getDefaultToolkit().createImage(getClass().getResource("images/saveall.png"))));
+        putValue(SMALL_ICON, new LazyImageIcon(getClass().getResource("images/saveall.png")));
     }
 
     /**
@@ -62,18 +64,55 @@ public class SaveAllAction extends SaveAction {
         try {
             KeyStoreHistory[] histories = kseFrame.getKeyStoreHistories();
 
+            // The KeyStores are written in parallel while the user is asked for the next file or password
+            List<KeyStoreSave> saves = new ArrayList<>();
+
             for (KeyStoreHistory history : histories) {
                 KeyStoreState currentState = history.getCurrentState();
 
                 // Does KeyStore require saving and has file been saved before?
                 if (!currentState.isSavedState()) {
-                    if (!saveKeyStore(history)) {
+                    KeyStoreSave save = startSaveKeyStore(history);
+
+                    if (save == null) {
                         break;
                     }
+
+                    saves.add(save);
                 }
             }
+
+            if (!saves.isEmpty()) {
+                showSaveAllProgress(saves);
+            }
         } catch (Exception ex) {
             DError.displayError(frame, ex);
         }
     }
+
+    private void showSaveAllProgress(List<KeyStoreSave> saves) {
+        int total = saves.size();
+        int[] completed = new int[1];
+        int[] saved = new int[1];
+
+        kseFrame.setStatusBarText(MessageFormat.format(res.getString("SaveAllAction.Saving.statusbar"), 0, total));
+
+        for (KeyStoreSave save : saves) {
+            save.whenDone(success -> {
+                completed[0]++;
+
+                if (success) {
+                    saved[0]++;
+                }
+
+                if (completed[0] < total) {
+                    kseFrame.setStatusBarText(MessageFormat.format(res.getString("SaveAllAction.Saving.statusbar"),
+                                                                   completed[0], total));
+                } else {
+                    kseFrame.setStatusBarText(MessageFormat.format(res.getString("SaveAllAction.Saved.statusbar"),
+                                                                   saved[0], total));
+                }
+            });
+        }
+    }
 }
@@ -22,18 +22,16 @@ package org.kse.gui.actions;
 import java.awt.Toolkit;
 import java.awt.event.InputEvent;
 import java.io.File;
-import java.io.FileNotFoundException;
 import java.text.MessageFormat;
 
-import javax.swing.ImageIcon;
 import javax.swing.JFileChooser;
 import javax.swing.JOptionPane;
 import javax.swing.KeyStroke;
 
-import org.kse.crypto.keystore.KeyStoreUtil;
 import org.kse.gui.CurrentDirectory;
 import org.kse.gui.FileChooserFactory;
 import org.kse.gui.KseFrame;
+import org.kse.gui.LazyImageIcon;
 import org.kse.gui.error.DError;
 import org.kse.gui.passwordmanager.Password;
 import org.kse.utilities.history.KeyStoreHistory;
@@ -59,8 +57,7 @@ public class SaveAsAction extends KeyStoreExplorerAction {
         putValue(LONG_DESCRIPTION, res.getString("SaveAsAction.statusbar"));
         putValue(NAME, res.getString("SaveAsAction.text"));
         putValue(SHORT_DESCRIPTION, res.getString("SaveAsAction.tooltip"));
-        putValue(SMALL_ICON,
-                 new ImageIcon(Toolkit.getDefaultToolkit().createImage(getClass().getResource("images/saveas.png"))));
+        putValue(SMALL_ICON, new LazyImageIcon(getClass().getResource("images/saveas.png")));
     }
 
     /**
@@ -68,19 +65,37 @@ public class SaveAsAction extends KeyStoreExplorerAction {
      */
     @Override
     protected void doAction() {
-        saveKeyStoreAs(kseFrame.getActiveKeyStoreHistory());
+        KeyStoreSave save = startSaveKeyStoreAs(kseFrame.getActiveKeyStoreHistory());
+
+        if (save != null) {
+            showSaveProgress(save);
+        }
     }
 
     /**
      * Save the supplied opened KeyStore to disk to what may be a different file
-     * from the one it was opened from (if any).
+     * from the one it was opened from (if any). Waits until the KeyStore has
+     * been written.
      *
      * @param history KeyStore history
      * @return True if the KeyStore is saved to disk, false otherwise
      */
     protected boolean saveKeyStoreAs(KeyStoreHistory history) {
-        File saveFile = null;
+        KeyStoreSave save = startSaveKeyStoreAs(history);
 
+        return save != null && save.await();
+    }
+
+    /**
+     * Start saving the supplied opened KeyStore to disk to what may be a
+     * different file from the one it was opened from (if any). The user is
+     * asked for the file and, if required, a password before the current state
+     * of the KeyStore is written on a background thread.
+     *
+     * @param history KeyStore history
+     * @return The started save or null if the KeyStore is not saved
+     */
+    protected KeyStoreSave startSaveKeyStoreAs(KeyStoreHistory history) {
         try {
             KeyStoreState currentState = history.getCurrentState();
 
@@ -93,7 +108,7 @@ public class SaveAsAction extends KeyStoreExplorerAction {
                     currentState = history.getCurrentState();
                     password = currentState.getPassword();
                 } else {
-                    return false;
+                    return null;
                 }
             }
 
@@ -104,9 +119,9 @@ public class SaveAsAction extends KeyStoreExplorerAction {
 
             int rtnValue = chooser.showSaveDialog(frame);
             if (rtnValue != JFileChooser.APPROVE_OPTION) {
-                return false;
+                return null;
             }
-            saveFile = chooser.getSelectedFile();
+            File saveFile = chooser.getSelectedFile();
             CurrentDirectory.updateForFile(saveFile);
 
             // TODO check for response if JavaFX file dialog (because overwrite dialog is shown 2x)
@@ -117,7 +132,7 @@ public class SaveAsAction extends KeyStoreExplorerAction {
                                                              res.getString("SaveAsAction.SaveKeyStoreAs.Title"),
                                                              JOptionPane.YES_NO_OPTION);
                 if (selected != JOptionPane.YES_OPTION) {
-                    return false;
+                    return null;
                 }
             }
 
@@ -125,31 +140,36 @@ public class SaveAsAction extends KeyStoreExplorerAction {
                 JOptionPane.showMessageDialog(frame, res.getString("SaveAsAction.NoSaveKeyStoreAlreadyOpen.message"),
                                               res.getString("SaveAsAction.SaveKeyStoreAs.Title"),
                                               JOptionPane.WARNING_MESSAGE);
-                return false;
+                return null;
             }
 
             saveInPasswordManager(currentState, saveFile, password);
 
-            KeyStoreUtil.save(currentState.getKeyStore(), saveFile, password);
-
-            currentState.setPassword(password);
-            history.setFile(saveFile);
-            currentState.setAsSavedState();
-
-            kseFrame.updateControls(false);
-
-            kseFrame.addRecentFile(saveFile);
-
-            return true;
-        } catch (FileNotFoundException ex) {
-            JOptionPane.showMessageDialog(frame, MessageFormat.format(res.getString("SaveAsAction.NoWriteFile.message"),
-                                                                      saveFile),
-                                          res.getString("SaveAsAction.SaveKeyStoreAs.Title"),
-                                          JOptionPane.WARNING_MESSAGE);
-            return false;
+            return KeyStoreSave.start(kseFrame, history, currentState, saveFile, password, true);
         } catch (Exception ex) {
             DError.displayError(frame, ex);
-            return false;
+            return null;
         }
     }
+
+    /**
+     * Show the progress of saving a KeyStore in the status bar.
+     *
+     * @param save The save
+     */
+    protected void showSaveProgress(KeyStoreSave save) {
+        String name = save.getHistory().getName();
+
+        kseFrame.setStatusBarText(MessageFormat.format(res.getString("SaveAsAction.Saving.statusbar"), name));
+
+        save.whenDone(saved -> {
+            if (saved) {
+                // Name may have changed with the file
+                kseFrame.setStatusBarText(MessageFormat.format(res.getString("SaveAsAction.Saved.statusbar"),
+                                                               save.getHistory().getName()));
+            } else {
+                kseFrame.setDefaultStatusBarText();
+            }
+        });
+    }
 }
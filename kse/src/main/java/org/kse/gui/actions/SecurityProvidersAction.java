@@ -19,11 +19,8 @@
  */
 package org.kse.gui.actions;
 
-import java.awt.Toolkit;
-
-import javax.swing.ImageIcon;
-
 import org.kse.gui.KseFrame;
+import org.kse.gui.LazyImageIcon;
 import org.kse.gui.crypto.DProviderInfo;
 
 /**
@@ -43,8 +40,7 @@ public class SecurityProvidersAction extends KeyStoreExplorerAction {
         putValue(LONG_DESCRIPTION, res.getString("SecurityProvidersAction.statusbar"));
         putValue(NAME, res.getString("SecurityProvidersAction.text"));
         putValue(SHORT_DESCRIPTION, res.getString("SecurityProvidersAction.tooltip"));
-        putValue(SMALL_ICON,
-                 new ImageIcon(Toolkit.getDefaultToolkit().createImage(getClass().getResource("images/secprov.png"))));
+        putValue(SMALL_ICON, new LazyImageIcon(getClass().getResource("images/secprov.png")));
     }
 
     /**
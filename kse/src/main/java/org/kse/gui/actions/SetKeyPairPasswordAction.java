@@ -21,18 +21,17 @@ package org.kse.gui.actions;
 
 import static java.awt.Dialog.ModalityType.DOCUMENT_MODAL;
 
-import java.awt.Toolkit;
 import java.security.GeneralSecurityException;
 import java.security.Key;
 import java.security.KeyStore;
 import java.security.cert.Certificate;
 import java.text.MessageFormat;
 
-import javax.swing.ImageIcon;
 import javax.swing.JOptionPane;
 
 import org.kse.crypto.x509.X509CertUtil;
 import org.kse.gui.KseFrame;
+import org.kse.gui.LazyImageIcon;
 import org.kse.gui.error.DError;
 import org.kse.gui.error.DProblem;
 import org.kse.gui.error.Problem;
@@ -60,8 +59,7 @@ public class SetKeyPairPasswordAction extends KeyStoreExplorerAction implements
         putValue(LONG_DESCRIPTION, res.getString("SetKeyPairPasswordAction.statusbar"));
         putValue(NAME, res.getString("SetKeyPairPasswordAction.text"));
         putValue(SHORT_DESCRIPTION, res.getString("SetKeyPairPasswordAction.tooltip"));
-        putValue(SMALL_ICON,
-                 new ImageIcon(Toolkit.getDefaultToolkit().createImage(getClass().getResource("images/setpass.png"))));
+        putValue(SMALL_ICON, new LazyImageIcon(getClass().getResource("images/setpass.png")));
     }
 
     @Override
@@ -21,16 +21,15 @@ package org.kse.gui.actions;
 
 import static java.awt.Dialog.ModalityType.DOCUMENT_MODAL;
 
-import java.awt.Toolkit;
 import java.security.GeneralSecurityException;
 import java.security.Key;
 import java.security.KeyStore;
 import java.text.MessageFormat;
 
-import javax.swing.ImageIcon;
 import javax.swing.JOptionPane;
 
 import org.kse.gui.KseFrame;
+import org.kse.gui.LazyImageIcon;
 import org.kse.gui.error.DError;
 import org.kse.gui.error.DProblem;
 import org.kse.gui.error.Problem;
@@ -58,8 +57,7 @@ public class SetKeyPasswordAction extends KeyStoreExplorerAction implements Hist
         putValue(LONG_DESCRIPTION, res.getString("SetKeyPasswordAction.statusbar"));
         putValue(NAME, res.getString("SetKeyPasswordAction.text"));
         putValue(SHORT_DESCRIPTION, res.getString("SetKeyPasswordAction.tooltip"));
-        putValue(SMALL_ICON,
-                 new ImageIcon(Toolkit.getDefaultToolkit().createImage(getClass().getResource("images/setpass.png"))));
+        putValue(SMALL_ICON, new LazyImageIcon(getClass().getResource("images/setpass.png")));
     }
 
     @Override
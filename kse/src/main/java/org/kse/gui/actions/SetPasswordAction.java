@@ -22,12 +22,12 @@ package org.kse.gui.actions;
 import java.awt.Toolkit;
 import java.io.File;
 
-import javax.swing.ImageIcon;
 import javax.swing.JOptionPane;
 import javax.swing.KeyStroke;
 
 import org.kse.crypto.CryptoException;
 import org.kse.gui.KseFrame;
+import org.kse.gui.LazyImageIcon;
 import org.kse.gui.error.DError;
 import org.kse.gui.passwordmanager.Password;
 import org.kse.gui.passwordmanager.PasswordManager;
@@ -54,8 +54,7 @@ public class SetPasswordAction extends KeyStoreExplorerAction implements History
         putValue(LONG_DESCRIPTION, res.getString("SetPasswordAction.statusbar"));
         putValue(NAME, res.getString("SetPasswordAction.text"));
         putValue(SHORT_DESCRIPTION, res.getString("SetPasswordAction.tooltip"));
-        putValue(SMALL_ICON,
-                 new ImageIcon(Toolkit.getDefaultToolkit().createImage(getClass().getResource("images/setpass.png"))));
+        putValue(SMALL_ICON, new LazyImageIcon(getClass().getResource("images/setpass.png")));
     }
 
     @Override
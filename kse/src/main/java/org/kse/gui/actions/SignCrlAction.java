@@ -22,15 +22,14 @@ package org.kse.gui.actions;
 
 import static org.kse.crypto.SecurityProvider.BOUNCY_CASTLE;
 
-import java.awt.Toolkit;
-import java.io.ByteArrayInputStream;
+import java.io.BufferedOutputStream;
 import java.io.File;
 import java.io.FileInputStream;
-import java.io.FileNotFoundException;
 import java.io.FileOutputStream;
 import java.io.IOException;
-import java.io.InputStream;
+import java.io.OutputStream;
 import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
 import java.security.InvalidKeyException;
 import java.security.KeyStore;
 import java.security.NoSuchAlgorithmException;
@@ -40,36 +39,32 @@ import java.security.SignatureException;
 import java.security.cert.CRLException;
 import java.security.cert.X509CRL;
 import java.security.cert.X509Certificate;
+import java.util.ArrayList;
+import java.util.Base64;
 import java.util.Date;
+import java.util.List;
 import java.util.Map;
 
-import javax.swing.ImageIcon;
 import javax.swing.JOptionPane;
 
 import org.apache.commons.io.IOUtils;
-import org.bouncycastle.asn1.x509.CRLNumber;
-import org.bouncycastle.asn1.x509.Extension;
-import org.bouncycastle.cert.X509CRLHolder;
-import org.bouncycastle.cert.X509v2CRLBuilder;
-import org.bouncycastle.cert.jcajce.JcaX509CRLConverter;
-import org.bouncycastle.cert.jcajce.JcaX509ExtensionUtils;
-import org.bouncycastle.cert.jcajce.JcaX509v2CRLBuilder;
-import org.bouncycastle.operator.OperatorCreationException;
+import org.apache.commons.io.output.CloseShieldOutputStream;
+import org.bouncycastle.operator.ContentSigner;
 import org.bouncycastle.operator.jcajce.JcaContentSignerBuilder;
-import org.kse.KSE;
 import org.kse.crypto.CryptoException;
 import org.kse.gui.passwordmanager.Password;
 import org.kse.crypto.keypair.KeyPairType;
 import org.kse.crypto.keypair.KeyPairUtil;
+import org.kse.crypto.x509.CrlDatabase;
 import org.kse.crypto.x509.X509CertUtil;
 import org.kse.gui.KseFrame;
+import org.kse.gui.LazyImageIcon;
 import org.kse.gui.dialogs.importexport.DExportCrl;
 import org.kse.gui.dialogs.sign.DSignCrl;
 import org.kse.gui.dialogs.sign.RevokedEntry;
 import org.kse.gui.error.DError;
 import org.kse.utilities.history.KeyStoreHistory;
 import org.kse.utilities.history.KeyStoreState;
-import org.kse.utilities.pem.PemInfo;
 import org.kse.utilities.pem.PemUtil;
 
 /**
@@ -78,6 +73,8 @@ import org.kse.utilities.pem.PemUtil;
 public class SignCrlAction extends KeyStoreExplorerAction {
     private static final long serialVersionUID = 1L;
 
+    private static final String CRL_PEM_TYPE = "X509 CRL";
+
     /**
      * Construct action.
      *
@@ -89,8 +86,7 @@ public class SignCrlAction extends KeyStoreExplorerAction {
         putValue(LONG_DESCRIPTION, res.getString("SignCrlAction.statusbar"));
         putValue(NAME, res.getString("SignCrlAction.text"));
         putValue(SHORT_DESCRIPTION, res.getString("SignCrlAction.tooltip"));
-        putValue(SMALL_ICON,
-                 new ImageIcon(Toolkit.getDefaultToolkit().createImage(getClass().getResource("images/signcrl.png"))));
+        putValue(SMALL_ICON, new LazyImageIcon(getClass().getResource("images/signcrl.png")));
     }
 
     @Override
@@ -119,32 +115,30 @@ public class SignCrlAction extends KeyStoreExplorerAction {
 
             KeyPairType keyPairType = KeyPairUtil.getKeyPairType(privateKey);
 
-            File filePrevious = getFilePrevious(certs[0], history);
-
-            X509CRL x509CRL = loadPreviousCrl(filePrevious, certs[0]);
-
-            DSignCrl dSignCrl = new DSignCrl(frame, kseFrame, keyPairType, privateKey, certs[0], x509CRL);
-            dSignCrl.setLocationRelativeTo(frame);
-            dSignCrl.setVisible(true);
-            Date effectiveDate = dSignCrl.getEffectiveDate();
-            if (effectiveDate != null) {
-                Date nextUpdate = dSignCrl.getNextUpdate();
-                BigInteger crlNumber = dSignCrl.getCrlNumber();
-                String signatureAlgorithm = dSignCrl.getSignatureType().jce();
-                Map<BigInteger, RevokedEntry> mapRevoked = dSignCrl.getMapRevokedEntry();
-
-                x509CRL = signCrl(crlNumber, effectiveDate, nextUpdate, certs[0], privateKey, signatureAlgorithm,
-                                  mapRevoked, provider);
-                String newFileName = X509CertUtil.getShortName(certs[0]).toLowerCase();
-                DExportCrl dExportCrl = new DExportCrl(frame, newFileName);
-                dExportCrl.setLocationRelativeTo(frame);
-                dExportCrl.setVisible(true);
-                if (dExportCrl.exportSelected()) {
-                    exportFile(x509CRL, filePrevious, false);// export CRL .db
-                    exportFile(x509CRL, dExportCrl.getExportFile(), dExportCrl.pemEncode());// export file .crl
-                    JOptionPane.showMessageDialog(frame, res.getString("SignCrlAction.SignCrlSuccessful.message"),
-                                                  res.getString("SignCrlAction.SignCrl.Title"),
-                                                  JOptionPane.INFORMATION_MESSAGE);
+            try (CrlDatabase crlDatabase = openCrlDatabase(certs[0], history)) {
+                DSignCrl dSignCrl = new DSignCrl(frame, kseFrame, keyPairType, privateKey, certs[0], crlDatabase);
+                dSignCrl.setLocationRelativeTo(frame);
+                dSignCrl.setVisible(true);
+                Date effectiveDate = dSignCrl.getEffectiveDate();
+                if (effectiveDate != null) {
+                    String newFileName = X509CertUtil.getShortName(certs[0]).toLowerCase();
+                    DExportCrl dExportCrl = new DExportCrl(frame, newFileName);
+                    dExportCrl.setLocationRelativeTo(frame);
+                    dExportCrl.setVisible(true);
+                    if (dExportCrl.exportSelected()) {
+                        updateCrlDatabase(crlDatabase, dSignCrl.getMapRevokedEntry());
+
+                        ContentSigner signer = new JcaContentSignerBuilder(dSignCrl.getSignatureType().jce())
+                                .setProvider(provider).build(privateKey);
+
+                        signCrl(crlDatabase, certs[0], signer, effectiveDate, dSignCrl.getNextUpdate(),
+                                dSignCrl.getCrlNumber(), dSignCrl.isDeltaCrl(), dExportCrl.getExportFile(),
+                                dExportCrl.pemEncode());
+
+                        JOptionPane.showMessageDialog(frame, res.getString("SignCrlAction.SignCrlSuccessful.message"),
+                                                      res.getString("SignCrlAction.SignCrl.Title"),
+                                                      JOptionPane.INFORMATION_MESSAGE);
+                    }
                 }
             }
         } catch (Exception ex) {
@@ -152,21 +146,36 @@ public class SignCrlAction extends KeyStoreExplorerAction {
         }
     }
 
-    private File getFilePrevious(X509Certificate caCert, KeyStoreHistory history) {
+    private CrlDatabase openCrlDatabase(X509Certificate caCert, KeyStoreHistory history)
+            throws CryptoException, IOException {
         String serial = caCert.getSerialNumber().toString(16);
-        String pathFile = history.getPath();
-        File fileParent = new File(pathFile);
-        if (fileParent.getParentFile() == null) {
-            return null;
+        File fileParent = new File(history.getPath()).getParentFile();
+
+        if (fileParent == null) {
+            // revocations of a KeyStore that has not been saved yet are not kept
+            File file = File.createTempFile("kse", ".crldb");
+            file.deleteOnExit();
+            return CrlDatabase.open(file);
         }
-        String path = fileParent.getParentFile().getAbsolutePath();
-        String newPath = path + File.separator + serial + ".db";
-        File filePrevious = new File(newPath);
-        return filePrevious;
+
+        File file = new File(fileParent, serial + ".crldb");
+        if (file.exists()) {
+            return CrlDatabase.open(file);
+        }
+
+        CrlDatabase crlDatabase = CrlDatabase.open(file);
+
+        // take over the revocations from the last CRL that was kept before there was a database
+        X509CRL previousCrl = loadPreviousCrl(new File(fileParent, serial + ".db"), caCert);
+        if (previousCrl != null) {
+            crlDatabase.importCrl(previousCrl);
+        }
+
+        return crlDatabase;
     }
 
     private X509CRL loadPreviousCrl(File filePrevious, X509Certificate caCert) {
-        if (filePrevious == null) {
+        if (!filePrevious.isFile()) {
             return null;
         }
         try (FileInputStream is = new FileInputStream(filePrevious)) {
@@ -179,53 +188,47 @@ public class SignCrlAction extends KeyStoreExplorerAction {
         return null;
     }
 
-    private X509CRL signCrl(BigInteger number, Date effectiveDate, Date nextUpdate, X509Certificate caCert,
-                            PrivateKey caPrivateKey, String signatureAlgorithm,
-                            Map<BigInteger, RevokedEntry> mapRevokedCertificate, String provider)
-            throws NoSuchAlgorithmException, OperatorCreationException, CRLException, IOException {
-
-        X509v2CRLBuilder crlGen = new JcaX509v2CRLBuilder(caCert.getSubjectX500Principal(), effectiveDate);
-        crlGen.setNextUpdate(nextUpdate);
-
-        if (mapRevokedCertificate != null) {
-
-            for (Map.Entry<BigInteger, RevokedEntry> pair : mapRevokedCertificate.entrySet()) {
-                RevokedEntry entry = pair.getValue();
-                crlGen.addCRLEntry(entry.getUserCertificateSerial(), entry.getRevocationDate(), entry.getReason());
+    private void updateCrlDatabase(CrlDatabase crlDatabase, Map<BigInteger, RevokedEntry> mapRevokedCertificate)
+            throws IOException {
+        List<BigInteger> unrevoked = new ArrayList<>();
+        for (CrlDatabase.Entry entry : crlDatabase.getEntries()) {
+            if (!mapRevokedCertificate.containsKey(entry.getSerialNumber())) {
+                unrevoked.add(entry.getSerialNumber());
             }
         }
-        JcaX509ExtensionUtils extUtils = new JcaX509ExtensionUtils();
-
-        crlGen.addExtension(Extension.authorityKeyIdentifier, false,
-                            extUtils.createAuthorityKeyIdentifier(caCert.getPublicKey()));
-
-        crlGen.addExtension(Extension.cRLNumber, false, new CRLNumber(number));
+        for (BigInteger serialNumber : unrevoked) {
+            crlDatabase.unrevoke(serialNumber);
+        }
 
-        X509CRLHolder crl = crlGen.build(
-                new JcaContentSignerBuilder(signatureAlgorithm).setProvider(provider).build(caPrivateKey));
-        return new JcaX509CRLConverter().setProvider(KSE.BC).getCRL(crl);
+        // only changed revocations are written
+        for (RevokedEntry entry : mapRevokedCertificate.values()) {
+            crlDatabase.revoke(entry.getUserCertificateSerial(), entry.getRevocationDate(), entry.getReason());
+        }
     }
 
-    private void exportFile(X509CRL x509CRL, File fileExported, boolean pemEncode)
-            throws FileNotFoundException, IOException, CRLException {
+    private void signCrl(CrlDatabase crlDatabase, X509Certificate caCert, ContentSigner signer, Date effectiveDate,
+                         Date nextUpdate, BigInteger crlNumber, boolean deltaCrl, File fileExported,
+                         boolean pemEncode) throws CryptoException, IOException {
+
+        try (OutputStream os = new BufferedOutputStream(new FileOutputStream(fileExported))) {
+            OutputStream crlOs = os;
+            if (pemEncode) {
+                String header = PemUtil.PEM_BEGIN_MARKER + CRL_PEM_TYPE + PemUtil.PEM_FIVE_DASHES + "\n";
+                os.write(header.getBytes(StandardCharsets.US_ASCII));
+                // same line length as PemUtil.encode()
+                crlOs = Base64.getMimeEncoder(64, new byte[] { '\n' }).wrap(CloseShieldOutputStream.wrap(os));
+            }
 
-        if (fileExported == null) {
-            return;
-        }
-        byte[] data = null;
-        if (pemEncode) {
-            PemInfo pemInfo = new PemInfo("X509 CRL", null, x509CRL.getEncoded());
-            data = PemUtil.encode(pemInfo).getBytes();
-        } else {
-            data = x509CRL.getEncoded();
-        }
-        try (InputStream in = new ByteArrayInputStream(data)) {
-            int length;
-            byte[] buffer = new byte[1024];
-            try (FileOutputStream fileOutputStream = new FileOutputStream(fileExported)) {
-                while ((length = in.read(buffer)) != -1) {
-                    fileOutputStream.write(buffer, 0, length);
-                }
+            if (deltaCrl) {
+                crlDatabase.writeDeltaCrl(caCert, signer, effectiveDate, nextUpdate, crlNumber, crlOs);
+            } else {
+                crlDatabase.writeCrl(caCert, signer, effectiveDate, nextUpdate, crlNumber, crlOs);
+            }
+
+            if (pemEncode) {
+                crlOs.close();
+                String footer = "\n" + PemUtil.PEM_END_MARKER + CRL_PEM_TYPE + PemUtil.PEM_FIVE_DASHES + "\n";
+                os.write(footer.getBytes(StandardCharsets.US_ASCII));
             }
         }
     }
@@ -19,7 +19,6 @@
  */
 package org.kse.gui.actions;
 
-import java.awt.Toolkit;
 import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.FileOutputStream;
@@ -31,9 +30,10 @@ import java.security.PublicKey;
 import java.security.cert.Certificate;
 import java.security.cert.X509Certificate;
 import java.text.MessageFormat;
+import java.util.Arrays;
 import java.util.Date;
+import java.util.List;
 
-import javax.swing.ImageIcon;
 import javax.swing.JFileChooser;
 import javax.swing.JOptionPane;
 
@@ -41,6 +41,7 @@ import org.apache.commons.io.FileUtils;
 import org.bouncycastle.asn1.x500.X500Name;
 import org.bouncycastle.pkcs.PKCS10CertificationRequest;
 import org.kse.gui.passwordmanager.Password;
+import org.kse.crypto.csr.CsrBatchSigner;
 import org.kse.crypto.csr.pkcs10.Pkcs10Util;
 import org.kse.crypto.csr.spkac.Spkac;
 import org.kse.crypto.filetype.CryptoFileType;
@@ -56,11 +57,15 @@ import org.kse.crypto.x509.X509ExtensionSet;
 import org.kse.gui.CurrentDirectory;
 import org.kse.gui.FileChooserFactory;
 import org.kse.gui.KseFrame;
+import org.kse.gui.LazyImageIcon;
 import org.kse.gui.dialogs.importexport.DExportCertificates;
 import org.kse.gui.dialogs.sign.DSignCsr;
+import org.kse.gui.dialogs.sign.DSignCsrBatch;
+import org.kse.gui.dialogs.sign.DSignCsrBatchSigning;
 import org.kse.gui.error.DError;
 import org.kse.gui.error.DProblem;
 import org.kse.gui.error.Problem;
+import org.kse.gui.preferences.PreferencesManager;
 import org.kse.utilities.history.KeyStoreHistory;
 import org.kse.utilities.history.KeyStoreState;
 import org.kse.utilities.io.FileNameUtil;
@@ -82,8 +87,7 @@ public class SignCsrAction extends KeyStoreExplorerAction {
         putValue(LONG_DESCRIPTION, res.getString("SignCsrAction.statusbar"));
         putValue(NAME, res.getString("SignCsrAction.text"));
         putValue(SHORT_DESCRIPTION, res.getString("SignCsrAction.tooltip"));
-        putValue(SMALL_ICON,
-                 new ImageIcon(Toolkit.getDefaultToolkit().createImage(getClass().getResource("images/signcsr.png"))));
+        putValue(SMALL_ICON, new LazyImageIcon(getClass().getResource("images/signcsr.png")));
     }
 
     /**
@@ -116,11 +120,18 @@ public class SignCsrAction extends KeyStoreExplorerAction {
             signingChain = X509CertUtil.orderX509CertChain(X509CertUtil.convertCertificates(certs));
             signingCert = signingChain[0];
 
-            File csrFile = chooseCsrFile();
-            if (csrFile == null) {
+            File[] csrFiles = chooseCsrFiles();
+            if (csrFiles == null) {
                 return;
             }
 
+            // several CSRs are signed as a batch with the same options
+            if (csrFiles.length > 1) {
+                signCsrBatch(history, Arrays.asList(csrFiles), signingChain, privateKey, keyPairType);
+                return;
+            }
+
+            File csrFile = csrFiles[0];
             dSignCsr = createSignDialogFromCsrFile(csrFile, privateKey, keyPairType, signingCert);
             if (dSignCsr == null) {
                 return;
@@ -303,18 +314,70 @@ public class SignCsrAction extends KeyStoreExplorerAction {
         }
     }
 
-    private File chooseCsrFile() {
+    private void signCsrBatch(KeyStoreHistory history, List<File> csrFiles, X509Certificate[] signingChain,
+                              PrivateKey privateKey, KeyPairType keyPairType) {
+        DSignCsrBatch dSignCsrBatch = new DSignCsrBatch(frame, csrFiles, privateKey, keyPairType);
+        dSignCsrBatch.setLocationRelativeTo(frame);
+        dSignCsrBatch.setVisible(true);
+
+        // Dialog was cancelled...
+        if (dSignCsrBatch.getVersion() == null) {
+            return;
+        }
+
+        CsrBatchSigner signer = new CsrBatchSigner(privateKey, signingChain, dSignCsrBatch.getSignatureType(),
+                                                   history.getExplicitProvider());
+        signer.setVersion(dSignCsrBatch.getVersion());
+        signer.setValidity(dSignCsrBatch.getValidityStart(), dSignCsrBatch.getValidityEnd());
+        signer.setExtensionTemplate(dSignCsrBatch.getExtensionTemplate());
+        signer.setTransferCsrExtensions(dSignCsrBatch.isTransferExtensions());
+        signer.setSerialNumberLength(PreferencesManager.getPreferences().getSerialNumberLengthInBytes());
+        signer.setOutputFormat(dSignCsrBatch.isPemEncode(), dSignCsrBatch.isIncludeChain());
+
+        List<File> batchCsrFiles = dSignCsrBatch.getCsrFiles();
+        DSignCsrBatchSigning dSignCsrBatchSigning = new DSignCsrBatchSigning(frame, signer, batchCsrFiles,
+                                                                             dSignCsrBatch.getOutputDirectory());
+        dSignCsrBatchSigning.setLocationRelativeTo(frame);
+        dSignCsrBatchSigning.setVisible(true);
+
+        CsrBatchSigner.Summary summary = dSignCsrBatchSigning.getSummary();
+        if (summary == null) {
+            return;
+        }
+
+        if (summary.getFailed() == 0) {
+            JOptionPane.showMessageDialog(frame, MessageFormat.format(
+                                                  res.getString("SignCsrAction.SignCsrBatchSuccessful.message"),
+                                                  summary.getSigned(), summary.getReportFile()),
+                                          res.getString("SignCsrAction.SignCsr.Title"),
+                                          JOptionPane.INFORMATION_MESSAGE);
+        } else {
+            JOptionPane.showMessageDialog(frame, MessageFormat.format(
+                                                  res.getString("SignCsrAction.SignCsrBatchFailures.message"),
+                                                  summary.getFailed(), batchCsrFiles.size(), summary.getReportFile()),
+                                          res.getString("SignCsrAction.SignCsr.Title"), JOptionPane.WARNING_MESSAGE);
+        }
+    }
+
+    private File[] chooseCsrFiles() {
         JFileChooser chooser = FileChooserFactory.getCsrFileChooser();
         chooser.setCurrentDirectory(CurrentDirectory.get());
         chooser.setDialogTitle(res.getString("SignCsrAction.ChooseCsr.Title"));
-        chooser.setMultiSelectionEnabled(false);
+        chooser.setMultiSelectionEnabled(true);
         chooser.setApproveButtonText(res.getString("SignCsrAction.ChooseCsr.button"));
 
         int rtnValue = chooser.showOpenDialog(frame);
         if (rtnValue == JFileChooser.APPROVE_OPTION) {
-            File importFile = chooser.getSelectedFile();
-            CurrentDirectory.updateForFile(importFile);
-            return importFile;
+            File[] importFiles = chooser.getSelectedFiles();
+            if (importFiles == null || importFiles.length == 0) {
+                // a file name typed into the chooser is only returned as the selected file
+                if (chooser.getSelectedFile() == null) {
+                    return null;
+                }
+                importFiles = new File[] { chooser.getSelectedFile() };
+            }
+            CurrentDirectory.updateForFile(importFiles[0]);
+            return importFiles;
         }
         return null;
     }
@@ -19,7 +19,6 @@
  */
 package org.kse.gui.actions;
 
-import java.awt.Toolkit;
 import java.io.File;
 import java.io.FileOutputStream;
 import java.io.OutputStream;
@@ -29,7 +28,6 @@ import java.security.Provider;
 import java.security.cert.X509Certificate;
 import java.text.MessageFormat;
 
-import javax.swing.ImageIcon;
 import javax.swing.JFileChooser;
 import javax.swing.JOptionPane;
 
@@ -43,6 +41,7 @@ import org.kse.crypto.x509.X509CertUtil;
 import org.kse.gui.CurrentDirectory;
 import org.kse.gui.FileChooserFactory;
 import org.kse.gui.KseFrame;
+import org.kse.gui.LazyImageIcon;
 import org.kse.gui.dialogs.sign.DSignFile;
 import org.kse.gui.error.DError;
 import org.kse.gui.passwordmanager.Password;
@@ -66,8 +65,7 @@ public class SignFileAction extends KeyStoreExplorerAction {
         putValue(LONG_DESCRIPTION, res.getString("SignFileAction.statusbar"));
         putValue(NAME, res.getString("SignFileAction.text"));
         putValue(SHORT_DESCRIPTION, res.getString("SignFileAction.tooltip"));
-        putValue(SMALL_ICON,
-                 new ImageIcon(Toolkit.getDefaultToolkit().createImage(getClass().getResource("images/signfile.png"))));
+        putValue(SMALL_ICON, new LazyImageIcon(getClass().getResource("images/signfile.png")));
     }
 
     /**
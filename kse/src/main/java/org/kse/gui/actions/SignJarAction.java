@@ -19,7 +19,6 @@
  */
 package org.kse.gui.actions;
 
-import java.awt.Toolkit;
 import java.io.File;
 import java.security.KeyStore;
 import java.security.PrivateKey;
@@ -28,7 +27,6 @@ import java.security.cert.X509Certificate;
 import java.text.MessageFormat;
 import java.util.List;
 
-import javax.swing.ImageIcon;
 import javax.swing.JOptionPane;
 
 import org.kse.KSE;
@@ -39,6 +37,7 @@ import org.kse.crypto.keypair.KeyPairUtil;
 import org.kse.crypto.signing.SignatureType;
 import org.kse.crypto.x509.X509CertUtil;
 import org.kse.gui.KseFrame;
+import org.kse.gui.LazyImageIcon;
 import org.kse.gui.dialogs.sign.DSignJar;
 import org.kse.gui.dialogs.sign.DSignJarSigning;
 import org.kse.gui.error.DError;
@@ -63,8 +62,7 @@ public class SignJarAction extends KeyStoreExplorerAction {
         putValue(LONG_DESCRIPTION, res.getString("SignJarAction.statusbar"));
         putValue(NAME, res.getString("SignJarAction.text"));
         putValue(SHORT_DESCRIPTION, res.getString("SignJarAction.tooltip"));
-        putValue(SMALL_ICON,
-                 new ImageIcon(Toolkit.getDefaultToolkit().createImage(getClass().getResource("images/signjar.png"))));
+        putValue(SMALL_ICON, new LazyImageIcon(getClass().getResource("images/signjar.png")));
     }
 
     /**
@@ -20,7 +20,6 @@
 
 package org.kse.gui.actions;
 
-import java.awt.Toolkit;
 import java.security.KeyStore;
 import java.security.NoSuchAlgorithmException;
 import java.security.PrivateKey;
@@ -28,13 +27,12 @@ import java.security.Provider;
 import java.security.cert.Certificate;
 import java.util.Base64;
 
-import javax.swing.ImageIcon;
-
 import org.kse.gui.passwordmanager.Password;
 import org.kse.crypto.keypair.KeyPairType;
 import org.kse.crypto.keypair.KeyPairUtil;
 import org.kse.crypto.signing.SignatureType;
 import org.kse.gui.KseFrame;
+import org.kse.gui.LazyImageIcon;
 import org.kse.gui.dialogs.DViewJwt;
 import org.kse.gui.dialogs.sign.CustomClaim;
 import org.kse.gui.dialogs.sign.DSignJwt;
@@ -69,8 +67,7 @@ public class SignJwtAction extends KeyStoreExplorerAction {
         putValue(LONG_DESCRIPTION, res.getString("SignJwtAction.statusbar"));
         putValue(NAME, res.getString("SignJwtAction.text"));
         putValue(SHORT_DESCRIPTION, res.getString("SignJwtAction.tooltip"));
-        putValue(SMALL_ICON,
-                 new ImageIcon(Toolkit.getDefaultToolkit().createImage(getClass().getResource("images/signcrl.png"))));
+        putValue(SMALL_ICON, new LazyImageIcon(getClass().getResource("images/signcrl.png")));
     }
 
     @Override
@@ -19,14 +19,12 @@
  */
 package org.kse.gui.actions;
 
-import java.awt.Toolkit;
 import java.io.File;
 import java.security.KeyStore;
 import java.security.PrivateKey;
 import java.security.cert.X509Certificate;
 import java.security.interfaces.RSAPrivateKey;
 
-import javax.swing.ImageIcon;
 import javax.swing.JOptionPane;
 
 import org.kse.gui.passwordmanager.Password;
@@ -34,6 +32,7 @@ import org.kse.crypto.keypair.KeyPairType;
 import org.kse.crypto.signing.MidletSigner;
 import org.kse.crypto.x509.X509CertUtil;
 import org.kse.gui.KseFrame;
+import org.kse.gui.LazyImageIcon;
 import org.kse.gui.dialogs.sign.DSignMidlet;
 import org.kse.gui.error.DError;
 import org.kse.utilities.history.KeyStoreHistory;
@@ -56,8 +55,7 @@ public class SignMidletAction extends KeyStoreExplorerAction {
         putValue(LONG_DESCRIPTION, res.getString("SignMidletAction.statusbar"));
         putValue(NAME, res.getString("SignMidletAction.text"));
         putValue(SHORT_DESCRIPTION, res.getString("SignMidletAction.tooltip"));
-        putValue(SMALL_ICON, new ImageIcon(
-                Toolkit.getDefaultToolkit().createImage(getClass().getResource("images/signmidlet.png"))));
+        putValue(SMALL_ICON, new LazyImageIcon(getClass().getResource("images/signmidlet.png")));
     }
 
     /**
@@ -19,17 +19,15 @@
  */
 package org.kse.gui.actions;
 
-import java.awt.Toolkit;
 import java.security.KeyStore;
 import java.security.PrivateKey;
 import java.security.cert.Certificate;
 import java.security.cert.X509Certificate;
 
-import javax.swing.ImageIcon;
-
 import org.kse.gui.passwordmanager.Password;
 import org.kse.crypto.x509.X509CertUtil;
 import org.kse.gui.KseFrame;
+import org.kse.gui.LazyImageIcon;
 import org.kse.gui.error.DError;
 import org.kse.utilities.history.KeyStoreHistory;
 import org.kse.utilities.history.KeyStoreState;
@@ -48,8 +46,7 @@ public class SignNewKeyPairAction extends KeyStoreExplorerAction {
         putValue(LONG_DESCRIPTION, res.getString("SignNewKeyPairAction.statusbar"));
         putValue(NAME, res.getString("SignNewKeyPairAction.text"));
         putValue(SHORT_DESCRIPTION, res.getString("SignNewKeyPairAction.tooltip"));
-        putValue(SMALL_ICON, new ImageIcon(
-                Toolkit.getDefaultToolkit().createImage(getClass().getResource("images/signnewkeypair.png"))));
+        putValue(SMALL_ICON, new LazyImageIcon(getClass().getResource("images/signnewkeypair.png")));
     }
 
     @Override
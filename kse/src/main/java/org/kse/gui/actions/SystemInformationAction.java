@@ -19,11 +19,8 @@
  */
 package org.kse.gui.actions;
 
-import java.awt.Toolkit;
-
-import javax.swing.ImageIcon;
-
 import org.kse.gui.KseFrame;
+import org.kse.gui.LazyImageIcon;
 import org.kse.gui.about.DSystemInformation;
 
 /**
@@ -43,8 +40,7 @@ public class SystemInformationAction extends KeyStoreExplorerAction {
         putValue(LONG_DESCRIPTION, res.getString("SystemInformationAction.statusbar"));
         putValue(NAME, res.getString("SystemInformationAction.text"));
         putValue(SHORT_DESCRIPTION, res.getString("SystemInformationAction.tooltip"));
-        putValue(SMALL_ICON, new ImageIcon(
-                Toolkit.getDefaultToolkit().createImage(getClass().getResource("images/systeminfo.png"))));
+        putValue(SMALL_ICON, new LazyImageIcon(getClass().getResource("images/systeminfo.png")));
     }
 
     /**
@@ -19,11 +19,8 @@
  */
 package org.kse.gui.actions;
 
-import java.awt.Toolkit;
-
-import javax.swing.ImageIcon;
-
 import org.kse.gui.KseFrame;
+import org.kse.gui.LazyImageIcon;
 import org.kse.gui.tipoftheday.DTipOfTheDay;
 
 /**
@@ -43,8 +40,7 @@ public class TipOfTheDayAction extends KeyStoreExplorerAction {
         putValue(LONG_DESCRIPTION, res.getString("TipOfTheDayAction.statusbar"));
         putValue(NAME, res.getString("TipOfTheDayAction.text"));
         putValue(SHORT_DESCRIPTION, res.getString("TipOfTheDayAction.tooltip"));
-        putValue(SMALL_ICON, new ImageIcon(
-                Toolkit.getDefaultToolkit().createImage(getClass().getResource("images/tipoftheday.png"))));
+        putValue(SMALL_ICON, new LazyImageIcon(getClass().getResource("images/tipoftheday.png")));
     }
 
     /**
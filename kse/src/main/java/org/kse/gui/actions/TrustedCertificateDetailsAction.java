@@ -19,15 +19,13 @@
  */
 package org.kse.gui.actions;
 
-import java.awt.Toolkit;
 import java.security.KeyStore;
 import java.security.cert.X509Certificate;
 import java.text.MessageFormat;
 
-import javax.swing.ImageIcon;
-
 import org.kse.crypto.x509.X509CertUtil;
 import org.kse.gui.KseFrame;
+import org.kse.gui.LazyImageIcon;
 import org.kse.gui.dialogs.DViewCertificate;
 import org.kse.gui.error.DError;
 import org.kse.utilities.history.KeyStoreHistory;
@@ -49,8 +47,7 @@ public class TrustedCertificateDetailsAction extends KeyStoreExplorerAction {
         putValue(LONG_DESCRIPTION, res.getString("TrustedCertificateDetailsAction.statusbar"));
         putValue(NAME, res.getString("TrustedCertificateDetailsAction.text"));
         putValue(SHORT_DESCRIPTION, res.getString("TrustedCertificateDetailsAction.tooltip"));
-        putValue(SMALL_ICON, new ImageIcon(
-                Toolkit.getDefaultToolkit().createImage(getClass().getResource("images/certdetails.png"))));
+        putValue(SMALL_ICON, new LazyImageIcon(getClass().getResource("images/certdetails.png")));
     }
 
     /**
@@ -19,14 +19,12 @@
  */
 package org.kse.gui.actions;
 
-import java.awt.Toolkit;
 import java.security.KeyStore;
 import java.security.PublicKey;
 import java.text.MessageFormat;
 
-import javax.swing.ImageIcon;
-
 import org.kse.gui.KseFrame;
+import org.kse.gui.LazyImageIcon;
 import org.kse.gui.dialogs.DViewPublicKey;
 import org.kse.gui.error.DError;
 import org.kse.utilities.history.KeyStoreHistory;
@@ -50,8 +48,7 @@ public class TrustedCertificatePublicKeyDetailsAction extends KeyStoreExplorerAc
         putValue(LONG_DESCRIPTION, res.getString("TrustedCertificatePublicKeyDetailsAction.statusbar"));
         putValue(NAME, res.getString("TrustedCertificatePublicKeyDetailsAction.text"));
         putValue(SHORT_DESCRIPTION, res.getString("TrustedCertificatePublicKeyDetailsAction.tooltip"));
-        putValue(SMALL_ICON, new ImageIcon(
-                Toolkit.getDefaultToolkit().createImage(getClass().getResource("images/trustcertpubkeydetails.png"))));
+        putValue(SMALL_ICON, new LazyImageIcon(getClass().getResource("images/trustcertpubkeydetails.png")));
     }
 
     /**
@@ -22,10 +22,10 @@ package org.kse.gui.actions;
 import java.awt.Toolkit;
 import java.text.MessageFormat;
 
-import javax.swing.ImageIcon;
 import javax.swing.KeyStroke;
 
 import org.kse.gui.KseFrame;
+import org.kse.gui.LazyImageIcon;
 import org.kse.gui.error.DError;
 import org.kse.utilities.history.KeyStoreHistory;
 import org.kse.utilities.history.KeyStoreState;
@@ -52,8 +52,7 @@ public class UndoAction extends KeyStoreExplorerAction {
         putValue(LONG_DESCRIPTION, res.getString("UndoAction.statusbar"));
         putValue(NAME, defaultName);
         putValue(SHORT_DESCRIPTION, res.getString("UndoAction.tooltip"));
-        putValue(SMALL_ICON,
-                 new ImageIcon(Toolkit.getDefaultToolkit().createImage(getClass().getResource("images/undo.png"))));
+        putValue(SMALL_ICON, new LazyImageIcon(getClass().getResource("images/undo.png")));
     }
 
     /**
@@ -65,12 +64,20 @@ public class UndoAction extends KeyStoreExplorerAction {
     public void setEnabled(boolean enabled) {
         super.setEnabled(enabled);
 
+        KeyStoreHistory history = kseFrame.getActiveKeyStoreHistory();
+
         if (enabled) {
-            KeyStoreState currentState = kseFrame.getActiveKeyStoreHistory().getCurrentState();
+            KeyStoreState currentState = history.getCurrentState();
             putValue(NAME, MessageFormat.format(res.getString("UndoAction.dynamic.text"),
                                                 currentState.getActionDescription()));
+            putValue(SHORT_DESCRIPTION, res.getString("UndoAction.tooltip"));
+        } else if (history != null && history.getCurrentState().isHistoryLimitReached()) {
+            // Earlier states have been discarded due to the undo history limits
+            putValue(NAME, res.getString("UndoAction.HistoryLimit.text"));
+            putValue(SHORT_DESCRIPTION, res.getString("UndoAction.HistoryLimit.tooltip"));
         } else {
             putValue(NAME, defaultName);
+            putValue(SHORT_DESCRIPTION, res.getString("UndoAction.tooltip"));
         }
     }
 
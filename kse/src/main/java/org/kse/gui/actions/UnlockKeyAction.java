@@ -19,13 +19,12 @@
  */
 package org.kse.gui.actions;
 
-import java.awt.Toolkit;
 import java.text.MessageFormat;
 
-import javax.swing.ImageIcon;
 import javax.swing.JOptionPane;
 
 import org.kse.KSE;
+import org.kse.gui.LazyImageIcon;
 import org.kse.gui.passwordmanager.Password;
 import org.kse.gui.KseFrame;
 import org.kse.utilities.history.KeyStoreHistory;
@@ -48,8 +47,7 @@ public class UnlockKeyAction extends KeyStoreExplorerAction {
         putValue(LONG_DESCRIPTION, res.getString("UnlockKeyAction.statusbar"));
         putValue(NAME, res.getString("UnlockKeyAction.text"));
         putValue(SHORT_DESCRIPTION, res.getString("UnlockKeyAction.tooltip"));
-        putValue(SMALL_ICON,
-                 new ImageIcon(Toolkit.getDefaultToolkit().createImage(getClass().getResource("images/unlock.png"))));
+        putValue(SMALL_ICON, new LazyImageIcon(getClass().getResource("images/unlock.png")));
     }
 
     /**
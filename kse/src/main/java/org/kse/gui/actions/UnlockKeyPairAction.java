@@ -19,14 +19,13 @@
  */
 package org.kse.gui.actions;
 
-import java.awt.Toolkit;
 import java.text.MessageFormat;
 
-import javax.swing.ImageIcon;
 import javax.swing.JOptionPane;
 
 import org.kse.KSE;
 import org.kse.gui.KseFrame;
+import org.kse.gui.LazyImageIcon;
 import org.kse.gui.passwordmanager.Password;
 import org.kse.utilities.history.KeyStoreHistory;
 import org.kse.utilities.history.KeyStoreState;
@@ -48,8 +47,7 @@ public class UnlockKeyPairAction extends KeyStoreExplorerAction {
         putValue(LONG_DESCRIPTION, res.getString("UnlockKeyPairAction.statusbar"));
         putValue(NAME, res.getString("UnlockKeyPairAction.text"));
         putValue(SHORT_DESCRIPTION, res.getString("UnlockKeyPairAction.tooltip"));
-        putValue(SMALL_ICON,
-                 new ImageIcon(Toolkit.getDefaultToolkit().createImage(getClass().getResource("images/unlock.png"))));
+        putValue(SMALL_ICON, new LazyImageIcon(getClass().getResource("images/unlock.png")));
     }
 
     /**
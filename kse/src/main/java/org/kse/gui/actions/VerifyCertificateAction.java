@@ -21,12 +21,9 @@
 package org.kse.gui.actions;
 
 import java.awt.HeadlessException;
-import java.awt.Toolkit;
 import java.io.File;
 import java.io.IOException;
-import java.io.OutputStream;
 import java.math.BigInteger;
-import java.net.HttpURLConnection;
 import java.net.URL;
 import java.security.InvalidAlgorithmParameterException;
 import java.security.InvalidKeyException;
@@ -41,7 +38,6 @@ import java.security.cert.CertPath;
 import java.security.cert.CertPathValidator;
 import java.security.cert.CertPathValidatorException;
 import java.security.cert.CertStore;
-import java.security.cert.Certificate;
 import java.security.cert.CertificateEncodingException;
 import java.security.cert.CertificateException;
 import java.security.cert.CertificateFactory;
@@ -52,19 +48,16 @@ import java.security.cert.X509CRL;
 import java.security.cert.X509Certificate;
 import java.text.MessageFormat;
 import java.util.ArrayList;
-import java.util.Collection;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.Date;
 import java.util.Enumeration;
-import java.util.HashSet;
 import java.util.List;
-import java.util.Set;
+import java.util.Map;
 
-import javax.swing.ImageIcon;
 import javax.swing.JOptionPane;
 
 import org.apache.commons.io.FileUtils;
-import org.apache.commons.io.IOUtils;
 import org.bouncycastle.asn1.DEROctetString;
 import org.bouncycastle.asn1.ocsp.OCSPObjectIdentifiers;
 import org.bouncycastle.asn1.x509.AlgorithmIdentifier;
@@ -85,15 +78,23 @@ import org.bouncycastle.operator.jcajce.JcaDigestCalculatorProviderBuilder;
 import org.kse.KSE;
 import org.kse.crypto.CryptoException;
 import org.kse.crypto.ocsp.OcspDigestAlgorithm;
+import org.kse.crypto.x509.ExtensionRemovingCertPathChecker;
 import org.kse.crypto.x509.X509CertUtil;
+import org.kse.crypto.x509.X509ChainVerifier;
 import org.kse.gui.KseFrame;
+import org.kse.gui.LazyImageIcon;
+import org.kse.gui.dialogs.DFetchingUrl;
+import org.kse.gui.dialogs.DVerificationReport;
 import org.kse.gui.dialogs.DVerifyCertificate;
+import org.kse.gui.dialogs.DVerifyingCertificates;
 import org.kse.gui.dialogs.DVerifyCertificate.VerifyOptions;
 import org.kse.gui.error.DError;
 import org.kse.gui.error.DProblem;
 import org.kse.gui.error.Problem;
 import org.kse.utilities.StringUtils;
 import org.kse.utilities.history.KeyStoreHistory;
+import org.kse.utilities.net.HttpFetchCache;
+import org.kse.utilities.net.HttpFetchCache.ContentExpiry;
 
 public class VerifyCertificateAction extends KeyStoreExplorerAction {
 
@@ -106,8 +107,7 @@ public class VerifyCertificateAction extends KeyStoreExplorerAction {
         putValue(LONG_DESCRIPTION, res.getString("VerifyCertificateAction.statusbar"));
         putValue(NAME, res.getString("VerifyCertificateAction.text"));
         putValue(SHORT_DESCRIPTION, res.getString("VerifyCertificateAction.tooltip"));
-        putValue(SMALL_ICON, new ImageIcon(
-                Toolkit.getDefaultToolkit().createImage(getClass().getResource("images/verifycert.png"))));
+        putValue(SMALL_ICON, new LazyImageIcon(getClass().getResource("images/verifycert.png")));
     }
 
     public VerifyCertificateAction(KseFrame kseFrame, X509Certificate cert, X509Certificate[] keyCertChain) {
@@ -121,6 +121,8 @@ public class VerifyCertificateAction extends KeyStoreExplorerAction {
 
         String alias = "";
         try {
+            // all entries can only be verified when started for an entry of the KeyStore
+            boolean verifyAllAllowed = certificateEval == null;
             if (certificateEval == null) {
                 alias = kseFrame.getSelectedEntryAlias();
                 certificateEval = getCertificate(alias);
@@ -136,14 +138,17 @@ public class VerifyCertificateAction extends KeyStoreExplorerAction {
                                                       res.getString("VerifyCertificateAction.Verify.Title"), alias),
                                               JOptionPane.WARNING_MESSAGE);
             } else {
-                DVerifyCertificate dVerifyCertificate = new DVerifyCertificate(frame, alias, kseFrame);
+                DVerifyCertificate dVerifyCertificate = new DVerifyCertificate(frame, alias, kseFrame,
+                                                                                 verifyAllAllowed);
                 dVerifyCertificate.setLocationRelativeTo(frame);
                 dVerifyCertificate.setVisible(true);
                 if (dVerifyCertificate.isVerifySelected()) {
 
                     VerifyOptions verifyOptions = dVerifyCertificate.getVerifyOption();
                     KeyStoreHistory keyStoreHistory = dVerifyCertificate.getKeyStore();
-                    if (verifyOptions == VerifyOptions.CRL_DIST) {
+                    if (dVerifyCertificate.isVerifyAllSelected()) {
+                        verifyAll(keyStoreHistory, verifyOptions);
+                    } else if (verifyOptions == VerifyOptions.CRL_DIST) {
                         verifyStatusCrl(keyStoreHistory, alias);
                     } else if (verifyOptions == VerifyOptions.CRL_FILE) {
                         verifyStatusCrlFile(keyStoreHistory, alias, dVerifyCertificate.getCrlFile());
@@ -165,6 +170,48 @@ public class VerifyCertificateAction extends KeyStoreExplorerAction {
         }
     }
 
+    private void verifyAll(KeyStoreHistory caKeyStoreHistory, VerifyOptions verifyOptions) throws CryptoException {
+        KeyStoreHistory history = kseFrame.getActiveKeyStoreHistory();
+        Map<String, X509Certificate[]> chains = X509ChainVerifier.getChains(history.getCurrentState().getKeyStore());
+
+        // like a single verification, trust the CA certificates of the selected KeyStore or else those of the chains
+        List<X509Certificate> trustedCerts = new ArrayList<>();
+        if (caKeyStoreHistory != null) {
+            for (X509Certificate[] chain : X509ChainVerifier.getChains(
+                    caKeyStoreHistory.getCurrentState().getKeyStore()).values()) {
+                trustedCerts.add(chain[0]);
+            }
+        } else {
+            for (X509Certificate[] chain : chains.values()) {
+                trustedCerts.addAll(Arrays.asList(chain));
+            }
+        }
+
+        X509ChainVerifier.Revocation revocation = X509ChainVerifier.Revocation.NONE;
+        if (verifyOptions == VerifyOptions.CRL_DIST) {
+            revocation = X509ChainVerifier.Revocation.CRL;
+        } else if (verifyOptions == VerifyOptions.OCSP_AIA) {
+            revocation = X509ChainVerifier.Revocation.OCSP;
+        }
+
+        X509ChainVerifier verifier = new X509ChainVerifier(X509ChainVerifier.getCaCertificates(trustedCerts),
+                                                           revocation, HttpFetchCache.getInstance());
+
+        DVerifyingCertificates dVerifyingCertificates = new DVerifyingCertificates(frame, verifier, chains);
+        dVerifyingCertificates.setLocationRelativeTo(frame);
+        List<X509ChainVerifier.Result> results = dVerifyingCertificates.verify();
+
+        if (results == null) {
+            // cancelled
+            return;
+        }
+
+        DVerificationReport dVerificationReport = new DVerificationReport(frame, MessageFormat.format(
+                res.getString("VerifyCertificateAction.VerifyAll.Title"), history.getName()), results);
+        dVerificationReport.setLocationRelativeTo(frame);
+        dVerificationReport.setVisible(true);
+    }
+
     private void verifyChain(KeyStoreHistory keyStoreHistory, String alias)
             throws KeyStoreException, NoSuchAlgorithmException, CertificateException, IOException,
                    InvalidAlgorithmParameterException, CertPathValidatorException, IllegalStateException,
@@ -218,6 +265,10 @@ public class VerifyCertificateAction extends KeyStoreExplorerAction {
             }
             OCSPReq request = makeOcspRequest(issuer, certificateEval, ocspDigestAlgorithm.algorithmIdentifier(), ocspIncludeNonce);
             OCSPResp response = requestOCSPResponse(ocspUrl, request);
+            if (response == null) {
+                // cancelled
+                return;
+            }
             if (isGoodCertificate(response)) {
                 JOptionPane.showMessageDialog(frame, res.getString("VerifyCertificateAction.OcspSuccessful.message"),
                                               MessageFormat.format(
@@ -250,25 +301,18 @@ public class VerifyCertificateAction extends KeyStoreExplorerAction {
     private OCSPResp requestOCSPResponse(String url, OCSPReq ocspReq) throws IOException {
         byte[] ocspReqData = ocspReq.getEncoded();
 
-        HttpURLConnection con = (HttpURLConnection) new URL(url).openConnection();
-        try {
-            con.setRequestProperty("Content-Type", "application/ocsp-request");
-            con.setRequestProperty("Accept", "application/ocsp-response");
-            con.setDoInput(true);
-            con.setDoOutput(true);
-            con.setUseCaches(false);
-            try (OutputStream out = con.getOutputStream()) {
-                IOUtils.write(ocspReqData, out);
-                out.flush();
-            }
-            byte[] responseBytes = IOUtils.toByteArray(con.getInputStream());
-            OCSPResp ocspResp = new OCSPResp(responseBytes);
-            return ocspResp;
-        } finally {
-            if (con != null) {
-                con.disconnect();
-            }
+        // a response to a request with a nonce is only valid once, other responses are reused until their next update
+        ContentExpiry expiry = null;
+        if (ocspReq.getExtension(OCSPObjectIdentifiers.id_pkix_ocsp_nonce) == null) {
+            expiry = X509ChainVerifier::getOcspResponseExpiry;
+        }
+
+        byte[] responseBytes = DFetchingUrl.post(frame, new URL(url), "application/ocsp-request",
+                                                 "application/ocsp-response", ocspReqData, expiry);
+        if (responseBytes == null) {
+            return null;
         }
+        return new OCSPResp(responseBytes);
     }
 
     private boolean isGoodCertificate(OCSPResp ocspResp) throws OCSPException, CertPathValidatorException {
@@ -495,33 +539,4 @@ public class VerifyCertificateAction extends KeyStoreExplorerAction {
             throw new CryptoException(message, ex);
         }
     }
-
-    static class ExtensionRemovingCertPathChecker extends PKIXCertPathChecker {
-        @Override
-        public void init(boolean forward) throws CertPathValidatorException {
-            // nothing to do here
-        }
-
-        @Override
-        public boolean isForwardCheckingSupported() {
-            return false;
-        }
-
-        @Override
-        public Set<String> getSupportedExtensions() {
-            HashSet<String> hashSet = new HashSet<>();
-
-            // appleCertificateExtensionCodeSigning
-            hashSet.add("1.2.840.113635.100.6.1.13");
-
-            return hashSet;
-        }
-
-        @Override
-        public void check(Certificate cert, Collection<String> unresolvedCritExts) throws CertPathValidatorException {
-            // remove critical Apple private extension that causes certificate validation to
-            // fail
-            unresolvedCritExts.remove("1.2.840.113635.100.6.1.13");
-        }
-    }
 }
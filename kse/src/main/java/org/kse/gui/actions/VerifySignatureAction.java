@@ -37,7 +37,6 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
 
-import javax.swing.ImageIcon;
 import javax.swing.JFileChooser;
 import javax.swing.JOptionPane;
 import javax.swing.KeyStroke;
@@ -56,6 +55,7 @@ import org.kse.crypto.x509.X509CertUtil;
 import org.kse.gui.CurrentDirectory;
 import org.kse.gui.FileChooserFactory;
 import org.kse.gui.KseFrame;
+import org.kse.gui.LazyImageIcon;
 import org.kse.gui.dialogs.DViewSignature;
 import org.kse.gui.error.DError;
 import org.kse.utilities.history.KeyStoreHistory;
@@ -72,8 +72,7 @@ public class VerifySignatureAction extends AuthorityCertificatesAction {
         putValue(LONG_DESCRIPTION, res.getString("VerifySignatureAction.statusbar"));
         putValue(NAME, res.getString("VerifySignatureAction.text"));
         putValue(SHORT_DESCRIPTION, res.getString("VerifySignatureAction.tooltip"));
-        putValue(SMALL_ICON, new ImageIcon(
-                Toolkit.getDefaultToolkit().createImage(getClass().getResource("images/verifysignature.png"))));
+        putValue(SMALL_ICON, new LazyImageIcon(getClass().getResource("images/verifysignature.png")));
     }
 
     @Override
@@ -201,7 +200,7 @@ public class VerifySignatureAction extends AuthorityCertificatesAction {
             caCertificates = loadCaCertificatesKeyStore();
 
             if (caCertificates != null) {
-                authorityCertificates.setCaCertificates(caCertificates);
+                authorityCertificates.setCaCertificates(caCertificates, getCaCertificatesFile());
             }
         }
 
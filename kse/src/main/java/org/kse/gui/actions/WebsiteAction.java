@@ -20,16 +20,15 @@
 package org.kse.gui.actions;
 
 import java.awt.Desktop;
-import java.awt.Toolkit;
 import java.io.IOException;
 import java.net.URI;
 import java.text.MessageFormat;
 
-import javax.swing.ImageIcon;
 import javax.swing.JOptionPane;
 
 import org.kse.KSE;
 import org.kse.gui.KseFrame;
+import org.kse.gui.LazyImageIcon;
 import org.kse.utilities.net.URLs;
 
 /**
@@ -78,7 +77,7 @@ public class WebsiteAction extends KeyStoreExplorerAction {
         putValue(LONG_DESCRIPTION, longDescription);
         putValue(NAME, name);
         putValue(SHORT_DESCRIPTION, shortDescription);
-        putValue(SMALL_ICON, new ImageIcon(Toolkit.getDefaultToolkit().createImage(getClass().getResource(image))));
+        putValue(SMALL_ICON, new LazyImageIcon(getClass().getResource(image)));
 
         websiteAddress = url;
     }
@@ -28,7 +28,9 @@ import javax.swing.JTree;
 import javax.swing.tree.DefaultMutableTreeNode;
 import javax.swing.tree.DefaultTreeCellRenderer;
 
+import org.kse.crypto.CryptoException;
 import org.kse.crypto.x509.X500NameUtils;
+import org.kse.crypto.x509.X509CertAttributes;
 import org.kse.crypto.x509.X509CertUtil;
 
 /**
@@ -62,12 +64,17 @@ public class CertificateTreeCellRend extends DefaultTreeCellRenderer {
         if (userObject instanceof X509Certificate) {
             X509Certificate cert = (X509Certificate) userObject;
 
-            cell.setText(X509CertUtil.getShortName(cert));
+            try {
+                X509CertAttributes attributes = X509CertAttributes.get(cert);
+                cell.setText(attributes.getShortName());
+                cell.setToolTipText(attributes.getSubject().toString());
+            } catch (CryptoException ex) {
+                cell.setText(X509CertUtil.getShortName(cert));
+                cell.setToolTipText(X500NameUtils.x500PrincipalToX500Name(cert.getSubjectX500Principal()).toString());
+            }
 
             ImageIcon icon = new ImageIcon(getClass().getResource("images/certificate_node.png"));
             cell.setIcon(icon);
-
-            cell.setToolTipText(X500NameUtils.x500PrincipalToX500Name(cert.getSubjectX500Principal()).toString());
         }
 
         return cell;
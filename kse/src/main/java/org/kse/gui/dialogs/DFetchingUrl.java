@@ -0,0 +1,271 @@
+/*
+ * Copyright 2004 - 2013 Wayne Grant
+ *           2013 - 2025 Kai Kramer
+ *
+ * This file is part of KeyStore Explorer.
+ *
+ * KeyStore Explorer is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * KeyStore Explorer is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with KeyStore Explorer.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.kse.gui.dialogs;
+
+import java.awt.BorderLayout;
+import java.awt.Dialog;
+import java.awt.FlowLayout;
+import java.awt.Window;
+import java.awt.event.ActionEvent;
+import java.awt.event.KeyEvent;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
+import java.io.IOException;
+import java.net.URL;
+import java.security.cert.X509Certificate;
+import java.text.MessageFormat;
+import java.time.Instant;
+import java.util.Date;
+import java.util.ResourceBundle;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import javax.swing.AbstractAction;
+import javax.swing.JButton;
+import javax.swing.JComponent;
+import javax.swing.JLabel;
+import javax.swing.JPanel;
+import javax.swing.JProgressBar;
+import javax.swing.KeyStroke;
+import javax.swing.SwingUtilities;
+import javax.swing.border.EmptyBorder;
+
+import org.kse.crypto.CryptoException;
+import org.kse.crypto.x509.X509CertUtil;
+import org.kse.crypto.x509.X509CrlHeader;
+import org.kse.gui.PlatformUtil;
+import org.kse.gui.components.JEscDialog;
+import org.kse.utilities.net.HttpFetchCache;
+import org.kse.utilities.net.HttpFetchCache.ContentExpiry;
+import org.kse.utilities.net.HttpFetchCache.Fetch;
+
+/**
+ * Waits for a download of the HTTP fetch cache. The dialog is only shown if the download takes noticeable time, the
+ * user may then cancel at any time by pressing the cancel button, which closes the connection.
+ */
+public class DFetchingUrl extends JEscDialog {
+    private static final long serialVersionUID = 1L;
+
+    private static ResourceBundle res = ResourceBundle.getBundle("org/kse/gui/dialogs/resources");
+
+    private static final String CANCEL_KEY = "CANCEL_KEY";
+
+    private static final long SHOW_DELAY_MILLIS = 250;
+
+    private JPanel jpFetching;
+    private JLabel jlFetching;
+    private JPanel jpProgress;
+    private JProgressBar jpbFetching;
+    private JPanel jpCancel;
+    private JButton jbCancel;
+
+    private final transient Fetch fetch;
+
+    /**
+     * Creates a new DFetchingUrl dialog.
+     *
+     * @param parent The parent window
+     * @param fetch  The running download
+     */
+    public DFetchingUrl(Window parent, Fetch fetch) {
+        super(parent, Dialog.ModalityType.DOCUMENT_MODAL);
+        this.fetch = fetch;
+        initComponents();
+    }
+
+    /**
+     * Download the content of a URL with a GET request, from the cache if possible.
+     *
+     * @param parent The parent window
+     * @param url    URL
+     * @param expiry Expiry of the content or null if only the response headers determine it
+     * @return Content or null if the user cancelled the download
+     * @throws IOException If the content could not be downloaded
+     */
+    public static byte[] get(Window parent, URL url, ContentExpiry expiry) throws IOException {
+        return new DFetchingUrl(parent, HttpFetchCache.getInstance().getInBackground(url, expiry)).getContent();
+    }
+
+    /**
+     * Send a POST request and download the content of the response.
+     *
+     * @param parent      The parent window
+     * @param url         URL
+     * @param contentType Content type of the request body
+     * @param accept      Accepted content type of the response
+     * @param body        Request body
+     * @param expiry      Expiry of the response content or null if the response must not be cached
+     * @return Content or null if the user cancelled the request
+     * @throws IOException If the request failed
+     */
+    public static byte[] post(Window parent, URL url, String contentType, String accept, byte[] body,
+                              ContentExpiry expiry) throws IOException {
+        HttpFetchCache cache = HttpFetchCache.getInstance();
+        return new DFetchingUrl(parent, cache.postInBackground(url, contentType, accept, body, expiry)).getContent();
+    }
+
+    /**
+     * Download a CRL. The CRL is cached until its next update.
+     *
+     * @param parent The parent window
+     * @param url    URL of the CRL
+     * @return The encoded CRL or null if the user cancelled the download
+     * @throws IOException     If the CRL could not be downloaded
+     * @throws CryptoException If the content is not a CRL
+     */
+    public static byte[] getCrl(Window parent, URL url) throws IOException, CryptoException {
+        return get(parent, url, DFetchingUrl::getCrlExpiry);
+    }
+
+    /**
+     * Download one or more certificates, e.g. the CA certificates of an authority information access extension.
+     *
+     * @param parent The parent window
+     * @param url    URL of the certificates
+     * @return The certificates or null if the user cancelled the download
+     * @throws IOException     If the certificates could not be downloaded
+     * @throws CryptoException If the content is not a certificate
+     */
+    public static X509Certificate[] getCertificates(Window parent, URL url) throws IOException, CryptoException {
+        // certificates carry no expiry for the cache, only make sure no error page is cached
+        byte[] content = get(parent, url, data -> {
+            X509CertUtil.loadCertificates(data);
+            return null;
+        });
+        return content == null ? null : X509CertUtil.loadCertificates(content);
+    }
+
+    private static Instant getCrlExpiry(byte[] content) throws CryptoException {
+        Date nextUpdate = X509CrlHeader.of(content).getNextUpdate();
+        return nextUpdate == null ? null : nextUpdate.toInstant();
+    }
+
+    private void initComponents() {
+        jlFetching = new JLabel(MessageFormat.format(res.getString("DFetchingUrl.jlFetching.text"), fetch.getUrl()));
+
+        jpFetching = new JPanel(new FlowLayout(FlowLayout.CENTER));
+        jpFetching.add(jlFetching);
+        jpFetching.setBorder(new EmptyBorder(5, 5, 5, 5));
+
+        jpbFetching = new JProgressBar();
+        jpbFetching.setIndeterminate(true);
+
+        jpProgress = new JPanel(new FlowLayout(FlowLayout.CENTER));
+        jpProgress.add(jpbFetching);
+        jpProgress.setBorder(new EmptyBorder(5, 5, 5, 5));
+
+        jbCancel = new JButton(res.getString("DFetchingUrl.jbCancel.text"));
+        jbCancel.addActionListener(evt -> cancelPressed());
+        jbCancel.getInputMap(JComponent.WHEN_IN_FOCUSED_WINDOW)
+                .put(KeyStroke.getKeyStroke(KeyEvent.VK_ESCAPE, 0), CANCEL_KEY);
+        jbCancel.getActionMap().put(CANCEL_KEY, new AbstractAction() {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            public void actionPerformed(ActionEvent evt) {
+                cancelPressed();
+            }
+        });
+
+        jpCancel = PlatformUtil.createDialogButtonPanel(jbCancel);
+
+        getContentPane().add(jpFetching, BorderLayout.NORTH);
+        getContentPane().add(jpProgress, BorderLayout.CENTER);
+        getContentPane().add(jpCancel, BorderLayout.SOUTH);
+
+        addWindowListener(new WindowAdapter() {
+            @Override
+            public void windowClosing(WindowEvent evt) {
+                cancelPressed();
+            }
+        });
+
+        setTitle(res.getString("DFetchingUrl.Title"));
+        setResizable(false);
+
+        pack();
+    }
+
+    /**
+     * Wait for the download. Must be called on the event dispatch thread, which keeps processing events while the
+     * dialog is shown.
+     *
+     * @return Content or null if the user cancelled the download
+     * @throws IOException If the download failed
+     */
+    public byte[] getContent() throws IOException {
+        fetch.getResult().whenComplete((content, ex) -> SwingUtilities.invokeLater(this::closeDialog));
+
+        try {
+            return fetch.getResult().get(SHOW_DELAY_MILLIS, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException ex) {
+            // Only show dialog for downloads that take a while, it is closed when the download is done
+            setLocationRelativeTo(getOwner());
+            setVisible(true);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            fetch.cancel();
+        } catch (ExecutionException | CancellationException ex) {
+            // handled below
+        }
+
+        if (fetch.isCancelled()) {
+            return null;
+        }
+
+        try {
+            return fetch.getResult().join();
+        } catch (CompletionException ex) {
+            Throwable cause = ex.getCause();
+
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            } else if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            } else if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+
+            throw new IOException(cause);
+        }
+    }
+
+    /**
+     * Did the user cancel the download?
+     *
+     * @return True if cancelled
+     */
+    public boolean isCancelled() {
+        return fetch.isCancelled();
+    }
+
+    private void cancelPressed() {
+        fetch.cancel();
+        closeDialog();
+    }
+
+    private void closeDialog() {
+        setVisible(false);
+        dispose();
+    }
+}
@@ -0,0 +1,212 @@
+/*
+ * Copyright 2004 - 2013 Wayne Grant
+ *           2013 - 2025 Kai Kramer
+ *
+ * This file is part of KeyStore Explorer.
+ *
+ * KeyStore Explorer is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * KeyStore Explorer is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with KeyStore Explorer.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.kse.gui.dialogs;
+
+import java.awt.BorderLayout;
+import java.awt.Dialog;
+import java.awt.FlowLayout;
+import java.awt.event.ActionEvent;
+import java.awt.event.KeyEvent;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
+import java.io.FileNotFoundException;
+import java.security.KeyStore;
+import java.text.MessageFormat;
+import java.util.ResourceBundle;
+
+import javax.swing.AbstractAction;
+import javax.swing.JButton;
+import javax.swing.JComponent;
+import javax.swing.JFrame;
+import javax.swing.JLabel;
+import javax.swing.JPanel;
+import javax.swing.JProgressBar;
+import javax.swing.KeyStroke;
+import javax.swing.SwingUtilities;
+import javax.swing.border.EmptyBorder;
+
+import org.kse.crypto.CryptoException;
+import org.kse.crypto.keystore.KeyStoreLoader;
+import org.kse.gui.PlatformUtil;
+import org.kse.gui.components.JEscDialog;
+import org.kse.gui.passwordmanager.Password;
+
+/**
+ * Loads a KeyStore file on a separate thread. The dialog is only shown if loading takes noticeable time, the user
+ * may then cancel at any time by pressing the cancel button.
+ */
+public class DOpeningKeyStore extends JEscDialog {
+    private static final long serialVersionUID = 1L;
+
+    private static ResourceBundle res = ResourceBundle.getBundle("org/kse/gui/dialogs/resources");
+
+    private static final String CANCEL_KEY = "CANCEL_KEY";
+
+    private static final long SHOW_DELAY_MILLIS = 250;
+
+    private JPanel jpOpening;
+    private JLabel jlOpening;
+    private JPanel jpProgress;
+    private JProgressBar jpbOpening;
+    private JPanel jpCancel;
+    private JButton jbCancel;
+
+    private KeyStoreLoader keyStoreLoader;
+    private Password password;
+    private volatile KeyStore keyStore;
+    private volatile Exception error;
+    private volatile boolean cancelled;
+    private Thread loader;
+
+    /**
+     * Creates a new DOpeningKeyStore dialog.
+     *
+     * @param parent         The parent frame
+     * @param keyStoreLoader Loader of the KeyStore file
+     * @param password       Password of the KeyStore
+     */
+    public DOpeningKeyStore(JFrame parent, KeyStoreLoader keyStoreLoader, Password password) {
+        super(parent, Dialog.ModalityType.DOCUMENT_MODAL);
+        this.keyStoreLoader = keyStoreLoader;
+        this.password = password;
+        initComponents();
+    }
+
+    private void initComponents() {
+        jlOpening = new JLabel(MessageFormat.format(res.getString("DOpeningKeyStore.jlOpening.text"),
+                                                    keyStoreLoader.getKeyStoreFile().getName()));
+
+        jpOpening = new JPanel(new FlowLayout(FlowLayout.CENTER));
+        jpOpening.add(jlOpening);
+        jpOpening.setBorder(new EmptyBorder(5, 5, 5, 5));
+
+        jpbOpening = new JProgressBar();
+        jpbOpening.setIndeterminate(true);
+
+        jpProgress = new JPanel(new FlowLayout(FlowLayout.CENTER));
+        jpProgress.add(jpbOpening);
+        jpProgress.setBorder(new EmptyBorder(5, 5, 5, 5));
+
+        jbCancel = new JButton(res.getString("DOpeningKeyStore.jbCancel.text"));
+        jbCancel.addActionListener(evt -> cancelPressed());
+        jbCancel.getInputMap(JComponent.WHEN_IN_FOCUSED_WINDOW)
+                .put(KeyStroke.getKeyStroke(KeyEvent.VK_ESCAPE, 0), CANCEL_KEY);
+        jbCancel.getActionMap().put(CANCEL_KEY, new AbstractAction() {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            public void actionPerformed(ActionEvent evt) {
+                cancelPressed();
+            }
+        });
+
+        jpCancel = PlatformUtil.createDialogButtonPanel(jbCancel);
+
+        getContentPane().add(jpOpening, BorderLayout.NORTH);
+        getContentPane().add(jpProgress, BorderLayout.CENTER);
+        getContentPane().add(jpCancel, BorderLayout.SOUTH);
+
+        addWindowListener(new WindowAdapter() {
+            @Override
+            public void windowClosing(WindowEvent evt) {
+                cancelPressed();
+            }
+        });
+
+        setTitle(res.getString("DOpeningKeyStore.Title"));
+        setResizable(false);
+
+        pack();
+    }
+
+    /**
+     * Load the KeyStore in a separate thread and wait for it. Must be called on the event dispatch thread, which
+     * keeps processing events while the dialog is shown.
+     *
+     * @return The KeyStore or null if the file did not contain a KeyStore of a recognised type or the user
+     *         cancelled loading
+     * @throws CryptoException       Problem encountered loading the KeyStore
+     * @throws FileNotFoundException If the KeyStore file cannot be opened for reading
+     * @see KeyStoreLoader#load(Password)
+     */
+    public KeyStore openKeyStore() throws CryptoException, FileNotFoundException {
+        loader = new Thread(new LoadKeyStore());
+        loader.setDaemon(true);
+        loader.start();
+
+        try {
+            loader.join(SHOW_DELAY_MILLIS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+
+        // Only show dialog for KeyStores that take a while to load, it is closed by the loader when done
+        if (loader.isAlive()) {
+            setVisible(true);
+        }
+
+        if (cancelled) {
+            return null;
+        }
+
+        if (error instanceof CryptoException) {
+            throw (CryptoException) error;
+        } else if (error instanceof FileNotFoundException) {
+            throw (FileNotFoundException) error;
+        } else if (error instanceof RuntimeException) {
+            throw (RuntimeException) error;
+        }
+
+        return keyStore;
+    }
+
+    /**
+     * Did the user cancel loading the KeyStore?
+     *
+     * @return True if cancelled
+     */
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    private void cancelPressed() {
+        // KeyStore loading cannot be interrupted, the result is discarded instead
+        cancelled = true;
+        closeDialog();
+    }
+
+    private void closeDialog() {
+        setVisible(false);
+        dispose();
+    }
+
+    private class LoadKeyStore implements Runnable {
+        @Override
+        public void run() {
+            try {
+                keyStore = keyStoreLoader.load(password);
+            } catch (Exception ex) {
+                error = ex;
+            } finally {
+                SwingUtilities.invokeLater(DOpeningKeyStore.this::closeDialog);
+            }
+        }
+    }
+}
@@ -36,6 +36,7 @@ import java.security.PrivateKey;
 import java.security.ProviderException;
 import java.security.PublicKey;
 import java.security.UnrecoverableKeyException;
+import java.security.cert.Certificate;
 import java.security.cert.CertificateEncodingException;
 import java.security.cert.X509Certificate;
 import java.security.interfaces.DSAParams;
@@ -44,10 +45,12 @@ import java.security.interfaces.DSAPublicKey;
 import java.security.interfaces.RSAPrivateCrtKey;
 import java.security.interfaces.RSAPublicKey;
 import java.text.MessageFormat;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Date;
 import java.util.Enumeration;
+import java.util.List;
 import java.util.ResourceBundle;
-import java.util.TreeSet;
 
 import javax.crypto.SecretKey;
 import javax.swing.JButton;
@@ -58,7 +61,11 @@ import javax.swing.JTree;
 import javax.swing.ScrollPaneConstants;
 import javax.swing.SwingUtilities;
 import javax.swing.border.EmptyBorder;
+import javax.swing.event.TreeExpansionEvent;
+import javax.swing.event.TreeWillExpandListener;
 import javax.swing.tree.DefaultMutableTreeNode;
+import javax.swing.tree.DefaultTreeModel;
+import javax.swing.tree.ExpandVetoException;
 import javax.swing.tree.TreeNode;
 import javax.swing.tree.TreePath;
 import javax.swing.tree.TreeSelectionModel;
@@ -77,6 +84,7 @@ import org.kse.crypto.x509.X500NameUtils;
 import org.kse.crypto.x509.X509CertUtil;
 import org.kse.gui.CursorUtil;
 import org.kse.gui.components.JEscDialog;
+import org.kse.gui.error.DError;
 import org.kse.gui.PlatformUtil;
 import org.kse.utilities.StringUtils;
 import org.kse.utilities.history.KeyStoreHistory;
@@ -145,6 +153,21 @@ public class DProperties extends JEscDialog {
         jtrProperties.setRootVisible(false);
         jtrProperties.getSelectionModel().setSelectionMode(TreeSelectionModel.SINGLE_TREE_SELECTION);
         jtrProperties.setCellRenderer(new PropertiesTreeCellRend());
+        jtrProperties.addTreeWillExpandListener(new TreeWillExpandListener() {
+            @Override
+            public void treeWillExpand(TreeExpansionEvent evt) throws ExpandVetoException {
+                Object node = evt.getPath().getLastPathComponent();
+
+                if (node instanceof EntryNode) {
+                    loadEntryNode((EntryNode) node, evt);
+                }
+            }
+
+            @Override
+            public void treeWillCollapse(TreeExpansionEvent evt) {
+                // Loaded entries keep their child nodes
+            }
+        });
 
         TreeNode topNode = (TreeNode) jtrProperties.getModel().getRoot();
         expandTwoLevels(new TreePath(topNode));
@@ -195,73 +218,73 @@ public class DProperties extends JEscDialog {
                 MessageFormat.format(res.getString("DProperties.properties.Provider"), provider));
         rootNode.add(providerNode);
 
-        createKeysNodes(rootNode);
+        List<String> keyAliases = new ArrayList<>();
+        List<String> keyPairAliases = new ArrayList<>();
+        List<String> trustedCertificateAliases = new ArrayList<>();
+
+        getAliasesInAlphaOrder(keyAliases, keyPairAliases, trustedCertificateAliases);
 
-        createKeyPairsNodes(rootNode);
+        createKeysNodes(rootNode, keyAliases);
 
-        createTrustedCertificatesNodes(rootNode);
+        createKeyPairsNodes(rootNode, keyPairAliases);
+
+        createTrustedCertificatesNodes(rootNode, trustedCertificateAliases);
 
         return rootNode;
     }
 
-    private TreeSet<String> getAliasesInAlphaOrder() throws CryptoException {
+    private void getAliasesInAlphaOrder(List<String> keyAliases, List<String> keyPairAliases,
+                                        List<String> trustedCertificateAliases) throws CryptoException {
         try {
             KeyStore keyStore = currentState.getKeyStore();
 
-            TreeSet<String> aliases = new TreeSet<>();
-
-            Enumeration<String> enumAliases = keyStore.aliases();
+            List<String> aliases = Collections.list(keyStore.aliases());
+            Collections.sort(aliases);
 
-            while (enumAliases.hasMoreElements()) {
-                String alias = enumAliases.nextElement();
+            // Sort once and sort each alias into its entry type in the same pass
+            for (String alias : aliases) {
+                if (!KeyStoreUtil.isSupportedEntryType(alias, keyStore)) {
+                    continue;
+                }
 
-                if (KeyStoreUtil.isSupportedEntryType(alias, keyStore)) {
-                    aliases.add(alias);
+                if (KeyStoreUtil.isTrustedCertificateEntry(alias, keyStore)) {
+                    trustedCertificateAliases.add(alias);
+                } else if (keyStore.isKeyEntry(alias)) {
+                    Certificate[] chain = keyStore.getCertificateChain(alias);
+
+                    if (chain != null && chain.length != 0) {
+                        keyPairAliases.add(alias);
+                    } else {
+                        keyAliases.add(alias);
+                    }
                 }
             }
-            return aliases;
         } catch (KeyStoreException ex) {
             throw new CryptoException(res.getString("DProperties.NoGetProperties.exception.message"), ex);
         }
     }
 
-    private void createTrustedCertificatesNodes(DefaultMutableTreeNode parentNode) throws CryptoException {
-        try {
-            KeyStore keyStore = currentState.getKeyStore();
-
-            TreeSet<String> aliases = getAliasesInAlphaOrder();
-
-            DefaultMutableTreeNode trustCertsNode = new DefaultMutableTreeNode(
-                    res.getString("DProperties.properties.TrustedCertificates"));
-            parentNode.add(trustCertsNode);
+    private void createTrustedCertificatesNodes(DefaultMutableTreeNode parentNode, List<String> aliases) {
+        DefaultMutableTreeNode trustCertsNode = new DefaultMutableTreeNode(
+                res.getString("DProperties.properties.TrustedCertificates"));
+        parentNode.add(trustCertsNode);
 
-            boolean trustCertsPresent = false;
-
-            for (String alias : aliases) {
-                if (KeyStoreUtil.isTrustedCertificateEntry(alias, keyStore)) {
-                    createTrustedCertificateNodes(trustCertsNode, alias);
-
-                    trustCertsPresent = true;
-                }
-            }
+        for (String alias : aliases) {
+            trustCertsNode.add(new EntryNode(alias, node -> createTrustedCertificateNodes(node, alias)));
+        }
 
-            if (!trustCertsPresent) {
-                DefaultMutableTreeNode emptyTrustCertsNode = new DefaultMutableTreeNode(
-                        res.getString("DProperties.properties.None"));
-                trustCertsNode.add(emptyTrustCertsNode);
-            }
-        } catch (KeyStoreException ex) {
-            throw new CryptoException(res.getString("DProperties.NoGetProperties.exception.message"), ex);
+        if (aliases.isEmpty()) {
+            DefaultMutableTreeNode emptyTrustCertsNode = new DefaultMutableTreeNode(
+                    res.getString("DProperties.properties.None"));
+            trustCertsNode.add(emptyTrustCertsNode);
         }
     }
 
-    private void createTrustedCertificateNodes(DefaultMutableTreeNode parentNode, String alias) throws CryptoException {
+    private void createTrustedCertificateNodes(DefaultMutableTreeNode trustedCertificateNode, String alias)
+            throws CryptoException {
         try {
             KeyStore keyStore = currentState.getKeyStore();
 
-            DefaultMutableTreeNode trustedCertificateNode = new DefaultMutableTreeNode(alias);
-            parentNode.add(trustedCertificateNode);
-
             createLastModifiedNode(trustedCertificateNode, alias);
 
             X509Certificate trustedCertificate = X509CertUtil.convertCertificate(keyStore.getCertificate(alias));
@@ -396,43 +419,26 @@ public class DProperties extends JEscDialog {
         }
     }
 
-    private void createKeyPairsNodes(DefaultMutableTreeNode parentNode) throws CryptoException {
-        try {
-            KeyStore keyStore = currentState.getKeyStore();
-
-            TreeSet<String> aliases = getAliasesInAlphaOrder();
-
-            DefaultMutableTreeNode keyPairsNode = new DefaultMutableTreeNode(
-                    res.getString("DProperties.properties.KeyPairs"));
-            parentNode.add(keyPairsNode);
-
-            boolean keyPairsPresent = false;
+    private void createKeyPairsNodes(DefaultMutableTreeNode parentNode, List<String> aliases) {
+        DefaultMutableTreeNode keyPairsNode = new DefaultMutableTreeNode(
+                res.getString("DProperties.properties.KeyPairs"));
+        parentNode.add(keyPairsNode);
 
-            for (String alias : aliases) {
-                if (KeyStoreUtil.isKeyPairEntry(alias, keyStore)) {
-                    createKeyPairNodes(keyPairsNode, alias);
-
-                    keyPairsPresent = true;
-                }
-            }
+        for (String alias : aliases) {
+            keyPairsNode.add(new EntryNode(alias, node -> createKeyPairNodes(node, alias)));
+        }
 
-            if (!keyPairsPresent) {
-                DefaultMutableTreeNode emptyKeyPairNode = new DefaultMutableTreeNode(
-                        res.getString("DProperties.properties.None"));
-                keyPairsNode.add(emptyKeyPairNode);
-            }
-        } catch (KeyStoreException ex) {
-            throw new CryptoException(res.getString("DProperties.NoGetProperties.exception.message"), ex);
+        if (aliases.isEmpty()) {
+            DefaultMutableTreeNode emptyKeyPairNode = new DefaultMutableTreeNode(
+                    res.getString("DProperties.properties.None"));
+            keyPairsNode.add(emptyKeyPairNode);
         }
     }
 
-    private void createKeyPairNodes(DefaultMutableTreeNode parentNode, String alias) throws CryptoException {
+    private void createKeyPairNodes(DefaultMutableTreeNode keyPairNode, String alias) throws CryptoException {
         try {
             KeyStore keyStore = currentState.getKeyStore();
 
-            DefaultMutableTreeNode keyPairNode = new DefaultMutableTreeNode(alias);
-            parentNode.add(keyPairNode);
-
             createLastModifiedNode(keyPairNode, alias);
 
             createPrivateKeyNodes(keyPairNode, alias);
@@ -591,42 +597,25 @@ public class DProperties extends JEscDialog {
         return currentState.getEntryPassword(alias);
     }
 
-    private void createKeysNodes(DefaultMutableTreeNode parentNode) throws CryptoException {
-        try {
-            KeyStore keyStore = currentState.getKeyStore();
-
-            TreeSet<String> aliases = getAliasesInAlphaOrder();
-
-            DefaultMutableTreeNode keysNode = new DefaultMutableTreeNode(res.getString("DProperties.properties.Keys"));
-            parentNode.add(keysNode);
-
-            boolean keysPresent = false;
+    private void createKeysNodes(DefaultMutableTreeNode parentNode, List<String> aliases) {
+        DefaultMutableTreeNode keysNode = new DefaultMutableTreeNode(res.getString("DProperties.properties.Keys"));
+        parentNode.add(keysNode);
 
-            for (String alias : aliases) {
-                if (KeyStoreUtil.isKeyEntry(alias, keyStore)) {
-                    createKeyNodes(keysNode, alias);
-
-                    keysPresent = true;
-                }
-            }
+        for (String alias : aliases) {
+            keysNode.add(new EntryNode(alias, node -> createKeyNodes(node, alias)));
+        }
 
-            if (!keysPresent) {
-                DefaultMutableTreeNode emptyKeyNode = new DefaultMutableTreeNode(
-                        res.getString("DProperties.properties.None"));
-                keysNode.add(emptyKeyNode);
-            }
-        } catch (KeyStoreException ex) {
-            throw new CryptoException(res.getString("DProperties.NoGetProperties.exception.message"), ex);
+        if (aliases.isEmpty()) {
+            DefaultMutableTreeNode emptyKeyNode = new DefaultMutableTreeNode(
+                    res.getString("DProperties.properties.None"));
+            keysNode.add(emptyKeyNode);
         }
     }
 
-    private void createKeyNodes(DefaultMutableTreeNode parentNode, String alias) throws CryptoException {
+    private void createKeyNodes(DefaultMutableTreeNode keyNode, String alias) throws CryptoException {
         try {
             KeyStore keyStore = currentState.getKeyStore();
 
-            DefaultMutableTreeNode keyNode = new DefaultMutableTreeNode(alias);
-            parentNode.add(keyNode);
-
             createLastModifiedNode(keyNode, alias);
 
             Password password = getEntryPassword(alias);
@@ -708,8 +697,29 @@ public class DProperties extends JEscDialog {
         }
     }
 
+    private void loadEntryNode(EntryNode node, TreeExpansionEvent evt) throws ExpandVetoException {
+        if (node.isLoaded()) {
+            return;
+        }
+
+        try {
+            node.load();
+            ((DefaultTreeModel) jtrProperties.getModel()).nodeStructureChanged(node);
+        } catch (CryptoException ex) {
+            DError.displayError(this, ex);
+            throw new ExpandVetoException(evt);
+        }
+    }
+
     private void copyPressed() {
-        String properties = getNodeContents((TreeNode) jtrProperties.getModel().getRoot(), 0);
+        String properties;
+
+        try {
+            properties = getNodeContents((TreeNode) jtrProperties.getModel().getRoot(), 0);
+        } catch (CryptoException ex) {
+            DError.displayError(this, ex);
+            return;
+        }
 
         Clipboard clipboard = Toolkit.getDefaultToolkit().getSystemClipboard();
         StringSelection copy = new StringSelection(properties);
@@ -734,7 +744,12 @@ public class DProperties extends JEscDialog {
         jtrProperties.expandPath(treePath);
     }
 
-    private String getNodeContents(TreeNode node, int level) {
+    private String getNodeContents(TreeNode node, int level) throws CryptoException {
+        // Entries that were never expanded are copied in full without being added to the tree
+        if (node instanceof EntryNode && !((EntryNode) node).isLoaded()) {
+            node = ((EntryNode) node).createLoadedCopy();
+        }
+
         StringBuilder strBuff = new StringBuilder();
 
         strBuff.append(INDENT.toString(level));
@@ -757,4 +772,51 @@ public class DProperties extends JEscDialog {
         setVisible(false);
         dispose();
     }
+
+    /**
+     * Populates the child nodes of a KeyStore entry node.
+     */
+    private interface EntryNodeLoader {
+        void populate(DefaultMutableTreeNode entryNode) throws CryptoException;
+    }
+
+    /**
+     * Tree node for a KeyStore entry whose child nodes are only created when
+     * the entry is first expanded.
+     */
+    private static class EntryNode extends DefaultMutableTreeNode {
+        private static final long serialVersionUID = 1L;
+
+        private transient EntryNodeLoader loader;
+
+        EntryNode(String alias, EntryNodeLoader loader) {
+            super(alias);
+            this.loader = loader;
+        }
+
+        @Override
+        public boolean isLeaf() {
+            return false;
+        }
+
+        boolean isLoaded() {
+            return loader == null;
+        }
+
+        void load() throws CryptoException {
+            try {
+                loader.populate(this);
+                loader = null;
+            } catch (CryptoException ex) {
+                removeAllChildren();
+                throw ex;
+            }
+        }
+
+        DefaultMutableTreeNode createLoadedCopy() throws CryptoException {
+            DefaultMutableTreeNode copy = new DefaultMutableTreeNode(getUserObject());
+            loader.populate(copy);
+            return copy;
+        }
+    }
 }
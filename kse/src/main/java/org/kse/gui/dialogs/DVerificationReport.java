@@ -0,0 +1,163 @@
+/*
+ * Copyright 2004 - 2013 Wayne Grant
+ *           2013 - 2025 Kai Kramer
+ *
+ * This file is part of KeyStore Explorer.
+ *
+ * KeyStore Explorer is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * KeyStore Explorer is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with KeyStore Explorer.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.kse.gui.dialogs;
+
+import java.awt.BorderLayout;
+import java.awt.Dialog;
+import java.awt.Dimension;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
+import java.text.MessageFormat;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.ResourceBundle;
+
+import javax.swing.JButton;
+import javax.swing.JFrame;
+import javax.swing.JLabel;
+import javax.swing.JPanel;
+import javax.swing.JScrollPane;
+import javax.swing.RowSorter;
+import javax.swing.ScrollPaneConstants;
+import javax.swing.SortOrder;
+import javax.swing.SwingUtilities;
+import javax.swing.border.EmptyBorder;
+import javax.swing.table.TableColumn;
+import javax.swing.table.TableRowSorter;
+
+import org.kse.crypto.x509.X509ChainVerifier;
+import org.kse.gui.JKseTable;
+import org.kse.gui.PlatformUtil;
+import org.kse.gui.components.JEscDialog;
+
+/**
+ * A dialog that displays the results of verifying the certificate chains of KeyStore entries in a sortable table.
+ */
+public class DVerificationReport extends JEscDialog {
+    private static final long serialVersionUID = 1L;
+
+    private static ResourceBundle res = ResourceBundle.getBundle("org/kse/gui/dialogs/resources");
+
+    private JLabel jlSummary;
+    private JButton jbOK;
+    private JPanel jpOK;
+    private JPanel jpReportTable;
+    private JScrollPane jspReportTable;
+    private JKseTable jtReport;
+
+    private List<X509ChainVerifier.Result> results;
+
+    /**
+     * Creates a new DVerificationReport dialog.
+     *
+     * @param parent  Parent frame
+     * @param title   The title of the dialog
+     * @param results The verification results
+     */
+    public DVerificationReport(JFrame parent, String title, List<X509ChainVerifier.Result> results) {
+        super(parent, title, Dialog.ModalityType.DOCUMENT_MODAL);
+        this.results = results;
+        initComponents();
+    }
+
+    private void initComponents() {
+        VerificationReportTableModel reportModel = new VerificationReportTableModel();
+        reportModel.load(results);
+
+        jtReport = new JKseTable(reportModel);
+
+        jtReport.setRowMargin(0);
+        jtReport.getColumnModel().setColumnMargin(0);
+        jtReport.getTableHeader().setReorderingAllowed(false);
+        jtReport.setAutoResizeMode(JKseTable.AUTO_RESIZE_OFF);
+
+        // problems first
+        TableRowSorter<VerificationReportTableModel> sorter = new TableRowSorter<>(reportModel);
+        List<RowSorter.SortKey> sortKeys = new ArrayList<>();
+        sortKeys.add(new RowSorter.SortKey(2, SortOrder.DESCENDING));
+        sorter.setSortKeys(sortKeys);
+        jtReport.setRowSorter(sorter);
+
+        int[] widths = { 120, 200, 90, 250, 200 };
+        for (int i = 0; i < jtReport.getColumnCount(); i++) {
+            TableColumn column = jtReport.getColumnModel().getColumn(i);
+
+            column.setPreferredWidth(widths[i]);
+            column.setCellRenderer(new VerificationReportTableCellRend());
+        }
+
+        jspReportTable = PlatformUtil.createScrollPane(jtReport, ScrollPaneConstants.VERTICAL_SCROLLBAR_AS_NEEDED,
+                                                       ScrollPaneConstants.HORIZONTAL_SCROLLBAR_AS_NEEDED);
+        jspReportTable.getViewport().setBackground(jtReport.getBackground());
+
+        jlSummary = new JLabel(getSummary());
+
+        jpReportTable = new JPanel(new BorderLayout(10, 10));
+        jpReportTable.setPreferredSize(new Dimension(700, 300));
+        jpReportTable.add(jlSummary, BorderLayout.NORTH);
+        jpReportTable.add(jspReportTable, BorderLayout.CENTER);
+        jpReportTable.setBorder(new EmptyBorder(5, 5, 5, 5));
+
+        jbOK = new JButton(res.getString("DVerificationReport.jbOK.text"));
+        jbOK.addActionListener(evt -> okPressed());
+
+        jpOK = PlatformUtil.createDialogButtonPanel(jbOK);
+
+        getContentPane().add(jpReportTable, BorderLayout.CENTER);
+        getContentPane().add(jpOK, BorderLayout.SOUTH);
+
+        setResizable(true);
+
+        addWindowListener(new WindowAdapter() {
+            @Override
+            public void windowClosing(WindowEvent evt) {
+                closeDialog();
+            }
+        });
+
+        getRootPane().setDefaultButton(jbOK);
+
+        pack();
+
+        SwingUtilities.invokeLater(() -> jbOK.requestFocus());
+    }
+
+    private String getSummary() {
+        int[] counts = new int[X509ChainVerifier.Status.values().length];
+        for (X509ChainVerifier.Result result : results) {
+            counts[result.getStatus().ordinal()]++;
+        }
+
+        return MessageFormat.format(res.getString("DVerificationReport.jlSummary.text"), results.size(),
+                                    counts[X509ChainVerifier.Status.VALID.ordinal()],
+                                    counts[X509ChainVerifier.Status.REVOKED.ordinal()],
+                                    counts[X509ChainVerifier.Status.UNDETERMINED.ordinal()],
+                                    counts[X509ChainVerifier.Status.INVALID.ordinal()]);
+    }
+
+    private void okPressed() {
+        closeDialog();
+    }
+
+    private void closeDialog() {
+        setVisible(false);
+        dispose();
+    }
+}
@@ -92,6 +92,7 @@ public class DVerifyCertificate extends JEscDialog {
     private JRadioButton jrbOcspUrlCheck;
     private JTextField jtfOcspUrl;
     private JRadioButton jrbChainCheck;
+    private JCheckBox jcbVerifyAll;
     private JCheckBox jcbSelectKeyStore;
     private JPanel jpButtons;
     private JButton jbOk;
@@ -109,6 +110,7 @@ public class DVerifyCertificate extends JEscDialog {
     private String ocspUrl;
 
     private KseFrame kseFrame;
+    private boolean verifyAllAllowed;
 
     /**
      * Creates a new DVerifyCertificate dialog.
@@ -118,9 +120,23 @@ public class DVerifyCertificate extends JEscDialog {
      * @param kseFrame         KeyStore Explorer application frame
      */
     public DVerifyCertificate(JFrame parent, String certificateAlias, KseFrame kseFrame) {
+        this(parent, certificateAlias, kseFrame, false);
+    }
+
+    /**
+     * Creates a new DVerifyCertificate dialog.
+     *
+     * @param parent           The parent frame
+     * @param certificateAlias The certificate alias
+     * @param kseFrame         KeyStore Explorer application frame
+     * @param verifyAllAllowed Offer to verify all entries of the KeyStore instead of the certificate
+     */
+    public DVerifyCertificate(JFrame parent, String certificateAlias, KseFrame kseFrame,
+                              boolean verifyAllAllowed) {
         super(parent, Dialog.ModalityType.DOCUMENT_MODAL);
         this.certificateAlias = certificateAlias;
         this.kseFrame = kseFrame;
+        this.verifyAllAllowed = verifyAllAllowed;
         initComponents();
     }
 
@@ -170,6 +186,9 @@ public class DVerifyCertificate extends JEscDialog {
         buttonGroup.add(jrbChainCheck);
         jrbCrlCheckDistPoint.setSelected(true);
 
+        jcbVerifyAll = new JCheckBox(res.getString("DVerifyCertificate.jcbVerifyAll.text"));
+        jcbVerifyAll.setToolTipText(res.getString("DVerifyCertificate.jcbVerifyAll.tooltip"));
+
         jcbSelectKeyStore = new JCheckBox(res.getString("DVerifyCertificate.jcbSelectKeyStore.text"));
 
         jcbKeyStore = new JComboBox<>(getKeystoreNames());
@@ -200,6 +219,9 @@ public class DVerifyCertificate extends JEscDialog {
         pane.add(jcbOcspIncludeNonce, "right, wrap");
         pane.add(jrbChainCheck, "gapleft indent, spanx, wrap");
         pane.add(new JSeparator(), "spanx, growx, wrap");
+        if (verifyAllAllowed) {
+            pane.add(jcbVerifyAll, "left, spanx, wrap");
+        }
         pane.add(jcbSelectKeyStore, "left, spanx, wrap");
         pane.add(new JLabel(res.getString("DVerifyCertificate.jlKeyStore.text")), "gapleft indent, split 3");
         pane.add(jcbKeyStore, "growx");
@@ -212,6 +234,7 @@ public class DVerifyCertificate extends JEscDialog {
         jrbOcspAiaCheck.addActionListener(evt -> updateVerifyControls());
         jrbOcspUrlCheck.addActionListener(evt -> updateVerifyControls());
         jrbChainCheck.addActionListener(evt -> updateVerifyControls());
+        jcbVerifyAll.addItemListener(evt -> updateVerifyControls());
         jcbSelectKeyStore.addItemListener(evt -> updateVerifyControls());
 
         jbLoadCrl.addActionListener(evt -> {
@@ -261,6 +284,13 @@ public class DVerifyCertificate extends JEscDialog {
 
     private void updateVerifyControls() {
 
+        // a CRL file or OCSP URL only applies to a single certificate
+        if (jcbVerifyAll.isSelected() && (jrbCrlCheckFile.isSelected() || jrbOcspUrlCheck.isSelected())) {
+            jrbCrlCheckDistPoint.setSelected(true);
+        }
+        jrbCrlCheckFile.setEnabled(!jcbVerifyAll.isSelected());
+        jrbOcspUrlCheck.setEnabled(!jcbVerifyAll.isSelected());
+
         if (jrbCrlCheckFile.isSelected()) {
             jtfCrlFile.setEditable(true);
             jtfCrlFile.requestFocus();
@@ -301,6 +331,15 @@ public class DVerifyCertificate extends JEscDialog {
         return verifyOption;
     }
 
+    /**
+     * Verify all entries of the KeyStore instead of the certificate?
+     *
+     * @return True if all entries are to be verified
+     */
+    public boolean isVerifyAllSelected() {
+        return verifyAllAllowed && jcbVerifyAll.isSelected();
+    }
+
     private void okPressed() {
         String title = MessageFormat.format(res.getString("DVerifyCertificate.Title"), certificateAlias);
         if (jrbCrlCheckDistPoint.isSelected()) {
@@ -0,0 +1,211 @@
+/*
+ * Copyright 2004 - 2013 Wayne Grant
+ *           2013 - 2025 Kai Kramer
+ *
+ * This file is part of KeyStore Explorer.
+ *
+ * KeyStore Explorer is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * KeyStore Explorer is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with KeyStore Explorer.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.kse.gui.dialogs;
+
+import java.awt.BorderLayout;
+import java.awt.Dialog;
+import java.awt.FlowLayout;
+import java.awt.event.ActionEvent;
+import java.awt.event.KeyEvent;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
+import java.security.cert.X509Certificate;
+import java.text.MessageFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.ResourceBundle;
+
+import javax.swing.AbstractAction;
+import javax.swing.JButton;
+import javax.swing.JComponent;
+import javax.swing.JFrame;
+import javax.swing.JLabel;
+import javax.swing.JPanel;
+import javax.swing.JProgressBar;
+import javax.swing.KeyStroke;
+import javax.swing.SwingUtilities;
+import javax.swing.border.EmptyBorder;
+
+import org.kse.crypto.CryptoException;
+import org.kse.crypto.x509.X509ChainVerifier;
+import org.kse.gui.PlatformUtil;
+import org.kse.gui.components.JEscDialog;
+
+/**
+ * Verifies the certificate chains of KeyStore entries on a separate thread. The dialog is only shown if verifying
+ * takes noticeable time, the user may then cancel at any time by pressing the cancel button.
+ */
+public class DVerifyingCertificates extends JEscDialog {
+    private static final long serialVersionUID = 1L;
+
+    private static ResourceBundle res = ResourceBundle.getBundle("org/kse/gui/dialogs/resources");
+
+    private static final String CANCEL_KEY = "CANCEL_KEY";
+
+    private static final long SHOW_DELAY_MILLIS = 250;
+
+    private JPanel jpVerifying;
+    private JLabel jlVerifying;
+    private JPanel jpProgress;
+    private JProgressBar jpbVerifying;
+    private JPanel jpCancel;
+    private JButton jbCancel;
+
+    private X509ChainVerifier verifier;
+    private Map<String, X509Certificate[]> chains;
+    private volatile List<X509ChainVerifier.Result> results;
+    private volatile Exception error;
+    private volatile boolean cancelled;
+    private Thread worker;
+
+    /**
+     * Creates a new DVerifyingCertificates dialog.
+     *
+     * @param parent   The parent frame
+     * @param verifier Verifier of the chains
+     * @param chains   Chains ordered from the end entity certificate, keyed by alias
+     */
+    public DVerifyingCertificates(JFrame parent, X509ChainVerifier verifier, Map<String, X509Certificate[]> chains) {
+        super(parent, Dialog.ModalityType.DOCUMENT_MODAL);
+        this.verifier = verifier;
+        this.chains = chains;
+        initComponents();
+    }
+
+    private void initComponents() {
+        jlVerifying = new JLabel(MessageFormat.format(res.getString("DVerifyingCertificates.jlVerifying.text"),
+                                                      chains.size()));
+
+        jpVerifying = new JPanel(new FlowLayout(FlowLayout.CENTER));
+        jpVerifying.add(jlVerifying);
+        jpVerifying.setBorder(new EmptyBorder(5, 5, 5, 5));
+
+        jpbVerifying = new JProgressBar();
+        jpbVerifying.setIndeterminate(true);
+
+        jpProgress = new JPanel(new FlowLayout(FlowLayout.CENTER));
+        jpProgress.add(jpbVerifying);
+        jpProgress.setBorder(new EmptyBorder(5, 5, 5, 5));
+
+        jbCancel = new JButton(res.getString("DVerifyingCertificates.jbCancel.text"));
+        jbCancel.addActionListener(evt -> cancelPressed());
+        jbCancel.getInputMap(JComponent.WHEN_IN_FOCUSED_WINDOW)
+                .put(KeyStroke.getKeyStroke(KeyEvent.VK_ESCAPE, 0), CANCEL_KEY);
+        jbCancel.getActionMap().put(CANCEL_KEY, new AbstractAction() {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            public void actionPerformed(ActionEvent evt) {
+                cancelPressed();
+            }
+        });
+
+        jpCancel = PlatformUtil.createDialogButtonPanel(jbCancel);
+
+        getContentPane().add(jpVerifying, BorderLayout.NORTH);
+        getContentPane().add(jpProgress, BorderLayout.CENTER);
+        getContentPane().add(jpCancel, BorderLayout.SOUTH);
+
+        addWindowListener(new WindowAdapter() {
+            @Override
+            public void windowClosing(WindowEvent evt) {
+                cancelPressed();
+            }
+        });
+
+        setTitle(res.getString("DVerifyingCertificates.Title"));
+        setResizable(false);
+
+        pack();
+    }
+
+    /**
+     * Verify the chains in a separate thread and wait for it. Must be called on the event dispatch thread, which
+     * keeps processing events while the dialog is shown.
+     *
+     * @return The results or null if the user cancelled verifying
+     * @throws CryptoException Problem encountered setting up the verification
+     * @see X509ChainVerifier#verify(Map)
+     */
+    public List<X509ChainVerifier.Result> verify() throws CryptoException {
+        worker = new Thread(new VerifyChains());
+        worker.setDaemon(true);
+        worker.start();
+
+        try {
+            worker.join(SHOW_DELAY_MILLIS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+
+        // Only show dialog if verifying takes a while, it is closed by the worker when done
+        if (worker.isAlive()) {
+            setVisible(true);
+        }
+
+        if (cancelled) {
+            return null;
+        }
+
+        if (error instanceof CryptoException) {
+            throw (CryptoException) error;
+        } else if (error instanceof RuntimeException) {
+            throw (RuntimeException) error;
+        }
+
+        return results;
+    }
+
+    /**
+     * Did the user cancel verifying?
+     *
+     * @return True if cancelled
+     */
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    private void cancelPressed() {
+        // Interrupting the worker stops the running downloads and validations
+        cancelled = true;
+        worker.interrupt();
+        closeDialog();
+    }
+
+    private void closeDialog() {
+        setVisible(false);
+        dispose();
+    }
+
+    private class VerifyChains implements Runnable {
+        @Override
+        public void run() {
+            try {
+                results = verifier.verify(chains);
+            } catch (InterruptedException ex) {
+                cancelled = true;
+            } catch (Exception ex) {
+                error = ex;
+            } finally {
+                SwingUtilities.invokeLater(DVerifyingCertificates.this::closeDialog);
+            }
+        }
+    }
+}
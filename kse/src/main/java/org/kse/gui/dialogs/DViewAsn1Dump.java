@@ -30,7 +30,7 @@ import java.awt.event.WindowEvent;
 import java.io.IOException;
 import java.security.PrivateKey;
 import java.security.PublicKey;
-import java.security.cert.X509CRL;
+import java.security.cert.CertificateEncodingException;
 import java.security.cert.X509Certificate;
 import java.util.ResourceBundle;
 
@@ -38,41 +38,61 @@ import javax.swing.JButton;
 import javax.swing.JDialog;
 import javax.swing.JPanel;
 import javax.swing.JScrollPane;
+import javax.swing.JTabbedPane;
 import javax.swing.JTextArea;
+import javax.swing.JTree;
 import javax.swing.ScrollPaneConstants;
 import javax.swing.SwingUtilities;
 import javax.swing.border.EmptyBorder;
+import javax.swing.event.TreeModelListener;
+import javax.swing.tree.TreeModel;
+import javax.swing.tree.TreePath;
 
+import org.bouncycastle.asn1.ASN1OctetString;
 import org.bouncycastle.asn1.cms.SignerInfo;
 import org.bouncycastle.cms.CMSSignedData;
 import org.bouncycastle.pkcs.PKCS10CertificationRequest;
 import org.kse.crypto.csr.spkac.Spkac;
+import org.kse.crypto.x509.X509CrlHeader;
 import org.kse.crypto.x509.X509Ext;
 import org.kse.gui.CursorUtil;
 import org.kse.gui.components.JEscFrame;
 import org.kse.gui.LnfUtil;
 import org.kse.gui.PlatformUtil;
+import org.kse.gui.error.DError;
 import org.kse.utilities.asn1.Asn1Dump;
+import org.kse.utilities.asn1.Asn1Element;
 import org.kse.utilities.asn1.Asn1Exception;
 
 /**
  * Displays an ASN.1 dump of the supplied object: an X.509 certificate, private
- * key, public key, CRL, Extension, or CMS.
+ * key, public key, CRL, Extension, or CMS. The dump is shown as text and as a
+ * tree whose nodes are decoded when they are expanded. For large objects the
+ * tree is shown first and the text is only created when it is asked for.
  */
 public class DViewAsn1Dump extends JEscFrame {
     private static final long serialVersionUID = 1L;
 
     private static ResourceBundle res = ResourceBundle.getBundle("org/kse/gui/dialogs/resources");
 
+    // objects with a longer encoding are shown as tree first
+    private static final int TEXT_DUMP_MAX_LENGTH = 64 * 1024;
+
     private JPanel jpButtons;
     private JButton jbCopy;
     private JButton jbOK;
     private JPanel jpAsn1Dump;
+    private JTabbedPane jtpAsn1Dump;
     private JScrollPane jspAsn1Dump;
     private JTextArea jtaAsn1Dump;
+    private JScrollPane jspAsn1Tree;
+    private JTree jtrAsn1Tree;
+
+    private byte[] encoding;
+    private String dump;
 
     private X509Certificate certificate;
-    private X509CRL crl;
+    private X509CrlHeader crl;
     private X509Ext extension;
     private PrivateKey privateKey;
     private PublicKey publicKey;
@@ -104,7 +124,7 @@ public class DViewAsn1Dump extends JEscFrame {
      * @throws Asn1Exception A problem was encountered getting the extension's ASN.1 dump
      * @throws IOException   If an I/O problem occurred
      */
-    public DViewAsn1Dump(JDialog parent, X509CRL crl) throws Asn1Exception, IOException {
+    public DViewAsn1Dump(JDialog parent, X509CrlHeader crl) throws Asn1Exception, IOException {
         super(res.getString("DViewAsn1Dump.Crl.Title"));
         this.crl = crl;
         this.setIconImages(parent.getOwner().getIconImages());
@@ -240,29 +260,9 @@ public class DViewAsn1Dump extends JEscFrame {
         jpAsn1Dump = new JPanel(new BorderLayout());
         jpAsn1Dump.setBorder(new EmptyBorder(5, 5, 5, 5));
 
-        Asn1Dump asn1Dump = new Asn1Dump();
-
-        if (certificate != null) {
-            jtaAsn1Dump = new JTextArea(asn1Dump.dump(certificate));
-        } else if (cms != null) {
-            jtaAsn1Dump = new JTextArea(asn1Dump.dump(cms.getEncoded()));
-        } else if (crl != null) {
-            jtaAsn1Dump = new JTextArea(asn1Dump.dump(crl));
-        } else if (extension != null) {
-            jtaAsn1Dump = new JTextArea(asn1Dump.dump(extension));
-        } else if (privateKey != null) {
-            jtaAsn1Dump = new JTextArea(asn1Dump.dump(privateKey));
-        } else if (publicKey != null) {
-            jtaAsn1Dump = new JTextArea(asn1Dump.dump(publicKey));
-        } else if (pkcs10Csr != null) {
-            jtaAsn1Dump = new JTextArea(asn1Dump.dump(pkcs10Csr.getEncoded()));
-        } else if (signerInfo != null) {
-            jtaAsn1Dump = new JTextArea(asn1Dump.dump(signerInfo.getEncoded()));
-        } else {
-            jtaAsn1Dump = new JTextArea(asn1Dump.dump(spkac.getEncoded()));
-        }
+        encoding = getEncoding();
 
-        jtaAsn1Dump.setCaretPosition(0);
+        jtaAsn1Dump = new JTextArea();
         jtaAsn1Dump.setEditable(false);
         jtaAsn1Dump.setFont(new Font(Font.MONOSPACED, Font.PLAIN, LnfUtil.getDefaultFontSize()));
         // JGoodies - keep uneditable color same as editable
@@ -270,8 +270,40 @@ public class DViewAsn1Dump extends JEscFrame {
 
         jspAsn1Dump = PlatformUtil.createScrollPane(jtaAsn1Dump, ScrollPaneConstants.VERTICAL_SCROLLBAR_ALWAYS,
                                                     ScrollPaneConstants.HORIZONTAL_SCROLLBAR_ALWAYS);
-        jspAsn1Dump.setPreferredSize(new Dimension(800, 400));
-        jpAsn1Dump.add(jspAsn1Dump, BorderLayout.CENTER);
+
+        jtrAsn1Tree = new JTree(new Asn1TreeModel(Asn1Element.of(encoding)));
+        jtrAsn1Tree.setFont(new Font(Font.MONOSPACED, Font.PLAIN, LnfUtil.getDefaultFontSize()));
+        jtrAsn1Tree.setRootVisible(true);
+        jtrAsn1Tree.setShowsRootHandles(true);
+
+        jspAsn1Tree = PlatformUtil.createScrollPane(jtrAsn1Tree, ScrollPaneConstants.VERTICAL_SCROLLBAR_ALWAYS,
+                                                    ScrollPaneConstants.HORIZONTAL_SCROLLBAR_ALWAYS);
+
+        jtpAsn1Dump = new JTabbedPane();
+        jtpAsn1Dump.addTab(res.getString("DViewAsn1Dump.jpText.title"), jspAsn1Dump);
+        jtpAsn1Dump.addTab(res.getString("DViewAsn1Dump.jpTree.title"), jspAsn1Tree);
+        jtpAsn1Dump.setPreferredSize(new Dimension(800, 400));
+
+        if (encoding.length <= TEXT_DUMP_MAX_LENGTH) {
+            // same behaviour as before for the usual sizes: a broken object is reported by the caller
+            showDump(getDump());
+        } else {
+            jtpAsn1Dump.setSelectedComponent(jspAsn1Tree);
+            jtpAsn1Dump.addChangeListener(evt -> {
+                if (jtpAsn1Dump.getSelectedComponent() == jspAsn1Dump && dump == null) {
+                    try {
+                        CursorUtil.setCursorBusy(DViewAsn1Dump.this);
+                        showDump(getDump());
+                    } catch (Exception ex) {
+                        DError.displayError(DViewAsn1Dump.this, ex);
+                    } finally {
+                        CursorUtil.setCursorFree(DViewAsn1Dump.this);
+                    }
+                }
+            });
+        }
+
+        jpAsn1Dump.add(jtpAsn1Dump, BorderLayout.CENTER);
 
         getContentPane().add(jpAsn1Dump, BorderLayout.CENTER);
         getContentPane().add(jpButtons, BorderLayout.SOUTH);
@@ -292,8 +324,54 @@ public class DViewAsn1Dump extends JEscFrame {
         SwingUtilities.invokeLater(() -> jbOK.requestFocus());
     }
 
+    private byte[] getEncoding() throws Asn1Exception, IOException {
+        try {
+            if (certificate != null) {
+                return certificate.getEncoded();
+            } else if (cms != null) {
+                return cms.getEncoded();
+            } else if (crl != null) {
+                return crl.getEncoded();
+            } else if (extension != null) {
+                return ASN1OctetString.getInstance(extension.getValue()).getOctets();
+            } else if (privateKey != null) {
+                return privateKey.getEncoded();
+            } else if (publicKey != null) {
+                return publicKey.getEncoded();
+            } else if (pkcs10Csr != null) {
+                return pkcs10Csr.getEncoded();
+            } else if (signerInfo != null) {
+                return signerInfo.getEncoded();
+            } else {
+                return spkac.getEncoded();
+            }
+        } catch (CertificateEncodingException ex) {
+            throw new Asn1Exception(ex);
+        }
+    }
+
+    private String getDump() throws Asn1Exception, IOException {
+        if (dump == null) {
+            StringBuilder sb = new StringBuilder();
+            new Asn1Dump().dump(encoding, sb);
+            dump = sb.toString();
+        }
+        return dump;
+    }
+
+    private void showDump(String dump) {
+        jtaAsn1Dump.setText(dump);
+        jtaAsn1Dump.setCaretPosition(0);
+    }
+
     private void copyPressed() {
-        String policy = jtaAsn1Dump.getText();
+        String policy;
+        try {
+            policy = getDump();
+        } catch (Exception ex) {
+            DError.displayError(this, ex);
+            return;
+        }
 
         Clipboard clipboard = Toolkit.getDefaultToolkit().getSystemClipboard();
         StringSelection copy = new StringSelection(policy);
@@ -308,4 +386,56 @@ public class DViewAsn1Dump extends JEscFrame {
         setVisible(false);
         dispose();
     }
+
+    /**
+     * Tree model for an ASN.1 element that decodes the children of a node when they are first asked for.
+     */
+    private static class Asn1TreeModel implements TreeModel {
+        private final Asn1Element root;
+
+        Asn1TreeModel(Asn1Element root) {
+            this.root = root;
+        }
+
+        @Override
+        public Object getRoot() {
+            return root;
+        }
+
+        @Override
+        public Object getChild(Object parent, int index) {
+            return ((Asn1Element) parent).getChildren().get(index);
+        }
+
+        @Override
+        public int getChildCount(Object parent) {
+            return parent instanceof Asn1Element ? ((Asn1Element) parent).getChildren().size() : 0;
+        }
+
+        @Override
+        public boolean isLeaf(Object node) {
+            // lines of hex dumps are leaves
+            return !(node instanceof Asn1Element) || !((Asn1Element) node).hasChildren();
+        }
+
+        @Override
+        public int getIndexOfChild(Object parent, Object child) {
+            return parent instanceof Asn1Element ? ((Asn1Element) parent).getChildren().indexOf(child) : -1;
+        }
+
+        @Override
+        public void valueForPathChanged(TreePath path, Object newValue) {
+            // read-only
+        }
+
+        @Override
+        public void addTreeModelListener(TreeModelListener l) {
+            // never changes
+        }
+
+        @Override
+        public void removeTreeModelListener(TreeModelListener l) {
+            // never changes
+        }
+    }
 }
@@ -67,9 +67,9 @@ import org.bouncycastle.util.encoders.Hex;
 import org.kse.KSE;
 import org.kse.crypto.CryptoException;
 import org.kse.crypto.KeyInfo;
-import org.kse.crypto.keypair.KeyPairUtil;
 import org.kse.crypto.signing.SignatureType;
 import org.kse.crypto.x509.X500NameUtils;
+import org.kse.crypto.x509.X509CertAttributes;
 import org.kse.crypto.x509.X509CertUtil;
 import org.kse.crypto.x509.X509CertificateGenerator;
 import org.kse.crypto.x509.X509CertificateVersion;
@@ -552,14 +552,16 @@ public class DViewCertificate extends JEscDialog {
                 jtfVersion.setText(Integer.toString(cert.getVersion()));
                 jtfVersion.setCaretPosition(0);
 
-                jdnSubject.setDistinguishedName(X500NameUtils.x500PrincipalToX500Name(cert.getSubjectX500Principal()));
+                X509CertAttributes attributes = X509CertAttributes.get(cert);
 
-                jdnIssuer.setDistinguishedName(X500NameUtils.x500PrincipalToX500Name(cert.getIssuerX500Principal()));
+                jdnSubject.setDistinguishedName(attributes.getSubject());
 
-                jtfSerialNumberHex.setText(X509CertUtil.getSerialNumberAsHex(cert));
+                jdnIssuer.setDistinguishedName(attributes.getIssuer());
+
+                jtfSerialNumberHex.setText(attributes.getSerialNumberHex());
                 jtfSerialNumberHex.setCaretPosition(0);
 
-                jtfSerialNumberDec.setText(X509CertUtil.getSerialNumberAsDec(cert));
+                jtfSerialNumberDec.setText(attributes.getSerialNumberDec());
                 jtfSerialNumberDec.setCaretPosition(0);
 
                 jtfValidFrom.setText(StringUtils.formatDate(startDate));
@@ -586,7 +588,7 @@ public class DViewCertificate extends JEscDialog {
                 }
                 jtfValidUntil.setCaretPosition(0);
 
-                KeyInfo keyInfo = KeyPairUtil.getKeyInfo(cert.getPublicKey());
+                KeyInfo keyInfo = attributes.getKeyInfo();
                 jtfPublicKey.setText(keyInfo.getAlgorithm());
                 Integer keySize = keyInfo.getSize();
 
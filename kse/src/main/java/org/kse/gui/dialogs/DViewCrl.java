@@ -24,17 +24,15 @@ import java.awt.Container;
 import java.awt.Dialog;
 import java.awt.Dimension;
 import java.awt.Point;
+import java.awt.Rectangle;
 import java.awt.event.MouseAdapter;
 import java.awt.event.MouseEvent;
 import java.awt.event.WindowAdapter;
 import java.awt.event.WindowEvent;
 import java.io.IOException;
 import java.math.BigInteger;
-import java.security.cert.X509CRL;
-import java.security.cert.X509CRLEntry;
 import java.text.MessageFormat;
 import java.util.Date;
-import java.util.HashSet;
 import java.util.ResourceBundle;
 import java.util.Set;
 
@@ -42,20 +40,21 @@ import javax.swing.JButton;
 import javax.swing.JDialog;
 import javax.swing.JFrame;
 import javax.swing.JLabel;
+import javax.swing.JOptionPane;
 import javax.swing.JScrollPane;
 import javax.swing.JSeparator;
 import javax.swing.JTable;
 import javax.swing.JTextField;
 import javax.swing.ListSelectionModel;
-import javax.swing.RowSorter;
 import javax.swing.ScrollPaneConstants;
 import javax.swing.SwingUtilities;
 import javax.swing.table.TableColumn;
 import javax.swing.table.TableRowSorter;
 
+import org.kse.crypto.CryptoException;
 import org.kse.crypto.signing.SignatureType;
-import org.kse.crypto.x509.X500NameUtils;
-import org.kse.crypto.x509.X509CertUtil;
+import org.kse.crypto.x509.X509CrlEntryIndex;
+import org.kse.crypto.x509.X509CrlHeader;
 import org.kse.gui.CursorUtil;
 import org.kse.gui.components.JEscDialog;
 import org.kse.gui.PlatformUtil;
@@ -76,6 +75,9 @@ public class DViewCrl extends JEscDialog {
 
     private static ResourceBundle res = ResourceBundle.getBundle("org/kse/gui/dialogs/resources");
 
+    // sorting by revocation date decodes every entry, larger CRLs are only shown in serial number order
+    private static final int MAX_SORTABLE_ENTRIES = 10000;
+
     private JButton jbOK;
     private JLabel jlVersion;
     private JTextField jtfVersion;
@@ -90,22 +92,27 @@ public class DViewCrl extends JEscDialog {
     private JButton jbCrlExtensions;
     private JButton jbCrlAsn1;
     private JLabel jlRevokedCerts;
+    private JLabel jlFindSerialNumber;
+    private JTextField jtfFindSerialNumber;
     private JScrollPane jspRevokedCertsTable;
     private JTable jtRevokedCerts;
     private JButton jbCrlEntryExtensions;
 
-    private X509CRL crl;
+    private X509CrlHeader crl;
+    private X509CrlEntryIndex crlEntryIndex;
 
     /**
-     * Creates a new DViewCrl dialog.
+     * Creates a new DViewCrl dialog. Only the CRL's header is decoded up front, the revoked certificates are decoded
+     * when they are displayed.
      *
-     * @param parent Parent frame
-     * @param title  The dialog title
-     * @param crl    CRL to display
+     * @param parent  Parent frame
+     * @param title   The dialog title
+     * @param crlData PEM or DER encoded CRL to display
+     * @throws CryptoException If the data is not a CRL
      */
-    public DViewCrl(JFrame parent, String title, X509CRL crl) {
+    public DViewCrl(JFrame parent, String title, byte[] crlData) throws CryptoException {
         super(parent, title, Dialog.ModalityType.DOCUMENT_MODAL);
-        this.crl = crl;
+        load(crlData);
         initComponents();
     }
 
@@ -115,14 +122,21 @@ public class DViewCrl extends JEscDialog {
      * @param parent   Parent dialog
      * @param title    The dialog title
      * @param modality Dialog modality
-     * @param crl      CRL to display
+     * @param crlData  PEM or DER encoded CRL to display
+     * @throws CryptoException If the data is not a CRL
      */
-    public DViewCrl(JDialog parent, String title, Dialog.ModalityType modality, X509CRL crl) {
+    public DViewCrl(JDialog parent, String title, Dialog.ModalityType modality, byte[] crlData)
+            throws CryptoException {
         super(parent, title, modality);
-        this.crl = crl;
+        load(crlData);
         initComponents();
     }
 
+    private void load(byte[] crlData) throws CryptoException {
+        crl = X509CrlHeader.of(crlData);
+        crlEntryIndex = X509CrlEntryIndex.of(crl.getEncoded());
+    }
+
     private void initComponents() {
         jlVersion = new JLabel(res.getString("DViewCrl.jlVersion.text"));
 
@@ -182,12 +196,20 @@ public class DViewCrl extends JEscDialog {
         jlRevokedCerts = new JLabel(MessageFormat.format(res.getString("DViewCrl.jlRevokedCerts.text"),
                                                          getCrlEntrySize()));
 
+        jlFindSerialNumber = new JLabel(res.getString("DViewCrl.jlFindSerialNumber.text"));
+
+        jtfFindSerialNumber = new JTextField(15);
+        jtfFindSerialNumber.setToolTipText(res.getString("DViewCrl.jtfFindSerialNumber.tooltip"));
+        jtfFindSerialNumber.setEnabled(getCrlEntrySize() > 0);
+        jtfFindSerialNumber.addActionListener(evt -> findSerialNumber());
+
         RevokedCertsTableModel rcModel = new RevokedCertsTableModel();
 
         jtRevokedCerts = new JTable(rcModel);
 
-        RowSorter<RevokedCertsTableModel> sorter = new TableRowSorter<>(rcModel);
-        jtRevokedCerts.setRowSorter(sorter);
+        if (getCrlEntrySize() <= MAX_SORTABLE_ENTRIES) {
+            jtRevokedCerts.setRowSorter(new TableRowSorter<>(rcModel));
+        }
 
         jtRevokedCerts.setShowGrid(false);
         jtRevokedCerts.setRowMargin(0);
@@ -266,7 +288,9 @@ public class DViewCrl extends JEscDialog {
         pane.add(jbCrlExtensions, "split, spanx, right");
         pane.add(jbCrlAsn1, "wrap unrel");
         pane.add(new JSeparator(), "spanx, growx, wrap");
-        pane.add(jlRevokedCerts, "split, wrap");
+        pane.add(jlRevokedCerts, "split 3, spanx");
+        pane.add(jlFindSerialNumber, "gapleft push");
+        pane.add(jtfFindSerialNumber, "wrap");
         pane.add(jspRevokedCertsTable, "split, spanx, growx, wrap");
         pane.add(jbCrlEntryExtensions, "split, spanx, right, wrap");
         pane.add(new JSeparator(), "spanx, growx, wrap");
@@ -291,11 +315,7 @@ public class DViewCrl extends JEscDialog {
     }
 
     private int getCrlEntrySize() {
-        Set<? extends X509CRLEntry> revokedCertificates = crl.getRevokedCertificates();
-        if (revokedCertificates == null) {
-            return 0;
-        }
-        return revokedCertificates.size();
+        return crlEntryIndex.size();
     }
 
     private void populateDialog() {
@@ -315,7 +335,7 @@ public class DViewCrl extends JEscDialog {
         jtfVersion.setText(Integer.toString(crl.getVersion()));
         jtfVersion.setCaretPosition(0);
 
-        jdnIssuer.setDistinguishedName(X500NameUtils.x500PrincipalToX500Name(crl.getIssuerX500Principal()));
+        jdnIssuer.setDistinguishedName(crl.getIssuer());
 
         jtfEffectiveDate.setText(StringUtils.formatDate(effectiveDate));
 
@@ -355,13 +375,8 @@ public class DViewCrl extends JEscDialog {
         jbCrlExtensions.setEnabled(
                 (critExts != null && !critExts.isEmpty()) || (nonCritExts != null && !nonCritExts.isEmpty()));
 
-        Set<? extends X509CRLEntry> revokedCertsSet = crl.getRevokedCertificates();
-        if (revokedCertsSet == null) {
-            revokedCertsSet = new HashSet<>();
-        }
-        X509CRLEntry[] revokedCerts = revokedCertsSet.toArray(new X509CRLEntry[0]);
         RevokedCertsTableModel revokedCertsTableModel = (RevokedCertsTableModel) jtRevokedCerts.getModel();
-        revokedCertsTableModel.load(revokedCerts);
+        revokedCertsTableModel.load(crlEntryIndex);
 
         if (revokedCertsTableModel.getRowCount() > 0) {
             jtRevokedCerts.changeSelection(0, 0, false, false);
@@ -372,21 +387,7 @@ public class DViewCrl extends JEscDialog {
         int row = jtRevokedCerts.getSelectedRow();
 
         if (row != -1) {
-            BigInteger serialNumber = (BigInteger) jtRevokedCerts.getValueAt(row, 0);
-
-            Set<?> revokedCertsSet = crl.getRevokedCertificates();
-
-            X509CRLEntry x509CrlEntry = null;
-
-            for (Object o : revokedCertsSet) {
-                X509CRLEntry entry = (X509CRLEntry) o;
-                if (serialNumber.equals(entry.getSerialNumber())) {
-                    x509CrlEntry = entry;
-                    break;
-                }
-            }
-
-            if (x509CrlEntry.hasExtensions()) {
+            if (crlEntryIndex.hasExtensions(jtRevokedCerts.convertRowIndexToModel(row))) {
                 jbCrlEntryExtensions.setEnabled(true);
                 return;
             }
@@ -395,6 +396,52 @@ public class DViewCrl extends JEscDialog {
         jbCrlEntryExtensions.setEnabled(false);
     }
 
+    private void findSerialNumber() {
+        String serialNumberStr = jtfFindSerialNumber.getText().trim();
+
+        if (serialNumberStr.isEmpty()) {
+            return;
+        }
+
+        BigInteger serialNumber;
+        try {
+            serialNumber = parseSerialNumber(serialNumberStr);
+        } catch (NumberFormatException ex) {
+            JOptionPane.showMessageDialog(this, MessageFormat.format(
+                    res.getString("DViewCrl.InvalidSerialNumber.message"), serialNumberStr), getTitle(),
+                                          JOptionPane.WARNING_MESSAGE);
+            return;
+        }
+
+        int index = crlEntryIndex.indexOf(serialNumber);
+
+        if (index < 0) {
+            JOptionPane.showMessageDialog(this, MessageFormat.format(
+                    res.getString("DViewCrl.SerialNumberNotFound.message"), serialNumberStr), getTitle(),
+                                          JOptionPane.WARNING_MESSAGE);
+            return;
+        }
+
+        int row = jtRevokedCerts.convertRowIndexToView(index);
+        jtRevokedCerts.changeSelection(row, 0, false, false);
+
+        Rectangle cell = jtRevokedCerts.getCellRect(row, 0, true);
+        jtRevokedCerts.scrollRectToVisible(cell);
+    }
+
+    private static BigInteger parseSerialNumber(String serialNumber) {
+        String hex = serialNumber.replaceAll("[\\s:]", "");
+
+        if (hex.startsWith("0x") || hex.startsWith("0X")) {
+            hex = hex.substring(2);
+        }
+        if (hex.isEmpty()) {
+            throw new NumberFormatException();
+        }
+
+        return new BigInteger(hex, 16);
+    }
+
     private void crlExtensionsPressed() {
         DViewExtensions dViewExtensions = new DViewExtensions(this, res.getString("DViewCrl.Extensions.Title"), crl);
         dViewExtensions.setLocationRelativeTo(this);
@@ -436,27 +483,18 @@ public class DViewCrl extends JEscDialog {
         int row = jtRevokedCerts.getSelectedRow();
 
         if (row != -1) {
-            BigInteger serialNumber = (BigInteger) jtRevokedCerts.getValueAt(row, 0);
-
-            Set<?> revokedCertsSet = crl.getRevokedCertificates();
+            int index = jtRevokedCerts.convertRowIndexToModel(row);
 
-            X509CRLEntry x509CrlEntry = null;
-
-            for (Object o : revokedCertsSet) {
-                X509CRLEntry entry = (X509CRLEntry) o;
-                if (serialNumber.equals(entry.getSerialNumber())) {
-                    x509CrlEntry = entry;
-                    break;
+            if (crlEntryIndex.hasExtensions(index)) {
+                try {
+                    DViewExtensions dViewExtensions = new DViewExtensions(this, res.getString(
+                            "DViewCrl.EntryExtensions.Title"), crlEntryIndex.getEntry(index));
+                    dViewExtensions.setLocationRelativeTo(this);
+                    dViewExtensions.setVisible(true);
+                } catch (CryptoException ex) {
+                    DError.displayError(this, ex);
                 }
             }
-
-            if (x509CrlEntry.hasExtensions()) {
-                DViewExtensions dViewExtensions = new DViewExtensions(this,
-                                                                      res.getString("DViewCrl.EntryExtensions.Title"),
-                                                                      x509CrlEntry);
-                dViewExtensions.setLocationRelativeTo(this);
-                dViewExtensions.setVisible(true);
-            }
         }
     }
 
@@ -486,6 +524,6 @@ public class DViewCrl extends JEscDialog {
                      "NnDBrnJ3rf7k\n" +
                      "-----END X509 CRL-----";
 
-        DialogViewer.run(new DViewCrl(new JFrame(), "CRL", X509CertUtil.loadCRL(crl.getBytes())));
+        DialogViewer.run(new DViewCrl(new JFrame(), "CRL", crl.getBytes()));
     }
 }
@@ -36,6 +36,20 @@ public class PropertiesTreeCellRend extends DefaultTreeCellRenderer {
     private static final long serialVersionUID = 1L;
     private static ResourceBundle res = ResourceBundle.getBundle("org/kse/gui/dialogs/resources");
 
+    // Shared by all cells so that large trees do not decode an icon for every painted row
+    private static final ImageIcon CERTIFICATES_NODE_ICON = createIcon("certificates_node");
+    private static final ImageIcon DEFAULT_NODE_ICON = createIcon("default_node");
+    private static final ImageIcon ENTRY_NODE_ICON = createIcon("entry_node");
+    private static final ImageIcon FILE_NODE_ICON = createIcon("file_node");
+    private static final ImageIcon KEYPAIRS_NODE_ICON = createIcon("keypairs_node");
+    private static final ImageIcon KEYS_NODE_ICON = createIcon("keys_node");
+    private static final ImageIcon PRIVATEKEY_NODE_ICON = createIcon("privatekey_node");
+    private static final ImageIcon PROVIDER_NODE_ICON = createIcon("provider_node");
+    private static final ImageIcon PUBLICKEY_NODE_ICON = createIcon("publickey_node");
+    private static final ImageIcon SECRETKEY_NODE_ICON = createIcon("secretkey_node");
+    private static final ImageIcon TRUSTCERTS_NODE_ICON = createIcon("trustcerts_node");
+    private static final ImageIcon TYPE_NODE_ICON = createIcon("type_node");
+
     /**
      * Returns the rendered cell for the supplied value.
      *
@@ -68,21 +82,21 @@ public class PropertiesTreeCellRend extends DefaultTreeCellRenderer {
             int index = parent.getIndex(node);
 
             if (index == 0) {
-                icon = new ImageIcon(getClass().getResource("images/file_node.png"));
+                icon = FILE_NODE_ICON;
             } else if (index == 1) {
-                icon = new ImageIcon(getClass().getResource("images/type_node.png"));
+                icon = TYPE_NODE_ICON;
             } else if (index == 2) {
-                icon = new ImageIcon(getClass().getResource("images/provider_node.png"));
+                icon = PROVIDER_NODE_ICON;
             } else if (index == 3) {
-                icon = new ImageIcon(getClass().getResource("images/keys_node.png"));
+                icon = KEYS_NODE_ICON;
             } else if (index == 4) {
-                icon = new ImageIcon(getClass().getResource("images/keypairs_node.png"));
+                icon = KEYPAIRS_NODE_ICON;
             } else if (index == 5) {
-                icon = new ImageIcon(getClass().getResource("images/trustcerts_node.png"));
+                icon = TRUSTCERTS_NODE_ICON;
             }
         } else if (node.getLevel() == 2) // Third level - entries
         {
-            icon = new ImageIcon(getClass().getResource("images/entry_node.png"));
+            icon = ENTRY_NODE_ICON;
         } else if (node.getLevel() == 3) // Fourth level - includes private
         // keys, certificates of key
         // pairs, public keys of trusted
@@ -90,37 +104,41 @@ public class PropertiesTreeCellRend extends DefaultTreeCellRenderer {
         // key entries of all types
         {
             if (value.toString().equals(res.getString("DProperties.properties.PrivateKey"))) {
-                icon = new ImageIcon(getClass().getResource("images/privatekey_node.png"));
+                icon = PRIVATEKEY_NODE_ICON;
             } else if (value.toString().equals(res.getString("DProperties.properties.Certificates"))) {
-                icon = new ImageIcon(getClass().getResource("images/certificates_node.png"));
+                icon = CERTIFICATES_NODE_ICON;
             } else if (value.toString().equals(res.getString("DProperties.properties.PublicKey"))) {
-                icon = new ImageIcon(getClass().getResource("images/publickey_node.png"));
+                icon = PUBLICKEY_NODE_ICON;
             } else if (value.toString().equals(res.getString("DProperties.properties.SecretKey"))) {
-                icon = new ImageIcon(getClass().getResource("images/secretkey_node.png"));
+                icon = SECRETKEY_NODE_ICON;
             }
             // Otherwise use default icon
             else {
-                icon = new ImageIcon(getClass().getResource("images/default_node.png"));
+                icon = DEFAULT_NODE_ICON;
             }
         } else if (node.getLevel() == 5) // Sixth level - includes public keys
         // of key pair
         // certificates
         {
             if (value.toString().equals(res.getString("DProperties.properties.PublicKey"))) {
-                icon = new ImageIcon(getClass().getResource("images/publickey_node.png"));
+                icon = PUBLICKEY_NODE_ICON;
             }
             // Otherwise use default icon
             else {
-                icon = new ImageIcon(getClass().getResource("images/default_node.png"));
+                icon = DEFAULT_NODE_ICON;
             }
         }
         // Otherwise use default icon
         else {
-            icon = new ImageIcon(getClass().getResource("images/default_node.png"));
+            icon = DEFAULT_NODE_ICON;
         }
 
         cell.setIcon(icon);
 
         return cell;
     }
+
+    private static ImageIcon createIcon(String name) {
+        return new ImageIcon(PropertiesTreeCellRend.class.getResource("images/" + name + ".png"));
+    }
 }
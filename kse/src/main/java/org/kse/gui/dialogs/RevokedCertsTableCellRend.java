@@ -55,7 +55,10 @@ public class RevokedCertsTableCellRend extends DefaultTableCellRenderer {
         JLabel cell = (JLabel) super.getTableCellRendererComponent(jtRevokedCerts, value, isSelected, hasFocus, row,
                                                                    col);
 
-        if (col == 0) {
+        if (value == null) {
+            // malformed entry
+            cell.setText("");
+        } else if (col == 0) {
             cell.setText(HexUtil.getHexString((BigInteger) value, "0x", 4, 0));
         } else {
             cell.setText(StringUtils.formatDate((Date) value));
@@ -20,18 +20,16 @@
 package org.kse.gui.dialogs;
 
 import java.math.BigInteger;
-import java.security.cert.X509CRLEntry;
 import java.util.Date;
-import java.util.Iterator;
-import java.util.Map;
 import java.util.ResourceBundle;
-import java.util.TreeMap;
 
 import javax.swing.table.AbstractTableModel;
 
+import org.kse.crypto.x509.X509CrlEntryIndex;
+
 /**
- * The table model used to display an array of X.509 CRL entries sorted by
- * serial number.
+ * The table model used to display the X.509 CRL entries of an index sorted by
+ * serial number. Rows are decoded when they are displayed.
  */
 public class RevokedCertsTableModel extends AbstractTableModel {
     private static final long serialVersionUID = 1L;
@@ -39,7 +37,7 @@ public class RevokedCertsTableModel extends AbstractTableModel {
     private static ResourceBundle res = ResourceBundle.getBundle("org/kse/gui/dialogs/resources");
 
     private String[] columnNames;
-    private Object[][] data;
+    private X509CrlEntryIndex index;
 
     /**
      * Construct a new RevokedCertsTableModel.
@@ -48,35 +46,28 @@ public class RevokedCertsTableModel extends AbstractTableModel {
         columnNames = new String[2];
         columnNames[0] = res.getString("RevokedCertsTableModel.SerialNumberColumn");
         columnNames[1] = res.getString("RevokedCertsTableModel.RevocationDateColumn");
-
-        data = new Object[0][0];
     }
 
     /**
-     * Load the RevokedCertsTableModel with an array of X.509 CRL entries.
+     * Load the RevokedCertsTableModel with an index of X.509 CRL entries.
      *
-     * @param revokedCerts The X.509 CRL entries
+     * @param index The index of the X.509 CRL entries
      */
-    public void load(X509CRLEntry[] revokedCerts) {
-        TreeMap<BigInteger, X509CRLEntry> sortedRevokedCerts = new TreeMap<>();
-
-        for (X509CRLEntry revokedCert : revokedCerts) {
-            sortedRevokedCerts.put(revokedCert.getSerialNumber(), revokedCert);
-        }
-
-        data = new Object[sortedRevokedCerts.size()][2];
-
-        int i = 0;
-        for (Iterator<?> itr = sortedRevokedCerts.entrySet().iterator(); itr.hasNext(); i++) {
-            X509CRLEntry x509CrlEntry = (X509CRLEntry) ((Map.Entry<?, ?>) itr.next()).getValue();
-
-            data[i][0] = x509CrlEntry.getSerialNumber();
-            data[i][1] = x509CrlEntry.getRevocationDate();
-        }
+    public void load(X509CrlEntryIndex index) {
+        this.index = index;
 
         fireTableDataChanged();
     }
 
+    /**
+     * Get the index the RevokedCertsTableModel was loaded with.
+     *
+     * @return The index or null if it was not loaded yet
+     */
+    public X509CrlEntryIndex getIndex() {
+        return index;
+    }
+
     /**
      * Get the number of columns in the table.
      *
@@ -94,7 +85,7 @@ public class RevokedCertsTableModel extends AbstractTableModel {
      */
     @Override
     public int getRowCount() {
-        return data.length;
+        return index == null ? 0 : index.size();
     }
 
     /**
@@ -117,7 +108,11 @@ public class RevokedCertsTableModel extends AbstractTableModel {
      */
     @Override
     public Object getValueAt(int row, int col) {
-        return data[row][col];
+        if (col == 0) {
+            return index.getSerialNumber(row);
+        } else {
+            return index.getRevocationDate(row);
+        }
     }
 
     /**
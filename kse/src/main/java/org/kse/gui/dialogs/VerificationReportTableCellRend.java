@@ -0,0 +1,73 @@
+/*
+ * Copyright 2004 - 2013 Wayne Grant
+ *           2013 - 2025 Kai Kramer
+ *
+ * This file is part of KeyStore Explorer.
+ *
+ * KeyStore Explorer is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * KeyStore Explorer is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with KeyStore Explorer.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.kse.gui.dialogs;
+
+import java.awt.Component;
+import java.util.ResourceBundle;
+
+import javax.swing.JLabel;
+import javax.swing.JTable;
+import javax.swing.border.EmptyBorder;
+import javax.swing.table.DefaultTableCellRenderer;
+
+import org.kse.crypto.x509.X509ChainVerifier;
+
+/**
+ * Custom cell renderer for the cells of the verification report table of DVerificationReport.
+ */
+public class VerificationReportTableCellRend extends DefaultTableCellRenderer {
+    private static final long serialVersionUID = 1L;
+
+    private static ResourceBundle res = ResourceBundle.getBundle("org/kse/gui/dialogs/resources");
+
+    /**
+     * Returns the rendered cell for the supplied value and column.
+     *
+     * @param jtReport   The JTable
+     * @param value      The value to assign to the cell
+     * @param isSelected True if cell is selected
+     * @param row        The row of the cell to render
+     * @param col        The column of the cell to render
+     * @param hasFocus   If true, render cell appropriately
+     * @return The rendered cell
+     */
+    @Override
+    public Component getTableCellRendererComponent(JTable jtReport, Object value, boolean isSelected, boolean hasFocus,
+                                                   int row, int col) {
+        JLabel cell = (JLabel) super.getTableCellRendererComponent(jtReport, value, isSelected, hasFocus, row, col);
+
+        if (value instanceof X509ChainVerifier.Status) {
+            X509ChainVerifier.Status status = (X509ChainVerifier.Status) value;
+            cell.setText(res.getString("VerificationReportTableCellRend." + status.name() + ".text"));
+        }
+
+        if (cell.getText().isEmpty()) {
+            cell.setText("-");
+            cell.setHorizontalAlignment(CENTER);
+        } else {
+            cell.setHorizontalAlignment(LEFT);
+            cell.setToolTipText(cell.getText());
+        }
+
+        cell.setBorder(new EmptyBorder(0, 5, 0, 5));
+
+        return cell;
+    }
+}
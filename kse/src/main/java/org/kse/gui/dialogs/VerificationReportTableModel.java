@@ -0,0 +1,145 @@
+/*
+ * Copyright 2004 - 2013 Wayne Grant
+ *           2013 - 2025 Kai Kramer
+ *
+ * This file is part of KeyStore Explorer.
+ *
+ * KeyStore Explorer is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * KeyStore Explorer is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with KeyStore Explorer.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.kse.gui.dialogs;
+
+import java.util.List;
+import java.util.ResourceBundle;
+
+import javax.swing.table.AbstractTableModel;
+
+import org.kse.crypto.x509.X500NameUtils;
+import org.kse.crypto.x509.X509ChainVerifier;
+
+/**
+ * The table model used to display the results of verifying the certificate chains of KeyStore entries.
+ */
+public class VerificationReportTableModel extends AbstractTableModel {
+    private static final long serialVersionUID = 1L;
+
+    private static ResourceBundle res = ResourceBundle.getBundle("org/kse/gui/dialogs/resources");
+
+    private String[] columnNames;
+    private Object[][] data;
+
+    /**
+     * Construct a new VerificationReportTableModel.
+     */
+    public VerificationReportTableModel() {
+        columnNames = new String[5];
+        columnNames[0] = res.getString("VerificationReportTableModel.AliasColumn");
+        columnNames[1] = res.getString("VerificationReportTableModel.SubjectColumn");
+        columnNames[2] = res.getString("VerificationReportTableModel.StatusColumn");
+        columnNames[3] = res.getString("VerificationReportTableModel.DetailsColumn");
+        columnNames[4] = res.getString("VerificationReportTableModel.RevocationSourceColumn");
+
+        data = new Object[0][0];
+    }
+
+    /**
+     * Load the VerificationReportTableModel with the verification results.
+     *
+     * @param results The verification results
+     */
+    public void load(List<X509ChainVerifier.Result> results) {
+        data = new Object[results.size()][5];
+
+        for (int i = 0; i < results.size(); i++) {
+            X509ChainVerifier.Result result = results.get(i);
+
+            data[i][0] = result.getAlias();
+            data[i][1] = X500NameUtils.x500PrincipalToX500Name(result.getCertificate().getSubjectX500Principal())
+                                      .toString();
+            data[i][2] = result.getStatus();
+            data[i][3] = result.getMessage() == null ? "" : result.getMessage();
+            data[i][4] = result.getRevocationSource() == null ? "" : result.getRevocationSource();
+        }
+
+        fireTableDataChanged();
+    }
+
+    /**
+     * Get the number of columns in the table.
+     *
+     * @return The number of columns
+     */
+    @Override
+    public int getColumnCount() {
+        return columnNames.length;
+    }
+
+    /**
+     * Get the number of rows in the table.
+     *
+     * @return The number of rows
+     */
+    @Override
+    public int getRowCount() {
+        return data.length;
+    }
+
+    /**
+     * Get the name of the column at the given position.
+     *
+     * @param col The column position
+     * @return The column name
+     */
+    @Override
+    public String getColumnName(int col) {
+        return columnNames[col];
+    }
+
+    /**
+     * Get the cell value at the given row and column position.
+     *
+     * @param row The row position
+     * @param col The column position
+     * @return The cell value
+     */
+    @Override
+    public Object getValueAt(int row, int col) {
+        return data[row][col];
+    }
+
+    /**
+     * Get the class at of the cells at the given column position.
+     *
+     * @param col The column position
+     * @return The column cells' class
+     */
+    @Override
+    public Class<?> getColumnClass(int col) {
+        if (col == 2) {
+            return X509ChainVerifier.Status.class;
+        }
+        return String.class;
+    }
+
+    /**
+     * Is the cell at the given row and column position editable?
+     *
+     * @param row The row position
+     * @param col The column position
+     * @return True if the cell is editable, false otherwise
+     */
+    @Override
+    public boolean isCellEditable(int row, int col) {
+        return false;
+    }
+}
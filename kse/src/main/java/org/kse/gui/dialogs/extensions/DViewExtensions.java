@@ -29,10 +29,7 @@ import java.awt.GridLayout;
 import java.awt.event.WindowAdapter;
 import java.awt.event.WindowEvent;
 import java.io.IOException;
-import java.io.InputStream;
-import java.net.HttpURLConnection;
 import java.net.URL;
-import java.security.cert.X509CRL;
 import java.security.cert.X509Certificate;
 import java.security.cert.X509Extension;
 import java.text.MessageFormat;
@@ -56,10 +53,8 @@ import javax.swing.event.HyperlinkListener;
 import javax.swing.table.TableColumn;
 import javax.swing.table.TableRowSorter;
 
-import org.apache.commons.io.IOUtils;
 import org.bouncycastle.asn1.ASN1ObjectIdentifier;
 import org.kse.crypto.CryptoException;
-import org.kse.crypto.x509.X509CertUtil;
 import org.kse.crypto.x509.X509Ext;
 import org.kse.crypto.x509.X509ExtensionSet;
 import org.kse.gui.CursorUtil;
@@ -68,6 +63,7 @@ import org.kse.gui.JKseTable;
 import org.kse.gui.KseFrame;
 import org.kse.gui.LnfUtil;
 import org.kse.gui.PlatformUtil;
+import org.kse.gui.dialogs.DFetchingUrl;
 import org.kse.gui.dialogs.DViewAsn1Dump;
 import org.kse.gui.dialogs.DViewCertificate;
 import org.kse.gui.dialogs.DViewCrl;
@@ -368,55 +364,26 @@ public class DViewExtensions extends JEscDialog implements HyperlinkListener {
         }
     }
 
-    private boolean isRedirect(int status) {
-		// normally, 3xx is redirect
-    	if (status != HttpURLConnection.HTTP_OK) {
-			if (status == HttpURLConnection.HTTP_MOVED_TEMP || status == HttpURLConnection.HTTP_MOVED_PERM
-					|| status == HttpURLConnection.HTTP_SEE_OTHER)
-				return true;
-		}
-    	return false;
-    }
-
     private void downloadCrl(URL url) throws IOException, CryptoException {
-    	HttpURLConnection urlConn = (HttpURLConnection) url.openConnection();
-		int status = urlConn.getResponseCode();
-		if (isRedirect(status)) {
-			String newUrl = urlConn.getHeaderField("Location");
-			url = new URL(newUrl);
-			urlConn = (HttpURLConnection) url.openConnection();
-		}
-        try (InputStream is = urlConn.getInputStream()) {
-            X509CRL crl = X509CertUtil.loadCRL(IOUtils.toByteArray(is));
-            if (crl != null) {
-                DViewCrl dViewCrl = new DViewCrl(this,
-                                                 MessageFormat.format(res.getString("DViewExtensions.ViewCrl.Title"),
-                                                                      url.toString()), ModalityType.DOCUMENT_MODAL,
-                                                 crl);
-                dViewCrl.setLocationRelativeTo(this);
-                dViewCrl.setVisible(true);
-            }
+        byte[] crl = DFetchingUrl.getCrl(this, url);
+        if (crl != null) {
+            DViewCrl dViewCrl = new DViewCrl(this, MessageFormat.format(res.getString("DViewExtensions.ViewCrl.Title"),
+                                                                        url.toString()), ModalityType.DOCUMENT_MODAL,
+                                             crl);
+            dViewCrl.setLocationRelativeTo(this);
+            dViewCrl.setVisible(true);
         }
     }
 
     private void downloadCert(URL url) throws IOException, CryptoException {
-    	HttpURLConnection urlConn = (HttpURLConnection) url.openConnection();
-		int status = urlConn.getResponseCode();
-		if (isRedirect(status)) {
-			String newUrl = urlConn.getHeaderField("Location");
-			url = new URL(newUrl);
-			urlConn = (HttpURLConnection) url.openConnection();
-		}
-        try (InputStream is = urlConn.getInputStream()) {
-            X509Certificate[] certs = X509CertUtil.loadCertificates(IOUtils.toByteArray(is));
-            if (certs != null && certs.length > 0) {
-                int importExport = kseFrame == null ? DViewCertificate.NONE : DViewCertificate.IMPORT_EXPORT;
-                DViewCertificate dViewCertificate = new DViewCertificate(this,
-                        MessageFormat.format(res.getString("DViewExtensions.ViewCert.Title"), url.toString()), certs,
-                        kseFrame, importExport);
-                dViewCertificate.setLocationRelativeTo(this);
-                dViewCertificate.setVisible(true);
-            }
+        X509Certificate[] certs = DFetchingUrl.getCertificates(this, url);
+        if (certs != null && certs.length > 0) {
+            int importExport = kseFrame == null ? DViewCertificate.NONE : DViewCertificate.IMPORT_EXPORT;
+            DViewCertificate dViewCertificate = new DViewCertificate(this,
+                    MessageFormat.format(res.getString("DViewExtensions.ViewCert.Title"), url.toString()), certs,
+                    kseFrame, importExport);
+            dViewCertificate.setLocationRelativeTo(this);
+            dViewCertificate.setVisible(true);
         }
     }
 }
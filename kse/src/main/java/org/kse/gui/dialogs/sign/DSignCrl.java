@@ -24,10 +24,8 @@ import java.awt.Container;
 import java.awt.Dialog;
 import java.awt.HeadlessException;
 import java.awt.event.KeyEvent;
-import java.io.IOException;
 import java.math.BigInteger;
 import java.security.PrivateKey;
-import java.security.cert.X509CRL;
 import java.security.cert.X509Certificate;
 import java.util.Date;
 import java.util.Map;
@@ -35,6 +33,7 @@ import java.util.ResourceBundle;
 import java.util.concurrent.TimeUnit;
 
 import javax.swing.JButton;
+import javax.swing.JCheckBox;
 import javax.swing.JComboBox;
 import javax.swing.JComponent;
 import javax.swing.JFrame;
@@ -45,13 +44,10 @@ import javax.swing.JTextField;
 import javax.swing.KeyStroke;
 import javax.swing.UnsupportedLookAndFeelException;
 
-import org.bouncycastle.asn1.ASN1Primitive;
-import org.bouncycastle.asn1.x509.CRLNumber;
-import org.bouncycastle.asn1.x509.Extension;
-import org.bouncycastle.cert.jcajce.JcaX509ExtensionUtils;
 import org.kse.crypto.CryptoException;
 import org.kse.crypto.keypair.KeyPairType;
 import org.kse.crypto.signing.SignatureType;
+import org.kse.crypto.x509.CrlDatabase;
 import org.kse.crypto.x509.X500NameUtils;
 import org.kse.gui.components.JEscDialog;
 import org.kse.gui.KseFrame;
@@ -87,6 +83,7 @@ public class DSignCrl extends JEscDialog {
     private JComboBox<SignatureType> jcbSignatureAlgorithm;
     private JLabel jlCrlNumber;
     private JTextField jtfCrlNumber;
+    private JCheckBox jcbDeltaCrl;
 
     private JRevokedCerts jpRevokedCertsTable;
 
@@ -96,11 +93,12 @@ public class DSignCrl extends JEscDialog {
     private KeyPairType signKeyPairType;
     private PrivateKey signPrivateKey;
     private X509Certificate caCert;
-    private X509CRL crlOld;
+    private CrlDatabase crlDatabase;
     private Date effectiveDate;
     private Date nextUpdate;
     private SignatureType signatureType;
     private BigInteger crlNumber;
+    private boolean deltaCrl;
 
     private JFrame parent;
     private KseFrame kseFrame;
@@ -113,20 +111,20 @@ public class DSignCrl extends JEscDialog {
      * @param signKeyPairType Key pair type
      * @param signPrivateKey  Private key certificate
      * @param caCert          Public key certificate
-     * @param crlOld          An old crl to copy the information of the revoked
-     *                        certificates.
+     * @param crlDatabase     Revocation database of the CA with the revoked
+     *                        certificates and the last issued CRL
      * @throws CryptoException A problem was encountered with the supplied private
      *                         key
      */
     public DSignCrl(JFrame parent, KseFrame kseFrame, KeyPairType signKeyPairType, PrivateKey signPrivateKey,
-                    X509Certificate caCert, X509CRL crlOld) throws CryptoException {
+                    X509Certificate caCert, CrlDatabase crlDatabase) throws CryptoException {
         super(parent, Dialog.ModalityType.DOCUMENT_MODAL);
         this.parent = parent;
         this.kseFrame = kseFrame;
         this.signKeyPairType = signKeyPairType;
         this.signPrivateKey = signPrivateKey;
         this.caCert = caCert;
-        this.crlOld = crlOld;
+        this.crlDatabase = crlDatabase;
         setTitle(res.getString("DSignCrl.Title"));
         initComponents();
     }
@@ -170,7 +168,11 @@ public class DSignCrl extends JEscDialog {
         jtfCrlNumber = new JTextField("1", 5);
         jtfCrlNumber.setToolTipText(res.getString("DSignCrl.jtfCrlNumber.tooltip"));
 
-        jpRevokedCertsTable = new JRevokedCerts(parent, kseFrame, caCert, crlOld);
+        jcbDeltaCrl = new JCheckBox(res.getString("DSignCrl.jcbDeltaCrl.text"));
+        jcbDeltaCrl.setToolTipText(res.getString("DSignCrl.jcbDeltaCrl.tooltip"));
+        jcbDeltaCrl.setEnabled(crlDatabase != null && crlDatabase.getBaseCrlNumber() != null);
+
+        jpRevokedCertsTable = new JRevokedCerts(parent, kseFrame, caCert, crlDatabase);
 
         jbOK = new JButton(res.getString("DSignCrl.jbOK.text"));
         jbCancel = new JButton(res.getString("DSignCrl.jbCancel.text"));
@@ -195,7 +197,8 @@ public class DSignCrl extends JEscDialog {
         pane.add(jlSignatureAlgorithm, "");
         pane.add(jcbSignatureAlgorithm, "wrap");
         pane.add(jlCrlNumber, "");
-        pane.add(jtfCrlNumber, "wrap");
+        pane.add(jtfCrlNumber, "split 2");
+        pane.add(jcbDeltaCrl, "gapleft unrel, wrap");
         pane.add(jpRevokedCertsTable, "spanx, growx, wrap unrel");
         pane.add(jpButtons, "right, spanx");
 
@@ -225,28 +228,22 @@ public class DSignCrl extends JEscDialog {
             jdnCrlIssuer.setDistinguishedName(X500NameUtils.x500PrincipalToX500Name(caCert.getSubjectX500Principal()));
         }
 
-        if (crlOld == null) {
+        if (crlDatabase == null || crlDatabase.getCrlNumber() == null) {
             Date startDate = jdtEffectiveDate.getDateTime();
             jdtNextUpdate.setDateTime(jvpValidityPeriod.getValidityEnd(startDate));
         } else {
-            Date firstDate = crlOld.getThisUpdate();
-            Date secondDate = crlOld.getNextUpdate();
-            long diffInMillies = Math.abs(secondDate.getTime() - firstDate.getTime());
-            int diff = (int) TimeUnit.DAYS.convert(diffInMillies, TimeUnit.MILLISECONDS);
-            jvpValidityPeriod.setValue(diff);
+            Date firstDate = crlDatabase.getThisUpdate();
+            Date secondDate = crlDatabase.getNextUpdate();
+            if (secondDate != null) {
+                long diffInMillies = Math.abs(secondDate.getTime() - firstDate.getTime());
+                int diff = (int) TimeUnit.DAYS.convert(diffInMillies, TimeUnit.MILLISECONDS);
+                jvpValidityPeriod.setValue(diff);
+            }
             Date startDate = jdtEffectiveDate.getDateTime();
             jdtNextUpdate.setDateTime(jvpValidityPeriod.getValidityEnd(startDate));
 
-            byte[] crlNumEnc = crlOld.getExtensionValue(Extension.cRLNumber.getId());
-            if (crlNumEnc != null) {
-                try {
-                    ASN1Primitive primitive = JcaX509ExtensionUtils.parseExtensionValue(crlNumEnc);
-                    BigInteger nextCrlNum = CRLNumber.getInstance(primitive).getCRLNumber().add(BigInteger.ONE);
-                    jtfCrlNumber.setText(nextCrlNum.toString());
-                } catch (IOException e) {
-                    // ignore
-                }
-            }
+            BigInteger nextCrlNum = crlDatabase.getCrlNumber().add(BigInteger.ONE);
+            jtfCrlNumber.setText(nextCrlNum.toString());
         }
     }
 
@@ -255,6 +252,7 @@ public class DSignCrl extends JEscDialog {
         nextUpdate = null;
         signatureType = null;
         crlNumber = null;
+        deltaCrl = false;
         closeDialog();
     }
 
@@ -288,6 +286,7 @@ public class DSignCrl extends JEscDialog {
         effectiveDate = jdtEffectiveDate.getDateTime();
         nextUpdate = jdtNextUpdate.getDateTime();
         signatureType = (SignatureType) jcbSignatureAlgorithm.getSelectedItem();
+        deltaCrl = jcbDeltaCrl.isSelected();
         closeDialog();
     }
 
@@ -307,6 +306,10 @@ public class DSignCrl extends JEscDialog {
         return crlNumber;
     }
 
+    public boolean isDeltaCrl() {
+        return deltaCrl;
+    }
+
     public Map<BigInteger, RevokedEntry> getMapRevokedEntry() {
         return jpRevokedCertsTable.getMapRevokedEntry();
     }
@@ -0,0 +1,603 @@
+/*
+ * Copyright 2004 - 2013 Wayne Grant
+ *           2013 - 2025 Kai Kramer
+ *
+ * This file is part of KeyStore Explorer.
+ *
+ * KeyStore Explorer is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * KeyStore Explorer is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with KeyStore Explorer.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.kse.gui.dialogs.sign;
+
+import static org.kse.crypto.x509.X509CertificateVersion.VERSION1;
+import static org.kse.crypto.x509.X509CertificateVersion.VERSION3;
+
+import java.awt.Container;
+import java.awt.Dialog;
+import java.awt.event.ActionEvent;
+import java.awt.event.KeyEvent;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.security.PrivateKey;
+import java.text.MessageFormat;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.Locale;
+import java.util.ResourceBundle;
+import java.util.concurrent.TimeUnit;
+
+import javax.swing.AbstractAction;
+import javax.swing.ButtonGroup;
+import javax.swing.JButton;
+import javax.swing.JCheckBox;
+import javax.swing.JComboBox;
+import javax.swing.JComponent;
+import javax.swing.JFileChooser;
+import javax.swing.JFrame;
+import javax.swing.JLabel;
+import javax.swing.JOptionPane;
+import javax.swing.JPanel;
+import javax.swing.JRadioButton;
+import javax.swing.JSeparator;
+import javax.swing.JTextField;
+import javax.swing.KeyStroke;
+
+import org.kse.crypto.keypair.KeyPairType;
+import org.kse.crypto.signing.SignatureType;
+import org.kse.crypto.x509.X509CertificateVersion;
+import org.kse.crypto.x509.X509ExtensionSet;
+import org.kse.crypto.x509.X509ExtensionSetLoadException;
+import org.kse.gui.CurrentDirectory;
+import org.kse.gui.CursorUtil;
+import org.kse.gui.FileChooserFactory;
+import org.kse.gui.MiGUtil;
+import org.kse.gui.PlatformUtil;
+import org.kse.gui.components.JEscDialog;
+import org.kse.gui.crypto.JValidityPeriod;
+import org.kse.gui.datetime.JDateTime;
+import org.kse.gui.dialogs.DialogHelper;
+import org.kse.gui.error.DError;
+
+import net.miginfocom.swing.MigLayout;
+
+/**
+ * Dialog that presents the options for signing a batch of CSRs with the same signing options and extension template.
+ */
+public class DSignCsrBatch extends JEscDialog {
+    private static final long serialVersionUID = 1L;
+
+    private static ResourceBundle res = ResourceBundle.getBundle("org/kse/gui/dialogs/sign/resources");
+
+    private static final String CANCEL_KEY = "CANCEL_KEY";
+
+    private static final List<String> CSR_EXTENSIONS = Arrays.asList(FileChooserFactory.PKCS10_CSR_EXT_1,
+                                                                     FileChooserFactory.PKCS10_CSR_EXT_2,
+                                                                     FileChooserFactory.PEM_EXT,
+                                                                     FileChooserFactory.SPKAC_CSR_EXT);
+
+    private JLabel jlCsrFiles;
+    private JButton jbCsrFilesBrowse;
+    private JButton jbCsrDirectoryBrowse;
+    private JLabel jlFileCount;
+    private JLabel jlOutputDirectory;
+    private JTextField jtfOutputDirectory;
+    private JButton jbOutputDirectoryBrowse;
+    private JLabel jlVersion;
+    private JRadioButton jrbVersion1;
+    private JRadioButton jrbVersion3;
+    private JLabel jlSignatureAlgorithm;
+    private JComboBox<SignatureType> jcbSignatureAlgorithm;
+    private JLabel jlValidityStart;
+    private JDateTime jdtValidityStart;
+    private JLabel jlValidityPeriod;
+    private JValidityPeriod jvpValidityPeriod;
+    private JLabel jlValidityEnd;
+    private JDateTime jdtValidityEnd;
+    private JLabel jlExtensionTemplate;
+    private JTextField jtfExtensionTemplate;
+    private JButton jbExtensionTemplateBrowse;
+    private JCheckBox jcbTransferExtensions;
+    private JLabel jlOutputFormat;
+    private JCheckBox jcbPemEncode;
+    private JCheckBox jcbIncludeChain;
+    private JButton jbOK;
+    private JButton jbCancel;
+
+    private PrivateKey signPrivateKey;
+    private KeyPairType signKeyPairType;
+
+    private List<File> csrFiles;
+    private X509ExtensionSet extensionTemplate = new X509ExtensionSet();
+    private X509CertificateVersion version;
+    private SignatureType signatureType;
+    private Date validityStart;
+    private Date validityEnd;
+    private File outputDirectory;
+
+    /**
+     * Creates a new DSignCsrBatch dialog.
+     *
+     * @param parent          The parent frame
+     * @param csrFiles        Initially selected CSR files
+     * @param signPrivateKey  Signing private key
+     * @param signKeyPairType Signing key pair's type
+     */
+    public DSignCsrBatch(JFrame parent, List<File> csrFiles, PrivateKey signPrivateKey, KeyPairType signKeyPairType) {
+        super(parent, Dialog.ModalityType.DOCUMENT_MODAL);
+        this.csrFiles = new ArrayList<>(csrFiles);
+        this.signPrivateKey = signPrivateKey;
+        this.signKeyPairType = signKeyPairType;
+        setTitle(res.getString("DSignCsrBatch.Title"));
+        initComponents();
+    }
+
+    private void initComponents() {
+        jlCsrFiles = new JLabel(res.getString("DSignCsrBatch.jlCsrFiles.text"));
+
+        jbCsrFilesBrowse = new JButton(res.getString("DSignCsrBatch.jbCsrFilesBrowse.text"));
+        PlatformUtil.setMnemonic(jbCsrFilesBrowse, res.getString("DSignCsrBatch.jbCsrFilesBrowse.mnemonic").charAt(0));
+        jbCsrFilesBrowse.setToolTipText(res.getString("DSignCsrBatch.jbCsrFilesBrowse.tooltip"));
+
+        jbCsrDirectoryBrowse = new JButton(res.getString("DSignCsrBatch.jbCsrDirectoryBrowse.text"));
+        PlatformUtil.setMnemonic(jbCsrDirectoryBrowse,
+                                 res.getString("DSignCsrBatch.jbCsrDirectoryBrowse.mnemonic").charAt(0));
+        jbCsrDirectoryBrowse.setToolTipText(res.getString("DSignCsrBatch.jbCsrDirectoryBrowse.tooltip"));
+
+        jlFileCount = new JLabel();
+        updateFileCount();
+
+        jlOutputDirectory = new JLabel(res.getString("DSignCsrBatch.jlOutputDirectory.text"));
+
+        jtfOutputDirectory = new JTextField(30);
+        jtfOutputDirectory.setToolTipText(res.getString("DSignCsrBatch.jtfOutputDirectory.tooltip"));
+        if (!csrFiles.isEmpty() && csrFiles.get(0).getParentFile() != null) {
+            jtfOutputDirectory.setText(csrFiles.get(0).getParentFile().getPath());
+            jtfOutputDirectory.setCaretPosition(0);
+        }
+
+        jbOutputDirectoryBrowse = new JButton(res.getString("DSignCsrBatch.jbOutputDirectoryBrowse.text"));
+        PlatformUtil.setMnemonic(jbOutputDirectoryBrowse,
+                                 res.getString("DSignCsrBatch.jbOutputDirectoryBrowse.mnemonic").charAt(0));
+        jbOutputDirectoryBrowse.setToolTipText(res.getString("DSignCsrBatch.jbOutputDirectoryBrowse.tooltip"));
+
+        jlVersion = new JLabel(res.getString("DSignCsr.jlVersion.text"));
+
+        jrbVersion1 = new JRadioButton(res.getString("DSignCsr.jrbVersion1.text"));
+        jrbVersion1.setToolTipText(res.getString("DSignCsr.jrbVersion1.tooltip"));
+
+        jrbVersion3 = new JRadioButton(res.getString("DSignCsr.jrbVersion3.text"));
+        jrbVersion3.setToolTipText(res.getString("DSignCsr.jrbVersion3.tooltip"));
+
+        ButtonGroup buttonGroup = new ButtonGroup();
+        buttonGroup.add(jrbVersion1);
+        buttonGroup.add(jrbVersion3);
+        jrbVersion3.setSelected(true);
+
+        jlSignatureAlgorithm = new JLabel(res.getString("DSignCsr.jlSignatureAlgorithm.text"));
+
+        jcbSignatureAlgorithm = new JComboBox<>();
+        jcbSignatureAlgorithm.setMaximumRowCount(10);
+        DialogHelper.populateSigAlgs(signKeyPairType, signPrivateKey, jcbSignatureAlgorithm);
+        jcbSignatureAlgorithm.setToolTipText(res.getString("DSignCsr.jcbSignatureAlgorithm.tooltip"));
+
+        Date now = new Date();
+
+        jlValidityStart = new JLabel(res.getString("DSignCsr.jlValidityStart.text"));
+
+        jdtValidityStart = new JDateTime(res.getString("DSignCsr.jdtValidityStart.text"), false);
+        jdtValidityStart.setDateTime(now);
+        jdtValidityStart.setToolTipText(res.getString("DSignCsr.jdtValidityStart.tooltip"));
+
+        jlValidityPeriod = new JLabel(res.getString("DSignCsr.jlValidityPeriod.text"));
+
+        jvpValidityPeriod = new JValidityPeriod(JValidityPeriod.YEARS);
+        jvpValidityPeriod.setToolTipText(res.getString("DSignCsr.jvpValidityPeriod.tooltip"));
+
+        jlValidityEnd = new JLabel(res.getString("DSignCsr.jlValidityEnd.text"));
+
+        jdtValidityEnd = new JDateTime(res.getString("DSignCsr.jdtValidityEnd.text"), false);
+        jdtValidityEnd.setDateTime(new Date(now.getTime() + TimeUnit.DAYS.toMillis(365)));
+        jdtValidityEnd.setToolTipText(res.getString("DSignCsr.jdtValidityEnd.tooltip"));
+
+        jlExtensionTemplate = new JLabel(res.getString("DSignCsrBatch.jlExtensionTemplate.text"));
+
+        jtfExtensionTemplate = new JTextField(30);
+        jtfExtensionTemplate.setEditable(false);
+        jtfExtensionTemplate.setToolTipText(res.getString("DSignCsrBatch.jtfExtensionTemplate.tooltip"));
+
+        jbExtensionTemplateBrowse = new JButton(res.getString("DSignCsrBatch.jbExtensionTemplateBrowse.text"));
+        PlatformUtil.setMnemonic(jbExtensionTemplateBrowse,
+                                 res.getString("DSignCsrBatch.jbExtensionTemplateBrowse.mnemonic").charAt(0));
+        jbExtensionTemplateBrowse.setToolTipText(res.getString("DSignCsrBatch.jbExtensionTemplateBrowse.tooltip"));
+
+        jcbTransferExtensions = new JCheckBox(res.getString("DSignCsrBatch.jcbTransferExtensions.text"));
+        jcbTransferExtensions.setToolTipText(res.getString("DSignCsrBatch.jcbTransferExtensions.tooltip"));
+
+        jlOutputFormat = new JLabel(res.getString("DSignCsrBatch.jlOutputFormat.text"));
+
+        jcbPemEncode = new JCheckBox(res.getString("DSignCsrBatch.jcbPemEncode.text"), true);
+        jcbPemEncode.setToolTipText(res.getString("DSignCsrBatch.jcbPemEncode.tooltip"));
+
+        jcbIncludeChain = new JCheckBox(res.getString("DSignCsrBatch.jcbIncludeChain.text"));
+        jcbIncludeChain.setToolTipText(res.getString("DSignCsrBatch.jcbIncludeChain.tooltip"));
+
+        jbOK = new JButton(res.getString("DSignCsrBatch.jbOK.text"));
+        jbCancel = new JButton(res.getString("DSignCsrBatch.jbCancel.text"));
+        jbCancel.getInputMap(JComponent.WHEN_IN_FOCUSED_WINDOW)
+                .put(KeyStroke.getKeyStroke(KeyEvent.VK_ESCAPE, 0), CANCEL_KEY);
+
+        JPanel jpButtons = PlatformUtil.createDialogButtonPanel(jbOK, jbCancel, "insets 0");
+
+        // layout
+        Container pane = getContentPane();
+        pane.setLayout(new MigLayout("insets dialog, fill", "[right]unrel[]", "[]unrel[]"));
+        MiGUtil.addSeparator(pane, res.getString("DSignCsrBatch.jpFiles.text"));
+        pane.add(jlCsrFiles, "");
+        pane.add(jbCsrFilesBrowse, "split 3");
+        pane.add(jbCsrDirectoryBrowse, "");
+        pane.add(jlFileCount, "gapx unrel, wrap");
+        pane.add(jlOutputDirectory, "");
+        pane.add(jtfOutputDirectory, "split 2, growx");
+        pane.add(jbOutputDirectoryBrowse, "wrap");
+        pane.add(jlOutputFormat, "");
+        pane.add(jcbPemEncode, "split 2");
+        pane.add(jcbIncludeChain, "wrap");
+        MiGUtil.addSeparator(pane, res.getString("DSignCsr.jpSigningOptions.text"));
+        pane.add(jlVersion, "");
+        pane.add(jrbVersion1, "split 2");
+        pane.add(jrbVersion3, "wrap");
+        pane.add(jlSignatureAlgorithm, "");
+        pane.add(jcbSignatureAlgorithm, "wrap");
+        pane.add(jlValidityStart, "");
+        pane.add(jdtValidityStart, "wrap");
+        pane.add(jlValidityPeriod, "");
+        pane.add(jvpValidityPeriod, "wrap");
+        pane.add(jlValidityEnd, "");
+        pane.add(jdtValidityEnd, "wrap");
+        pane.add(jlExtensionTemplate, "");
+        pane.add(jtfExtensionTemplate, "split 2, growx");
+        pane.add(jbExtensionTemplateBrowse, "wrap");
+        pane.add(jcbTransferExtensions, "skip, wrap");
+        pane.add(new JSeparator(), "spanx, growx, wrap");
+        pane.add(jpButtons, "right, spanx");
+
+        jbCsrFilesBrowse.addActionListener(evt -> {
+            try {
+                CursorUtil.setCursorBusy(DSignCsrBatch.this);
+                csrFilesBrowsePressed();
+            } finally {
+                CursorUtil.setCursorFree(DSignCsrBatch.this);
+            }
+        });
+
+        jbCsrDirectoryBrowse.addActionListener(evt -> {
+            try {
+                CursorUtil.setCursorBusy(DSignCsrBatch.this);
+                csrDirectoryBrowsePressed();
+            } finally {
+                CursorUtil.setCursorFree(DSignCsrBatch.this);
+            }
+        });
+
+        jbOutputDirectoryBrowse.addActionListener(evt -> {
+            try {
+                CursorUtil.setCursorBusy(DSignCsrBatch.this);
+                outputDirectoryBrowsePressed();
+            } finally {
+                CursorUtil.setCursorFree(DSignCsrBatch.this);
+            }
+        });
+
+        jbExtensionTemplateBrowse.addActionListener(evt -> {
+            try {
+                CursorUtil.setCursorBusy(DSignCsrBatch.this);
+                extensionTemplateBrowsePressed();
+            } finally {
+                CursorUtil.setCursorFree(DSignCsrBatch.this);
+            }
+        });
+
+        jvpValidityPeriod.addApplyActionListener(e -> {
+            Date startDate = jdtValidityStart.getDateTime();
+            if (startDate == null) {
+                startDate = new Date();
+                jdtValidityStart.setDateTime(startDate);
+            }
+            jdtValidityEnd.setDateTime(jvpValidityPeriod.getValidityEnd(startDate));
+        });
+
+        jrbVersion3.addChangeListener(evt -> enableDisableElements());
+
+        jbOK.addActionListener(evt -> okPressed());
+
+        jbCancel.addActionListener(evt -> cancelPressed());
+        jbCancel.getActionMap().put(CANCEL_KEY, new AbstractAction() {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            public void actionPerformed(ActionEvent evt) {
+                cancelPressed();
+            }
+        });
+
+        addWindowListener(new WindowAdapter() {
+            @Override
+            public void windowClosing(WindowEvent evt) {
+                cancelPressed();
+            }
+        });
+
+        setResizable(false);
+
+        getRootPane().setDefaultButton(jbOK);
+
+        pack();
+    }
+
+    private void enableDisableElements() {
+        jtfExtensionTemplate.setEnabled(jrbVersion3.isSelected());
+        jbExtensionTemplateBrowse.setEnabled(jrbVersion3.isSelected());
+        jcbTransferExtensions.setEnabled(jrbVersion3.isSelected());
+    }
+
+    private void updateFileCount() {
+        jlFileCount.setText(MessageFormat.format(res.getString("DSignCsrBatch.jlFileCount.text"), csrFiles.size()));
+    }
+
+    private void csrFilesBrowsePressed() {
+        JFileChooser chooser = FileChooserFactory.getCsrFileChooser();
+        chooser.setCurrentDirectory(CurrentDirectory.get());
+        chooser.setDialogTitle(res.getString("DSignCsrBatch.ChooseCsrFiles.Title"));
+        chooser.setMultiSelectionEnabled(true);
+        chooser.setApproveButtonText(res.getString("DSignCsrBatch.ChooseCsrFiles.button"));
+
+        int rtnValue = chooser.showOpenDialog(this);
+        if (rtnValue == JFileChooser.APPROVE_OPTION) {
+            File[] chosenFiles = chooser.getSelectedFiles();
+            if (chosenFiles.length > 0) {
+                CurrentDirectory.updateForFile(chosenFiles[0]);
+                csrFiles = new ArrayList<>(Arrays.asList(chosenFiles));
+                updateFileCount();
+            }
+        }
+    }
+
+    private void csrDirectoryBrowsePressed() {
+        File directory = chooseDirectory(res.getString("DSignCsrBatch.ChooseCsrDirectory.Title"));
+        if (directory == null) {
+            return;
+        }
+
+        File[] files = directory.listFiles(file -> file.isFile() && CSR_EXTENSIONS.contains(
+                getExtension(file.getName())));
+        if (files == null || files.length == 0) {
+            JOptionPane.showMessageDialog(this, MessageFormat.format(
+                    res.getString("DSignCsrBatch.NoCsrFilesInDirectory.message"), directory), getTitle(),
+                                          JOptionPane.WARNING_MESSAGE);
+            return;
+        }
+
+        Arrays.sort(files);
+        csrFiles = new ArrayList<>(Arrays.asList(files));
+        updateFileCount();
+
+        if (jtfOutputDirectory.getText().trim().isEmpty()) {
+            jtfOutputDirectory.setText(directory.getPath());
+            jtfOutputDirectory.setCaretPosition(0);
+        }
+    }
+
+    private static String getExtension(String fileName) {
+        int index = fileName.lastIndexOf('.');
+        return index < 0 ? "" : fileName.substring(index + 1).toLowerCase(Locale.ROOT);
+    }
+
+    private void outputDirectoryBrowsePressed() {
+        File directory = chooseDirectory(res.getString("DSignCsrBatch.ChooseOutputDirectory.Title"));
+        if (directory != null) {
+            jtfOutputDirectory.setText(directory.getPath());
+            jtfOutputDirectory.setCaretPosition(0);
+        }
+    }
+
+    private File chooseDirectory(String title) {
+        JFileChooser chooser = FileChooserFactory.getNoFileChooser();
+        chooser.setCurrentDirectory(CurrentDirectory.get());
+        chooser.setDialogTitle(title);
+        chooser.setFileSelectionMode(JFileChooser.DIRECTORIES_ONLY);
+        chooser.setMultiSelectionEnabled(false);
+
+        int rtnValue = chooser.showDialog(this, res.getString("DSignCsrBatch.ChooseDirectory.button"));
+        if (rtnValue == JFileChooser.APPROVE_OPTION) {
+            File directory = chooser.getSelectedFile();
+            CurrentDirectory.update(directory);
+            return directory;
+        }
+        return null;
+    }
+
+    private void extensionTemplateBrowsePressed() {
+        JFileChooser chooser = FileChooserFactory.getCetFileChooser();
+        chooser.setCurrentDirectory(CurrentDirectory.get());
+        chooser.setDialogTitle(res.getString("DSignCsrBatch.ChooseExtensionTemplate.Title"));
+        chooser.setMultiSelectionEnabled(false);
+        chooser.setApproveButtonText(res.getString("DSignCsrBatch.ChooseExtensionTemplate.button"));
+
+        int rtnValue = chooser.showOpenDialog(this);
+        if (rtnValue != JFileChooser.APPROVE_OPTION) {
+            return;
+        }
+
+        File templateFile = chooser.getSelectedFile();
+        CurrentDirectory.updateForFile(templateFile);
+
+        try (FileInputStream fis = new FileInputStream(templateFile)) {
+            extensionTemplate = X509ExtensionSet.load(fis);
+            jtfExtensionTemplate.setText(templateFile.getPath());
+            jtfExtensionTemplate.setCaretPosition(0);
+        } catch (X509ExtensionSetLoadException ex) {
+            JOptionPane.showMessageDialog(this, MessageFormat.format(
+                    res.getString("DSignCsrBatch.InvalidExtensionTemplate.message"), templateFile), getTitle(),
+                                          JOptionPane.WARNING_MESSAGE);
+        } catch (FileNotFoundException ex) {
+            JOptionPane.showMessageDialog(this, MessageFormat.format(
+                    res.getString("DSignCsrBatch.NoReadExtensionTemplate.message"), templateFile), getTitle(),
+                                          JOptionPane.WARNING_MESSAGE);
+        } catch (Exception ex) {
+            DError.displayError(this, ex);
+        }
+    }
+
+    /**
+     * Get chosen CSR files.
+     *
+     * @return CSR files or null if dialog cancelled
+     */
+    public List<File> getCsrFiles() {
+        return version == null ? null : csrFiles;
+    }
+
+    /**
+     * Get chosen output directory.
+     *
+     * @return Output directory or null if dialog cancelled
+     */
+    public File getOutputDirectory() {
+        return outputDirectory;
+    }
+
+    /**
+     * Get whether certificates are PEM encoded.
+     *
+     * @return True if PEM encoded
+     */
+    public boolean isPemEncode() {
+        return jcbPemEncode.isSelected();
+    }
+
+    /**
+     * Get whether the CA chain is included with the certificates.
+     *
+     * @return True if the chain is included
+     */
+    public boolean isIncludeChain() {
+        return jcbIncludeChain.isSelected();
+    }
+
+    /**
+     * Get chosen certificate version.
+     *
+     * @return Certificate version or null if dialog cancelled
+     */
+    public X509CertificateVersion getVersion() {
+        return version;
+    }
+
+    /**
+     * Get chosen signature type.
+     *
+     * @return Signature type or null if dialog cancelled
+     */
+    public SignatureType getSignatureType() {
+        return signatureType;
+    }
+
+    /**
+     * Get chosen validity start date.
+     *
+     * @return Validity start date or null if dialog cancelled
+     */
+    public Date getValidityStart() {
+        return validityStart;
+    }
+
+    /**
+     * Get chosen validity end date.
+     *
+     * @return Validity end date or null if dialog cancelled
+     */
+    public Date getValidityEnd() {
+        return validityEnd;
+    }
+
+    /**
+     * Get chosen extension template.
+     *
+     * @return Extension template, empty if none was chosen
+     */
+    public X509ExtensionSet getExtensionTemplate() {
+        return extensionTemplate;
+    }
+
+    /**
+     * Get whether extensions requested in the CSRs are added to the certificates.
+     *
+     * @return True if requested extensions are transferred
+     */
+    public boolean isTransferExtensions() {
+        return jrbVersion3.isSelected() && jcbTransferExtensions.isSelected();
+    }
+
+    private void okPressed() {
+        if (csrFiles.isEmpty()) {
+            JOptionPane.showMessageDialog(this, res.getString("DSignCsrBatch.ValReqCsrFiles.message"), getTitle(),
+                                          JOptionPane.WARNING_MESSAGE);
+            return;
+        }
+
+        String outputDirectoryStr = jtfOutputDirectory.getText().trim();
+        if (outputDirectoryStr.isEmpty()) {
+            JOptionPane.showMessageDialog(this, res.getString("DSignCsrBatch.ValReqOutputDirectory.message"),
+                                          getTitle(), JOptionPane.WARNING_MESSAGE);
+            return;
+        }
+
+        File directory = new File(outputDirectoryStr);
+        if (directory.exists() && !directory.isDirectory()) {
+            JOptionPane.showMessageDialog(this, MessageFormat.format(
+                    res.getString("DSignCsrBatch.OutputDirectoryNotDirectory.message"), directory), getTitle(),
+                                          JOptionPane.WARNING_MESSAGE);
+            return;
+        }
+
+        if (jrbVersion1.isSelected()) {
+            version = VERSION1;
+            extensionTemplate = new X509ExtensionSet();
+        } else {
+            version = VERSION3;
+        }
+
+        outputDirectory = directory;
+        signatureType = (SignatureType) jcbSignatureAlgorithm.getSelectedItem();
+        validityStart = jdtValidityStart.getDateTime();
+        validityEnd = jdtValidityEnd.getDateTime();
+
+        closeDialog();
+    }
+
+    private void cancelPressed() {
+        version = null;
+        outputDirectory = null;
+        closeDialog();
+    }
+
+    private void closeDialog() {
+        setVisible(false);
+        dispose();
+    }
+}
@@ -0,0 +1,196 @@
+/*
+ * Copyright 2004 - 2013 Wayne Grant
+ *           2013 - 2025 Kai Kramer
+ *
+ * This file is part of KeyStore Explorer.
+ *
+ * KeyStore Explorer is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * KeyStore Explorer is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with KeyStore Explorer.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.kse.gui.dialogs.sign;
+
+import java.awt.Container;
+import java.awt.Dialog;
+import java.awt.event.ActionEvent;
+import java.awt.event.KeyEvent;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
+import java.io.File;
+import java.text.MessageFormat;
+import java.util.List;
+import java.util.ResourceBundle;
+
+import javax.swing.AbstractAction;
+import javax.swing.JButton;
+import javax.swing.JComponent;
+import javax.swing.JFrame;
+import javax.swing.JLabel;
+import javax.swing.JProgressBar;
+import javax.swing.KeyStroke;
+import javax.swing.SwingUtilities;
+
+import org.kse.crypto.csr.CsrBatchSigner;
+import org.kse.gui.components.JEscDialog;
+import org.kse.gui.error.DError;
+
+import net.miginfocom.swing.MigLayout;
+
+/**
+ * Signs a batch of CSRs in a separate thread, started when the dialog is shown, and shows the progress.
+ * <p>
+ * The user may cancel at any time by pressing the cancel button. Certificates already written stay in the output
+ * directory and are listed in the report.
+ */
+public class DSignCsrBatchSigning extends JEscDialog {
+    private static final long serialVersionUID = 1L;
+
+    private static ResourceBundle res = ResourceBundle.getBundle("org/kse/gui/dialogs/sign/resources");
+
+    private static final String CANCEL_KEY = "CANCEL_KEY";
+
+    private JLabel jlSignCsrs;
+    private JProgressBar jpbSignCsrs;
+    private JButton jbCancel;
+
+    private transient CsrBatchSigner signer;
+    private List<File> csrFiles;
+    private File outputDirectory;
+
+    private Thread signing;
+    private transient CsrBatchSigner.Summary summary;
+
+    /**
+     * Creates a new DSignCsrBatchSigning dialog.
+     *
+     * @param parent          The parent frame
+     * @param signer          Configured batch signer
+     * @param csrFiles        CSR files to sign
+     * @param outputDirectory Directory for the certificates and the report
+     */
+    public DSignCsrBatchSigning(JFrame parent, CsrBatchSigner signer, List<File> csrFiles, File outputDirectory) {
+        super(parent, Dialog.ModalityType.DOCUMENT_MODAL);
+        this.signer = signer;
+        this.csrFiles = csrFiles;
+        this.outputDirectory = outputDirectory;
+        initComponents();
+    }
+
+    private void initComponents() {
+        jlSignCsrs = new JLabel(MessageFormat.format(res.getString("DSignCsrBatchSigning.jlSignCsrs.text"), 0,
+                                                     csrFiles.size()));
+
+        jpbSignCsrs = new JProgressBar(0, csrFiles.size());
+        jpbSignCsrs.setIndeterminate(false);
+
+        jbCancel = new JButton(res.getString("DSignCsrBatchSigning.jbCancel.text"));
+        jbCancel.addActionListener(evt -> cancelPressed());
+        jbCancel.getInputMap(JComponent.WHEN_IN_FOCUSED_WINDOW)
+                .put(KeyStroke.getKeyStroke(KeyEvent.VK_ESCAPE, 0), CANCEL_KEY);
+        jbCancel.getActionMap().put(CANCEL_KEY, new AbstractAction() {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            public void actionPerformed(ActionEvent evt) {
+                cancelPressed();
+            }
+        });
+
+        Container pane = getContentPane();
+        pane.setLayout(new MigLayout("insets dialog, fill", "[]", "[]unrel"));
+        pane.add(jlSignCsrs, "wrap");
+        pane.add(jpbSignCsrs, "growx, wrap");
+        pane.add(jbCancel, "tag Cancel");
+
+        addWindowListener(new WindowAdapter() {
+            @Override
+            public void windowOpened(WindowEvent evt) {
+                // started once shown so that a quick batch cannot finish before the dialog can be closed
+                startSigning();
+            }
+
+            @Override
+            public void windowClosing(WindowEvent evt) {
+                cancelPressed();
+            }
+        });
+
+        setTitle(res.getString("DSignCsrBatchSigning.Title"));
+        setResizable(false);
+
+        pack();
+    }
+
+    private void startSigning() {
+        signing = new Thread(new SignCsrs());
+        signing.setPriority(Thread.MIN_PRIORITY);
+        signing.start();
+    }
+
+    /**
+     * Get the summary of the batch.
+     *
+     * @return Summary or null if the batch was cancelled or could not be completed
+     */
+    public CsrBatchSigner.Summary getSummary() {
+        return summary;
+    }
+
+    private void cancelPressed() {
+        if ((signing != null) && (signing.isAlive())) {
+            signing.interrupt();
+        }
+        closeDialog();
+    }
+
+    private void closeDialog() {
+        setVisible(false);
+        dispose();
+    }
+
+    private void updateProgress(int processed, int total) {
+        SwingUtilities.invokeLater(() -> {
+            jpbSignCsrs.setValue(processed);
+            jlSignCsrs.setText(MessageFormat.format(res.getString("DSignCsrBatchSigning.jlSignCsrs.text"), processed,
+                                                    total));
+        });
+    }
+
+    private class SignCsrs implements Runnable {
+        @Override
+        public void run() {
+            try {
+                CsrBatchSigner.Summary batchSummary = signer.sign(csrFiles, outputDirectory,
+                                                                  (result, processed, total) -> updateProgress(
+                                                                          processed, total));
+
+                SwingUtilities.invokeLater(() -> {
+                    if (DSignCsrBatchSigning.this.isShowing()) {
+                        summary = batchSummary;
+                        closeDialog();
+                    }
+                });
+            } catch (InterruptedException ex) {
+                // cancelled, the dialog is already closed
+            } catch (final Exception ex) {
+                SwingUtilities.invokeLater(() -> {
+                    if (DSignCsrBatchSigning.this.isShowing()) {
+                        DError dError = new DError(DSignCsrBatchSigning.this, ex);
+                        dError.setLocationRelativeTo(DSignCsrBatchSigning.this);
+                        dError.setVisible(true);
+                        closeDialog();
+                    }
+                });
+            }
+        }
+    }
+}
@@ -23,6 +23,8 @@ package org.kse.gui.dialogs.sign;
 import java.awt.BorderLayout;
 import java.awt.Dimension;
 import java.awt.Toolkit;
+import java.awt.event.ActionEvent;
+import java.awt.event.KeyEvent;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
@@ -47,13 +49,17 @@ import java.util.Set;
 import javax.swing.Box;
 import javax.swing.BoxLayout;
 import javax.swing.ImageIcon;
+import javax.swing.AbstractAction;
 import javax.swing.JButton;
+import javax.swing.JComponent;
 import javax.swing.JFileChooser;
 import javax.swing.JFrame;
 import javax.swing.JLabel;
 import javax.swing.JOptionPane;
 import javax.swing.JPanel;
 import javax.swing.JScrollPane;
+import javax.swing.KeyStroke;
+import javax.swing.ListSelectionModel;
 import javax.swing.RowSorter;
 import javax.swing.ScrollPaneConstants;
 import javax.swing.border.CompoundBorder;
@@ -68,6 +74,7 @@ import org.bouncycastle.asn1.x509.CRLReason;
 import org.kse.crypto.CryptoException;
 import org.kse.crypto.filetype.CryptoFileType;
 import org.kse.crypto.filetype.CryptoFileUtil;
+import org.kse.crypto.x509.CrlDatabase;
 import org.kse.crypto.x509.X509CertUtil;
 import org.kse.gui.CurrentDirectory;
 import org.kse.gui.FileChooserFactory;
@@ -85,6 +92,8 @@ public class JRevokedCerts extends JPanel {
     private static final long serialVersionUID = 1L;
     private static ResourceBundle res = ResourceBundle.getBundle("org/kse/gui/dialogs/sign/resources");
 
+    private static final String REMOVE_KEY = "REMOVE_KEY";
+
     private JLabel jlRevokedCerts;
     private JScrollPane jspRevokedCertsTable;
     private JKseTable jtRevokedCerts;
@@ -93,28 +102,29 @@ public class JRevokedCerts extends JPanel {
     private JButton jbRevCertFile;
     private JButton jbRevKeyStore;
     private JButton jbRevLoadCrl;
+    private JButton jbRevRemove;
 
     private JFrame parent;
     private KseFrame kseFrame;
 
     private Map<BigInteger, RevokedEntry> mapRevokedEntry;
     private X509Certificate caCert;
-    private X509CRL crlOld;
+    private CrlDatabase crlDatabase;
 
     /**
      * Creates a new JRevokedCerts
      *
-     * @param parent   The parent frame
-     * @param kseFrame KeyStore Explorer application frame
-     * @param caCert   certificate signing the list of revoked certificates
-     * @param crlOld   CRL old
+     * @param parent      The parent frame
+     * @param kseFrame    KeyStore Explorer application frame
+     * @param caCert      certificate signing the list of revoked certificates
+     * @param crlDatabase Revocation database of the CA or null if none
      */
-    public JRevokedCerts(JFrame parent, KseFrame kseFrame, X509Certificate caCert, X509CRL crlOld) {
+    public JRevokedCerts(JFrame parent, KseFrame kseFrame, X509Certificate caCert, CrlDatabase crlDatabase) {
         super();
         this.parent = parent;
         this.kseFrame = kseFrame;
         this.caCert = caCert;
-        this.crlOld = crlOld;
+        this.crlDatabase = crlDatabase;
         this.mapRevokedEntry = new HashMap<>();
         initComponents();
     }
@@ -136,6 +146,12 @@ public class JRevokedCerts extends JPanel {
         jbRevLoadCrl.setToolTipText(res.getString("JRevokedCerts.jbRevLoadCrl.tooltip"));
         jbRevLoadCrl.setMnemonic(res.getString("JRevokedCerts.jbRevLoadCrl.mnemonic").charAt(0));
 
+        jbRevRemove = new JButton(new ImageIcon(
+                Toolkit.getDefaultToolkit().createImage(getClass().getResource("images/remove_claim_nms.png"))));
+        jbRevRemove.setToolTipText(res.getString("JRevokedCerts.jbRevRemove.tooltip"));
+        jbRevRemove.setMnemonic(res.getString("JRevokedCerts.jbRevRemove.mnemonic").charAt(0));
+        jbRevRemove.setEnabled(false);
+
         jlRevokedCerts = new JLabel(res.getString("JRevokedCerts.jlRevokedCerts.text"));
         RevokedCertsTableModel rcModel = new RevokedCertsTableModel();
 
@@ -143,6 +159,24 @@ public class JRevokedCerts extends JPanel {
         RowSorter<RevokedCertsTableModel> sorter = new TableRowSorter<>(rcModel);
         jtRevokedCerts.setRowSorter(sorter);
 
+        ListSelectionModel selectionModel = jtRevokedCerts.getSelectionModel();
+        selectionModel.addListSelectionListener(evt -> {
+            if (!evt.getValueIsAdjusting()) {
+                jbRevRemove.setEnabled(jtRevokedCerts.getSelectedRowCount() > 0);
+            }
+        });
+
+        jtRevokedCerts.getInputMap(JComponent.WHEN_FOCUSED).put(KeyStroke.getKeyStroke(KeyEvent.VK_DELETE, 0),
+                                                                REMOVE_KEY);
+        jtRevokedCerts.getActionMap().put(REMOVE_KEY, new AbstractAction() {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            public void actionPerformed(ActionEvent evt) {
+                revRemovePressed();
+            }
+        });
+
         jtRevokedCerts.setShowGrid(false);
         jtRevokedCerts.setRowMargin(0);
         jtRevokedCerts.getColumnModel().setColumnMargin(0);
@@ -174,11 +208,14 @@ public class JRevokedCerts extends JPanel {
         jpRevokedButtons.add(jbRevCertFile);
         jpRevokedButtons.add(Box.createVerticalStrut(3));
         jpRevokedButtons.add(jbRevLoadCrl);
+        jpRevokedButtons.add(Box.createVerticalStrut(3));
+        jpRevokedButtons.add(jbRevRemove);
         jpRevokedButtons.add(Box.createVerticalGlue());
 
         jbRevCertFile.addActionListener(evt -> revCertFilePressed());
         jbRevKeyStore.addActionListener(evt -> revKeyStorePressed());
         jbRevLoadCrl.addActionListener(evt -> revLoadCrlPressed());
+        jbRevRemove.addActionListener(evt -> revRemovePressed());
 
         populate();
 
@@ -191,22 +228,11 @@ public class JRevokedCerts extends JPanel {
     }
 
     private void populate() {
-        if (crlOld != null) {
-            Set<? extends X509CRLEntry> revokedCertsSet = crlOld.getRevokedCertificates();
-            if (revokedCertsSet == null) {
-                revokedCertsSet = new HashSet<>();
-            }
-            X509CRLEntry[] revokedCerts = revokedCertsSet.toArray(new X509CRLEntry[0]);
-            for (X509CRLEntry entry : revokedCerts) {
-                if (entry.getRevocationReason() == null) {
-                    mapRevokedEntry.put(entry.getSerialNumber(),
-                                        new RevokedEntry(entry.getSerialNumber(), entry.getRevocationDate(),
-                                                         CRLReason.unspecified));
-                } else {
-                    mapRevokedEntry.put(entry.getSerialNumber(),
-                                        new RevokedEntry(entry.getSerialNumber(), entry.getRevocationDate(),
-                                                         entry.getRevocationReason().ordinal()));
-                }
+        if (crlDatabase != null) {
+            for (CrlDatabase.Entry entry : crlDatabase.getEntries()) {
+                mapRevokedEntry.put(entry.getSerialNumber(),
+                                    new RevokedEntry(entry.getSerialNumber(), entry.getRevocationDate(),
+                                                     entry.getReason()));
             }
             RevokedCertsTableModel revokedCertsTableModel = (RevokedCertsTableModel) jtRevokedCerts.getModel();
             revokedCertsTableModel.load(mapRevokedEntry);
@@ -216,6 +242,30 @@ public class JRevokedCerts extends JPanel {
         }
     }
 
+    private void populate(X509CRL crl) {
+        Set<? extends X509CRLEntry> revokedCertsSet = crl.getRevokedCertificates();
+        if (revokedCertsSet == null) {
+            revokedCertsSet = new HashSet<>();
+        }
+        X509CRLEntry[] revokedCerts = revokedCertsSet.toArray(new X509CRLEntry[0]);
+        for (X509CRLEntry entry : revokedCerts) {
+            if (entry.getRevocationReason() == null) {
+                mapRevokedEntry.put(entry.getSerialNumber(),
+                                    new RevokedEntry(entry.getSerialNumber(), entry.getRevocationDate(),
+                                                     CRLReason.unspecified));
+            } else {
+                mapRevokedEntry.put(entry.getSerialNumber(),
+                                    new RevokedEntry(entry.getSerialNumber(), entry.getRevocationDate(),
+                                                     entry.getRevocationReason().ordinal()));
+            }
+        }
+        RevokedCertsTableModel revokedCertsTableModel = (RevokedCertsTableModel) jtRevokedCerts.getModel();
+        revokedCertsTableModel.load(mapRevokedEntry);
+        if (revokedCertsTableModel.getRowCount() > 0) {
+            jtRevokedCerts.changeSelection(0, 0, false, false);
+        }
+    }
+
     private void revCertFilePressed() {
         File file = chooseCertFile();
         if (file != null) {
@@ -269,8 +319,7 @@ public class JRevokedCerts extends JPanel {
             if (loadCrl != null) {
                 try {
                     loadCrl.verify(caCert.getPublicKey());
-                    crlOld = loadCrl;
-                    populate();
+                    populate(loadCrl);
                 } catch (InvalidKeyException | CRLException | NoSuchAlgorithmException | NoSuchProviderException | SignatureException e) {
                     JOptionPane.showMessageDialog(parent, res.getString("JRevokedCerts.crlNotSignedCA.message"),
                                                   res.getString("DSignCrl.Title"), JOptionPane.WARNING_MESSAGE);
@@ -279,6 +328,20 @@ public class JRevokedCerts extends JPanel {
         }
     }
 
+    private void revRemovePressed() {
+        int[] selectedRows = jtRevokedCerts.getSelectedRows();
+
+        if (selectedRows.length > 0) {
+            RevokedCertsTableModel revokedCertsTableModel = (RevokedCertsTableModel) jtRevokedCerts.getModel();
+            for (int row : selectedRows) {
+                BigInteger serialNumber = (BigInteger) revokedCertsTableModel.getValueAt(
+                        jtRevokedCerts.convertRowIndexToModel(row), 0);
+                mapRevokedEntry.remove(serialNumber);
+            }
+            revokedCertsTableModel.load(mapRevokedEntry);
+        }
+    }
+
     private X509CRL openFileCrl(File file) {
         try {
             CryptoFileType fileType = CryptoFileUtil.detectFileType(file);
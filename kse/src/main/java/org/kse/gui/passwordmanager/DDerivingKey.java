@@ -0,0 +1,265 @@
+/*
+ * Copyright 2004 - 2013 Wayne Grant
+ *           2013 - 2025 Kai Kramer
+ *
+ * This file is part of KeyStore Explorer.
+ *
+ * KeyStore Explorer is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * KeyStore Explorer is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with KeyStore Explorer.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.kse.gui.passwordmanager;
+
+import java.awt.BorderLayout;
+import java.awt.Dialog;
+import java.awt.FlowLayout;
+import java.awt.Window;
+import java.awt.event.ActionEvent;
+import java.awt.event.KeyEvent;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
+import java.util.ResourceBundle;
+import java.util.concurrent.CancellationException;
+import java.util.function.IntConsumer;
+
+import javax.swing.AbstractAction;
+import javax.swing.JButton;
+import javax.swing.JComponent;
+import javax.swing.JLabel;
+import javax.swing.JPanel;
+import javax.swing.JProgressBar;
+import javax.swing.KeyStroke;
+import javax.swing.SwingUtilities;
+import javax.swing.border.EmptyBorder;
+
+import org.kse.gui.PlatformUtil;
+import org.kse.gui.components.JEscDialog;
+
+/**
+ * Runs a password manager operation that derives a key from the main password in a separate thread, showing its
+ * progress. The user may cancel it by pressing the cancel button, unless it must not be skipped. As not every key
+ * derivation can be interrupted, the dialog stays open until a cancelled operation has actually stopped.
+ */
+public class DDerivingKey extends JEscDialog {
+    private static final long serialVersionUID = 1L;
+
+    private static ResourceBundle res = ResourceBundle.getBundle("org/kse/gui/passwordmanager/resources");
+
+    private static final String CANCEL_KEY = "CANCEL_KEY";
+
+    private JPanel jpDerivingKey;
+    private JLabel jlDerivingKey;
+    private JPanel jpProgress;
+    private JProgressBar jpbDerivingKey;
+    private JPanel jpCancel;
+    private JButton jbCancel;
+
+    private final KeyDerivationTask task;
+    private final boolean cancellable;
+    private Thread worker;
+    private boolean cancelling;
+    private volatile boolean completed;
+    private volatile RuntimeException error;
+
+    /**
+     * An operation that derives a key.
+     */
+    @FunctionalInterface
+    public interface KeyDerivationTask {
+        /**
+         * Run the operation.
+         *
+         * @param progress Receives the progress in percent, if available
+         * @throws CancellationException If the thread was interrupted
+         */
+        void run(IntConsumer progress);
+    }
+
+    /**
+     * Creates a new DDerivingKey dialog.
+     *
+     * @param parent The parent window
+     * @param task   The operation to run
+     */
+    public DDerivingKey(Window parent, KeyDerivationTask task) {
+        this(parent, task, true);
+    }
+
+    /**
+     * Creates a new DDerivingKey dialog.
+     *
+     * @param parent      The parent window
+     * @param task        The operation to run
+     * @param cancellable False if the user must not be able to cancel the operation
+     */
+    public DDerivingKey(Window parent, KeyDerivationTask task, boolean cancellable) {
+        super(parent, Dialog.ModalityType.DOCUMENT_MODAL);
+        this.task = task;
+        this.cancellable = cancellable;
+        initComponents();
+    }
+
+    /**
+     * Run the operation in a separate thread while showing the dialog.
+     *
+     * @param parent The parent window
+     * @param task   The operation to run
+     * @return True if the operation completed, false if the user cancelled it
+     * @throws RuntimeException The exception thrown by the operation
+     */
+    public static boolean run(Window parent, KeyDerivationTask task) {
+        return run(parent, task, true);
+    }
+
+    /**
+     * Run the operation in a separate thread while showing the dialog.
+     *
+     * @param parent      The parent window
+     * @param task        The operation to run
+     * @param cancellable False if the user must not be able to cancel the operation
+     * @return True if the operation completed, false if the user cancelled it
+     * @throws RuntimeException The exception thrown by the operation
+     */
+    public static boolean run(Window parent, KeyDerivationTask task, boolean cancellable) {
+        DDerivingKey dDerivingKey = new DDerivingKey(parent, task, cancellable);
+        dDerivingKey.setLocationRelativeTo(parent);
+        dDerivingKey.startKeyDerivation();
+        dDerivingKey.setVisible(true);
+
+        if (dDerivingKey.error != null) {
+            throw dDerivingKey.error;
+        }
+        return dDerivingKey.completed;
+    }
+
+    private void initComponents() {
+        jlDerivingKey = new JLabel(res.getString("DDerivingKey.jlDerivingKey.text"));
+
+        jpDerivingKey = new JPanel(new FlowLayout(FlowLayout.CENTER));
+        jpDerivingKey.add(jlDerivingKey);
+        jpDerivingKey.setBorder(new EmptyBorder(5, 5, 5, 5));
+
+        // progress is only reported by some key derivation algorithms
+        jpbDerivingKey = new JProgressBar(0, 100);
+        jpbDerivingKey.setIndeterminate(true);
+
+        jpProgress = new JPanel(new FlowLayout(FlowLayout.CENTER));
+        jpProgress.add(jpbDerivingKey);
+        jpProgress.setBorder(new EmptyBorder(5, 5, 5, 5));
+
+        jbCancel = new JButton(res.getString("DDerivingKey.jbCancel.text"));
+        jbCancel.addActionListener(evt -> cancelPressed());
+        jbCancel.getInputMap(JComponent.WHEN_IN_FOCUSED_WINDOW)
+                .put(KeyStroke.getKeyStroke(KeyEvent.VK_ESCAPE, 0), CANCEL_KEY);
+        jbCancel.getActionMap().put(CANCEL_KEY, new AbstractAction() {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            public void actionPerformed(ActionEvent evt) {
+                cancelPressed();
+            }
+        });
+
+        // escape must not close the dialog while the operation is still running
+        getRootPane().getActionMap().put("escapeKey", jbCancel.getActionMap().get(CANCEL_KEY));
+
+        jpCancel = PlatformUtil.createDialogButtonPanel(jbCancel);
+
+        getContentPane().add(jpDerivingKey, BorderLayout.NORTH);
+        getContentPane().add(jpProgress, BorderLayout.CENTER);
+        if (cancellable) {
+            getContentPane().add(jpCancel, BorderLayout.SOUTH);
+        }
+
+        setDefaultCloseOperation(DO_NOTHING_ON_CLOSE);
+        addWindowListener(new WindowAdapter() {
+            @Override
+            public void windowClosing(WindowEvent evt) {
+                cancelPressed();
+            }
+        });
+
+        setTitle(res.getString("DDerivingKey.Title"));
+        setResizable(false);
+
+        pack();
+    }
+
+    /**
+     * Start the operation in a separate thread.
+     */
+    public void startKeyDerivation() {
+        worker = new Thread(new DeriveKey(), "KSE key derivation");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    /**
+     * Did the operation complete?
+     *
+     * @return True if it completed, false if the user cancelled it or it failed
+     */
+    public boolean isCompleted() {
+        return completed;
+    }
+
+    private void cancelPressed() {
+        if (!cancellable || cancelling) {
+            return;
+        }
+
+        if ((worker != null) && (worker.isAlive())) {
+            // a derivation without progress runs to its end unnoticed, so wait for the worker to close the dialog
+            cancelling = true;
+            worker.interrupt();
+            jbCancel.setEnabled(false);
+            jlDerivingKey.setText(res.getString("DDerivingKey.jlDerivingKey.cancelling.text"));
+            pack();
+        } else {
+            closeDialog();
+        }
+    }
+
+    private void closeDialog() {
+        setVisible(false);
+        dispose();
+    }
+
+    private class DeriveKey implements Runnable {
+        @Override
+        public void run() {
+            try {
+                task.run(percent -> SwingUtilities.invokeLater(() -> {
+                    jpbDerivingKey.setIndeterminate(false);
+                    jpbDerivingKey.setValue(percent);
+                }));
+
+                if (!Thread.currentThread().isInterrupted()) {
+                    completed = true;
+                }
+            } catch (CancellationException ex) {
+                // cancelled by the user
+            } catch (RuntimeException ex) {
+                error = ex;
+            } catch (Error ex) {
+                // e.g. not enough memory for Argon2
+                error = new RuntimeException(ex);
+            } finally {
+                SwingUtilities.invokeLater(() -> {
+                    if (DDerivingKey.this.isShowing()) {
+                        closeDialog();
+                    }
+                });
+            }
+        }
+    }
+}
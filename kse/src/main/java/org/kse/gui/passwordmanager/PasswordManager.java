@@ -26,11 +26,18 @@ import static org.kse.gui.passwordmanager.EncryptionAlgorithm.AES_GCM;
 import static org.kse.gui.passwordmanager.KeyDerivationAlgorithm.PBKDF2;
 
 import java.io.File;
+import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.function.IntConsumer;
 import java.util.stream.Collectors;
 
 import javax.crypto.SecretKey;
@@ -50,6 +57,9 @@ import org.kse.utilities.PRNG;
 public class PasswordManager {
     public static final int KEY_LENGTH_BITS = 256;
     public static final int KDF_ITERATIONS = 600_000;
+    public static final int KDF_TARGET_MILLIS = 1000;
+    public static final int ARGON2_ITERATIONS = 3;
+    public static final int ARGON2_MIN_MEM_LIMIT_MB = 19;
     public static final int SALT_LENGTH_BYTES = 16;
     public static final int IV_LENGTH_GCM_BYTES = 12;
     public static final int IV_LENGTH_CBC_BYTES = 16;
@@ -57,7 +67,20 @@ public class PasswordManager {
     private static PasswordManager INSTANCE;
     private char[] mainPassword;
     private boolean unlocked = false;
-    private List<KeyStorePasswordData> keyStorePasswords = new ArrayList<>();
+
+    // decrypted passwords by canonical keystore file
+    private Map<File, KeyStorePasswordData> keyStorePasswords = new LinkedHashMap<>();
+
+    // data key the passwords are encrypted with, available while unlocked
+    private SecretKey encryptionKey;
+
+    // canonical keystore files whose passwords have changed since the last save
+    private final Set<File> modifiedKeyStores = new HashSet<>();
+
+    // index of the encrypted passwords in the configuration by canonical keystore file
+    private Map<File, EncryptedKeyStorePasswordData> encryptedPasswordsIndex;
+    private List<EncryptedKeyStorePasswordData> indexedEncryptedPasswords;
+    private int indexedEncryptedPasswordsCount;
 
     /**
      * Get singleton instance of PasswordManager
@@ -79,10 +102,7 @@ public class PasswordManager {
      * @return True, if password is available
      */
     public boolean isKeyStorePasswordKnown(File keyStoreFile) {
-        return PreferencesManager.getKeyStorePasswords()
-                                 .getPasswords()
-                                 .stream()
-                                 .anyMatch(d -> d.getKeyStoreFile().equals(keyStoreFile));
+        return getEncryptedPasswordsIndex().containsKey(getCanonicalFile(keyStoreFile));
     }
 
     /**
@@ -125,9 +145,23 @@ public class PasswordManager {
      * @param passwordManagerMainPassword The password used to decrypt the keystore passwords
      */
     public void unlock(char[] passwordManagerMainPassword) {
+        unlock(passwordManagerMainPassword, progress -> {});
+    }
+
+    /**
+     * Unlock password manager (this tries to de-encrypt all the passwords from the configuration file).
+     * <p>
+     * Deriving the key from the main password takes about a second, so this should not be called on the EDT.
+     *
+     * @param passwordManagerMainPassword The password used to decrypt the keystore passwords
+     * @param progress Receives the progress of the key derivation in percent, if available
+     * @throws CancellationException If the thread was interrupted during key derivation
+     */
+    public void unlock(char[] passwordManagerMainPassword, IntConsumer progress) {
         if (unlocked) return;
         mainPassword = passwordManagerMainPassword.clone();
-        keyStorePasswords = decryptPasswords(PreferencesManager.getKeyStorePasswords(), mainPassword);
+        keyStorePasswords = decryptPasswords(PreferencesManager.getKeyStorePasswords(), mainPassword, progress);
+        modifiedKeyStores.clear();
         unlocked = true;
     }
 
@@ -146,12 +180,9 @@ public class PasswordManager {
      * @return keystore password - if found
      */
     public Optional<char[]> getKeyStorePassword(File keyStoreFile) {
-        return keyStorePasswords.stream()
-                                .filter(d -> d.getKeyStoreFile().equals(keyStoreFile))
-                                .map(KeyStorePasswordData::getKeyStorePassword)
-                                .filter(Objects::nonNull)
-                                .map(char[]::clone)
-                                .findFirst();
+        return Optional.ofNullable(keyStorePasswords.get(getCanonicalFile(keyStoreFile)))
+                       .map(KeyStorePasswordData::getKeyStorePassword)
+                       .map(char[]::clone);
     }
 
     /**
@@ -162,12 +193,9 @@ public class PasswordManager {
      * @return keystore entry password - if found
      */
     public Optional<char[]> getKeyStoreEntryPassword(File keyStoreFile, String alias) {
-        return keyStorePasswords.stream()
-                                .filter(d -> d.getKeyStoreFile().equals(keyStoreFile))
-                                .map(p -> p.getKeyStoreEntryPasswords().get(alias))
-                                .filter(Objects::nonNull)
-                                .map(char[]::clone)
-                                .findFirst();
+        return Optional.ofNullable(keyStorePasswords.get(getCanonicalFile(keyStoreFile)))
+                       .map(p -> p.getKeyStoreEntryPasswords().get(alias))
+                       .map(char[]::clone);
     }
 
     /**
@@ -179,13 +207,17 @@ public class PasswordManager {
      * @return All aliases with a managed password of this keystore.
      */
     public List<String> getAliasList(File keyStoreFile) {
-        return PreferencesManager.getKeyStorePasswords()
-                                 .getPasswords()
-                                 .stream()
-                                 .filter(d -> d.getKeyStoreFile().equals(keyStoreFile))
-                                 .flatMap(d -> d.getKeyStoreEntryPasswords().stream())
-                                 .map(KeyStoreEntryPassword::getEntryAlias)
-                                 .collect(Collectors.toList());
+        EncryptedKeyStorePasswordData encryptedPwdData = getEncryptedPasswordsIndex().get(
+                getCanonicalFile(keyStoreFile));
+
+        if (encryptedPwdData == null) {
+            return new ArrayList<>();
+        }
+
+        return encryptedPwdData.getKeyStoreEntryPasswords()
+                               .stream()
+                               .map(KeyStoreEntryPassword::getEntryAlias)
+                               .collect(Collectors.toList());
     }
 
     /**
@@ -201,19 +233,21 @@ public class PasswordManager {
         newData.setKeyStorePassword(keyStorePassword.clone());
 
         // fetch existing data first, because we have to merge it with the updates
-        KeyStorePasswordData oldData = keyStorePasswords.stream()
-                                                                     .filter(d -> d.getKeyStoreFile()
-                                                                                   .equals(keyStoreFile))
-                                                                     .findFirst()
-                                                                     .orElse(new KeyStorePasswordData());
+        File canonicalFile = getCanonicalFile(keyStoreFile);
+        KeyStorePasswordData oldData = keyStorePasswords.getOrDefault(canonicalFile, new KeyStorePasswordData());
 
         // the passed entry password list contains only unlocked entries, but there might be more in the keystore;
         // so we add the old entry data first and then overwrite/update them or add new ones
         oldData.getKeyStoreEntryPasswords().forEach((a, p) -> newData.getKeyStoreEntryPasswords().put(a, p.clone()));
         entryPasswords.forEach((a, p) -> newData.getKeyStoreEntryPasswords().put(a, p.clone()));
 
-        keyStorePasswords.removeIf(newData::equals);
-        keyStorePasswords.add(newData);
+        // saving an unchanged keystore must not cause its passwords to be encrypted again
+        if (samePasswords(oldData, newData) && keyStoreFile.equals(oldData.getKeyStoreFile())) {
+            return;
+        }
+
+        keyStorePasswords.put(canonicalFile, newData);
+        modifiedKeyStores.add(canonicalFile);
     }
 
     /**
@@ -224,10 +258,15 @@ public class PasswordManager {
      * @param keyStoreFile Keystore file
      */
     public void removeKeyStore(File keyStoreFile) {
-        keyStorePasswords.removeIf(d -> d.getKeyStoreFile().equals(keyStoreFile));
+        File canonicalFile = getCanonicalFile(keyStoreFile);
+
+        keyStorePasswords.remove(canonicalFile);
+        modifiedKeyStores.remove(canonicalFile);
+
         PreferencesManager.getKeyStorePasswords()
                           .getPasswords()
-                          .removeIf(d -> d.getKeyStoreFile().equals(keyStoreFile));
+                          .removeIf(d -> getCanonicalFile(d.getKeyStoreFile()).equals(canonicalFile));
+        indexedEncryptedPasswords = null;
 
         if (!unlocked) {
             // we have to persist the passwords here, because save() is not called when the password manager is locked
@@ -244,14 +283,25 @@ public class PasswordManager {
      * @param newPath New path of the keystore file
      */
     public void updateKeyStoreFilePath(File oldPath, File newPath) {
-        keyStorePasswords.stream()
-                         .filter(d -> d.getKeyStoreFile().equals(oldPath))
-                         .forEach(d -> d.setKeyStoreFile(newPath));
-        PreferencesManager.getKeyStorePasswords()
-                          .getPasswords()
-                          .stream()
-                          .filter(d -> d.getKeyStoreFile().equals(oldPath))
-                          .forEach(d -> d.setKeyStoreFile(newPath));
+        File oldCanonicalFile = getCanonicalFile(oldPath);
+        File newCanonicalFile = getCanonicalFile(newPath);
+
+        // the path is not encrypted, so the passwords do not have to be encrypted again
+        KeyStorePasswordData pwdData = keyStorePasswords.remove(oldCanonicalFile);
+        if (pwdData != null) {
+            pwdData.setKeyStoreFile(newPath);
+            keyStorePasswords.put(newCanonicalFile, pwdData);
+        }
+        if (modifiedKeyStores.remove(oldCanonicalFile)) {
+            modifiedKeyStores.add(newCanonicalFile);
+        }
+
+        Map<File, EncryptedKeyStorePasswordData> encryptedPasswords = getEncryptedPasswordsIndex();
+        EncryptedKeyStorePasswordData encryptedPwdData = encryptedPasswords.remove(oldCanonicalFile);
+        if (encryptedPwdData != null) {
+            encryptedPwdData.setKeyStoreFile(newPath);
+            encryptedPasswords.put(newCanonicalFile, encryptedPwdData);
+        }
     }
 
     /**
@@ -266,37 +316,103 @@ public class PasswordManager {
      * @param password Password of entry
      */
     public void updateEntryPassword(File keyStoreFile, String alias, char[] password) {
-        keyStorePasswords.stream()
-                         .filter(d -> d.getKeyStoreFile().equals(keyStoreFile))
-                         .findAny()
-                         .ifPresent(data -> data.getKeyStoreEntryPasswords().put(alias, password.clone()));
+        File canonicalFile = getCanonicalFile(keyStoreFile);
+        KeyStorePasswordData data = keyStorePasswords.get(canonicalFile);
+
+        if (data != null) {
+            data.getKeyStoreEntryPasswords().put(alias, password.clone());
+            modifiedKeyStores.add(canonicalFile);
+        }
     }
 
     /**
-     * Encrypt and save passwords to the configuration file
+     * Encrypt and save passwords to the configuration file.
+     * <p>
+     * Only the passwords that have changed since they were unlocked or last saved are encrypted, unless the
+     * configuration does not match the current encryption and key derivation settings. In this case a new key is
+     * derived from the main password and all passwords are encrypted with a new data key.
      */
-    @SuppressWarnings("ConstantValue")
     public void save() {
-        // use recommendations for PBKDF2 from NIST SP 800-132 for now and maybe make this configurable later
-        int iterations = KDF_ITERATIONS;
-        int keyLengthInBits = KEY_LENGTH_BITS;
+        save(progress -> {});
+    }
+
+    /**
+     * Encrypt and save passwords to the configuration file.
+     * <p>
+     * If {@link #isRekeyingRequired()}, the key derivation is calibrated to take about a second and this should not
+     * be called on the EDT.
+     *
+     * @param progress Receives the progress of the key derivation in percent, if available
+     * @throws CancellationException If the thread was interrupted during key derivation
+     */
+    public void save(IntConsumer progress) {
+        EncryptedKeyStorePasswords encryptedKeyStorePasswords = PreferencesManager.getKeyStorePasswords();
+
+        if (isRekeyingRequired(encryptedKeyStorePasswords)) {
+            rekey(encryptedKeyStorePasswords, progress);
+        } else {
+            saveModified(encryptedKeyStorePasswords);
+        }
+
+        modifiedKeyStores.clear();
+
+        PreferencesManager.persistKeyStorePasswords();
+    }
+
+    /**
+     * Returns whether the next save derives a new key from the main password, which is the case when the password
+     * manager has just been initialized or its configuration does not match the current settings.
+     *
+     * @return True if saving requires key derivation
+     */
+    public boolean isRekeyingRequired() {
+        return isRekeyingRequired(PreferencesManager.getKeyStorePasswords());
+    }
+
+    private boolean isRekeyingRequired(EncryptedKeyStorePasswords encryptedKeyStorePasswords) {
+        if (encryptionKey == null || encryptedKeyStorePasswords.getVersion() != 2 ||
+            encryptedKeyStorePasswords.getEncryptionAlgorithm() != AES_GCM) {
+            return true;
+        }
+
+        KeyDerivationSettings kdfSettings = encryptedKeyStorePasswords.getKeyDerivationSettings();
+
+        if (kdfSettings.getDerivedKeyLength() != KEY_LENGTH_BITS) {
+            return true;
+        }
+
+        // calibrated settings are kept unless they are below the minimum
+        if (kdfSettings.getKeyDerivationAlgorithm() == PBKDF2) {
+            return kdfSettings.getIterations() < KDF_ITERATIONS;
+        } else {
+            return kdfSettings.getIterations() < ARGON2_ITERATIONS ||
+                   kdfSettings.getMemLimitInMB() < ARGON2_MIN_MEM_LIMIT_MB || kdfSettings.getParallelism() < 1;
+        }
+    }
+
+    @SuppressWarnings("ConstantValue")
+    private void rekey(EncryptedKeyStorePasswords encryptedKeyStorePasswords, IntConsumer progress) {
+        // keep the algorithm of an existing configuration (PBKDF2 per default) and calibrate its cost parameters
+        // for this machine, using the recommendations from NIST SP 800-132 and OWASP as minimum
+        KeyDerivationAlgorithm kdfAlgorithm = isInitialized() ?
+                                              encryptedKeyStorePasswords.getKeyDerivationSettings()
+                                                                        .getKeyDerivationAlgorithm() :
+                                              PBKDF2;
         byte[] salt = PRNG.generate(SALT_LENGTH_BYTES);
         EncryptionAlgorithm encrAlgorithm = AES_GCM;
 
-        SecretKey kek = deriveKeyWithPbkdf2(mainPassword, salt, iterations, keyLengthInBits);
+        var keyDerivationSettings = KeyDerivationSettings.calibrate(kdfAlgorithm, KDF_TARGET_MILLIS, KDF_ITERATIONS,
+                                                                    ARGON2_ITERATIONS, ARGON2_MIN_MEM_LIMIT_MB,
+                                                                    KEY_LENGTH_BITS);
+        keyDerivationSettings.setSalt(salt);
+
+        SecretKey kek = deriveKey(keyDerivationSettings, mainPassword, progress);
 
         // generate new AES key for encryption of passwords
         SecretKey key = AES.generateKey(KEY_LENGTH_BITS);
         byte[] iv = PRNG.generate(encrAlgorithm == AES_GCM ? IV_LENGTH_GCM_BYTES : IV_LENGTH_CBC_BYTES);
         byte[] encryptedEncryptionKey = encryptKey(key, iv, kek, encrAlgorithm);
 
-        var keyDerivationSettings = new KeyDerivationSettings();
-        keyDerivationSettings.setKeyDerivationAlgorithm(PBKDF2);
-        keyDerivationSettings.setSalt(salt);
-        keyDerivationSettings.setIterations(iterations);
-        keyDerivationSettings.setDerivedKeyLength(keyLengthInBits);
-
-        EncryptedKeyStorePasswords encryptedKeyStorePasswords = PreferencesManager.getKeyStorePasswords();
         encryptedKeyStorePasswords.setKeyDerivationSettings(keyDerivationSettings);
         encryptedKeyStorePasswords.setEncryptionAlgorithm(encrAlgorithm);
         encryptedKeyStorePasswords.setVersion(2);
@@ -304,10 +420,81 @@ public class PasswordManager {
         encryptedKeyStorePasswords.setEncryptionKeyInitVector(iv);
 
         List<EncryptedKeyStorePasswordData> passwords = new ArrayList<>();
-        keyStorePasswords.forEach(p -> passwords.add(createEncryptedKeyStorePasswordData(p, key, encrAlgorithm)));
+        keyStorePasswords.values()
+                         .forEach(p -> passwords.add(createEncryptedKeyStorePasswordData(p, key, encrAlgorithm)));
         encryptedKeyStorePasswords.setPasswords(passwords);
 
-        PreferencesManager.persistKeyStorePasswords();
+        encryptionKey = key;
+    }
+
+    private void saveModified(EncryptedKeyStorePasswords encryptedKeyStorePasswords) {
+        EncryptionAlgorithm encrAlgorithm = encryptedKeyStorePasswords.getEncryptionAlgorithm();
+        Map<File, EncryptedKeyStorePasswordData> encryptedPasswords = getEncryptedPasswordsIndex();
+
+        for (File keyStoreFile : modifiedKeyStores) {
+            KeyStorePasswordData pwdData = keyStorePasswords.get(keyStoreFile);
+            if (pwdData == null) {
+                continue;
+            }
+
+            EncryptedKeyStorePasswordData newEncryptedPwdData = createEncryptedKeyStorePasswordData(pwdData,
+                                                                                                     encryptionKey,
+                                                                                                     encrAlgorithm);
+            EncryptedKeyStorePasswordData encryptedPwdData = encryptedPasswords.get(keyStoreFile);
+
+            if (encryptedPwdData == null) {
+                encryptedKeyStorePasswords.getPasswords().add(newEncryptedPwdData);
+                encryptedPasswords.put(keyStoreFile, newEncryptedPwdData);
+                indexedEncryptedPasswordsCount++;
+            } else {
+                encryptedPwdData.setKeyStoreFile(newEncryptedPwdData.getKeyStoreFile());
+                encryptedPwdData.setEncryptedKeyStorePassword(newEncryptedPwdData.getEncryptedKeyStorePassword());
+                encryptedPwdData.setEncryptedKeyStorePasswordInitVector(
+                        newEncryptedPwdData.getEncryptedKeyStorePasswordInitVector());
+                encryptedPwdData.setKeyStoreEntryPasswords(newEncryptedPwdData.getKeyStoreEntryPasswords());
+            }
+        }
+    }
+
+    private Map<File, EncryptedKeyStorePasswordData> getEncryptedPasswordsIndex() {
+        List<EncryptedKeyStorePasswordData> encryptedPasswords = PreferencesManager.getKeyStorePasswords()
+                                                                                   .getPasswords();
+
+        // rebuild index if the configuration was replaced or modified elsewhere
+        if (encryptedPasswordsIndex == null || indexedEncryptedPasswords != encryptedPasswords ||
+            indexedEncryptedPasswordsCount != encryptedPasswords.size()) {
+            encryptedPasswordsIndex = new HashMap<>();
+            for (EncryptedKeyStorePasswordData encryptedPwdData : encryptedPasswords) {
+                encryptedPasswordsIndex.putIfAbsent(getCanonicalFile(encryptedPwdData.getKeyStoreFile()),
+                                                    encryptedPwdData);
+            }
+            indexedEncryptedPasswords = encryptedPasswords;
+            indexedEncryptedPasswordsCount = encryptedPasswords.size();
+        }
+
+        return encryptedPasswordsIndex;
+    }
+
+    private static File getCanonicalFile(File file) {
+        try {
+            return file.getCanonicalFile();
+        } catch (IOException e) {
+            return file.getAbsoluteFile();
+        }
+    }
+
+    private static boolean samePasswords(KeyStorePasswordData data1, KeyStorePasswordData data2) {
+        Map<String, char[]> entryPasswords1 = data1.getKeyStoreEntryPasswords();
+        Map<String, char[]> entryPasswords2 = data2.getKeyStoreEntryPasswords();
+
+        if (!Arrays.equals(data1.getKeyStorePassword(), data2.getKeyStorePassword()) ||
+            !entryPasswords1.keySet().equals(entryPasswords2.keySet())) {
+            return false;
+        }
+
+        return entryPasswords1.entrySet()
+                              .stream()
+                              .allMatch(e -> Arrays.equals(e.getValue(), entryPasswords2.get(e.getKey())));
     }
 
     private byte[] encryptKey(SecretKey key, byte[] iv, SecretKey kek, EncryptionAlgorithm encrAlgorithm) {
@@ -316,18 +503,19 @@ public class PasswordManager {
                AES.encryptAesCbc(key.getEncoded(), iv, kek);
     }
 
-    private List<KeyStorePasswordData> decryptPasswords(EncryptedKeyStorePasswords encryptedKeyStorePasswords,
-                                                        char[] mainPassword) {
-        var passwordData = new ArrayList<KeyStorePasswordData>();
+    private Map<File, KeyStorePasswordData> decryptPasswords(EncryptedKeyStorePasswords encryptedKeyStorePasswords,
+                                                             char[] mainPassword, IntConsumer progress) {
+        var passwordData = new LinkedHashMap<File, KeyStorePasswordData>();
 
         if (!isInitialized()) {
             return passwordData;
         }
 
         EncryptionAlgorithm encrAlgorithm = encryptedKeyStorePasswords.getEncryptionAlgorithm();
+        KeyDerivationSettings kdfSettings = encryptedKeyStorePasswords.getKeyDerivationSettings();
         SecretKey key = encryptedKeyStorePasswords.getVersion() == 1 ?
-                        deriveKey(encryptedKeyStorePasswords, mainPassword) :
-                        decryptEncryptionKey(deriveKey(encryptedKeyStorePasswords, mainPassword),
+                        deriveKey(kdfSettings, mainPassword, progress) :
+                        decryptEncryptionKey(deriveKey(kdfSettings, mainPassword, progress),
                                              encryptedKeyStorePasswords, encrAlgorithm);
 
         for (EncryptedKeyStorePasswordData encryptedPwdData : encryptedKeyStorePasswords.getPasswords()) {
@@ -344,9 +532,12 @@ public class PasswordManager {
             keyStorePasswordData.setKeyStorePassword(new String(decryptedPassword).toCharArray());
             keyStorePasswordData.setKeyStoreEntryPasswords(decryptEntryPasswords(encryptedPwdData, key, encrAlgorithm));
 
-            passwordData.add(keyStorePasswordData);
+            passwordData.putIfAbsent(getCanonicalFile(keyStorePasswordData.getKeyStoreFile()), keyStorePasswordData);
         }
 
+        // version 1 uses the derived key directly, so it has to be re-keyed on next save
+        encryptionKey = encryptedKeyStorePasswords.getVersion() == 1 ? null : key;
+
         return passwordData;
     }
 
@@ -360,21 +551,29 @@ public class PasswordManager {
         return AES.createKey(decryptedKey);
     }
 
-    private static SecretKey deriveKey(EncryptedKeyStorePasswords encryptedKeyStorePasswords, char[] mainPassword) {
-        KeyDerivationSettings kdfSettings = encryptedKeyStorePasswords.getKeyDerivationSettings();
+    private static SecretKey deriveKey(KeyDerivationSettings kdfSettings, char[] mainPassword,
+                                       IntConsumer progress) {
+        SecretKey key;
         if (kdfSettings.getKeyDerivationAlgorithm() == PBKDF2) {
-            return deriveKeyWithPbkdf2(mainPassword,
-                                       kdfSettings.getSalt(),
-                                       kdfSettings.getIterations(),
-                                       kdfSettings.getDerivedKeyLength());
+            key = deriveKeyWithPbkdf2(mainPassword,
+                                      kdfSettings.getSalt(),
+                                      kdfSettings.getIterations(),
+                                      kdfSettings.getDerivedKeyLength(),
+                                      progress);
         } else {
-            return deriveKeyWithArgon2id(mainPassword,
-                                         kdfSettings.getSalt(),
-                                         kdfSettings.getIterations(),
-                                         kdfSettings.getMemLimitInMB(),
-                                         kdfSettings.getParallelism(),
-                                         kdfSettings.getDerivedKeyLength());
+            key = deriveKeyWithArgon2id(mainPassword,
+                                        kdfSettings.getSalt(),
+                                        kdfSettings.getIterations(),
+                                        kdfSettings.getMemLimitInMB() * 1024,
+                                        kdfSettings.getParallelism(),
+                                        kdfSettings.getDerivedKeyLength());
+        }
+
+        // Argon2 cannot be interrupted, so make sure a cancelled operation does not change anything afterwards
+        if (Thread.currentThread().isInterrupted()) {
+            throw new CancellationException();
         }
+        return key;
     }
 
     private static Map<String, char[]> decryptEntryPasswords(EncryptedKeyStorePasswordData encrPwdData, SecretKey key,
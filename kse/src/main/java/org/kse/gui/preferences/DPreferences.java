@@ -57,6 +57,7 @@ import org.kse.gui.password.PasswordQualityConfig;
 import org.kse.gui.preferences.data.KsePreferences;
 import org.kse.gui.preferences.data.PasswordGeneratorSettings;
 import org.kse.gui.preferences.data.Pkcs12EncryptionSetting;
+import org.kse.gui.preferences.data.UndoHistorySettings;
 import org.kse.utilities.DialogViewer;
 
 /**
@@ -437,6 +438,20 @@ public class DPreferences extends JEscDialog {
         return ((Number) panelUserInterface.getJspSnRandomBytes().getValue()).intValue();
     }
 
+    /**
+     * Get the retention limits of the undo history
+     *
+     * @return Undo history settings
+     */
+    public UndoHistorySettings getUndoHistorySettings() {
+        UndoHistorySettings undoHistorySettings = new UndoHistorySettings();
+        undoHistorySettings.setMaximumDepth(
+                ((Number) panelUserInterface.getJspUndoMaximumDepth().getValue()).intValue());
+        undoHistorySettings.setMaximumMemory(
+                ((Number) panelUserInterface.getJspUndoMaximumMemory().getValue()).intValue());
+        return undoHistorySettings;
+    }
+
     /**
      * Check if columns have changed
      *
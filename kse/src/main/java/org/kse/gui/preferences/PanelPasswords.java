@@ -44,6 +44,7 @@ import org.kse.crypto.encryption.EncryptionException;
 import org.kse.gui.CursorUtil;
 import org.kse.gui.MiGUtil;
 import org.kse.gui.error.DError;
+import org.kse.gui.passwordmanager.DDerivingKey;
 import org.kse.gui.passwordmanager.DInitPasswordManager;
 import org.kse.gui.passwordmanager.DUnlockPasswordManager;
 import org.kse.gui.passwordmanager.PasswordManager;
@@ -242,7 +243,8 @@ class PanelPasswords {
             dUnlockPasswordManager.setVisible(true);
 
             if (!dUnlockPasswordManager.isCancelled()) {
-                passwordManager.unlock(dUnlockPasswordManager.getPassword().toCharArray());
+                char[] password = dUnlockPasswordManager.getPassword().toCharArray();
+                DDerivingKey.run(jFrame, progress -> passwordManager.unlock(password, progress));
                 updatePasswordsCard();
             }
         } catch (EncryptionException e) {
@@ -264,7 +266,7 @@ class PanelPasswords {
 
         if (dInitPasswordManager.getPassword() != null) {
             passwordManager.unlock(dInitPasswordManager.getPassword().toCharArray());
-            passwordManager.save();
+            DDerivingKey.run(jFrame, passwordManager::save);
             updatePasswordsCard();
         }
     }
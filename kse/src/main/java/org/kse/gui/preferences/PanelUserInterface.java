@@ -40,6 +40,7 @@ import org.kse.gui.preferences.data.AutoUpdateCheckSettings;
 import org.kse.gui.preferences.data.KsePreferences;
 import org.kse.gui.preferences.data.LanguageItem;
 import org.kse.gui.preferences.data.Pkcs12EncryptionSetting;
+import org.kse.gui.preferences.data.UndoHistorySettings;
 
 import net.miginfocom.swing.MigLayout;
 
@@ -62,6 +63,8 @@ class PanelUserInterface {
     private JCheckBox jcbLookFeelDecorated;
     private JComboBox<Pkcs12EncryptionSetting> jcbPkcs12Encryption;
     private JSpinner jspSnRandomBytes;
+    private JSpinner jspUndoMaximumDepth;
+    private JSpinner jspUndoMaximumMemory;
 
     private JCheckBox jcbEnableAutoUpdateChecks;
     private JSpinner jspAutoUpdateCheckInterval;
@@ -157,6 +160,17 @@ class PanelUserInterface {
         jspSnRandomBytes.setToolTipText(res.getString("DPreferences.jlSnRandomBytes.tooltip"));
         JLabel jlSnRandomBytesPostfix = new JLabel(res.getString("DPreferences.jlSnRandomBytesPostfix.text"));
 
+        JLabel jlUndoHistory = new JLabel(res.getString("DPreferences.jlUndoHistory.text"));
+        UndoHistorySettings undoHistorySettings = preferences.getUndoHistorySettings();
+        var undoDepthSpinnerModel = new SpinnerNumberModel(undoHistorySettings.getMaximumDepth(), 0, 9999, 10);
+        jspUndoMaximumDepth = new JSpinner(undoDepthSpinnerModel);
+        jspUndoMaximumDepth.setToolTipText(res.getString("DPreferences.jspUndoMaximumDepth.tooltip"));
+        JLabel jlUndoMaximumDepthPostfix = new JLabel(res.getString("DPreferences.jlUndoMaximumDepthPostfix.text"));
+        var undoMemorySpinnerModel = new SpinnerNumberModel(undoHistorySettings.getMaximumMemory(), 0, 9999, 16);
+        jspUndoMaximumMemory = new JSpinner(undoMemorySpinnerModel);
+        jspUndoMaximumMemory.setToolTipText(res.getString("DPreferences.jspUndoMaximumMemory.tooltip"));
+        JLabel jlUndoMaximumMemoryPostfix = new JLabel(res.getString("DPreferences.jlUndoMaximumMemoryPostfix.text"));
+
         // layout
         JPanel jpUI = new JPanel();
         jpUI.setLayout(new MigLayout("insets dialog", "20lp[][]", "20lp[][]"));
@@ -181,7 +195,12 @@ class PanelUserInterface {
         jpUI.add(jcbPkcs12Encryption, "gapx indent, spanx, wrap unrel");
         MiGUtil.addSeparator(jpUI, jlSnRandomBytes.getText());
         jpUI.add(jspSnRandomBytes, "gapx indent, split 2");
-        jpUI.add(jlSnRandomBytesPostfix, "");
+        jpUI.add(jlSnRandomBytesPostfix, "wrap unrel");
+        MiGUtil.addSeparator(jpUI, jlUndoHistory.getText());
+        jpUI.add(jspUndoMaximumDepth, "gapx indent, split 4");
+        jpUI.add(jlUndoMaximumDepthPostfix, "");
+        jpUI.add(jspUndoMaximumMemory, "gapx unrel");
+        jpUI.add(jlUndoMaximumMemoryPostfix, "");
 
         jcbEnableAutoUpdateChecks
                 .addItemListener(evt -> jspAutoUpdateCheckInterval.setEnabled(jcbEnableAutoUpdateChecks.isSelected()));
@@ -287,6 +306,14 @@ class PanelUserInterface {
         return jspSnRandomBytes;
     }
 
+    JSpinner getJspUndoMaximumDepth() {
+        return jspUndoMaximumDepth;
+    }
+
+    JSpinner getJspUndoMaximumMemory() {
+        return jspUndoMaximumMemory;
+    }
+
     JCheckBox getJcbEnableAutoUpdateChecks() {
         return jcbEnableAutoUpdateChecks;
     }
@@ -54,6 +54,7 @@ public class PreferencesManager {
     private static final String CONFIG_DOTTED_BASE_DIR = ".kse";
     private static final String CONFIG_FILE_NAME = "config.json";
     private static final String PASSWORDS_FILE_NAME = "keystore-passwords.json";
+    private static final String CACHE_DIR_NAME = "cache";
     private static final String ENV_VAR_CONFIG_DIR = "KSE_CONFIG_DIR";
 
     private static KsePreferences ksePreferences;
@@ -143,6 +144,16 @@ public class PreferencesManager {
         return new File(determineConfigFilePath().getParentFile(), PASSWORDS_FILE_NAME).getCanonicalFile();
     }
 
+    /**
+     * Get the directory for cached downloads, which is located next to the config file. The directory is not created.
+     *
+     * @return Cache directory
+     * @throws IOException If the location of the config file could not be determined
+     */
+    public static File getCacheDirectory() throws IOException {
+        return new File(determineConfigFilePath().getParentFile(), CACHE_DIR_NAME).getCanonicalFile();
+    }
+
     private static String getAppDataConfigDir() {
         String dir = System.getenv("APPDATA");
         if (dir == null || dir.trim().isEmpty()) {
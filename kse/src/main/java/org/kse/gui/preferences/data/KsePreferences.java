@@ -60,6 +60,7 @@ public class KsePreferences {
     private List<String> examineSslHosts = List.of("www.google.com", "www.amazon.com");
     private List<String> examineSslPorts = List.of("443");
     private AutoUpdateCheckSettings autoUpdateCheckSettings = new AutoUpdateCheckSettings();
+    private UndoHistorySettings undoHistorySettings = new UndoHistorySettings();
     private List<String> pkcs11Libraries = new ArrayList<>();
     private String language = LanguageItem.SYSTEM_LANGUAGE;
     private KeyStoreTableColumns keyStoreTableColumns = new KeyStoreTableColumns();
@@ -266,6 +267,14 @@ public class KsePreferences {
         this.autoUpdateCheckSettings = autoUpdateCheckSettings;
     }
 
+    public UndoHistorySettings getUndoHistorySettings() {
+        return undoHistorySettings;
+    }
+
+    public void setUndoHistorySettings(UndoHistorySettings undoHistorySettings) {
+        this.undoHistorySettings = undoHistorySettings;
+    }
+
     public CaCertsSettings getCaCertsSettings() {
         return caCertsSettings;
     }
@@ -0,0 +1,46 @@
+/*
+ * Copyright 2004 - 2013 Wayne Grant
+ *           2013 - 2025 Kai Kramer
+ *
+ * This file is part of KeyStore Explorer.
+ *
+ * KeyStore Explorer is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * KeyStore Explorer is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with KeyStore Explorer.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.kse.gui.preferences.data;
+
+/**
+ * Config bean for storing the retention limits of the undo history
+ */
+public class UndoHistorySettings {
+
+    private int maximumDepth = 100;
+    private int maximumMemory = 64;
+
+
+    public int getMaximumDepth() {
+        return maximumDepth;
+    }
+
+    public void setMaximumDepth(int maximumDepth) {
+        this.maximumDepth = maximumDepth;
+    }
+
+    public int getMaximumMemory() {
+        return maximumMemory;
+    }
+
+    public void setMaximumMemory(int maximumMemory) {
+        this.maximumMemory = maximumMemory;
+    }
+}
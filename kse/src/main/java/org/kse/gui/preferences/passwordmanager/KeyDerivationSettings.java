@@ -21,6 +21,7 @@ package org.kse.gui.preferences.passwordmanager;
 
 import java.util.Arrays;
 
+import org.kse.crypto.pbkd.PasswordBasedKeyDerivation;
 import org.kse.gui.passwordmanager.KeyDerivationAlgorithm;
 
 /**
@@ -49,6 +50,49 @@ public class KeyDerivationSettings {
         this.derivedKeyLength = other.derivedKeyLength;
     }
 
+    /**
+     * Create settings for the given algorithm whose cost parameters are calibrated on this machine, so that
+     * deriving a key takes about the target time. For PBKDF2 the number of iterations is calibrated, for Argon2id
+     * the memory size. The Argon2id parallelism is 1, because the Bouncy Castle implementation computes the lanes
+     * one after another: further lanes would not use further processors here, but would help an attacker who
+     * computes them in parallel. The salt is not set.
+     *
+     * @param keyDerivationAlgorithm Key derivation algorithm
+     * @param targetMillis Target time for deriving a key in milliseconds
+     * @param minPbkdf2Iterations Minimum number of iterations for PBKDF2
+     * @param argon2Iterations Number of iterations for Argon2id
+     * @param minArgon2MemLimitInMB Minimum memory size for Argon2id
+     * @param derivedKeyLength Length of derived key in bits
+     * @return Calibrated settings
+     */
+    public static KeyDerivationSettings calibrate(KeyDerivationAlgorithm keyDerivationAlgorithm, long targetMillis,
+                                                  int minPbkdf2Iterations, int argon2Iterations,
+                                                  int minArgon2MemLimitInMB, int derivedKeyLength) {
+        var settings = new KeyDerivationSettings();
+        settings.setKeyDerivationAlgorithm(keyDerivationAlgorithm);
+        settings.setDerivedKeyLength(derivedKeyLength);
+
+        if (keyDerivationAlgorithm == KeyDerivationAlgorithm.PBKDF2) {
+            settings.setIterations(PasswordBasedKeyDerivation.calibratePbkdf2(targetMillis, minPbkdf2Iterations));
+        } else {
+            int parallelism = 1;
+
+            // leave enough heap for the application
+            long maxMemLimitInMB = Math.min(1024, Runtime.getRuntime().maxMemory() / 4 / (1024 * 1024));
+            int maxMemLimitInKB = (int) Math.max(minArgon2MemLimitInMB, maxMemLimitInMB) * 1024;
+
+            int memLimitInKB = PasswordBasedKeyDerivation.calibrateArgon2id(targetMillis, argon2Iterations,
+                                                                            parallelism,
+                                                                            minArgon2MemLimitInMB * 1024,
+                                                                            maxMemLimitInKB);
+            settings.setIterations(argon2Iterations);
+            settings.setParallelism(parallelism);
+            settings.setMemLimitInMB(memLimitInKB / 1024);
+        }
+
+        return settings;
+    }
+
     // auto-generated getters/setters
 
     public KeyDerivationAlgorithm getKeyDerivationAlgorithm() {
@@ -0,0 +1,127 @@
+/*
+ * Copyright 2004 - 2013 Wayne Grant
+ *           2013 - 2025 Kai Kramer
+ *
+ * This file is part of KeyStore Explorer.
+ *
+ * KeyStore Explorer is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * KeyStore Explorer is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with KeyStore Explorer.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.kse.utilities;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Records how long the phases of the application startup take. Marking a phase is cheap, so the phases are always
+ * recorded; they are only written out if the system property {@value #KSE_STARTUP_LOG} names a log file. Each
+ * start appends its timings to the file so that several starts can be compared.
+ */
+public class StartupTimer {
+
+    /**
+     * System property with the file that the startup timings are appended to
+     */
+    public static final String KSE_STARTUP_LOG = "kse.startup.log";
+
+    private static final long START_NANOS = System.nanoTime();
+    private static final long START_MILLIS = System.currentTimeMillis();
+
+    private static final List<Phase> phases = new ArrayList<>();
+    private static long lastMark = START_NANOS;
+    private static boolean finished;
+
+    private StartupTimer() {
+    }
+
+    /**
+     * Mark the end of a startup phase. The phase lasted from the previous mark, or from the first use of this
+     * class, until now.
+     *
+     * @param phase Name of the phase
+     */
+    public static synchronized void mark(String phase) {
+        if (finished) {
+            return;
+        }
+
+        long now = System.nanoTime();
+        phases.add(new Phase(phase, now - lastMark, now - START_NANOS));
+        lastMark = now;
+    }
+
+    /**
+     * Mark the end of the last startup phase and write the timings to the log file if one is configured. Later
+     * marks are ignored.
+     *
+     * @param phase Name of the last phase
+     */
+    public static synchronized void finish(String phase) {
+        mark(phase);
+        finished = true;
+
+        String logFile = System.getProperty(KSE_STARTUP_LOG);
+        if (logFile == null || logFile.isEmpty()) {
+            return;
+        }
+
+        try (PrintWriter log = new PrintWriter(
+                new OutputStreamWriter(new FileOutputStream(new File(logFile), true), StandardCharsets.UTF_8))) {
+            log.println("Startup at " + Instant.ofEpochMilli(START_MILLIS));
+
+            // the JVM start is only known from the process, which is not available on every platform
+            Optional<Instant> processStart = ProcessHandle.current().info().startInstant();
+            if (processStart.isPresent()) {
+                log.println(format("JVM startup", START_MILLIS - processStart.get().toEpochMilli(), null));
+            }
+
+            for (Phase p : phases) {
+                log.println(format(p.name, TimeUnit.NANOSECONDS.toMillis(p.duration),
+                                   TimeUnit.NANOSECONDS.toMillis(p.elapsed)));
+            }
+            log.println();
+        } catch (IOException ex) {
+            // timings are diagnostics only, never fail the startup because of them
+            ex.printStackTrace();
+        }
+    }
+
+    private static String format(String phase, long durationMillis, Long elapsedMillis) {
+        String line = String.format("  %-28s %6d ms", phase, durationMillis);
+        if (elapsedMillis != null) {
+            line += String.format("  (%d ms)", elapsedMillis);
+        }
+        return line;
+    }
+
+    private static final class Phase {
+        private final String name;
+        private final long duration;
+        private final long elapsed;
+
+        private Phase(String name, long duration, long elapsed) {
+            this.name = name;
+            this.duration = duration;
+            this.elapsed = elapsed;
+        }
+    }
+}
@@ -20,8 +20,6 @@
 package org.kse.utilities.asn1;
 
 import java.io.IOException;
-import java.io.LineNumberReader;
-import java.io.StringReader;
 import java.math.BigInteger;
 import java.security.PrivateKey;
 import java.security.PublicKey;
@@ -68,11 +66,13 @@ import org.kse.utilities.io.IndentSequence;
 import org.kse.utilities.oid.ObjectIdUtil;
 
 /**
- * Utility class to produce string dumps of the contents of ASN.1 objects.
+ * Utility class to produce string dumps of the contents of ASN.1 objects. Dumps are either returned as a string or
+ * written node by node to an {@link Appendable}, e.g. a {@link java.io.Writer}, without building up intermediate
+ * strings for the subtrees.
  */
 public class Asn1Dump {
     private static ResourceBundle res = ResourceBundle.getBundle("org/kse/utilities/asn1/resources");
-    private IndentSequence indentSequence;
+    private final String indent;
     private int indentLevel = -1;
     private static final String NEWLINE = "\n";
 
@@ -80,7 +80,7 @@ public class Asn1Dump {
      * Construct Asn1Dump that uses 4 spaces as its indent sequence.
      */
     public Asn1Dump() {
-        indentSequence = new IndentSequence(IndentChar.SPACE, 4);
+        this(new IndentSequence(IndentChar.SPACE, 4));
     }
 
     /**
@@ -89,7 +89,7 @@ public class Asn1Dump {
      * @param indentSequence Indent sequence
      */
     public Asn1Dump(IndentSequence indentSequence) {
-        this.indentSequence = indentSequence;
+        indent = indentSequence.toString();
     }
 
     /**
@@ -176,6 +176,52 @@ public class Asn1Dump {
      * @throws IOException   If an I/O problem occurred
      */
     public String dump(byte[] der) throws Asn1Exception, IOException {
+        StringBuilder sb = new StringBuilder();
+        dump(der, sb);
+        return sb.toString();
+    }
+
+    /**
+     * Write dump of the supplied DER encoded ASN.1 object. Nothing is written if the object cannot be dumped.
+     *
+     * @param der DER encoded ASN.1 object
+     * @param out Destination of the dump
+     * @throws Asn1Exception A problem was encountered getting the ASN.1 dump
+     * @throws IOException   If an I/O problem occurred
+     */
+    public void dump(byte[] der, Appendable out) throws Asn1Exception, IOException {
+        dump(parse(der), out);
+    }
+
+    /**
+     * Get dump of the supplied ASN.1 object.
+     *
+     * @param asn1Object ASN.1 object
+     * @return Dump of object
+     * @throws Asn1Exception A problem was encountered getting the ASN.1 dump
+     * @throws IOException   If an I/O problem occurred
+     */
+    public String dump(ASN1Object asn1Object) throws Asn1Exception, IOException {
+        StringBuilder sb = new StringBuilder();
+        dump(asn1Object, sb);
+        return sb.toString();
+    }
+
+    /**
+     * Write dump of the supplied ASN.1 object. Nothing is written if the object cannot be dumped.
+     *
+     * @param asn1Object ASN.1 object
+     * @param out        Destination of the dump
+     * @throws Asn1Exception A problem was encountered getting the ASN.1 dump
+     * @throws IOException   If an I/O problem occurred
+     */
+    public void dump(ASN1Object asn1Object, Appendable out) throws Asn1Exception, IOException {
+        // Check the whole object first so that an incomplete dump is never written
+        checkDumpable(asn1Object);
+        write(asn1Object, out);
+    }
+
+    private static ASN1Primitive parse(byte[] der) throws Asn1Exception {
         try {
             ASN1Primitive derObject = ASN1Primitive.fromByteArray(der);
 
@@ -184,314 +230,317 @@ public class Asn1Dump {
                 throw new Asn1Exception(res.getString("NoAsn1DumpObject.exception.message"));
             }
 
-            return dump(derObject);
+            return derObject;
         } catch (IOException ex) {
             throw new Asn1Exception(res.getString("NoAsn1DumpObject.exception.message"), ex);
         }
     }
 
-    /**
-     * Get dump of the supplied ASN.1 object.
-     *
-     * @param asn1Object ASN.1 object
-     * @return Dump of object
-     * @throws Asn1Exception A problem was encountered getting the ASN.1 dump
-     * @throws IOException   If an I/O problem occurred
+    /*
+     * Throws the exception writing the dump of the object would fail with. The content of OCTET and BIT STRINGs is
+     * not checked here as it is dumped in hex if it does not encapsulate a dumpable object.
      */
-    public String dump(ASN1Object asn1Object) throws Asn1Exception, IOException {
-        // Get dump of the supplied ASN.1 object incrementing the indent level of the output
+    private static void checkDumpable(ASN1Object asn1Object) throws Asn1Exception {
+        if (asn1Object instanceof ASN1UTCTime) {
+            getDate((ASN1UTCTime) asn1Object);
+        } else if (asn1Object instanceof ASN1GeneralizedTime) {
+            getDate((ASN1GeneralizedTime) asn1Object);
+        } else if (asn1Object instanceof ASN1Sequence || asn1Object instanceof ASN1Set) {
+            Enumeration<?> components = asn1Object instanceof ASN1Sequence ?
+                                        ((ASN1Sequence) asn1Object).getObjects() :
+                                        ((ASN1Set) asn1Object).getObjects();
+
+            while (components.hasMoreElements()) {
+                checkDumpable((ASN1Primitive) components.nextElement());
+            }
+        } else if (asn1Object instanceof ASN1TaggedObject) {
+            checkDumpable(((ASN1TaggedObject) asn1Object).getBaseObject());
+        } else if (!(asn1Object instanceof DERBitString || asn1Object instanceof ASN1String
+                || asn1Object instanceof ASN1Boolean || asn1Object instanceof ASN1Enumerated
+                || asn1Object instanceof ASN1Integer || asn1Object instanceof ASN1Null
+                || asn1Object instanceof ASN1ObjectIdentifier || asn1Object instanceof ASN1OctetString)) {
+            throw new Asn1Exception("Unknown ASN.1 object: " + asn1Object.toString());
+        }
+    }
+
+    /*
+     * Write dump of the supplied ASN.1 object incrementing the indent level of the output
+     */
+    private void write(ASN1Object asn1Object, Appendable out) throws IOException {
         try {
             indentLevel++;
 
             if (asn1Object instanceof DERBitString) { // special case of ASN1String
-                return dumpBitString((DERBitString) asn1Object);
+                dumpBitString((DERBitString) asn1Object, out);
             } else if (asn1Object instanceof ASN1String) {
-                return dumpString((ASN1String) asn1Object);
+                dumpString((ASN1String) asn1Object, out);
             } else if (asn1Object instanceof ASN1UTCTime) {
-                return dumpUTCTime((ASN1UTCTime) asn1Object);
+                dumpUTCTime((ASN1UTCTime) asn1Object, out);
             } else if (asn1Object instanceof ASN1GeneralizedTime) {
-                return dumpGeneralizedTime((ASN1GeneralizedTime) asn1Object);
+                dumpGeneralizedTime((ASN1GeneralizedTime) asn1Object, out);
             } else if (asn1Object instanceof ASN1Sequence || asn1Object instanceof ASN1Set) {
-                return dumpSetOrSequence(asn1Object);
+                dumpSetOrSequence(asn1Object, out);
             } else if (asn1Object instanceof ASN1TaggedObject) {
-                return dumpTaggedObject((ASN1TaggedObject) asn1Object);
+                dumpTaggedObject((ASN1TaggedObject) asn1Object, out);
             } else if (asn1Object instanceof ASN1Boolean) {
-                return dumpBoolean((ASN1Boolean) asn1Object);
+                dumpBoolean((ASN1Boolean) asn1Object, out);
             } else if (asn1Object instanceof ASN1Enumerated) {
-                return dumpEnumerated((ASN1Enumerated) asn1Object);
+                dumpEnumerated((ASN1Enumerated) asn1Object, out);
             } else if (asn1Object instanceof ASN1Integer) {
-                return dumpInteger((ASN1Integer) asn1Object);
+                dumpInteger((ASN1Integer) asn1Object, out);
             } else if (asn1Object instanceof ASN1Null) {
-                return dumpNull();
+                dumpNull(out);
             } else if (asn1Object instanceof ASN1ObjectIdentifier) {
-                return dumpObjectIdentifier((ASN1ObjectIdentifier) asn1Object);
-            } else if (asn1Object instanceof ASN1OctetString) {
-                return dumpOctetString((ASN1OctetString) asn1Object);
+                dumpObjectIdentifier((ASN1ObjectIdentifier) asn1Object, out);
             } else {
-                throw new Asn1Exception("Unknown ASN.1 object: " + asn1Object.toString());
+                dumpOctetString((ASN1OctetString) asn1Object, out);
             }
         } finally {
             indentLevel--;
         }
     }
 
-    private String dumpTaggedObject(ASN1TaggedObject o) throws Asn1Exception, IOException {
+    /*
+     * Get the object encapsulated by the contents of an OCTET or BIT STRING or null if there is none
+     */
+    private static ASN1Primitive getEncapsulated(byte[] bytes) {
+        try {
+            ASN1Primitive encapsulated = parse(bytes);
+            checkDumpable(encapsulated);
+            return encapsulated;
+        } catch (Exception e) {
+            return null;
+        }
+    }
 
-        StringBuilder sb = new StringBuilder();
+    private void writeIndent(Appendable out) throws IOException {
+        for (int i = 0; i < indentLevel; i++) {
+            out.append(indent);
+        }
+    }
 
-        sb.append(indentSequence.toString(indentLevel));
+    private void dumpTaggedObject(ASN1TaggedObject o, Appendable out) throws IOException {
+        writeIndent(out);
         if (o instanceof BERTaggedObject) {
-            sb.append("BER TAGGED [");
+            out.append("BER TAGGED [");
         } else {
-            sb.append("TAGGED [");
+            out.append("TAGGED [");
         }
-        sb.append(o.getTagNo());
-        sb.append(']');
+        out.append(Integer.toString(o.getTagNo()));
+        out.append(']');
 
         if (!o.isExplicit()) {
-            sb.append(" IMPLICIT ");
+            out.append(" IMPLICIT ");
         }
-        sb.append(":");
-        sb.append(NEWLINE);
-        sb.append(dump(o.getBaseObject()));
-
-        return sb.toString();
+        out.append(":");
+        out.append(NEWLINE);
+        write(o.getBaseObject(), out);
     }
 
-    private String dumpOctetString(ASN1OctetString asn1OctetString) throws IOException {
-        StringBuilder sb = new StringBuilder();
+    private void dumpOctetString(ASN1OctetString asn1OctetString, Appendable out) throws IOException {
         byte[] bytes = asn1OctetString.getOctets();
 
-        sb.append(indentSequence.toString(indentLevel));
-        sb.append("OCTET STRING (L:").append(bytes.length).append((")"));
-        try {
-            String encapsulated = dump(bytes);
-            sb.append(", encapsulates:");
-            sb.append(NEWLINE);
-            sb.append(encapsulated);
-        } catch (Exception e) {
-            sb.append("=");
+        writeIndent(out);
+        out.append("OCTET STRING (L:").append(Integer.toString(bytes.length)).append(")");
+
+        ASN1Primitive encapsulated = getEncapsulated(bytes);
+        if (encapsulated != null) {
+            out.append(", encapsulates:");
+            out.append(NEWLINE);
+            write(encapsulated, out);
+        } else {
+            out.append("=");
             if (bytes.length < 8) {
-                sb.append(HexUtil.getHexString(bytes));
+                out.append(HexUtil.getHexString(bytes));
             } else {
-                sb.append(NEWLINE);
-                sb.append(dumpHexClear(bytes));
+                out.append(NEWLINE);
+                dumpHexClear(bytes, out);
             }
         }
-        sb.append(NEWLINE);
-
-        return sb.toString();
+        out.append(NEWLINE);
     }
 
-    private String dumpBitString(DERBitString asn1BitString) throws IOException {
-        StringBuilder sb = new StringBuilder();
+    private void dumpBitString(DERBitString asn1BitString, Appendable out) throws IOException {
         byte[] bytes = asn1BitString.getBytes();
 
-        sb.append(indentSequence.toString(indentLevel));
-        sb.append("BIT STRING (L:").append(bytes.length).append((")"));
-        try {
-            String dump = dump(bytes);
-            sb.append(", encapsulates:");
-            sb.append(NEWLINE);
-            sb.append(dump);
-        } catch (Exception e) {
-            sb.append("=");
+        writeIndent(out);
+        out.append("BIT STRING (L:").append(Integer.toString(bytes.length)).append(")");
+
+        ASN1Primitive encapsulated = getEncapsulated(bytes);
+        if (encapsulated != null) {
+            out.append(", encapsulates:");
+            out.append(NEWLINE);
+            write(encapsulated, out);
+        } else {
+            out.append("=");
 
             // print short bit strings as string of bits and long ones as hex dump
             if (bytes.length < 8) {
-                sb.append(new BigInteger(1, bytes).toString(2));
+                out.append(new BigInteger(1, bytes).toString(2));
             } else {
-                sb.append(NEWLINE);
-                sb.append(dumpHexClear(bytes));
+                out.append(NEWLINE);
+                dumpHexClear(bytes, out);
             }
         }
-        sb.append(NEWLINE);
-
-        return sb.toString();
+        out.append(NEWLINE);
     }
 
-    private String dumpObjectIdentifier(ASN1ObjectIdentifier asn1ObjectIdentifier) {
-
-        String sb = indentSequence.toString(indentLevel) +
-                "OBJECT IDENTIFIER=" +
-                ObjectIdUtil.toString(asn1ObjectIdentifier) +
-                NEWLINE;
-
-        return sb;
+    private void dumpObjectIdentifier(ASN1ObjectIdentifier asn1ObjectIdentifier, Appendable out)
+            throws IOException {
+        writeIndent(out);
+        out.append("OBJECT IDENTIFIER=");
+        out.append(ObjectIdUtil.toString(asn1ObjectIdentifier));
+        out.append(NEWLINE);
     }
 
-    private String dumpNull() {
-
-        String sb = indentSequence.toString(indentLevel) +
-                "NULL" +
-                NEWLINE;
-
-        return sb;
+    private void dumpNull(Appendable out) throws IOException {
+        writeIndent(out);
+        out.append("NULL");
+        out.append(NEWLINE);
     }
 
-    private String dumpInteger(ASN1Integer asn1Integer) throws IOException {
-        StringBuilder sb = new StringBuilder();
+    private void dumpInteger(ASN1Integer asn1Integer, Appendable out) throws IOException {
         BigInteger value = asn1Integer.getValue();
 
-        sb.append(indentSequence.toString(indentLevel));
-        sb.append("INTEGER=");
+        writeIndent(out);
+        out.append("INTEGER=");
         // is big int value small enough to be displayed as a number?
         if (value.compareTo(BigInteger.valueOf(Long.MAX_VALUE)) == -1) {
-            sb.append(value.toString(10));
+            out.append(value.toString(10));
             if (value.longValue() >= 10) {
-                sb.append(" (0x").append(value.toString(16)).append(")");
+                out.append(" (0x").append(value.toString(16)).append(")");
             }
         } else {
             // else print as byte array
-            sb.append(NEWLINE);
-            sb.append(dumpHexClear(value.toByteArray()));
+            out.append(NEWLINE);
+            dumpHexClear(value.toByteArray(), out);
         }
-        sb.append(NEWLINE);
-
-        return sb.toString();
+        out.append(NEWLINE);
     }
 
-    private String dumpEnumerated(ASN1Enumerated asn1Enumerated) {
-
-        String sb = indentSequence.toString(indentLevel) +
-                "ENUMERATED=" +
-                asn1Enumerated.getValue() +
-                NEWLINE;
-
-        return sb;
+    private void dumpEnumerated(ASN1Enumerated asn1Enumerated, Appendable out) throws IOException {
+        writeIndent(out);
+        out.append("ENUMERATED=");
+        out.append(asn1Enumerated.getValue().toString());
+        out.append(NEWLINE);
     }
 
-    private String dumpBoolean(ASN1Boolean asn1Boolean) {
-
-        String sb = indentSequence.toString(indentLevel) +
-                "BOOLEAN=" +
-                asn1Boolean.isTrue() +
-                NEWLINE;
-
-        return sb;
+    private void dumpBoolean(ASN1Boolean asn1Boolean, Appendable out) throws IOException {
+        writeIndent(out);
+        out.append("BOOLEAN=");
+        out.append(Boolean.toString(asn1Boolean.isTrue()));
+        out.append(NEWLINE);
     }
 
-    private String dumpSetOrSequence(ASN1Encodable asn1ConstructedType) throws Asn1Exception, IOException {
-        StringBuilder sb = new StringBuilder();
-
-        sb.append(indentSequence.toString(indentLevel));
+    private void dumpSetOrSequence(ASN1Encodable asn1ConstructedType, Appendable out) throws IOException {
+        writeIndent(out);
 
         Enumeration<?> components;
 
         // Sequence or Set?
         if (asn1ConstructedType instanceof ASN1Sequence) {
-            sb.append("SEQUENCE");
+            out.append("SEQUENCE");
             ASN1Sequence sequence = (ASN1Sequence) asn1ConstructedType;
             components = sequence.getObjects();
         } else {
             // == SET
-            sb.append("SET");
+            out.append("SET");
             ASN1Set set = (ASN1Set) asn1ConstructedType;
             components = set.getObjects();
         }
 
-        sb.append(NEWLINE);
+        out.append(NEWLINE);
 
-        sb.append(indentSequence.toString(indentLevel));
-        sb.append("{");
-        sb.append(NEWLINE);
+        writeIndent(out);
+        out.append("{");
+        out.append(NEWLINE);
 
         while (components.hasMoreElements()) {
             ASN1Primitive component = (ASN1Primitive) components.nextElement();
-            sb.append(dump(component));
+            write(component, out);
         }
 
-        sb.append(indentSequence.toString(indentLevel));
+        writeIndent(out);
+
+        out.append("}");
+        out.append(NEWLINE);
+    }
 
-        sb.append("}");
-        sb.append(NEWLINE);
+    private void dumpUTCTime(ASN1UTCTime asn1Time, Appendable out) throws IOException {
+        writeIndent(out);
+        out.append("UTC TIME=");
 
-        return sb.toString();
+        // UTCTime, note does not support ms precision hence the different date format
+        String formattedDate = new SimpleDateFormat("dd/MMM/yyyy HH:mm:ss z").format(getDate(asn1Time));
+
+        out.append(formattedDate);
+        out.append(" (");
+        out.append(asn1Time.getTime());
+        out.append(")");
+        out.append(NEWLINE);
     }
 
-    private String dumpUTCTime(ASN1UTCTime asn1Time) {
-        StringBuilder sb = new StringBuilder();
+    private void dumpGeneralizedTime(ASN1GeneralizedTime asn1Time, Appendable out) throws IOException {
+        writeIndent(out);
+        out.append("GENERALIZED TIME=");
 
-        sb.append(indentSequence.toString(indentLevel));
-        sb.append("UTC TIME=");
+        String formattedDate = new SimpleDateFormat("dd/MMM/yyyy HH:mm:ss.SSS z").format(getDate(asn1Time));
 
-        // UTCTime, note does not support ms precision hence the different date format
-        Date date;
+        out.append(formattedDate);
+        out.append(" (");
+        out.append(asn1Time.getTime());
+        out.append(")");
+        out.append(NEWLINE);
+    }
+
+    private static Date getDate(ASN1UTCTime asn1Time) {
         try {
-            date = asn1Time.getDate();
+            return asn1Time.getDate();
         } catch (ParseException e) {
             throw new RuntimeException("Cannot parse utc time");
         }
-        String formattedDate = new SimpleDateFormat("dd/MMM/yyyy HH:mm:ss z").format(date);
-
-        sb.append(formattedDate);
-        sb.append(" (");
-        sb.append(asn1Time.getTime());
-        sb.append(")");
-        sb.append(NEWLINE);
-
-        return sb.toString();
     }
 
-    private String dumpGeneralizedTime(ASN1GeneralizedTime asn1Time) {
-        StringBuilder sb = new StringBuilder();
-
-        sb.append(indentSequence.toString(indentLevel));
-        sb.append("GENERALIZED TIME=");
-
-        Date date;
+    private static Date getDate(ASN1GeneralizedTime asn1Time) {
         try {
-            date = asn1Time.getDate();
+            return asn1Time.getDate();
         } catch (ParseException e) {
             throw new RuntimeException("Cannot parse generalized time");
         }
-        String formattedDate = new SimpleDateFormat("dd/MMM/yyyy HH:mm:ss.SSS z").format(date);
-
-        sb.append(formattedDate);
-        sb.append(" (");
-        sb.append(asn1Time.getTime());
-        sb.append(")");
-        sb.append(NEWLINE);
-
-        return sb.toString();
     }
 
-    private String dumpString(ASN1String asn1String) {
-        StringBuilder sb = new StringBuilder();
-
-        sb.append(indentSequence.toString(indentLevel));
+    private void dumpString(ASN1String asn1String, Appendable out) throws IOException {
+        writeIndent(out);
 
         if (asn1String instanceof DERBMPString) {
-            sb.append("BMP STRING=");
+            out.append("BMP STRING=");
         } else if (asn1String instanceof DERGeneralString) {
-            sb.append("GENERAL STRING=");
+            out.append("GENERAL STRING=");
         } else if (asn1String instanceof DERIA5String) {
-            sb.append("IA5 STRING=");
+            out.append("IA5 STRING=");
         } else if (asn1String instanceof DERNumericString) {
-            sb.append("NUMERIC STRING=");
+            out.append("NUMERIC STRING=");
         } else if (asn1String instanceof DERPrintableString) {
-            sb.append("PRINTABLE STRING=");
+            out.append("PRINTABLE STRING=");
         } else if (asn1String instanceof DERT61String) {
-            sb.append("TELETEX STRING=");
+            out.append("TELETEX STRING=");
         } else if (asn1String instanceof DERUniversalString) {
-            sb.append("UNIVERSAL STRING=");
+            out.append("UNIVERSAL STRING=");
         } else if (asn1String instanceof DERUTF8String) {
-            sb.append("UTF8 STRING=");
+            out.append("UTF8 STRING=");
         } else if (asn1String instanceof DERVisibleString) {
-            sb.append("VISIBLE STRING=");
+            out.append("VISIBLE STRING=");
         } else {
-            sb.append("UNKNOWN STRING=");
+            out.append("UNKNOWN STRING=");
         }
 
-        sb.append("'");
-        sb.append(asn1String.getString());
-        sb.append("'");
-        sb.append(NEWLINE);
-
-        return sb.toString();
+        out.append("'");
+        out.append(asn1String.getString());
+        out.append("'");
+        out.append(NEWLINE);
     }
 
-    private String dumpHexClear(byte[] der) throws IOException {
+    private void dumpHexClear(byte[] der, Appendable out) throws IOException {
         try {
             indentLevel++;
 
@@ -499,26 +548,23 @@ public class Asn1Dump {
             String hexClearDump = HexUtil.getHexClearDump(der);
 
             // Put indent at the start of each line of the dump
-            LineNumberReader lnr = new LineNumberReader(new StringReader(hexClearDump));
-
-            StringBuilder sb = new StringBuilder();
+            int start = 0;
 
-            String line = null;
-            boolean firstLine = true;
+            while (start < hexClearDump.length()) {
+                int end = hexClearDump.indexOf(NEWLINE, start);
+                if (end < 0) {
+                    end = hexClearDump.length();
+                }
 
-            while ((line = lnr.readLine()) != null) {
-                if (firstLine) {
-                    firstLine = false;
-                } else {
-                    sb.append(NEWLINE);
+                if (start > 0) {
+                    out.append(NEWLINE);
                 }
 
-                sb.append(indentSequence.toString(indentLevel));
-                sb.append(line);
-            }
+                writeIndent(out);
+                out.append(hexClearDump, start, end);
 
-            lnr.close();
-            return sb.toString();
+                start = end + NEWLINE.length();
+            }
         } finally {
             indentLevel--;
         }
@@ -0,0 +1,374 @@
+/*
+ * Copyright 2004 - 2013 Wayne Grant
+ *           2013 - 2025 Kai Kramer
+ *
+ * This file is part of KeyStore Explorer.
+ *
+ * KeyStore Explorer is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * KeyStore Explorer is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with KeyStore Explorer.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.kse.utilities.asn1;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.ResourceBundle;
+
+import org.bouncycastle.asn1.ASN1Primitive;
+import org.bouncycastle.asn1.ASN1StreamParser;
+import org.bouncycastle.asn1.BERTags;
+import org.kse.utilities.io.HexUtil;
+
+/**
+ * An element of a BER or DER encoded ASN.1 object that is decoded on demand. Creating an element only reads its
+ * identifier and length octets, its children are read when they are first asked for and the value of a primitive
+ * element is decoded with an {@link ASN1StreamParser} when it is first displayed. Used to browse large ASN.1 objects
+ * without decoding the parts that are not looked at.
+ * <p>
+ * Children of constructed elements and the contents of OCTET and BIT STRINGs that encapsulate another element are
+ * elements themselves, long values are split into the lines of a hex/clear dump.
+ */
+public final class Asn1Element {
+    private static ResourceBundle res = ResourceBundle.getBundle("org/kse/utilities/asn1/resources");
+
+    // values of this many bytes and more are shown as hex/clear dump like in Asn1Dump
+    private static final int HEX_DUMP_LENGTH = 8;
+
+    private final byte[] encoding;
+    private final int offset;
+    private final int end;
+
+    private final int tagClass;
+    private final int tagNo;
+    private final boolean constructed;
+    private final int contentOffset;
+    private final int contentEnd;
+
+    private Boolean hasChildren;
+    private List<Object> children;
+    private String label;
+
+    private Asn1Element(byte[] encoding, int offset, int limit) throws IOException {
+        this.encoding = encoding;
+        this.offset = offset;
+
+        int pos = offset;
+        int identifier = read(pos++, limit);
+
+        tagClass = identifier & BERTags.PRIVATE;
+        constructed = (identifier & BERTags.CONSTRUCTED) != 0;
+
+        int number = identifier & 0x1f;
+        if (number == 0x1f) {
+            number = 0;
+            int b;
+            do {
+                if (number > (Integer.MAX_VALUE >>> 7)) {
+                    throw new IOException("Tag number too large");
+                }
+                b = read(pos++, limit);
+                number = (number << 7) | (b & 0x7f);
+            } while ((b & 0x80) != 0);
+        }
+        tagNo = number;
+
+        int length = read(pos++, limit);
+
+        if (length == 0x80) {
+            if (!constructed) {
+                throw new IOException("Indefinite length of primitive encoding");
+            }
+
+            // contents end with the first end-of-contents octets that follow a complete child
+            contentOffset = pos;
+            while (read(pos, limit) != 0 || read(pos + 1, limit) != 0) {
+                pos = new Asn1Element(encoding, pos, limit).end;
+            }
+            contentEnd = pos;
+            end = pos + 2;
+        } else {
+            if ((length & 0x80) != 0) {
+                int octets = length & 0x7f;
+                if (octets > 4) {
+                    throw new IOException("Length too large");
+                }
+
+                length = 0;
+                for (int i = 0; i < octets; i++) {
+                    length = (length << 8) | read(pos++, limit);
+                }
+                if (length < 0) {
+                    throw new IOException("Negative length");
+                }
+            }
+
+            contentOffset = pos;
+            contentEnd = pos + length;
+            if (length > limit - pos) {
+                throw new IOException("Length exceeds available data");
+            }
+            end = contentEnd;
+        }
+    }
+
+    /**
+     * Get the element of the supplied BER or DER encoded ASN.1 object. Only the identifier and length octets of the
+     * object are decoded.
+     *
+     * @param encoding Encoded ASN.1 object
+     * @return The element
+     * @throws Asn1Exception If the encoding is not a single ASN.1 object
+     */
+    public static Asn1Element of(byte[] encoding) throws Asn1Exception {
+        try {
+            Asn1Element element = new Asn1Element(encoding, 0, encoding.length);
+
+            if (element.end != encoding.length) {
+                throw new Asn1Exception(res.getString("NoAsn1DumpObject.exception.message"));
+            }
+
+            return element;
+        } catch (IOException ex) {
+            throw new Asn1Exception(res.getString("NoAsn1DumpObject.exception.message"), ex);
+        }
+    }
+
+    /**
+     * Get the encoding of this element.
+     *
+     * @return Identifier, length and content octets
+     */
+    public byte[] getEncoded() {
+        return Arrays.copyOfRange(encoding, offset, end);
+    }
+
+    /**
+     * Does this element have children? Cheaper than getting them as only the first child is decoded, if at all.
+     *
+     * @return True if it has
+     */
+    public boolean hasChildren() {
+        if (hasChildren == null) {
+            hasChildren = constructed ? contentEnd > contentOffset : getEncapsulated() != null || hasHexClearDump();
+        }
+        return hasChildren;
+    }
+
+    /**
+     * Get the children of this element, decoding them on first call.
+     *
+     * @return Child elements or the lines of a hex/clear dump
+     */
+    public List<Object> getChildren() {
+        if (children == null) {
+            children = Collections.unmodifiableList(readChildren());
+        }
+        return children;
+    }
+
+    /**
+     * Get a single line description of this element in the terms of Asn1Dump.
+     *
+     * @return Description
+     */
+    @Override
+    public String toString() {
+        if (label == null) {
+            label = getLabel();
+        }
+        return label;
+    }
+
+    private List<Object> readChildren() {
+        List<Object> list = new ArrayList<>();
+
+        if (constructed) {
+            int pos = contentOffset;
+            try {
+                while (pos < contentEnd) {
+                    Asn1Element child = new Asn1Element(encoding, pos, contentEnd);
+                    list.add(child);
+                    pos = child.end;
+                }
+            } catch (IOException ex) {
+                // show what cannot be decoded as it is
+                addHexClearLines(list, Arrays.copyOfRange(encoding, pos, contentEnd));
+            }
+        } else {
+            Asn1Element encapsulated = getEncapsulated();
+
+            if (encapsulated != null) {
+                list.add(encapsulated);
+            } else if (hasHexClearDump()) {
+                addHexClearLines(list, getValue());
+            }
+        }
+
+        return list;
+    }
+
+    private String getLabel() {
+        if (tagClass != BERTags.UNIVERSAL) {
+            return getTagLabel() + (constructed ? "" : " IMPLICIT" + getShortValue());
+        }
+
+        if (constructed) {
+            switch (tagNo) {
+            case BERTags.SEQUENCE:
+                return "SEQUENCE";
+            case BERTags.SET:
+                return "SET";
+            case BERTags.OCTET_STRING:
+                return "OCTET STRING";
+            case BERTags.BIT_STRING:
+                return "BIT STRING";
+            default:
+                return getTagLabel();
+            }
+        }
+
+        switch (tagNo) {
+        case BERTags.OCTET_STRING:
+            if (getEncapsulated() != null) {
+                return "OCTET STRING (L:" + getValueLength() + "), encapsulates:";
+            } else if (getValueLength() < HEX_DUMP_LENGTH) {
+                return "OCTET STRING (L:" + getValueLength() + ")=" + HexUtil.getHexString(getValue());
+            }
+            return "OCTET STRING (L:" + getValueLength() + ")";
+        case BERTags.BIT_STRING:
+            if (getEncapsulated() != null) {
+                return "BIT STRING (L:" + getValueLength() + "), encapsulates:";
+            } else if (getValueLength() < HEX_DUMP_LENGTH) {
+                return "BIT STRING (L:" + getValueLength() + ")=" + new BigInteger(1, getValue()).toString(2);
+            }
+            return "BIT STRING (L:" + getValueLength() + ")";
+        case BERTags.INTEGER:
+            if (isLongValue()) {
+                return "INTEGER (L:" + getValueLength() + ")";
+            }
+            // fall through
+        default:
+            // format the same as the dump does
+            try {
+                String dump = new Asn1Dump().dump(decode());
+                return dump.substring(0, dump.length() - 1);
+            } catch (Asn1Exception | IOException | RuntimeException ex) {
+                return getTagLabel() + getShortValue();
+            }
+        }
+    }
+
+    private String getTagLabel() {
+        switch (tagClass) {
+        case BERTags.UNIVERSAL:
+            return "UNIVERSAL [" + tagNo + "]";
+        case BERTags.APPLICATION:
+            return "APPLICATION [" + tagNo + "]";
+        case BERTags.PRIVATE:
+            return "PRIVATE [" + tagNo + "]";
+        default:
+            return "TAGGED [" + tagNo + "]";
+        }
+    }
+
+    /*
+     * Long values of OCTET and BIT STRINGs, integers and implicitly tagged elements are shown as hex/clear dump
+     */
+    private boolean hasHexClearDump() {
+        if (constructed || getValueLength() < HEX_DUMP_LENGTH) {
+            return false;
+        }
+        return tagClass != BERTags.UNIVERSAL || isUniversal(BERTags.OCTET_STRING) || isUniversal(BERTags.BIT_STRING)
+                || isLongValue();
+    }
+
+    private String getShortValue() {
+        if (getValueLength() < HEX_DUMP_LENGTH) {
+            return "=" + HexUtil.getHexString(getValue());
+        }
+        return " (L:" + getValueLength() + ")";
+    }
+
+    private ASN1Primitive decode() throws IOException {
+        ASN1StreamParser parser = new ASN1StreamParser(new ByteArrayInputStream(encoding, offset, end - offset),
+                                                       end - offset);
+        return parser.readObject().toASN1Primitive();
+    }
+
+    /*
+     * An integer too large to be displayed as a number, see Asn1Dump
+     */
+    private boolean isLongValue() {
+        if (!isUniversal(BERTags.INTEGER) || constructed || getValueLength() < Long.BYTES) {
+            return false;
+        }
+        return new BigInteger(getValue()).compareTo(BigInteger.valueOf(Long.MAX_VALUE)) >= 0;
+    }
+
+    /*
+     * The element the content of an OCTET or BIT STRING consists of or null if it is none
+     */
+    private Asn1Element getEncapsulated() {
+        int start = isUniversal(BERTags.BIT_STRING) ? contentOffset + 1 : contentOffset;
+
+        if (constructed || start >= contentEnd
+                || !(isUniversal(BERTags.OCTET_STRING) || isUniversal(BERTags.BIT_STRING))) {
+            return null;
+        }
+
+        try {
+            Asn1Element encapsulated = new Asn1Element(encoding, start, contentEnd);
+            return encapsulated.end == contentEnd ? encapsulated : null;
+        } catch (IOException ex) {
+            return null;
+        }
+    }
+
+    /*
+     * Value bytes, i.e. the contents without the unused bits octet of a BIT STRING
+     */
+    private byte[] getValue() {
+        int start = isUniversal(BERTags.BIT_STRING) ? Math.min(contentOffset + 1, contentEnd) : contentOffset;
+        return Arrays.copyOfRange(encoding, start, contentEnd);
+    }
+
+    private int getValueLength() {
+        if (isUniversal(BERTags.BIT_STRING)) {
+            return Math.max(contentEnd - contentOffset - 1, 0);
+        }
+        return contentEnd - contentOffset;
+    }
+
+    private boolean isUniversal(int universalTagNo) {
+        return tagClass == BERTags.UNIVERSAL && tagNo == universalTagNo;
+    }
+
+    private static void addHexClearLines(List<Object> list, byte[] bytes) {
+        try {
+            list.addAll(Arrays.asList(HexUtil.getHexClearDump(bytes).split("\n")));
+        } catch (IOException ex) {
+            // cannot happen with a byte array
+        }
+    }
+
+    private int read(int pos, int limit) throws IOException {
+        if (pos >= limit) {
+            throw new IOException("Unexpected end of data");
+        }
+        return encoding[pos] & 0xff;
+    }
+}
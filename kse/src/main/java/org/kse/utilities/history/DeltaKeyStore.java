@@ -0,0 +1,107 @@
+/*
+ * Copyright 2004 - 2013 Wayne Grant
+ *           2013 - 2025 Kai Kramer
+ *
+ * This file is part of KeyStore Explorer.
+ *
+ * KeyStore Explorer is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * KeyStore Explorer is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with KeyStore Explorer.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.kse.utilities.history;
+
+import java.io.IOException;
+import java.security.KeyStore;
+import java.security.KeyStoreException;
+import java.security.NoSuchAlgorithmException;
+import java.security.cert.CertificateException;
+import java.util.List;
+import java.util.ResourceBundle;
+
+import org.kse.crypto.CryptoException;
+
+/**
+ * KeyStore for a state in the undo/redo history that records entry-level changes on top of the entries of the
+ * previous state instead of holding a full copy of them. Unchanged entries are shared between states and no
+ * password based encryption is involved in deriving a new state. A complete KeyStore is only rebuilt when this one
+ * is stored.
+ */
+final class DeltaKeyStore extends KeyStore {
+    private static ResourceBundle res = ResourceBundle.getBundle("org/kse/utilities/history/resources");
+
+    private final DeltaKeyStoreSpi spi;
+
+    private DeltaKeyStore(DeltaKeyStoreSpi spi, KeyStore parent) {
+        super(spi, parent.getProvider(), parent.getType());
+        this.spi = spi;
+    }
+
+    /**
+     * Derive a KeyStore for the next state from the KeyStore of the current one.
+     *
+     * @param parent KeyStore of the current state
+     * @return KeyStore for the next state
+     * @throws CryptoException If the KeyStore could not be derived
+     */
+    static DeltaKeyStore derive(KeyStore parent) throws CryptoException {
+        try {
+            DeltaKeyStoreSpi spi;
+
+            if (parent instanceof DeltaKeyStore) {
+                spi = new DeltaKeyStoreSpi(((DeltaKeyStore) parent).spi);
+            } else {
+                spi = new DeltaKeyStoreSpi(parent);
+            }
+
+            DeltaKeyStore keyStore = new DeltaKeyStore(spi, parent);
+            keyStore.load(null, null);
+
+            return keyStore;
+        } catch (KeyStoreException | IOException | NoSuchAlgorithmException | CertificateException ex) {
+            throw new CryptoException(res.getString("NoDeriveKeyStore.exception.message"), ex);
+        }
+    }
+
+    /**
+     * Get the entry changes made since this KeyStore was derived.
+     *
+     * @return Entry changes
+     */
+    List<EntryChange> getEntryChanges() {
+        return spi.getEntryChanges();
+    }
+
+    /**
+     * Get the KeyStore whose entries are shared by this KeyStore and those of neighbouring states.
+     *
+     * @return Root KeyStore
+     */
+    KeyStore getRoot() {
+        return spi.getRoot();
+    }
+
+    /**
+     * Get an estimate of the memory held by this KeyStore that is not shared with other states.
+     *
+     * @return Estimated size in bytes
+     */
+    long estimateSize() {
+        return spi.estimateSize();
+    }
+
+    /**
+     * Null the passwords of the entries written to this KeyStore.
+     */
+    void nullPasswords() {
+        spi.nullPasswords();
+    }
+}
@@ -0,0 +1,562 @@
+/*
+ * Copyright 2004 - 2013 Wayne Grant
+ *           2013 - 2025 Kai Kramer
+ *
+ * This file is part of KeyStore Explorer.
+ *
+ * KeyStore Explorer is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * KeyStore Explorer is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with KeyStore Explorer.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.kse.utilities.history;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.security.Key;
+import java.security.KeyStore;
+import java.security.KeyStoreException;
+import java.security.KeyStoreSpi;
+import java.security.NoSuchAlgorithmException;
+import java.security.UnrecoverableEntryException;
+import java.security.UnrecoverableKeyException;
+import java.security.cert.Certificate;
+import java.security.cert.CertificateEncodingException;
+import java.security.cert.CertificateException;
+import java.text.MessageFormat;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.ResourceBundle;
+
+import org.kse.crypto.CryptoException;
+import org.kse.crypto.keystore.KeyStoreType;
+import org.kse.crypto.keystore.KeyStoreUtil;
+
+/**
+ * KeyStore SPI behind {@link DeltaKeyStore}. Each alias is mapped to the KeyStore that physically holds the entry.
+ * Entries inherited from the parent state are shared with it, entries written through this SPI are held in a small
+ * KeyStore of the same type that belongs to this state only.
+ */
+class DeltaKeyStoreSpi extends KeyStoreSpi {
+    private static ResourceBundle res = ResourceBundle.getBundle("org/kse/utilities/history/resources");
+
+    // Rough heap cost of an alias index entry and of an entry whose encoding is unknown
+    private static final int INDEX_ENTRY_SIZE = 96;
+    private static final int UNKNOWN_ENTRY_SIZE = 1024;
+
+    private final KeyStore root;
+    private final boolean caseInsensitiveAliases;
+    private final Map<String, EntrySource> entries;
+
+    // Whether each alias touched in this state existed in the parent state, in order of first modification
+    private final Map<String, Boolean> existedInParent = new LinkedHashMap<>();
+    private final Map<String, String> removedAliases = new HashMap<>();
+
+    private KeyStore deltaKeyStore;
+    private long deltaSize;
+
+    /**
+     * Create an SPI whose entries are all read from the supplied KeyStore.
+     *
+     * @param root KeyStore holding the entries
+     * @throws KeyStoreException If the KeyStore's aliases could not be read
+     */
+    DeltaKeyStoreSpi(KeyStore root) throws KeyStoreException {
+        this.root = root;
+        this.caseInsensitiveAliases = KeyStoreType.resolveJce(root.getType()).hasCaseInsensitiveAliases();
+        this.entries = new HashMap<>(root.size() * 2);
+
+        for (Enumeration<String> aliases = root.aliases(); aliases.hasMoreElements(); ) {
+            String alias = aliases.nextElement();
+            entries.put(normalize(alias), new EntrySource(root, alias, null));
+        }
+    }
+
+    /**
+     * Create an SPI that shares all entries of a parent SPI. The parent is sealed so that
+     * subsequent writes to it cannot leak into this one. Entry passwords are copied so that
+     * nulling the parent's passwords leaves this SPI's entries readable.
+     *
+     * @param parent Parent SPI
+     */
+    DeltaKeyStoreSpi(DeltaKeyStoreSpi parent) {
+        this.root = parent.root;
+        this.caseInsensitiveAliases = parent.caseInsensitiveAliases;
+        this.entries = new HashMap<>(parent.entries);
+
+        for (Map.Entry<String, EntrySource> entry : entries.entrySet()) {
+            EntrySource source = entry.getValue();
+
+            if (source.password != null) {
+                entry.setValue(new EntrySource(source.keyStore, source.alias, source.password.clone()));
+            }
+        }
+
+        parent.seal();
+    }
+
+    /**
+     * Stop writing to the current delta KeyStore as its entries are now shared with a child state.
+     */
+    void seal() {
+        deltaKeyStore = null;
+    }
+
+    /**
+     * Get the entry changes made since this SPI was derived from its parent.
+     *
+     * @return Entry changes in order of first modification
+     */
+    List<EntryChange> getEntryChanges() {
+        List<EntryChange> changes = new ArrayList<>();
+
+        for (Map.Entry<String, Boolean> touched : existedInParent.entrySet()) {
+            boolean existed = touched.getValue();
+            EntrySource source = entries.get(touched.getKey());
+
+            if (source != null) {
+                changes.add(new EntryChange(existed ? EntryChange.Type.REPLACED : EntryChange.Type.ADDED,
+                                            source.alias));
+            } else if (existed) {
+                changes.add(new EntryChange(EntryChange.Type.REMOVED, removedAliases.get(touched.getKey())));
+            }
+        }
+
+        return changes;
+    }
+
+    /**
+     * Get the KeyStore whose entries are shared by this SPI and all SPIs derived from the same one.
+     *
+     * @return Root KeyStore
+     */
+    KeyStore getRoot() {
+        return root;
+    }
+
+    /**
+     * Get an estimate of the memory held by this SPI that is not shared with other SPIs, i.e. its
+     * alias index, the record of touched aliases, its copies of the entry passwords and the entries
+     * written through it. The root KeyStore is not included.
+     *
+     * @return Estimated size in bytes
+     */
+    long estimateSize() {
+        long size = (long) (entries.size() + existedInParent.size() + removedAliases.size()) * INDEX_ENTRY_SIZE;
+
+        for (EntrySource source : entries.values()) {
+            if (source.password != null) {
+                size += (long) source.password.length * Character.BYTES;
+            }
+        }
+
+        return size + deltaSize;
+    }
+
+    /**
+     * Get an estimate of the memory held by all entries of a KeyStore.
+     *
+     * @param keyStore KeyStore
+     * @return Estimated size in bytes
+     */
+    static long estimateSize(KeyStore keyStore) {
+        long size = 0;
+
+        try {
+            for (Enumeration<String> aliases = keyStore.aliases(); aliases.hasMoreElements(); ) {
+                String alias = aliases.nextElement();
+                Certificate[] chain = keyStore.getCertificateChain(alias);
+
+                if (chain == null && keyStore.isCertificateEntry(alias)) {
+                    chain = new Certificate[] { keyStore.getCertificate(alias) };
+                }
+
+                size += INDEX_ENTRY_SIZE + estimateEntrySize(null, chain);
+            }
+        } catch (KeyStoreException ex) {
+            // Keep estimate so far
+        }
+
+        return size;
+    }
+
+    private static long estimateEntrySize(Key key, Certificate[] chain) {
+        long size = 0;
+
+        // Keys are not encoded to avoid creating further copies of their material
+        if (key != null) {
+            size += UNKNOWN_ENTRY_SIZE;
+        }
+
+        if (chain != null) {
+            for (Certificate cert : chain) {
+                try {
+                    size += cert.getEncoded().length;
+                } catch (CertificateEncodingException ex) {
+                    size += UNKNOWN_ENTRY_SIZE;
+                }
+            }
+        }
+
+        return size == 0 ? UNKNOWN_ENTRY_SIZE : size;
+    }
+
+    /**
+     * Null this SPI's copies of the entry passwords. Other SPIs hold their own copies.
+     */
+    void nullPasswords() {
+        for (EntrySource source : entries.values()) {
+            if (source.password != null) {
+                Arrays.fill(source.password, (char) 0);
+            }
+        }
+    }
+
+    /**
+     * Rebuild a complete KeyStore holding the current entries. The original KeyStore is returned as-is
+     * if none of its entries have been changed.
+     *
+     * @return KeyStore
+     * @throws CryptoException   If the original KeyStore could not be copied
+     * @throws KeyStoreException If an entry could not be copied
+     */
+    KeyStore materialize() throws CryptoException, KeyStoreException {
+        if (isUnchanged()) {
+            return root;
+        }
+
+        KeyStore keyStore = KeyStoreUtil.copy(root);
+
+        for (String alias : Collections.list(keyStore.aliases())) {
+            EntrySource source = entries.get(normalize(alias));
+
+            if (source == null || source.keyStore != root) {
+                keyStore.deleteEntry(alias);
+            }
+        }
+
+        try {
+            for (EntrySource source : entries.values()) {
+                if (source.keyStore == root) {
+                    continue;
+                }
+
+                if (source.keyStore.isCertificateEntry(source.alias)) {
+                    keyStore.setCertificateEntry(source.alias, source.keyStore.getCertificate(source.alias));
+                } else if (source.password == null) {
+                    throw new KeyStoreException(
+                            MessageFormat.format(res.getString("NoRebuildEntry.exception.message"), source.alias));
+                } else {
+                    Key key = source.keyStore.getKey(source.alias, source.password);
+                    keyStore.setKeyEntry(source.alias, key, source.password,
+                                         source.keyStore.getCertificateChain(source.alias));
+                }
+            }
+        } catch (NoSuchAlgorithmException | UnrecoverableKeyException ex) {
+            throw new KeyStoreException(ex);
+        }
+
+        return keyStore;
+    }
+
+    private boolean isUnchanged() throws KeyStoreException {
+        if (entries.size() != root.size()) {
+            return false;
+        }
+
+        for (EntrySource source : entries.values()) {
+            if (source.keyStore != root) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    private String normalize(String alias) {
+        return caseInsensitiveAliases ? alias.toLowerCase(Locale.ENGLISH) : alias;
+    }
+
+    private KeyStore getWritableDeltaKeyStore() throws KeyStoreException {
+        if (deltaKeyStore == null) {
+            deltaKeyStore = KeyStore.getInstance(root.getType(), root.getProvider());
+
+            try {
+                deltaKeyStore.load(null, null);
+            } catch (IOException | NoSuchAlgorithmException | CertificateException ex) {
+                throw new KeyStoreException(ex);
+            }
+        }
+
+        return deltaKeyStore;
+    }
+
+    private void recordModification(String key) {
+        existedInParent.putIfAbsent(key, entries.containsKey(key));
+    }
+
+    private String getStoredAlias(KeyStore keyStore, String alias) throws KeyStoreException {
+        if (!caseInsensitiveAliases) {
+            return alias;
+        }
+
+        // Providers differ in whether they preserve the case of case-insensitive aliases
+        for (Enumeration<String> aliases = keyStore.aliases(); aliases.hasMoreElements(); ) {
+            String storedAlias = aliases.nextElement();
+
+            if (storedAlias.equalsIgnoreCase(alias)) {
+                return storedAlias;
+            }
+        }
+
+        return alias;
+    }
+
+    private void removeSource(String key) throws KeyStoreException {
+        EntrySource source = entries.remove(key);
+
+        if (source != null) {
+            removedAliases.put(key, source.alias);
+
+            // Only the unsealed delta KeyStore is private to this state
+            if (source.keyStore == deltaKeyStore) {
+                deltaKeyStore.deleteEntry(source.alias);
+            }
+        }
+    }
+
+    private EntrySource getSource(String alias) {
+        return entries.get(normalize(alias));
+    }
+
+    @Override
+    public Key engineGetKey(String alias, char[] password) throws NoSuchAlgorithmException, UnrecoverableKeyException {
+        EntrySource source = getSource(alias);
+
+        if (source == null) {
+            return null;
+        }
+
+        try {
+            return source.keyStore.getKey(source.alias, password);
+        } catch (KeyStoreException ex) {
+            return null; // Source KeyStores are always initialized
+        }
+    }
+
+    @Override
+    public Certificate[] engineGetCertificateChain(String alias) {
+        EntrySource source = getSource(alias);
+
+        if (source == null) {
+            return null;
+        }
+
+        try {
+            return source.keyStore.getCertificateChain(source.alias);
+        } catch (KeyStoreException ex) {
+            return null;
+        }
+    }
+
+    @Override
+    public Certificate engineGetCertificate(String alias) {
+        EntrySource source = getSource(alias);
+
+        if (source == null) {
+            return null;
+        }
+
+        try {
+            return source.keyStore.getCertificate(source.alias);
+        } catch (KeyStoreException ex) {
+            return null;
+        }
+    }
+
+    @Override
+    public Date engineGetCreationDate(String alias) {
+        EntrySource source = getSource(alias);
+
+        if (source == null) {
+            return null;
+        }
+
+        try {
+            return source.keyStore.getCreationDate(source.alias);
+        } catch (KeyStoreException ex) {
+            return null;
+        }
+    }
+
+    @Override
+    public KeyStore.Entry engineGetEntry(String alias, KeyStore.ProtectionParameter protParam)
+            throws KeyStoreException, NoSuchAlgorithmException, UnrecoverableEntryException {
+        EntrySource source = getSource(alias);
+
+        if (source == null) {
+            return null;
+        }
+
+        return source.keyStore.getEntry(source.alias, protParam);
+    }
+
+    @Override
+    public void engineSetKeyEntry(String alias, Key key, char[] password, Certificate[] chain)
+            throws KeyStoreException {
+        String normalizedAlias = normalize(alias);
+        recordModification(normalizedAlias);
+        removeSource(normalizedAlias);
+
+        KeyStore keyStore = getWritableDeltaKeyStore();
+        keyStore.setKeyEntry(alias, key, password, chain);
+        deltaSize += estimateEntrySize(key, chain);
+
+        char[] passwordCopy = password == null ? null : password.clone();
+        entries.put(normalizedAlias, new EntrySource(keyStore, getStoredAlias(keyStore, alias), passwordCopy));
+    }
+
+    @Override
+    public void engineSetKeyEntry(String alias, byte[] key, Certificate[] chain) throws KeyStoreException {
+        String normalizedAlias = normalize(alias);
+        recordModification(normalizedAlias);
+        removeSource(normalizedAlias);
+
+        KeyStore keyStore = getWritableDeltaKeyStore();
+        keyStore.setKeyEntry(alias, key, chain);
+        deltaSize += key.length + estimateEntrySize(null, chain);
+
+        entries.put(normalizedAlias, new EntrySource(keyStore, getStoredAlias(keyStore, alias), null));
+    }
+
+    @Override
+    public void engineSetCertificateEntry(String alias, Certificate cert) throws KeyStoreException {
+        String normalizedAlias = normalize(alias);
+        recordModification(normalizedAlias);
+        removeSource(normalizedAlias);
+
+        KeyStore keyStore = getWritableDeltaKeyStore();
+        keyStore.setCertificateEntry(alias, cert);
+        deltaSize += estimateEntrySize(null, new Certificate[] { cert });
+
+        entries.put(normalizedAlias, new EntrySource(keyStore, getStoredAlias(keyStore, alias), null));
+    }
+
+    @Override
+    public void engineDeleteEntry(String alias) throws KeyStoreException {
+        String normalizedAlias = normalize(alias);
+
+        if (entries.containsKey(normalizedAlias)) {
+            recordModification(normalizedAlias);
+            removeSource(normalizedAlias);
+        }
+    }
+
+    @Override
+    public Enumeration<String> engineAliases() {
+        List<String> aliases = new ArrayList<>(entries.size());
+
+        for (EntrySource source : entries.values()) {
+            aliases.add(source.alias);
+        }
+
+        return Collections.enumeration(aliases);
+    }
+
+    @Override
+    public boolean engineContainsAlias(String alias) {
+        return entries.containsKey(normalize(alias));
+    }
+
+    @Override
+    public int engineSize() {
+        return entries.size();
+    }
+
+    @Override
+    public boolean engineIsKeyEntry(String alias) {
+        EntrySource source = getSource(alias);
+
+        try {
+            return source != null && source.keyStore.isKeyEntry(source.alias);
+        } catch (KeyStoreException ex) {
+            return false;
+        }
+    }
+
+    @Override
+    public boolean engineIsCertificateEntry(String alias) {
+        EntrySource source = getSource(alias);
+
+        try {
+            return source != null && source.keyStore.isCertificateEntry(source.alias);
+        } catch (KeyStoreException ex) {
+            return false;
+        }
+    }
+
+    @Override
+    public String engineGetCertificateAlias(Certificate cert) {
+        try {
+            for (EntrySource source : entries.values()) {
+                if (cert.equals(source.keyStore.getCertificate(source.alias))) {
+                    return source.alias;
+                }
+            }
+        } catch (KeyStoreException ex) {
+            // Fall through
+        }
+
+        return null;
+    }
+
+    @Override
+    public void engineStore(OutputStream stream, char[] password)
+            throws IOException, NoSuchAlgorithmException, CertificateException {
+        try {
+            materialize().store(stream, password);
+        } catch (CryptoException | KeyStoreException ex) {
+            throw new IOException(ex);
+        }
+    }
+
+    @Override
+    public void engineLoad(InputStream stream, char[] password) throws IOException {
+        if (stream != null) {
+            throw new IOException(res.getString("NoLoadDeltaKeyStore.exception.message"));
+        }
+    }
+
+    /**
+     * Location of a single entry: the KeyStore holding it, its alias there and, for entries written through
+     * this SPI, the password it was protected with.
+     */
+    private static class EntrySource {
+        private final KeyStore keyStore;
+        private final String alias;
+        private final char[] password;
+
+        private EntrySource(KeyStore keyStore, String alias, char[] password) {
+            this.keyStore = keyStore;
+            this.alias = alias;
+            this.password = password;
+        }
+    }
+}
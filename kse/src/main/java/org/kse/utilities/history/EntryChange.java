@@ -0,0 +1,73 @@
+/*
+ * Copyright 2004 - 2013 Wayne Grant
+ *           2013 - 2025 Kai Kramer
+ *
+ * This file is part of KeyStore Explorer.
+ *
+ * KeyStore Explorer is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * KeyStore Explorer is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with KeyStore Explorer.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.kse.utilities.history;
+
+/**
+ * A change made to a single KeyStore entry between a state and its predecessor in the undo/redo history.
+ */
+public class EntryChange {
+
+    /**
+     * Kind of change made to the entry. A rename is recorded as a removal of the old alias and an addition of the
+     * new one, a password change as a replacement.
+     */
+    public enum Type {
+        ADDED,
+        REMOVED,
+        REPLACED
+    }
+
+    private final Type type;
+    private final String alias;
+
+    /**
+     * Construct an entry change.
+     *
+     * @param type  Kind of change
+     * @param alias Alias of the changed entry
+     */
+    public EntryChange(Type type, String alias) {
+        this.type = type;
+        this.alias = alias;
+    }
+
+    /**
+     * Get the kind of change.
+     *
+     * @return Kind of change
+     */
+    public Type getType() {
+        return type;
+    }
+
+    /**
+     * Get the alias of the changed entry.
+     *
+     * @return Alias
+     */
+    public String getAlias() {
+        return alias;
+    }
+
+    @Override
+    public String toString() {
+        return type + " " + alias;
+    }
+}
@@ -22,6 +22,8 @@ package org.kse.utilities.history;
 import java.io.File;
 import java.security.KeyStore;
 import java.security.Provider;
+import java.util.IdentityHashMap;
+import java.util.Map;
 
 import org.kse.crypto.keystore.KeyStoreType;
 import org.kse.gui.passwordmanager.Password;
@@ -31,11 +33,18 @@ import org.kse.gui.passwordmanager.Password;
  */
 public class KeyStoreHistory {
     private KeyStoreState initialState;
+    private KeyStoreState oldestState;
     private KeyStoreState currentState;
     private KeyStoreState savedState;
     private File file;
     private String name;
     private Provider explicitProvider;
+    private int maximumDepth;
+    private long maximumSize;
+    private boolean truncated;
+
+    // Estimated sizes of the root KeyStores that discarding undo states can release
+    private Map<KeyStore, Long> rootSizes = new IdentityHashMap<>();
 
     /**
      * Create a new history for an unsaved KeyStore.
@@ -58,6 +67,7 @@ public class KeyStoreHistory {
             initialState = new AlwaysIdenticalKeyStoreState(this, keyStore, password);
         }
 
+        oldestState = initialState;
         currentState = initialState;
     }
 
@@ -72,6 +82,7 @@ public class KeyStoreHistory {
         this.file = file;
         this.name = file.getName();
         initialState = new KeyStoreState(this, keyStore, password);
+        oldestState = initialState;
         currentState = initialState;
         savedState = initialState;
     }
@@ -85,11 +96,35 @@ public class KeyStoreHistory {
         return currentState;
     }
 
+    /**
+     * Set the retention policy of the history. The oldest undo states are
+     * discarded once either limit is exceeded.
+     *
+     * @param maximumDepth Maximum number of undo steps, 0 for no limit
+     * @param maximumSize  Maximum estimated size of all undo states in bytes,
+     *                     0 for no limit
+     */
+    public void setRetentionPolicy(int maximumDepth, long maximumSize) {
+        this.maximumDepth = maximumDepth;
+        this.maximumSize = maximumSize;
+
+        enforceRetentionPolicy();
+    }
+
+    /**
+     * Have undo states been discarded due to the retention policy?
+     *
+     * @return True if they have
+     */
+    public boolean isTruncated() {
+        return truncated;
+    }
+
     /**
      * Null all passwords contained in the history.
      */
     public void nullPasswords() {
-        KeyStoreState state = initialState;
+        KeyStoreState state = oldestState;
 
         do {
             state.nullPasswords();
@@ -145,6 +180,85 @@ public class KeyStoreHistory {
         return initialState;
     }
 
+    KeyStoreState getOldestState() {
+        return oldestState;
+    }
+
+    /**
+     * Discard the oldest states until the undo steps up to the current state
+     * satisfy the retention policy. A root KeyStore shared by several states
+     * is counted once and only released along with the last of them. The
+     * root of the current state is not counted, as discarding undo states
+     * can never release it.
+     */
+    void enforceRetentionPolicy() {
+        if ((maximumDepth <= 0 && maximumSize <= 0) || oldestState == currentState) {
+            return;
+        }
+
+        KeyStore currentRoot = currentState.getRootKeyStore();
+        Map<KeyStore, Long> referencedRootSizes = new IdentityHashMap<>();
+        int depth = 0;
+        long size = 0;
+
+        for (KeyStoreState state = oldestState; ; state = state.nextState()) {
+            size += state.estimateSize() + chargeRootKeyStore(state, currentRoot, referencedRootSizes);
+
+            if (state == currentState) {
+                break;
+            }
+
+            depth++;
+        }
+
+        // Forget the sizes of roots no longer referenced up to the current state
+        rootSizes = referencedRootSizes;
+
+        while (oldestState != currentState &&
+               ((maximumDepth > 0 && depth > maximumDepth) || (maximumSize > 0 && size > maximumSize))) {
+            KeyStoreState discarded = oldestState;
+            KeyStore discardedRoot = discarded.getRootKeyStore();
+            oldestState = discarded.nextState();
+
+            depth--;
+            size -= discarded.estimateSize();
+
+            if (oldestState.getRootKeyStore() != discardedRoot && rootSizes.containsKey(discardedRoot)) {
+                size -= rootSizes.remove(discardedRoot);
+            }
+
+            if (discarded == initialState) {
+                initialState = null;
+            }
+
+            if (discarded == savedState) {
+                savedState = null;
+            }
+
+            discarded.discard();
+            truncated = true;
+        }
+    }
+
+    private long chargeRootKeyStore(KeyStoreState state, KeyStore currentRoot,
+                                    Map<KeyStore, Long> referencedRootSizes) {
+        KeyStore root = state.getRootKeyStore();
+
+        if (root == currentRoot || referencedRootSizes.containsKey(root)) {
+            return 0;
+        }
+
+        Long rootSize = rootSizes.get(root);
+
+        if (rootSize == null) {
+            rootSize = DeltaKeyStoreSpi.estimateSize(root);
+        }
+
+        referencedRootSizes.put(root, rootSize);
+
+        return rootSize;
+    }
+
     void setCurrentState(KeyStoreState state) {
         currentState = state;
     }
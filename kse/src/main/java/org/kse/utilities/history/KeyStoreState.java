@@ -24,6 +24,7 @@ import java.security.Key;
 import java.security.KeyStore;
 import java.security.interfaces.DSAPrivateKey;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.ResourceBundle;
 
@@ -48,6 +49,8 @@ public class KeyStoreState {
     private HashMap<String, Password> entryPasswords = new HashMap<>();
     private KeyStoreState previous;
     private KeyStoreState next;
+    private long estimatedSize = -1;
+
     /**
      * Create an empty state.
      */
@@ -77,6 +80,8 @@ public class KeyStoreState {
         keyStoreState.previous = this;
         this.next = keyStoreState;
         keyStoreState.setAsCurrentState();
+
+        history.enforceRetentionPolicy();
     }
 
     /**
@@ -108,6 +113,16 @@ public class KeyStoreState {
         return this == history.getInitialState();
     }
 
+    /**
+     * Is this the oldest state left in the history after earlier states have
+     * been discarded due to the history's retention policy?
+     *
+     * @return True if it is
+     */
+    public boolean isHistoryLimitReached() {
+        return previous == null && history.isTruncated() && this == history.getOldestState();
+    }
+
     /**
      * Is this state the saved state in the history?
      *
@@ -271,6 +286,22 @@ public class KeyStoreState {
         return entryPasswords.get(alias);
     }
 
+    /**
+     * Get copies of all cached entry passwords, e.g. to read the entries on
+     * another thread while the state's passwords may change.
+     *
+     * @return Copied entry passwords by alias
+     */
+    public HashMap<String, Password> copyEntryPasswords() {
+        HashMap<String, Password> entryPasswordsCopy = new HashMap<>();
+
+        for (Map.Entry<String, Password> entry : entryPasswords.entrySet()) {
+            entryPasswordsCopy.put(entry.getKey(), new Password(entry.getValue()));
+        }
+
+        return entryPasswordsCopy;
+    }
+
     /**
      * Null all passwords contained in the state.
      */
@@ -284,11 +315,88 @@ public class KeyStoreState {
         for (Map.Entry<String, Password> entry : entryPasswords.entrySet()) {
             entry.getValue().nullPassword();
         }
+
+        // Null passwords of entries changed in this state
+        if (keyStore instanceof DeltaKeyStore) {
+            ((DeltaKeyStore) keyStore).nullPasswords();
+        }
+    }
+
+    /**
+     * Discard this state from the history. Its passwords are nulled, entries
+     * shared with subsequent states are left intact.
+     */
+    void discard() {
+        if (password != null) {
+            password.nullPassword();
+        }
+
+        for (Password entryPassword : entryPasswords.values()) {
+            entryPassword.nullPassword();
+        }
+
+        entryPasswords.clear();
+
+        if (next != null) {
+            next.previous = null;
+        }
+
+        next = null;
+        keyStore = null;
+    }
+
+    /**
+     * Get the KeyStore whose entries this state shares with its neighbouring
+     * states. For a state that is not derived from another one this is its
+     * own KeyStore.
+     *
+     * @return Root KeyStore
+     */
+    KeyStore getRootKeyStore() {
+        if (keyStore instanceof DeltaKeyStore) {
+            return ((DeltaKeyStore) keyStore).getRoot();
+        }
+
+        return keyStore;
+    }
+
+    /**
+     * Get an estimate of the memory held by this state that is not shared
+     * with other states. The root KeyStore is shared and therefore not
+     * included.
+     *
+     * @return Estimated size in bytes
+     */
+    long estimateSize() {
+        if (estimatedSize < 0) {
+            if (keyStore instanceof DeltaKeyStore) {
+                // The entries of a derived state do not change once it is part of the history
+                estimatedSize = ((DeltaKeyStore) keyStore).estimateSize();
+            } else {
+                estimatedSize = 0;
+            }
+        }
+
+        return estimatedSize;
+    }
+
+    /**
+     * Get the entry changes that lead from the previous state to this one.
+     *
+     * @return Entry changes or null if they are unknown, e.g. because the whole KeyStore was replaced
+     */
+    public List<EntryChange> getEntryChanges() {
+        if (keyStore instanceof DeltaKeyStore) {
+            return ((DeltaKeyStore) keyStore).getEntryChanges();
+        }
+
+        return null;
     }
 
     /**
      * Create the basis for the next state based on this one. Makes a copy of
-     * the current state excluding its position in the history.
+     * the current state excluding its position in the history. The KeyStore of
+     * the new state shares all unchanged entries with this one.
      *
      * @param action The action responsible for the creation of the next state
      * @return Next state
@@ -297,19 +405,13 @@ public class KeyStoreState {
     public KeyStoreState createBasisForNextState(HistoryAction action) throws CryptoException {
         KeyStoreState copy = new KeyStoreState();
         copy.history = this.history;
-        copy.keyStore = KeyStoreUtil.copy(this.keyStore);
+        copy.keyStore = DeltaKeyStore.derive(this.keyStore);
 
         if (password != null) {
             copy.password = new Password(password); // Copy as may be cleared
         }
 
-        HashMap<String, Password> keyPairPasswordsCopy = new HashMap<>();
-
-        for (String alias : entryPasswords.keySet()) {
-            keyPairPasswordsCopy.put(alias, new Password(entryPasswords.get(alias)));
-        }
-
-        copy.entryPasswords = keyPairPasswordsCopy;
+        copy.entryPasswords = copyEntryPasswords();
 
         copy.action = action;
 
@@ -0,0 +1,141 @@
+/*
+ * Copyright 2004 - 2013 Wayne Grant
+ *           2013 - 2025 Kai Kramer
+ *
+ * This file is part of KeyStore Explorer.
+ *
+ * KeyStore Explorer is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * KeyStore Explorer is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with KeyStore Explorer.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.kse.utilities.net;
+
+import java.time.Clock;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Thread-safe cache that holds at most a fixed number of entries, evicting the least recently used entry first, and
+ * that forgets entries after a time to live. Counts the hits and misses of its lookups.
+ *
+ * @param <K> Key type
+ * @param <V> Value type
+ */
+public class ExpiringLruCache<K, V> {
+    private final long timeToLive;
+    private final Clock clock;
+    private final Map<K, CacheEntry<V>> entries;
+
+    private long hits;
+    private long misses;
+
+    /**
+     * Construct an ExpiringLruCache.
+     *
+     * @param maxEntries Maximum number of entries
+     * @param timeToLive Time to live of an entry in milliseconds
+     * @param clock      Clock for the entry expiry
+     */
+    public ExpiringLruCache(int maxEntries, long timeToLive, Clock clock) {
+        if (maxEntries < 1) {
+            throw new IllegalArgumentException("Cache must hold at least one entry");
+        }
+
+        this.timeToLive = timeToLive;
+        this.clock = clock;
+        this.entries = new LinkedHashMap<K, CacheEntry<V>>(16, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, CacheEntry<V>> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    /**
+     * Get a cached value.
+     *
+     * @param key Key
+     * @return Value or null if there is no entry for the key or it has expired
+     */
+    public synchronized V get(K key) {
+        CacheEntry<V> entry = entries.get(key);
+
+        if (entry != null && clock.millis() >= entry.expires) {
+            entries.remove(key);
+            entry = null;
+        }
+
+        if (entry == null) {
+            misses++;
+            return null;
+        }
+
+        hits++;
+        return entry.value;
+    }
+
+    /**
+     * Add or replace a value.
+     *
+     * @param key   Key
+     * @param value Value
+     */
+    public synchronized void put(K key, V value) {
+        entries.put(key, new CacheEntry<>(value, clock.millis() + timeToLive));
+    }
+
+    /**
+     * Remove all entries. The hit and miss counters are kept.
+     */
+    public synchronized void clear() {
+        entries.clear();
+    }
+
+    /**
+     * Get the number of entries, including expired entries that have not been looked up since.
+     *
+     * @return Number of entries
+     */
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * Get the number of lookups that found a value.
+     *
+     * @return Hits
+     */
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    /**
+     * Get the number of lookups that found no value.
+     *
+     * @return Misses
+     */
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    private static final class CacheEntry<V> {
+        private final V value;
+        private final long expires;
+
+        private CacheEntry(V value, long expires) {
+            this.value = value;
+            this.expires = expires;
+        }
+    }
+}
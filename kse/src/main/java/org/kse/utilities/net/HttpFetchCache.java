@@ -0,0 +1,781 @@
+/*
+ * Copyright 2004 - 2013 Wayne Grant
+ *           2013 - 2025 Kai Kramer
+ *
+ * This file is part of KeyStore Explorer.
+ *
+ * KeyStore Explorer is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * KeyStore Explorer is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with KeyStore Explorer.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.kse.utilities.net;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.net.URLConnection;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.text.MessageFormat;
+import java.time.Clock;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.ResourceBundle;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.kse.gui.preferences.PreferencesManager;
+
+/**
+ * Cache for HTTP downloads such as CRLs, CA certificates and OCSP responses, held in memory and, for GET requests, on
+ * disk. A cached response is used without contacting the server until it expires, which is the earlier of the
+ * expiry derived from the response headers (Cache-Control max-age or Expires) and the expiry of the content itself,
+ * e.g. the next update of a CRL. Expired responses with an ETag or Last-Modified header are revalidated with a
+ * conditional GET, so an unchanged CRL is not downloaded again.
+ * <p>
+ * Concurrent lookups of the same URL wait for a single download. Downloads can run on a background executor and be
+ * cancelled, which closes the connection.
+ */
+public class HttpFetchCache {
+    private static ResourceBundle res = ResourceBundle.getBundle("org/kse/utilities/net/resources");
+
+    private static final int MEMORY_ENTRIES = 32;
+    private static final long MEMORY_TTL = TimeUnit.HOURS.toMillis(1);
+    private static final long MIN_FRESHNESS = TimeUnit.MINUTES.toMillis(1);
+    private static final long MAX_DISK_SIZE = 64L * 1024 * 1024;
+    private static final int CONNECT_TIMEOUT = (int) TimeUnit.SECONDS.toMillis(15);
+    private static final int READ_TIMEOUT = (int) TimeUnit.SECONDS.toMillis(30);
+    private static final int MAX_REDIRECTS = 5;
+    private static final int FETCH_THREADS = 4;
+
+    private static final String CACHE_FILE_SUFFIX = ".cache";
+    private static final int CACHE_FILE_VERSION = 1;
+
+    private static final ExecutorService EXECUTOR = Executors.newFixedThreadPool(FETCH_THREADS, runnable -> {
+        Thread thread = new Thread(runnable, "HTTP fetch");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private static HttpFetchCache instance;
+
+    private final File cacheDir;
+    private final Clock clock;
+    private final ExpiringLruCache<String, Entry> memoryCache;
+    // Locks of the URLs that are being fetched, removed when no thread holds or waits for them
+    private final ConcurrentHashMap<String, UrlLock> locks = new ConcurrentHashMap<>();
+    private final AtomicLong downloads = new AtomicLong();
+    private final AtomicLong revalidations = new AtomicLong();
+
+    /**
+     * Computes when downloaded content expires, e.g. from the next update of a CRL. Also validates the content:
+     * content for which an exception is thrown is returned but not cached.
+     */
+    @FunctionalInterface
+    public interface ContentExpiry {
+        /**
+         * Get the expiry of the supplied content.
+         *
+         * @param content Downloaded content
+         * @return Expiry or null if the content does not expire by itself
+         * @throws Exception If the content is invalid
+         */
+        Instant getExpiry(byte[] content) throws Exception;
+    }
+
+    /**
+     * Construct an HttpFetchCache.
+     *
+     * @param cacheDir Directory to keep downloads of GET requests in or null to only cache in memory
+     * @param clock    Clock for the expiry of cached responses
+     */
+    public HttpFetchCache(File cacheDir, Clock clock) {
+        this.cacheDir = cacheDir;
+        this.clock = clock;
+        this.memoryCache = new ExpiringLruCache<>(MEMORY_ENTRIES, MEMORY_TTL, clock);
+    }
+
+    /**
+     * Get the cache shared by the application, which keeps downloads in a directory next to the configuration file.
+     *
+     * @return Shared cache
+     */
+    public static synchronized HttpFetchCache getInstance() {
+        if (instance == null) {
+            File cacheDir;
+            try {
+                cacheDir = PreferencesManager.getCacheDirectory();
+            } catch (IOException ex) {
+                cacheDir = null;
+            }
+
+            instance = new HttpFetchCache(cacheDir, Clock.systemUTC());
+        }
+
+        return instance;
+    }
+
+    /**
+     * Get the content of a URL with a GET request, from the cache if possible. Runs on the calling thread.
+     *
+     * @param url    URL
+     * @param expiry Expiry of the content or null if only the response headers determine it
+     * @return Content
+     * @throws IOException If the content could not be downloaded
+     */
+    public byte[] get(URL url, ContentExpiry expiry) throws IOException {
+        return get(url, expiry, null);
+    }
+
+    /**
+     * Send a POST request, e.g. an OCSP request, and get the content of the response. The response is cached in
+     * memory for the same URL and request body until the content expires. Requests that differ each time, e.g. OCSP
+     * requests with a nonce, are therefore never answered from the cache. Runs on the calling thread.
+     *
+     * @param url         URL
+     * @param contentType Content type of the request body
+     * @param accept      Accepted content type of the response
+     * @param body        Request body
+     * @param expiry      Expiry of the response content or null if the response must not be cached
+     * @return Content of the response
+     * @throws IOException If the request failed
+     */
+    public byte[] post(URL url, String contentType, String accept, byte[] body, ContentExpiry expiry)
+            throws IOException {
+        return post(url, contentType, accept, body, expiry, null);
+    }
+
+    /**
+     * Get the content of a URL with a GET request on a background thread.
+     *
+     * @param url    URL
+     * @param expiry Expiry of the content or null if only the response headers determine it
+     * @return The running fetch
+     * @see #get(URL, ContentExpiry)
+     */
+    public Fetch getInBackground(URL url, ContentExpiry expiry) {
+        Fetch fetch = new Fetch(url);
+        fetch.start(() -> get(url, expiry, fetch));
+        return fetch;
+    }
+
+    /**
+     * Send a POST request on a background thread.
+     *
+     * @param url         URL
+     * @param contentType Content type of the request body
+     * @param accept      Accepted content type of the response
+     * @param body        Request body
+     * @param expiry      Expiry of the response content or null if the response must not be cached
+     * @return The running fetch
+     * @see #post(URL, String, String, byte[], ContentExpiry)
+     */
+    public Fetch postInBackground(URL url, String contentType, String accept, byte[] body, ContentExpiry expiry) {
+        Fetch fetch = new Fetch(url);
+        fetch.start(() -> post(url, contentType, accept, body, expiry, fetch));
+        return fetch;
+    }
+
+    /**
+     * Get the number of responses whose content was downloaded.
+     *
+     * @return Downloads
+     */
+    public long getDownloads() {
+        return downloads.get();
+    }
+
+    /**
+     * Get the number of expired responses the server confirmed to be unchanged.
+     *
+     * @return Revalidations
+     */
+    public long getRevalidations() {
+        return revalidations.get();
+    }
+
+    /**
+     * Remove all cached responses from memory. Responses cached on disk are kept.
+     */
+    public void clearMemory() {
+        memoryCache.clear();
+    }
+
+    private byte[] get(URL url, ContentExpiry expiry, Fetch fetch) throws IOException {
+        String key = url.toExternalForm();
+        UrlLock urlLock = locks.compute(key, (k, l) -> {
+            UrlLock acquired = l == null ? new UrlLock() : l;
+            acquired.users++;
+            return acquired;
+        });
+
+        try {
+            urlLock.lock.lockInterruptibly();
+        } catch (InterruptedException ex) {
+            releaseLock(key);
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException();
+        }
+
+        try {
+            Entry cached = memoryCache.get(key);
+
+            if (cached == null) {
+                cached = readFromDisk(key);
+
+                if (cached != null) {
+                    memoryCache.put(key, cached);
+                }
+            }
+
+            long now = clock.millis();
+
+            if (cached != null && now < cached.freshUntil) {
+                return cached.content;
+            }
+
+            Response response = request(url, "GET", null, null, null, cached, fetch);
+
+            if (response.notModified) {
+                revalidations.incrementAndGet();
+
+                long freshUntil;
+                try {
+                    freshUntil = getFreshUntil(response, cached.content, expiry, now);
+                } catch (Exception ex) {
+                    freshUntil = now;
+                }
+
+                // The server confirmed the content, do not ask again right away even if it is past its expiry
+                if (freshUntil <= now) {
+                    freshUntil = now + MIN_FRESHNESS;
+                }
+
+                Entry entry = new Entry(key, cached.content, response.etag(cached), response.lastModified(cached),
+                                        freshUntil);
+                store(entry, true);
+
+                return cached.content;
+            }
+
+            if (!response.noStore) {
+                try {
+                    long freshUntil = getFreshUntil(response, response.content, expiry, now);
+                    store(new Entry(key, response.content, response.etag, response.lastModified, freshUntil), true);
+                } catch (Exception ex) {
+                    // Invalid content is not cached
+                }
+            }
+
+            return response.content;
+        } finally {
+            urlLock.lock.unlock();
+            releaseLock(key);
+        }
+    }
+
+    private void releaseLock(String key) {
+        locks.computeIfPresent(key, (k, l) -> --l.users == 0 ? null : l);
+    }
+
+    private byte[] post(URL url, String contentType, String accept, byte[] body, ContentExpiry expiry, Fetch fetch)
+            throws IOException {
+        String key = "POST " + url.toExternalForm() + " " + digest(body);
+
+        Entry cached = expiry == null ? null : memoryCache.get(key);
+        long now = clock.millis();
+
+        if (cached != null && now < cached.freshUntil) {
+            return cached.content;
+        }
+
+        Response response = request(url, "POST", contentType, accept, body, null, fetch);
+
+        if (expiry != null && !response.noStore) {
+            try {
+                Instant contentExpiry = expiry.getExpiry(response.content);
+
+                if (contentExpiry != null && contentExpiry.toEpochMilli() > now) {
+                    store(new Entry(key, response.content, null, null, contentExpiry.toEpochMilli()), false);
+                }
+            } catch (Exception ex) {
+                // Invalid content is not cached
+            }
+        }
+
+        return response.content;
+    }
+
+    private long getFreshUntil(Response response, byte[] content, ContentExpiry expiry, long now) throws Exception {
+        if (response.noCache) {
+            return now;
+        }
+
+        long freshUntil = Long.MAX_VALUE;
+
+        if (response.maxAge >= 0) {
+            freshUntil = now + TimeUnit.SECONDS.toMillis(response.maxAge);
+        } else if (response.expires > 0) {
+            freshUntil = response.expires;
+        }
+
+        if (expiry != null) {
+            Instant contentExpiry = expiry.getExpiry(content);
+
+            if (contentExpiry != null) {
+                freshUntil = Math.min(freshUntil, contentExpiry.toEpochMilli());
+            }
+        }
+
+        // Nothing is known about the freshness, avoid downloading again when the same URL is requested right away
+        if (freshUntil == Long.MAX_VALUE) {
+            freshUntil = now + MIN_FRESHNESS;
+        }
+
+        return freshUntil;
+    }
+
+    private Response request(URL url, String method, String contentType, String accept, byte[] body, Entry cached,
+                             Fetch fetch) throws IOException {
+        URL current = url;
+
+        for (int redirects = 0; ; redirects++) {
+            checkCancelled(fetch);
+
+            URLConnection urlConnection = current.openConnection();
+
+            if (!(urlConnection instanceof HttpURLConnection)) {
+                throw new IOException(MessageFormat.format(res.getString("HttpFetchCache.NotHttp.exception.message"),
+                                                           current));
+            }
+
+            HttpURLConnection connection = (HttpURLConnection) urlConnection;
+
+            if (fetch != null) {
+                fetch.connection = connection;
+            }
+
+            try {
+                connection.setConnectTimeout(CONNECT_TIMEOUT);
+                connection.setReadTimeout(READ_TIMEOUT);
+                connection.setInstanceFollowRedirects(false);
+                connection.setUseCaches(false);
+                connection.setRequestMethod(method);
+
+                if (accept != null) {
+                    connection.setRequestProperty("Accept", accept);
+                }
+
+                if (cached != null) {
+                    if (cached.etag != null) {
+                        connection.setRequestProperty("If-None-Match", cached.etag);
+                    }
+                    if (cached.lastModified != null) {
+                        connection.setRequestProperty("If-Modified-Since", cached.lastModified);
+                    }
+                }
+
+                if (body != null) {
+                    connection.setDoOutput(true);
+                    connection.setRequestProperty("Content-Type", contentType);
+
+                    try (OutputStream os = connection.getOutputStream()) {
+                        os.write(body);
+                    }
+                }
+
+                int status = connection.getResponseCode();
+
+                if (isRedirect(status)) {
+                    String location = connection.getHeaderField("Location");
+
+                    if (location == null || redirects >= MAX_REDIRECTS) {
+                        throw new IOException(MessageFormat.format(
+                                res.getString("HttpFetchCache.TooManyRedirects.exception.message"), url));
+                    }
+
+                    current = new URL(current, location);
+
+                    // see other asks for a GET, the other redirects repeat a POST as is, as an OCSP request would
+                    // need a different encoding to be sent as GET
+                    if (status == HttpURLConnection.HTTP_SEE_OTHER) {
+                        method = "GET";
+                        body = null;
+                    }
+                    continue;
+                }
+
+                Response response = new Response(connection);
+
+                if (status == HttpURLConnection.HTTP_NOT_MODIFIED && cached != null) {
+                    response.notModified = true;
+                    return response;
+                }
+
+                if (status != HttpURLConnection.HTTP_OK) {
+                    throw new IOException(MessageFormat.format(
+                            res.getString("HttpFetchCache.BadStatus.exception.message"), current, status,
+                            connection.getResponseMessage()));
+                }
+
+                try (InputStream is = connection.getInputStream()) {
+                    response.content = readFully(is, fetch);
+                }
+
+                downloads.incrementAndGet();
+
+                return response;
+            } catch (IOException ex) {
+                checkCancelled(fetch);
+                throw ex;
+            } finally {
+                connection.disconnect();
+
+                if (fetch != null) {
+                    fetch.connection = null;
+                }
+            }
+        }
+    }
+
+    private static boolean isRedirect(int status) {
+        return status == HttpURLConnection.HTTP_MOVED_PERM || status == HttpURLConnection.HTTP_MOVED_TEMP ||
+               status == HttpURLConnection.HTTP_SEE_OTHER || status == 307 || status == 308;
+    }
+
+    private static byte[] readFully(InputStream is, Fetch fetch) throws IOException {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        byte[] buffer = new byte[8192];
+        int read;
+
+        while ((read = is.read(buffer)) != -1) {
+            checkCancelled(fetch);
+            baos.write(buffer, 0, read);
+        }
+
+        return baos.toByteArray();
+    }
+
+    private static void checkCancelled(Fetch fetch) throws InterruptedIOException {
+        if (fetch != null && fetch.cancelled) {
+            throw new InterruptedIOException(res.getString("HttpFetchCache.Cancelled.exception.message"));
+        }
+    }
+
+    private void store(Entry entry, boolean onDisk) {
+        memoryCache.put(entry.key, entry);
+
+        if (onDisk && cacheDir != null) {
+            try {
+                writeToDisk(entry);
+            } catch (IOException ex) {
+                // The disk cache is optional, the response is still cached in memory
+            }
+        }
+    }
+
+    private Entry readFromDisk(String key) {
+        if (cacheDir == null) {
+            return null;
+        }
+
+        Path file = getCacheFile(key);
+
+        if (!Files.isRegularFile(file)) {
+            return null;
+        }
+
+        try (DataInputStream dis = new DataInputStream(Files.newInputStream(file))) {
+            if (dis.readInt() != CACHE_FILE_VERSION || !key.equals(dis.readUTF())) {
+                return null;
+            }
+
+            String etag = emptyToNull(dis.readUTF());
+            String lastModified = emptyToNull(dis.readUTF());
+            long freshUntil = dis.readLong();
+            byte[] content = new byte[dis.readInt()];
+            dis.readFully(content);
+
+            // Recently used files are kept when the disk cache is pruned
+            Files.setLastModifiedTime(file, FileTime.fromMillis(clock.millis()));
+
+            return new Entry(key, content, etag, lastModified, freshUntil);
+        } catch (IOException | RuntimeException ex) {
+            return null;
+        }
+    }
+
+    private void writeToDisk(Entry entry) throws IOException {
+        Path dir = cacheDir.toPath();
+        Files.createDirectories(dir);
+
+        Path file = getCacheFile(entry.key);
+        Path tempFile = Files.createTempFile(dir, file.getFileName().toString(), ".tmp");
+
+        try {
+            try (DataOutputStream dos = new DataOutputStream(Files.newOutputStream(tempFile))) {
+                dos.writeInt(CACHE_FILE_VERSION);
+                dos.writeUTF(entry.key);
+                dos.writeUTF(entry.etag == null ? "" : entry.etag);
+                dos.writeUTF(entry.lastModified == null ? "" : entry.lastModified);
+                dos.writeLong(entry.freshUntil);
+                dos.writeInt(entry.content.length);
+                dos.write(entry.content);
+            }
+
+            try {
+                Files.move(tempFile, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException ex) {
+                Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(tempFile);
+        }
+
+        pruneDisk(dir);
+    }
+
+    private void pruneDisk(Path dir) throws IOException {
+        List<Path> files = new ArrayList<>();
+        long size = 0;
+
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(dir, "*" + CACHE_FILE_SUFFIX)) {
+            for (Path file : stream) {
+                files.add(file);
+                size += Files.size(file);
+            }
+        }
+
+        if (size <= MAX_DISK_SIZE) {
+            return;
+        }
+
+        // Remove the least recently used files first
+        files.sort(Comparator.comparingLong(HttpFetchCache::lastModified));
+
+        for (Path file : files) {
+            if (size <= MAX_DISK_SIZE) {
+                break;
+            }
+
+            long fileSize = Files.size(file);
+            Files.deleteIfExists(file);
+            size -= fileSize;
+        }
+    }
+
+    private static long lastModified(Path file) {
+        try {
+            return Files.getLastModifiedTime(file).toMillis();
+        } catch (IOException ex) {
+            return 0;
+        }
+    }
+
+    private Path getCacheFile(String key) {
+        return cacheDir.toPath().resolve(digest(key.getBytes(StandardCharsets.UTF_8)) + CACHE_FILE_SUFFIX);
+    }
+
+    private static String digest(byte[] data) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(data);
+
+            StringBuilder sb = new StringBuilder();
+            for (byte b : digest) {
+                sb.append(String.format("%02x", b & 0xff));
+            }
+            return sb.toString();
+        } catch (NoSuchAlgorithmException ex) {
+            // Every Java platform supports SHA-256
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    private static String emptyToNull(String value) {
+        return value.isEmpty() ? null : value;
+    }
+
+    /**
+     * A download running on a background thread.
+     */
+    public static final class Fetch {
+        private final URL url;
+        private final CompletableFuture<byte[]> result = new CompletableFuture<>();
+
+        private volatile boolean cancelled;
+        private volatile HttpURLConnection connection;
+        private volatile Thread worker;
+
+        private Fetch(URL url) {
+            this.url = url;
+        }
+
+        private void start(Download download) {
+            EXECUTOR.execute(() -> {
+                worker = Thread.currentThread();
+
+                try {
+                    if (!cancelled) {
+                        result.complete(download.run());
+                    }
+                } catch (Throwable ex) {
+                    result.completeExceptionally(ex);
+                } finally {
+                    worker = null;
+
+                    // Clear an interrupt from cancel so it does not affect the next task of the executor thread
+                    Thread.interrupted();
+                }
+            });
+        }
+
+        /**
+         * Get the URL.
+         *
+         * @return URL
+         */
+        public URL getUrl() {
+            return url;
+        }
+
+        /**
+         * Get the result of the fetch, completed with the content or the failure of the download.
+         *
+         * @return Result
+         */
+        public CompletableFuture<byte[]> getResult() {
+            return result;
+        }
+
+        /**
+         * Cancel the fetch, closing the connection if it is open.
+         */
+        public void cancel() {
+            cancelled = true;
+            result.cancel(false);
+
+            HttpURLConnection openConnection = connection;
+            if (openConnection != null) {
+                openConnection.disconnect();
+            }
+
+            Thread thread = worker;
+            if (thread != null) {
+                thread.interrupt();
+            }
+        }
+
+        /**
+         * Was the fetch cancelled?
+         *
+         * @return True if cancelled
+         */
+        public boolean isCancelled() {
+            return cancelled;
+        }
+    }
+
+    @FunctionalInterface
+    private interface Download {
+        byte[] run() throws IOException;
+    }
+
+    private static final class Response {
+        private final String etag;
+        private final String lastModified;
+        private final long expires;
+        private long maxAge = -1;
+        private boolean noStore;
+        private boolean noCache;
+        private boolean notModified;
+        private byte[] content;
+
+        private Response(HttpURLConnection connection) {
+            etag = connection.getHeaderField("ETag");
+            lastModified = connection.getHeaderField("Last-Modified");
+            expires = connection.getExpiration();
+
+            String cacheControl = connection.getHeaderField("Cache-Control");
+
+            if (cacheControl != null) {
+                for (String directive : cacheControl.toLowerCase(Locale.ENGLISH).split(",")) {
+                    directive = directive.trim();
+
+                    if (directive.equals("no-store")) {
+                        noStore = true;
+                    } else if (directive.equals("no-cache")) {
+                        noCache = true;
+                    } else if (directive.startsWith("max-age=")) {
+                        try {
+                            maxAge = Long.parseLong(directive.substring("max-age=".length()).trim());
+                        } catch (NumberFormatException ex) {
+                            // Ignore malformed directive
+                        }
+                    }
+                }
+            }
+        }
+
+        private String etag(Entry cached) {
+            return etag != null ? etag : cached.etag;
+        }
+
+        private String lastModified(Entry cached) {
+            return lastModified != null ? lastModified : cached.lastModified;
+        }
+    }
+
+    private static final class UrlLock {
+        private final ReentrantLock lock = new ReentrantLock();
+
+        // Threads holding or waiting for the lock, only changed while the map computes the entry
+        private int users;
+    }
+
+    private static final class Entry {
+        private final String key;
+        private final byte[] content;
+        private final String etag;
+        private final String lastModified;
+        private final long freshUntil;
+
+        private Entry(String key, byte[] content, String etag, String lastModified, long freshUntil) {
+            this.key = key;
+            this.content = content;
+            this.etag = etag;
+            this.lastModified = lastModified;
+            this.freshUntil = freshUntil;
+        }
+    }
+}
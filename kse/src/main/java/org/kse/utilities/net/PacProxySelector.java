@@ -33,12 +33,17 @@ import java.net.URI;
 import java.net.URL;
 import java.net.URLConnection;
 import java.text.MessageFormat;
+import java.time.Clock;
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Collections;
 import java.util.List;
-import java.util.Map;
+import java.util.Locale;
 import java.util.ResourceBundle;
 import java.util.StringTokenizer;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.BiFunction;
 import java.util.function.Consumer;
 import java.util.function.Function;
@@ -56,13 +61,24 @@ import org.openjdk.nashorn.api.scripting.NashornScriptEngineFactory;
 
 /**
  * Proxy Selector for Proxy Automatic Configuration (PAC).
+ * <p>
+ * The PAC script is evaluated once per scheme, host and port; the path of the URI is not passed to the script, so
+ * that a cached result applies to every URI of the host. Results are cached for a few minutes, and the script is
+ * reloaded at the same interval and the cache discarded if the script has changed. Lookups from several threads
+ * are evaluated on a small pool of script engines, as a script engine can only run one script at a time.
  */
 public class PacProxySelector extends ProxySelector {
     private static final ResourceBundle res = ResourceBundle.getBundle("org/kse/utilities/net/resources");
 
-    private Invocable pacScript;
+    private static final int CACHE_SIZE = 256;
+    private static final long CACHE_TTL = TimeUnit.MINUTES.toMillis(5);
+    private static final long SCRIPT_CHECK_INTERVAL = TimeUnit.MINUTES.toMillis(5);
+    private static final int MAX_SCRIPT_ENGINES = Math.min(4, Runtime.getRuntime().availableProcessors());
+
     private final URI pacURI;
-    private final Map<URI, List<Proxy>> uriToProxiesCache = new HashMap<>();
+    private final Clock clock;
+    private final ExpiringLruCache<String, List<Proxy>> cache;
+    private ScriptPool scriptPool;
 
     /**
      * Class filter to restrict access to JRE from PAC script
@@ -81,11 +97,17 @@ public class PacProxySelector extends ProxySelector {
      * @param pacURI Automatic proxy configuration URL
      */
     public PacProxySelector(URI pacURI) {
+        this(pacURI, Clock.systemUTC());
+    }
+
+    PacProxySelector(URI pacURI, Clock clock) {
         if (pacURI == null) {
             throw new IllegalArgumentException("PAC URL is missing");
         }
 
         this.pacURI = pacURI;
+        this.clock = clock;
+        this.cache = new ExpiringLruCache<>(CACHE_SIZE, CACHE_TTL, clock);
 
         // As load and compile of pac scripts is time-consuming we do this on first call to select
     }
@@ -98,23 +120,34 @@ public class PacProxySelector extends ProxySelector {
      */
     @Override
     public List<Proxy> select(URI uri) {
-        if (pacScript == null) {
-            try {
-                pacScript = compilePacScript(loadPacScript(pacURI));
-            } catch (PacProxyException ex) {
-                ex.printStackTrace();
-                return singletonList(Proxy.NO_PROXY);
-            }
+        ScriptPool pool;
+        try {
+            pool = getScriptPool();
+        } catch (PacProxyException ex) {
+            ex.printStackTrace();
+            return singletonList(Proxy.NO_PROXY);
         }
 
-        if (uriToProxiesCache.containsKey(uri)) {
-            return uriToProxiesCache.get(uri);
+        String cacheKey = getCacheKey(uri);
+        String pacUrl = uri.getHost() == null ? cacheKey : cacheKey + "/";
+
+        List<Proxy> cachedProxies = cache.get(cacheKey);
+        if (cachedProxies != null) {
+            return cachedProxies;
         }
 
         String pacFunctionReturn = null;
 
         try {
-            pacFunctionReturn = (String) pacScript.invokeFunction("FindProxyForURL", uri.toString(), uri.getHost());
+            Invocable pacScript = pool.acquire();
+            try {
+                pacFunctionReturn = (String) pacScript.invokeFunction("FindProxyForURL", pacUrl, uri.getHost());
+            } finally {
+                pool.release(pacScript);
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            return singletonList(Proxy.NO_PROXY);
         } catch (Exception ex) {
             ex.printStackTrace();
             return singletonList(Proxy.NO_PROXY);
@@ -130,36 +163,114 @@ public class PacProxySelector extends ProxySelector {
             proxies.add(Proxy.NO_PROXY);
         }
 
-        uriToProxiesCache.put(uri, proxies);
+        proxies = Collections.unmodifiableList(proxies);
+
+        // only results of the current script are cached, the cache was cleared if it has been replaced meanwhile
+        synchronized (this) {
+            if (pool == scriptPool) {
+                cache.put(cacheKey, proxies);
+            }
+        }
 
         return proxies;
     }
 
+    /**
+     * Get the number of lookups answered from the cache.
+     *
+     * @return Cache hits
+     */
+    public long getCacheHits() {
+        return cache.getHits();
+    }
+
+    /**
+     * Get the number of lookups that had to evaluate the PAC script.
+     *
+     * @return Cache misses
+     */
+    public long getCacheMisses() {
+        return cache.getMisses();
+    }
+
+    private static String getCacheKey(URI uri) {
+        if (uri.getHost() == null) {
+            return uri.toString();
+        }
+
+        StringBuilder key = new StringBuilder();
+        key.append(uri.getScheme().toLowerCase(Locale.ENGLISH)).append("://");
+        key.append(uri.getHost().toLowerCase(Locale.ENGLISH));
+        if (uri.getPort() != -1) {
+            key.append(':').append(uri.getPort());
+        }
+        return key.toString();
+    }
+
+    private ScriptPool getScriptPool() throws PacProxyException {
+        ScriptPool pool;
+        boolean check;
+
+        synchronized (this) {
+            if (scriptPool == null) {
+                scriptPool = new ScriptPool(loadPacScript(pacURI));
+                scriptPool.nextCheck = clock.millis() + SCRIPT_CHECK_INTERVAL;
+                return scriptPool;
+            }
+
+            pool = scriptPool;
+            check = clock.millis() >= pool.nextCheck;
+            if (check) {
+                // one thread checks the script, the others keep using the current one
+                pool.nextCheck = clock.millis() + SCRIPT_CHECK_INTERVAL;
+            }
+        }
+
+        if (check) {
+            try {
+                String pacScript = loadPacScript(pacURI);
+
+                if (!pacScript.equals(pool.script)) {
+                    ScriptPool newPool = new ScriptPool(pacScript);
+                    newPool.nextCheck = clock.millis() + SCRIPT_CHECK_INTERVAL;
+
+                    synchronized (this) {
+                        scriptPool = newPool;
+                        cache.clear();
+                    }
+                    return newPool;
+                }
+            } catch (PacProxyException ex) {
+                // keep the script that worked so far
+                ex.printStackTrace();
+            }
+        }
+
+        return pool;
+    }
+
     private String loadPacScript(URI pacURI) throws PacProxyException {
         URLConnection connection = null;
 
-        // Save existing default proxy selector...
-        ProxySelector defaultProxySelector = ProxySelector.getDefault();
-
         try {
-            // ...and set use of no proxy selector. We don't want to try and use any proxy to get the pac script
-            ProxySelector.setDefault(new NoProxySelector());
-
-            URL latestVersionUrl = pacURI.toURL();
-            connection = latestVersionUrl.openConnection();
+            // We don't want to try and use any proxy to get the pac script
+            URL pacUrl = pacURI.toURL();
+            try {
+                connection = pacUrl.openConnection(Proxy.NO_PROXY);
+            } catch (UnsupportedOperationException ex) {
+                // protocol handler without proxy support
+                connection = pacUrl.openConnection();
+            }
 
             try (InputStreamReader isr = new InputStreamReader(connection.getInputStream());
                  StringWriter sw = new StringWriter()) {
                 IOUtils.copy(isr, sw);
                 return sw.toString();
             }
-        } catch (IOException ex) {
+        } catch (IOException | IllegalArgumentException ex) {
             throw new PacProxyException(
                     MessageFormat.format(res.getString("NoLoadPacScript.exception.message"), pacURI), ex);
         } finally {
-            // Restore saved default proxy selector
-            ProxySelector.setDefault(defaultProxySelector);
-
             if ((connection instanceof HttpURLConnection)) {
                 ((HttpURLConnection) connection).disconnect();
             }
@@ -314,4 +425,45 @@ public class PacProxySelector extends ProxySelector {
 
         return this.getPacURI().equals(cmpPacProxySelector.getPacURI());
     }
+
+    /*
+     * Script engines compiled from one version of the PAC script, created on
+     * demand up to the maximum and then shared
+     */
+    private final class ScriptPool {
+        private final String script;
+        private final BlockingQueue<Invocable> idleEngines = new LinkedBlockingQueue<>();
+        private final AtomicInteger engines = new AtomicInteger(1);
+        private long nextCheck;
+
+        private ScriptPool(String script) throws PacProxyException {
+            this.script = script;
+
+            // the first engine is compiled right away so that a broken script is not taken over
+            idleEngines.add(compilePacScript(script));
+        }
+
+        private Invocable acquire() throws PacProxyException, InterruptedException {
+            Invocable engine = idleEngines.poll();
+            if (engine != null) {
+                return engine;
+            }
+
+            if (engines.incrementAndGet() <= MAX_SCRIPT_ENGINES) {
+                try {
+                    return compilePacScript(script);
+                } catch (PacProxyException ex) {
+                    engines.decrementAndGet();
+                    throw ex;
+                }
+            }
+            engines.decrementAndGet();
+
+            return idleEngines.take();
+        }
+
+        private void release(Invocable engine) {
+            idleEngines.add(engine);
+        }
+    }
 }
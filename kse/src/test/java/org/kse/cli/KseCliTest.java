@@ -0,0 +1,169 @@
+/*
+ * Copyright 2004 - 2013 Wayne Grant
+ *           2013 - 2025 Kai Kramer
+ *
+ * This file is part of KeyStore Explorer.
+ *
+ * KeyStore Explorer is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * KeyStore Explorer is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with KeyStore Explorer.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.kse.cli;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.PrintStream;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.security.KeyStore;
+import java.security.cert.X509Certificate;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.io.FileUtils;
+import org.bouncycastle.asn1.x500.X500Name;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.kse.KseCli;
+import org.kse.crypto.KeyPairTestsBase;
+import org.kse.crypto.keystore.KeyStoreType;
+import org.kse.crypto.keystore.KeyStoreUtil;
+import org.kse.crypto.signing.SignatureType;
+import org.kse.crypto.x509.X509CertUtil;
+import org.kse.crypto.x509.X509CertificateGenerator;
+import org.kse.crypto.x509.X509CertificateVersion;
+import org.kse.gui.passwordmanager.Password;
+
+/**
+ * Unit tests for the command-line mode.
+ */
+public class KseCliTest extends KeyPairTestsBase {
+    private static final String STORE_PASSWORD = "changeit";
+
+    @TempDir
+    File tempDir;
+
+    private File certFile;
+    private File keyStoreFile;
+    private X509Certificate cert;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        Date validityStart = new Date();
+        Date validityEnd = new Date(validityStart.getTime() + TimeUnit.DAYS.toMillis(10));
+        cert = new X509CertificateGenerator(X509CertificateVersion.VERSION3).generateSelfSigned(
+                new X500Name("CN=test"), validityStart, validityEnd, rsaKeyPair.getPublic(), rsaKeyPair.getPrivate(),
+                SignatureType.SHA256_RSA, BigInteger.ONE);
+
+        certFile = new File(tempDir, "test.cer");
+        FileUtils.writeStringToFile(certFile, X509CertUtil.getCertEncodedX509Pem(cert), StandardCharsets.US_ASCII);
+        keyStoreFile = new File(tempDir, "test.p12");
+    }
+
+    @Test
+    public void runsOperationsOnNewKeyStore() throws Exception {
+        File exported = new File(tempDir, "exported.pem");
+        File jksFile = new File(tempDir, "test.jks");
+
+        assertThat(run("-keystore", keyStoreFile.getPath(), "-storepass", STORE_PASSWORD, "-new",
+                       "import-cert", "-alias", "one", "-file", certFile.getPath(),
+                       "rename", "-alias", "one", "-to", "two",
+                       "export-cert", "-alias", "two", "-file", exported.getPath())).isEqualTo(KseCli.EXIT_SUCCESS);
+
+        KeyStore keyStore = load(keyStoreFile);
+        assertThat(keyStore.containsAlias("one")).isFalse();
+        assertThat(keyStore.getCertificate("two")).isEqualTo(cert);
+        assertThat(X509CertUtil.loadCertificates(FileUtils.readFileToByteArray(exported))).containsExactly(cert);
+
+        assertThat(run("-keystore", keyStoreFile.getPath(), "-storepass", STORE_PASSWORD, "-out", jksFile.getPath(),
+                       "convert", "-type", "jks")).isEqualTo(KseCli.EXIT_SUCCESS);
+
+        KeyStore jks = KeyStoreUtil.load(jksFile, new Password(STORE_PASSWORD.toCharArray()), KeyStoreType.JKS);
+        assertThat(jks.getCertificate("two")).isEqualTo(cert);
+    }
+
+    @Test
+    public void failedOperationDoesNotSave() throws Exception {
+        run("-keystore", keyStoreFile.getPath(), "-storepass", STORE_PASSWORD, "-new",
+            "import-cert", "-alias", "one", "-file", certFile.getPath());
+        long lastModified = keyStoreFile.lastModified();
+        byte[] contents = FileUtils.readFileToByteArray(keyStoreFile);
+
+        assertThat(run("-keystore", keyStoreFile.getPath(), "-storepass", STORE_PASSWORD,
+                       "delete", "-alias", "one",
+                       "delete", "-alias", "missing")).isEqualTo(KseCli.EXIT_FAILURE);
+
+        assertThat(keyStoreFile.lastModified()).isEqualTo(lastModified);
+        assertThat(FileUtils.readFileToByteArray(keyStoreFile)).isEqualTo(contents);
+    }
+
+    @Test
+    public void usageErrors() {
+        assertThat(run("import-cert", "-alias", "one")).isEqualTo(KseCli.EXIT_USAGE);
+        assertThat(run("-keystore", keyStoreFile.getPath(), "unknown")).isEqualTo(KseCli.EXIT_USAGE);
+        assertThat(run("-keystore", keyStoreFile.getPath(), "delete", "-alias")).isEqualTo(KseCli.EXIT_USAGE);
+        assertThat(run("-help")).isEqualTo(KseCli.EXIT_SUCCESS);
+    }
+
+    @Test
+    public void runsBatchFile() throws Exception {
+        File batchFile = new File(tempDir, "batch.txt");
+        FileUtils.writeLines(batchFile, StandardCharsets.UTF_8.name(), Arrays.asList(
+                "# import and rename",
+                "import-cert -alias 'my cert' -file \"" + certFile.getPath() + "\"",
+                "",
+                "rename -alias 'my cert' -to other"));
+
+        assertThat(run("-keystore", keyStoreFile.getPath(), "-storepass", STORE_PASSWORD, "-new",
+                       "-batch", batchFile.getPath())).isEqualTo(KseCli.EXIT_SUCCESS);
+
+        assertThat(load(keyStoreFile).getCertificate("other")).isEqualTo(cert);
+    }
+
+    @Test
+    public void tokenizesQuotedArguments() throws Exception {
+        assertThat(CliArguments.tokenize("a  'b c' \"d'e\" C:\\f\\g")).containsExactly("a", "b c", "d'e", "C:\\f\\g");
+        assertThat(CliArguments.tokenize("a ''")).containsExactly("a", "");
+    }
+
+    @Test
+    public void expiryReportFailsForExpiringEntries() throws Exception {
+        File report = new File(tempDir, "report.csv");
+
+        run("-keystore", keyStoreFile.getPath(), "-storepass", STORE_PASSWORD, "-new",
+            "import-cert", "-alias", "one", "-file", certFile.getPath());
+
+        assertThat(run("-keystore", keyStoreFile.getPath(), "-storepass", STORE_PASSWORD,
+                       "expiry-report", "-days", "5", "-fail")).isEqualTo(KseCli.EXIT_SUCCESS);
+        assertThat(run("-keystore", keyStoreFile.getPath(), "-storepass", STORE_PASSWORD,
+                       "expiry-report", "-days", "30", "-file", report.getPath(), "-fail"))
+                .isEqualTo(KseCli.EXIT_FAILURE);
+
+        assertThat(FileUtils.readLines(report, StandardCharsets.UTF_8)).hasSize(2)
+                                                                       .element(1).asString()
+                                                                       .startsWith("one,")
+                                                                       .contains("expiring");
+    }
+
+    private static int run(String... args) {
+        PrintStream discard = new PrintStream(new ByteArrayOutputStream());
+        return KseCli.run(args, discard, discard);
+    }
+
+    private static KeyStore load(File file) throws Exception {
+        return KeyStoreUtil.load(file, new Password(STORE_PASSWORD.toCharArray()), KeyStoreType.PKCS12);
+    }
+}
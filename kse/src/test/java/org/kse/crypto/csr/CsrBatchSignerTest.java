@@ -0,0 +1,202 @@
+/*
+ * Copyright 2004 - 2013 Wayne Grant
+ *           2013 - 2025 Kai Kramer
+ *
+ * This file is part of KeyStore Explorer.
+ *
+ * KeyStore Explorer is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * KeyStore Explorer is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with KeyStore Explorer.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.kse.crypto.csr;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.security.cert.X509Certificate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import javax.security.auth.x500.X500Principal;
+
+import org.apache.commons.io.FileUtils;
+import org.bouncycastle.asn1.ASN1Encoding;
+import org.bouncycastle.asn1.x500.X500Name;
+import org.bouncycastle.asn1.x509.Extension;
+import org.bouncycastle.asn1.x509.Extensions;
+import org.bouncycastle.asn1.x509.GeneralName;
+import org.bouncycastle.asn1.x509.GeneralNames;
+import org.bouncycastle.asn1.x509.KeyUsage;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.kse.KSE;
+import org.kse.crypto.KeyPairTestsBase;
+import org.kse.crypto.csr.pkcs10.Pkcs10Util;
+import org.kse.crypto.csr.spkac.Spkac;
+import org.kse.crypto.csr.spkac.SpkacSubject;
+import org.kse.crypto.signing.SignatureType;
+import org.kse.crypto.x509.X509CertUtil;
+import org.kse.crypto.x509.X509CertificateGenerator;
+import org.kse.crypto.x509.X509CertificateVersion;
+import org.kse.crypto.x509.X509Ext;
+import org.kse.crypto.x509.X509ExtensionSet;
+
+/**
+ * Unit tests for CsrBatchSigner.
+ */
+public class CsrBatchSignerTest extends KeyPairTestsBase {
+    @TempDir
+    File tempDir;
+
+    private File csrDirectory;
+    private File outputDirectory;
+    private X509Certificate caCert;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        csrDirectory = new File(tempDir, "csrs");
+        csrDirectory.mkdir();
+        outputDirectory = new File(tempDir, "out");
+
+        Date validityStart = new Date();
+        Date validityEnd = new Date(validityStart.getTime() + 1000L * 60 * 60 * 24);
+        caCert = new X509CertificateGenerator(X509CertificateVersion.VERSION3).generateSelfSigned(
+                new X500Name("CN=CA"), validityStart, validityEnd, rsaKeyPair.getPublic(), rsaKeyPair.getPrivate(),
+                SignatureType.SHA256_RSA, BigInteger.ONE);
+    }
+
+    @Test
+    public void signsPkcs10AndSpkacCsrs() throws Exception {
+        List<File> csrFiles = new ArrayList<>();
+        csrFiles.add(writePkcs10Csr(new File(csrDirectory, "a.csr"), "CN=a"));
+        csrFiles.add(writePkcs10Csr(new File(csrDirectory, "b.p10"), "CN=b"));
+        csrFiles.add(writeSpkacCsr(new File(csrDirectory, "c.spkac"), "c"));
+        File bad = new File(csrDirectory, "bad.csr");
+        FileUtils.writeByteArrayToFile(bad, new byte[] { 1, 2, 3 });
+        csrFiles.add(bad);
+
+        // same name as the first CSR
+        File subDirectory = new File(csrDirectory, "sub");
+        subDirectory.mkdir();
+        csrFiles.add(writePkcs10Csr(new File(subDirectory, "A.csr"), "CN=a2"));
+
+        X509ExtensionSet template = new X509ExtensionSet();
+        template.addExtension(Extension.keyUsage.getId(), true, X509Ext.wrapInOctetString(
+                new KeyUsage(KeyUsage.digitalSignature).getEncoded(ASN1Encoding.DER)));
+
+        CsrBatchSigner signer = new CsrBatchSigner(rsaKeyPair.getPrivate(), new X509Certificate[] { caCert },
+                                                   SignatureType.SHA256_RSA, KSE.BC);
+        signer.setExtensionTemplate(template);
+        signer.setTransferCsrExtensions(true);
+        signer.setParallelism(2);
+
+        List<CsrBatchSigner.Result> results = new ArrayList<>();
+        CsrBatchSigner.Summary summary = signer.sign(csrFiles, outputDirectory,
+                                                     (result, processed, total) -> results.add(result));
+
+        assertThat(summary.getSigned()).isEqualTo(4);
+        assertThat(summary.getFailed()).isEqualTo(1);
+        assertThat(results).hasSize(5);
+
+        X509Certificate certA = loadCertificate("a.cer");
+        certA.verify(caCert.getPublicKey());
+        assertThat(certA.getSubjectX500Principal()).isEqualTo(new X500Principal("CN=a"));
+        assertThat(certA.getIssuerX500Principal()).isEqualTo(caCert.getSubjectX500Principal());
+        assertThat(certA.getCriticalExtensionOIDs()).contains(Extension.keyUsage.getId());
+        assertThat(certA.getExtensionValue(Extension.subjectAlternativeName.getId())).isNotNull();
+
+        assertThat(loadCertificate("A-2.cer").getSubjectX500Principal()).isEqualTo(new X500Principal("CN=a2"));
+        assertThat(loadCertificate("b.cer").getSubjectX500Principal()).isEqualTo(new X500Principal("CN=b"));
+
+        X509Certificate certC = loadCertificate("c.cer");
+        certC.verify(caCert.getPublicKey());
+        assertThat(certC.getPublicKey()).isEqualTo(dsaKeyPair.getPublic());
+        assertThat(certC.getExtensionValue(Extension.subjectAlternativeName.getId())).isNull();
+
+        List<String> report = Files.readAllLines(summary.getReportFile().toPath(), StandardCharsets.UTF_8);
+        assertThat(report).hasSize(6);
+        assertThat(report.stream().filter(line -> line.startsWith(bad.getPath() + ",failed,"))).hasSize(1);
+    }
+
+    @Test
+    public void serialNumbersAreUnique() throws Exception {
+        List<File> csrFiles = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            csrFiles.add(writePkcs10Csr(new File(csrDirectory, i + ".csr"), "CN=" + i));
+        }
+
+        CsrBatchSigner signer = new CsrBatchSigner(rsaKeyPair.getPrivate(), new X509Certificate[] { caCert },
+                                                   SignatureType.SHA256_RSA, KSE.BC);
+        signer.setSerialNumberLength(8);
+        signer.setParallelism(4);
+
+        Set<BigInteger> serialNumbers = new HashSet<>();
+        CsrBatchSigner.Summary summary = signer.sign(csrFiles, outputDirectory,
+                                                     (result, processed, total) -> serialNumbers.add(
+                                                             result.getSerialNumber()));
+
+        assertThat(summary.getSigned()).isEqualTo(50);
+        assertThat(serialNumbers).hasSize(50);
+        assertThat(loadCertificate("7.cer").getSerialNumber()).isIn(serialNumbers);
+    }
+
+    @Test
+    public void writesChainAsPkcs7() throws Exception {
+        List<File> csrFiles = Arrays.asList(writePkcs10Csr(new File(csrDirectory, "a.csr"), "CN=a"));
+
+        CsrBatchSigner signer = new CsrBatchSigner(rsaKeyPair.getPrivate(), new X509Certificate[] { caCert },
+                                                   SignatureType.SHA256_RSA, KSE.BC);
+        signer.setOutputFormat(false, true);
+        signer.sign(csrFiles, outputDirectory, null);
+
+        X509Certificate[] chain = X509CertUtil.loadCertificates(
+                FileUtils.readFileToByteArray(new File(outputDirectory, "a.p7b")));
+
+        assertThat(chain).hasSize(2);
+        assertThat(X509CertUtil.orderX509CertChain(chain)[1]).isEqualTo(caCert);
+    }
+
+    private File writePkcs10Csr(File file, String subject) throws Exception {
+        GeneralNames san = new GeneralNames(new GeneralName(GeneralName.dNSName, "example.com"));
+        Extensions extensions = new Extensions(new Extension(Extension.subjectAlternativeName, false,
+                                                             san.getEncoded(ASN1Encoding.DER)));
+
+        String pem = Pkcs10Util.getCsrEncodedDerPem(
+                Pkcs10Util.generateCsr(new X500Principal(subject), rsaKeyPair.getPublic(), rsaKeyPair.getPrivate(),
+                                       SignatureType.SHA256_RSA, null, null, extensions, KSE.BC));
+        FileUtils.writeStringToFile(file, pem, StandardCharsets.US_ASCII);
+        return file;
+    }
+
+    private File writeSpkacCsr(File file, String cn) throws Exception {
+        Spkac spkac = new Spkac("challenge", SignatureType.SHA256_DSA, new SpkacSubject(cn, null, null, null, null,
+                                                                                         null),
+                                dsaKeyPair.getPublic(), dsaKeyPair.getPrivate());
+        try (FileOutputStream fos = new FileOutputStream(file)) {
+            spkac.output(fos);
+        }
+        return file;
+    }
+
+    private X509Certificate loadCertificate(String name) throws Exception {
+        return X509CertUtil.loadCertificates(FileUtils.readFileToByteArray(new File(outputDirectory, name)))[0];
+    }
+}
@@ -24,11 +24,15 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.RandomAccessFile;
 import java.security.Security;
 
 import org.apache.commons.io.FileUtils;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.CsvSource;
+import org.junit.jupiter.params.provider.MethodSource;
 import org.kse.KSE;
 
 class CryptoFileUtilTest {
@@ -126,4 +130,35 @@ class CryptoFileUtilTest {
 
         assertEquals(expectedResult, CryptoFileUtil.detectFileType(data));
     }
-}
\ No newline at end of file
+
+    static File[] testFiles() {
+        return new File(TEST_FILES_PATH).listFiles();
+    }
+
+    @ParameterizedTest
+    @MethodSource("testFiles")
+    void detectFileTypeFromHeaderMatchesFullParse(File file) throws IOException {
+        byte[] data = FileUtils.readFileToByteArray(file);
+
+        assertEquals(CryptoFileUtil.detectFileType(data), CryptoFileUtil.detectFileType(file));
+    }
+
+    @Test
+    void detectFileTypeOfLargeFileFromHeader(@TempDir File tempDir) throws IOException {
+        File jarFile = new File(tempDir, "large.jar");
+        File unknownFile = new File(tempDir, "large.bin");
+
+        // Sparse files larger than the heap in tests, only their first bytes are actually written
+        try (RandomAccessFile raf = new RandomAccessFile(jarFile, "rw")) {
+            raf.writeInt(0x504B0304);
+            raf.setLength(1024L * 1024 * 1024);
+        }
+        try (RandomAccessFile raf = new RandomAccessFile(unknownFile, "rw")) {
+            raf.writeBytes("not a crypto file");
+            raf.setLength(1024L * 1024 * 1024);
+        }
+
+        assertEquals(CryptoFileType.JAR, CryptoFileUtil.detectFileType(jarFile));
+        assertEquals(CryptoFileType.UNKNOWN, CryptoFileUtil.detectFileType(unknownFile));
+    }
+}
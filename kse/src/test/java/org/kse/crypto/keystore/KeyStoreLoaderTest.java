@@ -0,0 +1,87 @@
+/*
+ * Copyright 2004 - 2013 Wayne Grant
+ *           2013 - 2025 Kai Kramer
+ *
+ * This file is part of KeyStore Explorer.
+ *
+ * KeyStore Explorer is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * KeyStore Explorer is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with KeyStore Explorer.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.kse.crypto.keystore;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.security.KeyStore;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.kse.crypto.CryptoTestsBase;
+import org.kse.gui.passwordmanager.Password;
+
+/**
+ * Unit tests for KeyStoreLoader.
+ */
+public class KeyStoreLoaderTest extends CryptoTestsBase {
+    private static final Password PASSWORD = new Password(new char[] { 'p', 'a', 's', 's', 'w', 'o', 'r', 'd' });
+
+    @TempDir
+    File tempDir;
+
+    @ParameterizedTest
+    // @formatter:off
+    @CsvSource({
+            "JCEKS",
+            "PKCS12",
+            "BKS",
+    })
+    // @formatter:on
+    public void readsFileOnceForAllAttempts(KeyStoreType keyStoreType) throws Exception {
+        File keyStoreFile = new File(tempDir, "keystore." + keyStoreType.jce().toLowerCase());
+        KeyStoreUtil.save(KeyStoreUtil.create(keyStoreType), keyStoreFile, new Password(PASSWORD));
+
+        KeyStoreLoader keyStoreLoader = new KeyStoreLoader(keyStoreFile);
+
+        assertThat(keyStoreLoader.getKeyStoreType()).isEqualTo(keyStoreType);
+
+        // all further attempts must use the content that has already been read
+        Files.delete(keyStoreFile.toPath());
+
+        Password wrongPassword = new Password(new char[] { 'w', 'r', 'o', 'n', 'g' });
+        assertThatThrownBy(() -> keyStoreLoader.load(wrongPassword)).isInstanceOf(KeyStoreLoadException.class);
+
+        KeyStore keyStore = keyStoreLoader.load(new Password(PASSWORD));
+
+        assertThat(keyStore).isNotNull();
+        assertThat(keyStore.getType()).isEqualTo(keyStoreType.jce());
+        assertThat(keyStoreLoader.getReadTime()).isNotNegative();
+        assertThat(keyStoreLoader.getDetectionTime()).isNotNegative();
+        assertThat(keyStoreLoader.getLoadTime()).isNotNegative();
+    }
+
+    @Test
+    public void unrecognisedFileIsNotLoaded() throws Exception {
+        File file = new File(tempDir, "file.txt");
+        Files.write(file.toPath(), "not a KeyStore".getBytes(StandardCharsets.US_ASCII));
+
+        KeyStoreLoader keyStoreLoader = new KeyStoreLoader(file);
+
+        assertThat(keyStoreLoader.getKeyStoreType()).isNull();
+        assertThat(keyStoreLoader.load(new Password(PASSWORD))).isNull();
+    }
+}
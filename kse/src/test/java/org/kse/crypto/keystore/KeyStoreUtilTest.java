@@ -24,6 +24,8 @@ import static org.assertj.core.api.Assertions.assertThat;
 import java.io.File;
 import java.security.KeyStore;
 
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.CsvSource;
 import org.kse.crypto.CryptoTestsBase;
@@ -70,4 +72,18 @@ public class KeyStoreUtilTest extends CryptoTestsBase {
         assertThat(keyStore).isNotNull();
         assertThat(keyStore.getType()).isEqualTo(keyStoreType.jce());
     }
+
+    @Test
+    public void saveReplacesFileWithoutTemporaryFiles(@TempDir File tempDir) throws Exception {
+        File keyStoreFile = new File(tempDir, "keystore.p12");
+
+        KeyStore keyStore = KeyStoreUtil.create(KeyStoreType.PKCS12);
+        KeyStoreUtil.save(keyStore, keyStoreFile, new Password(PASSWORD));
+
+        // saving again replaces the existing file
+        KeyStoreUtil.save(keyStore, keyStoreFile, new Password(PASSWORD));
+
+        assertThat(tempDir.list()).containsExactly(keyStoreFile.getName());
+        assertThat(KeyStoreUtil.load(keyStoreFile, new Password(PASSWORD))).isNotNull();
+    }
 }
@@ -0,0 +1,80 @@
+/*
+ * Copyright 2004 - 2013 Wayne Grant
+ *           2013 - 2025 Kai Kramer
+ *
+ * This file is part of KeyStore Explorer.
+ *
+ * KeyStore Explorer is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * KeyStore Explorer is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with KeyStore Explorer.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.kse.crypto.pbkd;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.kse.crypto.CryptoTestsBase;
+
+/**
+ * Unit tests for PasswordBasedKeyDerivation.
+ */
+public class PasswordBasedKeyDerivationTest extends CryptoTestsBase {
+    private static final byte[] SALT = "0123456789abcdef".getBytes(StandardCharsets.US_ASCII);
+
+    @ParameterizedTest
+    @CsvSource({
+            "password, 1, 256",
+            "password, 25000, 256",
+            "pässwörd€, 25000, 128",
+            "password, 1000, 512",
+    })
+    public void pbkdf2WithProgressDerivesSameKey(String password, int iterations, int keyLengthInBits) {
+        List<Integer> progress = new ArrayList<>();
+
+        byte[] key = PasswordBasedKeyDerivation.deriveKeyWithPbkdf2(password.toCharArray(), SALT, iterations,
+                                                                    keyLengthInBits).getEncoded();
+        byte[] keyWithProgress = PasswordBasedKeyDerivation.deriveKeyWithPbkdf2(password.toCharArray(), SALT,
+                                                                                iterations, keyLengthInBits,
+                                                                                progress::add).getEncoded();
+
+        assertThat(keyWithProgress).isEqualTo(key);
+        assertThat(progress).isSorted().endsWith(100);
+    }
+
+    @Test
+    public void pbkdf2StopsWhenInterrupted() {
+        Thread.currentThread().interrupt();
+        try {
+            assertThatThrownBy(() -> PasswordBasedKeyDerivation.deriveKeyWithPbkdf2("password".toCharArray(), SALT,
+                                                                                   100_000, 256, p -> {}))
+                    .isInstanceOf(CancellationException.class);
+        } finally {
+            Thread.interrupted();
+        }
+    }
+
+    @Test
+    public void calibrationRespectsMinimum() {
+        assertThat(PasswordBasedKeyDerivation.calibratePbkdf2(1, 600_000)).isEqualTo(600_000);
+        assertThat(PasswordBasedKeyDerivation.calibrateArgon2id(1, 1, 2, 19 * 1024, 64 * 1024)).isEqualTo(19 * 1024);
+        assertThat(PasswordBasedKeyDerivation.calibrateArgon2id(100_000, 1, 2, 19 * 1024, 64 * 1024))
+                .isEqualTo(64 * 1024);
+    }
+}
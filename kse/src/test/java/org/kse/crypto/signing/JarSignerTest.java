@@ -0,0 +1,163 @@
+/*
+ * Copyright 2004 - 2013 Wayne Grant
+ *           2013 - 2025 Kai Kramer
+ *
+ * This file is part of KeyStore Explorer.
+ *
+ * KeyStore Explorer is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * KeyStore Explorer is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with KeyStore Explorer.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.kse.crypto.signing;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.security.cert.X509Certificate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.jar.Attributes;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import java.util.jar.JarOutputStream;
+import java.util.jar.Manifest;
+import java.util.zip.CRC32;
+
+import org.apache.commons.io.IOUtils;
+import org.bouncycastle.asn1.x500.X500Name;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.kse.crypto.KeyPairTestsBase;
+import org.kse.crypto.digest.DigestType;
+import org.kse.crypto.x509.X509CertificateGenerator;
+import org.kse.crypto.x509.X509CertificateVersion;
+
+/**
+ * Unit tests for JarSigner.
+ */
+public class JarSignerTest extends KeyPairTestsBase {
+
+    @TempDir
+    File tempDir;
+
+    @Test
+    public void parallelSigningProducesSameJarAsSerialSigning() throws Exception {
+        File jarFile = new File(tempDir, "test.jar");
+        File serialJarFile = new File(tempDir, "serial.jar");
+        File parallelJarFile = new File(tempDir, "parallel.jar");
+        createJar(jarFile);
+
+        X509Certificate cert = new X509CertificateGenerator(X509CertificateVersion.VERSION3).generateSelfSigned(
+                new X500Name("CN=test"), 1000L * 60 * 60 * 24, rsaKeyPair.getPublic(), rsaKeyPair.getPrivate(),
+                SignatureType.SHA256_RSA, BigInteger.ONE);
+
+        JarSigner.sign(jarFile, serialJarFile, rsaKeyPair.getPrivate(), new X509Certificate[] { cert },
+                       SignatureType.SHA256_RSA, "test", "KSE", DigestType.SHA256, null, null, 1);
+        JarSigner.sign(jarFile, parallelJarFile, rsaKeyPair.getPrivate(), new X509Certificate[] { cert },
+                       SignatureType.SHA256_RSA, "test", "KSE", DigestType.SHA256, null, null, 4);
+
+        try (JarFile serialJar = new JarFile(serialJarFile);
+             JarFile parallelJar = new JarFile(parallelJarFile)) {
+            List<JarEntry> serialEntries = Collections.list(serialJar.entries());
+            List<JarEntry> parallelEntries = Collections.list(parallelJar.entries());
+
+            assertThat(parallelEntries).hasSameSizeAs(serialEntries);
+
+            for (int i = 0; i < serialEntries.size(); i++) {
+                JarEntry serialEntry = serialEntries.get(i);
+                JarEntry parallelEntry = parallelEntries.get(i);
+
+                assertThat(parallelEntry.getName()).isEqualTo(serialEntry.getName());
+                assertThat(parallelEntry.getMethod()).isEqualTo(serialEntry.getMethod());
+
+                // Signature block contains the signing time
+                if (!serialEntry.getName().equals("META-INF/TEST.RSA")) {
+                    assertThat(read(parallelJar, parallelEntry)).isEqualTo(read(serialJar, serialEntry));
+                }
+            }
+        }
+
+        assertSigned(parallelJarFile);
+    }
+
+    private static void assertSigned(File signedJarFile) throws IOException {
+        try (JarFile jar = new JarFile(signedJarFile, true)) {
+            for (JarEntry jarEntry : Collections.list(jar.entries())) {
+                // Entries must be read completely before their code signers are available
+                read(jar, jarEntry);
+
+                if (!jarEntry.isDirectory() && !jarEntry.getName().startsWith("META-INF/")) {
+                    assertThat(jarEntry.getCodeSigners()).as(jarEntry.getName()).isNotNull();
+                }
+            }
+        }
+    }
+
+    private static byte[] read(JarFile jar, JarEntry jarEntry) throws IOException {
+        try (InputStream is = jar.getInputStream(jarEntry)) {
+            return IOUtils.toByteArray(is);
+        }
+    }
+
+    private static void createJar(File file) throws IOException {
+        List<String> names = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            names.add("org/kse/test/package" + (i / 20) + "/Class" + i + ".class");
+        }
+
+        Manifest manifest = new Manifest();
+        manifest.getMainAttributes().put(Attributes.Name.MANIFEST_VERSION, "1.0");
+        for (int i = 0; i < names.size(); i += 3) {
+            Attributes attributes = new Attributes();
+            attributes.put(Attributes.Name.SEALED, "true");
+            manifest.getEntries().put(names.get(i), attributes);
+        }
+
+        Random random = new Random(1);
+
+        try (JarOutputStream jos = new JarOutputStream(Files.newOutputStream(file.toPath()), manifest)) {
+            jos.putNextEntry(new JarEntry("org/kse/test/"));
+            jos.closeEntry();
+
+            for (String name : names) {
+                byte[] content = new byte[random.nextInt(8192)];
+                random.nextBytes(content);
+
+                jos.putNextEntry(new JarEntry(name));
+                jos.write(content);
+                jos.write(name.getBytes(StandardCharsets.UTF_8));
+                jos.closeEntry();
+            }
+
+            // Stored entry too large to be read ahead
+            byte[] content = new byte[3 * 1024 * 1024];
+            random.nextBytes(content);
+            CRC32 crc = new CRC32();
+            crc.update(content);
+
+            JarEntry storedEntry = new JarEntry("org/kse/test/large.bin");
+            storedEntry.setMethod(JarEntry.STORED);
+            storedEntry.setSize(content.length);
+            storedEntry.setCrc(crc.getValue());
+            jos.putNextEntry(storedEntry);
+            jos.write(content);
+            jos.closeEntry();
+        }
+    }
+}
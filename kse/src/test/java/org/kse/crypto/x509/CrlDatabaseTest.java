@@ -0,0 +1,211 @@
+/*
+ * Copyright 2004 - 2013 Wayne Grant
+ *           2013 - 2025 Kai Kramer
+ *
+ * This file is part of KeyStore Explorer.
+ *
+ * KeyStore Explorer is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * KeyStore Explorer is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with KeyStore Explorer.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.kse.crypto.x509;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.RandomAccessFile;
+import java.math.BigInteger;
+import java.security.cert.X509CRL;
+import java.security.cert.X509CRLEntry;
+import java.security.cert.X509Certificate;
+import java.util.Date;
+
+import org.bouncycastle.asn1.x500.X500Name;
+import org.bouncycastle.asn1.x509.CRLReason;
+import org.bouncycastle.asn1.x509.Extension;
+import org.bouncycastle.operator.ContentSigner;
+import org.bouncycastle.operator.jcajce.JcaContentSignerBuilder;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.kse.KSE;
+import org.kse.crypto.CryptoException;
+import org.kse.crypto.KeyPairTestsBase;
+import org.kse.crypto.signing.SignatureType;
+
+/**
+ * Unit tests for CrlDatabase.
+ */
+public class CrlDatabaseTest extends KeyPairTestsBase {
+    private static final Date REVOCATION_DATE = new Date(1700000000000L);
+
+    @TempDir
+    File tempDir;
+
+    private File databaseFile;
+    private X509Certificate caCert;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        databaseFile = new File(tempDir, "ca.crldb");
+
+        Date validityStart = new Date();
+        Date validityEnd = new Date(validityStart.getTime() + 1000L * 60 * 60 * 24);
+        caCert = new X509CertificateGenerator(X509CertificateVersion.VERSION3).generateSelfSigned(
+                new X500Name("CN=CA"), validityStart, validityEnd, rsaKeyPair.getPublic(), rsaKeyPair.getPrivate(),
+                SignatureType.SHA256_RSA, BigInteger.ONE);
+    }
+
+    @Test
+    public void revocationsArePersisted() throws Exception {
+        try (CrlDatabase crlDatabase = CrlDatabase.open(databaseFile)) {
+            crlDatabase.revoke(BigInteger.valueOf(3), REVOCATION_DATE, CRLReason.superseded);
+            crlDatabase.revoke(BigInteger.valueOf(2), REVOCATION_DATE, 0);
+            crlDatabase.revoke(BigInteger.valueOf(1), REVOCATION_DATE, 0);
+            assertThat(crlDatabase.unrevoke(BigInteger.valueOf(2))).isTrue();
+            assertThat(crlDatabase.unrevoke(BigInteger.valueOf(4))).isFalse();
+        }
+
+        try (CrlDatabase crlDatabase = CrlDatabase.open(databaseFile)) {
+            assertThat(crlDatabase.getEntries()).extracting(CrlDatabase.Entry::getSerialNumber)
+                                                .containsExactly(BigInteger.valueOf(1), BigInteger.valueOf(3));
+            assertThat(crlDatabase.getEntry(BigInteger.valueOf(3)).getReason()).isEqualTo(CRLReason.superseded);
+            assertThat(crlDatabase.getCrlNumber()).isNull();
+        }
+    }
+
+    @Test
+    public void changesAreWrittenThroughBeforeClose() throws Exception {
+        try (CrlDatabase crlDatabase = CrlDatabase.open(databaseFile)) {
+            crlDatabase.revoke(BigInteger.valueOf(1), REVOCATION_DATE, 0);
+            crlDatabase.revoke(BigInteger.valueOf(2), REVOCATION_DATE, 0);
+            crlDatabase.unrevoke(BigInteger.valueOf(1));
+
+            // e.g. after a crash, the file already holds every change
+            try (CrlDatabase reopened = CrlDatabase.open(databaseFile)) {
+                assertThat(reopened.getEntries()).extracting(CrlDatabase.Entry::getSerialNumber)
+                                                 .containsExactly(BigInteger.valueOf(2));
+            }
+        }
+    }
+
+    @Test
+    public void completeCrlListsAllRevocations() throws Exception {
+        X509CRL crl;
+        try (CrlDatabase crlDatabase = CrlDatabase.open(databaseFile)) {
+            for (int i = 1; i <= 300; i++) {
+                crlDatabase.revoke(BigInteger.ONE.shiftLeft(i).add(BigInteger.valueOf(i)), REVOCATION_DATE, i % 7);
+            }
+            crl = writeCrl(crlDatabase, BigInteger.ONE, false);
+        }
+
+        crl.verify(rsaKeyPair.getPublic());
+
+        assertThat(crl.getRevokedCertificates()).hasSize(300);
+        assertThat(crl.getRevokedCertificate(BigInteger.valueOf(3)).getRevocationReason().ordinal()).isEqualTo(
+                CRLReason.keyCompromise);
+        assertThat(crl.getRevokedCertificate(BigInteger.valueOf(135)).hasExtensions()).isFalse();
+        assertThat(crl.getExtensionValue(Extension.deltaCRLIndicator.getId())).isNull();
+
+        try (CrlDatabase crlDatabase = CrlDatabase.open(databaseFile)) {
+            assertThat(crlDatabase.getCrlNumber()).isEqualTo(BigInteger.ONE);
+            assertThat(crlDatabase.getBaseCrlNumber()).isEqualTo(BigInteger.ONE);
+        }
+    }
+
+    @Test
+    public void deltaCrlListsChangesSinceCompleteCrl() throws Exception {
+        try (CrlDatabase crlDatabase = CrlDatabase.open(databaseFile)) {
+            crlDatabase.revoke(BigInteger.valueOf(1), REVOCATION_DATE, 0);
+            crlDatabase.revoke(BigInteger.valueOf(2), REVOCATION_DATE, 0);
+            writeCrl(crlDatabase, BigInteger.ONE, false);
+
+            crlDatabase.unrevoke(BigInteger.valueOf(2));
+            crlDatabase.revoke(BigInteger.valueOf(3), REVOCATION_DATE, 0);
+            crlDatabase.revoke(BigInteger.valueOf(4), REVOCATION_DATE, 0);
+            crlDatabase.unrevoke(BigInteger.valueOf(4));
+        }
+
+        X509CRL deltaCrl;
+        try (CrlDatabase crlDatabase = CrlDatabase.open(databaseFile)) {
+            deltaCrl = writeCrl(crlDatabase, BigInteger.TWO, true);
+        }
+
+        deltaCrl.verify(rsaKeyPair.getPublic());
+
+        assertThat(deltaCrl.getCriticalExtensionOIDs()).contains(Extension.deltaCRLIndicator.getId());
+        assertThat(deltaCrl.getRevokedCertificates()).extracting(X509CRLEntry::getSerialNumber)
+                                                     .containsExactlyInAnyOrder(BigInteger.valueOf(2),
+                                                                                BigInteger.valueOf(3));
+        assertThat(deltaCrl.getRevokedCertificate(BigInteger.valueOf(2)).getRevocationReason().ordinal()).isEqualTo(
+                CRLReason.removeFromCRL);
+    }
+
+    @Test
+    public void incompleteRecordIsDiscarded() throws Exception {
+        try (CrlDatabase crlDatabase = CrlDatabase.open(databaseFile)) {
+            crlDatabase.revoke(BigInteger.valueOf(1), REVOCATION_DATE, 0);
+            crlDatabase.revoke(BigInteger.valueOf(2), REVOCATION_DATE, 0);
+        }
+
+        try (RandomAccessFile raf = new RandomAccessFile(databaseFile, "rw")) {
+            raf.setLength(raf.length() - 1);
+        }
+
+        try (CrlDatabase crlDatabase = CrlDatabase.open(databaseFile)) {
+            assertThat(crlDatabase.size()).isEqualTo(1);
+            crlDatabase.revoke(BigInteger.valueOf(3), REVOCATION_DATE, 0);
+        }
+
+        try (CrlDatabase crlDatabase = CrlDatabase.open(databaseFile)) {
+            assertThat(crlDatabase.getEntries()).extracting(CrlDatabase.Entry::getSerialNumber)
+                                                .containsExactly(BigInteger.valueOf(1), BigInteger.valueOf(3));
+        }
+    }
+
+    @Test
+    public void recordWithEmptySerialNumberIsRejected() throws Exception {
+        try (CrlDatabase crlDatabase = CrlDatabase.open(databaseFile)) {
+            crlDatabase.revoke(BigInteger.valueOf(1), REVOCATION_DATE, 0);
+        }
+
+        // Revoke record with a serial number of length zero
+        try (DataOutputStream dos = new DataOutputStream(new FileOutputStream(databaseFile, true))) {
+            dos.writeByte(1);
+            dos.writeShort(0);
+            dos.writeLong(REVOCATION_DATE.getTime());
+            dos.writeByte(0);
+        }
+
+        assertThatThrownBy(() -> CrlDatabase.open(databaseFile)).isInstanceOf(CryptoException.class);
+    }
+
+    private X509CRL writeCrl(CrlDatabase crlDatabase, BigInteger crlNumber, boolean delta) throws Exception {
+        ContentSigner signer = new JcaContentSignerBuilder(SignatureType.SHA256_RSA.jce()).setProvider(KSE.BC).build(
+                rsaKeyPair.getPrivate());
+        Date thisUpdate = new Date();
+        Date nextUpdate = new Date(thisUpdate.getTime() + 1000L * 60 * 60 * 24);
+
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        if (delta) {
+            crlDatabase.writeDeltaCrl(caCert, signer, thisUpdate, nextUpdate, crlNumber, baos);
+        } else {
+            crlDatabase.writeCrl(caCert, signer, thisUpdate, nextUpdate, crlNumber, baos);
+        }
+
+        return X509CertUtil.loadCRL(baos.toByteArray());
+    }
+}
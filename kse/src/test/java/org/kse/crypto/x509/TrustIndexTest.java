@@ -0,0 +1,136 @@
+/*
+ * Copyright 2004 - 2013 Wayne Grant
+ *           2013 - 2025 Kai Kramer
+ *
+ * This file is part of KeyStore Explorer.
+ *
+ * KeyStore Explorer is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * KeyStore Explorer is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with KeyStore Explorer.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.kse.crypto.x509;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.math.BigInteger;
+import java.security.KeyPair;
+import java.security.cert.X509Certificate;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.Random;
+
+import org.bouncycastle.asn1.x500.X500Name;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.kse.KSE;
+import org.kse.crypto.KeyPairTestsBase;
+import org.kse.crypto.keypair.KeyPairType;
+import org.kse.crypto.keypair.KeyPairUtil;
+import org.kse.crypto.signing.SignatureType;
+
+/**
+ * Unit tests for TrustIndex.
+ */
+public class TrustIndexTest extends KeyPairTestsBase {
+    private static final X500Name ROOT = new X500Name("CN=Root CA");
+    private static final X500Name CA1 = new X500Name("CN=CA 1");
+    private static final X500Name CA2 = new X500Name("CN=CA 2");
+    private static final X500Name LEAF = new X500Name("CN=leaf");
+
+    private static final Random RANDOM = new Random();
+
+    private static KeyPair ca1KeyPair;
+    private static KeyPair ca2KeyPair;
+
+    @BeforeAll
+    static void initCaKeyPairs() throws Exception {
+        ca1KeyPair = KeyPairUtil.generateKeyPair(KeyPairType.RSA, 2048, KSE.BC);
+        ca2KeyPair = KeyPairUtil.generateKeyPair(KeyPairType.RSA, 2048, KSE.BC);
+    }
+
+    @Test
+    public void establishesChainToSelfSignedCertificate() throws Exception {
+        X509Certificate root = generate(ROOT, ROOT, rsaKeyPair, rsaKeyPair);
+        X509Certificate ca1 = generate(CA1, ROOT, ca1KeyPair, rsaKeyPair);
+        X509Certificate leaf = generate(LEAF, CA1, ca2KeyPair, ca1KeyPair);
+
+        TrustIndex trustIndex = new TrustIndex(Arrays.asList(ca1, root));
+
+        assertThat(trustIndex.establishTrust(leaf)).containsExactly(leaf, ca1, root);
+        assertThat(trustIndex.establishTrust(leaf)).containsExactly(leaf, ca1, root);
+        assertThat(trustIndex.establishTrust(root)).containsExactly(root, root);
+        assertThat(trustIndex.getBySubject(ca1.getSubjectX500Principal())).containsExactly(ca1);
+        assertThat(new TrustIndex(Collections.singletonList(ca1)).establishTrust(leaf)).isNull();
+    }
+
+    @Test
+    public void usesCertificatesOfParentIndex() throws Exception {
+        X509Certificate root = generate(ROOT, ROOT, rsaKeyPair, rsaKeyPair);
+        X509Certificate ca1 = generate(CA1, ROOT, ca1KeyPair, rsaKeyPair);
+        X509Certificate leaf = generate(LEAF, CA1, ca2KeyPair, ca1KeyPair);
+
+        TrustIndex parent = new TrustIndex(Collections.singletonList(root));
+        TrustIndex trustIndex = new TrustIndex(Collections.singletonList(ca1), parent);
+
+        assertThat(trustIndex.establishTrust(leaf)).containsExactly(leaf, ca1, root);
+        assertThat(parent.establishTrust(leaf)).isNull();
+    }
+
+    @Test
+    public void chainsThroughParentIndexAreSharedByChildIndexes() throws Exception {
+        X509Certificate root = generate(ROOT, ROOT, rsaKeyPair, rsaKeyPair);
+        X509Certificate ca1 = generate(CA1, ROOT, ca1KeyPair, rsaKeyPair);
+        X509Certificate ca2 = generate(CA2, ROOT, ca2KeyPair, rsaKeyPair);
+        X509Certificate leaf1 = generate(LEAF, CA1, dsaKeyPair, ca1KeyPair);
+        X509Certificate leaf2 = generate(LEAF, CA2, dsaKeyPair, ca2KeyPair);
+
+        TrustIndex parent = new TrustIndex(Arrays.asList(ca1, root));
+
+        // A chain that only leads through the parent's certificates is cached by the parent
+        assertThat(new TrustIndex(Collections.singletonList(ca2), parent).establishTrust(leaf1))
+                .containsExactly(leaf1, ca1, root);
+        assertThat(new TrustIndex(Collections.emptyList(), parent).isChainCached(leaf1)).isTrue();
+
+        // A chain that leads through a certificate of the child index is only cached by the child
+        TrustIndex trustIndex = new TrustIndex(Collections.singletonList(ca2), parent);
+
+        assertThat(trustIndex.establishTrust(leaf2)).containsExactly(leaf2, ca2, root);
+        assertThat(trustIndex.isChainCached(leaf2)).isTrue();
+        assertThat(parent.isChainCached(leaf2)).isFalse();
+    }
+
+    @Test
+    public void crossSignedCertificatesDoNotLoop() throws Exception {
+        // CA 1 and CA 2 have certified each other
+        X509Certificate ca1ByCa2 = generate(CA1, CA2, ca1KeyPair, ca2KeyPair);
+        X509Certificate ca2ByCa1 = generate(CA2, CA1, ca2KeyPair, ca1KeyPair);
+        X509Certificate leaf = generate(LEAF, CA1, dsaKeyPair, ca1KeyPair);
+
+        assertThat(new TrustIndex(Arrays.asList(ca1ByCa2, ca2ByCa1)).establishTrust(leaf)).isNull();
+
+        X509Certificate ca2Root = generate(CA2, CA2, ca2KeyPair, ca2KeyPair);
+
+        assertThat(new TrustIndex(Arrays.asList(ca1ByCa2, ca2ByCa1, ca2Root)).establishTrust(leaf))
+                .containsExactly(leaf, ca1ByCa2, ca2Root);
+    }
+
+    private static X509Certificate generate(X500Name subject, X500Name issuer, KeyPair subjectKeyPair,
+                                            KeyPair issuerKeyPair) throws Exception {
+        Date validityStart = new Date();
+        Date validityEnd = new Date(validityStart.getTime() + 1000L * 60 * 60 * 24);
+
+        return new X509CertificateGenerator(X509CertificateVersion.VERSION3).generate(
+                subject, issuer, validityStart, validityEnd, subjectKeyPair.getPublic(), issuerKeyPair.getPrivate(),
+                SignatureType.SHA256_RSA, new BigInteger(64, RANDOM));
+    }
+}
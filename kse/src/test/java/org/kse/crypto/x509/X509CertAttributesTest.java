@@ -0,0 +1,71 @@
+/*
+ * Copyright 2004 - 2013 Wayne Grant
+ *           2013 - 2025 Kai Kramer
+ *
+ * This file is part of KeyStore Explorer.
+ *
+ * KeyStore Explorer is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * KeyStore Explorer is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with KeyStore Explorer.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.kse.crypto.x509;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.math.BigInteger;
+import java.security.cert.X509Certificate;
+
+import org.bouncycastle.asn1.x500.X500Name;
+import org.junit.jupiter.api.Test;
+import org.kse.crypto.KeyPairTestsBase;
+import org.kse.crypto.signing.SignatureType;
+
+/**
+ * Unit tests for X509CertAttributes.
+ */
+public class X509CertAttributesTest extends KeyPairTestsBase {
+
+    @Test
+    public void attributesAreDerivedOnceForEqualCertificates() throws Exception {
+        X509Certificate cert = new X509CertificateGenerator(X509CertificateVersion.VERSION3).generateSelfSigned(
+                new X500Name("CN=test,O=KSE"), 1000L * 60 * 60 * 24, rsaKeyPair.getPublic(),
+                rsaKeyPair.getPrivate(), SignatureType.SHA256_RSA, BigInteger.valueOf(255));
+        X509Certificate sameCert = X509CertUtil.loadCertificates(cert.getEncoded())[0];
+
+        X509CertAttributes attributes = X509CertAttributes.get(cert);
+
+        assertThat(X509CertAttributes.get(sameCert)).isSameAs(attributes);
+        assertThat(attributes.getSubjectCN()).isEqualTo("test");
+        assertThat(attributes.getSubjectO()).isEqualTo("KSE");
+        assertThat(attributes.getIssuer()).isEqualTo(attributes.getSubject());
+        assertThat(attributes.getShortName()).isEqualTo(X509CertUtil.getShortName(cert));
+        assertThat(attributes.getSerialNumberHex()).isEqualTo(X509CertUtil.getSerialNumberAsHex(cert));
+        assertThat(attributes.getSerialNumberDec()).isEqualTo("255");
+        assertThat(attributes.getKeyInfo().getSize()).isEqualTo(2048);
+    }
+
+    @Test
+    public void sameInstanceIsLookedUpWithoutEncoding() throws Exception {
+        X509Certificate cert = spy(new X509CertificateGenerator(X509CertificateVersion.VERSION3).generateSelfSigned(
+                new X500Name("CN=instance"), 1000L * 60 * 60 * 24, rsaKeyPair.getPublic(),
+                rsaKeyPair.getPrivate(), SignatureType.SHA256_RSA, BigInteger.valueOf(256)));
+
+        X509CertAttributes attributes = X509CertAttributes.get(cert);
+
+        assertThat(X509CertAttributes.get(cert)).isSameAs(attributes);
+        assertThat(X509CertAttributes.get(cert)).isSameAs(attributes);
+        verify(cert, times(1)).getEncoded();
+    }
+}
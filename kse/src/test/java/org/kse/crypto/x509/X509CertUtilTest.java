@@ -0,0 +1,122 @@
+/*
+ * Copyright 2004 - 2013 Wayne Grant
+ *           2013 - 2025 Kai Kramer
+ *
+ * This file is part of KeyStore Explorer.
+ *
+ * KeyStore Explorer is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * KeyStore Explorer is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with KeyStore Explorer.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.kse.crypto.x509;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.math.BigInteger;
+import java.security.KeyPair;
+import java.security.cert.X509Certificate;
+import java.util.Date;
+
+import org.bouncycastle.asn1.x500.X500Name;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.kse.KSE;
+import org.kse.crypto.KeyPairTestsBase;
+import org.kse.crypto.keypair.KeyPairUtil;
+import org.kse.crypto.signing.SignatureType;
+
+/**
+ * Unit tests for ordering certificate chains in X509CertUtil.
+ */
+public class X509CertUtilTest extends KeyPairTestsBase {
+    private static final X500Name ROOT = new X500Name("CN=Root CA");
+    private static final X500Name CA = new X500Name("CN=CA");
+    private static final X500Name LEAF = new X500Name("CN=leaf");
+    private static final X500Name OTHER = new X500Name("CN=other");
+
+    private static KeyPair rootKeyPair;
+    private static KeyPair renewedRootKeyPair;
+    private static KeyPair caKeyPair;
+
+    private static long serialNumber = 1;
+
+    @BeforeAll
+    static void initCaKeyPairs() throws Exception {
+        rootKeyPair = KeyPairUtil.generateECKeyPair("prime256v1", KSE.BC);
+        renewedRootKeyPair = KeyPairUtil.generateECKeyPair("prime256v1", KSE.BC);
+        caKeyPair = KeyPairUtil.generateECKeyPair("prime256v1", KSE.BC);
+    }
+
+    @Test
+    public void ordersShuffledChain() throws Exception {
+        X509Certificate root = generate(ROOT, ROOT, rootKeyPair, rootKeyPair);
+        X509Certificate ca = generate(CA, ROOT, caKeyPair, rootKeyPair);
+        X509Certificate leaf = generate(LEAF, CA, rsaKeyPair, caKeyPair);
+        X509Certificate other = generate(OTHER, OTHER, dsaKeyPair, caKeyPair);
+
+        assertThat(X509CertUtil.orderX509CertChain(new X509Certificate[] { root, leaf, ca }))
+                .containsExactly(leaf, ca, root);
+        assertThat(X509CertUtil.orderX509CertChain(new X509Certificate[] { other, ca, root, leaf }))
+                .containsExactly(leaf, ca, root);
+        assertThat(X509CertUtil.orderX509CertChain(new X509Certificate[] { other, root })).containsExactly(other);
+        assertThat(X509CertUtil.orderX509CertChain(new X509Certificate[] { leaf })).containsExactly(leaf);
+        assertThat(X509CertUtil.orderX509CertChain(null)).isEmpty();
+    }
+
+    @Test
+    public void verifiesSignatureOfAmbiguousIssuer() throws Exception {
+        X509Certificate root = generate(ROOT, ROOT, rootKeyPair, rootKeyPair);
+        X509Certificate renewedRoot = generate(ROOT, ROOT, renewedRootKeyPair, renewedRootKeyPair);
+        X509Certificate ca = generate(CA, ROOT, caKeyPair, rootKeyPair);
+        X509Certificate leaf = generate(LEAF, CA, rsaKeyPair, caKeyPair);
+
+        assertThat(X509CertUtil.orderX509CertChain(new X509Certificate[] { renewedRoot, leaf, root, ca }))
+                .containsExactly(leaf, ca, root);
+    }
+
+    @Test
+    public void crossSignedCertificatesDoNotLoop() throws Exception {
+        X509Certificate caByRoot = generate(CA, ROOT, caKeyPair, rootKeyPair);
+        X509Certificate rootByCa = generate(ROOT, CA, rootKeyPair, caKeyPair);
+        X509Certificate leaf = generate(LEAF, CA, rsaKeyPair, caKeyPair);
+
+        X509Certificate[] chain = X509CertUtil.orderX509CertChain(
+                new X509Certificate[] { caByRoot, rootByCa, leaf });
+
+        assertThat(chain).hasSize(3).startsWith(leaf);
+        assertThat(X509CertUtil.orderX509CertsChain(new X509Certificate[] { caByRoot, rootByCa, leaf }))
+                .hasSize(3).containsOnly(caByRoot, rootByCa, leaf);
+    }
+
+    @Test
+    public void ordersEachChainOfSeveralCertificates() throws Exception {
+        X509Certificate root = generate(ROOT, ROOT, rootKeyPair, rootKeyPair);
+        X509Certificate ca = generate(CA, ROOT, caKeyPair, rootKeyPair);
+        X509Certificate leaf = generate(LEAF, CA, rsaKeyPair, caKeyPair);
+        X509Certificate otherLeaf = generate(OTHER, ROOT, dsaKeyPair, rootKeyPair);
+        X509Certificate unrelated = generate(OTHER, OTHER, renewedRootKeyPair, renewedRootKeyPair);
+
+        assertThat(X509CertUtil.orderX509CertsChain(
+                new X509Certificate[] { root, unrelated, otherLeaf, leaf, ca }))
+                .containsExactly(leaf, otherLeaf, ca, root, unrelated);
+    }
+
+    private static X509Certificate generate(X500Name subject, X500Name issuer, KeyPair subjectKeyPair,
+                                            KeyPair issuerKeyPair) throws Exception {
+        Date validityStart = new Date();
+        Date validityEnd = new Date(validityStart.getTime() + 1000L * 60 * 60 * 24);
+
+        return new X509CertificateGenerator(X509CertificateVersion.VERSION3).generate(
+                subject, issuer, validityStart, validityEnd, subjectKeyPair.getPublic(), issuerKeyPair.getPrivate(),
+                SignatureType.SHA256_ECDSA, BigInteger.valueOf(serialNumber++));
+    }
+}
@@ -0,0 +1,315 @@
+/*
+ * Copyright 2004 - 2013 Wayne Grant
+ *           2013 - 2025 Kai Kramer
+ *
+ * This file is part of KeyStore Explorer.
+ *
+ * KeyStore Explorer is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * KeyStore Explorer is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with KeyStore Explorer.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.kse.crypto.x509;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigInteger;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.security.KeyPair;
+import java.security.cert.X509Certificate;
+import java.time.Clock;
+import java.util.Collections;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.commons.io.IOUtils;
+import org.bouncycastle.asn1.ASN1Encoding;
+import org.bouncycastle.asn1.x500.X500Name;
+import org.bouncycastle.asn1.x509.AccessDescription;
+import org.bouncycastle.asn1.x509.AuthorityInformationAccess;
+import org.bouncycastle.asn1.x509.BasicConstraints;
+import org.bouncycastle.asn1.x509.CRLDistPoint;
+import org.bouncycastle.asn1.x509.CRLReason;
+import org.bouncycastle.asn1.x509.DistributionPoint;
+import org.bouncycastle.asn1.x509.DistributionPointName;
+import org.bouncycastle.asn1.x509.Extension;
+import org.bouncycastle.asn1.x509.GeneralName;
+import org.bouncycastle.asn1.x509.GeneralNames;
+import org.bouncycastle.asn1.x509.KeyUsage;
+import org.bouncycastle.cert.X509CertificateHolder;
+import org.bouncycastle.cert.X509v2CRLBuilder;
+import org.bouncycastle.cert.ocsp.BasicOCSPRespBuilder;
+import org.bouncycastle.cert.ocsp.CertificateStatus;
+import org.bouncycastle.cert.ocsp.OCSPReq;
+import org.bouncycastle.cert.ocsp.OCSPRespBuilder;
+import org.bouncycastle.cert.ocsp.Req;
+import org.bouncycastle.cert.ocsp.RespID;
+import org.bouncycastle.cert.ocsp.RevokedStatus;
+import org.bouncycastle.operator.ContentSigner;
+import org.bouncycastle.operator.jcajce.JcaContentSignerBuilder;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.kse.KSE;
+import org.kse.crypto.CryptoException;
+import org.kse.crypto.KeyPairTestsBase;
+import org.kse.crypto.keypair.KeyPairType;
+import org.kse.crypto.keypair.KeyPairUtil;
+import org.kse.crypto.signing.SignatureType;
+import org.kse.utilities.net.HttpFetchCache;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Unit tests for X509ChainVerifier. A local HTTP server stands in for the CRL distribution point and the OCSP
+ * responder of the test CA.
+ */
+public class X509ChainVerifierTest extends KeyPairTestsBase {
+    private static final X500Name CA = new X500Name("CN=Test CA");
+    private static final BigInteger REVOKED_SERIAL = BigInteger.valueOf(666);
+
+    private static KeyPair caKeyPair;
+
+    private HttpServer server;
+    private final Map<String, AtomicInteger> requests = new ConcurrentHashMap<>();
+    private X509Certificate caCert;
+
+    @BeforeAll
+    static void initCaKeyPair() throws Exception {
+        caKeyPair = KeyPairUtil.generateKeyPair(KeyPairType.RSA, 2048, KSE.BC);
+    }
+
+    @BeforeEach
+    void setUp() throws Exception {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.start();
+
+        X509ExtensionSet extensions = new X509ExtensionSet();
+        extensions.addExtension(Extension.basicConstraints.getId(), true, X509Ext.wrapInOctetString(
+                new BasicConstraints(true).getEncoded(ASN1Encoding.DER)));
+        extensions.addExtension(Extension.keyUsage.getId(), true, X509Ext.wrapInOctetString(
+                new KeyUsage(KeyUsage.keyCertSign | KeyUsage.cRLSign).getEncoded(ASN1Encoding.DER)));
+        caCert = generate(CA, caKeyPair, BigInteger.ONE, extensions);
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.stop(0);
+    }
+
+    @Test
+    public void fetchesEachCrlDistributionPointOnce() throws Exception {
+        serve("/ca.crl", exchange -> respond(exchange, 200, generateCrl()));
+        String crlUrl = getUrl("/ca.crl");
+
+        Map<String, X509Certificate[]> chains = new LinkedHashMap<>();
+        chains.put("ca", new X509Certificate[] { caCert });
+        chains.put("leaf1", chain(generateLeaf("CN=leaf1", BigInteger.valueOf(2), crlUrl, null)));
+        chains.put("leaf2", chain(generateLeaf("CN=leaf2", BigInteger.valueOf(3), crlUrl, null)));
+        chains.put("revoked", chain(generateLeaf("CN=revoked", REVOKED_SERIAL, crlUrl, null)));
+        chains.put("nourl", chain(generateLeaf("CN=nourl", BigInteger.valueOf(4), null, null)));
+
+        List<X509ChainVerifier.Result> results = verifier(X509ChainVerifier.Revocation.CRL).verify(chains);
+
+        assertThat(results).extracting(X509ChainVerifier.Result::getStatus).containsExactly(
+                X509ChainVerifier.Status.VALID, X509ChainVerifier.Status.VALID, X509ChainVerifier.Status.VALID,
+                X509ChainVerifier.Status.REVOKED, X509ChainVerifier.Status.UNDETERMINED);
+        assertThat(results.get(1).getRevocationSource()).isEqualTo(crlUrl);
+        assertThat(requests.get("/ca.crl").get()).isEqualTo(1);
+    }
+
+    @Test
+    public void asksEachOcspResponderOnce() throws Exception {
+        serve("/ocsp", exchange -> respond(exchange, 200, generateOcspResponse(exchange, Integer.MAX_VALUE)));
+        String ocspUrl = getUrl("/ocsp");
+
+        Map<String, X509Certificate[]> chains = new LinkedHashMap<>();
+        chains.put("leaf1", chain(generateLeaf("CN=leaf1", BigInteger.valueOf(2), null, ocspUrl)));
+        chains.put("revoked", chain(generateLeaf("CN=revoked", REVOKED_SERIAL, null, ocspUrl)));
+        chains.put("leaf2", chain(generateLeaf("CN=leaf2", BigInteger.valueOf(3), null, ocspUrl)));
+
+        List<X509ChainVerifier.Result> results = verifier(X509ChainVerifier.Revocation.OCSP).verify(chains);
+
+        assertThat(results).extracting(X509ChainVerifier.Result::getStatus).containsExactly(
+                X509ChainVerifier.Status.VALID, X509ChainVerifier.Status.REVOKED, X509ChainVerifier.Status.VALID);
+        assertThat(requests.get("/ocsp").get()).isEqualTo(1);
+    }
+
+    @Test
+    public void asksOcspResponderAboutEachCertificateIfNotAllAreAnswered() throws Exception {
+        // responder that only answers about the first certificate of a request
+        serve("/ocsp", exchange -> respond(exchange, 200, generateOcspResponse(exchange, 1)));
+        String ocspUrl = getUrl("/ocsp");
+
+        Map<String, X509Certificate[]> chains = new LinkedHashMap<>();
+        chains.put("leaf1", chain(generateLeaf("CN=leaf1", BigInteger.valueOf(2), null, ocspUrl)));
+        chains.put("revoked", chain(generateLeaf("CN=revoked", REVOKED_SERIAL, null, ocspUrl)));
+        chains.put("leaf2", chain(generateLeaf("CN=leaf2", BigInteger.valueOf(3), null, ocspUrl)));
+
+        List<X509ChainVerifier.Result> results = verifier(X509ChainVerifier.Revocation.OCSP).verify(chains);
+
+        assertThat(results).extracting(X509ChainVerifier.Result::getStatus).containsExactly(
+                X509ChainVerifier.Status.VALID, X509ChainVerifier.Status.REVOKED, X509ChainVerifier.Status.VALID);
+        assertThat(requests.get("/ocsp").get()).isEqualTo(3);
+    }
+
+    @Test
+    public void unavailableRevocationStatusIsUndetermined() throws Exception {
+        serve("/ca.crl", exchange -> respond(exchange, 404, new byte[0]));
+        String crlUrl = getUrl("/ca.crl");
+
+        KeyPair otherCaKeyPair = KeyPairUtil.generateKeyPair(KeyPairType.RSA, 2048, KSE.BC);
+        X509Certificate untrusted = new X509CertificateGenerator(X509CertificateVersion.VERSION3).generate(
+                new X500Name("CN=untrusted"), new X500Name("CN=Other CA"), new Date(), tomorrow(),
+                rsaKeyPair.getPublic(), otherCaKeyPair.getPrivate(), SignatureType.SHA256_RSA, BigInteger.TEN);
+
+        Map<String, X509Certificate[]> chains = new LinkedHashMap<>();
+        chains.put("leaf", chain(generateLeaf("CN=leaf", BigInteger.valueOf(2), crlUrl, null)));
+        chains.put("untrusted", new X509Certificate[] { untrusted });
+
+        List<X509ChainVerifier.Result> results = verifier(X509ChainVerifier.Revocation.CRL).verify(chains);
+
+        assertThat(results).extracting(X509ChainVerifier.Result::getStatus).containsExactly(
+                X509ChainVerifier.Status.UNDETERMINED, X509ChainVerifier.Status.INVALID);
+        assertThat(results.get(0).getMessage()).contains("404");
+    }
+
+    @Test
+    public void requiresTrustAnchors() {
+        assertThatThrownBy(() -> new X509ChainVerifier(Collections.emptyList(), X509ChainVerifier.Revocation.NONE,
+                                                       new HttpFetchCache(null, Clock.systemUTC())))
+                .isInstanceOf(CryptoException.class);
+    }
+
+    private X509ChainVerifier verifier(X509ChainVerifier.Revocation revocation) throws CryptoException {
+        X509ChainVerifier verifier = new X509ChainVerifier(Collections.singletonList(caCert), revocation,
+                                                           new HttpFetchCache(null, Clock.systemUTC()));
+        verifier.setParallelism(2);
+        return verifier;
+    }
+
+    private X509Certificate[] chain(X509Certificate leaf) {
+        return new X509Certificate[] { leaf, caCert };
+    }
+
+    private X509Certificate generateLeaf(String subject, BigInteger serialNumber, String crlUrl, String ocspUrl)
+            throws Exception {
+        X509ExtensionSet extensions = new X509ExtensionSet();
+
+        if (crlUrl != null) {
+            GeneralNames names = new GeneralNames(new GeneralName(GeneralName.uniformResourceIdentifier, crlUrl));
+            CRLDistPoint crlDistPoint = new CRLDistPoint(new DistributionPoint[] {
+                    new DistributionPoint(new DistributionPointName(names), null, null) });
+            extensions.addExtension(Extension.cRLDistributionPoints.getId(), false,
+                                    X509Ext.wrapInOctetString(crlDistPoint.getEncoded(ASN1Encoding.DER)));
+        }
+
+        if (ocspUrl != null) {
+            AuthorityInformationAccess aia = new AuthorityInformationAccess(
+                    AccessDescription.id_ad_ocsp, new GeneralName(GeneralName.uniformResourceIdentifier, ocspUrl));
+            extensions.addExtension(Extension.authorityInfoAccess.getId(), false,
+                                    X509Ext.wrapInOctetString(aia.getEncoded(ASN1Encoding.DER)));
+        }
+
+        return new X509CertificateGenerator(X509CertificateVersion.VERSION3).generate(
+                new X500Name(subject), CA, new Date(), tomorrow(), rsaKeyPair.getPublic(), caKeyPair.getPrivate(),
+                SignatureType.SHA256_RSA, serialNumber, extensions, KSE.BC);
+    }
+
+    private static X509Certificate generate(X500Name subject, KeyPair keyPair, BigInteger serialNumber,
+                                            X509ExtensionSet extensions) throws Exception {
+        return new X509CertificateGenerator(X509CertificateVersion.VERSION3).generate(
+                subject, subject, new Date(), tomorrow(), keyPair.getPublic(), keyPair.getPrivate(),
+                SignatureType.SHA256_RSA, serialNumber, extensions, KSE.BC);
+    }
+
+    private static byte[] generateCrl() throws Exception {
+        Date now = new Date();
+        X509v2CRLBuilder crlBuilder = new X509v2CRLBuilder(CA, now);
+        crlBuilder.setNextUpdate(tomorrow());
+        crlBuilder.addCRLEntry(REVOKED_SERIAL, revocationDate(), CRLReason.keyCompromise);
+
+        return crlBuilder.build(signer()).getEncoded();
+    }
+
+    private static byte[] generateOcspResponse(HttpExchange exchange, int maxAnswers) throws Exception {
+        OCSPReq request = new OCSPReq(IOUtils.toByteArray(exchange.getRequestBody()));
+
+        Date now = new Date();
+        BasicOCSPRespBuilder builder = new BasicOCSPRespBuilder(new RespID(CA));
+
+        Req[] certRequests = request.getRequestList();
+        for (int i = 0; i < Math.min(maxAnswers, certRequests.length); i++) {
+            Req certRequest = certRequests[i];
+
+            CertificateStatus status = CertificateStatus.GOOD;
+            if (REVOKED_SERIAL.equals(certRequest.getCertID().getSerialNumber())) {
+                status = new RevokedStatus(revocationDate(), CRLReason.keyCompromise);
+            }
+            builder.addResponse(certRequest.getCertID(), status, now, tomorrow());
+        }
+
+        return new OCSPRespBuilder().build(OCSPRespBuilder.SUCCESSFUL,
+                                           builder.build(signer(), new X509CertificateHolder[0], now)).getEncoded();
+    }
+
+    private static ContentSigner signer() throws Exception {
+        return new JcaContentSignerBuilder("SHA256withRSA").build(caKeyPair.getPrivate());
+    }
+
+    private static Date revocationDate() {
+        // a revocation only counts if it is before the validation date, which the verifier takes before the
+        // revocation data is fetched and which the encoded times do not resolve finer than seconds
+        return new Date(System.currentTimeMillis() - TimeUnit.HOURS.toMillis(1));
+    }
+
+    private static Date tomorrow() {
+        return new Date(System.currentTimeMillis() + TimeUnit.DAYS.toMillis(1));
+    }
+
+    private String getUrl(String path) {
+        return "http://127.0.0.1:" + server.getAddress().getPort() + path;
+    }
+
+    private void serve(String path, ExchangeHandler handler) {
+        requests.put(path, new AtomicInteger());
+        server.createContext(path, exchange -> {
+            requests.get(path).incrementAndGet();
+            try {
+                handler.handle(exchange);
+            } catch (Exception ex) {
+                respond(exchange, 500, new byte[0]);
+            }
+        });
+    }
+
+    private static void respond(HttpExchange exchange, int status, byte[] content) throws IOException {
+        exchange.sendResponseHeaders(status, content.length == 0 ? -1 : content.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(content);
+        }
+    }
+
+    private interface ExchangeHandler {
+        void handle(HttpExchange exchange) throws Exception;
+    }
+}
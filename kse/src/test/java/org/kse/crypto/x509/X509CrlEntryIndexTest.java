@@ -0,0 +1,159 @@
+/*
+ * Copyright 2004 - 2013 Wayne Grant
+ *           2013 - 2025 Kai Kramer
+ *
+ * This file is part of KeyStore Explorer.
+ *
+ * KeyStore Explorer is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * KeyStore Explorer is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with KeyStore Explorer.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.kse.crypto.x509;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.Random;
+
+import org.bouncycastle.asn1.ASN1Encodable;
+import org.bouncycastle.asn1.ASN1Integer;
+import org.bouncycastle.asn1.DERBitString;
+import org.bouncycastle.asn1.DERSequence;
+import org.bouncycastle.asn1.x500.X500Name;
+import org.bouncycastle.asn1.x509.AlgorithmIdentifier;
+import org.bouncycastle.asn1.x509.CRLReason;
+import org.bouncycastle.asn1.x509.Extension;
+import org.bouncycastle.asn1.x509.Time;
+import org.bouncycastle.asn1.x509.V2TBSCertListGenerator;
+import org.bouncycastle.asn1.x9.X9ObjectIdentifiers;
+import org.junit.jupiter.api.Test;
+import org.kse.crypto.CryptoException;
+import org.kse.crypto.CryptoTestsBase;
+
+/**
+ * Unit tests for X509CrlEntryIndex.
+ */
+public class X509CrlEntryIndexTest extends CryptoTestsBase {
+    private static final AlgorithmIdentifier SIG_ALG = new AlgorithmIdentifier(
+            X9ObjectIdentifiers.ecdsa_with_SHA256);
+
+    @Test
+    public void entriesAreSortedBySerialNumber() throws Exception {
+        Random random = new Random(1);
+        List<BigInteger> serialNumbers = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            serialNumbers.add(i % 100 == 0 ? BigInteger.valueOf(i % 3 - 1) : new BigInteger(1 + random.nextInt(160),
+                                                                                            random));
+        }
+        serialNumbers.add(serialNumbers.get(10));
+
+        X509CrlEntryIndex index = X509CrlEntryIndex.of(createCrl(serialNumbers));
+
+        List<BigInteger> sorted = new ArrayList<>(serialNumbers);
+        Collections.sort(sorted);
+
+        assertThat(index.size()).isEqualTo(sorted.size());
+        for (int i = 0; i < sorted.size(); i++) {
+            assertThat(index.getSerialNumber(i)).isEqualTo(sorted.get(i));
+        }
+    }
+
+    @Test
+    public void findsSerialNumbers() throws Exception {
+        List<BigInteger> serialNumbers = Arrays.asList(BigInteger.valueOf(300), BigInteger.valueOf(5),
+                                                       BigInteger.valueOf(5), BigInteger.valueOf(-7));
+
+        X509CrlEntryIndex index = X509CrlEntryIndex.of(createCrl(serialNumbers));
+
+        assertThat(index.indexOf(BigInteger.valueOf(-7))).isZero();
+        assertThat(index.indexOf(BigInteger.valueOf(5))).isEqualTo(1);
+        assertThat(index.indexOf(BigInteger.valueOf(300))).isEqualTo(3);
+        assertThat(index.indexOf(BigInteger.valueOf(6))).isEqualTo(-4);
+        assertThat(index.indexOf(BigInteger.valueOf(-8))).isEqualTo(-1);
+    }
+
+    @Test
+    public void duplicateSerialNumbersAreKeptInCrlOrder() throws Exception {
+        V2TBSCertListGenerator generator = new V2TBSCertListGenerator();
+        generator.setIssuer(new X500Name("CN=CA"));
+        generator.setSignature(SIG_ALG);
+        generator.setThisUpdate(new Time(new Date()));
+        generator.addCRLEntry(new ASN1Integer(9), new Time(new Date(3000000L)), 0);
+        generator.addCRLEntry(new ASN1Integer(4), new Time(new Date(1000000L)), 0);
+        generator.addCRLEntry(new ASN1Integer(9), new Time(new Date(2000000L)), 0);
+
+        X509CrlEntryIndex index = X509CrlEntryIndex.of(sign(generator));
+
+        // unlike a map by serial number, the index shows every entry of a malformed CRL
+        assertThat(index.size()).isEqualTo(3);
+        assertThat(index.indexOf(BigInteger.valueOf(9))).isEqualTo(1);
+        assertThat(index.getRevocationDate(1)).isEqualTo(new Date(3000000L));
+        assertThat(index.getRevocationDate(2)).isEqualTo(new Date(2000000L));
+    }
+
+    @Test
+    public void entriesAreDecodedOnDemand() throws Exception {
+        X509CrlEntryIndex index = X509CrlEntryIndex.of(
+                createCrl(Arrays.asList(BigInteger.valueOf(2), BigInteger.valueOf(1))));
+
+        // entries with an odd serial number have a reason code
+        assertThat(index.hasExtensions(0)).isTrue();
+        assertThat(index.hasExtensions(1)).isFalse();
+        assertThat(index.getRevocationDate(1)).isEqualTo(new Date(2000000L));
+        assertThat(index.getEntry(0).getSerialNumber()).isEqualTo(BigInteger.ONE);
+        assertThat(index.getEntry(0).getExtensionValue(Extension.reasonCode.getId())).isNotNull();
+    }
+
+    @Test
+    public void crlWithoutEntries() throws Exception {
+        X509CrlEntryIndex index = X509CrlEntryIndex.of(createCrl(Collections.emptyList()));
+
+        assertThat(index.size()).isZero();
+        assertThat(index.indexOf(BigInteger.ONE)).isEqualTo(-1);
+    }
+
+    @Test
+    public void malformedCrl() throws Exception {
+        byte[] crl = createCrl(Arrays.asList(BigInteger.ONE, BigInteger.TEN));
+
+        assertThatThrownBy(() -> X509CrlEntryIndex.of(Arrays.copyOf(crl, crl.length - 1))).isInstanceOf(
+                CryptoException.class);
+        assertThatThrownBy(() -> X509CrlEntryIndex.of(new byte[] { 0x30, 0x00 })).isInstanceOf(
+                CryptoException.class);
+    }
+
+    private static byte[] createCrl(List<BigInteger> serialNumbers) throws Exception {
+        V2TBSCertListGenerator generator = new V2TBSCertListGenerator();
+        generator.setIssuer(new X500Name("CN=CA"));
+        generator.setSignature(SIG_ALG);
+        generator.setThisUpdate(new Time(new Date()));
+
+        for (BigInteger serialNumber : serialNumbers) {
+            Date revocationDate = new Date((serialNumber.intValue() & 0xffff) * 1000000L);
+            int reason = serialNumber.testBit(0) ? CRLReason.keyCompromise : 0;
+            generator.addCRLEntry(new ASN1Integer(serialNumber), new Time(revocationDate), reason);
+        }
+
+        return sign(generator);
+    }
+
+    static byte[] sign(V2TBSCertListGenerator generator) throws Exception {
+        return new DERSequence(new ASN1Encodable[] { generator.generateTBSCertList(), SIG_ALG,
+                                                     new DERBitString(new byte[64]) }).getEncoded();
+    }
+}
@@ -0,0 +1,117 @@
+/*
+ * Copyright 2004 - 2013 Wayne Grant
+ *           2013 - 2025 Kai Kramer
+ *
+ * This file is part of KeyStore Explorer.
+ *
+ * KeyStore Explorer is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * KeyStore Explorer is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with KeyStore Explorer.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.kse.crypto.x509;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.security.cert.X509CRL;
+import java.util.Date;
+
+import org.bouncycastle.asn1.ASN1Integer;
+import org.bouncycastle.asn1.x500.X500Name;
+import org.bouncycastle.asn1.x509.AlgorithmIdentifier;
+import org.bouncycastle.asn1.x509.CRLNumber;
+import org.bouncycastle.asn1.x509.Extension;
+import org.bouncycastle.asn1.x509.Extensions;
+import org.bouncycastle.asn1.x509.Time;
+import org.bouncycastle.asn1.x509.V2TBSCertListGenerator;
+import org.bouncycastle.asn1.x9.X9ObjectIdentifiers;
+import org.junit.jupiter.api.Test;
+import org.kse.crypto.CryptoException;
+import org.kse.crypto.CryptoTestsBase;
+import org.kse.utilities.pem.PemInfo;
+import org.kse.utilities.pem.PemUtil;
+
+/**
+ * Unit tests for X509CrlHeader.
+ */
+public class X509CrlHeaderTest extends CryptoTestsBase {
+
+    @Test
+    public void headerMatchesFullyDecodedCrl() throws Exception {
+        byte[] encoding = createCrl(true);
+
+        X509CrlHeader header = X509CrlHeader.of(encoding);
+        X509CRL crl = X509CertUtil.loadCRL(encoding);
+
+        assertThat(header.getEncoded()).isSameAs(encoding);
+        assertThat(header.getVersion()).isEqualTo(crl.getVersion());
+        assertThat(header.getIssuerX500Principal()).isEqualTo(crl.getIssuerX500Principal());
+        assertThat(header.getThisUpdate()).isEqualTo(crl.getThisUpdate());
+        assertThat(header.getNextUpdate()).isEqualTo(crl.getNextUpdate());
+        assertThat(header.getSigAlgOID()).isEqualTo(crl.getSigAlgOID());
+        assertThat(header.getSigAlgParams()).isEqualTo(crl.getSigAlgParams());
+        assertThat(header.getCriticalExtensionOIDs()).isEqualTo(crl.getCriticalExtensionOIDs());
+        assertThat(header.getNonCriticalExtensionOIDs()).isEqualTo(crl.getNonCriticalExtensionOIDs());
+        assertThat(header.getExtensionValue(Extension.cRLNumber.getId())).isEqualTo(
+                crl.getExtensionValue(Extension.cRLNumber.getId()));
+        assertThat(header.getExtensionValue(Extension.deltaCRLIndicator.getId())).isNull();
+        assertThat(header.hasUnsupportedCriticalExtension()).isFalse();
+    }
+
+    @Test
+    public void optionalFieldsAreMissing() throws Exception {
+        X509CrlHeader header = X509CrlHeader.of(createCrl(false));
+
+        assertThat(header.getNextUpdate()).isNull();
+        assertThat(header.getCriticalExtensionOIDs()).isNull();
+        assertThat(header.getNonCriticalExtensionOIDs()).isNull();
+        assertThat(header.getExtensionValue(Extension.cRLNumber.getId())).isNull();
+    }
+
+    @Test
+    public void pemEncodedCrl() throws Exception {
+        byte[] encoding = createCrl(true);
+        byte[] pem = PemUtil.encode(new PemInfo("X509 CRL", null, encoding)).getBytes(StandardCharsets.US_ASCII);
+
+        X509CrlHeader header = X509CrlHeader.of(pem);
+
+        assertThat(header.getEncoded()).isEqualTo(encoding);
+        assertThat(X509CrlEntryIndex.of(header.getEncoded()).size()).isEqualTo(2);
+    }
+
+    @Test
+    public void notACrl() {
+        assertThatThrownBy(() -> X509CrlHeader.of(new byte[0])).isInstanceOf(CryptoException.class);
+        assertThatThrownBy(() -> X509CrlHeader.of(new byte[] { 0x30, 0x00 })).isInstanceOf(CryptoException.class);
+        assertThatThrownBy(() -> X509CrlHeader.of("not a CRL".getBytes(StandardCharsets.US_ASCII))).isInstanceOf(
+                CryptoException.class);
+    }
+
+    private static byte[] createCrl(boolean optionalFields) throws Exception {
+        V2TBSCertListGenerator generator = new V2TBSCertListGenerator();
+        generator.setIssuer(new X500Name("CN=CA,O=KSE"));
+        generator.setSignature(new AlgorithmIdentifier(X9ObjectIdentifiers.ecdsa_with_SHA256));
+        generator.setThisUpdate(new Time(new Date(1000000000L)));
+        generator.addCRLEntry(new ASN1Integer(1), new Time(new Date(2000000L)), 0);
+        generator.addCRLEntry(new ASN1Integer(2), new Time(new Date(3000000L)), 0);
+
+        if (optionalFields) {
+            generator.setNextUpdate(new Time(new Date(2000000000L)));
+            generator.setExtensions(new Extensions(
+                    new Extension(Extension.cRLNumber, false, new CRLNumber(BigInteger.TEN).getEncoded())));
+        }
+
+        return X509CrlEntryIndexTest.sign(generator);
+    }
+}
@@ -0,0 +1,136 @@
+/*
+ * Copyright 2004 - 2013 Wayne Grant
+ *           2013 - 2025 Kai Kramer
+ *
+ * This file is part of KeyStore Explorer.
+ *
+ * KeyStore Explorer is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * KeyStore Explorer is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with KeyStore Explorer.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.kse.crypto.x509;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.math.BigInteger;
+import java.security.KeyPair;
+import java.security.cert.X509Certificate;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import javax.security.auth.x500.X500Principal;
+
+import org.bouncycastle.asn1.ASN1Encoding;
+import org.bouncycastle.asn1.x500.X500Name;
+import org.bouncycastle.asn1.x509.Extension;
+import org.bouncycastle.asn1.x509.KeyUsage;
+import org.junit.jupiter.api.Test;
+import org.kse.KSE;
+import org.kse.crypto.CryptoException;
+import org.kse.crypto.KeyPairTestsBase;
+import org.kse.crypto.keypair.KeyPairType;
+import org.kse.crypto.keypair.KeyPairUtil;
+import org.kse.crypto.signing.SignatureType;
+
+/**
+ * Unit tests for X509SignerContext.
+ */
+public class X509SignerContextTest extends KeyPairTestsBase {
+    private static final X500Name ISSUER = new X500Name("CN=CA");
+
+    @Test
+    public void generatesVersion3CertificateWithExtensions() throws Exception {
+        X509ExtensionSet extensions = new X509ExtensionSet();
+        extensions.addExtension(Extension.keyUsage.getId(), true, X509Ext.wrapInOctetString(
+                new KeyUsage(KeyUsage.digitalSignature).getEncoded(ASN1Encoding.DER)));
+
+        X509SignerContext context = new X509SignerContext(rsaKeyPair.getPrivate(), SignatureType.SHA256_RSA, null);
+
+        X509Certificate cert = context.generate(X509CertificateVersion.VERSION3, new X500Name("CN=a"), ISSUER, null,
+                                                null, dsaKeyPair.getPublic(), BigInteger.TEN, extensions);
+
+        cert.verify(rsaKeyPair.getPublic());
+        assertThat(cert.getVersion()).isEqualTo(3);
+        assertThat(cert.getSubjectX500Principal()).isEqualTo(new X500Principal("CN=a"));
+        assertThat(cert.getIssuerX500Principal()).isEqualTo(new X500Principal("CN=CA"));
+        assertThat(cert.getSerialNumber()).isEqualTo(BigInteger.TEN);
+        assertThat(cert.getPublicKey()).isEqualTo(dsaKeyPair.getPublic());
+        assertThat(cert.getCriticalExtensionOIDs()).containsExactly(Extension.keyUsage.getId());
+        assertThat(cert.getNotAfter()).isAfter(new Date());
+    }
+
+    @Test
+    public void generatesVersion1Certificate() throws Exception {
+        KeyPair ecKeyPair = KeyPairUtil.generateECKeyPair("prime256v1", KSE.BC);
+        X509SignerContext context = new X509SignerContext(ecKeyPair.getPrivate(), SignatureType.SHA256_ECDSA,
+                                                          KSE.BC);
+
+        X509Certificate cert = context.generate(X509CertificateVersion.VERSION1, ISSUER, ISSUER, null, null,
+                                                ecKeyPair.getPublic(), BigInteger.ONE, new X509ExtensionSet());
+
+        cert.verify(ecKeyPair.getPublic());
+        assertThat(cert.getVersion()).isEqualTo(1);
+    }
+
+    @Test
+    public void reusesSignerForEdDsa() throws Exception {
+        KeyPair edKeyPair = KeyPairUtil.generateKeyPair(KeyPairType.ED25519, 256, KSE.BC);
+        X509SignerContext context = new X509SignerContext(edKeyPair.getPrivate(), SignatureType.ED25519, KSE.BC);
+
+        for (int i = 1; i <= 3; i++) {
+            X509Certificate cert = context.generate(X509CertificateVersion.VERSION3, new X500Name("CN=" + i), ISSUER,
+                                                    null, null, rsaKeyPair.getPublic(), BigInteger.valueOf(i), null);
+            cert.verify(edKeyPair.getPublic());
+        }
+    }
+
+    @Test
+    public void issuesConcurrently() throws Exception {
+        X509SignerContext context = new X509SignerContext(rsaKeyPair.getPrivate(), SignatureType.SHA256_RSA,
+                                                          KSE.BC);
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<X509Certificate>> futures = new ArrayList<>();
+            for (int i = 0; i < 40; i++) {
+                BigInteger serialNumber = BigInteger.valueOf(i + 1);
+                futures.add(executor.submit(
+                        () -> context.generate(X509CertificateVersion.VERSION3, new X500Name("CN=" + serialNumber),
+                                               ISSUER, null, null, dsaKeyPair.getPublic(), serialNumber, null)));
+            }
+
+            Set<BigInteger> serialNumbers = new HashSet<>();
+            for (Future<X509Certificate> future : futures) {
+                X509Certificate cert = future.get();
+                cert.verify(rsaKeyPair.getPublic());
+                assertThat(cert.getSubjectX500Principal().getName()).isEqualTo("CN=" + cert.getSerialNumber());
+                serialNumbers.add(cert.getSerialNumber());
+            }
+            assertThat(serialNumbers).hasSize(40);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void rejectsKeyNotMatchingSignatureType() {
+        assertThatThrownBy(() -> new X509SignerContext(rsaKeyPair.getPrivate(), SignatureType.SHA256_ECDSA, KSE.BC))
+                .isInstanceOf(CryptoException.class);
+    }
+}
@@ -0,0 +1,343 @@
+/*
+ * Copyright 2004 - 2013 Wayne Grant
+ *           2013 - 2025 Kai Kramer
+ *
+ * This file is part of KeyStore Explorer.
+ *
+ * KeyStore Explorer is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * KeyStore Explorer is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with KeyStore Explorer.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.kse.gui;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.math.BigInteger;
+import java.security.Key;
+import java.security.KeyStore;
+import java.security.KeyStoreException;
+import java.security.KeyStoreSpi;
+import java.security.NoSuchAlgorithmException;
+import java.security.UnrecoverableKeyException;
+import java.security.cert.Certificate;
+import java.security.cert.CertificateException;
+import java.security.cert.X509Certificate;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.Enumeration;
+import java.util.List;
+
+import javax.swing.SwingUtilities;
+import javax.swing.SwingWorker;
+
+import org.bouncycastle.asn1.x500.X500Name;
+import org.junit.jupiter.api.Test;
+import org.kse.crypto.KeyPairTestsBase;
+import org.kse.crypto.keystore.KeyStoreType;
+import org.kse.crypto.keystore.KeyStoreUtil;
+import org.kse.crypto.signing.SignatureType;
+import org.kse.crypto.x509.X509CertificateGenerator;
+import org.kse.crypto.x509.X509CertificateVersion;
+import org.kse.gui.passwordmanager.Password;
+import org.kse.utilities.history.HistoryAction;
+import org.kse.utilities.history.KeyStoreHistory;
+import org.kse.utilities.history.KeyStoreState;
+
+/**
+ * Unit tests for KeyStoreTableModel. Checks that the rows follow the entries of the current state when the
+ * model is updated after entries are added and deleted and after undo and redo.
+ */
+public class KeyStoreTableModelTest extends KeyPairTestsBase {
+    private static final HistoryAction ACTION = () -> "test";
+
+    private final KeyStoreTableColumns columns = new KeyStoreTableColumns();
+
+    @Test
+    public void updateFollowsChangesOfDerivedStates() throws Exception {
+        X509Certificate cert = generateCertificate();
+
+        KeyStore keyStore = KeyStoreUtil.create(KeyStoreType.JKS);
+        keyStore.setCertificateEntry("one", cert);
+
+        KeyStoreHistory history = new KeyStoreHistory(keyStore, "test", new Password(new char[] { 'p', 'w' }), null);
+        KeyStoreTableModel model = new KeyStoreTableModel(columns, 0);
+        model.load(history);
+
+        changeEntries(history, ks -> ks.setCertificateEntry("two", cert));
+        model.update(history);
+        assertThat(getAliases(model)).containsExactly("one", "two");
+
+        changeEntries(history, ks -> ks.deleteEntry("one"));
+        model.update(history);
+        assertThat(getAliases(model)).containsExactly("two");
+
+        history.getCurrentState().setPreviousStateAsCurrentState();
+        model.update(history);
+        assertThat(getAliases(model)).containsExactly("one", "two");
+
+        history.getCurrentState().setPreviousStateAsCurrentState();
+        model.update(history);
+        assertThat(getAliases(model)).containsExactly("one");
+
+        history.getCurrentState().setNextStateAsCurrentState();
+        model.update(history);
+        assertThat(getAliases(model)).containsExactly("one", "two");
+
+        history.getCurrentState().setNextStateAsCurrentState();
+        model.update(history);
+        assertThat(getAliases(model)).containsExactly("two");
+    }
+
+    @Test
+    public void updateFollowsChangesOfKeyStoreChangedInPlace() throws Exception {
+        X509Certificate cert = generateCertificate();
+
+        KeyStore keyStore = createInPlaceKeyStore();
+        keyStore.setCertificateEntry("one", cert);
+
+        KeyStoreHistory history = new KeyStoreHistory(keyStore, "test", null, null);
+        KeyStoreTableModel model = new KeyStoreTableModel(columns, 0);
+        model.load(history);
+
+        changeEntries(history, ks -> ks.setCertificateEntry("two", cert));
+        model.update(history);
+        assertThat(getAliases(model)).containsExactly("one", "two");
+
+        changeEntries(history, ks -> ks.deleteEntry("one"));
+        model.update(history);
+        assertThat(getAliases(model)).containsExactly("two");
+
+        // Undo and redo are not available, the rows keep showing the KeyStore's entries
+        history.getCurrentState().setPreviousStateAsCurrentState();
+        model.update(history);
+        assertThat(getAliases(model)).containsExactly("two");
+
+        history.getCurrentState().setNextStateAsCurrentState();
+        model.update(history);
+        assertThat(getAliases(model)).containsExactly("two");
+    }
+
+    @Test
+    public void backgroundLoadAddsAllRowsAndMergesColumnWidths() throws Exception {
+        X509Certificate cert = generateCertificate();
+
+        KeyStore keyStore = KeyStoreUtil.create(KeyStoreType.JKS);
+        String longestAlias = "entry-with-the-longest-alias";
+
+        for (int i = 0; i < 250; i++) {
+            keyStore.setCertificateEntry(String.format("entry%03d", i), cert);
+        }
+        keyStore.setCertificateEntry(longestAlias, cert);
+
+        KeyStoreHistory history = new KeyStoreHistory(keyStore, "test", new Password(new char[] { 'p', 'w' }), null);
+        KeyStoreTableModel model = new KeyStoreTableModel(columns, 0);
+
+        SwingWorker<Void, ?> loader = model.loadInBackground(history);
+        loader.get();
+        SwingUtilities.invokeAndWait(() -> {
+            // Wait for the rows published by the loader to be added
+        });
+
+        assertThat(model.getRowCount()).isEqualTo(251);
+        assertThat(getAliases(model)).contains(longestAlias);
+        assertThat(model.getColumnWidth(columns.colIndexEntryName())).isEqualTo(longestAlias.length());
+    }
+
+    @Test
+    public void keyStoreChangedInPlaceIsNotLoadedInBackground() throws Exception {
+        KeyStore keyStore = createInPlaceKeyStore();
+        keyStore.setCertificateEntry("one", generateCertificate());
+
+        KeyStoreHistory history = new KeyStoreHistory(keyStore, "test", null, null);
+        KeyStoreTableModel model = new KeyStoreTableModel(columns, 0);
+
+        SwingWorker<Void, ?> loader = model.loadInBackground(history);
+
+        assertThat(model.isLoading()).isFalse();
+        assertThat(getAliases(model)).containsExactly("one");
+
+        loader.get();
+    }
+
+    private static void changeEntries(KeyStoreHistory history, EntryChanger changer) throws Exception {
+        KeyStoreState currentState = history.getCurrentState();
+        KeyStoreState newState = currentState.createBasisForNextState(ACTION);
+        changer.change(newState.getKeyStore());
+        currentState.append(newState);
+    }
+
+    private List<String> getAliases(KeyStoreTableModel model) {
+        List<String> aliases = new ArrayList<>();
+
+        for (int row = 0; row < model.getRowCount(); row++) {
+            aliases.add((String) model.getValueAt(row, columns.colIndexEntryName()));
+        }
+
+        return aliases;
+    }
+
+    private static X509Certificate generateCertificate() throws Exception {
+        return new X509CertificateGenerator(X509CertificateVersion.VERSION3).generateSelfSigned(
+                new X500Name("CN=test"), 1000L * 60 * 60 * 24, rsaKeyPair.getPublic(), rsaKeyPair.getPrivate(),
+                SignatureType.SHA256_RSA, BigInteger.ONE);
+    }
+
+    /**
+     * Create a KeyStore that reports the PKCS #11 type, so that its history cannot copy it, but keeps its entries
+     * in memory.
+     */
+    private static KeyStore createInPlaceKeyStore() throws Exception {
+        KeyStore entries = KeyStoreUtil.create(KeyStoreType.JKS);
+        KeyStore keyStore = new KeyStore(new DelegatingKeyStoreSpi(entries), entries.getProvider(),
+                                         KeyStoreType.PKCS11.jce()) {
+        };
+        keyStore.load(null, null);
+        return keyStore;
+    }
+
+    private interface EntryChanger {
+        void change(KeyStore keyStore) throws Exception;
+    }
+
+    private static class DelegatingKeyStoreSpi extends KeyStoreSpi {
+        private final KeyStore delegate;
+
+        private DelegatingKeyStoreSpi(KeyStore delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public Key engineGetKey(String alias, char[] password)
+                throws NoSuchAlgorithmException, UnrecoverableKeyException {
+            try {
+                return delegate.getKey(alias, password);
+            } catch (KeyStoreException ex) {
+                throw new IllegalStateException(ex);
+            }
+        }
+
+        @Override
+        public Certificate[] engineGetCertificateChain(String alias) {
+            try {
+                return delegate.getCertificateChain(alias);
+            } catch (KeyStoreException ex) {
+                throw new IllegalStateException(ex);
+            }
+        }
+
+        @Override
+        public Certificate engineGetCertificate(String alias) {
+            try {
+                return delegate.getCertificate(alias);
+            } catch (KeyStoreException ex) {
+                throw new IllegalStateException(ex);
+            }
+        }
+
+        @Override
+        public Date engineGetCreationDate(String alias) {
+            try {
+                return delegate.getCreationDate(alias);
+            } catch (KeyStoreException ex) {
+                throw new IllegalStateException(ex);
+            }
+        }
+
+        @Override
+        public void engineSetKeyEntry(String alias, Key key, char[] password, Certificate[] chain)
+                throws KeyStoreException {
+            delegate.setKeyEntry(alias, key, password, chain);
+        }
+
+        @Override
+        public void engineSetKeyEntry(String alias, byte[] key, Certificate[] chain) throws KeyStoreException {
+            delegate.setKeyEntry(alias, key, chain);
+        }
+
+        @Override
+        public void engineSetCertificateEntry(String alias, Certificate cert) throws KeyStoreException {
+            delegate.setCertificateEntry(alias, cert);
+        }
+
+        @Override
+        public void engineDeleteEntry(String alias) throws KeyStoreException {
+            delegate.deleteEntry(alias);
+        }
+
+        @Override
+        public Enumeration<String> engineAliases() {
+            try {
+                return delegate.aliases();
+            } catch (KeyStoreException ex) {
+                throw new IllegalStateException(ex);
+            }
+        }
+
+        @Override
+        public boolean engineContainsAlias(String alias) {
+            try {
+                return delegate.containsAlias(alias);
+            } catch (KeyStoreException ex) {
+                throw new IllegalStateException(ex);
+            }
+        }
+
+        @Override
+        public int engineSize() {
+            try {
+                return delegate.size();
+            } catch (KeyStoreException ex) {
+                throw new IllegalStateException(ex);
+            }
+        }
+
+        @Override
+        public boolean engineIsKeyEntry(String alias) {
+            try {
+                return delegate.isKeyEntry(alias);
+            } catch (KeyStoreException ex) {
+                throw new IllegalStateException(ex);
+            }
+        }
+
+        @Override
+        public boolean engineIsCertificateEntry(String alias) {
+            try {
+                return delegate.isCertificateEntry(alias);
+            } catch (KeyStoreException ex) {
+                throw new IllegalStateException(ex);
+            }
+        }
+
+        @Override
+        public String engineGetCertificateAlias(Certificate cert) {
+            try {
+                return delegate.getCertificateAlias(cert);
+            } catch (KeyStoreException ex) {
+                throw new IllegalStateException(ex);
+            }
+        }
+
+        @Override
+        public void engineStore(OutputStream stream, char[] password) throws IOException {
+            throw new IOException("Not supported");
+        }
+
+        @Override
+        public void engineLoad(InputStream stream, char[] password) {
+            // Entries are held by the delegate
+        }
+    }
+}
@@ -0,0 +1,217 @@
+/*
+ * Copyright 2004 - 2013 Wayne Grant
+ *           2013 - 2025 Kai Kramer
+ *
+ * This file is part of KeyStore Explorer.
+ *
+ * KeyStore Explorer is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * KeyStore Explorer is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with KeyStore Explorer.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.kse.gui.passwordmanager;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import java.io.File;
+import java.lang.reflect.Field;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.kse.gui.KseRestart;
+import org.kse.gui.preferences.PreferencesManager;
+import org.kse.gui.preferences.passwordmanager.EncryptedKeyStorePasswordData;
+import org.kse.gui.preferences.passwordmanager.EncryptedKeyStorePasswords;
+
+/**
+ * Round trip tests for PasswordManager against a temporary configuration directory. Checks that saved passwords
+ * can be decrypted after reloading the configuration, that saving re-encrypts only the passwords of changed
+ * keystores and that a full re-key takes place when the key derivation settings no longer match.
+ */
+public class PasswordManagerTest {
+    private static final char[] MAIN_PASSWORD = "main password".toCharArray();
+
+    @TempDir
+    File configDir;
+
+    private String installDir;
+
+    private File keyStore1;
+    private File keyStore2;
+    private File keyStore3;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        // a config dir set from outside takes precedence and must not be overwritten
+        assumeTrue(System.getenv("KSE_CONFIG_DIR") == null);
+
+        Files.write(new File(configDir, "config.json").toPath(), "{}".getBytes(StandardCharsets.UTF_8));
+        installDir = System.setProperty(KseRestart.KSE_INSTALL_DIR, configDir.getAbsolutePath());
+        reloadConfiguration();
+
+        keyStore1 = new File(configDir, "keystore1.p12");
+        keyStore2 = new File(configDir, "keystore2.jks");
+        keyStore3 = new File(configDir, "keystore3.bks");
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        if (installDir == null) {
+            System.clearProperty(KseRestart.KSE_INSTALL_DIR);
+        } else {
+            System.setProperty(KseRestart.KSE_INSTALL_DIR, installDir);
+        }
+        reloadConfiguration();
+    }
+
+    @Test
+    void savedPasswordsAreDecryptedAfterReload() throws Exception {
+        PasswordManager passwordManager = initialize();
+
+        assertThat(passwordManager.isInitialized()).isTrue();
+        assertThat(new File(configDir, "keystore-passwords.json")).exists();
+
+        reloadConfiguration();
+        PasswordManager reloaded = new PasswordManager();
+
+        assertThat(reloaded.isInitialized()).isTrue();
+        assertThat(reloaded.isUnlocked()).isFalse();
+        assertThat(reloaded.isKeyStorePasswordKnown(keyStore1)).isTrue();
+        assertThat(reloaded.getAliasList(keyStore1)).containsExactly("key1");
+
+        reloaded.unlock(MAIN_PASSWORD);
+
+        assertThat(reloaded.isUnlocked()).isTrue();
+        assertThat(reloaded.isRekeyingRequired()).isFalse();
+        assertThat(reloaded.getKeyStorePassword(keyStore1)).contains("password1".toCharArray());
+        assertThat(reloaded.getKeyStorePassword(keyStore2)).contains("password2".toCharArray());
+        assertThat(reloaded.getKeyStorePassword(keyStore3)).contains("password3".toCharArray());
+        assertThat(reloaded.getKeyStoreEntryPassword(keyStore1, "key1")).contains("entry1".toCharArray());
+    }
+
+    @Test
+    void onlyPasswordsOfUpdatedKeyStoreAreEncryptedAgain() throws Exception {
+        PasswordManager passwordManager = initialize();
+
+        byte[] salt = getKeyStorePasswords().getKeyDerivationSettings().getSalt();
+        byte[] encryptionKey = getKeyStorePasswords().getEncryptionKey();
+        byte[] encryptedPassword1 = getEncryptedPasswordData(keyStore1).getEncryptedKeyStorePassword();
+        byte[] encryptedPassword2 = getEncryptedPasswordData(keyStore2).getEncryptedKeyStorePassword();
+        byte[] encryptedPassword3 = getEncryptedPasswordData(keyStore3).getEncryptedKeyStorePassword();
+
+        // saving unchanged passwords does not encrypt them again
+        passwordManager.update(keyStore3, "password3".toCharArray(), new HashMap<>());
+        passwordManager.update(keyStore2, "changed".toCharArray(), new HashMap<>());
+
+        assertThat(passwordManager.isRekeyingRequired()).isFalse();
+        passwordManager.save();
+
+        assertThat(getKeyStorePasswords().getKeyDerivationSettings().getSalt()).isEqualTo(salt);
+        assertThat(getKeyStorePasswords().getEncryptionKey()).isEqualTo(encryptionKey);
+        assertThat(getEncryptedPasswordData(keyStore1).getEncryptedKeyStorePassword()).isEqualTo(encryptedPassword1);
+        assertThat(getEncryptedPasswordData(keyStore2).getEncryptedKeyStorePassword()).isNotEqualTo(
+                encryptedPassword2);
+        assertThat(getEncryptedPasswordData(keyStore3).getEncryptedKeyStorePassword()).isEqualTo(encryptedPassword3);
+
+        reloadConfiguration();
+        PasswordManager reloaded = new PasswordManager();
+        reloaded.unlock(MAIN_PASSWORD);
+
+        assertThat(reloaded.getKeyStorePassword(keyStore1)).contains("password1".toCharArray());
+        assertThat(reloaded.getKeyStorePassword(keyStore2)).contains("changed".toCharArray());
+        assertThat(reloaded.getKeyStorePassword(keyStore3)).contains("password3".toCharArray());
+        assertThat(reloaded.getKeyStoreEntryPassword(keyStore1, "key1")).contains("entry1".toCharArray());
+    }
+
+    @Test
+    void changedKeyDerivationSettingsCauseFullRekey() throws Exception {
+        PasswordManager passwordManager = initialize();
+
+        byte[] salt = getKeyStorePasswords().getKeyDerivationSettings().getSalt();
+        byte[] encryptionKey = getKeyStorePasswords().getEncryptionKey();
+        byte[] encryptedPassword1 = getEncryptedPasswordData(keyStore1).getEncryptedKeyStorePassword();
+        byte[] encryptedPassword2 = getEncryptedPasswordData(keyStore2).getEncryptedKeyStorePassword();
+
+        // settings below the current minimum, e.g. written by an older version
+        getKeyStorePasswords().getKeyDerivationSettings().setIterations(PasswordManager.KDF_ITERATIONS - 1);
+
+        assertThat(passwordManager.isRekeyingRequired()).isTrue();
+        passwordManager.save();
+
+        assertThat(getKeyStorePasswords().getKeyDerivationSettings().getIterations()).isGreaterThanOrEqualTo(
+                PasswordManager.KDF_ITERATIONS);
+        assertThat(getKeyStorePasswords().getKeyDerivationSettings().getSalt()).isNotEqualTo(salt);
+        assertThat(getKeyStorePasswords().getEncryptionKey()).isNotEqualTo(encryptionKey);
+        assertThat(getEncryptedPasswordData(keyStore1).getEncryptedKeyStorePassword()).isNotEqualTo(
+                encryptedPassword1);
+        assertThat(getEncryptedPasswordData(keyStore2).getEncryptedKeyStorePassword()).isNotEqualTo(
+                encryptedPassword2);
+
+        reloadConfiguration();
+        PasswordManager reloaded = new PasswordManager();
+        reloaded.unlock(MAIN_PASSWORD);
+
+        assertThat(reloaded.isRekeyingRequired()).isFalse();
+        assertThat(reloaded.getKeyStorePassword(keyStore1)).contains("password1".toCharArray());
+        assertThat(reloaded.getKeyStorePassword(keyStore2)).contains("password2".toCharArray());
+        assertThat(reloaded.getKeyStorePassword(keyStore3)).contains("password3".toCharArray());
+        assertThat(reloaded.getKeyStoreEntryPassword(keyStore1, "key1")).contains("entry1".toCharArray());
+    }
+
+    private PasswordManager initialize() {
+        PasswordManager passwordManager = new PasswordManager();
+
+        assertThat(passwordManager.isInitialized()).isFalse();
+
+        passwordManager.unlock(MAIN_PASSWORD);
+
+        Map<String, char[]> entryPasswords = new HashMap<>();
+        entryPasswords.put("key1", "entry1".toCharArray());
+        passwordManager.update(keyStore1, "password1".toCharArray(), entryPasswords);
+        passwordManager.update(keyStore2, "password2".toCharArray(), new HashMap<>());
+        passwordManager.update(keyStore3, "password3".toCharArray(), new HashMap<>());
+
+        assertThat(passwordManager.isRekeyingRequired()).isTrue();
+        passwordManager.save();
+
+        return passwordManager;
+    }
+
+    private static EncryptedKeyStorePasswords getKeyStorePasswords() {
+        return PreferencesManager.getKeyStorePasswords();
+    }
+
+    private static EncryptedKeyStorePasswordData getEncryptedPasswordData(File keyStoreFile) {
+        List<EncryptedKeyStorePasswordData> passwords = getKeyStorePasswords().getPasswords();
+
+        return passwords.stream()
+                        .filter(d -> d.getKeyStoreFile().getName().equals(keyStoreFile.getName()))
+                        .findFirst()
+                        .orElseThrow();
+    }
+
+    /**
+     * Discard the configuration held in memory, so that it is read from the configuration directory again.
+     */
+    private static void reloadConfiguration() throws Exception {
+        Field keyStorePasswords = PreferencesManager.class.getDeclaredField("keyStorePasswords");
+        keyStorePasswords.setAccessible(true);
+        keyStorePasswords.set(null, null);
+    }
+}
@@ -0,0 +1,123 @@
+/*
+ * Copyright 2004 - 2013 Wayne Grant
+ *           2013 - 2025 Kai Kramer
+ *
+ * This file is part of KeyStore Explorer.
+ *
+ * KeyStore Explorer is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * KeyStore Explorer is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with KeyStore Explorer.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.kse.utilities.asn1;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.StringWriter;
+import java.math.BigInteger;
+import java.security.cert.X509Certificate;
+import java.util.Date;
+import java.util.List;
+
+import org.bouncycastle.asn1.ASN1Encodable;
+import org.bouncycastle.asn1.ASN1Integer;
+import org.bouncycastle.asn1.ASN1RelativeOID;
+import org.bouncycastle.asn1.DEROctetString;
+import org.bouncycastle.asn1.DERSequence;
+import org.bouncycastle.asn1.DERUTF8String;
+import org.bouncycastle.asn1.x500.X500Name;
+import org.junit.jupiter.api.Test;
+import org.kse.crypto.KeyPairTestsBase;
+import org.kse.crypto.signing.SignatureType;
+import org.kse.crypto.x509.X509CertificateGenerator;
+import org.kse.crypto.x509.X509CertificateVersion;
+
+/**
+ * Unit tests for Asn1Dump and Asn1Element.
+ */
+public class Asn1DumpTest extends KeyPairTestsBase {
+
+    @Test
+    public void writerDumpEqualsStringDump() throws Exception {
+        X509Certificate cert = generateCertificate();
+        StringWriter writer = new StringWriter();
+
+        new Asn1Dump().dump(cert.getEncoded(), writer);
+
+        assertThat(writer.toString()).isEqualTo(new Asn1Dump().dump(cert)).contains(
+                "BIT STRING (L:", ", encapsulates:", "OBJECT IDENTIFIER=CommonName (2.5.4.3)",
+                "UTF8 STRING='test'");
+    }
+
+    @Test
+    public void nothingWrittenForUnknownObject() throws Exception {
+        DERSequence sequence = new DERSequence(
+                new ASN1Encodable[] { new ASN1Integer(1), new ASN1RelativeOID("1.2") });
+        StringWriter writer = new StringWriter();
+
+        assertThatThrownBy(() -> new Asn1Dump().dump(sequence, writer)).isInstanceOf(Asn1Exception.class);
+        assertThat(writer.toString()).isEmpty();
+    }
+
+    @Test
+    public void octetStringWithUnknownObjectIsDumpedInHex() throws Exception {
+        DERSequence sequence = new DERSequence(
+                new ASN1Encodable[] { new ASN1Integer(1), new ASN1RelativeOID("1.2") });
+
+        assertThat(new Asn1Dump().dump(new DEROctetString(sequence.getEncoded())))
+                .startsWith("OCTET STRING (L:9)=\n    30 07 02 01 01 0D 02 01  02 ")
+                .doesNotContain("encapsulates");
+    }
+
+    @Test
+    public void elementDecodesChildrenOnDemand() throws Exception {
+        byte[] encoded = new DERSequence(new ASN1Encodable[] {
+                new ASN1Integer(12),
+                new DEROctetString(new DERUTF8String("nested")),
+                new ASN1Integer(BigInteger.ONE.shiftLeft(64)),
+        }).getEncoded();
+
+        Asn1Element element = Asn1Element.of(encoded);
+
+        assertThat(element).hasToString("SEQUENCE");
+        assertThat(element.hasChildren()).isTrue();
+
+        List<Object> children = element.getChildren();
+
+        assertThat(children).hasSize(3);
+        assertThat(children.get(0)).hasToString("INTEGER=12 (0xc)");
+        assertThat(children.get(1)).hasToString("OCTET STRING (L:8), encapsulates:");
+        assertThat(((Asn1Element) children.get(1)).getChildren()).singleElement().hasToString("UTF8 STRING='nested'");
+        assertThat(children.get(2)).hasToString("INTEGER (L:9)");
+        assertThat(((Asn1Element) children.get(2)).getChildren()).singleElement().asString()
+                .startsWith("01 00 00 00 00 00 00 00  00");
+    }
+
+    @Test
+    public void elementRequiresSingleObject() throws Exception {
+        byte[] encoded = new ASN1Integer(1).getEncoded();
+        byte[] trailing = new byte[encoded.length + 1];
+        System.arraycopy(encoded, 0, trailing, 0, encoded.length);
+
+        assertThatThrownBy(() -> Asn1Element.of(trailing)).isInstanceOf(Asn1Exception.class);
+        assertThatThrownBy(() -> Asn1Element.of(new byte[] { 0x30, 0x05, 0x02 })).isInstanceOf(Asn1Exception.class);
+    }
+
+    private X509Certificate generateCertificate() throws Exception {
+        Date validityStart = new Date();
+        Date validityEnd = new Date(validityStart.getTime() + 1000L * 60 * 60 * 24);
+
+        return new X509CertificateGenerator(X509CertificateVersion.VERSION3).generateSelfSigned(
+                new X500Name("CN=test"), validityStart, validityEnd, rsaKeyPair.getPublic(), rsaKeyPair.getPrivate(),
+                SignatureType.SHA256_RSA, BigInteger.ONE);
+    }
+}
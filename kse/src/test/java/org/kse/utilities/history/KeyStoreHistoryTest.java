@@ -0,0 +1,157 @@
+/*
+ * Copyright 2004 - 2013 Wayne Grant
+ *           2013 - 2025 Kai Kramer
+ *
+ * This file is part of KeyStore Explorer.
+ *
+ * KeyStore Explorer is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * KeyStore Explorer is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with KeyStore Explorer.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.kse.utilities.history;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.math.BigInteger;
+import java.security.KeyStore;
+import java.security.cert.X509Certificate;
+
+import org.bouncycastle.asn1.x500.X500Name;
+import org.junit.jupiter.api.Test;
+import org.kse.crypto.KeyPairTestsBase;
+import org.kse.crypto.keystore.KeyStoreType;
+import org.kse.crypto.keystore.KeyStoreUtil;
+import org.kse.crypto.signing.SignatureType;
+import org.kse.crypto.x509.X509CertificateGenerator;
+import org.kse.crypto.x509.X509CertificateVersion;
+import org.kse.gui.passwordmanager.Password;
+
+/**
+ * Unit tests for the retention policy of KeyStoreHistory.
+ */
+public class KeyStoreHistoryTest extends KeyPairTestsBase {
+    private static final HistoryAction ACTION = () -> "test";
+
+    @Test
+    public void oldestStatesAreDiscardedBeyondMaximumDepth() throws Exception {
+        X509Certificate cert = new X509CertificateGenerator(X509CertificateVersion.VERSION3).generateSelfSigned(
+                new X500Name("CN=test"), 1000L * 60 * 60 * 24, rsaKeyPair.getPublic(), rsaKeyPair.getPrivate(),
+                SignatureType.SHA256_RSA, BigInteger.ONE);
+
+        KeyStore keyStore = KeyStoreUtil.create(KeyStoreType.PKCS12);
+        Password password = new Password(new char[] { 'p', 'w' });
+        KeyStoreHistory history = new KeyStoreHistory(keyStore, "test", password, null);
+        history.setRetentionPolicy(3, 0);
+
+        KeyStoreState initialState = history.getCurrentState();
+
+        for (int i = 0; i < 5; i++) {
+            KeyStoreState currentState = history.getCurrentState();
+            KeyStoreState newState = currentState.createBasisForNextState(ACTION);
+            newState.getKeyStore().setCertificateEntry("cert" + i, cert);
+            currentState.append(newState);
+        }
+
+        assertThat(history.isTruncated()).isTrue();
+        assertThat(initialState.isInitialState()).isFalse();
+        assertThat(password.isNulled()).isTrue();
+
+        // Three undo steps are left, the last of them reports the cut-off
+        KeyStoreState state = history.getCurrentState();
+
+        for (int i = 0; i < 3; i++) {
+            assertThat(state.isHistoryLimitReached()).isFalse();
+            state.setPreviousStateAsCurrentState();
+            state = history.getCurrentState();
+        }
+
+        assertThat(state.hasPreviousState()).isFalse();
+        assertThat(state.isHistoryLimitReached()).isTrue();
+        assertThat(state.getKeyStore().size()).isEqualTo(2);
+    }
+
+    @Test
+    public void sharedRootIsCountedUntilLastStateReferencingItIsDiscarded() throws Exception {
+        X509Certificate cert = createCertificate();
+        KeyStore keyStore = createKeyStore(cert, 20);
+        KeyStoreHistory history = new KeyStoreHistory(keyStore, "test", new Password(new char[] { 'p', 'w' }), null);
+
+        for (int i = 0; i < 2; i++) {
+            appendState(history, cert, "cert" + i);
+        }
+
+        // Replacing the KeyStore gives the following states a new root
+        KeyStoreState replacingState = history.getCurrentState().createBasisForNextState(ACTION);
+        replacingState.setKeyStore(createKeyStore(cert, 1));
+        history.getCurrentState().append(replacingState);
+        appendState(history, cert, "cert2");
+
+        // Each derived state indexes all entries but does not hold the root's entries
+        KeyStoreState currentState = history.getCurrentState();
+        long rootSize = DeltaKeyStoreSpi.estimateSize(keyStore);
+
+        assertThat(history.getInitialState().estimateSize()).isZero();
+        assertThat(currentState.estimateSize()).isGreaterThan(0).isLessThan(rootSize);
+
+        // The old root is only released along with the last state that references it
+        history.setRetentionPolicy(0, rootSize);
+
+        assertThat(history.isTruncated()).isTrue();
+        assertThat(currentState.previousState()).isSameAs(replacingState);
+        assertThat(replacingState.hasPreviousState()).isFalse();
+        assertThat(currentState.getKeyStore().size()).isEqualTo(2);
+    }
+
+    @Test
+    public void rootOfCurrentStateLargerThanMaximumSizeKeepsHistory() throws Exception {
+        X509Certificate cert = createCertificate();
+        KeyStore keyStore = createKeyStore(cert, 20);
+        KeyStoreHistory history = new KeyStoreHistory(keyStore, "test", new Password(new char[] { 'p', 'w' }), null);
+        long rootSize = DeltaKeyStoreSpi.estimateSize(keyStore);
+        history.setRetentionPolicy(0, rootSize - 1);
+
+        for (int i = 0; i < 3; i++) {
+            appendState(history, cert, "cert" + i);
+        }
+
+        // Discarding undo states cannot release the root of the current state, so it is not counted
+        KeyStoreState currentState = history.getCurrentState();
+
+        assertThat(history.isTruncated()).isFalse();
+        assertThat(history.getInitialState()).isNotNull();
+        assertThat(currentState.previousState().previousState().previousState().isInitialState()).isTrue();
+        assertThat(currentState.getKeyStore().size()).isEqualTo(23);
+    }
+
+    private X509Certificate createCertificate() throws Exception {
+        return new X509CertificateGenerator(X509CertificateVersion.VERSION3).generateSelfSigned(
+                new X500Name("CN=test"), 1000L * 60 * 60 * 24, rsaKeyPair.getPublic(), rsaKeyPair.getPrivate(),
+                SignatureType.SHA256_RSA, BigInteger.ONE);
+    }
+
+    private static KeyStore createKeyStore(X509Certificate cert, int entries) throws Exception {
+        KeyStore keyStore = KeyStoreUtil.create(KeyStoreType.PKCS12);
+
+        for (int i = 0; i < entries; i++) {
+            keyStore.setCertificateEntry("root" + i, cert);
+        }
+
+        return keyStore;
+    }
+
+    private static void appendState(KeyStoreHistory history, X509Certificate cert, String alias) throws Exception {
+        KeyStoreState currentState = history.getCurrentState();
+        KeyStoreState newState = currentState.createBasisForNextState(ACTION);
+        newState.getKeyStore().setCertificateEntry(alias, cert);
+        currentState.append(newState);
+    }
+}
@@ -0,0 +1,156 @@
+/*
+ * Copyright 2004 - 2013 Wayne Grant
+ *           2013 - 2025 Kai Kramer
+ *
+ * This file is part of KeyStore Explorer.
+ *
+ * KeyStore Explorer is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * KeyStore Explorer is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with KeyStore Explorer.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.kse.utilities.history;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+import java.io.File;
+import java.math.BigInteger;
+import java.security.KeyStore;
+import java.security.cert.Certificate;
+import java.security.cert.X509Certificate;
+import java.util.Collections;
+
+import org.bouncycastle.asn1.x500.X500Name;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.kse.crypto.KeyPairTestsBase;
+import org.kse.crypto.keystore.KeyStoreType;
+import org.kse.crypto.keystore.KeyStoreUtil;
+import org.kse.crypto.signing.SignatureType;
+import org.kse.crypto.x509.X509CertificateGenerator;
+import org.kse.crypto.x509.X509CertificateVersion;
+import org.kse.gui.passwordmanager.Password;
+
+/**
+ * Unit tests for KeyStoreState. Checks that states derived from each other share unchanged entries, keep
+ * their own changes apart and rebuild a complete KeyStore when saved.
+ */
+public class KeyStoreStateTest extends KeyPairTestsBase {
+    private static final Password PASSWORD = new Password(new char[] { 'p', 'a', 's', 's', 'w', 'o', 'r', 'd' });
+
+    private static final HistoryAction ACTION = () -> "test";
+
+    @ParameterizedTest
+    // @formatter:off
+    @CsvSource({
+            "JKS",
+            "JCEKS",
+            "PKCS12",
+            "BKS",
+            "UBER",
+    })
+    // @formatter:on
+    public void entryChangesAreIsolatedBetweenStates(KeyStoreType keyStoreType) throws Exception {
+        X509Certificate cert1 = generateCertificate("CN=one", 1);
+        X509Certificate cert2 = generateCertificate("CN=two", 2);
+
+        KeyStore keyStore = KeyStoreUtil.create(keyStoreType);
+        keyStore.setCertificateEntry("one", cert1);
+        keyStore.setKeyEntry("key", rsaKeyPair.getPrivate(), PASSWORD.toCharArray(), new Certificate[] { cert2 });
+
+        KeyStoreHistory history = new KeyStoreHistory(keyStore, "test", new Password(PASSWORD), null);
+        KeyStoreState initialState = history.getCurrentState();
+
+        // Rename a trusted certificate entry
+        KeyStoreState renamedState = initialState.createBasisForNextState(ACTION);
+        KeyStore renamedKeyStore = renamedState.getKeyStore();
+        renamedKeyStore.setCertificateEntry("renamed", renamedKeyStore.getCertificate("one"));
+        renamedKeyStore.deleteEntry("one");
+        initialState.append(renamedState);
+
+        // Change the password of the key pair entry
+        KeyStoreState passwordState = renamedState.createBasisForNextState(ACTION);
+        KeyStore passwordKeyStore = passwordState.getKeyStore();
+        char[] newPassword = { 'n', 'e', 'w' };
+        passwordKeyStore.setKeyEntry("key", passwordKeyStore.getKey("key", PASSWORD.toCharArray()), newPassword,
+                                     passwordKeyStore.getCertificateChain("key"));
+        renamedState.append(passwordState);
+
+        assertThat(Collections.list(keyStore.aliases())).containsExactlyInAnyOrder("one", "key");
+        assertThat(Collections.list(renamedKeyStore.aliases())).containsExactlyInAnyOrder("renamed", "key");
+        assertThat(Collections.list(passwordKeyStore.aliases())).containsExactlyInAnyOrder("renamed", "key");
+
+        assertThat(renamedKeyStore.getCertificate("renamed")).isEqualTo(cert1);
+        assertThat(renamedKeyStore.getKey("key", PASSWORD.toCharArray())).isEqualTo(rsaKeyPair.getPrivate());
+        assertThat(passwordKeyStore.getKey("key", newPassword)).isEqualTo(rsaKeyPair.getPrivate());
+
+        assertThat(renamedState.getEntryChanges()).extracting(EntryChange::getType, EntryChange::getAlias)
+                                                  .containsExactly(tuple(EntryChange.Type.ADDED, "renamed"),
+                                                                   tuple(EntryChange.Type.REMOVED, "one"));
+        assertThat(passwordState.getEntryChanges()).extracting(EntryChange::getType)
+                                                   .containsExactly(EntryChange.Type.REPLACED);
+
+        // Saving rebuilds a complete KeyStore of the original type
+        File keyStoreFile = File.createTempFile("keystore", keyStoreType.jce().toLowerCase());
+        keyStoreFile.deleteOnExit();
+
+        KeyStoreUtil.save(passwordKeyStore, keyStoreFile, PASSWORD);
+        KeyStore loadedKeyStore = KeyStoreUtil.load(keyStoreFile, PASSWORD, keyStoreType);
+
+        assertThat(loadedKeyStore.getType()).isEqualTo(keyStoreType.jce());
+        assertThat(Collections.list(loadedKeyStore.aliases())).containsExactlyInAnyOrder("renamed", "key");
+        assertThat(loadedKeyStore.getCertificate("renamed")).isEqualTo(cert1);
+        assertThat(loadedKeyStore.getKey("key", newPassword)).isEqualTo(rsaKeyPair.getPrivate());
+    }
+
+    @ParameterizedTest
+    // @formatter:off
+    @CsvSource({
+            "JKS",
+            "PKCS12",
+    })
+    // @formatter:on
+    public void nullingPasswordsOfStateKeepsLaterStatesReadable(KeyStoreType keyStoreType) throws Exception {
+        X509Certificate cert = generateCertificate("CN=key", 1);
+
+        KeyStoreHistory history = new KeyStoreHistory(KeyStoreUtil.create(keyStoreType), "test",
+                                                      new Password(PASSWORD), null);
+        KeyStoreState initialState = history.getCurrentState();
+
+        // Add a key pair entry, then derive a further state sharing it
+        KeyStoreState addedState = initialState.createBasisForNextState(ACTION);
+        char[] keyPassword = { 'k', 'e', 'y' };
+        addedState.getKeyStore().setKeyEntry("key", rsaKeyPair.getPrivate(), keyPassword, new Certificate[] { cert });
+        initialState.append(addedState);
+
+        KeyStoreState laterState = addedState.createBasisForNextState(ACTION);
+        laterState.getKeyStore().setCertificateEntry("cert", cert);
+        addedState.append(laterState);
+
+        addedState.nullPasswords();
+
+        File keyStoreFile = File.createTempFile("keystore", keyStoreType.jce().toLowerCase());
+        keyStoreFile.deleteOnExit();
+
+        KeyStoreUtil.save(laterState.getKeyStore(), keyStoreFile, PASSWORD);
+        KeyStore loadedKeyStore = KeyStoreUtil.load(keyStoreFile, PASSWORD, keyStoreType);
+
+        assertThat(Collections.list(loadedKeyStore.aliases())).containsExactlyInAnyOrder("key", "cert");
+        assertThat(loadedKeyStore.getKey("key", keyPassword)).isEqualTo(rsaKeyPair.getPrivate());
+    }
+
+    private static X509Certificate generateCertificate(String name, long serialNumber) throws Exception {
+        return new X509CertificateGenerator(X509CertificateVersion.VERSION3).generateSelfSigned(
+                new X500Name(name), 1000L * 60 * 60 * 24, rsaKeyPair.getPublic(), rsaKeyPair.getPrivate(),
+                SignatureType.SHA256_RSA, BigInteger.valueOf(serialNumber));
+    }
+}
@@ -0,0 +1,336 @@
+/*
+ * Copyright 2004 - 2013 Wayne Grant
+ *           2013 - 2025 Kai Kramer
+ *
+ * This file is part of KeyStore Explorer.
+ *
+ * KeyStore Explorer is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * KeyStore Explorer is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with KeyStore Explorer.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.kse.utilities.net;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.reflect.Field;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.commons.io.IOUtils;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+class HttpFetchCacheTest {
+
+    private static final byte[] CONTENT = "content".getBytes(StandardCharsets.US_ASCII);
+
+    @TempDir
+    File tempDir;
+
+    private HttpServer server;
+    private ExecutorService serverExecutor;
+    private final AtomicInteger requests = new AtomicInteger();
+    private final MutableClock clock = new MutableClock();
+
+    @BeforeEach
+    void setUp() throws IOException {
+        serverExecutor = Executors.newCachedThreadPool();
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.setExecutor(serverExecutor);
+        server.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.stop(0);
+        serverExecutor.shutdownNow();
+    }
+
+    @Test
+    void freshResponseIsNotDownloadedAgain() throws Exception {
+        URL url = serve("/ca.crl", exchange -> respond(exchange, 200, CONTENT, "Cache-Control", "max-age=600"));
+        HttpFetchCache cache = new HttpFetchCache(null, clock);
+
+        assertThat(cache.get(url, null)).isEqualTo(CONTENT);
+        clock.advance(TimeUnit.MINUTES.toMillis(5));
+        assertThat(cache.get(url, null)).isEqualTo(CONTENT);
+        assertThat(requests.get()).isEqualTo(1);
+
+        clock.advance(TimeUnit.MINUTES.toMillis(6));
+        assertThat(cache.get(url, null)).isEqualTo(CONTENT);
+        assertThat(requests.get()).isEqualTo(2);
+        assertThat(cache.getDownloads()).isEqualTo(2);
+    }
+
+    @Test
+    void expiredResponseIsRevalidated() throws Exception {
+        URL url = serve("/ca.crl", exchange -> {
+            if ("\"v1\"".equals(exchange.getRequestHeaders().getFirst("If-None-Match"))) {
+                respond(exchange, 304, null, "ETag", "\"v1\"", "Cache-Control", "max-age=60");
+            } else {
+                respond(exchange, 200, CONTENT, "ETag", "\"v1\"", "Cache-Control", "max-age=60");
+            }
+        });
+        HttpFetchCache cache = new HttpFetchCache(null, clock);
+
+        cache.get(url, null);
+        clock.advance(TimeUnit.MINUTES.toMillis(2));
+        assertThat(cache.get(url, null)).isEqualTo(CONTENT);
+
+        // the revalidated response is fresh again
+        assertThat(cache.get(url, null)).isEqualTo(CONTENT);
+        assertThat(requests.get()).isEqualTo(2);
+        assertThat(cache.getDownloads()).isEqualTo(1);
+        assertThat(cache.getRevalidations()).isEqualTo(1);
+    }
+
+    @Test
+    void contentExpiryLimitsFreshness() throws Exception {
+        URL url = serve("/ca.crl", exchange -> respond(exchange, 200, CONTENT, "Cache-Control", "max-age=3600"));
+        HttpFetchCache cache = new HttpFetchCache(null, clock);
+        Instant nextUpdate = clock.instant().plusSeconds(300);
+
+        cache.get(url, content -> nextUpdate);
+        clock.advance(TimeUnit.MINUTES.toMillis(4));
+        cache.get(url, content -> nextUpdate);
+        assertThat(requests.get()).isEqualTo(1);
+
+        clock.advance(TimeUnit.MINUTES.toMillis(2));
+        cache.get(url, content -> nextUpdate);
+        assertThat(requests.get()).isEqualTo(2);
+    }
+
+    @Test
+    void invalidContentIsNotCached() throws Exception {
+        URL url = serve("/ca.crl", exchange -> respond(exchange, 200, CONTENT, "Cache-Control", "max-age=3600"));
+        HttpFetchCache cache = new HttpFetchCache(null, clock);
+
+        HttpFetchCache.ContentExpiry invalid = content -> {
+            throw new IOException("not a CRL");
+        };
+
+        assertThat(cache.get(url, invalid)).isEqualTo(CONTENT);
+        cache.get(url, invalid);
+        assertThat(requests.get()).isEqualTo(2);
+    }
+
+    @Test
+    void noStoreResponseIsNotCached() throws Exception {
+        URL url = serve("/ca.crl", exchange -> respond(exchange, 200, CONTENT, "Cache-Control", "no-store"));
+        HttpFetchCache cache = new HttpFetchCache(null, clock);
+
+        cache.get(url, null);
+        cache.get(url, null);
+        assertThat(requests.get()).isEqualTo(2);
+    }
+
+    @Test
+    void responseIsKeptOnDisk() throws Exception {
+        URL url = serve("/ca.crl", exchange -> respond(exchange, 200, CONTENT, "Cache-Control", "max-age=600"));
+
+        new HttpFetchCache(tempDir, clock).get(url, null);
+        assertThat(new HttpFetchCache(tempDir, clock).get(url, null)).isEqualTo(CONTENT);
+        assertThat(requests.get()).isEqualTo(1);
+    }
+
+    @Test
+    void followsRedirects() throws Exception {
+        serve("/ca.crl", exchange -> respond(exchange, 200, CONTENT));
+        URL url = serve("/old/ca.crl", exchange -> respond(exchange, 302, null, "Location", "/ca.crl"));
+        HttpFetchCache cache = new HttpFetchCache(null, clock);
+
+        assertThat(cache.get(url, null)).isEqualTo(CONTENT);
+        assertThat(requests.get()).isEqualTo(2);
+    }
+
+    @Test
+    void seeOtherAfterPostIsFetchedWithGet() throws Exception {
+        serve("/result", exchange -> respond(exchange, 200, echo(exchange)));
+        URL seeOther = serve("/ocsp", exchange -> respond(exchange, 303, null, "Location", "/result"));
+        URL temporary = serve("/moved", exchange -> respond(exchange, 307, null, "Location", "/result"));
+        HttpFetchCache cache = new HttpFetchCache(null, clock);
+        byte[] request = { 1 };
+
+        assertThat(new String(cache.post(seeOther, "application/ocsp-request", null, request, null),
+                              StandardCharsets.ISO_8859_1)).isEqualTo("GET ");
+        assertThat(new String(cache.post(temporary, "application/ocsp-request", null, request, null),
+                              StandardCharsets.ISO_8859_1)).isEqualTo("POST \u0001");
+    }
+
+    @Test
+    void urlLocksAreRemovedAfterFetching() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        URL url = serve("/ca.crl", exchange -> {
+            try {
+                release.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+            respond(exchange, 200, CONTENT, "Cache-Control", "max-age=600");
+        });
+        HttpFetchCache cache = new HttpFetchCache(null, clock);
+
+        HttpFetchCache.Fetch fetch1 = cache.getInBackground(url, null);
+        HttpFetchCache.Fetch fetch2 = cache.getInBackground(url, null);
+        release.countDown();
+
+        assertThat(fetch1.getResult().get(10, TimeUnit.SECONDS)).isEqualTo(CONTENT);
+        assertThat(fetch2.getResult().get(10, TimeUnit.SECONDS)).isEqualTo(CONTENT);
+        assertThat(requests.get()).isEqualTo(1);
+
+        Field locks = HttpFetchCache.class.getDeclaredField("locks");
+        locks.setAccessible(true);
+        assertThat((Map<?, ?>) locks.get(cache)).isEmpty();
+    }
+
+    @Test
+    void failedDownloadThrowsException() throws Exception {
+        URL url = serve("/ca.crl", exchange -> respond(exchange, 404, null));
+        HttpFetchCache cache = new HttpFetchCache(null, clock);
+
+        assertThatThrownBy(() -> cache.get(url, null)).isInstanceOf(IOException.class).hasMessageContaining("404");
+    }
+
+    @Test
+    void postResponseIsCachedPerRequestBody() throws Exception {
+        URL url = serve("/ocsp", exchange -> {
+            byte[] request = IOUtils.toByteArray(exchange.getRequestBody());
+            respond(exchange, 200, request);
+        });
+        HttpFetchCache cache = new HttpFetchCache(null, clock);
+        Instant nextUpdate = clock.instant().plusSeconds(300);
+        byte[] request1 = { 1 };
+        byte[] request2 = { 2 };
+
+        assertThat(cache.post(url, "application/ocsp-request", null, request1, content -> nextUpdate))
+                .isEqualTo(request1);
+        assertThat(cache.post(url, "application/ocsp-request", null, request1, content -> nextUpdate))
+                .isEqualTo(request1);
+        assertThat(cache.post(url, "application/ocsp-request", null, request2, content -> nextUpdate))
+                .isEqualTo(request2);
+        assertThat(requests.get()).isEqualTo(2);
+
+        // without an expiry a response is never reused
+        cache.post(url, "application/ocsp-request", null, request2, null);
+        cache.post(url, "application/ocsp-request", null, request2, null);
+        assertThat(requests.get()).isEqualTo(4);
+    }
+
+    @Test
+    void cancelledFetchIsNotCompleted() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        URL url = serve("/ca.crl", exchange -> {
+            try {
+                release.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+            respond(exchange, 200, CONTENT);
+        });
+        HttpFetchCache cache = new HttpFetchCache(null, clock);
+
+        try {
+            HttpFetchCache.Fetch fetch = cache.getInBackground(url, null);
+            fetch.cancel();
+
+            assertThat(fetch.isCancelled()).isTrue();
+            assertThat(fetch.getResult()).isCancelled();
+        } finally {
+            release.countDown();
+        }
+    }
+
+    private URL serve(String path, Handler handler) throws IOException {
+        server.createContext(path, exchange -> {
+            requests.incrementAndGet();
+            try {
+                handler.handle(exchange);
+            } finally {
+                exchange.close();
+            }
+        });
+        return new URL("http", server.getAddress().getHostString(), server.getAddress().getPort(), path);
+    }
+
+    private static byte[] echo(HttpExchange exchange) throws IOException {
+        byte[] body = IOUtils.toByteArray(exchange.getRequestBody());
+        return (exchange.getRequestMethod() + " " + new String(body, StandardCharsets.ISO_8859_1)).getBytes(
+                StandardCharsets.ISO_8859_1);
+    }
+
+    private static void respond(HttpExchange exchange, int status, byte[] body, String... headers)
+            throws IOException {
+        for (int i = 0; i < headers.length; i += 2) {
+            exchange.getResponseHeaders().add(headers[i], headers[i + 1]);
+        }
+
+        if (body == null) {
+            exchange.sendResponseHeaders(status, -1);
+            return;
+        }
+
+        exchange.sendResponseHeaders(status, body.length);
+        try (OutputStream os = exchange.getResponseBody()) {
+            os.write(body);
+        }
+    }
+
+    @FunctionalInterface
+    private interface Handler {
+        void handle(HttpExchange exchange) throws IOException;
+    }
+
+    private static class MutableClock extends Clock {
+        private long millis = System.currentTimeMillis();
+
+        void advance(long duration) {
+            millis += duration;
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return Instant.ofEpochMilli(millis);
+        }
+    }
+}
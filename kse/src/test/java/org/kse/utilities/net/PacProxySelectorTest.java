@@ -24,16 +24,28 @@ import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.params.provider.Arguments.of;
 
 import java.io.File;
+import java.net.InetSocketAddress;
 import java.net.Proxy;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
 import java.time.Clock;
 import java.time.Instant;
+import java.time.ZoneId;
 import java.time.ZoneOffset;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Stream;
 
+import org.apache.commons.io.FileUtils;
 import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.Arguments;
 import org.junit.jupiter.params.provider.MethodSource;
@@ -42,6 +54,12 @@ class PacProxySelectorTest {
 
     private static final String TEST_FILES_PATH = "src/test/resources/testdata/PacProxySelectorTest";
 
+    private static final String HOST_PROXY_PAC =
+            "function FindProxyForURL(url, host) { return 'PROXY ' + host + ':8080'; }";
+
+    @TempDir
+    File tempDir;
+
     @BeforeEach
     void setUp() {
         // execute all tests with a fixed "current" date and time (note: the 7. of August 2022 was a Sunday)
@@ -83,4 +101,100 @@ class PacProxySelectorTest {
                 of("pac_sandbox2.js")
         );
     }
-}
\ No newline at end of file
+
+    @Test
+    void cachesByHost() throws Exception {
+        File pacFile = writePacFile(HOST_PROXY_PAC);
+        PacProxySelector selector = new PacProxySelector(pacFile.toURI());
+
+        List<Proxy> proxies = selector.select(new URI("http://www.example.net/ocsp"));
+        assertThat(selector.select(new URI("http://WWW.example.net/crl/ca.crl"))).isEqualTo(proxies);
+        assertThat(selector.select(new URI("https://www.example.net/"))).isEqualTo(proxies);
+        selector.select(new URI("http://www.example.org/"));
+
+        assertThat(proxyHost(proxies)).isEqualTo("www.example.net");
+        assertThat(selector.getCacheHits()).isEqualTo(1);
+        assertThat(selector.getCacheMisses()).isEqualTo(3);
+    }
+
+    @Test
+    void expiresEntriesAndReloadsChangedScript() throws Exception {
+        File pacFile = writePacFile(HOST_PROXY_PAC);
+        MutableClock clock = new MutableClock();
+        PacProxySelector selector = new PacProxySelector(pacFile.toURI(), clock);
+        URI uri = new URI("http://www.example.net/");
+
+        selector.select(uri);
+        clock.advance(TimeUnit.MINUTES.toMillis(10));
+        selector.select(uri);
+        assertThat(selector.getCacheMisses()).isEqualTo(2);
+
+        writePacFile("function FindProxyForURL(url, host) { return 'PROXY other.example.net:3128'; }");
+        assertThat(proxyHost(selector.select(uri))).isEqualTo("www.example.net");
+
+        clock.advance(TimeUnit.MINUTES.toMillis(10));
+        assertThat(proxyHost(selector.select(uri))).isEqualTo("other.example.net");
+    }
+
+    @Test
+    void selectsInParallel() throws Exception {
+        PacProxySelector selector = new PacProxySelector(writePacFile(HOST_PROXY_PAC).toURI());
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<Boolean>> results = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                results.add(executor.submit((Callable<Boolean>) () -> {
+                    for (int j = 0; j < 200; j++) {
+                        String host = "host" + (j % 20) + ".example.net";
+                        if (!host.equals(proxyHost(selector.select(new URI("http://" + host + "/" + j))))) {
+                            return false;
+                        }
+                    }
+                    return true;
+                }));
+            }
+
+            for (Future<Boolean> result : results) {
+                assertThat(result.get()).isTrue();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        assertThat(selector.getCacheHits() + selector.getCacheMisses()).isEqualTo(1600);
+    }
+
+    private File writePacFile(String script) throws Exception {
+        File pacFile = new File(tempDir, "proxy.pac");
+        FileUtils.writeStringToFile(pacFile, script, StandardCharsets.US_ASCII);
+        return pacFile;
+    }
+
+    private static String proxyHost(List<Proxy> proxies) {
+        return ((InetSocketAddress) proxies.get(0).address()).getHostString();
+    }
+
+    private static class MutableClock extends Clock {
+        private long millis = System.currentTimeMillis();
+
+        void advance(long duration) {
+            millis += duration;
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return Instant.ofEpochMilli(millis);
+        }
+    }
+}